@@ -7,12 +7,14 @@
  ******************************************************************************/
 package org.csstudio.alarm.beast.msghist;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.time.format.DateTimeFormatter;
 import java.util.Calendar;
 
 import org.csstudio.alarm.beast.msghist.model.Message;
+import org.csstudio.alarm.beast.msghist.model.MessagePage;
 import org.csstudio.alarm.beast.msghist.model.MessagePropertyFilter;
 import org.csstudio.alarm.beast.msghist.rdb.MessageRDB;
 import org.csstudio.apputil.time.BenchmarkTimer;
@@ -86,4 +88,45 @@ public class MessageRDBIT
                 messages.length, messages.length / timer.getSeconds());
         assertTrue("Got some messages", messages.length > 0);
     }
+
+    /** Read in pages */
+    @Test
+    public void testPages() throws Exception
+    {
+        final MessageRDB log_rdb = new MessageRDB(URL, USER, PASSWORD, SCHEMA);
+
+        final Calendar end = Calendar.getInstance();
+        final Calendar start = (Calendar) end.clone();
+        start.add(Calendar.DATE, -DAYS_TO_READ);
+
+        final MessagePropertyFilter filters[] = new MessagePropertyFilter[]
+        {
+              new MessagePropertyFilter("TEXT", "%"),
+        };
+
+        final BenchmarkTimer timer = new BenchmarkTimer();
+        MessagePage page = log_rdb.getMessagePage(start, end, filters, MessagePage.FIRST, 1, 100,
+                                                  DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        timer.stop();
+        System.out.format("First page of %d messages in %.3f seconds\n",
+                page.getMessages().length, timer.getSeconds());
+        assertTrue("Got some messages", page.getMessages().length > 0);
+
+        int count = 0, last_id = MessagePage.FIRST;
+        for (int i=0; i<5; ++i)
+        {
+            for (Message message : page.getMessages())
+            {   // Pages continue in order of decreasing ID
+                assertTrue(message.getId() < last_id);
+                last_id = message.getId();
+                assertEquals(++count, message.getSequence());
+            }
+            if (! page.hasMore())
+                break;
+            page = log_rdb.getMessagePage(start, end, filters, page.getNextID(), count+1, 100,
+                                          DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        }
+        System.out.println("Read " + count + " messages in pages");
+        log_rdb.close();
+    }
 }
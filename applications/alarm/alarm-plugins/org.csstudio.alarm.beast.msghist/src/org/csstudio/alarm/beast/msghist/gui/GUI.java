@@ -54,7 +54,9 @@ import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Listener;
 import org.eclipse.swt.widgets.Table;
 import org.eclipse.swt.widgets.TableColumn;
 import org.eclipse.swt.widgets.Text;
@@ -74,6 +76,9 @@ import org.eclipse.ui.preferences.ScopedPreferenceStore;
 @SuppressWarnings("nls")
 public class GUI extends Composite implements ModelListener {
 
+    /** Read next page when scrolled to within this many rows of the end */
+    private static final int LOAD_MORE_ROWS = 50;
+
     /** The model. */
     final private Model model;
 
@@ -437,6 +442,17 @@ public class GUI extends Composite implements ModelListener {
             }
         });
 
+        // Virtual table requests data for rows as they become visible.
+        // When the user scrolls close to the end, read the next page.
+        table_viewer.getTable().addListener(SWT.SetData, new Listener() {
+            @Override
+            public void handleEvent(final Event event) {
+                final Table table = (Table) event.widget;
+                if (event.index >= table.getItemCount() - LOAD_MORE_ROWS)
+                    model.loadMore();
+            }
+        });
+
         refresh.addSelectionListener(new SelectionAdapter() {
             @Override
             public void widgetSelected(final SelectionEvent e) {
@@ -17,7 +17,7 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 
 /**
- * Background job for getting messages from RDB.
+ * Background job for getting one page of messages from RDB.
  * <p>
  * The job actually connects to the RDB each time and disconnects when done to avoid timeouts with a long running RDB connection.
  *
@@ -33,7 +33,9 @@ abstract public class GetMessagesJob extends Job {
     final private Calendar start;
     final private Calendar end;
     final private MessagePropertyFilter[] filters;
-    final private int max_messages;
+    final private int before_id;
+    final private int sequence;
+    final private int page_size;
     final private DateTimeFormatter date_format;
 
     /**
@@ -53,14 +55,18 @@ abstract public class GetMessagesJob extends Job {
      *            End time
      * @param filters
      *            Message filters
-     * @param max_messages
-     *            Max. messages count
-     * @param shell
-     *            UI shell to display error dialog
+     * @param before_id
+     *            Read messages below this ID, {@link MessagePage#FIRST} for first page
+     * @param sequence
+     *            Sequence number of first message
+     * @param page_size
+     *            Number of messages to read
+     * @param date_format
+     *            Format for message time
      */
     public GetMessagesJob(final String url, final String user, final String password, final String schema,
-            final Calendar start, final Calendar end, final MessagePropertyFilter filters[], final int max_messages,
-            final DateTimeFormatter date_format) {
+            final Calendar start, final Calendar end, final MessagePropertyFilter filters[], final int before_id,
+            final int sequence, final int page_size, final DateTimeFormatter date_format) {
         super("Get Messages from RDB");
         this.url = url;
         this.user = user;
@@ -69,7 +75,9 @@ abstract public class GetMessagesJob extends Job {
         this.start = start;
         this.end = end;
         this.filters = filters;
-        this.max_messages = max_messages;
+        this.before_id = before_id;
+        this.sequence = sequence;
+        this.page_size = page_size;
         this.date_format = date_format;
     }
 
@@ -78,9 +86,10 @@ abstract public class GetMessagesJob extends Job {
         MessageRDB rdb = null;
         try {
             rdb = new MessageRDB(url, user, password, schema);
-            final Message[] messages = rdb.getMessages(monitor, start, end, filters, max_messages, date_format);
+            final MessagePage page = rdb.getMessagePage(start, end, filters, before_id, sequence, page_size,
+                    date_format);
             if (!monitor.isCanceled())
-                gotMessages(messages);
+                gotMessages(page);
         } catch (final Exception ex) {
             handleError("Message Database Error", ex);
         }
@@ -100,5 +109,5 @@ abstract public class GetMessagesJob extends Job {
     abstract void handleError(final String message, final Exception ex);
 
     /** Derived class must implement to handle received messages */
-    abstract void gotMessages(final Message[] messages);
+    abstract void gotMessages(final MessagePage page);
 }
@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.msghist.model;
+
+/** One page of messages, newest first.
+ *  @author Kay Kasemir
+ */
+public class MessagePage
+{
+    /** ID below which the first page is read */
+    public static final int FIRST = Integer.MAX_VALUE;
+
+    final private Message messages[];
+    final private boolean more;
+
+    /** Constructor
+     *  @param messages Messages of this page
+     *  @param more Are there more (older) messages after this page?
+     */
+    public MessagePage(final Message messages[], final boolean more)
+    {
+        this.messages = messages;
+        this.more = more;
+    }
+
+    /** @return Messages of this page */
+    public Message[] getMessages()
+    {
+        return messages;
+    }
+
+    /** @return <code>true</code> if there are more (older) messages after this page */
+    public boolean hasMore()
+    {
+        return more;
+    }
+
+    /** @return ID below which the next page is read */
+    public int getNextID()
+    {
+        if (messages.length <= 0)
+            return FIRST;
+        return messages[messages.length-1].getId();
+    }
+}
@@ -8,6 +8,8 @@
 package org.csstudio.alarm.beast.msghist.model;
 
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Calendar;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 
@@ -21,6 +23,10 @@ import org.eclipse.swt.widgets.Shell;
  * Model of CSS log messages.
  * <p>
  * Handles async. database requests, notifies listeners on change.
+ * <p>
+ * Messages are read one page at a time, newest first.
+ * Further pages are read via {@link #loadMore()}
+ * as the user scrolls through the messages.
  *
  * @author Kay Kasemir
  * @author benhadj naceur @ sopra group - iter
@@ -37,6 +43,11 @@ public class Model {
     private String end_spec = Preferences.getDefaultEnd();
     private MessagePropertyFilter filters[] = new MessagePropertyFilter[0];
     private int max_messages;
+    private final int page_size = Preferences.getPageSize();
+    /** Are there more messages after the last page? */
+    private volatile boolean more = false;
+    /** Is a page being read? */
+    private boolean loading = false;
     private DateTimeFormatter date_format;
     private GetMessagesJob message_job;
     private Shell shell;
@@ -161,29 +172,106 @@ public class Model {
      *             the exception
      */
     public void refresh() throws Exception {
-        launchQuery();
+        // Re-read as many messages as the user scrolled to
+        launchQuery(messages.length);
+    }
+
+    /** Launch RDB query for first page with current settings. */
+    private void launchQuery() throws Exception {
+        launchQuery(page_size);
     }
 
-    /** Launch RDB query with current settings. */
-    private synchronized void launchQuery() throws Exception {
+    /**
+     * Launch RDB query for first page with current settings.
+     *
+     * @param count
+     *            Number of messages to read
+     */
+    private synchronized void launchQuery(final int count) throws Exception {
         // Cancel a job that might already be running
         if (message_job != null)
             message_job.cancel();
-
-        // Start new job
+        more = false;
         final StartEndTimeParser times = new StartEndTimeParser(start_spec, end_spec);
-        message_job = new GetMessagesJob(url, user, password, schema, times.getStart(), times.getEnd(), filters,
-                max_messages, date_format) {
+        scheduleQuery(times.getStart(), times.getEnd(), MessagePage.FIRST, 1,
+                Math.min(Math.max(count, page_size), max_messages), false);
+    }
+
+    /**
+     * Read the next page of messages, unless all messages have been read,
+     * the maximum number of messages has been reached, or a query is
+     * already running. Model will notify listeners when the page has been
+     * added to the messages.
+     */
+    @SuppressWarnings("nls")
+    public synchronized void loadMore() {
+        if (!more || loading)
+            return;
+        final Message[] current = messages;
+        final int count = Math.min(page_size, max_messages - current.length);
+        if (current.length <= 0 || count <= 0)
+            return;
+        final Message last = current[current.length - 1];
+        try {
+            final StartEndTimeParser times = new StartEndTimeParser(start_spec, end_spec);
+            scheduleQuery(times.getStart(), times.getEnd(), last.getId(), last.getSequence() + 1, count, true);
+        } catch (Exception ex) {
+            Activator.getLogger().log(Level.WARNING, "Cannot read more messages", ex);
+        }
+    }
+
+    /** @return <code>true</code> if there are more messages to read */
+    public boolean hasMore() {
+        return more && messages.length < max_messages;
+    }
+
+    /**
+     * Start job for reading a page of messages
+     *
+     * @param start
+     *            Start time
+     * @param end
+     *            End time
+     * @param before_id
+     *            Read messages below this ID
+     * @param sequence
+     *            Sequence number of first message
+     * @param count
+     *            Number of messages to read
+     * @param append
+     *            Append to current messages or replace them?
+     */
+    private void scheduleQuery(final Calendar start, final Calendar end, final int before_id,
+            final int sequence, final int count, final boolean append) {
+        loading = true;
+        message_job = new GetMessagesJob(url, user, password, schema, start, end, filters,
+                before_id, sequence, count, date_format) {
             @Override
-            void gotMessages(final Message[] messages) {
-                if (messages == null)
-                    return;
-                Model.this.messages = messages;
+            void gotMessages(final MessagePage page) {
+                synchronized (Model.this) {
+                    // Ignore result of a job that has since been replaced
+                    if (message_job != this)
+                        return;
+                    final Message[] received = page.getMessages();
+                    if (append) {
+                        final Message[] current = Model.this.messages;
+                        final Message[] combined = Arrays.copyOf(current, current.length + received.length);
+                        System.arraycopy(received, 0, combined, current.length, received.length);
+                        Model.this.messages = combined;
+                    } else
+                        Model.this.messages = received;
+                    more = page.hasMore();
+                    loading = false;
+                }
                 fireModelChanged();
             }
 
             @Override
             void handleError(final String message, final Exception ex) {
+                synchronized (Model.this) {
+                    if (message_job == this)
+                        loading = false;
+                }
                 Activator.getLogger().log(Level.WARNING, message, ex);
                 // notify scheduler auto refresh
                 fireErrorModel(message);
@@ -16,10 +16,12 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.csstudio.alarm.beast.msghist.Messages;
 import org.csstudio.alarm.beast.msghist.model.Message;
+import org.csstudio.alarm.beast.msghist.model.MessagePage;
 import org.csstudio.alarm.beast.msghist.model.MessagePropertyFilter;
 import org.csstudio.alarm.beast.msghist.model.PVMessage;
 import org.csstudio.platform.utility.rdb.RDBUtil;
@@ -32,6 +34,11 @@ import org.eclipse.osgi.util.NLS;
 @SuppressWarnings("nls")
 public class MessageRDB
 {
+    /** Maximum number of message IDs in one MESSAGE_CONTENT query.
+     *  Oracle limits the size of an 'IN' list to 1000.
+     */
+    final private static int MAX_CONTENT_IDS = 1000;
+
     /** Util. for connection to RDB */
     final private RDBUtil rdb_util;
 
@@ -192,6 +199,115 @@ public class MessageRDB
         return messages.toArray(ret_val);
     }
 
+    /** Read one page of messages, newest first.
+     *  <p>
+     *  For the following page, pass {@link MessagePage#getNextID()}
+     *  as <code>before_id</code>.
+     *  Reads one message beyond the page to determine the 'delta'
+     *  of the last message, and if there are more messages.
+     *  @param start Start time
+     *  @param end End time
+     *  @param filters Filters to use (not <code>null</code>).
+     *  @param before_id Read messages with ID below this one, {@link MessagePage#FIRST} for first page
+     *  @param sequence Sequence number of first message in page
+     *  @param page_size Number of messages to read
+     *  @param date_format Format for message time
+     *  @return {@link MessagePage}
+     *  @throws Exception on error
+     */
+    public MessagePage getMessagePage(
+            final Calendar start, final Calendar end,
+            final MessagePropertyFilter filters[],
+            final int before_id, final int sequence, final int page_size,
+            final DateTimeFormatter date_format) throws Exception
+    {
+        final Connection connection = rdb_util.getConnection();
+        connection.setReadOnly(true);
+
+        // Read MESSAGE table for page
+        final List<Integer> ids = new ArrayList<Integer>(page_size+1);
+        final List<Date> dates = new ArrayList<Date>(page_size+1);
+        final Map<Integer, Map<String, String>> props_by_id = new HashMap<Integer, Map<String, String>>();
+        final PreparedStatement statement =
+                connection.prepareStatement(sql.createPageSelect(rdb_util, filters));
+        try
+        {
+            int parm = 1;
+            statement.setTimestamp(parm++, new Timestamp(start.getTimeInMillis()));
+            statement.setTimestamp(parm++, new Timestamp(end.getTimeInMillis()));
+            statement.setInt(parm++, before_id);
+            for (MessagePropertyFilter filter : filters)
+                statement.setString(parm++, filter.getPattern());
+            statement.setInt(parm++, page_size+1);
+            final ResultSet result = statement.executeQuery();
+            while (result.next())
+            {
+                final int id = result.getInt(1);
+                final Date datum = result.getTimestamp(2);
+                ids.add(id);
+                dates.add(datum);
+                // Extra message beyond page only used for 'delta'
+                if (ids.size() > page_size)
+                    break;
+                final Map<String, String> props = new HashMap<String, String>();
+                props.put(Message.DATUM, date_format.format(datum.toInstant()));
+                int res_idx = 3;
+                for (int i=0; i<sql.messagePropertyCount(); ++i)
+                    props.put(sql.getMessageProperty(i), result.getString(res_idx++));
+                props_by_id.put(id, props);
+            }
+        }
+        finally
+        {
+            statement.close();
+        }
+
+        // Read MESSAGE_CONTENT for the messages in the page
+        final int count = Math.min(ids.size(), page_size);
+        for (int first=0; first<count; first += MAX_CONTENT_IDS)
+            readContent(ids.subList(first, Math.min(count, first+MAX_CONTENT_IDS)), props_by_id);
+
+        final Message[] messages = new Message[count];
+        for (int i=0; i<count; ++i)
+        {
+            final Map<String, String> props = props_by_id.get(ids.get(i));
+            messages[i] = createMessage(sequence + i, ids.get(i), props);
+            if (i+1 < dates.size())
+                messages[i].setDelta(dates.get(i), dates.get(i+1));
+        }
+        return new MessagePage(messages, ids.size() > page_size);
+    }
+
+    /** Read MESSAGE_CONTENT properties
+     *  @param ids IDs of messages
+     *  @param props_by_id Properties of each message, updated with MESSAGE_CONTENT
+     *  @throws Exception on error
+     */
+    private void readContent(final List<Integer> ids,
+                             final Map<Integer, Map<String, String>> props_by_id) throws Exception
+    {
+        final PreparedStatement statement =
+            rdb_util.getConnection().prepareStatement(sql.createContentSelect(ids.size()));
+        try
+        {
+            int parm = 1;
+            for (Integer id : ids)
+                statement.setInt(parm++, id);
+            final ResultSet result = statement.executeQuery();
+            while (result.next())
+            {
+                final Map<String, String> props = props_by_id.get(result.getInt(1));
+                final String prop = sql.getPropertyNameById(result.getInt(2));
+                if (props != null)
+                    props.put(prop, result.getString(3));
+            }
+        }
+        finally
+        {
+            statement.close();
+        }
+    }
+
     /** Create Message or PVMessage
      *  @param sequence Sequence number
      *  @param id RDB ID
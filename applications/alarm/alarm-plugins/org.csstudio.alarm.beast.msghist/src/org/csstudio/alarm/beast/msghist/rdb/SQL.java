@@ -244,10 +244,95 @@ public class SQL
         return sel.toString();
     }
 
-    /** Idea: Use the above to ONLY select from MESSAGE table, then
-     *  use separate query to select remaining properties for a message
-     *  SELECT msg_property_type_id, value
-     *  FROM message_content
-     *  WHERE message_id=?
+    /** Create "SELECT ... " for one page of messages which requires parameters
+     *  <ol>
+     *  <li>Start time
+     *  <li>End time
+     *  <li>Message ID below which to read (keyset of the page)
+     *  <li>Value pattern for property filter 1
+     *  <li>Value pattern for property filter 2
+     *  <li>...
+     *  <li value=99>page size
+     *  </ol>
+     *  and returns the newest messages of the page
+     *  <ol>
+     *  <li>ID
+     *  <li>Datum
+     *  <li>First MESSAGE table property
+     *  <li>Second MESSAGE table property
+     *  <li>...
+     *  </ol>
+     *  <p>
+     *  Only reads the MESSAGE table, ordered by ID.
+     *  The following page starts below the last ID of this page,
+     *  so the RDB can use the primary key index instead of
+     *  skipping over previous pages.
+     *  Filters on properties that are MESSAGE columns, which includes
+     *  copies of frequently searched properties like TEXT or HOST
+     *  written by the message log tool, are checked on the MESSAGE row.
+     *  MESSAGE_CONTENT filters are checked per message via 'EXISTS',
+     *  which stops as soon as a page is filled.
+     *  @param rdb_util RDBUtil
+     *  @param filters Filters to use (not <code>null</code>)
+     *  @return SQL string
+     *  @see #createContentSelect(int)
      */
+    String createPageSelect(final RDBUtil rdb_util,
+            final MessagePropertyFilter filters[]) throws Exception
+    {
+        final StringBuilder sel = new StringBuilder();
+        sel.append("SELECT m.id, m.datum");
+        for (String msg_prop : message_properties)
+            sel.append(", m." + msg_prop);
+        sel.append(" FROM " + getSchemaPrefix() + "message m");
+        sel.append(" WHERE m.datum BETWEEN ? AND ?");
+        sel.append(" AND m.id < ?");
+        for (MessagePropertyFilter filter : filters)
+        {
+            if (isMessageProperty(filter.getProperty()))
+                sel.append(" AND m." + filter.getProperty() + " LIKE ?");
+            else
+            {
+                final int id = getPropertyIdByName(filter.getProperty());
+                sel.append(" AND EXISTS (SELECT 1");
+                sel.append(" FROM " + getSchemaPrefix() + "message_content f");
+                sel.append(" WHERE f.message_id=m.id");
+                sel.append(" AND f.msg_property_type_id=" + id);
+                sel.append(" AND f.value LIKE ?)");
+            }
+        }
+        sel.append(" ORDER BY m.id DESC");
+        // Oracle ROWNUM must be checked after the ORDER BY
+        if (rdb_util.getDialect() == Dialect.Oracle)
+            return "SELECT * FROM (" + sel.toString() + ") WHERE ROWNUM <= ?";
+        sel.append(" LIMIT ?");
+        return sel.toString();
+    }
+
+    /** Create "SELECT ... " for the MESSAGE_CONTENT of messages,
+     *  requiring the message IDs as parameters,
+     *  returning
+     *  <ol>
+     *  <li>Message ID
+     *  <li>MESSAGE_CONTENT property ID
+     *  <li>MESSAGE_CONTENT property value
+     *  </ol>
+     *  @param count Number of message IDs
+     *  @return SQL string
+     */
+    String createContentSelect(final int count)
+    {
+        final StringBuilder sel = new StringBuilder();
+        sel.append("SELECT message_id, msg_property_type_id, value");
+        sel.append(" FROM " + getSchemaPrefix() + "message_content");
+        sel.append(" WHERE message_id IN (");
+        for (int i=0; i<count; ++i)
+        {
+            if (i > 0)
+                sel.append(",");
+            sel.append("?");
+        }
+        sel.append(")");
+        return sel.toString();
+    }
 }
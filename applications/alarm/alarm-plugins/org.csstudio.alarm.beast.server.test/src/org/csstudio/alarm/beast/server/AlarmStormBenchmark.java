@@ -0,0 +1,503 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.server;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.csstudio.alarm.beast.Preferences;
+import org.csstudio.alarm.beast.SeverityLevel;
+import org.csstudio.alarm.beast.WorkQueue;
+import org.csstudio.apputil.args.ArgParser;
+import org.csstudio.apputil.args.BooleanOption;
+import org.csstudio.apputil.args.IntegerOption;
+import org.csstudio.apputil.args.StringOption;
+import org.csstudio.apputil.test.TestProperties;
+import org.csstudio.vtype.pv.PV;
+import org.csstudio.vtype.pv.PVPool;
+import org.csstudio.vtype.pv.jca.JCA_PVFactory;
+import org.csstudio.vtype.pv.local.LocalPVFactory;
+import org.diirt.vtype.VType;
+
+/** Alarm storm benchmark for the {@link AlarmServer}
+ *
+ *  <p>Runs an alarm server with a synthetic configuration
+ *  of configurable size, or the configuration from the RDB
+ *  listed in the test settings.
+ *  Values with changing alarm severities are either injected
+ *  directly into the alarm PVs, or written to the local PVs
+ *  to which the alarm PVs are connected,
+ *  at a configurable rate.
+ *  Alternatively, a recorded trace of PV updates is replayed.
+ *
+ *  <p>JMS is replaced by an in-VM stand-in,
+ *  which delivers state updates as map messages or binary batches.
+ *  Without RDB, the RDB is replaced by a stand-in as well.
+ *
+ *  <p>Reports throughput, latency percentiles for the stages
+ *  of an update, RDB batch times and memory usage.
+ *
+ *  <p>Run as a plain Java application with <code>-help</code>
+ *  to see the options.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class AlarmStormBenchmark
+{
+    final private static String ROOT = "Storm";
+
+    /** Alarm server that records when the alarm logic computed a new state */
+    private static class BenchmarkServer extends AlarmServer
+    {
+        final private StormStatistics stats;
+
+        BenchmarkServer(final WorkQueue work_queue, final String root_name,
+                        final ComponentFactory<AlarmRDB> rdb_factory,
+                        final ComponentFactory<ServerCommunicator> messenger_factory,
+                        final StormStatistics stats) throws Exception
+        {
+            super(work_queue, root_name, rdb_factory, messenger_factory);
+            this.stats = stats;
+        }
+
+        @Override
+        public void sendStateUpdate(final AlarmPV pv,
+                final SeverityLevel current_severity, final String current_message,
+                final SeverityLevel severity, final String message,
+                final String value, final Instant timestamp)
+        {
+            stats.evaluated(pv.getName(), pv.getReceiptTime());
+            super.sendStateUpdate(pv, current_severity, current_message, severity, message, value, timestamp);
+        }
+    }
+
+    /** Passes a value to an alarm PV */
+    @FunctionalInterface
+    private interface Injector
+    {
+        void send(AlarmPV pv, VType value) throws Exception;
+    }
+
+    /** Thread that tracks the peak heap usage */
+    private static class MemoryMonitor extends Thread
+    {
+        final private MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        final private AtomicLong peak = new AtomicLong();
+        private volatile boolean run = true;
+
+        MemoryMonitor()
+        {
+            super("MemoryMonitor");
+            setDaemon(true);
+        }
+
+        long getUsed()
+        {
+            return memory.getHeapMemoryUsage().getUsed();
+        }
+
+        long getPeak()
+        {
+            return peak.get();
+        }
+
+        void reset()
+        {
+            peak.set(getUsed());
+        }
+
+        @Override
+        public void run()
+        {
+            while (run)
+            {
+                peak.accumulateAndGet(getUsed(), Math::max);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+            }
+        }
+
+        void terminate()
+        {
+            run = false;
+        }
+    }
+
+    /** Severities that each PV cycles through */
+    final private static SeverityLevel[] SEVERITIES =
+    {
+        SeverityLevel.MINOR, SeverityLevel.MAJOR, SeverityLevel.MINOR, SeverityLevel.OK
+    };
+
+    /** Send values with changing severity to PVs
+     *  @param pvs PVs to which to send
+     *  @param rate Updates per second, 0 for 'as fast as possible'
+     *  @param injector Passes the values to the PVs
+     *  @param running Run while set
+     */
+    private static void drive(final List<AlarmPV> pvs, final double rate,
+                              final Injector injector, final AtomicBoolean running) throws Exception
+    {
+        final long period = rate > 0 ? Math.round(1e9 / rate) : 0;
+        final long start = System.nanoTime();
+        long count = 0;
+        while (running.get())
+        {
+            final AlarmPV pv = pvs.get((int) (count % pvs.size()));
+            final int cycle = (int) (count / pvs.size());
+            final SeverityLevel severity = SEVERITIES[cycle % SEVERITIES.length];
+            final PVTrace.Entry entry = new PVTrace.Entry(0, pv.getName(), severity,
+                    severity == SeverityLevel.OK ? "NO_ALARM" : "STORM", Integer.toString(cycle));
+            injector.send(pv, entry.toVType());
+            ++count;
+            if (period > 0)
+            {
+                final long delay = start + count * period - System.nanoTime();
+                if (delay > 0)
+                    LockSupport.parkNanos(delay);
+            }
+        }
+    }
+
+    /** Replay a trace
+     *  @param trace Trace to replay
+     *  @param pvs Alarm PVs by name
+     *  @param speed Replay speed, 1.0 for original timing, 0 for 'as fast as possible'
+     *  @param injector Passes the values to the PVs
+     *  @param running Run while set
+     *  @return Number of updates for unknown PVs
+     */
+    private static int replay(final PVTrace trace, final Map<String, AlarmPV> pvs, final double speed,
+                              final Injector injector, final AtomicBoolean running) throws Exception
+    {
+        int unknown = 0;
+        final long start = System.nanoTime();
+        for (PVTrace.Entry entry : trace.getEntries())
+        {
+            if (! running.get())
+                break;
+            final AlarmPV pv = pvs.get(entry.pv);
+            if (pv == null)
+            {
+                ++unknown;
+                continue;
+            }
+            if (speed > 0)
+            {
+                final long delay = start + Math.round(entry.offset / speed) - System.nanoTime();
+                if (delay > 0)
+                    LockSupport.parkNanos(delay);
+            }
+            injector.send(pv, entry.toVType());
+        }
+        return unknown;
+    }
+
+    /** @param file File with one PV name per line
+     *  @return PV names
+     *  @throws Exception on error
+     */
+    private static List<String> readNames(final String file) throws Exception
+    {
+        final List<String> names = new ArrayList<>();
+        try
+        (
+            final BufferedReader reader = new BufferedReader(new FileReader(file));
+        )
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                line = line.trim();
+                if (! line.isEmpty()  &&  ! line.startsWith("#"))
+                    names.add(line);
+            }
+        }
+        return names;
+    }
+
+    /** @return Total GC time in milliseconds */
+    private static long getGCMillis()
+    {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+            total += Math.max(gc.getCollectionTime(), 0);
+        return total;
+    }
+
+    public static void main(final String[] args) throws Exception
+    {
+        final ArgParser parser = new ArgParser();
+        final BooleanOption help = new BooleanOption(parser, "-help", "Display help");
+        final IntegerOption areas = new IntegerOption(parser, "-areas", "Number of areas", 10);
+        final IntegerOption systems = new IntegerOption(parser, "-systems", "Number of systems per area", 10);
+        final IntegerOption pvs_per_system = new IntegerOption(parser, "-pvs", "Number of PVs per system", 100);
+        final BooleanOption latching = new BooleanOption(parser, "-latching", "Use latching alarms");
+        final IntegerOption rate = new IntegerOption(parser, "-rate", "Updates per second, 0 for maximum", 10000);
+        final IntegerOption threads = new IntegerOption(parser, "-threads", "Number of threads that send updates", 4);
+        final IntegerOption warmup = new IntegerOption(parser, "-warmup", "<seconds>", "Warm-up time", 5);
+        final IntegerOption seconds = new IntegerOption(parser, "-seconds", "<seconds>", "Run time, or time to record", 30);
+        final BooleanOption use_pvs = new BooleanOption(parser, "-loc", "Write to local PVs instead of injecting values into alarm PVs");
+        final BooleanOption use_rdb = new BooleanOption(parser, "-rdb", "Use RDB, configuration and PVs from test settings");
+        final StringOption replay = new StringOption(parser, "-replay", "<trace>", "Replay trace file", null);
+        final StringOption speed = new StringOption(parser, "-speed", "<factor>", "Replay speed, 0 for maximum", "1.0");
+        final StringOption record = new StringOption(parser, "-record", "<trace>", "Record PVs listed in -pv_list into trace file", null);
+        final StringOption pv_list = new StringOption(parser, "-pv_list", "<file>", "File with PV names to record", null);
+        final BooleanOption binary = new BooleanOption(parser, "-binary", "Send state updates as binary batches");
+        final StringOption write_config = new StringOption(parser, "-write_config", "<xml>", "Write synthetic configuration for the alarm config tool", null);
+        try
+        {
+            parser.parse(args);
+        }
+        catch (Exception ex)
+        {
+            System.out.println(ex.getMessage() + "\n" + parser.getHelp());
+            return;
+        }
+        if (help.get())
+        {
+            System.out.println(parser.getHelp());
+            return;
+        }
+
+        Logger.getLogger("").setLevel(Level.WARNING);
+        if (! Arrays.asList(PVPool.getSupportedPrefixes()).contains(LocalPVFactory.TYPE))
+        {   // Running as plain Java application, not initialized from extension point registry
+            PVPool.addPVFactory(new LocalPVFactory());
+            PVPool.addPVFactory(new JCA_PVFactory());
+        }
+
+        if (record.get() != null)
+        {
+            if (pv_list.get() == null)
+            {
+                System.out.println("-record requires -pv_list\n" + parser.getHelp());
+                return;
+            }
+            final PVTrace trace = PVTrace.record(readNames(pv_list.get()), Duration.ofSeconds(seconds.get()));
+            trace.write(new File(record.get()));
+            System.out.println("Recorded " + trace.getEntries().size() + " updates for " +
+                               trace.getPVNames().size() + " PVs into " + record.get());
+            return;
+        }
+
+        // Synthetic configuration uses local PVs.
+        // For a replayed trace, PV names are mapped to local PVs.
+        final String local = LocalPVFactory.TYPE + PVPool.SEPARATOR;
+        final PVTrace trace = replay.get() == null ? null : PVTrace.read(new File(replay.get()));
+        final SyntheticAlarmTree tree;
+        if (trace != null)
+        {
+            final List<String> names = new ArrayList<>();
+            for (String name : trace.getPVNames())
+                names.add(name.startsWith(local) ? name : local + name);
+            tree = new SyntheticAlarmTree(names, systems.get(), pvs_per_system.get(), latching.get());
+        }
+        else
+            tree = new SyntheticAlarmTree(areas.get(), systems.get(), pvs_per_system.get(), local, latching.get());
+
+        if (write_config.get() != null)
+        {
+            try
+            (
+                final PrintWriter out = new PrintWriter(write_config.get());
+            )
+            {
+                tree.writeXML(out, ROOT);
+            }
+            System.out.println("Wrote configuration for " + tree.getPVCount() + " PVs to " + write_config.get());
+            return;
+        }
+
+        final StormStatistics stats = new StormStatistics();
+        final MemoryMonitor memory = new MemoryMonitor();
+        memory.start();
+        final WorkQueue work_queue = new WorkQueue();
+
+        // Create server with stand-ins
+        System.gc();
+        final long heap_before = memory.getUsed();
+        long start = System.nanoTime();
+        final AlarmServer server;
+        if (use_rdb.get())
+        {
+            final TestProperties settings = new TestProperties();
+            final String root = settings.getString("alarm_root");
+            if (root == null)
+            {
+                System.out.println("-rdb requires alarm_rdb_url, alarm_root etc. in test settings");
+                return;
+            }
+            server = new BenchmarkServer(work_queue, root,
+                    s -> new BenchmarkRDB(s, settings.getString("alarm_rdb_url"),
+                                          settings.getString("alarm_rdb_user"),
+                                          settings.getString("alarm_rdb_password"),
+                                          settings.getString("alarm_rdb_schema", "ALARM"),
+                                          root, stats),
+                    s -> new BenchmarkCommunicator(s, work_queue, root, stats, binary.get()),
+                    stats);
+        }
+        else
+            server = new BenchmarkServer(work_queue, ROOT,
+                    s -> new BenchmarkRDB(s, ROOT, tree, stats),
+                    s -> new BenchmarkCommunicator(s, work_queue, ROOT, stats, binary.get()),
+                    stats);
+        final double load_seconds = (System.nanoTime() - start) / 1e9;
+        System.gc();
+        final long heap_config = memory.getUsed();
+
+        final AlarmPV[] alarm_pvs = server.getPVs();
+        System.out.format("Configuration: %d PVs, loaded in %.2f seconds, %.1f MB heap (%.0f bytes per PV)\n",
+                          alarm_pvs.length, load_seconds,
+                          (heap_config - heap_before) / (1024.0*1024.0),
+                          (double) (heap_config - heap_before) / Math.max(alarm_pvs.length, 1));
+        System.out.format("Evaluation threads: %d, batch period %.1f seconds, batch size %d\n",
+                          AlarmServerPreferences.getEvaluationThreads(),
+                          Preferences.getBatchUpdatePeriod(), Preferences.getBatchSize());
+
+        // Connect alarm PVs to their PVs
+        start = System.nanoTime();
+        server.start();
+        System.out.format("Started PVs in %.2f seconds\n", (System.nanoTime() - start) / 1e9);
+
+        // Values can be written to the PVs, to be received by the alarm PVs,
+        // or injected directly into the alarm PVs
+        final Map<String, PV> pvs = new HashMap<>();
+        final Injector injector;
+        if (use_pvs.get())
+        {
+            for (AlarmPV pv : alarm_pvs)
+                pvs.put(pv.getName(), PVPool.getPV(pv.getName()));
+            injector = (pv, value) ->
+            {
+                stats.written(pv.getName());
+                pvs.get(pv.getName()).write(value);
+            };
+        }
+        else
+            injector = (pv, value) ->
+            {
+                stats.injected();
+                pv.valueChanged(null, value);
+            };
+
+        // Start drivers
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicLong unknown = new AtomicLong();
+        final List<Thread> drivers = new ArrayList<>();
+        if (trace != null)
+        {
+            final Map<String, AlarmPV> by_name = new HashMap<>();
+            for (AlarmPV pv : alarm_pvs)
+            {
+                by_name.put(pv.getName(), pv);
+                if (pv.getName().startsWith(local))
+                    by_name.putIfAbsent(pv.getName().substring(local.length()), pv);
+            }
+            final double replay_speed = Double.parseDouble(speed.get());
+            drivers.add(new Thread(() ->
+            {
+                try
+                {
+                    unknown.set(replay(trace, by_name, replay_speed, injector, running));
+                }
+                catch (Exception ex)
+                {
+                    ex.printStackTrace();
+                }
+            }, "Replay"));
+            System.out.format("Replaying %d updates for %d PVs over %.1f seconds at speed %s\n",
+                              trace.getEntries().size(), trace.getPVNames().size(),
+                              trace.getDuration() / 1e9, speed.get());
+        }
+        else
+        {
+            final int n = Math.max(1, threads.get());
+            for (int t=0; t<n; ++t)
+            {
+                final List<AlarmPV> mine = new ArrayList<>();
+                for (int i=t; i<alarm_pvs.length; i+=n)
+                    mine.add(alarm_pvs[i]);
+                final double thread_rate = rate.get() / (double) n;
+                drivers.add(new Thread(() ->
+                {
+                    try
+                    {
+                        drive(mine, thread_rate, injector, running);
+                    }
+                    catch (Exception ex)
+                    {
+                        ex.printStackTrace();
+                    }
+                }, "Driver" + t));
+            }
+            System.out.format("Sending %s updates per second from %d threads\n",
+                              rate.get() > 0 ? Integer.toString(rate.get()) : "maximum", n);
+        }
+        for (Thread driver : drivers)
+            driver.setDaemon(true);
+        for (Thread driver : drivers)
+            driver.start();
+
+        // Handle the work queue, which includes the periodic batch updates
+        final long warmup_end = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmup.get());
+        while (trace == null  &&  System.nanoTime() < warmup_end)
+            work_queue.performQueuedCommands(100);
+        stats.reset();
+        memory.reset();
+        final long gc_start = getGCMillis();
+        start = System.nanoTime();
+        final long end = start + TimeUnit.SECONDS.toNanos(seconds.get());
+        while (System.nanoTime() < end)
+        {
+            work_queue.performQueuedCommands(100);
+            if (trace != null  &&  ! drivers.get(0).isAlive())
+                break;
+        }
+        running.set(false);
+        for (Thread driver : drivers)
+            driver.join();
+        final double run_seconds = (System.nanoTime() - start) / 1e9;
+
+        // Let server send what's left
+        work_queue.performQueuedCommands(100);
+        server.stop();
+        server.close();
+        for (PV pv : pvs.values())
+            PVPool.releasePV(pv);
+
+        System.out.format("\n== Results for %.1f seconds ==\n", run_seconds);
+        stats.print(System.out, run_seconds);
+        if (unknown.get() > 0)
+            System.out.println("Replay skipped " + unknown.get() + " updates for PVs not in configuration");
+        System.out.println(server.getStatistics());
+        System.out.format("Memory: Peak heap %.1f MB, GC time %d ms (%.1f %%)\n",
+                          memory.getPeak() / (1024.0*1024.0),
+                          getGCMillis() - gc_start,
+                          (getGCMillis() - gc_start) / (10.0 * run_seconds));
+        memory.terminate();
+    }
+}
@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.server;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.csstudio.alarm.beast.JMSAlarmBatch;
+import org.csstudio.alarm.beast.JMSAlarmMessage;
+import org.csstudio.alarm.beast.SeverityLevel;
+import org.csstudio.alarm.beast.WorkQueue;
+import org.csstudio.logging.JMSLogMessage;
+
+/** {@link ServerCommunicator} for the {@link AlarmStormBenchmark}
+ *
+ *  <p>Stand-in for the JMS broker:
+ *  Messages are not sent to JMS but delivered
+ *  on a separate thread within the VM,
+ *  similar to the JMS thread of the actual communicator.
+ *  State updates are either 'delivered' as maps,
+ *  or encoded into {@link JMSAlarmBatch}es and decoded
+ *  like a client would.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class BenchmarkCommunicator extends ServerCommunicator
+{
+    final private StormStatistics stats;
+
+    /** Send binary batches? */
+    final private boolean binary;
+
+    /** Updates and names of their PVs for the next batch.
+     *  SYNC on pending_updates
+     */
+    final private List<JMSAlarmBatch.Update> pending_updates = new ArrayList<>();
+    final private List<String> pending_names = new ArrayList<>();
+
+    /** Thread that 'delivers' messages */
+    final private ExecutorService broker = Executors.newSingleThreadExecutor(runnable ->
+    {
+        final Thread thread = new Thread(runnable, "JMS Stand-In");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** @param server Alarm server
+     *  @param work_queue Work queue of the 'main' thread
+     *  @param root_name Name of alarm tree root
+     *  @param stats Statistics to update
+     *  @param binary Send binary batches?
+     *  @throws Exception on error
+     */
+    public BenchmarkCommunicator(final AlarmServer server, final WorkQueue work_queue,
+                                 final String root_name, final StormStatistics stats,
+                                 final boolean binary) throws Exception
+    {
+        super(server, work_queue, root_name);
+        this.stats = stats;
+        this.binary = binary;
+    }
+
+    @Override
+    public void start()
+    {
+        // Don't connect to JMS
+    }
+
+    @Override
+    public void stop()
+    {
+        broker.shutdown();
+        try
+        {
+            broker.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException ex)
+        {
+            // Ignore, stopping anyway
+        }
+    }
+
+    @Override
+    protected void sendIdleMessage()
+    {
+        // Not used
+    }
+
+    @Override
+    public void sendReloadMessage()
+    {
+        // Not used
+    }
+
+    @Override
+    protected void sendStateUpdate(final AlarmPV pv,
+            final SeverityLevel current_severity,
+            final String current_message,
+            final SeverityLevel alarm_severity, final String alarm_message,
+            final String value,
+            final Instant timestamp)
+    {
+        final String name = pv.getName();
+        stats.sent(name);
+        if (binary)
+        {
+            final boolean first;
+            synchronized (pending_updates)
+            {
+                pending_updates.add(new JMSAlarmBatch.Update(pv.getID(),
+                        current_severity, current_message,
+                        alarm_severity, alarm_message, value, timestamp));
+                pending_names.add(name);
+                first = pending_updates.size() == 1;
+            }
+            if (first)
+                deliver(this::deliverBatches);
+            return;
+        }
+        deliver(() ->
+        {
+            final Map<String, String> message = createMessage(pv, alarm_severity, alarm_message, value, timestamp);
+            message.put(JMSAlarmMessage.CURRENT_SEVERITY, current_severity.name());
+            message.put(JMSAlarmMessage.CURRENT_STATUS, current_message);
+            int bytes = 0;
+            for (Map.Entry<String, String> entry : message.entrySet())
+                bytes += entry.getKey().length() + entry.getValue().length();
+            stats.messages.incrementAndGet();
+            stats.bytes.addAndGet(bytes);
+            stats.delivered(name);
+        });
+    }
+
+    /** Encode pending updates into batches, then decode like a client */
+    private void deliverBatches()
+    {
+        final List<JMSAlarmBatch.Update> updates;
+        final List<String> names;
+        synchronized (pending_updates)
+        {
+            updates = new ArrayList<>(pending_updates);
+            names = new ArrayList<>(pending_names);
+            pending_updates.clear();
+            pending_names.clear();
+        }
+        try
+        {
+            for (int start=0; start<updates.size(); start += JMSAlarmBatch.MAX_UPDATES)
+            {
+                final int end = Math.min(start + JMSAlarmBatch.MAX_UPDATES, updates.size());
+                final byte[] body = JMSAlarmBatch.encode(updates.subList(start, end));
+                stats.messages.incrementAndGet();
+                stats.bytes.addAndGet(body.length);
+                JMSAlarmBatch.decode(body);
+                for (String name : names.subList(start, end))
+                    stats.delivered(name);
+            }
+        }
+        catch (Exception ex)
+        {
+            throw new IllegalStateException("Cannot decode batch", ex);
+        }
+    }
+
+    @Override
+    protected void sendGlobalUpdate(final AlarmPV pv,
+            final SeverityLevel alarm_severity, final String alarm_message,
+            final String value,
+            final Instant timestamp)
+    {
+        deliver(() ->
+        {
+            createMessage(pv, alarm_severity, alarm_message, value, timestamp);
+            stats.global.incrementAndGet();
+        });
+    }
+
+    @Override
+    protected void sendEnablementUpdate(final AlarmPV pv, final boolean enabled)
+    {
+        // Not used
+    }
+
+    @Override
+    public void sendAnnunciation(final SeverityLevel level, final String message)
+    {
+        deliver(() -> stats.annunciations.incrementAndGet());
+    }
+
+    /** @param delivery Delivery of a message */
+    private void deliver(final Runnable delivery)
+    {
+        try
+        {
+            broker.execute(delivery);
+        }
+        catch (RejectedExecutionException ex)
+        {   // Server sends remaining updates after stopping the communicator
+            delivery.run();
+        }
+    }
+
+    /** Create the content of a state update, like the actual communicator
+     *  @return Map with message content
+     */
+    private Map<String, String> createMessage(final AlarmPV pv,
+            final SeverityLevel alarm_severity, final String alarm_message,
+            final String value, final Instant timestamp)
+    {
+        final Map<String, String> message = new HashMap<>();
+        message.put(JMSLogMessage.TYPE, JMSAlarmMessage.TYPE_ALARM);
+        message.put(JMSLogMessage.TEXT, JMSAlarmMessage.TEXT_STATE);
+        message.put(JMSLogMessage.NAME, pv.getName());
+        message.put(JMSAlarmMessage.CONFIG, pv.getPathName());
+        message.put(JMSLogMessage.SEVERITY, alarm_severity.name());
+        message.put(JMSAlarmMessage.STATUS, alarm_message);
+        if (value != null)
+            message.put(JMSAlarmMessage.VALUE, value);
+        message.put(JMSAlarmMessage.EVENTTIME, JMSAlarmMessage.formatTime(timestamp));
+        return message;
+    }
+}
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.server;
+
+import org.csstudio.alarm.beast.server.AlarmServer.Update;
+
+/** {@link AlarmRDB} for the {@link AlarmStormBenchmark}
+ *
+ *  <p>Either uses an actual RDB and measures the time
+ *  spent persisting state updates,
+ *  or acts as a stand-in that provides a synthetic configuration
+ *  and only counts updates.
+ *
+ *  @author Kay Kasemir
+ */
+public class BenchmarkRDB extends AlarmRDB
+{
+    final private AlarmServer server;
+    final private SyntheticAlarmTree tree;
+    final private String root_name;
+    final private StormStatistics stats;
+
+    /** Stand-in without RDB
+     *  @param server Alarm server
+     *  @param root_name Name of alarm tree root
+     *  @param tree Synthetic configuration
+     *  @param stats Statistics to update
+     */
+    public BenchmarkRDB(final AlarmServer server, final String root_name,
+                        final SyntheticAlarmTree tree, final StormStatistics stats)
+    {
+        super(server, root_name);
+        this.server = server;
+        this.tree = tree;
+        this.root_name = root_name;
+        this.stats = stats;
+    }
+
+    /** Actual RDB
+     *  @param server Alarm server
+     *  @param url RDB URL
+     *  @param user RDB user
+     *  @param password RDB password
+     *  @param schema RDB schema
+     *  @param root_name Name of alarm tree root
+     *  @param stats Statistics to update
+     *  @throws Exception on error
+     */
+    public BenchmarkRDB(final AlarmServer server, final String url,
+                        final String user, final String password,
+                        final String schema, final String root_name,
+                        final StormStatistics stats) throws Exception
+    {
+        super(server, url, user, password, schema, root_name);
+        this.server = server;
+        tree = null;
+        this.root_name = root_name;
+        this.stats = stats;
+    }
+
+    @Override
+    public ServerTreeItem readConfiguration() throws Exception
+    {
+        if (tree == null)
+            return super.readConfiguration();
+        return tree.create(server, root_name);
+    }
+
+    @Override
+    public void readConfigurationUpdate(final AlarmPV pv) throws Exception
+    {
+        if (tree == null)
+            super.readConfigurationUpdate(pv);
+    }
+
+    @Override
+    public void persistAllStates(final Update[] updates, final int batchSize) throws Exception
+    {
+        final long start = System.nanoTime();
+        if (tree == null)
+            super.persistAllStates(updates, batchSize);
+        stats.rdb_batch.record(System.nanoTime() - start);
+        stats.persisted.addAndGet(updates.length);
+    }
+
+    @Override
+    public void persistGlobalUpdates(final Update[] updates, final int batchSize) throws Exception
+    {
+        if (tree == null)
+            super.persistGlobalUpdates(updates, batchSize);
+    }
+
+    @Override
+    public void writeEnablementUpdate(final AlarmPV pv, final boolean enabled) throws Exception
+    {
+        if (tree == null)
+            super.writeEnablementUpdate(pv, enabled);
+    }
+
+    @Override
+    public void close()
+    {
+        if (tree == null)
+            super.close();
+    }
+}
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/** JUnit test of the {@link BoundedMPSCQueue} and {@link AlarmShards}
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class BoundedMPSCQueueUnitTest
+{
+    @Test
+    public void testQueue()
+    {
+        final BoundedMPSCQueue<Integer> queue = new BoundedMPSCQueue<>(3);
+        assertEquals(4, queue.getCapacity());
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+
+        // Fill, wrapping around a few times
+        for (int round=0; round<3; ++round)
+        {
+            for (int i=0; i<4; ++i)
+                assertTrue(queue.offer(i));
+            assertFalse(queue.offer(42));
+            assertEquals(4, queue.size());
+            for (int i=0; i<4; ++i)
+                assertEquals(Integer.valueOf(i), queue.poll());
+            assertNull(queue.poll());
+            assertTrue(queue.isEmpty());
+        }
+    }
+
+    @Test
+    public void testProducers() throws Exception
+    {
+        final int producers = 4, count = 10000;
+        final BoundedMPSCQueue<int[]> queue = new BoundedMPSCQueue<>(100);
+        final List<Thread> threads = new ArrayList<>();
+        for (int p=0; p<producers; ++p)
+        {
+            final int producer = p;
+            final Thread thread = new Thread(() ->
+            {
+                for (int i=0; i<count; ++i)
+                    while (! queue.offer(new int[] { producer, i }))
+                        Thread.yield();
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        // Each producer's items must arrive in order
+        final int[] next = new int[producers];
+        int received = 0;
+        while (received < producers * count)
+        {
+            final int[] item = queue.poll();
+            if (item == null)
+            {
+                Thread.yield();
+                continue;
+            }
+            assertEquals(next[item[0]], item[1]);
+            ++next[item[0]];
+            ++received;
+        }
+        for (Thread thread : threads)
+            thread.join();
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testShards() throws Exception
+    {
+        final int pvs = 100, updates = 1000;
+        final AlarmShards shards = new AlarmShards(4, 16);
+        // Updates for each 'PV' must be handled in order
+        final int[] last = new int[pvs];
+        final AtomicInteger errors = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(pvs * updates);
+        for (int u=0; u<updates; ++u)
+            for (int pv=0; pv<pvs; ++pv)
+            {
+                final int the_pv = pv, update = u;
+                shards.execute(pv % shards.getShardCount(), () ->
+                {
+                    if (last[the_pv] != update)
+                        errors.incrementAndGet();
+                    last[the_pv] = update + 1;
+                    done.countDown();
+                });
+            }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(0, errors.get());
+        System.out.println("Max queue depth: " + shards.getMaxQueueDepth() +
+                           ", full " + shards.getFullCount() + " times");
+        assertEquals(0, shards.getQueueDepth());
+        shards.stop();
+    }
+}
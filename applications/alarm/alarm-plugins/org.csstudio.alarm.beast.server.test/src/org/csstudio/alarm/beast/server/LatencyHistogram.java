@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.server;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/** Histogram of durations for determining percentiles
+ *
+ *  <p>Durations are counted in buckets whose width
+ *  grows with the duration, so that each bucket
+ *  is accurate to about 1/{@value #SUB_BUCKETS} of its value.
+ *  Recording is lock-free and may be called by several threads.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class LatencyHistogram
+{
+    /** Number of buckets for each power of 2 */
+    final private static int SUB_BUCKETS = 32;
+
+    /** Sub-buckets are used as is for durations below this value */
+    final private static int LINEAR = 2 * SUB_BUCKETS;
+
+    /** Durations up to 2^63 nanoseconds */
+    final private static int BUCKETS = LINEAR + 64 * SUB_BUCKETS;
+
+    final private String name;
+    final private AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    final private AtomicLong count = new AtomicLong();
+    final private AtomicLong total = new AtomicLong();
+    final private AtomicLong max = new AtomicLong();
+
+    /** @param name Name of what's measured */
+    public LatencyHistogram(final String name)
+    {
+        this.name = name;
+    }
+
+    /** @return Name of what's measured */
+    public String getName()
+    {
+        return name;
+    }
+
+    /** @param nanos Duration in nanoseconds to add to histogram */
+    public void record(final long nanos)
+    {
+        final long value = Math.max(nanos, 0);
+        counts.incrementAndGet(getBucket(value));
+        count.incrementAndGet();
+        total.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /** @param value Duration
+     *  @return Index of bucket for that duration
+     */
+    private static int getBucket(final long value)
+    {
+        if (value < LINEAR)
+            return (int) value;
+        // Position of highest bit, >= log2(LINEAR)
+        final int bits = 63 - Long.numberOfLeadingZeros(value);
+        // Next bits below the highest bit select the sub-bucket
+        final int shift = bits - Integer.numberOfTrailingZeros(SUB_BUCKETS);
+        final int sub = (int) (value >>> shift) - SUB_BUCKETS;
+        return LINEAR + (bits - Integer.numberOfTrailingZeros(LINEAR)) * SUB_BUCKETS + sub;
+    }
+
+    /** @param bucket Index of bucket
+     *  @return Largest duration in that bucket
+     */
+    private static long getBucketLimit(final int bucket)
+    {
+        if (bucket < LINEAR)
+            return bucket;
+        final int bits = (bucket - LINEAR) / SUB_BUCKETS + Integer.numberOfTrailingZeros(LINEAR);
+        final int sub = (bucket - LINEAR) % SUB_BUCKETS;
+        final int shift = bits - Integer.numberOfTrailingZeros(SUB_BUCKETS);
+        return ((long)(SUB_BUCKETS + sub + 1) << shift) - 1;
+    }
+
+    /** @return Number of recorded durations */
+    public long getCount()
+    {
+        return count.get();
+    }
+
+    /** @return Average duration in nanoseconds */
+    public double getAverage()
+    {
+        final long n = count.get();
+        return n > 0 ? (double) total.get() / n : 0.0;
+    }
+
+    /** @return Maximum duration in nanoseconds */
+    public long getMax()
+    {
+        return max.get();
+    }
+
+    /** @param percentile Percentile 0..100
+     *  @return Duration in nanoseconds at or below which the given percentage of durations fall
+     */
+    public long getPercentile(final double percentile)
+    {
+        final long n = count.get();
+        if (n <= 0)
+            return 0;
+        final long needed = Math.max(1, (long) Math.ceil(n * percentile / 100.0));
+        long seen = 0;
+        for (int i=0; i<BUCKETS; ++i)
+        {
+            seen += counts.get(i);
+            if (seen >= needed)
+                return Math.min(getBucketLimit(i), max.get());
+        }
+        return max.get();
+    }
+
+    /** Clear all recorded durations */
+    public void reset()
+    {
+        for (int i=0; i<BUCKETS; ++i)
+            counts.set(i, 0);
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+
+    /** @return Summary with count, average and percentiles in milliseconds */
+    @Override
+    public String toString()
+    {
+        return String.format("%-12s %9d  avg %9.3f  p50 %9.3f  p90 %9.3f  p99 %9.3f  p99.9 %9.3f  max %9.3f ms",
+                             name, getCount(), getAverage()/1e6,
+                             getPercentile(50)/1e6, getPercentile(90)/1e6,
+                             getPercentile(99)/1e6, getPercentile(99.9)/1e6,
+                             getMax()/1e6);
+    }
+}
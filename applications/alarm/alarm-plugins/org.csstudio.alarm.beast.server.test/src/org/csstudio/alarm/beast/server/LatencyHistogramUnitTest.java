@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/** JUnit test of the {@link LatencyHistogram}
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class LatencyHistogramUnitTest
+{
+    @Test
+    public void testSmallValues()
+    {
+        final LatencyHistogram histogram = new LatencyHistogram("Test");
+        assertEquals(0, histogram.getPercentile(50));
+        for (int i=1; i<=10; ++i)
+            histogram.record(i);
+        assertEquals(10, histogram.getCount());
+        assertEquals(5.5, histogram.getAverage(), 0.001);
+        // Small values are exact
+        assertEquals(5, histogram.getPercentile(50));
+        assertEquals(9, histogram.getPercentile(90));
+        assertEquals(10, histogram.getPercentile(100));
+        assertEquals(10, histogram.getMax());
+    }
+
+    @Test
+    public void testLargeValues()
+    {
+        final LatencyHistogram histogram = new LatencyHistogram("Test");
+        // 1..1000 ms
+        for (int ms=1; ms<=1000; ++ms)
+            histogram.record(ms * 1000000L);
+        System.out.println(histogram);
+        // Larger values are accurate to a few percent
+        checkPercentile(histogram, 50, 500e6);
+        checkPercentile(histogram, 90, 900e6);
+        checkPercentile(histogram, 99, 990e6);
+        assertEquals(1000000000L, histogram.getPercentile(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+    }
+
+    private void checkPercentile(final LatencyHistogram histogram, final double percentile, final double expected)
+    {
+        final long value = histogram.getPercentile(percentile);
+        assertTrue("p" + percentile + " = " + value, Math.abs(value - expected) / expected < 0.04);
+    }
+}
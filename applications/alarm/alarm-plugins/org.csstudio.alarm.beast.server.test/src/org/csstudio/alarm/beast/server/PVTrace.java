@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.server;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.PrintWriter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.csstudio.alarm.beast.SeverityLevel;
+import org.csstudio.vtype.pv.PV;
+import org.csstudio.vtype.pv.PVListenerAdapter;
+import org.csstudio.vtype.pv.PVPool;
+import org.diirt.vtype.AlarmSeverity;
+import org.diirt.vtype.VType;
+import org.diirt.vtype.ValueFactory;
+
+/** Recorded PV updates
+ *
+ *  <p>Text file with one line per update:
+ *  <pre>
+ *  # Seconds,PV,Severity,Message,Value
+ *  0.125,Some:PV,MINOR,LOW,3.14
+ *  </pre>
+ *  Seconds are relative to the start of the recording.
+ *  PV names must not contain commas.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class PVTrace
+{
+    /** One recorded update */
+    public static class Entry
+    {
+        /** Nanoseconds since start of trace */
+        final public long offset;
+        final public String pv;
+        final public SeverityLevel severity;
+        final public String message;
+        final public String value;
+
+        public Entry(final long offset, final String pv, final SeverityLevel severity,
+                     final String message, final String value)
+        {
+            this.offset = offset;
+            this.pv = pv;
+            this.severity = severity;
+            this.message = message;
+            this.value = value;
+        }
+
+        /** @return Value with alarm information, as received from a PV */
+        public VType toVType()
+        {
+            final AlarmSeverity alarm = severity.getAlarmSeverity();
+            double number;
+            try
+            {
+                number = Double.parseDouble(value);
+            }
+            catch (NumberFormatException ex)
+            {
+                return ValueFactory.newVString(value, ValueFactory.newAlarm(alarm, message), ValueFactory.timeNow());
+            }
+            return ValueFactory.newVDouble(number, ValueFactory.newAlarm(alarm, message),
+                                           ValueFactory.timeNow(), ValueFactory.displayNone());
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%.6f,%s,%s,%s,%s",
+                                 offset/1e9, pv, severity.name(),
+                                 message.replace(',', ' '), value.replace(',', ' '));
+        }
+    }
+
+    final private List<Entry> entries;
+
+    /** @param entries Updates, ordered by time */
+    public PVTrace(final List<Entry> entries)
+    {
+        this.entries = entries;
+    }
+
+    /** @return Updates, ordered by time */
+    public List<Entry> getEntries()
+    {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /** @return Names of all PVs in the trace */
+    public List<String> getPVNames()
+    {
+        final Set<String> names = new LinkedHashSet<>();
+        for (Entry entry : entries)
+            names.add(entry.pv);
+        return new ArrayList<>(names);
+    }
+
+    /** @return Time span of the trace in nanoseconds */
+    public long getDuration()
+    {
+        if (entries.isEmpty())
+            return 0;
+        return entries.get(entries.size()-1).offset;
+    }
+
+    /** @param file File to read
+     *  @return Trace
+     *  @throws Exception on error
+     */
+    public static PVTrace read(final File file) throws Exception
+    {
+        final List<Entry> entries = new ArrayList<>();
+        try
+        (
+            final BufferedReader reader = new BufferedReader(new FileReader(file));
+        )
+        {
+            String line;
+            int line_no = 0;
+            while ((line = reader.readLine()) != null)
+            {
+                ++line_no;
+                line = line.trim();
+                if (line.isEmpty()  ||  line.startsWith("#"))
+                    continue;
+                final String[] items = line.split(",", 5);
+                if (items.length != 5)
+                    throw new Exception(file + " line " + line_no + ": Expected 5 items, got '" + line + "'");
+                final long offset = Math.round(Double.parseDouble(items[0]) * 1e9);
+                entries.add(new Entry(offset, items[1], SeverityLevel.parse(items[2]), items[3], items[4]));
+            }
+        }
+        entries.sort((a, b) -> Long.compare(a.offset, b.offset));
+        return new PVTrace(entries);
+    }
+
+    /** @param file File to write
+     *  @throws Exception on error
+     */
+    public void write(final File file) throws Exception
+    {
+        try
+        (
+            final PrintWriter out = new PrintWriter(file);
+        )
+        {
+            out.println("# Seconds,PV,Severity,Message,Value");
+            for (Entry entry : entries)
+                out.println(entry);
+        }
+    }
+
+    /** Record updates from PVs
+     *  @param names Names of PVs to record
+     *  @param duration How long to record
+     *  @return Recorded trace
+     *  @throws Exception on error
+     */
+    public static PVTrace record(final List<String> names, final Duration duration) throws Exception
+    {
+        final List<Entry> entries = new ArrayList<>();
+        final long start = System.nanoTime();
+        final PVListenerAdapter listener = new PVListenerAdapter()
+        {
+            @Override
+            public void valueChanged(final PV pv, final VType value)
+            {
+                final Entry entry = new Entry(System.nanoTime() - start, pv.getName(),
+                                              VTypeHelper.decodeSeverity(value),
+                                              VTypeHelper.getStatusMessage(value),
+                                              VTypeHelper.toString(value));
+                synchronized (entries)
+                {
+                    entries.add(entry);
+                }
+            }
+        };
+        final List<PV> pvs = PVPool.getPVs(names);
+        for (PV pv : pvs)
+            pv.addListener(listener);
+        TimeUnit.NANOSECONDS.sleep(duration.toNanos());
+        for (PV pv : pvs)
+        {
+            pv.removeListener(listener);
+            PVPool.releasePV(pv);
+        }
+        synchronized (entries)
+        {
+            return new PVTrace(new ArrayList<>(entries));
+        }
+    }
+}
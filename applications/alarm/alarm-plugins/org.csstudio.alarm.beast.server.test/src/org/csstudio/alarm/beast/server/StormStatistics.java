@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.server;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Statistics gathered by the {@link AlarmStormBenchmark}
+ *
+ *  <p>Stages of an update:
+ *  <ol>
+ *  <li>PV: Value written to a PV until the alarm server receives it
+ *      (only when driving PVs, not when injecting values)
+ *  <li>Evaluation: Value received until the alarm logic has computed the new state,
+ *      including the time spent in the shard queue
+ *  <li>Batching: State computed until sent, waiting for the next batch
+ *      and the RDB update
+ *  <li>Delivery: Sent until the JMS stand-in delivered the message
+ *  <li>Total: Value received until delivered
+ *  </ol>
+ *
+ *  <p>Since the server coalesces updates,
+ *  the later stages only see the latest update of a PV
+ *  and measure from the time when that update was received.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class StormStatistics
+{
+    final public LatencyHistogram pv = new LatencyHistogram("PV");
+    final public LatencyHistogram evaluation = new LatencyHistogram("Evaluation");
+    final public LatencyHistogram batching = new LatencyHistogram("Batching");
+    final public LatencyHistogram delivery = new LatencyHistogram("Delivery");
+    final public LatencyHistogram total = new LatencyHistogram("Total");
+    final public LatencyHistogram rdb_batch = new LatencyHistogram("RDB batch");
+
+    /** Values written or injected */
+    final public AtomicLong injected = new AtomicLong();
+
+    /** New states computed by the alarm logic */
+    final public AtomicLong evaluated = new AtomicLong();
+
+    /** State updates delivered by JMS stand-in */
+    final public AtomicLong delivered = new AtomicLong();
+
+    /** Global updates, annunciations delivered by JMS stand-in */
+    final public AtomicLong global = new AtomicLong(), annunciations = new AtomicLong();
+
+    /** Messages and (approximate) bytes sent for state updates */
+    final public AtomicLong messages = new AtomicLong(), bytes = new AtomicLong();
+
+    /** State updates written to the RDB */
+    final public AtomicLong persisted = new AtomicLong();
+
+    /** Time in nanoseconds when latest value was written to a PV, by PV name */
+    final private Map<String, Long> written = new ConcurrentHashMap<>();
+
+    /** Time in nanoseconds when value was received for latest computed state, by PV name */
+    final private Map<String, Long> received = new ConcurrentHashMap<>();
+
+    /** Time in nanoseconds when latest computed state was sent, by PV name */
+    final private Map<String, Long> sent = new ConcurrentHashMap<>();
+
+    /** @param name PV to which a value was written */
+    public void written(final String name)
+    {
+        written.put(name, System.nanoTime());
+        injected.incrementAndGet();
+    }
+
+    /** Count value that was injected directly into the server */
+    public void injected()
+    {
+        injected.incrementAndGet();
+    }
+
+    /** @param name PV for which the alarm logic computed a new state
+     *  @param receipt Time in nanoseconds when the value was received
+     */
+    public void evaluated(final String name, final long receipt)
+    {
+        final long now = System.nanoTime();
+        if (receipt == 0)
+            return;
+        final Long write = written.remove(name);
+        if (write != null)
+            pv.record(receipt - write);
+        evaluation.record(now - receipt);
+        received.put(name, receipt);
+        evaluated.incrementAndGet();
+    }
+
+    /** @param name PV for which state update was sent */
+    public void sent(final String name)
+    {
+        final long now = System.nanoTime();
+        final Long receipt = received.get(name);
+        if (receipt != null)
+            batching.record(now - receipt);
+        sent.put(name, now);
+    }
+
+    /** @param name PV for which state update was delivered */
+    public void delivered(final String name)
+    {
+        final long now = System.nanoTime();
+        final Long send = sent.get(name);
+        if (send != null)
+            delivery.record(now - send);
+        final Long receipt = received.get(name);
+        if (receipt != null)
+            total.record(now - receipt);
+        delivered.incrementAndGet();
+    }
+
+    /** @return All latency histograms */
+    public LatencyHistogram[] getHistograms()
+    {
+        return new LatencyHistogram[] { pv, evaluation, batching, delivery, total, rdb_batch };
+    }
+
+    /** Clear statistics, for example after warm-up */
+    public void reset()
+    {
+        for (LatencyHistogram histogram : getHistograms())
+            histogram.reset();
+        injected.set(0);
+        evaluated.set(0);
+        delivered.set(0);
+        global.set(0);
+        annunciations.set(0);
+        persisted.set(0);
+        messages.set(0);
+        bytes.set(0);
+    }
+
+    /** @param out Where to print the statistics
+     *  @param seconds Run time used to compute rates
+     */
+    public void print(final PrintStream out, final double seconds)
+    {
+        out.format("Injected   %10d updates, %10.1f per second\n", injected.get(), injected.get() / seconds);
+        out.format("Evaluated  %10d updates, %10.1f per second\n", evaluated.get(), evaluated.get() / seconds);
+        out.format("Delivered  %10d updates, %10.1f per second\n", delivered.get(), delivered.get() / seconds);
+        out.format("Persisted  %10d updates, %10.1f per second\n", persisted.get(), persisted.get() / seconds);
+        out.format("Global     %10d updates, %d annunciations\n", global.get(), annunciations.get());
+        if (messages.get() > 0)
+            out.format("Messages   %10d for state updates, %.1f updates and %.1f bytes per update\n",
+                       messages.get(), delivered.get() / (double) messages.get(),
+                       bytes.get() / (double) Math.max(delivered.get(), 1));
+        for (LatencyHistogram histogram : getHistograms())
+            if (histogram.getCount() > 0)
+                out.println(histogram);
+    }
+}
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.server;
+
+import java.io.PrintWriter;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.csstudio.alarm.beast.SeverityLevel;
+import org.csstudio.alarm.beast.XMLTags;
+
+/** Synthetic alarm configuration of configurable size
+ *
+ *  <p>Root has areas, each area has systems,
+ *  each system has PVs.
+ *  The tree can be created in memory for an alarm server
+ *  or written as an XML file that the alarm config tool
+ *  can import into an RDB.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class SyntheticAlarmTree
+{
+    final private List<String> names;
+    final private int systems, pvs;
+    final private boolean latching;
+
+    /** @param areas Number of areas
+     *  @param systems Number of systems per area
+     *  @param pvs Number of PVs per system
+     *  @param prefix Prefix for PV names, for example "loc://"
+     *  @param latching Create latching alarms?
+     */
+    public SyntheticAlarmTree(final int areas, final int systems, final int pvs,
+                              final String prefix, final boolean latching)
+    {
+        this(createNames(areas, systems, pvs, prefix), systems, pvs, latching);
+    }
+
+    /** @param names Names of PVs
+     *  @param systems Maximum number of systems per area
+     *  @param pvs Maximum number of PVs per system
+     *  @param latching Create latching alarms?
+     */
+    public SyntheticAlarmTree(final List<String> names, final int systems, final int pvs,
+                              final boolean latching)
+    {
+        this.names = names;
+        this.systems = systems;
+        this.pvs = pvs;
+        this.latching = latching;
+    }
+
+    private static List<String> createNames(final int areas, final int systems, final int pvs,
+                                            final String prefix)
+    {
+        final List<String> names = new ArrayList<>(areas * systems * pvs);
+        for (int a=0; a<areas; ++a)
+            for (int s=0; s<systems; ++s)
+                for (int p=0; p<pvs; ++p)
+                    names.add(prefix + "storm_" + a + "_" + s + "_" + p);
+        return names;
+    }
+
+    /** @return Total number of PVs */
+    public int getPVCount()
+    {
+        return names.size();
+    }
+
+    /** @return Names of all PVs */
+    public List<String> getPVNames()
+    {
+        return Collections.unmodifiableList(names);
+    }
+
+    /** Create alarm tree in memory
+     *  @param server Alarm server for the PVs
+     *  @param root_name Name of the root
+     *  @return Root of the alarm tree
+     *  @throws Exception on error
+     */
+    public ServerTreeItem create(final AlarmServer server, final String root_name) throws Exception
+    {
+        final Instant now = Instant.now();
+        int id = 0;
+        final ServerTreeItem root = new ServerTreeItem(null, root_name, id++, null);
+        ServerTreeItem area = null, system = null;
+        for (int i=0; i<names.size(); ++i)
+        {
+            if (i % (systems * pvs) == 0)
+                area = new ServerTreeItem(root, getAreaName(i), id++, null);
+            if (i % pvs == 0)
+                system = new ServerTreeItem(area, getSystemName(i), id++, null);
+            new AlarmPV(server, system, id++, names.get(i), "Storm PV " + i,
+                        true, latching, false, 0, 0, 0, "",
+                        SeverityLevel.OK, "", SeverityLevel.OK, "", "", now);
+        }
+        return root;
+    }
+
+    private String getAreaName(final int index)
+    {
+        return "Area " + index / (systems * pvs);
+    }
+
+    private String getSystemName(final int index)
+    {
+        return "System " + index / (systems * pvs) + "." + (index / pvs) % systems;
+    }
+
+    /** Write alarm configuration as XML
+     *  @param out Writer for the XML
+     *  @param root_name Name of the root
+     */
+    public void writeXML(final PrintWriter out, final String root_name)
+    {
+        out.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+        out.println("<config " + XMLTags.NAME + "=\"" + root_name + "\">");
+        for (int i=0; i<names.size(); ++i)
+        {
+            if (i % (systems * pvs) == 0)
+                out.println("  <" + XMLTags.COMPONENT + " " + XMLTags.NAME + "=\"" + getAreaName(i) + "\">");
+            if (i % pvs == 0)
+                out.println("    <" + XMLTags.COMPONENT + " " + XMLTags.NAME + "=\"" + getSystemName(i) + "\">");
+            out.println("      <" + XMLTags.PV + " " + XMLTags.NAME + "=\"" + names.get(i) + "\">");
+            out.println("        <" + XMLTags.DESCRIPTION + ">Storm PV " + i + "</" + XMLTags.DESCRIPTION + ">");
+            out.println("        <" + XMLTags.LATCHING + ">" + latching + "</" + XMLTags.LATCHING + ">");
+            out.println("        <" + XMLTags.ANNUNCIATING + ">false</" + XMLTags.ANNUNCIATING + ">");
+            out.println("      </" + XMLTags.PV + ">");
+            // Close system, area
+            if (i % pvs == pvs-1  ||  i == names.size()-1)
+                out.println("    </" + XMLTags.COMPONENT + ">");
+            if (i % (systems * pvs) == systems * pvs - 1  ||  i == names.size()-1)
+                out.println("  </" + XMLTags.COMPONENT + ">");
+        }
+        out.println("</config>");
+    }
+}
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/** JUnit test of the {@link TimingWheel}
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class TimingWheelUnitTest
+{
+    /** Wheel with 10ms ticks and 8 slots, i.e. one turn takes 80ms */
+    final private TimingWheel wheel = new TimingWheel("Test", 10, 8);
+
+    @Test(timeout=5000)
+    public void testExpiration() throws Exception
+    {
+        final AtomicInteger runs = new AtomicInteger();
+        final TimingWheel.Entry entry = new TimingWheel.Entry(runs::incrementAndGet);
+
+        final long start = System.currentTimeMillis();
+        wheel.schedule(entry, 200);
+        assertTrue(wheel.isScheduled(entry));
+        assertEquals(1, wheel.getPending());
+
+        // Delay is longer than one turn of the wheel, must not expire early
+        Thread.sleep(100);
+        assertEquals(0, runs.get());
+        while (runs.get() == 0)
+            Thread.sleep(10);
+        final long millis = System.currentTimeMillis() - start;
+        System.out.println("Expired after " + millis + " ms");
+        assertTrue(millis >= 200);
+        assertFalse(wheel.isScheduled(entry));
+        assertEquals(0, wheel.getPending());
+        assertEquals(1, wheel.getExpired());
+
+        // Entry can be re-used
+        wheel.schedule(entry, 20);
+        while (runs.get() == 1)
+            Thread.sleep(10);
+        assertEquals(2, wheel.getExpired());
+    }
+
+    @Test(timeout=5000)
+    public void testRescheduleAndCancel() throws Exception
+    {
+        final AtomicInteger runs = new AtomicInteger();
+        final TimingWheel.Entry entry = new TimingWheel.Entry(runs::incrementAndGet);
+
+        // Keep moving the deadline, like resetting the nag timer
+        for (int i=0; i<10; ++i)
+        {
+            wheel.schedule(entry, 100);
+            Thread.sleep(20);
+        }
+        assertEquals(0, runs.get());
+        assertEquals(1, wheel.getPending());
+
+        wheel.cancel(entry);
+        wheel.cancel(entry);
+        assertEquals(0, wheel.getPending());
+        Thread.sleep(200);
+        assertEquals(0, runs.get());
+    }
+
+    @Test(timeout=5000)
+    public void testBatches() throws Exception
+    {
+        // Collect batches instead of executing them
+        final List<Runnable> batches = new ArrayList<>();
+        wheel.setExecutor(batch ->
+        {
+            synchronized (batches)
+            {
+                batches.add(batch);
+                batches.notifyAll();
+            }
+        });
+
+        final AtomicInteger runs = new AtomicInteger();
+        final TimingWheel.Entry[] entries = new TimingWheel.Entry[100];
+        for (int i=0; i<entries.length; ++i)
+        {
+            entries[i] = new TimingWheel.Entry(runs::incrementAndGet);
+            wheel.schedule(entries[i], 50);
+        }
+
+        // Entries that expire in the same tick are delivered together
+        synchronized (batches)
+        {
+            while (batches.isEmpty()  ||  wheel.getPending() > 0)
+                batches.wait(100);
+        }
+        assertTrue(batches.size() <= 2);
+        assertEquals(0, runs.get());
+
+        // Canceled after expiration, but before the batch was executed
+        wheel.cancel(entries[0]);
+        for (Runnable batch : batches)
+            batch.run();
+        assertEquals(entries.length - 1, runs.get());
+        assertEquals(entries.length - 1, wheel.getExpired());
+        assertTrue(wheel.getMaxLag() > 0);
+    }
+
+    /** A crashing entry must not affect the others */
+    @Test(timeout=5000)
+    public void testCrash() throws Exception
+    {
+        final AtomicInteger runs = new AtomicInteger();
+        wheel.schedule(new TimingWheel.Entry(() -> { throw new Error("Simulated crash"); }), 20);
+        wheel.schedule(new TimingWheel.Entry(runs::incrementAndGet), 20);
+        while (runs.get() == 0)
+            Thread.sleep(10);
+        wheel.schedule(new TimingWheel.Entry(runs::incrementAndGet), 20);
+        while (runs.get() == 1)
+            Thread.sleep(10);
+    }
+}
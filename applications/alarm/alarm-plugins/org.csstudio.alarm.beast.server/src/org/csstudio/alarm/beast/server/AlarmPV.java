@@ -59,6 +59,14 @@ public class AlarmPV extends TreeItem implements AlarmLogicListener, FilterListe
      */
     private volatile transient Filter filter;
 
+    /** Shard of the alarm server that evaluates updates for this PV */
+    private volatile int shard = 0;
+
+    /** Time in nanoseconds when the update that's being evaluated was received,
+     *  0 while not evaluating a received update
+     */
+    private volatile long receipt = 0;
+
     /** Initialize alarm PV
      *  @param server Alarm server that handles this PV. Within JUnit tests, this may be <code>null</code>.
      *  @param id RDB ID
@@ -113,6 +121,26 @@ public class AlarmPV extends TreeItem implements AlarmLogicListener, FilterListe
         return (ServerTreeItem) super.getParent();
     }
 
+    /** @param shard Shard of the alarm server that evaluates updates for this PV */
+    void setShard(final int shard)
+    {
+        this.shard = shard;
+    }
+
+    /** @return Shard of the alarm server that evaluates updates for this PV */
+    int getShard()
+    {
+        return shard;
+    }
+
+    /** @return Time in nanoseconds when the update that's being evaluated was received,
+     *          0 while not evaluating a received update
+     */
+    long getReceiptTime()
+    {
+        return receipt;
+    }
+
     /** @return AlarmLogic used by this PV */
     AlarmLogic getAlarmLogic()
     {
@@ -251,8 +279,54 @@ public class AlarmPV extends TreeItem implements AlarmLogicListener, FilterListe
     {
         final AlarmState received = new AlarmState(SeverityLevel.UNDEFINED,
             Messages.AlarmMessageNotConnected, "", Instant.now());
-        logic.computeNewState(received);
-        logger.log(Level.INFO, () -> getPathName() + " connection timed out -> " + logic);
+        evaluate(received, false);
+        logger.log(Level.INFO, () -> getPathName() + " connection timed out");
+    }
+
+    /** Evaluate received state
+     *
+     *  <p>Passes the state to the shard of the alarm server
+     *  that handles this PV.
+     *
+     *  @param received Received state
+     *  @param maximize Always maximize severity up the alarm tree,
+     *                  or only when the alarm severity changed?
+     */
+    private void evaluate(final AlarmState received, final boolean maximize)
+    {
+        final long now = System.nanoTime();
+        if (server == null)
+            computeNewState(received, now, maximize);
+        else
+            server.evaluate(this, () -> computeNewState(received, now, maximize));
+    }
+
+    /** Compute new alarm state
+     *  @param received Received state
+     *  @param receipt Time in nanoseconds when state was received
+     *  @param maximize Always maximize severity up the alarm tree,
+     *                  or only when the alarm severity changed?
+     */
+    private void computeNewState(final AlarmState received, final long receipt, final boolean maximize)
+    {
+        this.receipt = receipt;
+        try
+        {
+            final SeverityLevel old_severity = logic.getAlarmState().getSeverity();
+            logic.computeNewState(received);
+            logger.log(Level.FINE, () -> getPathName() + " received " + received + " -> " + logic);
+
+            // Whenever logic computes new state, maximize up parent tree
+            // Parent is null for a PV that was removed from the configuration
+            final ServerTreeItem parent = getParent();
+            if (parent != null  &&
+                (maximize  ||  ! logic.getAlarmState().getSeverity().equals(old_severity)))
+                parent.maximizeSeverity();
+        }
+        finally
+        {
+            this.receipt = 0;
+        }
     }
 
     /** @see PVListener */
@@ -268,10 +342,8 @@ public class AlarmPV extends TreeItem implements AlarmLogicListener, FilterListe
     {
         final AlarmState received = new AlarmState(SeverityLevel.UNDEFINED,
                 Messages.AlarmMessageDisconnected, "", Instant.now());
-        logic.computeNewState(received);
-        logger.log(Level.INFO, () -> getPathName() + " disconnected -> " + logic);
-
-        getParent().maximizeSeverity();
+        evaluate(received, true);
+        logger.log(Level.INFO, () -> getPathName() + " disconnected");
     }
 
     /** @see PVListener */
@@ -284,16 +356,7 @@ public class AlarmPV extends TreeItem implements AlarmLogicListener, FilterListe
         final AlarmState received = new AlarmState(new_severity, new_message,
                 VTypeHelper.toString(value),
                 VTypeHelper.getTimestamp(value));
-
-        final SeverityLevel old_severity = logic.getAlarmState().getSeverity();
-        logic.computeNewState(received);
-        logger.log(Level.FINE, () -> getPathName() + " received " + value + " -> " + logic);
-
-        if (logic.getAlarmState().getSeverity().equals(old_severity))
-            return;
-
-        // Whenever logic computes new state, maximize up parent tree
-        getParent().maximizeSeverity();
+        evaluate(received, false);
     }
 
     /** AlarmLogicListener: {@inheritDoc} */
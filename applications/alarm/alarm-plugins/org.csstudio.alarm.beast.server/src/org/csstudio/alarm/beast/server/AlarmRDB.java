@@ -19,9 +19,11 @@ import java.util.Date;
 import java.util.List;
 import java.util.logging.Level;
 
+import org.csstudio.alarm.beast.ConfigurationVersion;
 import org.csstudio.alarm.beast.SQL;
 import org.csstudio.alarm.beast.SeverityLevel;
 import org.csstudio.alarm.beast.TimestampHelper;
+import org.csstudio.alarm.beast.TreeItem;
 import org.csstudio.alarm.beast.server.AlarmServer.Update;
 import org.csstudio.platform.utility.rdb.RDBUtil;
 
@@ -56,6 +58,9 @@ public class AlarmRDB
     /** Map of message strings and IDs in RDB */
     final private MessageMapping message_mapping;
 
+    /** Version of the configuration that was read */
+    private ConfigurationVersion version = null;
+
     /** Lazily (re-)created statement for updating the alarm state of a PV */
     private PreparedStatement updateStateStatement;
 
@@ -84,6 +89,25 @@ public class AlarmRDB
         }
     }
 
+    /** Initialize without connecting to an RDB
+     *
+     *  <p>For derived classes that replace the RDB access,
+     *  for example as a stand-in for tests.
+     *  Such classes must override all methods that access the RDB.
+     *
+     *  @param server Alarm server
+     *  @param root_name Name of alarm tree root
+     */
+    protected AlarmRDB(final AlarmServer server, final String root_name)
+    {
+        this.server = server;
+        this.root_name = root_name;
+        rdb = null;
+        sql = null;
+        severity_mapping = null;
+        message_mapping = null;
+    }
+
     /** Read alarm configuration
      *  @return Root element of the alarm tree hierarchy
      *  @throws Exception on error
@@ -116,11 +140,12 @@ public class AlarmRDB
         }
 
         // Fetch children
+        final ConfigurationVersion new_version = new ConfigurationVersion(root.getID());
         final PreparedStatement sel_items_by_parent =
             conn.prepareStatement(sql.sel_items_by_parent);
         try
         {
-            readChildren(root, sel_items_by_parent);
+            readChildren(root, sel_items_by_parent, new_version);
         }
         finally
         {
@@ -143,6 +168,7 @@ public class AlarmRDB
         rdb.setAutoReconnect(true);
 
         root.check();
+        version = new_version;
 
         return root;
     }
@@ -150,9 +176,11 @@ public class AlarmRDB
     /** Read alarm tree hierarchy
      *  @param parent Parent entry
      *  @param sel_items_by_parent Prepared statement for fetching child elements
+     *  @param version Version to which the child elements are added
      *  @throws Exception on error
      */
-    private void readChildren(final ServerTreeItem parent, final PreparedStatement sel_items_by_parent) throws Exception
+    private void readChildren(final ServerTreeItem parent, final PreparedStatement sel_items_by_parent,
+                              final ConfigurationVersion version) throws Exception
     {
         final PreparedStatement sel_actions = connection.prepareStatement(sql.sel_auto_actions_by_id);
         final List<ServerTreeItem> recurse_items = new ArrayList<>();
@@ -163,103 +191,14 @@ public class AlarmRDB
         {
             while (result.next())
             {
-                final int id = result.getInt(1);
-                if (result.wasNull())
-                    throw new Exception("NULL component ID");
                 final String name = result.getString(17);
                 if (result.wasNull())
                     throw new Exception("NULL component Name");
-                // Ignoring config. time from result.getTimestamp(2)
-
-                // Check PV's ID. If null, this is a component, not PV
-                final int pv_id = result.getInt(3);
-                if (result.wasNull())
-                {
-                    // Check automated action 'sevrpv:' ...
-                    String severity_pv = null;
-                    sel_actions.setInt(1, id);
-                    try
-                    (
-                        final ResultSet act_res = sel_actions.executeQuery();
-                    )
-                    {
-                        while (act_res.next())
-                        {
-                            final String action = act_res.getString(2);
-                            if (action.startsWith(SEVRPV))
-                            {
-                                final String pv_name = action.substring(SEVRPV.length());
-                                if (severity_pv != null)
-                                    logger.log(Level.WARNING, "Multiple severity PVs for '" + name + "', '" +
-                                               severity_pv + "' as well as '" + pv_name + "'");
-                                severity_pv = pv_name;
-                            }
-                        }
-                    }
-
-                    final ServerTreeItem child = new ServerTreeItem(parent, name, id, severity_pv);
-                    recurse_items.add(child);
-                }
-                else
-                {   // Handle PV
-                    if (id != pv_id)
-                        throw new Exception("Internal RDB error: Item '" + name + "' as ID " + id + " but also PV ID " + pv_id);
-                    // Easy results
-                    String description = result.getString(4);
-                    // Description should not be empty
-                    if (result.wasNull() || description == null || description.length() <= 0)
-                        description = name;
-                    // Default to most features turned 'on'
-                    boolean enabled = result.getBoolean(5);
-                    if (result.wasNull())
-                        enabled = true;
-                    boolean annunciate = result.getBoolean(6);
-                    if (result.wasNull())
-                        annunciate = true;
-                    boolean latch = result.getBoolean(7);
-                    if (result.wasNull())
-                        latch = true;
-                    // 0/null/empty disables these features
-                    final int min_alarm_delay = result.getInt(8);
-                    final int count = result.getInt(9);
-                    final String filter = result.getString(10);
-
-                    // Decode current severity/status IDs, handling NULL as "Ok"
-                    int severity_id = result.getInt(11);
-                    final SeverityLevel current_severity = result.wasNull()
-                        ? SeverityLevel.OK
-                        : severity_mapping.getSeverityLevel(severity_id);
-
-                    int status_id = result.getInt(12);
-                    final String current_status = result.wasNull()
-                        ? ""
-                        : message_mapping.findMessageById(status_id);
-
-                    // Alarm severity/status
-                    severity_id = result.getInt(13);
-                    final SeverityLevel severity = result.wasNull()
-                        ? SeverityLevel.OK
-                        : severity_mapping.getSeverityLevel(severity_id);
-
-                    status_id = result.getInt(14);
-                    final String status = result.wasNull()
-                        ? ""
-                        : message_mapping.findMessageById(status_id);
-
-                    // Alarm value, time
-                    final String value = result.getString(15);
-
-                    final Timestamp time = result.getTimestamp(16);
-                    final Instant timestamp = result.wasNull()
-                        ? Instant.now()
-                        : TimestampHelper.toEPICSTime(time);
-
-                    final int global_delay = AlarmServerPreferences.getGlobalAlarmDelay();
-
-                    new AlarmPV(server, parent, id, name, description,
-                            enabled, latch, annunciate, min_alarm_delay, count, global_delay, filter,
-                            current_severity, current_status, severity, status, value, timestamp);
-                }
+                final TreeItem item = createItem(parent, name, result, sel_actions);
+                version.add(item.getID(), parent.getID(), name,
+                            ConfigurationVersion.getMillis(result.getTimestamp(2)));
+                if (item instanceof ServerTreeItem)
+                    recurse_items.add((ServerTreeItem) item);
             }
         }
         finally
@@ -272,7 +211,184 @@ public class AlarmRDB
         // Cannot do that inside the above while() because that would reuse
         // the statement of the current ResultSet
         for (ServerTreeItem child : recurse_items)
-            readChildren(child, sel_items_by_parent);
+            readChildren(child, sel_items_by_parent, version);
+    }
+
+    /** Create alarm tree item
+     *  @param parent Parent entry
+     *  @param name Name of the item
+     *  @param result Result of sel_items_by_parent or sel_item_by_parent_and_name
+     *  @param sel_actions Prepared statement for fetching automated actions
+     *  @return {@link ServerTreeItem} or {@link AlarmPV}
+     *  @throws Exception on error
+     */
+    private TreeItem createItem(final ServerTreeItem parent, final String name,
+                                final ResultSet result, final PreparedStatement sel_actions) throws Exception
+    {
+        final int id = result.getInt(1);
+        if (result.wasNull())
+            throw new Exception("NULL component ID");
+
+        // Check PV's ID. If null, this is a component, not PV
+        final int pv_id = result.getInt(3);
+        if (result.wasNull())
+            return new ServerTreeItem(parent, name, id, readSeverityPV(id, name, sel_actions));
+
+        // Handle PV
+        if (id != pv_id)
+            throw new Exception("Internal RDB error: Item '" + name + "' as ID " + id + " but also PV ID " + pv_id);
+        // Easy results
+        String description = result.getString(4);
+        // Description should not be empty
+        if (result.wasNull() || description == null || description.length() <= 0)
+            description = name;
+        // Default to most features turned 'on'
+        boolean enabled = result.getBoolean(5);
+        if (result.wasNull())
+            enabled = true;
+        boolean annunciate = result.getBoolean(6);
+        if (result.wasNull())
+            annunciate = true;
+        boolean latch = result.getBoolean(7);
+        if (result.wasNull())
+            latch = true;
+        // 0/null/empty disables these features
+        final int min_alarm_delay = result.getInt(8);
+        final int count = result.getInt(9);
+        final String filter = result.getString(10);
+
+        // Decode current severity/status IDs, handling NULL as "Ok"
+        int severity_id = result.getInt(11);
+        final SeverityLevel current_severity = result.wasNull()
+            ? SeverityLevel.OK
+            : severity_mapping.getSeverityLevel(severity_id);
+
+        int status_id = result.getInt(12);
+        final String current_status = result.wasNull()
+            ? ""
+            : message_mapping.findMessageById(status_id);
+
+        // Alarm severity/status
+        severity_id = result.getInt(13);
+        final SeverityLevel severity = result.wasNull()
+            ? SeverityLevel.OK
+            : severity_mapping.getSeverityLevel(severity_id);
+
+        status_id = result.getInt(14);
+        final String status = result.wasNull()
+            ? ""
+            : message_mapping.findMessageById(status_id);
+
+        // Alarm value, time
+        final String value = result.getString(15);
+
+        final Timestamp time = result.getTimestamp(16);
+        final Instant timestamp = result.wasNull()
+            ? Instant.now()
+            : TimestampHelper.toEPICSTime(time);
+
+        final int global_delay = AlarmServerPreferences.getGlobalAlarmDelay();
+
+        return new AlarmPV(server, parent, id, name, description,
+                enabled, latch, annunciate, min_alarm_delay, count, global_delay, filter,
+                current_severity, current_status, severity, status, value, timestamp);
+    }
+
+    /** Check automated actions of a component for 'sevrpv:'
+     *  @param id RDB ID of component
+     *  @param name Name of component
+     *  @param sel_actions Prepared statement for fetching automated actions
+     *  @return Name of severity PV or <code>null</code>
+     *  @throws Exception on error
+     */
+    private String readSeverityPV(final int id, final String name, final PreparedStatement sel_actions) throws Exception
+    {
+        String severity_pv = null;
+        sel_actions.setInt(1, id);
+        try
+        (
+            final ResultSet act_res = sel_actions.executeQuery();
+        )
+        {
+            while (act_res.next())
+            {
+                final String action = act_res.getString(2);
+                if (action.startsWith(SEVRPV))
+                {
+                    final String pv_name = action.substring(SEVRPV.length());
+                    if (severity_pv != null)
+                        logger.log(Level.WARNING, "Multiple severity PVs for '" + name + "', '" +
+                                   severity_pv + "' as well as '" + pv_name + "'");
+                    severity_pv = pv_name;
+                }
+            }
+        }
+        return severity_pv;
+    }
+
+    /** Read what changed in the configuration since it was last read.
+     *
+     *  <p>The changes are then considered as read,
+     *  so caller needs to read the complete configuration
+     *  when failing to apply them.
+     *
+     *  @param forced_id ID of an item to list as modified, or -1
+     *  @return Changes since the configuration was last read
+     *  @throws Exception on error
+     *  @see ConfigurationVersion#getChangesSince(ConfigurationVersion, int)
+     */
+    public ConfigurationVersion.Delta readChanges(final int forced_id) throws Exception
+    {
+        if (version == null)
+            throw new Exception("Configuration has not been read");
+        final ConfigurationVersion current = ConfigurationVersion.read(rdb, sql, version.getRootID());
+        final ConfigurationVersion.Delta delta = current.getChangesSince(version, forced_id);
+        version = current;
+        return delta;
+    }
+
+    /** Read alarm tree component or PV
+     *  @param parent Parent entry
+     *  @param name Name of the item
+     *  @return {@link ServerTreeItem} or {@link AlarmPV}, added to parent
+     *  @throws Exception on error
+     */
+    public TreeItem readItem(final ServerTreeItem parent, final String name) throws Exception
+    {
+        final Connection conn = rdb.getConnection();
+        try
+        (
+            final PreparedStatement statement = conn.prepareStatement(sql.sel_item_by_parent_and_name);
+            final PreparedStatement sel_actions = conn.prepareStatement(sql.sel_auto_actions_by_id);
+        )
+        {
+            statement.setInt(1, parent.getID());
+            statement.setString(2, name);
+            try
+            (
+                final ResultSet result = statement.executeQuery();
+            )
+            {
+                if (! result.next())
+                    throw new Exception("Unknown alarm tree item " + name + " in " + parent.getPathName());
+                return createItem(parent, name, result, sel_actions);
+            }
+        }
+    }
+
+    /** Read configuration for component, update it from RDB
+     *  @param item Component to update
+     *  @throws Exception on error
+     */
+    public void readConfigurationUpdate(final ServerTreeItem item) throws Exception
+    {
+        try
+        (
+            final PreparedStatement sel_actions = rdb.getConnection().prepareStatement(sql.sel_auto_actions_by_id);
+        )
+        {
+            item.setSeverityPV(readSeverityPV(item.getID(), item.getName(), sel_actions));
+        }
     }
 
     /** Read configuration for PV, update it from RDB
@@ -16,11 +16,15 @@ import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
 import org.csstudio.alarm.beast.AlarmTreePath;
+import org.csstudio.alarm.beast.ConfigurationVersion;
 import org.csstudio.alarm.beast.Preferences;
 import org.csstudio.alarm.beast.SeverityLevel;
 import org.csstudio.alarm.beast.TreeItem;
@@ -35,6 +39,15 @@ import org.eclipse.osgi.util.NLS;
  *  <p>
  *  Ignores the hierarchy which (some) of the clients may use to
  *  display the alarm state of PVs.
+ *  <p>
+ *  Updates from PVs are evaluated by {@link AlarmShards},
+ *  where each shard handles the PVs of some subtrees of the configuration.
+ *  Resulting state updates are coalesced per PV,
+ *  and the latest state of each PV is then
+ *  sent to JMS and the RDB in batches.
+ *  <p>
+ *  Alarm delays and the nag timer use the {@link TimingWheel},
+ *  which passes expired timers in batches to the work queue.
  *
  *  @author Kay Kasemir, Xihui Chen
  *  @author Jaka Bobnar - RDB batching
@@ -42,6 +55,19 @@ import org.eclipse.osgi.util.NLS;
 @SuppressWarnings("nls")
 public class AlarmServer implements Runnable
 {
+    /** Creates a component of the alarm server
+     *  @param <T> Component type
+     */
+    @FunctionalInterface
+    interface ComponentFactory<T>
+    {
+        /** @param server Alarm server
+         *  @return Component for that server
+         *  @throws Exception on error
+         */
+        T create(AlarmServer server) throws Exception;
+    }
+
     /** BatchUpdater takes care of periodic updates of alarm states into the RDB and
      *  to the JMS. This allows for the updates to queue up to sizable number.
      *  Then they are sent in batches, which allows for better performance.
@@ -92,6 +118,8 @@ public class AlarmServer implements Runnable
         public final String alarmMessage;
         public final String value;
         public final Instant timestamp;
+        /** Time in nanoseconds when the data for this update was received */
+        public final long received;
 
         public Update(final AlarmPV pv,
                 final SeverityLevel currentSeverity, final String currentMessage,
@@ -105,24 +133,30 @@ public class AlarmServer implements Runnable
             this.alarmMessage = alarmMessage;
             this.value = value;
             this.timestamp = timestamp;
+            final long receipt = pv.getReceiptTime();
+            this.received = receipt != 0 ? receipt : System.nanoTime();
         }
     }
 
-    /** A list holding all the updates, which have not yet been send to the JMS queue */
-    private List<Update> queuedUpdates = new ArrayList<Update>();
+    /** Updates which have not yet been sent to JMS and the RDB, mapping the 'latest' by PV.
+     *  Only the most recent update for each PV is sent.
+     */
+    final private Map<String,Update> queuedUpdates = new ConcurrentHashMap<String,Update>();
+
+    /** Global updates which have not yet been sent, mapping the 'latest' by PV */
+    final private Map<String,Update> queuedGlobalUpdates = new ConcurrentHashMap<String,Update>();
 
-    /** A list holding all the global updates, which have not yet been send to the JMS queue */
-    private List<Update> queuedGlobalUpdates = new ArrayList<Update>();
+    /** Shards that evaluate updates from PVs */
+    final private AlarmShards shards;
 
-    /** Updates to be persisted in the RDB, mapping the 'latest' by PV.
-     *  While queuedUpdates contains all recent updates, the map only
-     *  retains the most recent update for each PV
-     *  because we only need to store the latest updates of the same PV.
-     */
-    private Map<String,Update> queuedRDBUpdates = new HashMap<String,Update>();
+    /** Number of updates that were replaced by a more recent update for the same PV */
+    final private AtomicLong coalesced_updates = new AtomicLong();
 
-    /** Global updates to be persisted in the RDB, mapping the 'latest' by PV */
-    private Map<String,Update> queuedRDBGlobalUpdates = new HashMap<String,Update>();
+    /** Number of sent updates */
+    final private AtomicLong sent_updates = new AtomicLong();
+
+    /** Total and maximum time in nanoseconds from receiving data to sending the update */
+    final private AtomicLong total_latency = new AtomicLong(), max_latency = new AtomicLong();
 
     /** Name of alarm tree root element */
     final String root_name;
@@ -171,17 +205,38 @@ public class AlarmServer implements Runnable
      *  @throws Exception on error
      */
     public AlarmServer(final WorkQueue work_queue, final String root_name) throws Exception
+    {
+        this(work_queue, root_name,
+             server -> new AlarmRDB(server, Preferences.getRDB_Url(),
+                                    Preferences.getRDB_User(),
+                                    Preferences.getRDB_Password(),
+                                    Preferences.getRDB_Schema(),
+                                    root_name),
+             server -> new ServerCommunicator(server, work_queue, root_name));
+    }
+
+    /** Initialize with specific RDB and JMS components
+     *
+     *  <p>Allows tests and benchmarks to use stand-ins.
+     *
+     *  @param work_queue Work queue of the 'main' thread
+     *  @param root_name Name of alarm tree root
+     *  @param rdb_factory Creates the {@link AlarmRDB}
+     *  @param messenger_factory Creates the {@link ServerCommunicator}
+     *  @throws Exception on error
+     */
+    AlarmServer(final WorkQueue work_queue, final String root_name,
+                final ComponentFactory<AlarmRDB> rdb_factory,
+                final ComponentFactory<ServerCommunicator> messenger_factory) throws Exception
     {
         this.root_name = root_name;
         this.work_queue = work_queue;
         this.updatePeriod = (long)(Preferences.getBatchUpdatePeriod()*1000);
         this.batchSize = Preferences.getBatchSize();
-        rdb = new AlarmRDB(this, Preferences.getRDB_Url(),
-                Preferences.getRDB_User(),
-                Preferences.getRDB_Password(),
-                Preferences.getRDB_Schema(),
-                root_name);
-        messenger = new ServerCommunicator(this, work_queue, root_name);
+        shards = new AlarmShards(AlarmServerPreferences.getEvaluationThreads(),
+                                 AlarmServerPreferences.getEvaluationQueueSize());
+        rdb = rdb_factory.create(this);
+        messenger = messenger_factory.create(this);
         readConfiguration();
     }
 
@@ -229,6 +284,7 @@ public class AlarmServer implements Runnable
         }
 
         out.println("Work queue size: " + work_queue.size());
+        out.println(getStatistics());
 
         // Log memory usage in MB
         final double free = Runtime.getRuntime().freeMemory() / (1024.0*1024.0);
@@ -240,6 +296,34 @@ public class AlarmServer implements Runnable
                 format.format(new Date()), max, free, 100.0*free/max, total, 100.0*total/max);
     }
 
+    /** @return Info about update queues and latency */
+    public String getStatistics()
+    {
+        final long sent = sent_updates.get();
+        final TimingWheel timer = TimingWheel.getInstance();
+        return String.format("Evaluation: %d shards, %d queued (max %d of %d per shard, %d times full)\n" +
+                             "Pending updates: %d, global: %d, coalesced: %d\n" +
+                             "Sent updates: %d, latency avg %.1f ms, max %.1f ms\n" +
+                             "Timers: %d pending, %d expired in %d batches, lag avg %.1f ms, max %.1f ms",
+                             shards.getShardCount(), shards.getQueueDepth(),
+                             shards.getMaxQueueDepth(), shards.getQueueCapacity(), shards.getFullCount(),
+                             queuedUpdates.size(), queuedGlobalUpdates.size(), coalesced_updates.get(),
+                             sent,
+                             sent > 0 ? total_latency.get() / 1e6 / sent : 0.0,
+                             max_latency.get() / 1e6,
+                             timer.getPending(), timer.getExpired(), timer.getBatches(),
+                             timer.getAverageLag() / 1e6, timer.getMaxLag() / 1e6);
+    }
+
+    /** Evaluate update of a PV
+     *  @param pv PV that received an update
+     *  @param update Task to evaluate the update
+     */
+    void evaluate(final AlarmPV pv, final Runnable update)
+    {
+        shards.execute(pv.getShard(), update);
+    }
+
     /** @return list of all PVs known to the server */
     public AlarmPV[] getPVs()
     {
@@ -268,6 +352,7 @@ public class AlarmServer implements Runnable
     /** Release all resources */
     public void close()
     {
+        shards.stop();
         messenger.stop();
         rdb.close();
     }
@@ -275,6 +360,8 @@ public class AlarmServer implements Runnable
     /** Start all the PVs, connect to JMS */
     public void start()
     {
+        // Delayed alarm updates and nags are handled in batches on the work queue
+        TimingWheel.getInstance().setExecutor(work_queue);
         messenger.start();
         messenger.sendAnnunciation(Messages.StartupMessage);
         startPVs();
@@ -387,8 +474,10 @@ public class AlarmServer implements Runnable
             nag_timer.cancel();
             nag_timer = null;
         }
+        TimingWheel.getInstance().setExecutor(null);
         messenger.sendAnnunciation("Alarm server exiting");
         stopPVs();
+        shards.stop();
         messenger.stop();
         if (batchExecutor != null)
             batchExecutor.terminate();
@@ -429,27 +518,9 @@ public class AlarmServer implements Runnable
         synchronized (this)
         {
             alarm_tree = rdb.readConfiguration();
-
-            // Determine PVs
-            final ArrayList<AlarmPV> tmp_pv_array = new ArrayList<AlarmPV>();
-            findPVs(alarm_tree, tmp_pv_array);
-            // Turn into plain array
-            pv_list = tmp_pv_array.toArray(new AlarmPV[tmp_pv_array.size()]);
-            tmp_pv_array.clear();
-            // Sort PVs by name
-            Arrays.sort(pv_list, new Comparator<AlarmPV>()
-            {
-                @Override
-                public int compare(final AlarmPV pv1, final AlarmPV pv2)
-                {
-                    return pv1.getName().compareTo(pv2.getName());
-                }
-            });
-            // Create hash
-            pv_map = new HashMap<String, AlarmPV>();
-            for (AlarmPV pv : pv_list)
-                pv_map.put(pv.getName(), pv);
+            updatePVList();
             pv_count = pv_list.length;
+            assignShards(alarm_tree, pv_count);
         }
         timer.stop();
         // LDAP results: Read 12614 PVs in 2.69 seconds, 4689.0 PVs/sec
@@ -457,6 +528,165 @@ public class AlarmServer implements Runnable
                 pv_count, timer.getSeconds(), pv_count/timer.getSeconds());
     }
 
+    /** Determine PV list and map from alarm tree.
+     *  Caller must synchronize on 'this'.
+     */
+    private void updatePVList()
+    {
+        // Determine PVs
+        final ArrayList<AlarmPV> tmp_pv_array = new ArrayList<AlarmPV>();
+        findPVs(alarm_tree, tmp_pv_array);
+        // Turn into plain array
+        pv_list = tmp_pv_array.toArray(new AlarmPV[tmp_pv_array.size()]);
+        tmp_pv_array.clear();
+        // Sort PVs by name
+        Arrays.sort(pv_list, new Comparator<AlarmPV>()
+        {
+            @Override
+            public int compare(final AlarmPV pv1, final AlarmPV pv2)
+            {
+                return pv1.getName().compareTo(pv2.getName());
+            }
+        });
+        // Create hash
+        pv_map = new HashMap<String, AlarmPV>();
+        for (AlarmPV pv : pv_list)
+            pv_map.put(pv.getName(), pv);
+    }
+
+    /** Apply changes of the configuration to the alarm tree
+     *
+     *  <p>Only the changed items are read from the RDB,
+     *  and only their PVs are stopped and (re-)started,
+     *  while all other PVs keep running with their current alarm state.
+     *
+     *  @param path_name Path to the item that changed
+     *  @throws Exception on error, in which case caller needs to read the complete configuration
+     */
+    private void updateConfiguration(final String path_name) throws Exception
+    {
+        final BenchmarkTimer timer = new BenchmarkTimer();
+        final TreeItem changed = getItemByPath(path_name);
+        final ConfigurationVersion.Delta delta = rdb.readChanges(changed == null ? -1 : changed.getID());
+
+        // Locate removed items and their PVs
+        final Map<Integer, TreeItem> items = new HashMap<>();
+        final List<TreeItem> removed = new ArrayList<>();
+        final List<AlarmPV> removed_pvs = new ArrayList<>();
+        synchronized (this)
+        {
+            mapItems(alarm_tree, items);
+            for (int id : delta.getRemoved())
+            {
+                final TreeItem item = items.get(id);
+                if (item == null)
+                    continue;
+                final TreeItem parent = item.getParent();
+                // Removing the root leaves nothing to update
+                if (parent == null)
+                    throw new Exception("Root " + item.getPathName() + " was removed");
+                // Child items of a removed item are removed with it
+                if (delta.getRemoved().contains(parent.getID()))
+                    continue;
+                removed.add(item);
+                findPVs(item, removed_pvs);
+            }
+        }
+        // See deadlock comment in startPVs()
+        for (AlarmPV pv : removed_pvs)
+            pv.stop();
+
+        final List<ServerTreeItem> parents = new ArrayList<>();
+        final List<TreeItem> added = new ArrayList<>();
+        final List<TreeItem> modified = new ArrayList<>();
+        synchronized (this)
+        {
+            for (TreeItem item : removed)
+            {
+                parents.add((ServerTreeItem) item.getParent());
+                item.detachFromParent();
+                items.remove(item.getID());
+            }
+            for (ConfigurationVersion.Item info : delta.getAdded())
+            {
+                final TreeItem parent = items.get(info.parent);
+                if (! (parent instanceof ServerTreeItem))
+                    throw new Exception("Cannot add " + info + ", unknown parent");
+                final TreeItem item = rdb.readItem((ServerTreeItem) parent, info.name);
+                if (item instanceof AlarmPV)
+                    ((AlarmPV) item).setShard(getShard(item));
+                items.put(item.getID(), item);
+                added.add(item);
+            }
+            for (ConfigurationVersion.Item info : delta.getModified())
+            {
+                final TreeItem item = items.get(info.id);
+                if (item != null  &&  item != alarm_tree)
+                    modified.add(item);
+            }
+            updatePVList();
+        }
+
+        for (ServerTreeItem parent : parents)
+            parent.maximizeSeverity();
+        for (TreeItem item : modified)
+        {
+            if (item instanceof AlarmPV)
+            {
+                final AlarmPV pv = (AlarmPV) item;
+                pv.stop();
+                rdb.readConfigurationUpdate(pv);
+                pv.start();
+            }
+            else
+            {
+                final ServerTreeItem component = (ServerTreeItem) item;
+                rdb.readConfigurationUpdate(component);
+                component.updateSeverityPV();
+            }
+        }
+        for (TreeItem item : added)
+        {
+            if (item instanceof AlarmPV)
+                ((AlarmPV) item).start();
+            else
+                ((ServerTreeItem) item).updateSeverityPV();
+        }
+        timer.stop();
+        Activator.getLogger().log(Level.INFO, "Configuration update: {0} in {1} seconds",
+                                  new Object[] { delta, String.format("%.3f", timer.getSeconds()) });
+    }
+
+    /** @param node Start node
+     *  @param items Map to which node and its child items are added by ID
+     */
+    private void mapItems(final TreeItem node, final Map<Integer, TreeItem> items)
+    {
+        items.put(node.getID(), node);
+        for (int i=0; i<node.getChildCount(); ++i)
+            mapItems(node.getChild(i), items);
+    }
+
+    /** Determine shard for a PV that was added to the configuration
+     *
+     *  <p>Uses the shard of a sibling PV to keep the PVs of a subtree together.
+     *  The load of the shards is balanced again on the next complete read of the configuration.
+     *
+     *  @param pv Added PV
+     *  @return Shard index
+     */
+    private int getShard(final TreeItem pv)
+    {
+        final TreeItem parent = pv.getParent();
+        for (int i=0; i<parent.getChildCount(); ++i)
+        {
+            final TreeItem sibling = parent.getChild(i);
+            if (sibling != pv  &&  sibling instanceof AlarmPV)
+                return ((AlarmPV) sibling).getShard();
+        }
+        return pv.getID() % shards.getShardCount();
+    }
+
     /** Recursively locate AlarmPVs in alarm hierarchy
      *  @param node Start node
      *  @param pvs Array to which located AlarmPVs are added
@@ -472,6 +702,81 @@ public class AlarmServer implements Runnable
             findPVs(node.getChild(i), pvs);
     }
 
+    /** @param node Start node
+     *  @return Number of AlarmPVs in that node, recursively
+     */
+    private int countPVs(final TreeItem node)
+    {
+        if (node instanceof AlarmPV)
+            return 1;
+        int count = 0;
+        for (int i=0; i<node.getChildCount(); ++i)
+            count += countPVs(node.getChild(i));
+        return count;
+    }
+
+    /** Split alarm hierarchy into subtrees
+     *  @param node Start node
+     *  @param limit Split subtrees with more PVs than this limit
+     *  @param subtrees List of subtrees to which the child nodes are added
+     *  @param counts List of PV counts for the subtrees
+     */
+    private void splitSubtrees(final TreeItem node, final int limit,
+                               final List<TreeItem> subtrees, final List<Integer> counts)
+    {
+        for (int i=0; i<node.getChildCount(); ++i)
+        {
+            final TreeItem child = node.getChild(i);
+            final int count = countPVs(child);
+            if (count > limit  &&  child.getChildCount() > 1)
+                splitSubtrees(child, limit, subtrees, counts);
+            else if (count > 0)
+            {
+                subtrees.add(child);
+                counts.add(count);
+            }
+        }
+    }
+
+    /** Assign PVs to shards
+     *
+     *  <p>All PVs of a subtree are assigned to the same shard.
+     *  Subtrees with more than their share of PVs are split,
+     *  then subtrees are assigned to the least loaded shard,
+     *  starting with the largest subtree.
+     *
+     *  @param root Root of alarm hierarchy
+     *  @param pv_count Number of PVs
+     */
+    private void assignShards(final TreeItem root, final int pv_count)
+    {
+        final int shard_count = shards.getShardCount();
+        final List<TreeItem> subtrees = new ArrayList<>();
+        final List<Integer> counts = new ArrayList<>();
+        splitSubtrees(root, Math.max(1, pv_count / shard_count), subtrees, counts);
+
+        final Integer[] order = new Integer[subtrees.size()];
+        for (int i=0; i<order.length; ++i)
+            order[i] = i;
+        Arrays.sort(order, (a, b) -> counts.get(b) - counts.get(a));
+
+        final int[] load = new int[shard_count];
+        final List<AlarmPV> pvs = new ArrayList<>();
+        for (int i : order)
+        {
+            int shard = 0;
+            for (int s=1; s<shard_count; ++s)
+                if (load[s] < load[shard])
+                    shard = s;
+            load[shard] += counts.get(i);
+            pvs.clear();
+            findPVs(subtrees.get(i), pvs);
+            for (AlarmPV pv : pvs)
+                pv.setShard(shard);
+        }
+        Activator.getLogger().log(Level.CONFIG, "PVs per shard: {0}", Arrays.toString(load));
+    }
+
     /** Reset the {@link NagTimer} - if we're using one
      *
      *  <p>To be called in response to any user action
@@ -503,7 +808,20 @@ public class AlarmServer implements Runnable
             pv = findPV(path[path.length-1]);
         }
         if (pv == null)
-        {   // Unknown PV, so this must be a new PV, or an area/system/subsys. Read whole config again
+        {   // Unknown PV, so this must be a new PV, or an area/system/subsys.
+            // Apply what changed, or read whole config again
+            if (path_name != null)
+            {
+                try
+                {
+                    updateConfiguration(path_name);
+                    return;
+                }
+                catch (Exception ex)
+                {
+                    Activator.getLogger().log(Level.WARNING, "Cannot update configuration, reading complete configuration", ex);
+                }
+            }
             stopPVs();
             readConfiguration();
             startPVs();
@@ -560,15 +878,11 @@ public class AlarmServer implements Runnable
             final String message,
             final String value, final Instant timestamp)
     {
-        synchronized(queuedRDBUpdates)
-        {
-            final Update u = new Update(pv, current_severity,
-                    current_message, severity, message, value, timestamp);
-            // We are only interested in the latest update of a particular PV
-            // the rest don't need to be persisted
-            queuedRDBUpdates.put(pv.getName(), u);
-            queuedUpdates.add(u);
-        }
+        final Update u = new Update(pv, current_severity,
+                current_message, severity, message, value, timestamp);
+        // We are only interested in the latest update of a particular PV
+        if (queuedUpdates.put(pv.getName(), u) != null)
+            coalesced_updates.incrementAndGet();
     }
 
     /** Update 'global' JMS clients and RDB
@@ -583,15 +897,11 @@ public class AlarmServer implements Runnable
             final String message,
             final String value, final Instant timestamp)
     {
-        synchronized (queuedRDBGlobalUpdates)
-        {
-            final Update u = new Update(pv, severity,
-                    message, severity, message, value, timestamp);
-            // We are only interested in the latest update of a particular PV
-            // the rest don't need to be persisted
-            queuedRDBGlobalUpdates.put(pv.getName(), u);
-            queuedGlobalUpdates.add(u);
-        }
+        final Update u = new Update(pv, severity,
+                message, severity, message, value, timestamp);
+        // We are only interested in the latest update of a particular PV
+        if (queuedGlobalUpdates.put(pv.getName(), u) != null)
+            coalesced_updates.incrementAndGet();
     }
 
     /** Update JMS clients and RDB about 'enabled' state of PV
@@ -652,25 +962,53 @@ public class AlarmServer implements Runnable
         messenger.sendReloadMessage();
     }
 
-    /** Send all queue updates to RDB as well as JMS */
-    private void sendQueuedUpdates()
+    /** Remove queued updates
+     *  @param queue Map of queued updates
+     *  @return Updates that were removed from the map
+     */
+    private Update[] takeUpdates(final Map<String, Update> queue)
     {
-        // Create thread-save copy
-        Update[] updates = null;
-        Update[] rdbUpdates = null;
-        synchronized (queuedRDBUpdates)
+        final List<Update> updates = new ArrayList<>(queue.size());
+        // Updates added while iterating are either taken now or remain for next time
+        final Iterator<String> names = queue.keySet().iterator();
+        while (names.hasNext())
         {
-            rdbUpdates = queuedRDBUpdates.values().toArray(new Update[queuedRDBUpdates.size()]);
-            queuedRDBUpdates.clear();
-            updates = queuedUpdates.toArray(new Update[queuedUpdates.size()]);
-            queuedUpdates.clear();
+            final Update u = queue.remove(names.next());
+            if (u != null)
+                updates.add(u);
         }
+        return updates.toArray(new Update[updates.size()]);
+    }
 
-        if (rdbUpdates.length > 0)
+    /** @param updates Updates that have been sent */
+    private void updateLatency(final Update[] updates)
+    {
+        final long now = System.nanoTime();
+        long total = 0, max = 0;
+        for (Update u : updates)
+        {
+            final long latency = now - u.received;
+            total += latency;
+            if (latency > max)
+                max = latency;
+        }
+        final long batch_max = max;
+        sent_updates.addAndGet(updates.length);
+        total_latency.addAndGet(total);
+        max_latency.accumulateAndGet(batch_max, Math::max);
+        Activator.getLogger().log(Level.FINE,
+            () -> "Sent " + updates.length + " updates, max latency " + batch_max/1e6 + " ms");
+    }
+
+    /** Send all queue updates to RDB as well as JMS */
+    private void sendQueuedUpdates()
+    {
+        final Update[] updates = takeUpdates(queuedUpdates);
+        if (updates.length > 0)
         {
             try
             {
-                rdb.persistAllStates(rdbUpdates, batchSize);
+                rdb.persistAllStates(updates, batchSize);
                 recoverFromRDBErrors();
             }
             catch (Exception e)
@@ -685,22 +1023,15 @@ public class AlarmServer implements Runnable
             messenger.sendStateUpdate(u.pv, u.currentSeverity, u.currentMessage,
                 u.alarmSeverity, u.alarmMessage, u.value, u.timestamp);
         }
+        if (updates.length > 0)
+            updateLatency(updates);
 
-        Update[] rdbGlobals = null;
-        Update[] globals = null;
-        synchronized(queuedRDBGlobalUpdates)
-        {
-            rdbGlobals = queuedRDBGlobalUpdates.values().toArray(new Update[queuedRDBGlobalUpdates.size()]);
-            queuedRDBGlobalUpdates.clear();
-            globals = queuedGlobalUpdates.toArray(new Update[queuedGlobalUpdates.size()]);
-            queuedGlobalUpdates.clear();
-        }
-
-        if (rdbGlobals.length > 0)
+        final Update[] globals = takeUpdates(queuedGlobalUpdates);
+        if (globals.length > 0)
         {
             try
             {
-                rdb.persistGlobalUpdates(rdbGlobals,batchSize);
+                rdb.persistGlobalUpdates(globals, batchSize);
                 recoverFromRDBErrors();
             }
             catch (Exception e)
@@ -24,6 +24,9 @@ public class AlarmServerPreferences
 {
     final public static String GLOBAL_ALARM_DELAY = "global_alarm_delay";
     final public static String NAG_PERIOD = "nag_period";
+    final public static String EVALUATION_THREADS = "evaluation_threads";
+    final public static String EVALUATION_QUEUE_SIZE = "evaluation_queue_size";
+    final public static String BINARY_STATE_UPDATES = "binary_state_updates";
 
     /** @return Period for repeated 'There are .. active alarms' annunciations [seconds]
      *  @throws Exception on error in period specification
@@ -45,4 +48,34 @@ public class AlarmServerPreferences
             return 0;
         return service.getInt(Activator.ID, GLOBAL_ALARM_DELAY, 0, null);
     }
+
+    /** @return Number of threads that evaluate PV updates */
+    public static int getEvaluationThreads()
+    {
+        int threads = 0;
+        final IPreferencesService service = Platform.getPreferencesService();
+        if (service != null)
+            threads = service.getInt(Activator.ID, EVALUATION_THREADS, threads, null);
+        if (threads <= 0)
+            threads = Runtime.getRuntime().availableProcessors();
+        return threads;
+    }
+
+    /** @return Number of PV updates that can be queued for each evaluation thread */
+    public static int getEvaluationQueueSize()
+    {
+        final IPreferencesService service = Platform.getPreferencesService();
+        if (service == null)
+            return 10000;
+        return service.getInt(Activator.ID, EVALUATION_QUEUE_SIZE, 10000, null);
+    }
+
+    /** @return <code>true</code> to send state updates as binary batches */
+    public static boolean getBinaryStateUpdates()
+    {
+        final IPreferencesService service = Platform.getPreferencesService();
+        if (service == null)
+            return false;
+        return service.getBoolean(Activator.ID, BINARY_STATE_UPDATES, false, null);
+    }
 }
@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.server;
+
+import static org.csstudio.alarm.beast.server.Activator.logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+
+/** Worker threads that evaluate alarm updates
+ *
+ *  <p>Each shard has a worker thread with a {@link BoundedMPSCQueue}.
+ *  Updates for one PV are always submitted to the same shard,
+ *  so they are evaluated in the order received.
+ *  Updates for PVs in different shards are evaluated concurrently.
+ *
+ *  <p>When a queue is full, the submitting thread waits for room.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class AlarmShards
+{
+    /** Time to wait when queue is full */
+    final private static long FULL_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /** Worker thread of one shard */
+    private class Shard extends Thread
+    {
+        final BoundedMPSCQueue<Runnable> queue;
+
+        /** Set while worker is about to park */
+        volatile boolean sleeping = false;
+
+        Shard(final int index, final int capacity)
+        {
+            super("AlarmShard" + index);
+            setDaemon(true);
+            queue = new BoundedMPSCQueue<>(capacity);
+        }
+
+        @Override
+        public void run()
+        {
+            while (running)
+            {
+                final Runnable task = queue.poll();
+                if (task == null)
+                {
+                    sleeping = true;
+                    // Check again after setting 'sleeping' to not miss an 'unpark'
+                    if (queue.isEmpty()  &&  running)
+                        LockSupport.park(this);
+                    sleeping = false;
+                    continue;
+                }
+                try
+                {
+                    task.run();
+                }
+                catch (Throwable ex)
+                {
+                    logger.log(Level.SEVERE, getName() + " error", ex);
+                }
+            }
+        }
+    }
+
+    final private Shard[] shards;
+
+    private volatile boolean running = true;
+
+    /** Maximum observed queue size */
+    private volatile int max_depth = 0;
+
+    /** Number of times that a submitting thread had to wait for a full queue */
+    final private AtomicLong full = new AtomicLong();
+
+    /** @param count Number of shards
+     *  @param capacity Queue capacity of each shard
+     */
+    public AlarmShards(final int count, final int capacity)
+    {
+        shards = new Shard[Math.max(count, 1)];
+        for (int i=0; i<shards.length; ++i)
+        {
+            shards[i] = new Shard(i, capacity);
+            shards[i].start();
+        }
+    }
+
+    /** @return Number of shards */
+    public int getShardCount()
+    {
+        return shards.length;
+    }
+
+    /** Submit a task
+     *  @param shard Index of shard
+     *  @param task Task to execute on that shard
+     */
+    public void execute(final int shard, final Runnable task)
+    {
+        final Shard worker = shards[shard % shards.length];
+        // Executing on the worker itself? Run now instead of possibly waiting for itself
+        if (Thread.currentThread() == worker)
+        {
+            task.run();
+            return;
+        }
+        if (! worker.queue.offer(task))
+        {
+            full.incrementAndGet();
+            do
+            {
+                if (! running)
+                {
+                    logger.log(Level.FINE, "Dropping update after shutdown");
+                    return;
+                }
+                LockSupport.unpark(worker);
+                LockSupport.parkNanos(FULL_WAIT_NANOS);
+            }
+            while (! worker.queue.offer(task));
+        }
+        final int depth = worker.queue.size();
+        if (depth > max_depth)
+            max_depth = depth;
+        if (worker.sleeping)
+            LockSupport.unpark(worker);
+    }
+
+    /** @return Number of queued tasks in all shards */
+    public int getQueueDepth()
+    {
+        int depth = 0;
+        for (Shard shard : shards)
+            depth += shard.queue.size();
+        return depth;
+    }
+
+    /** @return Maximum number of tasks that were queued in one shard */
+    public int getMaxQueueDepth()
+    {
+        return max_depth;
+    }
+
+    /** @return Queue capacity of each shard */
+    public int getQueueCapacity()
+    {
+        return shards[0].queue.getCapacity();
+    }
+
+    /** @return Number of times that a task had to wait for a full queue */
+    public long getFullCount()
+    {
+        return full.get();
+    }
+
+    /** Stop the worker threads
+     *
+     *  <p>Tasks that have been submitted but not executed are dropped.
+     */
+    public void stop()
+    {
+        running = false;
+        for (Shard shard : shards)
+            LockSupport.unpark(shard);
+        for (Shard shard : shards)
+        {
+            try
+            {
+                shard.join(2000);
+            }
+            catch (InterruptedException ex)
+            {
+                // Ignore, shutting down anyway
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.server;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/** Bounded queue for multiple producers and a single consumer
+ *
+ *  <p>Ring buffer where each slot has a sequence number
+ *  that tells producers when the slot is free and
+ *  the consumer when the slot has been filled.
+ *  Producers claim slots by advancing the tail with compare-and-set,
+ *  the consumer advances the head without any atomic update.
+ *  Neither side takes a lock.
+ *
+ *  <p><b>Only one thread may call <code>poll()</code></b>.
+ *
+ *  @param <T> Item type
+ *  @author Kay Kasemir
+ */
+public class BoundedMPSCQueue<T>
+{
+    /** Slots */
+    final private AtomicReferenceArray<T> items;
+
+    /** Sequence number of each slot.
+     *  Slot is free for position 'pos' when sequence == pos,
+     *  holds the item for position 'pos' when sequence == pos + 1.
+     */
+    final private AtomicLongArray sequence;
+
+    /** Mask for turning position into slot index */
+    final private int mask;
+
+    /** Next position to fill, advanced by producers */
+    final private AtomicLong tail = new AtomicLong();
+
+    /** Next position to read, only advanced by the consumer */
+    private volatile long head = 0;
+
+    /** @param capacity Minimum capacity, will be rounded up to power of 2 */
+    public BoundedMPSCQueue(final int capacity)
+    {
+        if (capacity < 1  ||  capacity > (1 << 30))
+            throw new IllegalArgumentException("Invalid capacity " + capacity); //$NON-NLS-1$
+        final int size = Integer.highestOneBit(capacity - 1) << 1;
+        items = new AtomicReferenceArray<>(Math.max(size, 1));
+        sequence = new AtomicLongArray(items.length());
+        for (int i=0; i<items.length(); ++i)
+            sequence.set(i, i);
+        mask = items.length() - 1;
+    }
+
+    /** @return Capacity of the queue */
+    public int getCapacity()
+    {
+        return items.length();
+    }
+
+    /** Add item to queue
+     *  @param item Item to add, must not be <code>null</code>
+     *  @return <code>true</code> if added, <code>false</code> if queue is full
+     */
+    public boolean offer(final T item)
+    {
+        while (true)
+        {
+            final long pos = tail.get();
+            final int index = (int) pos & mask;
+            final long diff = sequence.get(index) - pos;
+            if (diff == 0)
+            {   // Slot is free. Try to claim it
+                if (tail.compareAndSet(pos, pos + 1))
+                {
+                    items.lazySet(index, item);
+                    // Publish the item to the consumer
+                    sequence.set(index, pos + 1);
+                    return true;
+                }
+            }
+            else if (diff < 0)
+                return false; // Slot still holds item from one round ago: Full
+            // else: Another producer claimed the slot, try again
+        }
+    }
+
+    /** Remove oldest item from queue.
+     *  Must only be called by the one consumer thread.
+     *  @return Oldest item or <code>null</code> if queue is empty
+     */
+    public T poll()
+    {
+        final long pos = head;
+        final int index = (int) pos & mask;
+        if (sequence.get(index) != pos + 1)
+            return null;
+        final T item = items.get(index);
+        items.lazySet(index, null);
+        // Release the slot for the next round of producers
+        sequence.set(index, pos + items.length());
+        head = pos + 1;
+        return item;
+    }
+
+    /** @return <code>true</code> if queue is empty */
+    public boolean isEmpty()
+    {
+        return size() <= 0;
+    }
+
+    /** @return Approximate number of items in the queue */
+    public int size()
+    {
+        final long size = tail.get() - head;
+        if (size < 0)
+            return 0;
+        return (int) Math.min(size, items.length());
+    }
+}
@@ -58,6 +58,7 @@ public class ConsoleCommands implements CommandProvider
         final StringBuilder buf = new StringBuilder();
         buf.append("---Alarm Server commands---\n");
         buf.append("\tdump                - Dump complete alarm tree\n");
+        buf.append("\tstats               - Show update queues and latency\n");
         buf.append("\tpvs                 - List PVs\n");
         buf.append("\tpvs -a              - List PVs in alarm\n");
         buf.append("\tpvs -d              - List disconnected PVs\n");
@@ -92,6 +93,13 @@ public class ConsoleCommands implements CommandProvider
         return null;
     }
 
+    /** 'stats' command */
+    public Object _stats(final CommandInterpreter intp)
+    {
+        intp.println(server.getStatistics());
+        return null;
+    }
+
     /** 'pvs' command */
     public Object _pvs(final CommandInterpreter intp)
     {
@@ -7,8 +7,6 @@
  ******************************************************************************/
 package org.csstudio.alarm.beast.server;
 
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.logging.Level;
 
 /** Helper for checking alarms after a delay.
@@ -21,11 +19,13 @@ import java.util.logging.Level;
  *
  *  The check can also be canceled because the control system sent an 'OK'
  *  value in time.
+ *
+ *  Uses one {@link TimingWheel.Entry} that is re-used for each delay.
  */
 @SuppressWarnings("nls")
 public class DelayedAlarmUpdate
 {
-    final private static Timer timer = new Timer("DelayedAlarmUpdate", true);
+    final private static TimingWheel timer = TimingWheel.getInstance();
 
     /** Listener to notify when delay expires */
     final private DelayedAlarmListener listener;
@@ -33,8 +33,11 @@ public class DelayedAlarmUpdate
     /** Alarm state to which we would update after the delay, unless it clears in time */
     private AlarmState state;
 
-    /** Timer task used to perform the delay */
-    private TimerTask scheduled_task = null;
+    /** Is an update scheduled, i.e. neither canceled nor delivered? */
+    private boolean scheduled = false;
+
+    /** Timer entry used to perform the delay */
+    final private TimingWheel.Entry entry = new TimingWheel.Entry(this::expired);
 
     /** Initialize
      *  @param listener Listener to notify when delay expires
@@ -59,47 +62,44 @@ public class DelayedAlarmUpdate
             new NullPointerException("DelayedAlarmUpdate with null").printStackTrace();
             return;
         }
-        final TimerTask new_task;
         synchronized (this)
         {
             this.state = new_state;
             // Already scheduled?
-            if (scheduled_task != null)
+            if (scheduled)
                 return;
+            scheduled = true;
             // Schedule in timer
-            new_task = new TimerTask()
-            {
-                @Override
-                public void run()
-                {
-                    final AlarmState the_state;
-                    synchronized (DelayedAlarmUpdate.this)
-                    {
-                        // Save state for call to listener, reset everything
-                        the_state = state;
-                        scheduled_task = null;
-                        state = null;
-                    }
-                    if (the_state == null)
-                    {
-                        // Don't run because update was cancelled
-                        return;
-                    }
-                    //  Re-evaluate alarm logic with the delayed state,
-                    //  not allowing any further delays.
-                    try
-                    {
-                        listener.delayedStateUpdate(the_state);
-                    }
-                    catch (Throwable ex)
-                    {
-                        Activator.getLogger().log(Level.SEVERE, "Error in delayed alarm update", ex);
-                    }
-                }
-            };
-            scheduled_task = new_task;
+            timer.schedule(entry, seconds * 1000L);
+        }
+    }
+
+    /** Invoked by timer when delay expires */
+    private void expired()
+    {
+        final AlarmState the_state;
+        synchronized (this)
+        {
+            // Save state for call to listener, reset everything
+            the_state = state;
+            scheduled = false;
+            state = null;
+        }
+        if (the_state == null)
+        {
+            // Don't run because update was cancelled
+            return;
+        }
+        //  Re-evaluate alarm logic with the delayed state,
+        //  not allowing any further delays.
+        try
+        {
+            listener.delayedStateUpdate(the_state);
+        }
+        catch (Throwable ex)
+        {
+            Activator.getLogger().log(Level.SEVERE, "Error in delayed alarm update", ex);
         }
-        timer.schedule(new_task, seconds * 1000L);
     }
 
     /** @return Alarm state to which we'll go after the delay expires */
@@ -111,16 +111,12 @@ public class DelayedAlarmUpdate
     /** Cancel delayed alarm check because control system PV cleared.
      *  OK to call multiple times, even when nothing was scheduled.
      */
-    public void cancel()
+    public synchronized void cancel()
     {
-        final TimerTask task;
-        synchronized (this)
-        {
-            state = null;
-            task = scheduled_task;
-            scheduled_task = null;
-        }
-        if (task != null)
-            task.cancel();
+        state = null;
+        if (! scheduled)
+            return;
+        scheduled = false;
+        timer.cancel(entry);
     }
 }
@@ -61,6 +61,7 @@ public class Filter extends PVListenerAdapter
     {
         this.listener = listener;
         formula = new Formula(filter_expression, true);
+        formula.compile();
         final VariableNode vars[] = formula.getVariables();
         if (vars == null)
             variables = new VariableNode[0];
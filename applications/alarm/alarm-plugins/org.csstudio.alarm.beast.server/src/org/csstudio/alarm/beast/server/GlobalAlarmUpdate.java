@@ -7,9 +7,6 @@
  ******************************************************************************/
 package org.csstudio.alarm.beast.server;
 
-import java.util.Timer;
-import java.util.TimerTask;
-
 /** Helper for sending global alarm updates after a delay.
  *
  *  After the delay, it will invoke the listener.
@@ -18,13 +15,16 @@ import java.util.TimerTask;
  */
 public class GlobalAlarmUpdate
 {
-    final private static Timer timer = new Timer("GlobalAlarmUpdate", true); //$NON-NLS-1$
+    final private static TimingWheel timer = TimingWheel.getInstance();
 
     /** Listener to notify when delay expires */
     final private GlobalAlarmListener listener;
 
-    /** Timer task used to perform the delay */
-    private TimerTask scheduled_task = null;
+    /** Is an update scheduled, i.e. neither canceled nor delivered? */
+    private boolean scheduled = false;
+
+    /** Timer entry used to perform the delay */
+    final private TimingWheel.Entry entry = new TimingWheel.Entry(this::expired);
 
     /** Initialize
      *  @param listener Listener to notify when delay expires
@@ -40,46 +40,36 @@ public class GlobalAlarmUpdate
      *
      *  @param seconds Delay to use
      */
-    void schedule_update(final int seconds)
+    synchronized void schedule_update(final int seconds)
+    {
+        // Already scheduled?
+        if (scheduled)
+            return;
+        scheduled = true;
+        // Schedule in timer
+        timer.schedule(entry, seconds * 1000L);
+    }
+
+    /** Invoked by timer when delay expires */
+    private void expired()
     {
-        final TimerTask new_task;
         synchronized (this)
         {
-            // Already scheduled?
-            if (scheduled_task != null)
-                return;
-            // Schedule in timer
-            new_task = new TimerTask()
-            {
-                @Override
-                public void run()
-                {
-                    synchronized (GlobalAlarmUpdate.this)
-                    {
-                        scheduled_task = null;
-                    }
-                    //  Re-evaluate alarm logic with the delayed state,
-                    //  not allowing any further delays.
-                    listener.updateGlobalState();
-                }
-            };
-            scheduled_task = new_task;
+            scheduled = false;
         }
-        timer.schedule(new_task, seconds * 1000L);
+        //  Re-evaluate alarm logic with the delayed state,
+        //  not allowing any further delays.
+        listener.updateGlobalState();
     }
 
     /** Cancel delayed alarm check because control system PV cleared.
      *  OK to call multiple times, even when nothing was scheduled.
      */
-    public void cancel()
+    public synchronized void cancel()
     {
-        final TimerTask task;
-        synchronized (this)
-        {
-            task = scheduled_task;
-            scheduled_task = null;
-        }
-        if (task != null)
-            task.cancel();
+        if (! scheduled)
+            return;
+        scheduled = false;
+        timer.cancel(entry);
     }
 }
@@ -7,29 +7,59 @@
  ******************************************************************************/
 package org.csstudio.alarm.beast.server;
 
-import org.csstudio.alarm.beast.TimeoutTimer;
-
 /** Timer that 'nags' when there are active alarms
+ *
+ *  <p>Uses the {@link TimingWheel},
+ *  so a reset only moves the timer entry to a new deadline.
+ *
  *  @author Kay Kasemir
  */
-@SuppressWarnings("nls")
-public class NagTimer extends TimeoutTimer
+public class NagTimer
 {
+    final private TimingWheel timer = TimingWheel.getInstance();
+
+    final private TimingWheel.Entry entry = new TimingWheel.Entry(this::timeout);
+
+    /** Period between nags in milliseconds */
+    final private long period_ms;
+
     final private NagTimerHandler listener;
 
+    private volatile boolean running = false;
+
     /** Initialize
      *  @param period_ms Period between nags in milliseconds
      *  @param listener Who to notify
      */
     public NagTimer(final long period_ms, final NagTimerHandler listener)
     {
-        super("Nag Timer", period_ms);
+        this.period_ms = period_ms;
         this.listener = listener;
     }
 
+    /** Start the timer */
+    public void start()
+    {
+        running = true;
+        timer.schedule(entry, period_ms);
+    }
+
+    /** Reset the timer, i.e. restart the wait period */
+    public void reset()
+    {
+        if (running)
+            timer.schedule(entry, period_ms);
+    }
+
+    /** Stop the timer */
+    public void cancel()
+    {
+        running = false;
+        timer.cancel(entry);
+    }
+
     /** Check for active alarms, issue 'nag' */
-    @Override
-    protected void timeout()
+    private void timeout()
     {
         final int active = listener.getActiveAlarmCount();
         if (active > 0)
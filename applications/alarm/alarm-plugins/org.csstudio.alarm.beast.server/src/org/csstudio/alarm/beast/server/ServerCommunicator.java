@@ -9,14 +9,18 @@ package org.csstudio.alarm.beast.server;
 
 import java.net.InetAddress;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Level;
 
+import javax.jms.BytesMessage;
 import javax.jms.MapMessage;
 import javax.jms.Message;
 import javax.jms.MessageConsumer;
 import javax.jms.MessageListener;
 import javax.jms.MessageProducer;
 
+import org.csstudio.alarm.beast.JMSAlarmBatch;
 import org.csstudio.alarm.beast.JMSAlarmMessage;
 import org.csstudio.alarm.beast.JMSCommunicationWorkQueueThread;
 import org.csstudio.alarm.beast.Preferences;
@@ -26,6 +30,14 @@ import org.csstudio.alarm.beast.WorkQueue;
 import org.csstudio.logging.JMSLogMessage;
 
 /** Communicates alarm system updates between server and clients.
+ *
+ *  <p>State updates are either sent as one MapMessage per update,
+ *  or collected into {@link JMSAlarmBatch} messages:
+ *  Updates that arrive while the JMS thread is busy
+ *  are sent together once it gets to them.
+ *  In that case, the MapMessage for each update is sent to the
+ *  'state' topic, so that the message logger still records them.
+ *
  *  @author Kay Kasemir
  *  @author Jaka Bobnar - RDB batching
  */
@@ -44,6 +56,14 @@ public class ServerCommunicator extends JMSCommunicationWorkQueueThread
     /** Alarm tree root (config) name */
     final private String root_name;
 
+    /** Send state updates as {@link JMSAlarmBatch}? */
+    final private boolean binary = AlarmServerPreferences.getBinaryStateUpdates();
+
+    /** State updates to send in the next batch.
+     *  SYNC on access
+     */
+    final private List<JMSAlarmBatch.Update> pending_updates = new ArrayList<>();
+
     /** Timer for sending idle messages */
     final private TimeoutTimer idle_timer;
 
@@ -62,6 +82,11 @@ public class ServerCommunicator extends JMSCommunicationWorkQueueThread
     /** Producer for sending to the 'server' topic */
     private MessageProducer server_producer;
 
+    /** Producer for sending state updates to the 'state' topic,
+     *  <code>null</code> unless sending binary state updates
+     */
+    private MessageProducer state_producer;
+
     /** Producer for sending to the 'talk' topic */
     private MessageProducer talk_producer;
 
@@ -120,6 +145,8 @@ public class ServerCommunicator extends JMSCommunicationWorkQueueThread
         }
 
         server_producer = createProducer(Preferences.getJMS_AlarmServerTopic(root_name));
+        if (binary)
+            state_producer = createProducer(Preferences.getJMS_AlarmStateTopic(root_name));
         talk_producer = createProducer(Preferences.getJMS_TalkTopic(root_name));
         global_producer = createProducer(Preferences.getJMS_GlobalServerTopic());
         client_consumer = createConsumer(Preferences.getJMS_AlarmClientTopic(root_name));
@@ -146,6 +173,11 @@ public class ServerCommunicator extends JMSCommunicationWorkQueueThread
         global_producer = null;
         talk_producer.close();
         talk_producer = null;
+        if (state_producer != null)
+        {
+            state_producer.close();
+            state_producer = null;
+        }
         server_producer.close();
         server_producer = null;
     }
@@ -269,6 +301,20 @@ public class ServerCommunicator extends JMSCommunicationWorkQueueThread
             final String value,
             final Instant timestamp)
     {
+        if (binary)
+        {
+            final boolean first;
+            synchronized (pending_updates)
+            {
+                pending_updates.add(new JMSAlarmBatch.Update(pv.getID(),
+                        current_severity, current_message,
+                        alarm_severity, alarm_message, value, timestamp));
+                first = pending_updates.size() == 1;
+            }
+            // Schedule sending the batch when adding its first update
+            if (first)
+                execute(this::sendPendingUpdates);
+        }
         execute(new Runnable()
         {
             @Override
@@ -289,7 +335,11 @@ public class ServerCommunicator extends JMSCommunicationWorkQueueThread
                     map.setString(JMSAlarmMessage.EVENTTIME, JMSAlarmMessage.formatTime(timestamp));
                     map.setString(JMSAlarmMessage.CURRENT_SEVERITY, current_severity.name());
                     map.setString(JMSAlarmMessage.CURRENT_STATUS, current_message);
-                    server_producer.send(map);
+                    // Clients receive binary batches, logger receives MapMessage
+                    if (binary)
+                        state_producer.send(map);
+                    else
+                        server_producer.send(map);
                 }
                 catch (Exception ex)
                 {
@@ -300,6 +350,32 @@ public class ServerCommunicator extends JMSCommunicationWorkQueueThread
         idle_timer.reset();
     }
 
+    /** Send pending state updates as {@link JMSAlarmBatch} messages */
+    private void sendPendingUpdates()
+    {
+        final List<JMSAlarmBatch.Update> updates;
+        synchronized (pending_updates)
+        {
+            updates = new ArrayList<>(pending_updates);
+            pending_updates.clear();
+        }
+        final boolean maintenance_mode = AlarmLogic.getMaintenanceMode();
+        try
+        {
+            for (int start=0; start<updates.size(); start += JMSAlarmBatch.MAX_UPDATES)
+            {
+                final BytesMessage message = createBytesMessage();
+                JMSAlarmBatch.write(message, server.getRootName(), maintenance_mode,
+                    updates.subList(start, Math.min(start + JMSAlarmBatch.MAX_UPDATES, updates.size())));
+                server_producer.send(message);
+            }
+        }
+        catch (Exception ex)
+        {
+            Activator.getLogger().log(Level.WARNING, "Cannot send state update batch", ex);
+        }
+    }
+
     /** Notify 'global' clients of new alarm state.
      *  @param pv PV that changes alarm state
      *  @param alarm_severity Alarm severity
@@ -21,7 +21,7 @@ public class ServerTreeItem extends TreeItem
 
     protected volatile SeverityLevel severity = SeverityLevel.UNDEFINED;
 
-    private final String severity_pv_name;
+    private volatile String severity_pv_name;
 
     public ServerTreeItem(final ServerTreeItem parent, final String name, final int id, final String severity_pv)
     {
@@ -29,6 +29,12 @@ public class ServerTreeItem extends TreeItem
         this.severity_pv_name = severity_pv;
     }
 
+    /** @param severity_pv Name of severity PV or <code>null</code> */
+    void setSeverityPV(final String severity_pv)
+    {
+        severity_pv_name = severity_pv;
+    }
+
     /** Set severity of this item by maximizing over its child severities.
      *  Recursively updates parent items.
      */
@@ -0,0 +1,344 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.server;
+
+import static org.csstudio.alarm.beast.server.Activator.logger;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/** Hashed timing wheel for the alarm delays and the nag timer
+ *
+ *  <p>Time is divided into ticks.
+ *  Each {@link Entry} is linked into the slot for the tick of its deadline,
+ *  so scheduling, re-scheduling and canceling are O(1)
+ *  and do not create new objects.
+ *  Deadlines beyond one turn of the wheel remain in their slot
+ *  until the wheel reaches them.
+ *
+ *  <p>A single thread advances the wheel.
+ *  Entries that expire within the same tick are handed as one batch
+ *  to the {@link Executor}, for example the work queue of the alarm server.
+ *  By default, they are executed on the thread of the wheel.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class TimingWheel
+{
+    /** Entry in the timing wheel
+     *
+     *  <p>Each user of the wheel keeps one entry
+     *  which is scheduled and canceled as needed.
+     */
+    public static class Entry
+    {
+        final private Runnable action;
+
+        /** Links within slot. Access must sync on the wheel */
+        private Entry previous, next;
+
+        /** Tick of the deadline */
+        private long deadline;
+
+        /** Incremented whenever the entry is scheduled or canceled,
+         *  used to ignore an expiration that was still being delivered
+         */
+        private long generation;
+
+        private boolean scheduled = false;
+
+        /** @param action Action to perform when entry expires */
+        public Entry(final Runnable action)
+        {
+            this.action = action;
+        }
+    }
+
+    /** Entries that expired within one tick */
+    private class Batch implements Runnable
+    {
+        final Entry[] entries;
+        final long[] generations;
+
+        Batch(final int size)
+        {
+            entries = new Entry[size];
+            generations = new long[size];
+        }
+
+        @Override
+        public void run()
+        {
+            for (int i=0; i<entries.length; ++i)
+            {
+                final Entry entry = entries[i];
+                final long deadline;
+                synchronized (TimingWheel.this)
+                {   // Skip if re-scheduled or canceled since it expired
+                    if (entry.generation != generations[i])
+                        continue;
+                    deadline = entry.deadline;
+                }
+                final long lag = System.nanoTime() - start - deadline * tick_nanos;
+                total_lag.addAndGet(lag);
+                if (lag > max_lag)
+                    max_lag = lag;
+                expired.incrementAndGet();
+                try
+                {
+                    entry.action.run();
+                }
+                catch (Throwable ex)
+                {
+                    logger.log(Level.SEVERE, "Error in timer", ex);
+                }
+            }
+        }
+    }
+
+    /** Default wheel, initialized on first access */
+    private static class Default
+    {
+        final static TimingWheel instance = new TimingWheel("AlarmTimers", 50, 1024);
+    }
+
+    /** Duration of one tick in nanoseconds */
+    final private long tick_nanos;
+
+    /** Slots of the wheel, each the head of a list of entries. Access must sync on 'this' */
+    final private Entry[] slots;
+
+    /** Mask to get slot from tick */
+    final private int mask;
+
+    /** Time of tick 0 */
+    final private long start = System.nanoTime();
+
+    /** Last tick handled by the thread. Access must sync on 'this' */
+    private long current = 0;
+
+    /** Number of scheduled entries. Access must sync on 'this' */
+    private int pending = 0;
+
+    private volatile Executor executor = Runnable::run;
+
+    /** Executed entries, batches handed to the executor */
+    final private AtomicLong expired = new AtomicLong(), batches = new AtomicLong();
+
+    /** Total and maximum time in nanoseconds from deadline to executing an expired entry */
+    final private AtomicLong total_lag = new AtomicLong();
+    private volatile long max_lag = 0;
+
+    /** @return Timing wheel shared by all alarm delays and the nag timer */
+    public static TimingWheel getInstance()
+    {
+        return Default.instance;
+    }
+
+    /** Initialize and start the thread
+     *  @param name Name of the thread
+     *  @param tick_ms Duration of a tick in milliseconds
+     *  @param slot_count Number of slots, will be rounded up to a power of 2
+     */
+    public TimingWheel(final String name, final long tick_ms, final int slot_count)
+    {
+        tick_nanos = TimeUnit.MILLISECONDS.toNanos(tick_ms);
+        final int size = Integer.highestOneBit(Math.max(slot_count, 2) - 1) << 1;
+        slots = new Entry[size];
+        mask = size - 1;
+        final Thread thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** @param executor Executor for batches of expired entries,
+     *                  <code>null</code> to execute them on the thread of the wheel
+     */
+    public void setExecutor(final Executor executor)
+    {
+        this.executor = executor == null ? Runnable::run : executor;
+    }
+
+    /** Schedule an entry.
+     *  If it is already scheduled, it is moved to the new deadline.
+     *
+     *  @param entry Entry to schedule
+     *  @param delay_ms Delay in milliseconds
+     */
+    public synchronized void schedule(final Entry entry, final long delay_ms)
+    {
+        if (entry.scheduled)
+            unlink(entry);
+        // Round up to the next tick, but don't schedule into a tick that's already handled
+        final long delay = TimeUnit.MILLISECONDS.toNanos(Math.max(0, delay_ms));
+        final long deadline = (System.nanoTime() - start + delay + tick_nanos - 1) / tick_nanos;
+        entry.deadline = Math.max(deadline, current + 1);
+        ++entry.generation;
+        link(entry);
+        // Wake thread if it was idle
+        if (pending == 1)
+            notifyAll();
+    }
+
+    /** Cancel an entry.
+     *  OK to call multiple times, even when nothing was scheduled.
+     *
+     *  @param entry Entry to cancel
+     */
+    public synchronized void cancel(final Entry entry)
+    {
+        ++entry.generation;
+        if (entry.scheduled)
+            unlink(entry);
+    }
+
+    /** @param entry Entry
+     *  @return <code>true</code> if the entry is scheduled and not yet expired
+     */
+    public synchronized boolean isScheduled(final Entry entry)
+    {
+        return entry.scheduled;
+    }
+
+    /** @return Number of scheduled entries */
+    public synchronized int getPending()
+    {
+        return pending;
+    }
+
+    /** @return Number of expired entries that were executed */
+    public long getExpired()
+    {
+        return expired.get();
+    }
+
+    /** @return Number of batches in which expired entries were delivered */
+    public long getBatches()
+    {
+        return batches.get();
+    }
+
+    /** @return Average time in nanoseconds from deadline to executing an expired entry */
+    public double getAverageLag()
+    {
+        final long count = expired.get();
+        return count > 0 ? total_lag.get() / (double) count : 0.0;
+    }
+
+    /** @return Maximum time in nanoseconds from deadline to executing an expired entry */
+    public long getMaxLag()
+    {
+        return max_lag;
+    }
+
+    /** @param entry Entry to add to its slot */
+    private void link(final Entry entry)
+    {
+        final int slot = (int) (entry.deadline & mask);
+        entry.previous = null;
+        entry.next = slots[slot];
+        if (entry.next != null)
+            entry.next.previous = entry;
+        slots[slot] = entry;
+        entry.scheduled = true;
+        ++pending;
+    }
+
+    /** @param entry Entry to remove from its slot */
+    private void unlink(final Entry entry)
+    {
+        if (entry.previous == null)
+            slots[(int) (entry.deadline & mask)] = entry.next;
+        else
+            entry.previous.next = entry.next;
+        if (entry.next != null)
+            entry.next.previous = entry.previous;
+        entry.previous = entry.next = null;
+        entry.scheduled = false;
+        --pending;
+    }
+
+    /** Remove expired entries of a slot
+     *  @param slot Slot to check
+     *  @param tick Current tick
+     *  @return Batch of expired entries or <code>null</code>
+     */
+    private Batch expire(final int slot, final long tick)
+    {
+        int count = 0;
+        for (Entry entry = slots[slot];  entry != null;  entry = entry.next)
+            if (entry.deadline <= tick)
+                ++count;
+        if (count <= 0)
+            return null;
+        final Batch batch = new Batch(count);
+        count = 0;
+        Entry entry = slots[slot];
+        while (entry != null)
+        {
+            final Entry next = entry.next;
+            if (entry.deadline <= tick)
+            {
+                unlink(entry);
+                batch.entries[count] = entry;
+                batch.generations[count++] = entry.generation;
+            }
+            entry = next;
+        }
+        return batch;
+    }
+
+    /** Thread that advances the wheel */
+    private void run()
+    {
+        while (true)
+        {
+            try
+            {
+                final Batch[] expired_batches;
+                synchronized (this)
+                {
+                    while (pending <= 0)
+                        wait();
+                    // Wait for the next tick
+                    final long now = (System.nanoTime() - start) / tick_nanos;
+                    if (now <= current)
+                    {
+                        final long wait = start + (current + 1) * tick_nanos - System.nanoTime();
+                        if (wait > 0)
+                            TimeUnit.NANOSECONDS.timedWait(this, wait);
+                        continue;
+                    }
+                    // Check every slot passed since the last tick, but each one only once
+                    final int passed = (int) Math.min(now - current, slots.length);
+                    expired_batches = new Batch[passed];
+                    for (int i=0; i<passed; ++i)
+                        expired_batches[i] = expire((int) ((now - i) & mask), now);
+                    current = now;
+                }
+                for (Batch batch : expired_batches)
+                    if (batch != null)
+                    {
+                        batches.incrementAndGet();
+                        executor.execute(batch);
+                    }
+            }
+            catch (InterruptedException ex)
+            {
+                return;
+            }
+            catch (Throwable ex)
+            {
+                logger.log(Level.SEVERE, "Timing wheel error", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/** JUnit test of the {@link ConfigurationVersion}
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class ConfigurationVersionUnitTest
+{
+    /** Root 1 / Area 2 / { PV 3, System 4 / PV 5 } */
+    private ConfigurationVersion createVersion()
+    {
+        final ConfigurationVersion version = new ConfigurationVersion(1);
+        version.add(2, 1, "Area", 1000);
+        version.add(3, 2, "pv3", 1000);
+        version.add(4, 2, "System", 1000);
+        version.add(5, 4, "pv5", 1000);
+        return version;
+    }
+
+    private List<Integer> getIDs(final List<ConfigurationVersion.Item> items)
+    {
+        final List<Integer> ids = new ArrayList<>();
+        for (ConfigurationVersion.Item item : items)
+            ids.add(item.id);
+        return ids;
+    }
+
+    @Test
+    public void testUnchanged() throws Exception
+    {
+        final ConfigurationVersion.Delta delta = createVersion().getChangesSince(createVersion(), -1);
+        System.out.println(delta);
+        assertTrue(delta.isEmpty());
+    }
+
+    @Test
+    public void testAddRemoveModify() throws Exception
+    {
+        final ConfigurationVersion previous = createVersion();
+        final ConfigurationVersion current = new ConfigurationVersion(1);
+        current.add(2, 1, "Area", 1000);
+        current.add(3, 2, "pv3", 2000);
+        current.add(4, 2, "System", 1000);
+        current.add(6, 4, "pv6", 2000);
+
+        final ConfigurationVersion.Delta delta = current.getChangesSince(previous, -1);
+        System.out.println(delta);
+        assertEquals(Arrays.asList(5), new ArrayList<>(delta.getRemoved()));
+        assertEquals(Arrays.asList(6), getIDs(delta.getAdded()));
+        assertEquals(Arrays.asList(3), getIDs(delta.getModified()));
+    }
+
+    @Test
+    public void testRenameAndMove() throws Exception
+    {
+        final ConfigurationVersion previous = createVersion();
+        // Rename System, which changes the path of its PV
+        ConfigurationVersion current = new ConfigurationVersion(1);
+        current.add(2, 1, "Area", 1000);
+        current.add(3, 2, "pv3", 1000);
+        current.add(4, 2, "Renamed", 1000);
+        current.add(5, 4, "pv5", 1000);
+        ConfigurationVersion.Delta delta = current.getChangesSince(previous, -1);
+        assertEquals(Arrays.asList(4, 5), new ArrayList<>(delta.getRemoved()));
+        assertEquals(Arrays.asList(4, 5), getIDs(delta.getAdded()));
+        assertTrue(delta.getModified().isEmpty());
+
+        // Move pv3 into System
+        current = new ConfigurationVersion(1);
+        current.add(2, 1, "Area", 1000);
+        current.add(4, 2, "System", 1000);
+        current.add(3, 4, "pv3", 1000);
+        current.add(5, 4, "pv5", 1000);
+        delta = current.getChangesSince(previous, -1);
+        assertEquals(Arrays.asList(3), new ArrayList<>(delta.getRemoved()));
+        assertEquals(Arrays.asList(3), getIDs(delta.getAdded()));
+        assertTrue(delta.getModified().isEmpty());
+    }
+
+    @Test
+    public void testForcedID() throws Exception
+    {
+        // Configuration time in RDB may not change for quick successive updates
+        final ConfigurationVersion.Delta delta = createVersion().getChangesSince(createVersion(), 5);
+        assertEquals(Arrays.asList(5), getIDs(delta.getModified()));
+        assertTrue(delta.getAdded().isEmpty());
+        assertTrue(delta.getRemoved().isEmpty());
+    }
+
+    @Test
+    public void testDifferentRoot() throws Exception
+    {
+        try
+        {
+            new ConfigurationVersion(7).getChangesSince(createVersion(), -1);
+            fail("Compared different configurations");
+        }
+        catch (Exception ex)
+        {
+            assertTrue(ex.getMessage().contains("Cannot compare"));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/** JUnit test of the {@link JMSAlarmBatch}
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class JMSAlarmBatchUnitTest
+{
+    @Test
+    public void testEncodeDecode() throws Exception
+    {
+        final Instant now = Instant.ofEpochMilli(System.currentTimeMillis());
+        final List<JMSAlarmBatch.Update> updates = new ArrayList<>();
+        updates.add(new JMSAlarmBatch.Update(42, SeverityLevel.MAJOR, "HIHI", SeverityLevel.MAJOR, "HIHI", "12.5", now));
+        updates.add(new JMSAlarmBatch.Update(43, SeverityLevel.OK, "", SeverityLevel.MINOR_ACK, "HIGH", null, now));
+        updates.add(new JMSAlarmBatch.Update(44, SeverityLevel.UNDEFINED, "Disconnected", SeverityLevel.UNDEFINED, "Disconnected", "", now));
+
+        final byte[] body = JMSAlarmBatch.encode(updates);
+        final List<JMSAlarmBatch.Update> decoded = JMSAlarmBatch.decode(body);
+        assertEquals(updates.size(), decoded.size());
+        for (int i=0; i<updates.size(); ++i)
+        {
+            final JMSAlarmBatch.Update orig = updates.get(i), copy = decoded.get(i);
+            System.out.println(copy);
+            assertEquals(orig.id, copy.id);
+            assertEquals(orig.current_severity, copy.current_severity);
+            assertEquals(orig.current_message, copy.current_message);
+            assertEquals(orig.severity, copy.severity);
+            assertEquals(orig.message, copy.message);
+            assertEquals(orig.value, copy.value);
+            assertEquals(orig.timestamp, copy.timestamp);
+        }
+        assertNull(decoded.get(1).value);
+    }
+
+    @Test
+    public void testRepeatedTexts() throws Exception
+    {
+        final Instant now = Instant.now();
+        final List<JMSAlarmBatch.Update> updates = new ArrayList<>();
+        for (int i=0; i<JMSAlarmBatch.MAX_UPDATES; ++i)
+            updates.add(new JMSAlarmBatch.Update(i, SeverityLevel.MINOR, "HIGH", SeverityLevel.MINOR, "HIGH", null, now));
+        final byte[] body = JMSAlarmBatch.encode(updates);
+        System.out.println(updates.size() + " updates in " + body.length + " bytes");
+        // Text is only sent once, then referenced
+        assertTrue(body.length < 30 * updates.size());
+        assertEquals("HIGH", JMSAlarmBatch.decode(body).get(updates.size()-1).message);
+    }
+
+    @Test
+    public void testErrors() throws Exception
+    {
+        final List<JMSAlarmBatch.Update> updates = new ArrayList<>();
+        for (int i=0; i<=JMSAlarmBatch.MAX_UPDATES; ++i)
+            updates.add(new JMSAlarmBatch.Update(i, SeverityLevel.OK, "", SeverityLevel.OK, "", null, Instant.now()));
+        try
+        {
+            JMSAlarmBatch.encode(updates);
+            fail("Encoded too many updates");
+        }
+        catch (IllegalArgumentException ex)
+        {
+            // Expected
+        }
+
+        final byte[] body = JMSAlarmBatch.encode(updates.subList(0, 1));
+        body[0] = JMSAlarmBatch.VERSION + 1;
+        try
+        {
+            JMSAlarmBatch.decode(body);
+            fail("Decoded unknown version");
+        }
+        catch (Exception ex)
+        {
+            assertTrue(ex.getMessage().contains("version"));
+        }
+    }
+}
@@ -7,7 +7,9 @@
  ******************************************************************************/
 package org.csstudio.alarm.beast.ui.alarmtree;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -525,6 +527,43 @@ public class GUI implements AlarmClientModelListener, AlarmClientModelSelectionL
         }
     }
 
+    /** Alarm state of several PVs changed, refresh the display once
+     *  @see AlarmClientModelListener
+     */
+    @Override
+    public void newAlarmStates(final AlarmClientModel model,
+            final List<AlarmTreePV> pvs, final boolean parent_changed)
+    {
+        if (show_only_alarms) {
+            throttle.trigger();
+            return;
+        }
+        synchronized (modelLock) {
+            if (! model.equals(modelProvider.getModel()))
+                return;
+        }
+        // Collect PVs and their parents, each item only once
+        final Set<AlarmTreeItem> items = new LinkedHashSet<>();
+        for (AlarmTreePV pv : pvs)
+        {
+            items.add(pv);
+            if (parent_changed)
+            {
+                AlarmTreeItem item = pv.getParent();
+                while (! (item instanceof AlarmTreeRoot)  &&  items.add(item))
+                    item = item.getParent();
+            }
+        }
+        display.asyncExec(() ->
+        {
+            if (tree_viewer.getTree().isDisposed())
+                return;
+            if (model.isServerAlive())
+                setErrorMessage(null);
+            tree_viewer.update(items.toArray(), null);
+        });
+    }
+
     /** Acknowledge currently selected alarms */
     @SuppressWarnings("unchecked")
     public void acknowledgeSelectedAlarms()
@@ -0,0 +1,265 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.csstudio.platform.utility.rdb.RDBUtil;
+
+/** Version of an alarm configuration
+ *
+ *  <p>Lists RDB ID, parent ID, name and configuration time
+ *  of each item below the root of the alarm tree.
+ *  Reading this from the RDB takes a single query,
+ *  while reading the complete configuration takes several queries per item.
+ *  Comparing the current version with the one that was used to
+ *  read the configuration determines the {@link Delta},
+ *  so only added or modified items need to be read.
+ *
+ *  <p>The CONFIG_TIME of an item is written with the clock of the
+ *  tool that changed it, and removed items leave no trace in the RDB,
+ *  so the version is kept per item instead of a single 'last change' time.
+ *
+ *  <p>Not thread-safe. A version is created while reading the configuration,
+ *  then only compared.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class ConfigurationVersion
+{
+    /** Version info for one item */
+    public static class Item
+    {
+        final public int id, parent;
+        final public String name;
+        /** Configuration time in epoch milliseconds, 0 if unknown */
+        final public long config_time;
+
+        /** @param id RDB ID
+         *  @param parent RDB ID of parent
+         *  @param name Name of item
+         *  @param config_time Configuration time in epoch milliseconds
+         */
+        public Item(final int id, final int parent, final String name, final long config_time)
+        {
+            this.id = id;
+            this.parent = parent;
+            this.name = name;
+            this.config_time = config_time;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Item " + id + " '" + name + "' under " + parent;
+        }
+    }
+
+    /** Changes between two versions */
+    public static class Delta
+    {
+        final private Set<Integer> removed = new LinkedHashSet<>();
+        final private List<Item> added = new ArrayList<>();
+        final private List<Item> modified = new ArrayList<>();
+
+        /** @return IDs of removed items, parents before their child items.
+         *          Includes renamed or moved items and their child items.
+         */
+        public Collection<Integer> getRemoved()
+        {
+            return Collections.unmodifiableSet(removed);
+        }
+
+        /** @return Added items, parents before their child items.
+         *          Includes renamed or moved items and their child items.
+         */
+        public List<Item> getAdded()
+        {
+            return Collections.unmodifiableList(added);
+        }
+
+        /** @return Items with changed configuration */
+        public List<Item> getModified()
+        {
+            return Collections.unmodifiableList(modified);
+        }
+
+        /** @return <code>true</code> if nothing changed */
+        public boolean isEmpty()
+        {
+            return removed.isEmpty()  &&  added.isEmpty()  &&  modified.isEmpty();
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%d added, %d removed, %d modified",
+                                 added.size(), removed.size(), modified.size());
+        }
+    }
+
+    /** RDB ID of the root */
+    final private int root_id;
+
+    /** Items by ID, parents before their child items */
+    final private Map<Integer, Item> items = new LinkedHashMap<>();
+
+    /** @param root_id RDB ID of the alarm tree root */
+    public ConfigurationVersion(final int root_id)
+    {
+        this.root_id = root_id;
+    }
+
+    /** Read current version from RDB
+     *  @param rdb RDB connection
+     *  @param sql SQL statements
+     *  @param root_id RDB ID of the alarm tree root
+     *  @return {@link ConfigurationVersion}
+     *  @throws Exception on error
+     */
+    public static ConfigurationVersion read(final RDBUtil rdb, final SQL sql, final int root_id) throws Exception
+    {
+        // The table holds all configurations, so collect the child items
+        // of every parent, then keep what's reachable from the root
+        final Map<Integer, List<Item>> children = new HashMap<>();
+        try
+        (
+            final Statement statement = rdb.getConnection().createStatement();
+            final ResultSet result = statement.executeQuery(sql.sel_item_versions);
+        )
+        {
+            while (result.next())
+            {
+                final int parent = result.getInt(2);
+                if (result.wasNull())
+                    continue;
+                final Item item = new Item(result.getInt(1), parent, result.getString(3), getMillis(result.getTimestamp(4)));
+                children.computeIfAbsent(parent, p -> new ArrayList<>()).add(item);
+            }
+        }
+        final ConfigurationVersion version = new ConfigurationVersion(root_id);
+        final List<Integer> parents = new ArrayList<>();
+        parents.add(root_id);
+        for (int i=0; i<parents.size(); ++i)
+        {
+            final List<Item> items = children.get(parents.get(i));
+            if (items == null)
+                continue;
+            // Same order as reading the tree, by ID
+            items.sort((a, b) -> Integer.compare(a.id, b.id));
+            for (Item item : items)
+            {
+                version.items.put(item.id, item);
+                parents.add(item.id);
+            }
+        }
+        return version;
+    }
+
+    /** @param config_time Configuration time from RDB, may be <code>null</code>
+     *  @return Epoch milliseconds, 0 for <code>null</code>
+     */
+    public static long getMillis(final Timestamp config_time)
+    {
+        return config_time == null ? 0 : config_time.getTime();
+    }
+
+    /** @return RDB ID of the alarm tree root */
+    public int getRootID()
+    {
+        return root_id;
+    }
+
+    /** Add item.
+     *  Parent must be the root or an item that was already added.
+     *
+     *  @param id RDB ID
+     *  @param parent RDB ID of parent
+     *  @param name Name of item
+     *  @param config_time Configuration time in epoch milliseconds
+     */
+    public void add(final int id, final int parent, final String name, final long config_time)
+    {
+        items.put(id, new Item(id, parent, name, config_time));
+    }
+
+    /** @param id RDB ID
+     *  @return Item or <code>null</code>
+     */
+    public Item get(final int id)
+    {
+        return items.get(id);
+    }
+
+    /** @return Items, parents before their child items */
+    public List<Item> getItems()
+    {
+        return new ArrayList<>(items.values());
+    }
+
+    /** @return Number of items, not counting the root */
+    public int size()
+    {
+        return items.size();
+    }
+
+    /** Determine what changed since a previous version
+     *
+     *  <p>Since the name and path of a tree item cannot change,
+     *  a renamed or moved item is listed as removed and added,
+     *  including all its child items.
+     *
+     *  @param previous Previous version
+     *  @param forced_id ID of an item to list as modified even if its
+     *                   configuration time did not change, or -1.
+     *                   The RDB may only store seconds, so the notification
+     *                   about a changed item helps to detect quick successive changes.
+     *  @return {@link Delta}
+     *  @throws Exception if the versions are for different configurations
+     */
+    public Delta getChangesSince(final ConfigurationVersion previous, final int forced_id) throws Exception
+    {
+        if (previous.root_id != root_id)
+            throw new Exception("Cannot compare configuration " + root_id + " with " + previous.root_id);
+        final Delta delta = new Delta();
+        for (Item old : previous.items.values())
+        {
+            final Item item = items.get(old.id);
+            if (item == null  ||  item.parent != old.parent  ||  !item.name.equals(old.name)  ||
+                delta.removed.contains(old.parent))
+                delta.removed.add(old.id);
+        }
+        for (Item item : items.values())
+        {
+            final Item old = previous.items.get(item.id);
+            if (old == null  ||  delta.removed.contains(item.id))
+                delta.added.add(item);
+            else if (old.config_time != item.config_time  ||  item.id == forced_id)
+                delta.modified.add(item);
+        }
+        return delta;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Configuration " + root_id + " with " + size() + " items";
+    }
+}
@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
+
+import org.csstudio.logging.JMSLogMessage;
+
+/** Binary batch of alarm state updates.
+ *
+ *  <p>Compact alternative to one {@link JMSAlarmMessage} MapMessage per update.
+ *  A JMS BytesMessage carries the state updates of several PVs.
+ *  The TYPE, TEXT and CONFIG of the message are set as string properties,
+ *  with TEXT being {@link JMSAlarmMessage#TEXT_STATE} or
+ *  {@link JMSAlarmMessage#TEXT_STATE_MAINTENANCE}.
+ *
+ *  <p>PVs are identified by their RDB ID instead of name and path,
+ *  since server and clients read the same configuration from the RDB.
+ *  Status messages tend to repeat ("LOLO", "HIGH", ..),
+ *  so each text is sent once per batch and then referenced by index.
+ *
+ *  <p>Body format:
+ *  <pre>
+ *  byte    version
+ *  int     count
+ *  count * {
+ *    int   PV ID
+ *    byte  current severity (ordinal)
+ *    text  current message
+ *    byte  alarm severity (ordinal)
+ *    text  alarm message
+ *    text  value, may be null
+ *    long  time stamp (epoch milliseconds)
+ *  }
+ *
+ *  text:
+ *    short -2 for null
+ *    short -1 followed by UTF for new text, added to table
+ *    short index of text in table
+ *  </pre>
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class JMSAlarmBatch
+{
+    /** Version of the body format */
+    final public static byte VERSION = 1;
+
+    /** Maximum number of updates in one message */
+    final public static int MAX_UPDATES = 1000;
+
+    final private static short NULL_TEXT = -2, NEW_TEXT = -1;
+
+    /** State update of one PV */
+    public static class Update
+    {
+        final public int id;
+        final public SeverityLevel current_severity, severity;
+        final public String current_message, message, value;
+        final public Instant timestamp;
+
+        /** @param id RDB ID of the PV
+         *  @param current_severity Current severity of the PV
+         *  @param current_message Current message of the PV
+         *  @param severity Alarm severity
+         *  @param message Alarm message
+         *  @param value Value that triggered update, may be <code>null</code>
+         *  @param timestamp Time stamp for alarm severity/status
+         */
+        public Update(final int id,
+                      final SeverityLevel current_severity, final String current_message,
+                      final SeverityLevel severity, final String message,
+                      final String value, final Instant timestamp)
+        {
+            this.id = id;
+            this.current_severity = current_severity;
+            this.current_message = current_message;
+            this.severity = severity;
+            this.message = message;
+            this.value = value;
+            this.timestamp = timestamp;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Update ID " + id + " to current " +
+                   current_severity.getDisplayName() + "/" + current_message + ", alarm " +
+                   severity.getDisplayName() + "/" + message;
+        }
+    }
+
+    /** Set the properties and body of a message
+     *  @param message Empty BytesMessage
+     *  @param config Name of alarm configuration
+     *  @param maintenance_mode Is server in maintenance mode?
+     *  @param updates Updates, at most {@link #MAX_UPDATES}
+     *  @throws JMSException on error
+     */
+    public static void write(final BytesMessage message, final String config,
+                             final boolean maintenance_mode, final List<Update> updates) throws JMSException
+    {
+        message.setStringProperty(JMSLogMessage.TYPE, JMSAlarmMessage.TYPE_ALARM);
+        message.setStringProperty(JMSLogMessage.TEXT,
+                maintenance_mode ? JMSAlarmMessage.TEXT_STATE_MAINTENANCE : JMSAlarmMessage.TEXT_STATE);
+        message.setStringProperty(JMSAlarmMessage.CONFIG, config);
+        message.writeBytes(encode(updates));
+    }
+
+    /** @param message BytesMessage with alarm state batch
+     *  @return Updates in the message
+     *  @throws Exception on error
+     */
+    public static List<Update> read(final BytesMessage message) throws Exception
+    {
+        final byte[] body = new byte[(int) message.getBodyLength()];
+        message.readBytes(body);
+        return decode(body);
+    }
+
+    /** @param updates Updates
+     *  @return Message body
+     *  @throws IllegalArgumentException if there are too many updates
+     */
+    public static byte[] encode(final List<Update> updates)
+    {
+        if (updates.size() > MAX_UPDATES)
+            throw new IllegalArgumentException("Batch of " + updates.size() + " exceeds " + MAX_UPDATES + " updates");
+        final ByteArrayOutputStream buf = new ByteArrayOutputStream(64 + 32*updates.size());
+        try
+        (
+            final DataOutputStream out = new DataOutputStream(buf);
+        )
+        {
+            final Map<String, Short> texts = new HashMap<>();
+            out.writeByte(VERSION);
+            out.writeInt(updates.size());
+            for (Update update : updates)
+            {
+                out.writeInt(update.id);
+                out.writeByte(update.current_severity.ordinal());
+                writeText(out, texts, update.current_message);
+                out.writeByte(update.severity.ordinal());
+                writeText(out, texts, update.message);
+                writeText(out, texts, update.value);
+                out.writeLong(update.timestamp.toEpochMilli());
+            }
+        }
+        catch (IOException ex)
+        {   // Cannot happen for ByteArrayOutputStream
+            throw new IllegalStateException(ex);
+        }
+        return buf.toByteArray();
+    }
+
+    /** @param body Message body
+     *  @return Updates
+     *  @throws Exception on error
+     */
+    public static List<Update> decode(final byte[] body) throws Exception
+    {
+        final SeverityLevel[] severities = SeverityLevel.values();
+        try
+        (
+            final DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        )
+        {
+            final byte version = in.readByte();
+            if (version != VERSION)
+                throw new Exception("Cannot handle alarm batch version " + version);
+            final int count = in.readInt();
+            if (count < 0  ||  count > MAX_UPDATES)
+                throw new Exception("Invalid alarm batch size " + count);
+            final List<Update> updates = new ArrayList<>(count);
+            final List<String> texts = new ArrayList<>();
+            for (int i=0; i<count; ++i)
+            {
+                final int id = in.readInt();
+                final SeverityLevel current_severity = severities[in.readByte()];
+                final String current_message = readText(in, texts);
+                final SeverityLevel severity = severities[in.readByte()];
+                final String message = readText(in, texts);
+                final String value = readText(in, texts);
+                final Instant timestamp = Instant.ofEpochMilli(in.readLong());
+                updates.add(new Update(id, current_severity, current_message,
+                                       severity, message, value, timestamp));
+            }
+            return updates;
+        }
+    }
+
+    private static void writeText(final DataOutputStream out, final Map<String, Short> texts,
+                                  final String text) throws IOException
+    {
+        if (text == null)
+        {
+            out.writeShort(NULL_TEXT);
+            return;
+        }
+        final Short index = texts.get(text);
+        if (index != null)
+        {
+            out.writeShort(index);
+            return;
+        }
+        out.writeShort(NEW_TEXT);
+        out.writeUTF(text);
+        if (texts.size() < Short.MAX_VALUE)
+            texts.put(text, (short) texts.size());
+    }
+
+    private static String readText(final DataInputStream in, final List<String> texts) throws IOException
+    {
+        final short index = in.readShort();
+        if (index == NULL_TEXT)
+            return null;
+        if (index == NEW_TEXT)
+        {
+            final String text = in.readUTF();
+            if (texts.size() < Short.MAX_VALUE)
+                texts.add(text);
+            return text;
+        }
+        return texts.get(index);
+    }
+}
@@ -58,10 +58,12 @@ public class Preferences
     final public static String GUI_UPDATE_INITIAL_MILLIS = "gui_update_initial_millis";
     final public static String BATCH_UPDATE_PERIOD = "batch_update_period";
     final public static String BATCH_SIZE = "batch_size";
+    final public static String CONFIG_CACHE = "config_cache";
 
     final private static String SERVER_SUFFIX = "_SERVER";
     final private static String CLIENT_SUFFIX = "_CLIENT";
     final private static String TALK_SUFFIX = "_TALK";
+    final private static String STATE_SUFFIX = "_STATE";
 
 
     /** @param setting Preference identifier
@@ -177,6 +179,15 @@ public class Preferences
         return config + TALK_SUFFIX;
     }
 
+    /** @param config Alarm configuration name (root)
+     *  @return JMS topic used for state update messages
+     *          while the server sends binary batches to clients
+     */
+    public static String getJMS_AlarmStateTopic(final String config)
+    {
+        return config + STATE_SUFFIX;
+    }
+
     /**  @return JMS topic used for 'global' alarm messages from servers */
     public static String getJMS_GlobalServerTopic()
     {
@@ -194,6 +205,8 @@ public class Preferences
     public static long getPVStartDelay()
     {
         final IPreferencesService service = Platform.getPreferencesService();
+        if (service == null)
+            return 0;
         return service.getLong(Activator.ID, PV_START_DELAY, 0, null);
     }
 
@@ -201,6 +214,8 @@ public class Preferences
     public static long getConnectionGracePeriod()
     {
         final IPreferencesService service = Platform.getPreferencesService();
+        if (service == null)
+            return 30;
         return service.getLong(Activator.ID, CONNECTION_GRACE_PERIOD, 30, null);
     }
 
@@ -321,6 +336,8 @@ public class Preferences
     public static double getBatchUpdatePeriod()
     {
         final IPreferencesService service = Platform.getPreferencesService();
+        if (service == null)
+            return 1.;
         return service.getDouble(Activator.ID, BATCH_UPDATE_PERIOD, 1., null);
     }
 
@@ -330,6 +347,19 @@ public class Preferences
     public static int getBatchSize()
     {
         final IPreferencesService service = Platform.getPreferencesService();
+        if (service == null)
+            return 3000;
         return service.getInt(Activator.ID, BATCH_SIZE, 3000, null);
     }
+
+    /** @return Directory for snapshots of the alarm configuration,
+     *          empty to always read the complete configuration from RDB
+     */
+    public static String getConfigCache()
+    {
+        final IPreferencesService service = Platform.getPreferencesService();
+        if (service == null)
+            return "";
+        return service.getString(Activator.ID, CONFIG_CACHE, "", null);
+    }
 }
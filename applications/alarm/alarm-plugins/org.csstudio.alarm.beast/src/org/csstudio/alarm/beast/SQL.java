@@ -31,6 +31,7 @@ public class SQL
     final public String sel_items_by_parent;
     final public String sel_item_by_parent_and_name;
     final public String sel_last_item_id;
+    final public String sel_item_versions;
     final public String insert_item;
 
     final public String delete_guidance_by_id;
@@ -48,6 +49,7 @@ public class SQL
 
     final public String sel_pv_by_id;
     final public String sel_global_alarm_pvs;
+    final public String sel_pv_states;
     final public String sel_item_by_id;
     final public String insert_pv;
 
@@ -137,6 +139,10 @@ public class SQL
         sel_last_item_id =
             "SELECT MAX(COMPONENT_ID) FROM " + schema_prefix + "ALARM_TREE";
 
+        // Selects the structure of all configurations, see ConfigurationVersion
+        sel_item_versions =
+            "SELECT COMPONENT_ID, PARENT_CMPNT_ID, NAME, CONFIG_TIME FROM " + schema_prefix + "ALARM_TREE";
+
         // Database might not provide a default config time, so include
         // that in the INSERT statement
         final String now = rdb.getDialect() == Dialect.Oracle
@@ -182,6 +188,14 @@ public class SQL
             " JOIN " + schema_prefix + "STATUS m on m.STATUS_ID=p.STATUS_ID" +
             " WHERE ACT_GLOBAL_ALARM_IND=?";
 
+        // Alarm state of all PVs. Columns 2..7 match columns 11..16 of sel_items_by_parent
+        sel_pv_states =
+            //        1               2                  3
+            "SELECT COMPONENT_ID, CUR_SEVERITY_ID, CUR_STATUS_ID," +
+            //  4            5          6         7
+            " SEVERITY_ID, STATUS_ID, PV_VALUE, ALARM_TIME" +
+            " FROM " + schema_prefix + "PV";
+
         sel_item_by_id = "SELECT PARENT_CMPNT_ID, NAME FROM " + schema_prefix + "ALARM_TREE WHERE COMPONENT_ID=?";
 
         if (rdb.getDialect() == Dialect.PostgreSQL)
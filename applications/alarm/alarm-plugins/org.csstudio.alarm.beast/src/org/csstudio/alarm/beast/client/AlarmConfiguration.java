@@ -7,6 +7,7 @@
  ******************************************************************************/
 package org.csstudio.alarm.beast.client;
 
+import java.io.File;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -14,15 +15,20 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 import org.csstudio.alarm.beast.Activator;
 import org.csstudio.alarm.beast.AlarmTreePath;
+import org.csstudio.alarm.beast.ConfigurationVersion;
 import org.csstudio.alarm.beast.Messages;
 import org.csstudio.alarm.beast.SQL;
 import org.csstudio.alarm.beast.TimestampHelper;
@@ -64,16 +70,30 @@ public class AlarmConfiguration
 
     final private AlarmConfigurationReader config_reader;
 
+    /** Reader for {@link #readChanges(String)}, with its own statements
+     *  because it is called without locking the configuration.
+     *  SYNC on this reader for access
+     */
+    final private AlarmConfigurationReader update_reader;
+
     /** Root of the alarm tree.
      *  SYNC on this for access
      */
     private AlarmTreeRoot config_tree = null;
 
+    /** Version of config_tree as read from RDB.
+     *  SYNC on this for access
+     */
+    private ConfigurationVersion version = null;
+
     /** Hash of all PVs in config_tree that maps PV name to PV */
     private HashMap<String, AlarmTreePV> pvs = new HashMap<String, AlarmTreePV>();
 
+    /** Hash of all PVs in config_tree that maps RDB ID to PV */
+    private HashMap<Integer, AlarmTreePV> pvs_by_id = new HashMap<Integer, AlarmTreePV>();
+
     /** Re-used statements */
-    private PreparedStatement sel_items_by_parent_statement, sel_pv_by_id_statement;
+    private PreparedStatement sel_items_by_parent_statement;
 
 
     /** Initialize
@@ -106,6 +126,7 @@ public class AlarmConfiguration
         severity_mapping = new SeverityReader(rdb, sql);
         message_mapping = new MessageReader(rdb, sql);
         config_reader = new AlarmConfigurationReader(rdb, sql);
+        update_reader = new AlarmConfigurationReader(rdb, sql);
 
         // Re-enable auto-connect if that was requested
         if (auto_reconnect)
@@ -179,12 +200,329 @@ public class AlarmConfiguration
         }
     }
 
+    /** Read configuration from snapshot, then update it from RDB.
+     *
+     *  <p>Only items that changed since the snapshot was written
+     *  are read from the RDB, plus the alarm state of all PVs.
+     *
+     *  @param root_name Name of root element.
+     *  @param cache Snapshot file, see {@link #writeCache(File)}
+     *  @param monitor Progress monitor
+     *  @return <code>true</code> if the configuration was read,
+     *          <code>false</code> if there is no snapshot
+     *  @throws Exception on error
+     */
+    public boolean readConfiguration(final String root_name, final File cache,
+            final IProgressMonitor monitor) throws Exception
+    {
+        if (! cache.canRead())
+            return false;
+        final AlarmTreeRoot new_config = createAlarmTreeRoot(config_reader.readRootID(root_name), root_name);
+        final ConfigurationVersion cached = AlarmConfigurationCache.read(cache, new_config);
+        synchronized (this)
+        {
+            config_tree = new_config;
+            version = cached;
+            addPVs(new_config);
+        }
+        try
+        {
+            final ConfigurationVersion.Delta delta = updateConfiguration(null);
+            Activator.getLogger().log(Level.INFO, "Alarm configuration snapshot {0}: {1}",
+                                      new Object[] { cache, delta });
+            final Map<Integer, AlarmTreePV> states;
+            synchronized (this)
+            {
+                states = new HashMap<>(pvs_by_id);
+            }
+            config_reader.readAlarmStates(states, severity_mapping, message_mapping);
+        }
+        catch (Exception ex)
+        {
+            synchronized (this)
+            {
+                config_tree = null;
+                version = null;
+                pvs.clear();
+                pvs_by_id.clear();
+            }
+            throw ex;
+        }
+        return true;
+    }
+
+    /** Write snapshot of the configuration
+     *  @param cache Snapshot file
+     *  @throws Exception on error
+     */
+    public synchronized void writeCache(final File cache) throws Exception
+    {
+        if (config_tree == null  ||  version == null)
+            throw new Exception("No configuration");
+        AlarmConfigurationCache.write(cache, config_tree, version);
+    }
+
+    /** Update configuration with changes from RDB
+     *
+     *  <p>Determines which items were added, removed or modified
+     *  since the configuration was read, and only reads those.
+     *
+     *  @param path Path name of the added/removed/changed item or <code>null</code>
+     *  @return Changes that were applied
+     *  @throws Exception on error
+     *  @see #readChanges(String)
+     *  @see #applyChanges(Update)
+     */
+    public ConfigurationVersion.Delta updateConfiguration(final String path) throws Exception
+    {
+        return applyChanges(readChanges(path));
+    }
+
+    /** Changes read from RDB, to be applied to the configuration */
+    public static class Update
+    {
+        /** Version of the configuration that the changes are based on */
+        final ConfigurationVersion base;
+
+        /** Version of the configuration in the RDB */
+        final ConfigurationVersion current;
+
+        final ConfigurationVersion.Delta delta;
+
+        /** Added items by RDB ID, read outside of the alarm tree */
+        final Map<Integer, AlarmTreeItem> added = new HashMap<>();
+
+        /** Configuration of modified items by RDB ID, read outside of the alarm tree */
+        final Map<Integer, AlarmTreeItem> modified = new HashMap<>();
+
+        /** GUI info of the root or <code>null</code> */
+        AlarmTreeItem root = null;
+
+        Update(final ConfigurationVersion base, final ConfigurationVersion current,
+               final ConfigurationVersion.Delta delta)
+        {
+            this.base = base;
+            this.current = current;
+            this.delta = delta;
+        }
+    }
+
+    /** Read changes from RDB
+     *
+     *  <p>Determines which items were added, removed or modified
+     *  since the configuration was read, and reads only those.
+     *  The configuration itself is not changed,
+     *  so callers do not need to lock it while the RDB is queried.
+     *
+     *  @param path Path name of the added/removed/changed item or <code>null</code>
+     *  @return Changes to apply
+     *  @throws Exception on error
+     *  @see #applyChanges(Update)
+     */
+    public Update readChanges(final String path) throws Exception
+    {
+        final ConfigurationVersion base;
+        final Map<Integer, AlarmTreeItem> items = new HashMap<>();
+        final AlarmTreeItem changed;
+        synchronized (this)
+        {
+            if (config_tree == null  ||  version == null)
+                throw new Exception("No configuration");
+            base = version;
+            mapItems(config_tree, items);
+            changed = path == null ? null : config_tree.getItemByPath(path);
+        }
+
+        // Items are read into a separate root so that the alarm tree remains unchanged
+        synchronized (update_reader)
+        {
+            try
+            {
+                final ConfigurationVersion current = ConfigurationVersion.read(rdb, sql, base.getRootID());
+                final Update update = new Update(base, current,
+                        current.getChangesSince(base, changed == null ? -1 : changed.getID()));
+                for (ConfigurationVersion.Item info : update.delta.getAdded())
+                {
+                    AlarmTreeItem parent = items.get(info.parent);
+                    if (parent == null)
+                        parent = update.added.get(info.parent);
+                    if (parent == null)
+                        throw new Exception("Cannot locate parent of " + info);
+                    final AlarmTreeItem existing = items.get(info.id);
+                    if (existing != null  &&  existing.getParent() == parent  &&  existing.getName().equals(info.name))
+                    {   // Item that this client added, read its configuration
+                        update.modified.put(info.id, readItemConfig(existing, info));
+                        continue;
+                    }
+                    final AlarmTreeItem item = update_reader.readItem(info.name,
+                            new AlarmTreeRoot(parent.getName(), parent.getID()), severity_mapping, message_mapping);
+                    update_reader.readGuidanceDisplaysCommands(item);
+                    update.added.put(item.getID(), item);
+                }
+
+                for (ConfigurationVersion.Item info : update.delta.getModified())
+                {
+                    final AlarmTreeItem item = items.get(info.id);
+                    if (item != null)
+                        update.modified.put(info.id, readItemConfig(item, info));
+                }
+
+                // Root is not part of the version, only updated when named
+                if (changed != null  &&  changed.getParent() == null)
+                {
+                    update.root = new AlarmTreeRoot(changed.getName(), changed.getID());
+                    update_reader.readGuidanceDisplaysCommands(update.root);
+                }
+                return update;
+            }
+            finally
+            {
+                update_reader.closeStatements();
+            }
+        }
+    }
+
+    /** Read configuration of existing item
+     *  @param item Item in alarm tree
+     *  @param info Version info for the item
+     *  @return Item with configuration of the item, outside of the alarm tree
+     *  @throws Exception on error
+     */
+    private AlarmTreeItem readItemConfig(final AlarmTreeItem item, final ConfigurationVersion.Item info) throws Exception
+    {
+        final AlarmTreeRoot parent = new AlarmTreeRoot(item.getParent().getName(), item.getParent().getID());
+        final AlarmTreeItem config;
+        if (item instanceof AlarmTreePV)
+        {
+            final AlarmTreePV pv = new AlarmTreePV(parent, item.getName(), item.getID());
+            update_reader.readPVConfig(pv);
+            config = pv;
+        }
+        else
+        {
+            config = new AlarmTreeItem(parent, item.getName(), item.getID());
+            update_reader.readGuidanceDisplaysCommands(config);
+        }
+        if (info.config_time != 0)
+            config.setConfigTime(Instant.ofEpochMilli(info.config_time));
+        return config;
+    }
+
+    /** Apply changes to the configuration
+     *
+     *  <p>Does not access the RDB.
+     *
+     *  @param update Changes read from RDB
+     *  @return Changes that were applied
+     *  @throws Exception when the configuration changed since the update was read
+     *  @see #readChanges(String)
+     */
+    public synchronized ConfigurationVersion.Delta applyChanges(final Update update) throws Exception
+    {
+        if (config_tree == null  ||  version != update.base)
+            throw new Exception("Configuration changed while reading update");
+        final ConfigurationVersion.Delta delta = update.delta;
+        final Map<Integer, AlarmTreeItem> items = new HashMap<>();
+        mapItems(config_tree, items);
+
+        // Items that were already removed by this client are no longer in the tree
+        final Set<AlarmTreeItem> parents = new HashSet<>();
+        for (int id : delta.getRemoved())
+        {
+            final AlarmTreeItem item = items.remove(id);
+            if (item == null)
+                continue;
+            if (item instanceof AlarmTreePV)
+            {
+                pvs.remove(item.getName());
+                pvs_by_id.remove(id);
+            }
+            final AlarmTreeItem parent = item.getParent();
+            item.detachFromParent();
+            parents.add(parent);
+        }
+        // Update severity of remaining parents
+        for (AlarmTreeItem parent : parents)
+            if (parent == config_tree  ||  items.containsKey(parent.getID()))
+                parent.maximizeSeverity();
+
+        for (ConfigurationVersion.Item info : delta.getAdded())
+        {
+            final AlarmTreeItem added = update.added.get(info.id);
+            if (added == null) // Item that this client added, see 'modified'
+                continue;
+            final AlarmTreeItem parent = items.get(info.parent);
+            if (parent == null)
+                throw new Exception("Cannot locate parent of " + info);
+            final AlarmTreeItem item;
+            if (added instanceof AlarmTreePV)
+            {
+                final AlarmTreePV pv = new AlarmTreePV(parent, added.getName(), added.getID());
+                pv.copyConfiguration(added);
+                pv.copyAlarmState(added);
+                parent.maximizeSeverity();
+                pvs.put(pv.getName(), pv);
+                pvs_by_id.put(pv.getID(), pv);
+                item = pv;
+            }
+            else
+            {
+                item = new AlarmTreeItem(parent, added.getName(), added.getID());
+                item.copyConfiguration(added);
+            }
+            items.put(item.getID(), item);
+        }
+
+        for (AlarmTreeItem config : update.modified.values())
+        {
+            final AlarmTreeItem item = items.get(config.getID());
+            if (item == null)
+                continue;
+            item.copyConfiguration(config);
+            // Enablement may have changed
+            if (item instanceof AlarmTreePV)
+                item.getParent().maximizeSeverity();
+        }
+
+        if (update.root != null)
+            config_tree.copyConfiguration(update.root);
+
+        version = update.current;
+        return delta;
+    }
+
+    /** Add PVs to the hashes
+     *  @param item Item where search for PVs starts, then recurses down
+     */
+    private void addPVs(final AlarmTreeItem item)
+    {
+        if (item instanceof AlarmTreePV)
+        {
+            pvs.put(item.getName(), (AlarmTreePV) item);
+            pvs_by_id.put(item.getID(), (AlarmTreePV) item);
+            return;
+        }
+        for (int i=0; i<item.getChildCount(); ++i)
+            addPVs(item.getChild(i));
+    }
+
+    /** @param item Item where mapping starts, then recurses down
+     *  @param items Map of RDB ID to item
+     */
+    static void mapItems(final AlarmTreeItem item, final Map<Integer, AlarmTreeItem> items)
+    {
+        items.put(item.getID(), item);
+        for (int i=0; i<item.getChildCount(); ++i)
+            mapItems(item.getChild(i), items);
+    }
+
     /** Must be called to release resources */
     public void close()
     {
         closeStatements();
         rdb.close();
         pvs.clear();
+        pvs_by_id.clear();
     }
 
     /** @return root of the alarm tree configuration */
@@ -204,6 +542,15 @@ public class AlarmConfiguration
         return pvs.get(name);
     }
 
+    /** Locate PV by RDB ID
+     *  @param id RDB ID of PV to locate
+     *  @return PV or <code>null</code> when not found
+     */
+    public synchronized AlarmTreePV findPV(final int id)
+    {
+        return pvs_by_id.get(id);
+    }
+
     /** Create the root element.
      *  <p>
      *  Per default, it's a plain AlarmTreeRoot.
@@ -242,12 +589,22 @@ public class AlarmConfiguration
                 if (!create)
                     throw new Exception("Unknown alarm tree root " + root_name);
                 // Create new, empty alarm tree
-                return (AlarmTreeRoot) addRootOrComponent(null, root_name);
+                final AlarmTreeRoot root = (AlarmTreeRoot) addRootOrComponent(null, root_name);
+                synchronized (this)
+                {
+                    version = new ConfigurationVersion(root.getID());
+                }
+                return root;
             }
             final int id = result.getInt(1);
             final AlarmTreeRoot root = createAlarmTreeRoot(id, root_name);
+            final ConfigurationVersion new_version = new ConfigurationVersion(id);
             config_reader.readGuidanceDisplaysCommands(root);
-            readChildren(root, monitor, monitor_update_delay);
+            readChildren(root, new_version, monitor, monitor_update_delay);
+            synchronized (this)
+            {
+                version = new_version;
+            }
             return root;
         }
         finally
@@ -259,11 +616,12 @@ public class AlarmConfiguration
 
     /** Read configuration for child elements
      *  @param parent Parent node. Children get added to it.
+     *  @param version Version to which the children are added
      *  @param monitor Progress monitor
      *  @param monitor_update_delay Delay for updates to monitor
      *  @throws Exception on error
      */
-    private void readChildren(final AlarmTreeItem parent,
+    private void readChildren(final AlarmTreeItem parent, final ConfigurationVersion version,
             final IProgressMonitor monitor, final DelayCheck monitor_update_delay) throws Exception
     {
         if (sel_items_by_parent_statement == null)
@@ -290,6 +648,7 @@ public class AlarmConfiguration
             {
                 final AlarmTreePV pv = new AlarmTreePV(parent, name, id);
                 pvs.put(name, pv);
+                pvs_by_id.put(id, pv);
                 // Periodically update progress monitor
                 if (monitor_update_delay.expired())
                 {
@@ -301,6 +660,7 @@ public class AlarmConfiguration
             }
             if (config_time != null)
                 item.setConfigTime(TimestampHelper.toEPICSTime(config_time));
+            version.add(id, parent.getID(), name, ConfigurationVersion.getMillis(config_time));
             config_reader.readGuidanceDisplaysCommands(item);
         }
         result.close();
@@ -309,7 +669,7 @@ public class AlarmConfiguration
         // Cannot do that inside the above while() because that would reuse
         // the statement of the current ResultSet
         for (AlarmTreeItem item : recurse_items)
-            readChildren(item, monitor, monitor_update_delay);
+            readChildren(item, version, monitor, monitor_update_delay);
         recurse_items.clear();
     }
 
@@ -477,6 +837,7 @@ public class AlarmConfiguration
 
         final AlarmTreePV pv = new AlarmTreePV(parent, name, id);
         pvs.put(name, pv);
+        pvs_by_id.put(id, pv);
         return pv;
     }
 
@@ -805,32 +1166,17 @@ public class AlarmConfiguration
             rdb.getConnection().setAutoCommit(true);
         }
         pvs.remove(pv.getName());
+        pvs_by_id.remove(pv.getID());
         pv.detachFromParent();
     }
 
     /** Update PV configuration from RDB
-     *  @param path Path name of the added/removed/changed item or null
+     *  @param pv PV to update
+     *  @throws Exception on error
      */
-    @SuppressWarnings("nls")
     public void readPVConfig(final AlarmTreePV pv) throws Exception
     {
-        final Connection connection = rdb.getConnection();
-        if (sel_pv_by_id_statement == null)
-            sel_pv_by_id_statement = connection
-                .prepareStatement(sql.sel_pv_by_id);
-        sel_pv_by_id_statement.setInt(1, pv.getID());
-        final ResultSet result = sel_pv_by_id_statement.executeQuery();
-        if (! result.next())
-            throw new Exception("PV " + pv.getPathName() + " not found");
-        pv.setDescription(result.getString(1));
-
-        pv.setEnabled(result.getBoolean(2));
-        pv.setAnnunciating(result.getBoolean(3));
-        pv.setLatching(result.getBoolean(4));
-        pv.setDelay(result.getInt(5));
-        pv.setCount(result.getInt(6));
-        pv.setFilter(result.getString(7));
-        config_reader.readGuidanceDisplaysCommands(pv);
+        config_reader.readPVConfig(pv);
     }
 
     /**Update guidance/displays/commands in RDB by id
@@ -959,11 +1305,6 @@ public class AlarmConfiguration
                 sel_items_by_parent_statement.close();
                 sel_items_by_parent_statement = null;
             }
-            if (sel_pv_by_id_statement != null)
-            {
-                sel_pv_by_id_statement.close();
-                sel_pv_by_id_statement = null;
-            }
         }
         catch (SQLException ex)
         {
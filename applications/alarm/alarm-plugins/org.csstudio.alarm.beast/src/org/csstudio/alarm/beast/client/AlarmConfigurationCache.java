@@ -0,0 +1,252 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.client;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.csstudio.alarm.beast.ConfigurationVersion;
+
+/** Local snapshot of an alarm configuration
+ *
+ *  <p>Holds the configuration of all items, but no alarm state,
+ *  together with the {@link ConfigurationVersion}.
+ *  A client can start from the snapshot, then read the changes
+ *  and the alarm state from the RDB, which is much faster
+ *  than reading the complete configuration.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class AlarmConfigurationCache
+{
+    /** Identifies the file format */
+    final private static int MAGIC = 0x42454153, VERSION = 1;
+
+    final private static byte COMPONENT = 0, PV = 1;
+
+    /** Write snapshot
+     *
+     *  <p>Writes to a temporary file which then replaces the snapshot,
+     *  so readers never see a partial file.
+     *
+     *  @param file Snapshot file
+     *  @param root Root of alarm tree
+     *  @param version Version of the configuration, must match the tree
+     *  @throws Exception on error
+     */
+    public static void write(final File file, final AlarmTreeRoot root,
+                             final ConfigurationVersion version) throws Exception
+    {
+        final File tmp = new File(file.getPath() + ".tmp");
+        try
+        (
+            final DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(tmp)));
+        )
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, root.getName());
+            out.writeInt(root.getID());
+            writeGDC(out, root);
+            // Skip items that this client already removed from the tree
+            final Map<Integer, AlarmTreeItem> items = new HashMap<>();
+            AlarmConfiguration.mapItems(root, items);
+            final List<ConfigurationVersion.Item> infos = version.getItems();
+            infos.removeIf(info -> ! items.containsKey(info.id));
+            out.writeInt(infos.size());
+            for (ConfigurationVersion.Item info : infos)
+                writeItem(out, info, items.get(info.id));
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /** Read snapshot
+     *  @param file Snapshot file
+     *  @param root Root of alarm tree, without child items
+     *  @return Version of the configuration in the snapshot
+     *  @throws Exception on error, including a snapshot for a different root
+     */
+    public static ConfigurationVersion read(final File file, final AlarmTreeRoot root) throws Exception
+    {
+        try
+        (
+            final DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(new FileInputStream(file)));
+        )
+        {
+            if (in.readInt() != MAGIC  ||  in.readInt() != VERSION)
+                throw new Exception("Unknown alarm configuration snapshot format in " + file);
+            final String name = readString(in);
+            final int id = in.readInt();
+            if (! root.getName().equals(name)  ||  root.getID() != id)
+                throw new Exception("Snapshot " + file + " is for " + name + " (" + id +
+                                    "), not " + root.getName() + " (" + root.getID() + ")");
+            readGDC(in, root);
+            final ConfigurationVersion version = new ConfigurationVersion(id);
+            final Map<Integer, AlarmTreeItem> items = new HashMap<>();
+            items.put(id, root);
+            final int count = in.readInt();
+            for (int i=0; i<count; ++i)
+                readItem(in, items, version);
+            return version;
+        }
+    }
+
+    /** @param out Output
+     *  @param info Version info of item
+     *  @param item The item
+     *  @throws Exception on error
+     */
+    private static void writeItem(final DataOutputStream out, final ConfigurationVersion.Item info,
+                                  final AlarmTreeItem item) throws Exception
+    {
+        out.writeInt(info.id);
+        out.writeInt(info.parent);
+        writeString(out, info.name);
+        out.writeLong(info.config_time);
+        if (item instanceof AlarmTreePV)
+        {
+            final AlarmTreePV pv = (AlarmTreePV) item;
+            out.writeByte(PV);
+            writeString(out, pv.getDescription());
+            out.writeBoolean(pv.isEnabled());
+            out.writeBoolean(pv.isAnnunciating());
+            out.writeBoolean(pv.isLatching());
+            out.writeInt(pv.getDelay());
+            out.writeInt(pv.getCount());
+            writeString(out, pv.getFilter());
+        }
+        else
+            out.writeByte(COMPONENT);
+        writeGDC(out, item);
+    }
+
+    /** @param in Input
+     *  @param items Items that have been read so far by ID, item is added
+     *  @param version Version to which the item is added
+     *  @throws Exception on error
+     */
+    private static void readItem(final DataInputStream in, final Map<Integer, AlarmTreeItem> items,
+                                 final ConfigurationVersion version) throws Exception
+    {
+        final int id = in.readInt();
+        final int parent_id = in.readInt();
+        final String name = readString(in);
+        final long config_time = in.readLong();
+        final byte type = in.readByte();
+
+        // Parents are written before their child items
+        final AlarmTreeItem parent = items.get(parent_id);
+        if (parent == null)
+            throw new Exception("Snapshot lists " + name + " before its parent");
+        final AlarmTreeItem item;
+        if (type == PV)
+        {
+            final AlarmTreePV pv = new AlarmTreePV(parent, name, id);
+            pv.setDescription(readString(in));
+            pv.setEnabled(in.readBoolean());
+            pv.setAnnunciating(in.readBoolean());
+            pv.setLatching(in.readBoolean());
+            pv.setDelay(in.readInt());
+            pv.setCount(in.readInt());
+            pv.setFilter(readString(in));
+            item = pv;
+        }
+        else if (type == COMPONENT)
+            item = new AlarmTreeItem(parent, name, id);
+        else
+            throw new Exception("Invalid type " + type + " for " + name);
+        if (config_time != 0)
+            item.setConfigTime(Instant.ofEpochMilli(config_time));
+        readGDC(in, item);
+        items.put(id, item);
+        version.add(id, parent_id, name, config_time);
+    }
+
+    private static void writeGDC(final DataOutputStream out, final AlarmTreeItem item) throws IOException
+    {
+        writeGDC(out, item.getGuidance());
+        writeGDC(out, item.getDisplays());
+        writeGDC(out, item.getCommands());
+        final AADataStructure[] actions = item.getAutomatedActions();
+        out.writeInt(actions.length);
+        for (AADataStructure action : actions)
+        {
+            writeString(out, action.getTitle());
+            writeString(out, action.getDetails());
+            out.writeInt(action.getDelay());
+        }
+    }
+
+    private static void readGDC(final DataInputStream in, final AlarmTreeItem item) throws IOException
+    {
+        item.setGuidance(readGDC(in));
+        item.setDisplays(readGDC(in));
+        item.setCommands(readGDC(in));
+        final AADataStructure[] actions = new AADataStructure[in.readInt()];
+        for (int i=0; i<actions.length; ++i)
+            actions[i] = new AADataStructure(readString(in), readString(in), in.readInt());
+        item.setAutomatedActions(actions);
+    }
+
+    private static void writeGDC(final DataOutputStream out, final GDCDataStructure[] entries) throws IOException
+    {
+        out.writeInt(entries.length);
+        for (GDCDataStructure entry : entries)
+        {
+            writeString(out, entry.getTitle());
+            writeString(out, entry.getDetails());
+        }
+    }
+
+    private static GDCDataStructure[] readGDC(final DataInputStream in) throws IOException
+    {
+        final GDCDataStructure[] entries = new GDCDataStructure[in.readInt()];
+        for (int i=0; i<entries.length; ++i)
+            entries[i] = new GDCDataStructure(readString(in), readString(in));
+        return entries;
+    }
+
+    /** Write string, which may be <code>null</code> or longer than the 64k supported by writeUTF */
+    private static void writeString(final DataOutputStream out, final String text) throws IOException
+    {
+        if (text == null)
+        {
+            out.writeInt(-1);
+            return;
+        }
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final DataInputStream in) throws IOException
+    {
+        final int length = in.readInt();
+        if (length < 0)
+            return null;
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
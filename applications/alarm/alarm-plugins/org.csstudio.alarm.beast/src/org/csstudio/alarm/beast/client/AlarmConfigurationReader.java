@@ -10,10 +10,12 @@ package org.csstudio.alarm.beast.client;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 
 import org.csstudio.alarm.beast.Activator;
@@ -36,7 +38,7 @@ public class AlarmConfigurationReader
     final SQL sql;
 
     /** Re-used statements */
-    private PreparedStatement sel_item_by_parent_and_name_statement, sel_guidance_statement, sel_displays_statement, sel_commands_statement, sel_auto_actions_statement;
+    private PreparedStatement sel_item_by_parent_and_name_statement, sel_pv_by_id_statement, sel_guidance_statement, sel_displays_statement, sel_commands_statement, sel_auto_actions_statement;
 
     /** Initialize
      *  @param rdb RDB connection
@@ -60,6 +62,11 @@ public class AlarmConfigurationReader
                 sel_item_by_parent_and_name_statement.close();
                 sel_item_by_parent_and_name_statement = null;
             }
+            if (sel_pv_by_id_statement != null)
+            {
+                sel_pv_by_id_statement.close();
+                sel_pv_by_id_statement = null;
+            }
             if (sel_guidance_statement != null)
             {
                 sel_guidance_statement.close();
@@ -264,6 +271,35 @@ public class AlarmConfigurationReader
         return item;
     }
 
+    /** Read PV configuration, including GUI info
+     *  @param pv PV to update
+     *  @throws Exception on error
+     */
+    public void readPVConfig(final AlarmTreePV pv) throws Exception
+    {
+        if (sel_pv_by_id_statement == null)
+            sel_pv_by_id_statement = rdb.getConnection().prepareStatement(sql.sel_pv_by_id);
+        sel_pv_by_id_statement.setInt(1, pv.getID());
+        final ResultSet result = sel_pv_by_id_statement.executeQuery();
+        try
+        {
+            if (! result.next())
+                throw new Exception("PV " + pv.getPathName() + " not found");
+            pv.setDescription(result.getString(1));
+            pv.setEnabled(result.getBoolean(2));
+            pv.setAnnunciating(result.getBoolean(3));
+            pv.setLatching(result.getBoolean(4));
+            pv.setDelay(result.getInt(5));
+            pv.setCount(result.getInt(6));
+            pv.setFilter(result.getString(7));
+        }
+        finally
+        {
+            result.close();
+        }
+        readGuidanceDisplaysCommands(pv);
+    }
+
     /** Complete the (GUI) information for an alarm tree component or PV.
      *
      *  Item must have name and parent, and this method updates the ID,
@@ -347,32 +383,75 @@ public class AlarmConfigurationReader
         pv.setDelay(result.getInt(8));
         pv.setCount(result.getInt(9));
         pv.setFilter(result.getString(10));
+        configureAlarmStateFromResult(pv, result, 11, severity_mapping, message_mapping);
+    }
+
+    /** Read alarm state of all PVs
+     *
+     *  <p>Used when the configuration was obtained without reading
+     *  each PV from the RDB, for example from a cache.
+     *
+     *  @param pvs PVs by RDB ID. PVs of other configurations are ignored.
+     *  @param severity_mapping
+     *  @param message_mapping
+     *  @throws Exception on error
+     */
+    public void readAlarmStates(final Map<Integer, AlarmTreePV> pvs,
+            final SeverityReader severity_mapping, final MessageReader message_mapping) throws Exception
+    {
+        try
+        (
+            final Statement statement = rdb.getConnection().createStatement();
+            final ResultSet result = statement.executeQuery(sql.sel_pv_states);
+        )
+        {
+            while (result.next())
+            {
+                final AlarmTreePV pv = pvs.get(result.getInt(1));
+                if (pv != null)
+                    configureAlarmStateFromResult(pv, result, 2, severity_mapping, message_mapping);
+            }
+        }
+    }
 
+    /** Configure alarm state of a PV from RDB columns
+     *  @param pv PV to configure
+     *  @param result ResultSet with PV info
+     *  @param column Column of current severity ID, followed by current status ID,
+     *                severity ID, status ID, value, alarm time
+     *  @param severity_mapping
+     *  @param message_mapping
+     *  @throws Exception on error
+     */
+    private void configureAlarmStateFromResult(final AlarmTreePV pv,
+            final ResultSet result, final int column, final SeverityReader severity_mapping,
+            final MessageReader message_mapping) throws Exception
+    {
         // If there is severity/status info, use it.
         // Otherwise leave PV "OK" as it was initialized.
-        int severity_id = result.getInt(11);
+        int severity_id = result.getInt(column);
         final SeverityLevel current_severity = result.wasNull()
             ? SeverityLevel.OK
             : severity_mapping.getSeverity(severity_id);
 
         // Current message was added later, so assume "" if not set
-        int status_id = result.getInt(12);
+        int status_id = result.getInt(column+1);
         final String current_message = result.wasNull()
             ? ""
             : message_mapping.getMessage(status_id);
 
-        severity_id = result.getInt(13);
+        severity_id = result.getInt(column+2);
         final SeverityLevel severity = result.wasNull()
             ? SeverityLevel.OK
             : severity_mapping.getSeverity(severity_id);
 
-        status_id = result.getInt(14);
+        status_id = result.getInt(column+3);
         final String message =  result.wasNull()
             ? ""
             : message_mapping.getMessage(status_id);
 
-        final String value = result.getString(15); // OK to have null value
-        final Timestamp sql_time = result.getTimestamp(16);
+        final String value = result.getString(column+4); // OK to have null value
+        final Timestamp sql_time = result.getTimestamp(column+5);
         if (!result.wasNull())
         {
             final Instant timestamp = TimestampHelper.toEPICSTime(sql_time);
@@ -234,6 +234,30 @@ public class AlarmTreeItem extends TreeItem
         this.config_time = config_time;
     }
 
+    /** Copy configuration of another item
+     *  @param other Item with the same RDB ID that was read outside of the alarm tree
+     */
+    void copyConfiguration(final AlarmTreeItem other)
+    {
+        guidance = other.guidance;
+        displays = other.displays;
+        commands = other.commands;
+        automated_actions = other.automated_actions;
+        if (other.config_time != null)
+            config_time = other.config_time;
+    }
+
+    /** Copy alarm state of another item.
+     *  Does not maximize the severity of the parent.
+     *  @param other Item with the same RDB ID that was read outside of the alarm tree
+     */
+    synchronized void copyAlarmState(final AlarmTreeItem other)
+    {
+        current_severity = other.current_severity;
+        severity = other.severity;
+        message = other.message;
+    }
+
     /** @return Number of sub-elements in configuration hierarchy
      *          which are currently in alarm
      */
@@ -54,6 +54,22 @@ public class AlarmTreeLeaf extends AlarmTreeItem
         return description;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    void copyConfiguration(final AlarmTreeItem other)
+    {
+        super.copyConfiguration(other);
+        description = ((AlarmTreeLeaf) other).description;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    synchronized void copyAlarmState(final AlarmTreeItem other)
+    {
+        super.copyAlarmState(other);
+        timestamp = ((AlarmTreeLeaf) other).timestamp;
+    }
+
     /** @return Verbose, multi-line description of the current alarm
      *          meant for elog entry or usage as drag/drop text
      */
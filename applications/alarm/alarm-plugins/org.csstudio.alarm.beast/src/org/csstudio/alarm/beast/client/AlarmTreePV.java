@@ -197,6 +197,30 @@ public class AlarmTreePV extends AlarmTreeLeaf
         return value;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    void copyConfiguration(final AlarmTreeItem other)
+    {
+        super.copyConfiguration(other);
+        final AlarmTreePV pv = (AlarmTreePV) other;
+        enabled = pv.enabled;
+        annunciating = pv.annunciating;
+        latching = pv.latching;
+        delay = pv.delay;
+        count = pv.count;
+        filter = pv.filter;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    synchronized void copyAlarmState(final AlarmTreeItem other)
+    {
+        super.copyAlarmState(other);
+        final AlarmTreePV pv = (AlarmTreePV) other;
+        current_message = pv.current_message;
+        value = pv.value;
+    }
+
     /** Update status/message/time stamp and maximize
      *  severities of parent entries.
      *
@@ -212,12 +236,38 @@ public class AlarmTreePV extends AlarmTreeLeaf
             final SeverityLevel severity, final String message,
             final String value,
             final Instant timestamp)
+    {
+        final boolean parent_changed = updateAlarmState(current_severity, current_message,
+                                                        severity, message, value, timestamp);
+        // Send events outside of lock
+        getRoot().notifyListeners(this, parent_changed);
+    }
+
+    /** Update status/message/time stamp and maximize
+     *  severities of parent entries, without notifying listeners.
+     *
+     *  <p>Used to apply a batch of updates,
+     *  followed by one notification for the complete batch.
+     *
+     *  @param current_severity Current severity of PV
+     *  @param current_message Current message of the PV
+     *  @param severity Alarm severity
+     *  @param message Alarm message
+     *  @param value Value that triggered the update
+     *  @param timestamp Instant for this update
+     *  @return <code>true</code> if a parent item was updated as well
+     *  @see #setAlarmState(SeverityLevel, String, SeverityLevel, String, String, Instant)
+     */
+    public boolean updateAlarmState(final SeverityLevel current_severity,
+            final String current_message,
+            final SeverityLevel severity, final String message,
+            final String value,
+            final Instant timestamp)
     {
         // Changing the alarm state will eventually recurse up to the root
         // to maximize the severities.
         // To prevent deadlock, first lock the root, then this and other affected items
         final AlarmTreeRoot root = getRoot();
-        final boolean parent_changed;
         synchronized (root)
         {
             synchronized (this)
@@ -227,14 +277,11 @@ public class AlarmTreePV extends AlarmTreeLeaf
                 {   // Alarm state or at least message changed
                     this.current_message = current_message;
                     this.value = value;
-                    parent_changed = level == ChangeLevel.PV_AND_PARENT;
+                    return level == ChangeLevel.PV_AND_PARENT;
                 }
-                else
-                    parent_changed = false;
+                return false;
             }
         }
-        // Send events outside of lock
-        root.notifyListeners(this, parent_changed);
     }
 
     /** Called either directly or recursively from parent item.
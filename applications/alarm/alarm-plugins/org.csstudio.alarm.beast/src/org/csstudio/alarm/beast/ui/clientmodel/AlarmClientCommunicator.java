@@ -11,8 +11,10 @@ import java.net.InetAddress;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.time.Instant;
+import java.util.List;
 import java.util.logging.Level;
 
+import javax.jms.BytesMessage;
 import javax.jms.MapMessage;
 import javax.jms.Message;
 import javax.jms.MessageConsumer;
@@ -21,6 +23,7 @@ import javax.jms.MessageProducer;
 import javax.security.auth.Subject;
 
 import org.csstudio.alarm.beast.Activator;
+import org.csstudio.alarm.beast.JMSAlarmBatch;
 import org.csstudio.alarm.beast.JMSAlarmMessage;
 import org.csstudio.alarm.beast.JMSCommunicationWorkQueueThread;
 import org.csstudio.alarm.beast.Preferences;
@@ -76,6 +79,29 @@ class AlarmClientCommunicator extends JMSCommunicationWorkQueueThread
         }
     }
 
+    /** Action to update the state of several PVs */
+    private class BatchUpdateAction implements Runnable
+    {
+        final private List<JMSAlarmBatch.Update> updates;
+
+        public BatchUpdateAction(final List<JMSAlarmBatch.Update> updates)
+        {
+            this.updates = updates;
+        }
+
+        @Override
+        public void run()
+        {
+            model.updatePVs(updates);
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Update " + updates.size() + " PVs";
+        }
+    }
+
     /** Action to enable/disable a PV */
     private class EnableAction implements Runnable
     {
@@ -164,7 +190,7 @@ class AlarmClientCommunicator extends JMSCommunicationWorkQueueThread
         // Read messages from server
         server_consumer = createConsumer(Preferences.getJMS_AlarmServerTopic(configuration));
 
-        // Handle MapMessages
+        // Handle MapMessages, and BytesMessages with batched state updates
         final MessageListener message_listener = new MessageListener()
         {
             @Override
@@ -172,6 +198,8 @@ class AlarmClientCommunicator extends JMSCommunicationWorkQueueThread
             {
                 if (message instanceof MapMessage)
                     handleMapMessage((MapMessage) message);
+                else if (message instanceof BytesMessage)
+                    handleBytesMessage((BytesMessage) message);
                 else
                     Activator.getLogger().log(Level.WARNING,
                             "Message type {0} not handled", message.getClass().getName());
@@ -414,23 +442,56 @@ class AlarmClientCommunicator extends JMSCommunicationWorkQueueThread
             else if (JMSAlarmMessage.TEXT_DEBUG.equals(text))
                 model.dump();
 
-            if (action == null)
-                return;
-            // Queue or dispatch?
-            synchronized (queue)
+            if (action != null)
+                dispatch(action);
+        }
+        catch (Throwable ex)
+        {
+            Activator.getLogger().log(Level.SEVERE, "Message handler error", ex);
+        }
+    }
+
+    /** Invoked for received batches of state updates */
+    private void handleBytesMessage(final BytesMessage message)
+    {
+        try
+        {
+            final String text = message.getStringProperty(JMSLogMessage.TEXT);
+            final boolean maintenance_mode;
+            if (JMSAlarmMessage.TEXT_STATE.equals(text))
+                maintenance_mode = false;
+            else if (JMSAlarmMessage.TEXT_STATE_MAINTENANCE.equals(text))
+                maintenance_mode = true;
+            else
             {
-                if (use_queue)
-                {
-                    queue.execute(action);
-                    return;
-                }
+                Activator.getLogger().log(Level.WARNING, "Binary message {0} not handled", text);
+                return;
             }
-            // else: Not using queue, and queue no longer locked
-            action.run();
+            timeout_timer.reset();
+            final Runnable action = new BatchUpdateAction(JMSAlarmBatch.read(message));
+            model.updateServerState(maintenance_mode);
+            dispatch(action);
         }
         catch (Throwable ex)
         {
             Activator.getLogger().log(Level.SEVERE, "Message handler error", ex);
         }
     }
+
+    /** Queue or dispatch action
+     *  @param action Action for received message
+     */
+    private void dispatch(final Runnable action)
+    {
+        synchronized (queue)
+        {
+            if (use_queue)
+            {
+                queue.execute(action);
+                return;
+            }
+        }
+        // else: Not using queue, and queue no longer locked
+        action.run();
+    }
 }
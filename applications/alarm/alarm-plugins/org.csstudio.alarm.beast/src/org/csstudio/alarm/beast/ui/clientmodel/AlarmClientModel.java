@@ -7,8 +7,11 @@
  ******************************************************************************/
 package org.csstudio.alarm.beast.ui.clientmodel;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -18,12 +21,15 @@ import java.util.logging.Logger;
 
 import org.csstudio.alarm.beast.Activator;
 import org.csstudio.alarm.beast.AlarmTreePath;
+import org.csstudio.alarm.beast.ConfigurationVersion;
+import org.csstudio.alarm.beast.JMSAlarmBatch;
 import org.csstudio.alarm.beast.Messages;
 import org.csstudio.alarm.beast.Preferences;
 import org.csstudio.alarm.beast.SeverityLevel;
 import org.csstudio.alarm.beast.client.AADataStructure;
 import org.csstudio.alarm.beast.client.AlarmConfiguration;
 import org.csstudio.alarm.beast.client.AlarmTreeItem;
+import org.csstudio.alarm.beast.client.AlarmTreeLeaf;
 import org.csstudio.alarm.beast.client.AlarmTreePV;
 import org.csstudio.alarm.beast.client.AlarmTreeRoot;
 import org.csstudio.alarm.beast.client.GDCDataStructure;
@@ -547,11 +553,30 @@ public class AlarmClientModel
             }
         }
 
-        // Read RDB
+        // Read RDB, starting from snapshot if available
         monitor.subTask(Messages.AlarmClientModel_ReadingRDB);
+        final File cache = getCacheFile();
         try
         {
-            new_config.readConfiguration(getConfigurationName(), false, monitor);
+            boolean cached = false;
+            if (cache != null)
+            {
+                try
+                {
+                    cached = new_config.readConfiguration(getConfigurationName(), cache, monitor);
+                }
+                catch (Exception ex)
+                {
+                    LOG.log(Level.WARNING, "Cannot use alarm configuration snapshot " + cache, ex);
+                    synchronized (this)
+                    {
+                        active_alarms.clear();
+                        acknowledged_alarms.clear();
+                    }
+                }
+            }
+            if (! cached)
+                new_config.readConfiguration(getConfigurationName(), false, monitor);
             // Update model with newly received data
             synchronized (this)
             {
@@ -561,6 +586,7 @@ public class AlarmClientModel
                 // because fireNewAlarmState() was called while building
                 // the alarm tree
             }
+            writeCache(cache);
         }
         catch (Exception ex)
         {
@@ -610,6 +636,105 @@ public class AlarmClientModel
         monitor.done();
     }
 
+    /** Update alarm configuration with changes from RDB.
+     *  Reads the complete configuration if that fails.
+     *  May be invoked from UpdateConfigJob.
+     *  @param path Path name of the added/removed/changed item or <code>null</code>
+     *  @param monitor Progress monitor (has not been called)
+     */
+    void updateConfiguration(final String path, final IProgressMonitor monitor)
+    {
+        final BenchmarkTimer timer = new BenchmarkTimer();
+        final AlarmConfiguration safe_config;
+        synchronized (this)
+        {
+            safe_config = config;
+        }
+        ConfigurationVersion.Delta delta = null;
+        if (safe_config != null)
+        {
+            try
+            {
+                // Read changes from RDB without locking the model
+                final AlarmConfiguration.Update update = safe_config.readChanges(path);
+                // Lock model, then config, like all other model access
+                synchronized (this)
+                {
+                    if (config != safe_config)
+                        return; // Configuration was read again while reading the update
+                    // Prevent a flurry of events while items with alarms are added
+                    notify_listeners = false;
+                    try
+                    {
+                        delta = config.applyChanges(update);
+                    }
+                    finally
+                    {
+                        notify_listeners = true;
+                    }
+                    if (! delta.getRemoved().isEmpty())
+                    {   // Drop removed PVs from alarm lists
+                        active_alarms.clear();
+                        acknowledged_alarms.clear();
+                        final List<AlarmTreeLeaf> leaves = new ArrayList<>();
+                        config_tree.addLeavesToList(leaves);
+                        for (AlarmTreeLeaf leaf : leaves)
+                            if (leaf instanceof AlarmTreePV)
+                                updateAlarmLists((AlarmTreePV) leaf);
+                    }
+                }
+            }
+            catch (Exception ex)
+            {
+                LOG.log(Level.WARNING, "Cannot update alarm configuration", ex);
+            }
+        }
+        if (delta == null)
+        {
+            readConfiguration(monitor);
+            return;
+        }
+        timer.stop();
+        LOG.log(Level.INFO, "Alarm configuration update: {0} in {1} seconds",
+                new Object[] { delta, String.format("%.2f", timer.getSeconds()) });
+        if (delta.isEmpty())
+            return;
+        writeCache(getCacheFile());
+        fireNewConfig();
+    }
+
+    /** @return Snapshot file for configuration or <code>null</code> */
+    private File getCacheFile()
+    {
+        final String dir = Preferences.getConfigCache();
+        if (dir == null  ||  dir.isEmpty())
+            return null;
+        return new File(dir, getConfigurationName().replaceAll("[^A-Za-z0-9_.-]", "_") + ".alarmcache");
+    }
+
+    /** @param cache Snapshot file for configuration or <code>null</code> */
+    private void writeCache(final File cache)
+    {
+        if (cache == null)
+            return;
+        final AlarmConfiguration safe_config;
+        synchronized (this)
+        {
+            safe_config = config;
+        }
+        if (safe_config == null)
+            return;
+        try
+        {
+            cache.getParentFile().mkdirs();
+            safe_config.writeCache(cache);
+        }
+        catch (Exception ex)
+        {
+            LOG.log(Level.WARNING, "Cannot write alarm configuration snapshot " + cache, ex);
+        }
+    }
+
     /** @return Name of JMS server or some text that indicates
      *          disconnected state. For information, not to determine
      *          exact connection state.
@@ -989,8 +1114,8 @@ public class AlarmClientModel
         final AlarmTreeItem item = getConfigTree().getItemByPath(path);
 
         if (item == null  ||  !(item instanceof AlarmTreePV))
-        {   // Not a known PV? Update the whole config.
-            new ReadConfigJob(this).schedule();
+        {   // Not a known PV? Read what changed in the whole config.
+            new UpdateConfigJob(this, path).schedule();
             return;
         }
 
@@ -1089,6 +1214,36 @@ public class AlarmClientModel
             "Received update for unknown PV {0}", name);
     }
 
+    /** Update the state of several PVs in model.
+     *  <p>
+     *  Listeners receive one notification for the complete batch.
+     *  Called by AlarmUpdateCommunicator, i.e. from JMS thread.
+     *
+     *  @param updates Alarm updates
+     */
+    void updatePVs(final List<JMSAlarmBatch.Update> updates)
+    {
+        server_alive = true;
+        final List<AlarmTreePV> pvs = new ArrayList<>(updates.size());
+        boolean parent_changed = false;
+        for (JMSAlarmBatch.Update update : updates)
+        {
+            final AlarmTreePV pv = findPV(update.id);
+            if (pv == null)
+            {
+                LOG.log(Level.WARNING, "Received update for unknown PV ID {0}", update.id);
+                continue;
+            }
+            if (pv.updateAlarmState(update.current_severity, update.current_message,
+                                    update.severity, update.message,
+                                    update.value, update.timestamp))
+                parent_changed = true;
+            pvs.add(pv);
+        }
+        if (! pvs.isEmpty())
+            fireNewAlarmStates(pvs, parent_changed);
+    }
+
     /** Locate PV by name
      *  @param name Name of PV to locate. May be <code>null</code>.
      *  @return PV or <code>null</code> when not found
@@ -1100,6 +1255,17 @@ public class AlarmClientModel
         return config.findPV(name);
     }
 
+    /** Locate PV by RDB ID
+     *  @param id RDB ID of PV to locate
+     *  @return PV or <code>null</code> when not found
+     */
+    public synchronized AlarmTreePV findPV(final int id)
+    {
+        if (config == null)
+            return null;
+        return config.findPV(id);
+    }
+
     /** Ask alarm server to acknowledge alarm.
      *  @param pv PV to acknowledge
      *  @param acknowledge Acknowledge, or un-acknowledge?
@@ -1203,25 +1369,7 @@ public class AlarmClientModel
         {
             synchronized (this)
             {
-                final SeverityLevel severity = pv.getSeverity();
-                if (severity.ordinal() > 0)
-                {
-                    if (severity.isActive())
-                    {
-                        active_alarms.add(pv);
-                        acknowledged_alarms.remove(pv);
-                    }
-                    else
-                    {
-                        acknowledged_alarms.add(pv);
-                        active_alarms.remove(pv);
-                    }
-                }
-                else
-                {
-                    active_alarms.remove(pv);
-                    acknowledged_alarms.remove(pv);
-                }
+                updateAlarmLists(pv);
                 if (!notify_listeners )
                     return;
             }
@@ -1240,6 +1388,61 @@ public class AlarmClientModel
         }
     }
 
+    /** Inform listeners about change in alarm state of several PVs
+     *  @param pvs PVs that might have changed the alarm state
+     *  @param parent_changed true if a parent item was updated as well
+     */
+    private void fireNewAlarmStates(final List<AlarmTreePV> pvs, final boolean parent_changed)
+    {
+        synchronized (this)
+        {
+            for (AlarmTreePV pv : pvs)
+                updateAlarmLists(pv);
+            if (!notify_listeners )
+                return;
+        }
+        for (AlarmClientModelListener listener : listeners)
+        {
+            try
+            {
+                listener.newAlarmStates(this, pvs, parent_changed);
+            }
+            catch (Throwable ex)
+            {
+                LOG.log(Level.WARNING,
+                    "Alarm update notification error", ex);
+            }
+        }
+    }
+
+    /** Update list of active and acknowledged alarms
+     *  <p>
+     *  Caller must synchronize on this.
+     *  @param pv PV that might have changed the alarm state
+     */
+    private void updateAlarmLists(final AlarmTreePV pv)
+    {
+        final SeverityLevel severity = pv.getSeverity();
+        if (severity.ordinal() > 0)
+        {
+            if (severity.isActive())
+            {
+                active_alarms.add(pv);
+                acknowledged_alarms.remove(pv);
+            }
+            else
+            {
+                acknowledged_alarms.add(pv);
+                active_alarms.remove(pv);
+            }
+        }
+        else
+        {
+            active_alarms.remove(pv);
+            acknowledged_alarms.remove(pv);
+        }
+    }
+
     /** @return Debug string */
     @Override
     public String toString()
@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.ui.clientmodel;
+
+import org.csstudio.alarm.beast.Messages;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+/** Job that updates the models configuration with changes from the RDB.
+ *  @author Kay Kasemir
+ */
+public class UpdateConfigJob extends Job
+{
+    final private AlarmClientModel model;
+    final private String path;
+
+    /** Initialize job. Caller still has to <code>schedule()</code>!
+     *  @param model Model who's config. will be updated.
+     *  @param path Path name of the added/removed/changed item or <code>null</code>
+     */
+    public UpdateConfigJob(final AlarmClientModel model, final String path)
+    {
+        super(Messages.ReadConfigJobName);
+        this.model = model;
+        this.path = path;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected IStatus run(final IProgressMonitor monitor)
+    {
+        model.updateConfiguration(path, monitor);
+        return Status.OK_STATUS;
+    }
+}
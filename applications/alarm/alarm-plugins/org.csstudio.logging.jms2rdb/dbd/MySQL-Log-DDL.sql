@@ -57,7 +57,9 @@ CREATE TABLE IF NOT EXISTS message
    datum TIMESTAMP NOT NULL,
    type VARCHAR(10) NOT NULL,
    name VARCHAR(80) NULL,
-   severity VARCHAR(20) NULL  
+   severity VARCHAR(20) NULL,
+   text VARCHAR(100) NULL,
+   host VARCHAR(100) NULL
 );
 
 -- Elements of a Message
@@ -71,6 +73,25 @@ CREATE TABLE IF NOT EXISTS message_content
   value VARCHAR(100)
 );
 
+-- Indices for the message history:
+-- Time range of messages, and lookup of a property
+-- for each message when filtering on MESSAGE_CONTENT
+CREATE INDEX message_datum_idx ON message (datum);
+CREATE INDEX message_content_msg_prop_idx ON message_content (message_id, msg_property_type_id, value);
+
+-- Copies of frequently searched properties, written in addition to
+-- MESSAGE_CONTENT: The log writer fills the MESSAGE columns listed in
+-- its rdb_message_columns preference, for example "TEXT, HOST",
+-- and the message history filters on all columns of the MESSAGE table
+-- directly instead of checking MESSAGE_CONTENT per message.
+-- To add them to an existing MESSAGE table, and copy existing values:
+-- ALTER TABLE message ADD COLUMN text VARCHAR(100) NULL, ADD COLUMN host VARCHAR(100) NULL;
+-- UPDATE message m SET
+--   text = (SELECT MAX(c.value) FROM message_content c WHERE c.message_id=m.id AND c.msg_property_type_id=(SELECT id FROM msg_property_type WHERE name='TEXT')),
+--   host = (SELECT MAX(c.value) FROM message_content c WHERE c.message_id=m.id AND c.msg_property_type_id=(SELECT id FROM msg_property_type WHERE name='HOST'));
+CREATE INDEX message_text_idx ON message (text);
+CREATE INDEX message_host_idx ON message (host);
+
 
 # NOTE:
 # MyISAM ignores forgeign keys, and the software will work fine
@@ -84,7 +105,7 @@ CREATE TABLE IF NOT EXISTS message_content
 # message_content.msg_property_type_id -> msg_property_type.id
 #
 # For performance reasons, you also want indices on
-# message.ID, message.datum, maybe more
+# message.ID, message.datum, maybe more (see above)
 
 
 # Example Message with some elements
@@ -93,7 +114,7 @@ CREATE TABLE IF NOT EXISTS message_content
 -- you need to also update the sequences to cover
 -- the message and message_content IDs that you
 -- used for the data!
-INSERT INTO message VALUES(1, NOW(), 'log', '', 'INFO');
+INSERT INTO message (id, datum, type, name, severity) VALUES(1, NOW(), 'log', '', 'INFO');
 INSERT INTO message_content VALUES(3, 1, 3, NOW());
 INSERT INTO message_content VALUES(4, 1, 4, 'Message Text');
 INSERT INTO message_content VALUES(5, 1, 5, 'User Fred');
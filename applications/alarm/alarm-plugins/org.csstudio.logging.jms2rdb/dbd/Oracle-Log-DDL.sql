@@ -19,6 +19,8 @@ CREATE TABLE message
  type                           VARCHAR2(10) NOT NULL,
  name                           VARCHAR2(80),
  severity                       VARCHAR2(20),
+ text                           VARCHAR2(100),
+ host                           VARCHAR2(100),
  CONSTRAINT MESSAGE_PK PRIMARY KEY (id) USING INDEX
 );
 
@@ -50,6 +52,40 @@ CREATE INDEX message_content_msgid_indx ON message_content
     message_id                      ASC
   );
 
+-- Lookup of a property for each message
+-- when filtering on MESSAGE_CONTENT
+CREATE INDEX message_content_msg_prop_indx ON message_content
+  (
+    message_id                      ASC,
+    msg_property_type_id            ASC,
+    value                           ASC
+  );
+
+CREATE INDEX message_datum_indx ON message
+  (
+    datum                           ASC
+  );
+
+-- Copies of frequently searched properties, written in addition to
+-- MESSAGE_CONTENT: The log writer fills the MESSAGE columns listed in
+-- its rdb_message_columns preference, for example "TEXT, HOST",
+-- and the message history filters on all columns of the MESSAGE table
+-- directly instead of checking MESSAGE_CONTENT per message.
+-- To add them to an existing MESSAGE table, and copy existing values:
+-- ALTER TABLE message ADD (text VARCHAR2(100), host VARCHAR2(100));
+-- UPDATE message m SET
+--   text = (SELECT MAX(c.value) FROM message_content c WHERE c.message_id=m.id AND c.msg_property_type_id=(SELECT id FROM msg_property_type WHERE name='TEXT')),
+--   host = (SELECT MAX(c.value) FROM message_content c WHERE c.message_id=m.id AND c.msg_property_type_id=(SELECT id FROM msg_property_type WHERE name='HOST'));
+CREATE INDEX message_text_indx ON message
+  (
+    text                            ASC
+  );
+
+CREATE INDEX message_host_indx ON message
+  (
+    host                            ASC
+  );
+
 ALTER TABLE message_content
 ADD CONSTRAINT message_content_msg_prope_fk1 FOREIGN KEY (msg_property_type_id)
 REFERENCES msg_property_type (id);
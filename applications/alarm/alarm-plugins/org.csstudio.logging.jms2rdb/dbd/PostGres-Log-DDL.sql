@@ -75,7 +75,9 @@ CREATE TABLE  message
    datum TIMESTAMP NOT NULL,
    type VARCHAR(10) NOT NULL,
    name VARCHAR(80) NULL,
-   severity VARCHAR(20) NULL  
+   severity VARCHAR(20) NULL,
+   text VARCHAR(100) NULL,
+   host VARCHAR(100) NULL
 );
 
 -- Elements of a Message
@@ -98,6 +100,23 @@ alter table message_content add constraint msg_pptype_id_fk foreign key (msg_pro
 
 create index msg_id_idx on message_content (message_id);
 create index msg_pp_type_id_idx on message_content (msg_property_type_id);
+-- Time range of messages, and lookup of a property
+-- for each message when filtering on MESSAGE_CONTENT
+create index message_datum_idx on message (datum);
+create index msg_id_pp_type_value_idx on message_content (message_id, msg_property_type_id, value);
+
+-- Copies of frequently searched properties, written in addition to
+-- MESSAGE_CONTENT: The log writer fills the MESSAGE columns listed in
+-- its rdb_message_columns preference, for example "TEXT, HOST",
+-- and the message history filters on all columns of the MESSAGE table
+-- directly instead of checking MESSAGE_CONTENT per message.
+-- To add them to an existing MESSAGE table, and copy existing values:
+-- ALTER TABLE message ADD COLUMN text VARCHAR(100) NULL, ADD COLUMN host VARCHAR(100) NULL;
+-- UPDATE message m SET
+--   text = (SELECT MAX(c.value) FROM message_content c WHERE c.message_id=m.id AND c.msg_property_type_id=(SELECT id FROM msg_property_type WHERE name='TEXT')),
+--   host = (SELECT MAX(c.value) FROM message_content c WHERE c.message_id=m.id AND c.msg_property_type_id=(SELECT id FROM msg_property_type WHERE name='HOST'));
+create index message_text_idx on message (text);
+create index message_host_idx on message (host);
 
 -- Example Message with some elements
 -- NOTE:
@@ -106,7 +125,7 @@ create index msg_pp_type_id_idx on message_content (msg_property_type_id);
 -- the message and message_content IDs that you
 -- used for the data!
 /*
-INSERT INTO message VALUES(1, NOW(), 'log', '', 'INFO');
+INSERT INTO message (id, datum, type, name, severity) VALUES(1, NOW(), 'log', '', 'INFO');
 INSERT INTO message_content VALUES(3, 1, 3, NOW());
 INSERT INTO message_content VALUES(4, 1, 4, 'Message Text');
 INSERT INTO message_content VALUES(5, 1, 5, 'User Fred');
@@ -65,6 +65,23 @@ public class Application implements IApplication
     /** RDB Schema */
     private String rdb_schema = "";
 
+    /** MESSAGE columns that hold a copy of the property with the same name,
+     *  separated by ','
+     */
+    private String rdb_message_columns = "";
+
+    /** Capacity of message queue, 0 to write each message as received */
+    private int queue_capacity = 10000;
+
+    /** Maximum number of messages written in one RDB transaction */
+    private int batch_size = 500;
+
+    /** Maximum delay in milliseconds for collecting messages of a batch */
+    private int batch_delay = 200;
+
+    /** Thread that writes messages in batches, or <code>null</code> */
+    private BatchWriter batch_writer = null;
+
     /** Thread that handles the JMS messages */
     private LogClientThread log_client_thread;
 
@@ -146,20 +163,48 @@ public class Application implements IApplication
                 SecurePreferences.get(Activator.ID, "rdb_password", null);
         rdb_schema =
             service.getString(Activator.ID, "rdb_schema", rdb_schema, null);
+        rdb_message_columns =
+            service.getString(Activator.ID, "rdb_message_columns", rdb_message_columns, null).trim();
+        queue_capacity =
+            service.getInt(Activator.ID, "queue_capacity", queue_capacity, null);
+        batch_size =
+            service.getInt(Activator.ID, "batch_size", batch_size, null);
+        batch_delay =
+            service.getInt(Activator.ID, "batch_delay", batch_delay, null);
 
         LogConfigurator.configureFromPreferences();
 
         Activator.getLogger().log(Level.CONFIG, "Started JMS Log Tool {0}", version);
 
+        final String[] message_columns = rdb_message_columns.isEmpty()
+            ? new String[0]
+            : rdb_message_columns.split(" *, *");
+
         // Start log handler and web interface
+        if (queue_capacity > 0)
+        {
+            batch_writer = new BatchWriter(queue_capacity, batch_size, batch_delay,
+                                           LogClientThread.RETRY_DELAY_MS,
+                                           rdb_url, rdb_user, rdb_password, rdb_schema,
+                                           message_columns);
+            batch_writer.start();
+        }
         log_client_thread =
             new LogClientThread(jms_url, jms_topic, rdb_url, rdb_user, rdb_password, rdb_schema,
-                                Filter.parse(jms_filters));
+                                message_columns,
+                                Filter.parse(jms_filters), batch_writer);
         startHttpd();
         log_client_thread.start();
         // .. Wait while thread is running ..
         log_client_thread.join();
 
+        // Write remaining messages
+        if (batch_writer != null)
+        {
+            batch_writer.cancel();
+            batch_writer.join();
+        }
+
         // Shutdown
         stopHttpd();
 
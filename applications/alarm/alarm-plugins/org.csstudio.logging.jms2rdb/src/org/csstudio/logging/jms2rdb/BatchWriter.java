@@ -0,0 +1,446 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.logging.jms2rdb;
+
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLNonTransientException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+import org.csstudio.logging.jms2rdb.rdb.LogMessage;
+import org.csstudio.logging.jms2rdb.rdb.RDBWriter;
+
+/** Thread that writes log messages to the RDB in batches.
+ *  <p>
+ *  The JMS callback adds messages to a bounded queue.
+ *  This thread takes up to 'batch size' messages from the queue,
+ *  waiting at most 'batch delay' for more messages to arrive,
+ *  and writes them with one RDB transaction.
+ *  Under load, each commit thus covers many messages,
+ *  while a single message is written within the 'batch delay'.
+ *  <p>
+ *  When the queue is full, {@link #add(LogMessage)} blocks.
+ *  This blocks the JMS callback, so the JMS server
+ *  holds on to further messages for this consumer.
+ *  <p>
+ *  On RDB errors, the thread disconnects, waits, re-connects
+ *  and then writes the same batch again,
+ *  while the JMS connection stays up.
+ *  When writing the batch fails {@link #MAX_BATCH_ATTEMPTS} times,
+ *  or fails with an error that a retry cannot fix,
+ *  the messages of the batch are written one by one.
+ *  Messages that still fail are logged and dropped,
+ *  so that a single bad message cannot stop the logger.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class BatchWriter extends Thread
+{
+    /** Period for checking if thread should stop while waiting for messages */
+    private static final long IDLE_POLL_MS = 1000;
+
+    /** Number of attempts to write a batch before writing its messages one by one */
+    public static final int MAX_BATCH_ATTEMPTS = 3;
+
+    /** Minimum period between warnings about a full queue */
+    private static final long FULL_WARNING_MS = 10000;
+
+    /** Message queue */
+    final private BlockingQueue<LogMessage> queue;
+
+    /** Maximum number of messages per batch */
+    final private int batch_size;
+
+    /** Maximum time to wait for more messages of a batch */
+    final private long batch_delay_ms;
+
+    /** Delay before re-connecting after RDB error */
+    final private long retry_delay_ms;
+
+    final private String rdb_url, rdb_user, rdb_password, rdb_schema;
+
+    /** MESSAGE columns that hold a copy of the property with the same name */
+    final private String[] rdb_message_columns;
+
+    /** Flag that tells thread to run or stop. */
+    private volatile boolean run = true;
+
+    /** RDB Writer, only accessed by this thread */
+    private RDBWriter rdb_writer = null;
+
+    /** Connected to RDB? Only accessed by this thread */
+    private boolean connected = false;
+
+    /** Number of messages written to RDB */
+    final private AtomicLong written_count = new AtomicLong();
+
+    /** Number of batches written to RDB */
+    final private AtomicLong batch_count = new AtomicLong();
+
+    /** Number of messages that could not be written and were dropped */
+    final private AtomicLong dropped_count = new AtomicLong();
+
+    /** Number of times that the queue was full */
+    final private AtomicLong full_count = new AtomicLong();
+
+    /** Largest number of messages in queue */
+    final private AtomicInteger max_queue_size = new AtomicInteger();
+
+    /** Size and duration of last batch */
+    private volatile int last_batch_size = 0;
+    private volatile long last_batch_micros = 0;
+
+    /** Time of last warning about full queue */
+    private volatile long last_full_warning = 0;
+
+    /** Last error message */
+    private volatile String last_error = "";
+
+    /** Constructor
+     *  @param capacity Queue capacity
+     *  @param batch_size Maximum number of messages per batch
+     *  @param batch_delay_ms Maximum time to wait for more messages of a batch
+     *  @param retry_delay_ms Delay before re-connecting after RDB error
+     *  @param rdb_url RDB server URL
+     *  @param rdb_user User (or null)
+     *  @param rdb_password Password (or null)
+     *  @param rdb_schema RDB schema or ""
+     *  @param rdb_message_columns MESSAGE columns that hold a copy of the property with the same name
+     */
+    public BatchWriter(final int capacity, final int batch_size,
+            final long batch_delay_ms, final long retry_delay_ms,
+            final String rdb_url, final String rdb_user, final String rdb_password,
+            final String rdb_schema, final String[] rdb_message_columns)
+    {
+        super("BatchWriter");
+        queue = new ArrayBlockingQueue<>(capacity);
+        this.batch_size = Math.max(1, batch_size);
+        this.batch_delay_ms = batch_delay_ms;
+        this.retry_delay_ms = retry_delay_ms;
+        this.rdb_url = rdb_url;
+        this.rdb_user = rdb_user;
+        this.rdb_password = rdb_password;
+        this.rdb_schema = rdb_schema;
+        this.rdb_message_columns = rdb_message_columns;
+        Activator.getLogger().log(Level.CONFIG,
+                "Writing batches of up to {0} messages within {1} ms, queue capacity {2}",
+                new Object[] { this.batch_size, batch_delay_ms, capacity });
+    }
+
+    /** Add message to queue.
+     *  Blocks while the queue is full.
+     *  @param message Message to write
+     *  @return <code>false</code> if thread was stopped while waiting for space in queue
+     *  @throws InterruptedException when interrupted while waiting
+     */
+    public boolean add(final LogMessage message) throws InterruptedException
+    {
+        if (! queue.offer(message))
+        {
+            full_count.incrementAndGet();
+            final long now = System.currentTimeMillis();
+            if (now - last_full_warning > FULL_WARNING_MS)
+            {
+                last_full_warning = now;
+                Activator.getLogger().log(Level.WARNING,
+                        "Message queue is full, RDB cannot keep up. {0} messages written, queue was full {1} times",
+                        new Object[] { written_count.get(), full_count.get() });
+            }
+            while (! queue.offer(message, IDLE_POLL_MS, TimeUnit.MILLISECONDS))
+                if (! run)
+                    return false;
+        }
+        final int size = queue.size();
+        if (size > max_queue_size.get())
+            max_queue_size.accumulateAndGet(size, Math::max);
+        return true;
+    }
+
+    /** @return Number of messages in queue */
+    public int getQueueSize()
+    {
+        return queue.size();
+    }
+
+    /** @return Largest number of messages in queue */
+    public int getMaxQueueSize()
+    {
+        return max_queue_size.get();
+    }
+
+    /** @return Queue capacity */
+    public int getQueueCapacity()
+    {
+        return queue.size() + queue.remainingCapacity();
+    }
+
+    /** @return Number of times that the queue was full */
+    public long getFullCount()
+    {
+        return full_count.get();
+    }
+
+    /** @return Number of messages written to RDB */
+    public long getWrittenCount()
+    {
+        return written_count.get();
+    }
+
+    /** @return Number of batches written to RDB */
+    public long getBatchCount()
+    {
+        return batch_count.get();
+    }
+
+    /** @return Number of messages that could not be written and were dropped */
+    public long getDroppedCount()
+    {
+        return dropped_count.get();
+    }
+
+    /** @return Number of messages in last batch */
+    public int getLastBatchSize()
+    {
+        return last_batch_size;
+    }
+
+    /** @return Time in microseconds for writing last batch */
+    public long getLastBatchMicros()
+    {
+        return last_batch_micros;
+    }
+
+    /** @return Last error or empty string */
+    public String getLastError()
+    {
+        return last_error;
+    }
+
+    /** Ask thread to stop.
+     *  Thread will write the messages that are still queued, then exit.
+     *  Does not block for thread to actually exit.
+     */
+    public void cancel()
+    {
+        run = false;
+        synchronized (this)
+        {
+            notifyAll();
+        }
+    }
+
+    /** Write messages until cancelled */
+    @Override
+    public void run()
+    {
+        final List<LogMessage> batch = new ArrayList<>(batch_size);
+        // Number of failed attempts to write the current batch
+        int failed_attempts = 0;
+        while (run  ||  !batch.isEmpty()  ||  !queue.isEmpty())
+        {
+            boolean writing = false;
+            try
+            {
+                if (batch.isEmpty())
+                {
+                    collectBatch(batch);
+                    if (batch.isEmpty())
+                        continue;
+                }
+                if (! connected)
+                {
+                    connect();
+                    connected = true;
+                }
+                final long start = System.nanoTime();
+                final int size = batch.size();
+                writing = true;
+                if (failed_attempts >= MAX_BATCH_ATTEMPTS)
+                    writeIndividually(batch);
+                else
+                {
+                    write(batch);
+                    written_count.addAndGet(size);
+                    batch.clear();
+                }
+                last_batch_micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+                last_batch_size = size;
+                batch_count.incrementAndGet();
+                failed_attempts = 0;
+            }
+            catch (InterruptedException ex)
+            {
+                break;
+            }
+            catch (Exception ex)
+            {
+                last_error = ex.getMessage();
+                Activator.getLogger().log(Level.WARNING, "RDB write error", ex);
+                if (writing)
+                    failed_attempts = isPermanent(ex) ? MAX_BATCH_ATTEMPTS : failed_attempts + 1;
+                if (connected)
+                {
+                    disconnect();
+                    connected = false;
+                }
+                if (! run)
+                    break;
+                // Wait a little before trying again
+                try
+                {
+                    synchronized (this)
+                    {
+                        wait(retry_delay_ms);
+                    }
+                }
+                catch (InterruptedException ie)
+                {
+                    break;
+                }
+            }
+        }
+        final int lost = batch.size() + queue.size();
+        if (lost > 0)
+            Activator.getLogger().log(Level.WARNING, "Exiting with {0} unwritten messages", lost);
+        if (connected)
+            disconnect();
+    }
+
+    /** Take a batch of messages from the queue
+     *  @param batch Batch to which messages are added
+     *  @throws InterruptedException when interrupted
+     */
+    private void collectBatch(final List<LogMessage> batch) throws InterruptedException
+    {
+        final LogMessage first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+        if (first == null)
+            return;
+        batch.add(first);
+        final long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batch_delay_ms);
+        while (batch.size() < batch_size)
+        {
+            queue.drainTo(batch, batch_size - batch.size());
+            if (batch.size() >= batch_size)
+                break;
+            final long wait = end - System.nanoTime();
+            if (wait <= 0)
+                break;
+            final LogMessage next = queue.poll(wait, TimeUnit.NANOSECONDS);
+            if (next == null)
+                break;
+            batch.add(next);
+        }
+    }
+
+    /** Write the messages of a batch one by one.
+     *  Messages that fail are logged and dropped,
+     *  unless the error indicates a lost RDB connection.
+     *  @param batch Messages to write, written or dropped messages are removed
+     *  @throws Exception on connection error
+     */
+    private void writeIndividually(final List<LogMessage> batch) throws Exception
+    {
+        final Iterator<LogMessage> messages = batch.iterator();
+        while (messages.hasNext())
+        {
+            final LogMessage message = messages.next();
+            try
+            {
+                write(Collections.singletonList(message));
+                written_count.incrementAndGet();
+            }
+            catch (Exception ex)
+            {
+                if (isConnectionError(ex))
+                    throw ex;
+                dropped_count.incrementAndGet();
+                last_error = ex.getMessage();
+                Activator.getLogger().log(Level.WARNING, "Dropping message that cannot be written: " + message, ex);
+            }
+            messages.remove();
+        }
+    }
+
+    /** @param ex Error
+     *  @return <code>true</code> if writing the same messages again will fail again
+     */
+    private static boolean isPermanent(final Throwable ex)
+    {
+        for (Throwable cause = ex;  cause != null;  cause = cause.getCause())
+        {
+            if (cause instanceof SQLNonTransientException)
+                return ! (cause instanceof SQLNonTransientConnectionException);
+            if (cause instanceof SQLException)
+            {   // Data exception, integrity constraint violation, syntax error or access rule violation
+                final String state = ((SQLException) cause).getSQLState();
+                if (state != null  &&
+                    (state.startsWith("22")  ||  state.startsWith("23")  ||  state.startsWith("42")))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /** @param ex Error
+     *  @return <code>true</code> if the error indicates a lost RDB connection
+     */
+    private static boolean isConnectionError(final Throwable ex)
+    {
+        for (Throwable cause = ex;  cause != null;  cause = cause.getCause())
+        {
+            if (cause instanceof SQLTransientConnectionException  ||
+                cause instanceof SQLNonTransientConnectionException  ||
+                cause instanceof SQLRecoverableException)
+                return true;
+            if (cause instanceof SQLException)
+            {
+                final String state = ((SQLException) cause).getSQLState();
+                if (state != null  &&  state.startsWith("08"))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /** Connect to RDB
+     *  @throws Exception on error
+     */
+    protected void connect() throws Exception
+    {
+        rdb_writer = new RDBWriter(rdb_url, rdb_user, rdb_password, rdb_schema, rdb_message_columns);
+        Activator.getLogger().log(Level.INFO, "Connected to RDB {0}", rdb_url);
+    }
+
+    /** Write batch of messages to RDB
+     *  @param batch Messages to write
+     *  @throws Exception on error
+     */
+    protected void write(final List<LogMessage> batch) throws Exception
+    {
+        rdb_writer.write(batch);
+    }
+
+    /** Disconnect from RDB */
+    protected void disconnect()
+    {
+        rdb_writer.close();
+        rdb_writer = null;
+    }
+}
@@ -9,6 +9,7 @@ package org.csstudio.logging.jms2rdb;
 
 import java.util.logging.Level;
 
+import javax.jms.BytesMessage;
 import javax.jms.Connection;
 import javax.jms.ExceptionListener;
 import javax.jms.JMSException;
@@ -19,19 +20,20 @@ import javax.jms.MessageListener;
 import javax.jms.Session;
 import javax.jms.Topic;
 
+import org.csstudio.logging.jms2rdb.rdb.LogMessage;
 import org.csstudio.logging.jms2rdb.rdb.RDBWriter;
 import org.csstudio.platform.utility.jms.JMSConnectionFactory;
 
 /** Thread that receives log messages and sends them to the RDB.
  *  <p>
- *  There is no further queuing in here.
- *  All messages are directly written to the RDB.
+ *  With a {@link BatchWriter}, messages are queued and then
+ *  written to the RDB in batches by the {@link BatchWriter} thread.
+ *  Otherwise, all messages are directly written to the RDB.
  *  <p>
  *  If messages arrive quicker than they can be written to RDB,
  *  simple test showed that ActiveMQ JMS server will queue them up
  *  for this "consumer" as long as the consumer stays connected.
  *  TODO: Limits and config. of JMS server queue unclear.
- *        Queue in here?
  *
  *  @author Kay Kasemir
  *  reviewed by Katia Danilova 08/20/08
@@ -43,7 +45,7 @@ public class LogClientThread extends Thread
     /** On JMS or RDB errors, thread will disconnect, wait, then re-connect
      *  using this delay.
      */
-    private static final int RETRY_DELAY_MS = 20000;
+    static final int RETRY_DELAY_MS = 20000;
 
     /** JMS Server URL */
     final private String jms_url;
@@ -63,6 +65,9 @@ public class LogClientThread extends Thread
     /** RDB Schema */
     final private String rdb_schema;
 
+    /** MESSAGE columns that hold a copy of the property with the same name */
+    final private String[] rdb_message_columns;
+
     /** Message filters */
     final private Filter filters[];
 
@@ -72,9 +77,12 @@ public class LogClientThread extends Thread
     /** Flag that tells thread main loop to wait. */
     private boolean do_wait;
 
-    /** RDB Writer for log messages */
+    /** RDB Writer for log messages, used without batch_writer */
     private RDBWriter rdb_writer;
 
+    /** Batch writer for log messages, or <code>null</code> */
+    final private BatchWriter batch_writer;
+
     /** Counter for received JMS messages */
     private int message_count = 0;
 
@@ -91,11 +99,14 @@ public class LogClientThread extends Thread
      *  @param rdb_user User (or null)
      *  @param rdb_password Password (or null)
      *  @param rdb_schema RDB schema or ""
+     *  @param rdb_message_columns MESSAGE columns that hold a copy of the property with the same name
+     *  @param filters Filters for suppressed messages
+     *  @param batch_writer {@link BatchWriter} or <code>null</code> to directly write each message
      */
     public LogClientThread(final String jms_url, final String jms_topic,
             final String rdb_url, final String rdb_user, final String rdb_password,
-            final String rdb_schema,
-            final Filter filters[])
+            final String rdb_schema, final String[] rdb_message_columns,
+            final Filter filters[], final BatchWriter batch_writer)
     {
         super("LogClientThread");
         this.jms_url = jms_url;
@@ -104,7 +115,9 @@ public class LogClientThread extends Thread
         this.rdb_user = rdb_user;
         this.rdb_password = rdb_password;
         this.rdb_schema = rdb_schema;
+        this.rdb_message_columns = rdb_message_columns;
         this.filters = filters;
+        this.batch_writer = batch_writer;
 
         for (Filter filter : filters)
             Activator.getLogger().config(filter.toString());
@@ -122,6 +135,12 @@ public class LogClientThread extends Thread
         return last_message;
     }
 
+    /** @return {@link BatchWriter} or <code>null</code> */
+    public BatchWriter getBatchWriter()
+    {
+        return batch_writer;
+    }
+
     /** @return Last error received or empty string */
     public synchronized String getLastError()
     {
@@ -139,11 +158,16 @@ public class LogClientThread extends Thread
             try
             {
                 // First open RDB, then the JMS client that writes to RDB
-                rdb_writer = new RDBWriter(rdb_url, rdb_user, rdb_password, rdb_schema);
-                Activator.getLogger().log(Level.INFO, "Connected to RDB {0}", rdb_url);
+                if (batch_writer == null)
+                {
+                    rdb_writer = new RDBWriter(rdb_url, rdb_user, rdb_password, rdb_schema, rdb_message_columns);
+                    Activator.getLogger().log(Level.INFO, "Connected to RDB {0}", rdb_url);
 
-                // Add start message
-                rdb_writer.write("JMS Log Tool started");
+                    // Add start message
+                    rdb_writer.write("JMS Log Tool started");
+                }
+                else
+                    batch_writer.add(LogMessage.fromText("JMS Log Tool started"));
 
                 jms_connection = connectJMS();
 
@@ -267,7 +291,15 @@ public class LogClientThread extends Thread
                     ++message_count;
                     last_message  = map;
                 }
-                rdb_writer.write(map);
+                if (batch_writer == null)
+                    rdb_writer.write(map);
+                else if (! batch_writer.add(LogMessage.fromMapMessage(map)))
+                    Activator.getLogger().log(Level.WARNING, "Dropped message while stopping: {0}", map);
+            }
+            else if (message instanceof BytesMessage)
+            {   // Binary alarm state updates for clients.
+                // Alarm server sends the same updates to its 'state' topic as MapMessages
+                Activator.getLogger().log(Level.FINEST, "Ignoring binary message {0}", message);
             }
             else
                 Activator.getLogger().log(Level.WARNING, "Received unhandled message {0}", message);
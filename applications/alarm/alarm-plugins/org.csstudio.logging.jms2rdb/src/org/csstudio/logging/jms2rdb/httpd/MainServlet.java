@@ -13,6 +13,7 @@ import javax.jms.JMSException;
 import javax.jms.MapMessage;
 
 import org.csstudio.logging.jms2rdb.Activator;
+import org.csstudio.logging.jms2rdb.BatchWriter;
 import org.csstudio.logging.jms2rdb.LogClientThread;
 import org.osgi.framework.Constants;
 
@@ -49,6 +50,25 @@ public class MainServlet extends AbstractServlet
 
         html.h2("Message Count: " + log_client_thread.getMessageCount());
 
+        final BatchWriter batch_writer = log_client_thread.getBatchWriter();
+        if (batch_writer != null)
+        {
+            html.openTable(2, "RDB Batches");
+            html.tableLine("Queued Messages", batch_writer.getQueueSize() +
+                           " (max. " + batch_writer.getMaxQueueSize() +
+                           ", capacity " + batch_writer.getQueueCapacity() + ")");
+            html.tableLine("Queue was full", batch_writer.getFullCount() + " times");
+            html.tableLine("Written Messages", Long.toString(batch_writer.getWrittenCount()));
+            html.tableLine("Written Batches", Long.toString(batch_writer.getBatchCount()));
+            html.tableLine("Dropped Messages", Long.toString(batch_writer.getDroppedCount()));
+            html.tableLine("Last Batch", batch_writer.getLastBatchSize() + " messages in " +
+                           batch_writer.getLastBatchMicros() / 1000.0 + " ms");
+            final String error = batch_writer.getLastError();
+            if (error != null  &&  error.length() > 0)
+                html.tableLine("Last RDB Error", error);
+            html.closeTable();
+        }
+
         final String last_error = log_client_thread.getLastError();
         if (last_error.length() > 0)
         {
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.logging.jms2rdb.rdb;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.jms.JMSException;
+import javax.jms.MapMessage;
+
+import org.csstudio.logging.JMSLogMessage;
+
+/** Log message to be written to the RDB
+ *
+ *  <p>Copy of the content of a JMS MapMessage,
+ *  so it can be written after the JMS callback returned.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class LogMessage
+{
+    final private Date datum;
+    final private String type, name, severity;
+    final private Map<String, String> properties;
+
+    /** @param datum Time when message was received
+     *  @param type Message type
+     *  @param name Primary name (PV name, ...) to which the msg refers. May be <code>null</code>
+     *  @param severity Message severity
+     *  @param properties Additional message properties
+     */
+    public LogMessage(final Date datum, final String type, final String name,
+                      final String severity, final Map<String, String> properties)
+    {
+        this.datum = datum;
+        this.type = type;
+        this.name = name;
+        this.severity = severity;
+        this.properties = properties;
+    }
+
+    /** @param text Text of an 'INFO' message
+     *  @return LogMessage of type {@link JMSLogMessage#TYPE}
+     */
+    public static LogMessage fromText(final String text)
+    {
+        return new LogMessage(new Date(), JMSLogMessage.TYPE, null, "INFO",
+                              Collections.singletonMap(JMSLogMessage.TEXT, text));
+    }
+
+    /** @param map JMS message
+     *  @return LogMessage with content of the JMS message
+     *  @throws JMSException on error
+     */
+    @SuppressWarnings("unchecked")
+    public static LogMessage fromMapMessage(final MapMessage map) throws JMSException
+    {
+        final Map<String, String> properties = new LinkedHashMap<>();
+        final Enumeration<String> props = map.getMapNames();
+        while (props.hasMoreElements())
+        {
+            final String prop = props.nextElement();
+            // Skip properties which are already in message table columns
+            if (JMSLogMessage.TYPE.equals(prop) ||
+                JMSLogMessage.NAME.equals(prop) ||
+                JMSLogMessage.SEVERITY.equals(prop))
+                continue;
+            properties.put(prop, map.getString(prop));
+        }
+        return new LogMessage(new Date(),
+                              map.getString(JMSLogMessage.TYPE),
+                              map.getString(JMSLogMessage.NAME),
+                              map.getString(JMSLogMessage.SEVERITY),
+                              properties);
+    }
+
+    /** @return Time when message was received */
+    public Date getDatum()
+    {
+        return datum;
+    }
+
+    /** @return Message type */
+    public String getType()
+    {
+        return type;
+    }
+
+    /** @return Primary name (PV name, ...) to which the msg refers. May be <code>null</code> */
+    public String getName()
+    {
+        return name;
+    }
+
+    /** @return Message severity */
+    public String getSeverity()
+    {
+        return severity;
+    }
+
+    /** @return Additional message properties */
+    public Map<String, String> getProperties()
+    {
+        return properties;
+    }
+
+    /** @param property Name of an additional property, not case-sensitive
+     *  @return Value of the property or <code>null</code>
+     */
+    public String getProperty(final String property)
+    {
+        final String value = properties.get(property);
+        if (value != null)
+            return value;
+        for (Map.Entry<String, String> entry : properties.entrySet())
+            if (entry.getKey().equalsIgnoreCase(property))
+                return entry.getValue();
+        return null;
+    }
+
+    @Override
+    public String toString()
+    {
+        return type + " message " + name + " " + severity + " " + properties;
+    }
+}
@@ -12,15 +12,18 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Statement;
 import java.sql.Timestamp;
-import java.util.Date;
-import java.util.Enumeration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.jms.MapMessage;
 
-import org.csstudio.logging.JMSLogMessage;
 import org.csstudio.logging.jms2rdb.Activator;
 import org.csstudio.platform.utility.rdb.RDBUtil;
 import org.csstudio.platform.utility.rdb.RDBUtil.Dialect;
@@ -40,12 +43,27 @@ public class RDBWriter
     /** Enable Oracle statistics? */
     private static final boolean enable_trace = false;
 
-    /** RDB Utility */
+    /** RDB Utility, <code>null</code> when writing to a provided connection */
     final private RDBUtil rdb_util;
 
+    /** RDB connection */
+    final private Connection connection;
+
+    /** RDB dialect */
+    final private Dialect dialect;
+
     /** SQL statements */
     final private SQL sql;
 
+    /** MESSAGE columns that hold a copy of the property with the same name */
+    final private String[] message_columns;
+
+    /** Message inserts, by the message columns that they set.
+     *  Bit <code>i</code> of the key is set when the insert
+     *  includes <code>message_columns[i]</code>.
+     */
+    final private Map<Integer, PreparedStatement> insert_message_statements = new HashMap<>();
+
     /** Map of Property IDs, mapping property name to numeric ID */
     final private HashMap<String, Integer> properties =
         new HashMap<String, Integer>();
@@ -53,9 +71,6 @@ public class RDBWriter
     /** Lazily initialized statement */
     private PreparedStatement next_message_id_statement;
 
-    /** Lazily initialized statement */
-    private PreparedStatement insert_message_statement;
-
     /** Lazily initialized statement */
     private PreparedStatement insert_property_statement;
 
@@ -68,39 +83,135 @@ public class RDBWriter
      */
     public RDBWriter(final String url, final String user, final String password, final String schema) throws Exception
     {
+        this(url, user, password, schema, new String[0]);
+    }
+
+    /** Constructor
+     *  @param url RDB URL
+     *  @param user RDB user
+     *  @param password RDB password
+     *  @param schema Schema name or ""
+     *  @param message_columns MESSAGE columns that hold a copy of the property with the same name
+     *  @throws Exception on error
+     */
+    public RDBWriter(final String url, final String user, final String password, final String schema,
+                     final String[] message_columns) throws Exception
+    {
+        this(connect(url, user, password), schema, message_columns);
+    }
+
+    /** @param rdb_util Connected RDB utility
+     *  @param schema Schema name or ""
+     *  @param message_columns MESSAGE columns that hold a copy of the property with the same name
+     *  @throws Exception on error
+     */
+    private RDBWriter(final RDBUtil rdb_util, final String schema, final String[] message_columns) throws Exception
+    {
+        this(rdb_util, rdb_util.getConnection(), rdb_util.getDialect(), schema, message_columns);
+    }
+
+    /** Constructor for writing to a provided connection, which is not closed by the writer
+     *  @param connection RDB connection
+     *  @param dialect RDB dialect
+     *  @param schema Schema name or ""
+     *  @param message_columns MESSAGE columns that hold a copy of the property with the same name
+     *  @throws Exception on error
+     */
+    RDBWriter(final Connection connection, final Dialect dialect, final String schema,
+              final String[] message_columns) throws Exception
+    {
+        this(null, connection, dialect, schema, message_columns);
+    }
+
+    /** @param rdb_util RDB utility, <code>null</code> for provided connection
+     *  @param connection RDB connection
+     *  @param dialect RDB dialect
+     *  @param schema Schema name or ""
+     *  @param message_columns MESSAGE columns that hold a copy of the property with the same name
+     *  @throws Exception on error
+     */
+    private RDBWriter(final RDBUtil rdb_util, final Connection connection, final Dialect dialect,
+                      final String schema, final String[] message_columns) throws Exception
+    {
+        this.rdb_util = rdb_util;
+        this.connection = connection;
+        this.dialect = dialect;
+        sql = new SQL(dialect, schema);
+        this.message_columns = new String[message_columns.length];
+        for (int i=0; i<message_columns.length; ++i)
+            this.message_columns[i] = message_columns[i].toUpperCase();
         try
         {
-            rdb_util = RDBUtil.connect(url, user, password, false);
+            checkMessageColumns();
+
+            if (enable_trace)
+            {
+                final Statement statement = connection.createStatement();
+                statement.execute("alter session set tracefile_identifier='KayTest'");
+                statement.execute("ALTER SESSION SET events " +
+                        "'10046 trace name context forever, level 12'");
+            }
+
+            if (sql.select_next_message_id != null)
+                next_message_id_statement =
+                    connection.prepareStatement(sql.select_next_message_id);
+
+            insert_property_statement =
+                connection.prepareStatement(sql.insert_message_property_value);
         }
         catch (Exception ex)
         {
-            throw new Exception("Error connecting to '" + url + "': " + ex.getMessage());
+            close();
+            throw ex;
         }
+    }
 
-        final Connection connection = rdb_util.getConnection();
-        if (enable_trace)
+    /** @param url RDB URL
+     *  @param user RDB user
+     *  @param password RDB password
+     *  @return Connected RDB utility
+     *  @throws Exception on error
+     */
+    private static RDBUtil connect(final String url, final String user, final String password) throws Exception
+    {
+        try
         {
-            final Statement statement = connection.createStatement();
-            statement.execute("alter session set tracefile_identifier='KayTest'");
-            statement.execute("ALTER SESSION SET events " +
-                    "'10046 trace name context forever, level 12'");
+            return RDBUtil.connect(url, user, password, false);
+        }
+        catch (Exception ex)
+        {
+            throw new Exception("Error connecting to '" + url + "': " + ex.getMessage());
         }
+    }
 
-        sql = new SQL(rdb_util, schema);
-
-        if (sql.select_next_message_id != null)
-            next_message_id_statement =
-                connection.prepareStatement(sql.select_next_message_id);
-
-        if (rdb_util.getDialect() == Dialect.PostgreSQL)
-            insert_message_statement =
-                        connection.prepareStatement(sql.insert_message_id_datum_type_name_severity);
-        else // MySQL, other RDB that supports RETURN_GENERATED_KEYS
-            insert_message_statement =
-                    connection.prepareStatement(sql.insert_message_id_datum_type_name_severity,
-                            Statement.RETURN_GENERATED_KEYS);
-        insert_property_statement =
-            connection.prepareStatement(sql.insert_message_property_value);
+    /** Check that the message columns are valid and exist in the MESSAGE table
+     *  @throws Exception on error
+     */
+    private void checkMessageColumns() throws Exception
+    {
+        if (message_columns.length <= 0)
+            return;
+        if (message_columns.length >= Integer.SIZE)
+            throw new Exception("Too many message columns " + Arrays.toString(message_columns));
+        for (String column : message_columns)
+            if (! column.matches("[A-Z_][A-Z0-9_]*")  ||
+                "ID".equals(column)  ||  "DATUM".equals(column)  ||
+                "TYPE".equals(column)  ||  "NAME".equals(column)  ||  "SEVERITY".equals(column))
+                throw new Exception("Invalid message column '" + column + "'");
+        final Statement statement = connection.createStatement();
+        try
+        {
+            statement.executeQuery(sql.createMessageColumnCheck(message_columns)).close();
+        }
+        catch (Exception ex)
+        {
+            throw new Exception("MESSAGE table lacks columns " + Arrays.toString(message_columns) +
+                                ": " + ex.getMessage());
+        }
+        finally
+        {
+            statement.close();
+        }
     }
 
     /** Get numeric ID of a property, using either the local cache
@@ -116,7 +227,6 @@ public class RDBWriter
         if (int_id != null)
             return int_id.intValue();
         // Perform RDB query
-        final Connection connection = rdb_util.getConnection();
         PreparedStatement statement =
             connection.prepareStatement(sql.select_property_id_by_name);
         statement.setString(1, property_name);
@@ -139,8 +249,8 @@ public class RDBWriter
         // Fundamentally, there is a small chance that multiple instances
         // of this program will try to create duplicate property entries.
         // In reality, it probably doesn't matter.
-        // Since we wrap the whole one-message-write into a transaction,
-        // the worst case would be one lost message because of a property ID clash.
+        // Since we wrap the write of a batch of messages into a transaction,
+        // the worst case would be one lost batch because of a property ID clash.
         statement = connection.prepareStatement(sql.select_next_property_id);
         int next_id;
         try
@@ -201,7 +311,7 @@ public class RDBWriter
             catch (Exception ex)
             { /* Ignore */ }
         }
-        if (insert_message_statement != null)
+        for (PreparedStatement insert_message_statement : insert_message_statements.values())
         {
             try
             {
@@ -210,6 +320,7 @@ public class RDBWriter
             catch (Exception ex)
             { /* Ignore */ }
         }
+        insert_message_statements.clear();
         if (insert_property_statement != null)
         {
             try
@@ -224,7 +335,7 @@ public class RDBWriter
         {
             try
             {
-                final Statement statement = rdb_util.getConnection().createStatement();
+                final Statement statement = connection.createStatement();
                 statement.execute("ALTER SESSION SET events '10046 trace name context off'");
             }
             catch (Exception ex)
@@ -233,7 +344,8 @@ public class RDBWriter
             }
         }
 
-        rdb_util.close();
+        if (rdb_util != null)
+            rdb_util.close();
     }
 
     /** Write log message to RDB
@@ -242,59 +354,65 @@ public class RDBWriter
      */
     public void write(final String message) throws Exception
     {
-        final Connection connection = rdb_util.getConnection();
-        connection.setAutoCommit(false);
-        try
-        {
-            final long message_id = insertMessage(JMSLogMessage.TYPE, null, "INFO");
-            batchProperty(message_id, JMSLogMessage.TEXT, message);
-            insert_property_statement.executeBatch();
-            connection.commit();
-        }
-        catch (Exception ex)
-        {
-            connection.rollback();
-            throw ex;
-        }
-        finally
-        {
-            connection.setAutoCommit(true);
-        }
+        write(Collections.singletonList(LogMessage.fromText(message)));
     }
 
     /** Write log message to RDB
      *  @param message MapMessage to write
      *  @throws Exception on error
      */
-    @SuppressWarnings("unchecked")
     public void write(final MapMessage map) throws Exception
     {
-        final String type = map.getString(JMSLogMessage.TYPE);
-        final String name = map.getString(JMSLogMessage.NAME);
-        final String severity = map.getString(JMSLogMessage.SEVERITY);
+        write(Collections.singletonList(LogMessage.fromMapMessage(map)));
+    }
+
+    /** Write log messages to RDB
+     *
+     *  <p>All messages and their properties are written
+     *  in one transaction, using batched inserts.
+     *
+     *  @param messages Messages to write
+     *  @throws Exception on error, in which case none of the messages were written
+     */
+    public void write(final List<LogMessage> messages) throws Exception
+    {
+        // Determine property IDs before starting the transaction,
+        // since adding a new property commits
+        final List<int[]> property_ids = new ArrayList<>(messages.size());
+        for (LogMessage message : messages)
+        {
+            final int[] ids = new int[message.getProperties().size()];
+            int i = 0;
+            for (Map.Entry<String, String> property : message.getProperties().entrySet())
+            {
+                final String value = property.getValue();
+                // Empty properties are not inserted
+                ids[i++] = (value == null  ||  value.isEmpty())
+                         ? -1
+                         : getPropertyType(property.getKey());
+            }
+            property_ids.add(ids);
+        }
 
-        final Connection connection = rdb_util.getConnection();
         connection.setAutoCommit(false);
         try
         {
-            final long message_id = insertMessage(type, name, severity);
-
-            final Enumeration<String> props = map.getMapNames();
-            while (props.hasMoreElements())
+            final long[] message_ids = insertMessages(messages);
+            for (int m=0; m<message_ids.length; ++m)
             {
-                final String prop = props.nextElement();
-                // Skip properties which are already in message table columns
-                if (JMSLogMessage.TYPE.equals(prop) ||
-                    JMSLogMessage.NAME.equals(prop) ||
-                    JMSLogMessage.SEVERITY.equals(prop))
-                    continue;
-                batchProperty(message_id, prop, map.getString(prop));
+                final int[] ids = property_ids.get(m);
+                int i = 0;
+                for (Map.Entry<String, String> property : messages.get(m).getProperties().entrySet())
+                    batchProperty(message_ids[m], property.getKey(), ids[i++], property.getValue());
             }
             insert_property_statement.executeBatch();
             connection.commit();
         }
         catch (Exception ex)
         {
+            for (PreparedStatement insert_message_statement : insert_message_statements.values())
+                insert_message_statement.clearBatch();
+            insert_property_statement.clearBatch();
             connection.rollback();
             throw ex;
         }
@@ -304,127 +422,207 @@ public class RDBWriter
         }
     }
 
-    /** Insert a new message
-     *  @param type  Message type
-     *  @param name Primary name (PV name, ...) to which the msg refers. May be <code>null</code>
-     *  @param severity Message severity
-     *  @return ID of the new message row
+    /** Insert new messages
+     *  @param messages Messages to insert
+     *  @return IDs of the new message rows
      *  @throws Exception on error
      */
-    private long insertMessage(
-            final String type, String name,
-            final String severity) throws Exception
+    private long[] insertMessages(final List<LogMessage> messages) throws Exception
     {
-        long message_id = -1;
-        if (rdb_util.getDialect() == Dialect.Oracle)
+        final long[] message_ids = new long[messages.size()];
+        // Indices of the messages batched for each insert
+        final Map<PreparedStatement, List<Integer>> batches = new LinkedHashMap<>();
+        for (int i=0; i<message_ids.length; ++i)
         {
-           // Read next unique message ID from sequence
-            final ResultSet result = next_message_id_statement.executeQuery();
-            if (result.next())
-                message_id = result.getInt(1);
-            else
+            final LogMessage message = messages.get(i);
+            final String[] values = getColumnValues(message);
+            final PreparedStatement insert_message_statement = getInsertStatement(values);
+            final int id_param = setMessage(insert_message_statement, message, values);
+            if (dialect == Dialect.Oracle)
             {
+                // Read next unique message ID from sequence
+                final ResultSet result = next_message_id_statement.executeQuery();
+                if (result.next())
+                    message_ids[i] = result.getInt(1);
+                else
+                {
+                    result.close();
+                    throw new Exception("Cannot obtain next message ID");
+                }
                 result.close();
-                throw new Exception("Cannot obtain next message ID");
+                insert_message_statement.setLong(id_param, message_ids[i]);
+            }
+            // else: Depend on AUTO_INCREMENT resp. SERIAL for new ID, then read it after insert
+
+            if (dialect == Dialect.PostgreSQL)
+            {   // Read auto-assigned unique message ID
+                final ResultSet result = insert_message_statement.executeQuery();
+                if (result.next())
+                {
+                    message_ids[i] = result.getInt(1);
+                    result.close();
+                }
+                else
+                {
+                    result.close();
+                    throw new Exception("Cannot obtain next message ID");
+                }
+            }
+            else
+            {
+                insert_message_statement.addBatch();
+                List<Integer> batch = batches.get(insert_message_statement);
+                if (batch == null)
+                {
+                    batch = new ArrayList<>();
+                    batches.put(insert_message_statement, batch);
+                }
+                batch.add(i);
             }
-            result.close();
-            insert_message_statement.setLong(5, message_id);
         }
-        // else: Depend on AUTO_INCREMENT resp. SERIAL for new ID, then read it after insert
 
-        // Insert the main message
-        final Date now = new Date();
-        insert_message_statement.setTimestamp(1, new Timestamp(now.getTime()));
-        insert_message_statement.setString(2, type);
-        // Overcome RDB limitations
-        if (name == null)
-            name = "";
-        else if (name.length() > MAX_NAME_LENGTH)
+        for (Map.Entry<PreparedStatement, List<Integer>> entry : batches.entrySet())
         {
-            Activator.getLogger().log(Level.WARNING,
-                "Limiting NAME = {0} to {1} characters",
-                new Object[] { name, MAX_NAME_LENGTH });
-            name = name.substring(0, MAX_NAME_LENGTH);
+            final PreparedStatement insert_message_statement = entry.getKey();
+            final List<Integer> batch = entry.getValue();
+            final int[] rows = insert_message_statement.executeBatch();
+            if (rows.length != batch.size())
+                throw new Exception("Inserted " + rows.length + " instead of " + batch.size() + " Messages");
+            if (dialect == Dialect.MySQL)
+            {   // Read auto-assigned unique message IDs
+                final ResultSet result = insert_message_statement.getGeneratedKeys();
+                try
+                {
+                    for (int i=0; i<batch.size(); ++i)
+                    {
+                        if (! result.next())
+                            throw new Exception("Cannot obtain ID for message " + (i+1) + " of " + batch.size());
+                        message_ids[batch.get(i)] = result.getLong(1);
+                    }
+                }
+                finally
+                {
+                    result.close();
+                }
+            }
         }
-        insert_message_statement.setString(3, name);
-        insert_message_statement.setString(4, severity);
 
-        // PostgreSQL, MySQL: Read auto-assigned unique message ID
-        if (rdb_util.getDialect() == Dialect.PostgreSQL)
+        final Logger logger = Activator.getLogger();
+        if (logger.isLoggable(Level.FINE))
+            for (int i=0; i<message_ids.length; ++i)
+                logger.fine("Message " + message_ids[i] + ": " + messages.get(i));
+        return message_ids;
+    }
+
+    /** @param message Message
+     *  @return Values of the message's properties for the {@link #message_columns},
+     *          <code>null</code> where the message lacks the property
+     */
+    private String[] getColumnValues(final LogMessage message)
+    {
+        final String[] values = new String[message_columns.length];
+        for (int i=0; i<values.length; ++i)
         {
-            final ResultSet result = insert_message_statement.executeQuery();
-            if (result.next())
-            {
-                  message_id = result.getInt(1);
-                  result.close();
-            }
-            else
-            {
-                 result.close();
-                throw new Exception("Cannot obtain next message ID");
-            }
+            final String value = message.getProperty(message_columns[i]);
+            if (value != null  &&  !value.isEmpty())
+                values[i] = limitValue(message_columns[i], value);
         }
-        else if (rdb_util.getDialect() == Dialect.MySQL)
-        {
-            final int rows = insert_message_statement.executeUpdate();
-            if (rows != 1)
-                throw new Exception("Inserted " + rows + " instead of 1 Message");
+        return values;
+    }
 
-            final ResultSet result = insert_message_statement.getGeneratedKeys();
-            if (result.next())
-                message_id = result.getInt(1);
-            else
+    /** Get insert for a message, preparing it on first use
+     *  @param values Values for the {@link #message_columns}, <code>null</code> for columns to skip
+     *  @return Insert that sets the message columns with a value
+     *  @throws Exception on error
+     */
+    private PreparedStatement getInsertStatement(final String[] values) throws Exception
+    {
+        int key = 0;
+        final List<String> columns = new ArrayList<>();
+        for (int i=0; i<values.length; ++i)
+            if (values[i] != null)
             {
-                result.close();
-                throw new Exception("Cannot obtain next message ID");
+                key |= 1 << i;
+                columns.add(message_columns[i]);
             }
-            result.close();
-        }
-        else // Oracle
+        PreparedStatement insert_message_statement = insert_message_statements.get(key);
+        if (insert_message_statement == null)
         {
-            final int rows = insert_message_statement.executeUpdate();
-            if (rows != 1)
-                throw new Exception("Inserted " + rows + " instead of 1 Message");
+            final String insert = sql.createMessageInsert(columns.toArray(new String[columns.size()]));
+            if (dialect == Dialect.PostgreSQL)
+                insert_message_statement = connection.prepareStatement(insert);
+            else // MySQL, other RDB that supports RETURN_GENERATED_KEYS
+                insert_message_statement = connection.prepareStatement(insert, Statement.RETURN_GENERATED_KEYS);
+            insert_message_statements.put(key, insert_message_statement);
         }
+        return insert_message_statement;
+    }
 
-        final Logger logger = Activator.getLogger();
-        if (logger.isLoggable(Level.FINE))
+    /** Set parameters of message insert statement
+     *  @param insert_message_statement Insert for the message columns that have a value
+     *  @param message Message
+     *  @param values Values for the {@link #message_columns}, <code>null</code> for columns to skip
+     *  @return Index of the next parameter, which is the ID for Oracle
+     *  @throws Exception on error
+     */
+    private int setMessage(final PreparedStatement insert_message_statement,
+                           final LogMessage message, final String[] values) throws Exception
+    {
+        insert_message_statement.setTimestamp(1, new Timestamp(message.getDatum().getTime()));
+        insert_message_statement.setString(2, message.getType());
+        // Overcome RDB limitations
+        String name = message.getName();
+        if (name == null)
+            name = "";
+        else if (name.length() > MAX_NAME_LENGTH)
         {
-            logger.fine("Message " + message_id + ":");
-            logger.fine("  TYPE          : " + type);
-            logger.fine("  DATUM         : " + now);
-            logger.fine("  NAME          : " + name);
-            logger.fine("  SEVERITY      : " + severity);
+            Activator.getLogger().log(Level.WARNING,
+                "Limiting NAME = {0} to {1} characters",
+                new Object[] { name, MAX_NAME_LENGTH });
+            name = name.substring(0, MAX_NAME_LENGTH);
         }
-        return message_id;
+        insert_message_statement.setString(3, name);
+        insert_message_statement.setString(4, message.getSeverity());
+        // Copies of properties that have a MESSAGE column
+        int param = 5;
+        for (String value : values)
+            if (value != null)
+                insert_message_statement.setString(param++, value);
+        return param;
+    }
+
+    /** @param property Name of the property
+     *  @param value Value of the property
+     *  @return Value, limited to the length supported by the RDB
+     */
+    private String limitValue(final String property, final String value)
+    {
+        if (value.length() <= MAX_VALUE_LENGTH)
+            return value;
+        Activator.getLogger().log(Level.WARNING,
+                "Limiting {0} = {1} to {2} characters",
+                new Object[] { property, value, MAX_VALUE_LENGTH });
+        return value.substring(0, MAX_VALUE_LENGTH);
     }
 
     /** Insert a property, add content to a message
      *  @param message_id ID of message to which this property belongs
+     *  @param property Name of the property
      *  @param property_id ID of the property type
      *  @param value Value of the property
      *  @throws Exception on error
      */
     private boolean batchProperty(final long message_id,
-            final String property, String value) throws Exception
+            final String property, final int property_id, final String value) throws Exception
     {
         // Don't bother to insert empty properties
         if (value == null  ||  value.isEmpty())
             return false;
 
-        final int property_id = getPropertyType(property);
-
         insert_property_statement.setLong(1, message_id);
         insert_property_statement.setInt(2, property_id);
         // Overcome RDB limitations
-        if (value.length() > MAX_VALUE_LENGTH)
-        {
-            Activator.getLogger().log(Level.WARNING,
-                    "Limiting {0} = {1} to {2} characters",
-                    new Object[] { property, value, MAX_NAME_LENGTH });
-            value = value.substring(0, MAX_VALUE_LENGTH);
-        }
-        insert_property_statement.setString(3, value);
+        insert_property_statement.setString(3, limitValue(property, value));
         insert_property_statement.addBatch();
 
         Activator.getLogger().fine(String.format("  %-14s: %s", property, value));
@@ -7,7 +7,6 @@
  ******************************************************************************/
 package org.csstudio.logging.jms2rdb.rdb;
 
-import org.csstudio.platform.utility.rdb.RDBUtil;
 import org.csstudio.platform.utility.rdb.RDBUtil.Dialect;
 
 /** SQL Statements
@@ -18,6 +17,10 @@ import org.csstudio.platform.utility.rdb.RDBUtil.Dialect;
 @SuppressWarnings("nls")
 public class SQL
 {
+    final private Dialect dialect;
+
+    final private String prefix;
+
     final public String select_property_id_by_name;
 
     final public String select_next_property_id;
@@ -26,17 +29,16 @@ public class SQL
 
     final public String select_next_message_id;
 
-    final public String insert_message_id_datum_type_name_severity;
-
     final public String insert_message_property_value;
 
     /** Construct SQL Statements for RDB
-     *  @param rdb_util RDB/dialect to use
+     *  @param dialect RDB dialect to use
      *  @param schema Schema name or ""
      */
-    public SQL(final RDBUtil rdb_util, final String schema)
+    public SQL(final Dialect dialect, final String schema)
     {
-        final String prefix = (schema != null  &&  schema.length() > 0) ? schema + "."  :  "";
+        this.dialect = dialect;
+        prefix = (schema != null  &&  schema.length() > 0) ? schema + "."  :  "";
 
         select_property_id_by_name =
             "SELECT id FROM " + prefix + "msg_property_type WHERE name=?";
@@ -47,27 +49,59 @@ public class SQL
         insert_property_id = "INSERT INTO " + prefix + "msg_property_type " +
                 "(id, name) VALUES (?,?)";
 
-        if (rdb_util.getDialect() == Dialect.Oracle)
-        {   // Oracle uses sequence to get message.id.
+        if (dialect == Dialect.Oracle)
+            // Oracle uses sequence to get message.id.
             select_next_message_id = "SELECT " + prefix + "message_id_seq.NEXTVAL FROM DUAL";
-            insert_message_id_datum_type_name_severity =
-                "INSERT INTO " + prefix + "message (datum, type, name, severity, id) VALUES (?,?,?,?,?)";
-        }
-        else if (rdb_util.getDialect() == Dialect.PostgreSQL)
-        {    // PostgreSQL 'returns' the auto-generated ID
-            select_next_message_id = null;
-            insert_message_id_datum_type_name_severity =
-                "INSERT INTO " + prefix + "message (datum, type, name, severity) VALUES (?,?,?,?) returning id";
-        }
         else
-        {   // Other dialects (MySQL) use auto-increment ID column.
             select_next_message_id = null;
-            insert_message_id_datum_type_name_severity =
-                "INSERT INTO " + prefix + "message (datum, type, name, severity) VALUES (?,?,?,?)";
-        }
 
         insert_message_property_value =
             "INSERT INTO " + prefix + "message_content" +
             " (message_id, msg_property_type_id, value) VALUES(?,?,?)";
     }
+
+    /** Create "INSERT" for a message with parameters
+     *  <ol>
+     *  <li>Datum
+     *  <li>Type
+     *  <li>Name
+     *  <li>Severity
+     *  <li>Value for first of the 'columns'
+     *  <li>...
+     *  <li>For Oracle: ID
+     *  </ol>
+     *  @param columns Additional MESSAGE columns that hold a copy of a property
+     *  @return SQL string
+     */
+    public String createMessageInsert(final String[] columns)
+    {
+        final StringBuilder names = new StringBuilder("datum, type, name, severity");
+        final StringBuilder values = new StringBuilder("?,?,?,?");
+        for (String column : columns)
+        {
+            names.append(", ").append(column);
+            values.append(",?");
+        }
+        if (dialect == Dialect.Oracle)
+            // Oracle uses ID from sequence
+            return "INSERT INTO " + prefix + "message (" + names + ", id) VALUES (" + values + ",?)";
+        else if (dialect == Dialect.PostgreSQL)
+            // PostgreSQL 'returns' the auto-generated ID
+            return "INSERT INTO " + prefix + "message (" + names + ") VALUES (" + values + ") returning id";
+        // Other dialects (MySQL) use auto-increment ID column.
+        return "INSERT INTO " + prefix + "message (" + names + ") VALUES (" + values + ")";
+    }
+
+    /** Create "SELECT" that fails unless the MESSAGE table has the given columns
+     *  @param columns Additional MESSAGE columns
+     *  @return SQL string that returns no rows
+     */
+    public String createMessageColumnCheck(final String[] columns)
+    {
+        final StringBuilder sel = new StringBuilder("SELECT id");
+        for (String column : columns)
+            sel.append(", ").append(column);
+        sel.append(" FROM ").append(prefix).append("message WHERE 1=0");
+        return sel.toString();
+    }
 }
@@ -0,0 +1,254 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.logging.jms2rdb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.csstudio.logging.jms2rdb.rdb.LogMessage;
+import org.junit.Test;
+
+/** JUnit test of the {@link BatchWriter}
+ *
+ *  <p>Uses a simulated RDB that records the batches.
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class BatchWriterUnitTest
+{
+    /** BatchWriter with simulated RDB */
+    private static class TestWriter extends BatchWriter
+    {
+        final List<String> written = new ArrayList<>();
+        final List<Integer> batches = new ArrayList<>();
+        volatile int failures = 0;
+        volatile Exception failure = new Exception("Simulated RDB error");
+        volatile String bad_message = null;
+        int attempts = 0;
+        volatile CountDownLatch block = null;
+        int connects = 0;
+
+        TestWriter(final int capacity, final int batch_size, final long batch_delay_ms)
+        {
+            super(capacity, batch_size, batch_delay_ms, 10, "test", null, null, "", new String[0]);
+        }
+
+        @Override
+        protected void connect() throws Exception
+        {
+            ++connects;
+        }
+
+        @Override
+        protected void write(final List<LogMessage> batch) throws Exception
+        {
+            final CountDownLatch wait = block;
+            if (wait != null)
+                wait.await();
+            ++attempts;
+            if (failures > 0)
+            {
+                --failures;
+                throw failure;
+            }
+            final List<String> texts = new ArrayList<>();
+            for (LogMessage message : batch)
+                texts.add(message.getProperties().values().iterator().next());
+            if (texts.contains(bad_message))
+                throw failure;
+            synchronized (this)
+            {
+                written.addAll(texts);
+                batches.add(batch.size());
+            }
+        }
+
+        @Override
+        protected void disconnect()
+        {
+            // NOP
+        }
+    }
+
+    @Test(timeout=10000)
+    public void testBatches() throws Exception
+    {
+        final TestWriter writer = new TestWriter(1000, 100, 50);
+        for (int i=0; i<250; ++i)
+            writer.add(LogMessage.fromText(Integer.toString(i)));
+        writer.start();
+        writer.cancel();
+        writer.join();
+
+        System.out.println("Batches: " + writer.batches);
+        assertEquals(250, writer.written.size());
+        for (int i=0; i<250; ++i)
+            assertEquals(Integer.toString(i), writer.written.get(i));
+        for (int size : writer.batches)
+            assertTrue(size <= 100);
+        assertEquals(3, writer.batches.size());
+        assertEquals(250, writer.getWrittenCount());
+        assertEquals(3, writer.getBatchCount());
+    }
+
+    @Test(timeout=10000)
+    public void testBatchDelay() throws Exception
+    {
+        final TestWriter writer = new TestWriter(1000, 100, 50);
+        writer.start();
+        // Single message is written after the batch delay, without waiting for a full batch
+        writer.add(LogMessage.fromText("Single"));
+        while (writer.getWrittenCount() < 1)
+            TimeUnit.MILLISECONDS.sleep(10);
+        assertEquals(1, writer.getLastBatchSize());
+        writer.cancel();
+        writer.join();
+    }
+
+    @Test(timeout=10000)
+    public void testRetry() throws Exception
+    {
+        final TestWriter writer = new TestWriter(1000, 10, 10);
+        writer.failures = 2;
+        for (int i=0; i<25; ++i)
+            writer.add(LogMessage.fromText(Integer.toString(i)));
+        writer.start();
+        while (writer.getWrittenCount() < 25)
+            TimeUnit.MILLISECONDS.sleep(10);
+        writer.cancel();
+        writer.join();
+
+        // Failed batch is written again, nothing lost or duplicated
+        assertEquals(25, writer.written.size());
+        for (int i=0; i<25; ++i)
+            assertEquals(Integer.toString(i), writer.written.get(i));
+        assertEquals(3, writer.connects);
+        assertEquals("Simulated RDB error", writer.getLastError());
+    }
+
+    @Test(timeout=10000)
+    public void testBackpressure() throws Exception
+    {
+        final TestWriter writer = new TestWriter(10, 5, 10);
+        writer.block = new CountDownLatch(1);
+        writer.start();
+
+        // Writer is stuck, so adding to the full queue blocks
+        final Thread sender = new Thread(() ->
+        {
+            try
+            {
+                for (int i=0; i<100; ++i)
+                    writer.add(LogMessage.fromText(Integer.toString(i)));
+            }
+            catch (InterruptedException ex)
+            {
+                // Ignore
+            }
+        });
+        sender.start();
+        sender.join(500);
+        assertTrue(sender.isAlive());
+        assertTrue(writer.getFullCount() > 0);
+        assertEquals(10, writer.getMaxQueueSize());
+
+        // Sender completes once writer resumes
+        writer.block.countDown();
+        sender.join();
+        writer.cancel();
+        writer.join();
+        assertEquals(100, writer.written.size());
+    }
+
+    @Test(timeout=10000)
+    public void testBadMessage() throws Exception
+    {
+        final TestWriter writer = new TestWriter(1000, 10, 10);
+        writer.bad_message = "3";
+        for (int i=0; i<25; ++i)
+            writer.add(LogMessage.fromText(Integer.toString(i)));
+        writer.start();
+        while (writer.getWrittenCount() < 24)
+            TimeUnit.MILLISECONDS.sleep(10);
+        writer.cancel();
+        writer.join();
+
+        // Batch with the bad message is tried a few times,
+        // then written one by one, dropping only the bad message
+        assertEquals(24, writer.written.size());
+        assertEquals(1, writer.getDroppedCount());
+        for (int i=0, expected=0; i<24; ++i, ++expected)
+        {
+            if (expected == 3)
+                ++expected;
+            assertEquals(Integer.toString(expected), writer.written.get(i));
+        }
+        // 3 attempts for the batch, 10 single messages, 2 more batches
+        assertEquals(BatchWriter.MAX_BATCH_ATTEMPTS + 10 + 2, writer.attempts);
+        assertEquals("Simulated RDB error", writer.getLastError());
+    }
+
+    @Test(timeout=10000)
+    public void testNonTransientError() throws Exception
+    {
+        final TestWriter writer = new TestWriter(1000, 10, 10);
+        writer.bad_message = "3";
+        writer.failure = new SQLIntegrityConstraintViolationException("Simulated constraint violation", "23505");
+        for (int i=0; i<10; ++i)
+            writer.add(LogMessage.fromText(Integer.toString(i)));
+        writer.start();
+        while (writer.getWrittenCount() < 9)
+            TimeUnit.MILLISECONDS.sleep(10);
+        writer.cancel();
+        writer.join();
+
+        // No retries of the batch, messages are written one by one right away
+        assertEquals(9, writer.written.size());
+        assertEquals(1, writer.getDroppedCount());
+        assertEquals(1 + 10, writer.attempts);
+    }
+
+    @Test(timeout=10000)
+    public void testConnectionLossWhileWritingIndividually() throws Exception
+    {
+        final TestWriter writer = new TestWriter(1000, 10, 10)
+        {
+            @Override
+            protected void write(final List<LogMessage> batch) throws Exception
+            {
+                // Connection is lost when writing the first single message
+                if (batch.size() == 1  &&  attempts == BatchWriter.MAX_BATCH_ATTEMPTS)
+                {
+                    ++attempts;
+                    throw new SQLTransientConnectionException("Simulated connection loss", "08006");
+                }
+                super.write(batch);
+            }
+        };
+        writer.bad_message = "3";
+        for (int i=0; i<10; ++i)
+            writer.add(LogMessage.fromText(Integer.toString(i)));
+        writer.start();
+        while (writer.getWrittenCount() < 9)
+            TimeUnit.MILLISECONDS.sleep(10);
+        writer.cancel();
+        writer.join();
+
+        // Message that failed because of the connection is not dropped
+        assertEquals(9, writer.written.size());
+        assertEquals("0", writer.written.get(0));
+        assertEquals(1, writer.getDroppedCount());
+    }
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.logging.jms2rdb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.csstudio.apputil.test.TestProperties;
+import org.csstudio.logging.JMSLogMessage;
+import org.csstudio.logging.jms2rdb.rdb.LogMessage;
+import org.csstudio.logging.jms2rdb.rdb.RDBWriter;
+import org.junit.Test;
+
+/** JUnit test of batched RDB 'write' performance.
+ *  <p>
+ *  Writes alarm-type messages with 7 properties,
+ *  first one message per transaction as in {@link RDBPerfUnitTest},
+ *  then through the {@link BatchWriter} with one transaction per batch.
+ *  <p>
+ *  For MySQL, compare with and without 'rewriteBatchedStatements=true'
+ *  in the URL.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class RDBBatchPerfUnitTest
+{
+    private static final String MSG_LOG_URL = "msg_log_url";
+
+    /** Test runtime */
+    final private static int SECONDS = 30;
+
+    private static LogMessage createMessage(final int count)
+    {
+        final Map<String, String> props = new LinkedHashMap<>();
+        props.put(JMSLogMessage.TEXT, "STATE");
+        props.put("CONFIG", "Test");
+        props.put("CURRENT_SEVERITY", "MAJOR");
+        props.put("CURRENT_STATUS", "HIHI_ALARM");
+        props.put("STATUS", "HIHI_ALARM");
+        props.put("VALUE", Integer.toString(count));
+        props.put("HOST", "localhost");
+        return new LogMessage(new Date(), "alarm", "Test:PV" + (count % 1000), "MAJOR", props);
+    }
+
+    @Test
+    public void perfTest() throws Exception
+    {
+        final TestProperties settings = new TestProperties();
+        final String url = settings.getString(MSG_LOG_URL);
+        final String schema = settings.getString("msg_log_schema", "");
+        if (url == null)
+        {
+            System.out.println("Skipping test, need " + MSG_LOG_URL);
+            return;
+        }
+        System.out.println("URL    : " + url);
+        System.out.println("Runtime: " + SECONDS + " seconds each");
+
+        // One transaction per message
+        final RDBWriter rdb_writer = new RDBWriter(url, null, null, schema);
+        long end = System.currentTimeMillis() + SECONDS*1000;
+        int single = 0;
+        while (System.currentTimeMillis() < end)
+            rdb_writer.write(Collections.singletonList(createMessage(++single)));
+        rdb_writer.close();
+        System.out.format("Single: Wrote %d messages = %.1f msg/sec\n",
+                          single, ((double) single)/SECONDS);
+
+        // Batches
+        final BatchWriter batch_writer = new BatchWriter(10000, 500, 200, 1000,
+                                                         url, null, null, schema, new String[0]);
+        batch_writer.start();
+        final long start = System.currentTimeMillis();
+        end = start + SECONDS*1000;
+        int batched = 0;
+        while (System.currentTimeMillis() < end)
+            batch_writer.add(createMessage(++batched));
+        batch_writer.cancel();
+        batch_writer.join();
+        // Include time for writing the remaining queued messages
+        final double seconds = (System.currentTimeMillis() - start) / 1000.0;
+        System.out.format("Batched: Wrote %d messages in %d batches = %.1f msg/sec, queue was full %d times\n",
+                          batch_writer.getWrittenCount(), batch_writer.getBatchCount(),
+                          batch_writer.getWrittenCount()/seconds,
+                          batch_writer.getFullCount());
+        assertEquals(batched, batch_writer.getWrittenCount());
+        assertTrue(batch_writer.getWrittenCount() > single);
+    }
+}
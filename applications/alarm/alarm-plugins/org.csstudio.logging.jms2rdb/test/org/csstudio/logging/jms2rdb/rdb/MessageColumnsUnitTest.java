@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.logging.jms2rdb.rdb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.csstudio.platform.utility.rdb.RDBUtil.Dialect;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/** JUnit test of the MESSAGE columns that hold a copy of a property
+ *
+ *  <p>Uses an in-memory Derby database, which handles
+ *  the MySQL-type inserts with auto-increment ID.
+ *  Skipped when Derby is not on the class path.
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class MessageColumnsUnitTest
+{
+    private Connection connection;
+
+    @Before
+    public void setup() throws Exception
+    {
+        try
+        {
+            connection = DriverManager.getConnection("jdbc:derby:memory:log;create=true");
+        }
+        catch (SQLException ex)
+        {
+            System.out.println("Skipping test, no Derby: " + ex.getMessage());
+            connection = null;
+            return;
+        }
+        final Statement statement = connection.createStatement();
+        statement.execute("CREATE TABLE msg_property_type (id INT PRIMARY KEY, name VARCHAR(20))");
+        statement.execute("INSERT INTO msg_property_type VALUES (4, 'TEXT'), (5, 'USER'), (6, 'HOST')");
+        // Column 'info' is not configured as a message column,
+        // 'code' is NOT NULL with a default
+        statement.execute("CREATE TABLE message (id INT GENERATED ALWAYS AS IDENTITY PRIMARY KEY," +
+                          " datum TIMESTAMP NOT NULL, type VARCHAR(10) NOT NULL," +
+                          " name VARCHAR(80), severity VARCHAR(20)," +
+                          " text VARCHAR(100) DEFAULT 'none', host VARCHAR(100)," +
+                          " info VARCHAR(100) DEFAULT 'keep', code INT NOT NULL DEFAULT 42)");
+        statement.execute("CREATE TABLE message_content (id INT GENERATED ALWAYS AS IDENTITY PRIMARY KEY," +
+                          " message_id INT, msg_property_type_id INT, value VARCHAR(100))");
+        statement.close();
+    }
+
+    @After
+    public void shutdown() throws Exception
+    {
+        if (connection == null)
+            return;
+        connection.close();
+        try
+        {
+            DriverManager.getConnection("jdbc:derby:memory:log;drop=true");
+        }
+        catch (SQLException ex)
+        {
+            // Derby reports the drop as an exception
+        }
+    }
+
+    /** @param text TEXT property or <code>null</code>
+     *  @param host HOST property or <code>null</code>
+     *  @return Message
+     */
+    private LogMessage createMessage(final String text, final String host)
+    {
+        final Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("USER", "fred");
+        if (text != null)
+            properties.put("TEXT", text);
+        if (host != null)
+            properties.put("host", host);
+        return new LogMessage(new Date(), "log", "pv", "INFO", properties);
+    }
+
+    @Test
+    public void testMessageColumns() throws Exception
+    {
+        if (connection == null)
+            return;
+        final RDBWriter writer = new RDBWriter(connection, Dialect.MySQL, "", new String[] { "text", "host" });
+        // Derby only returns the generated key of the last row in a batch,
+        // so each batch has one message per set of message columns
+        writer.write(Arrays.asList(createMessage("Hello", "ioc1"),
+                                   createMessage("Only text", null),
+                                   createMessage(null, "ioc2"),
+                                   createMessage("", "")));
+        writer.write(Arrays.asList(createMessage(new String(new char[150]).replace('\0', 'x'), "ioc3")));
+        writer.close();
+
+        final Statement statement = connection.createStatement();
+        ResultSet result = statement.executeQuery("SELECT id, text, host, info, code FROM message ORDER BY id");
+        final Map<Integer, String> texts = new HashMap<>();
+        final String[][] expected =
+        {
+            { "Hello", "ioc1" },
+            { "Only text", null },
+            // Columns without a property keep their default
+            { "none", "ioc2" },
+            { "none", null },
+            { new String(new char[100]).replace('\0', 'x'), "ioc3" },
+        };
+        int i = 0;
+        while (result.next())
+        {
+            assertEquals(expected[i][0], result.getString(2));
+            assertEquals(expected[i][1], result.getString(3));
+            // Columns that are not configured are left alone
+            assertEquals("keep", result.getString(4));
+            assertEquals(42, result.getInt(5));
+            texts.put(result.getInt(1), result.getString(2));
+            ++i;
+        }
+        result.close();
+        assertEquals(expected.length, i);
+
+        // Properties are still written to MESSAGE_CONTENT, for the correct message
+        result = statement.executeQuery("SELECT message_id, value FROM message_content WHERE msg_property_type_id=4");
+        int count = 0;
+        while (result.next())
+        {
+            assertEquals(texts.get(result.getInt(1)), result.getString(2));
+            ++count;
+        }
+        result.close();
+        assertEquals(3, count);
+        statement.close();
+    }
+
+    @Test
+    public void testMissingColumn() throws Exception
+    {
+        if (connection == null)
+            return;
+        try
+        {
+            new RDBWriter(connection, Dialect.MySQL, "", new String[] { "TEXT", "FACILITY" });
+            fail("Accepted column that is not in MESSAGE table");
+        }
+        catch (Exception ex)
+        {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("MESSAGE table lacks columns"));
+        }
+        try
+        {
+            new RDBWriter(connection, Dialect.MySQL, "", new String[] { "severity" });
+            fail("Accepted basic MESSAGE column as property column");
+        }
+        catch (Exception ex)
+        {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("Invalid message column"));
+        }
+    }
+}
@@ -57,6 +57,7 @@ public class TimePlotDemo
 
         plot.setUpdateThrottle(200, TimeUnit.MILLISECONDS);
         plot.setScrollStep(Duration.ofSeconds(30));
+        plot.setIncrementalRendering(true);
 
         plot.getXAxis().setGridVisible(true);
 
@@ -83,7 +84,7 @@ public class TimePlotDemo
             {
                 for (DynamicDemoData trace : data)
                     trace.add();
-                plot.requestUpdate();
+                plot.requestDataUpdate();
                 try
                 {
                     Thread.sleep(1000/50);
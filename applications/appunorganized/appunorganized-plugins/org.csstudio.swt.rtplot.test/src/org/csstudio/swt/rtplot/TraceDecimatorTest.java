@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.swt.rtplot;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import org.csstudio.swt.rtplot.data.ArrayPlotDataProvider;
+import org.csstudio.swt.rtplot.data.SimpleDataItem;
+import org.csstudio.swt.rtplot.internal.TraceDecimator;
+import org.csstudio.swt.rtplot.internal.util.IntList;
+import org.csstudio.swt.rtplot.internal.util.LinearScreenTransform;
+import org.junit.Before;
+import org.junit.Test;
+
+/** JUnit test of the {@link TraceDecimator}
+ *  @author Kay Kasemir
+ */
+public class TraceDecimatorTest
+{
+    /** Plot area 100 pixels wide, showing positions 0 .. 1000 */
+    final private static int X = 10, WIDTH = 100;
+
+    final private LinearScreenTransform transform = new LinearScreenTransform();
+
+    @Before
+    public void setup()
+    {
+        transform.config(0.0, 1000.0, X, X+WIDTH);
+    }
+
+    private static boolean contains(final IntList indices, final int index)
+    {
+        for (int i=0; i<indices.size(); ++i)
+            if (indices.get(i) == index)
+                return true;
+        return false;
+    }
+
+    private static void checkAscending(final IntList indices)
+    {
+        for (int i=1; i<indices.size(); ++i)
+            assertThat(indices.get(i) > indices.get(i-1), equalTo(true));
+    }
+
+    @Test
+    public void testVisibleRange()
+    {
+        // Samples at -105, -95, .., 1085, 1095
+        final ArrayPlotDataProvider<Double> data = new ArrayPlotDataProvider<>();
+        for (int i=0; i<=120; ++i)
+            data.add(new SimpleDataItem<Double>(10.0*i - 105.0, i));
+
+        final IntList indices = new TraceDecimator<Double>().decimate(data, transform, X, WIDTH);
+        // Everything from 0 to 1000, plus one sample outside on each end
+        assertThat(indices.size(), equalTo(102));
+        assertThat(data.get(indices.get(0)).getPosition(), equalTo(-5.0));
+        assertThat(data.get(indices.get(101)).getPosition(), equalTo(1005.0));
+        checkAscending(indices);
+    }
+
+    @Test
+    public void testVisibleRangeOfDecimatedData()
+    {
+        // Samples at -1.5, -0.5, 0.5, .., 1000.5, 1001.5, 10 per pixel
+        final ArrayPlotDataProvider<Double> data = new ArrayPlotDataProvider<>();
+        for (int i=0; i<1004; ++i)
+            data.add(new SimpleDataItem<Double>(i - 1.5, Math.sin(i * 0.1)));
+
+        final TraceDecimator<Double> decimator = new TraceDecimator<>();
+        final IntList indices = decimator.decimate(data, transform, X, WIDTH);
+        assertThat(indices.size() < 1002, equalTo(true));
+        // Points are drawn for all samples in the visible range, not just the decimated ones
+        assertThat(decimator.getVisibleStart(), equalTo(1));
+        assertThat(decimator.getVisibleEnd(), equalTo(1002));
+        assertThat(indices.get(0), equalTo(decimator.getVisibleStart()));
+        assertThat(indices.get(indices.size()-1), equalTo(decimator.getVisibleEnd()));
+    }
+
+    @Test
+    public void testDecimation()
+    {
+        // 1000 samples per pixel, with a spike and a gap
+        final int N = 100000, spike = 12345, gap = 54321;
+        final ArrayPlotDataProvider<Double> data = new ArrayPlotDataProvider<>();
+        for (int i=0; i<N; ++i)
+        {
+            final double position = i * 1000.0 / N;
+            final double value = Math.sin(i * 0.001);
+            if (i == spike)
+                data.add(new SimpleDataItem<Double>(position, 10.0));
+            else if (i == gap)
+                data.add(new SimpleDataItem<Double>(position, Double.NaN));
+            else
+                data.add(new SimpleDataItem<Double>(position, value, 0.1, value-0.5, value+0.5, null));
+        }
+        data.add(new SimpleDataItem<Double>(1000.0, 0.0));
+
+        final IntList indices = new TraceDecimator<Double>().decimate(data, transform, X, WIDTH);
+        System.out.println("Decimated " + data.size() + " samples to " + indices.size());
+        assertThat(indices.size() <= WIDTH * 12, equalTo(true));
+        checkAscending(indices);
+        assertThat(indices.get(0), equalTo(0));
+        assertThat(indices.get(indices.size()-1), equalTo(N));
+        assertThat(contains(indices, spike), equalTo(true));
+        // Gap with samples before and after
+        assertThat(contains(indices, gap-1), equalTo(true));
+        assertThat(contains(indices, gap), equalTo(true));
+        assertThat(contains(indices, gap+1), equalTo(true));
+        // Spike and last sample lack min/max, so the samples before them are kept
+        assertThat(contains(indices, spike-1), equalTo(true));
+        assertThat(contains(indices, N-1), equalTo(true));
+    }
+
+    @Test
+    public void testCache()
+    {
+        final ArrayPlotDataProvider<Double> data = new ArrayPlotDataProvider<>();
+        for (int i=0; i<10000; ++i)
+            data.add(new SimpleDataItem<Double>(i * 0.1, i));
+        final TraceDecimator<Double> decimator = new TraceDecimator<>();
+        final int[] first = decimator.decimate(data, transform, X, WIDTH).toArray();
+        assertThat(decimator.decimate(data, transform, X, WIDTH).toArray(), equalTo(first));
+
+        // Added sample is considered
+        data.add(new SimpleDataItem<Double>(999.95, 1e6));
+        IntList indices = decimator.decimate(data, transform, X, WIDTH);
+        assertThat(indices.get(indices.size()-1), equalTo(10000));
+
+        // Zoom into the first half
+        transform.config(0.0, 500.0, X, X+WIDTH);
+        indices = decimator.decimate(data, transform, X, WIDTH);
+        assertThat(data.get(indices.get(indices.size()-1)).getPosition() < 501.0, equalTo(true));
+    }
+}
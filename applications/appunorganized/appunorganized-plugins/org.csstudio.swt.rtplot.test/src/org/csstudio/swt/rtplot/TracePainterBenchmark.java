@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.swt.rtplot;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.csstudio.swt.rtplot.data.ArrayPlotDataProvider;
+import org.csstudio.swt.rtplot.data.PlotDataItem;
+import org.csstudio.swt.rtplot.data.SimpleDataItem;
+import org.csstudio.swt.rtplot.internal.PlotPart;
+import org.csstudio.swt.rtplot.internal.PlotPartListener;
+import org.csstudio.swt.rtplot.internal.TimeAxis;
+import org.csstudio.swt.rtplot.internal.TraceImpl;
+import org.csstudio.swt.rtplot.internal.TracePainter;
+import org.csstudio.swt.rtplot.internal.YAxisImpl;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.RGB;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Display;
+
+/** Benchmark of the {@link TracePainter}
+ *
+ *  <p>Paints traces with many samples into an offscreen image,
+ *  the way the plot paints its image buffer.
+ *  'Changing' data adds a sample before each paint,
+ *  like a live trace that scrolls,
+ *  while 'unchanged' data is painted again as it is.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class TracePainterBenchmark
+{
+    final private static int WIDTH = 1000, HEIGHT = 600;
+    final private static int[] SIZES = { 10000, 100000, 1000000 };
+    final private static Duration RUNTIME = Duration.ofSeconds(5);
+    final private static Instant START = Instant.ofEpochSecond(1500000000L);
+
+    final private static PlotPartListener listener = new PlotPartListener()
+    {
+        @Override
+        public void layoutPlotPart(final PlotPart plotPart)
+        {
+            // Ignore
+        }
+
+        @Override
+        public void refreshPlotPart(final PlotPart plotPart)
+        {
+            // Ignore
+        }
+    };
+
+    /** @param i Sample index
+     *  @return Sample with min/max range
+     */
+    private static PlotDataItem<Instant> createSample(final int i)
+    {
+        final double value = Math.sin(i * 0.001) + 0.1*Math.random();
+        return new SimpleDataItem<Instant>(START.plusMillis(i), value, 0.05, value - 0.1, value + 0.1, null);
+    }
+
+    private static void benchmark(final Display display, final TraceType type, final int size, final boolean changing)
+    {
+        final ArrayPlotDataProvider<Instant> data = new ArrayPlotDataProvider<>();
+        for (int i=0; i<size; ++i)
+            data.add(createSample(i));
+
+        final Rectangle bounds = new Rectangle(0, 0, WIDTH, HEIGHT);
+        final TimeAxis x_axis = new TimeAxis("Time", listener, START, START.plusMillis(size));
+        x_axis.setBounds(0, HEIGHT, WIDTH, 20);
+        final YAxisImpl<Instant> y_axis = new YAxisImpl<>("Value", listener);
+        y_axis.setBounds(0, 0, 20, HEIGHT);
+        y_axis.setValueRange(-1.5, 1.5);
+        final Trace<Instant> trace = new TraceImpl<>("Trace", "a.u.", data, new RGB(0, 0, 255),
+                                                     type, 1, PointType.NONE, 1, 0);
+        final TracePainter<Instant> painter = new TracePainter<>();
+        final SWTMediaPool media = new SWTMediaPool(display);
+        final Image image = new Image(display, WIDTH, HEIGHT);
+        final GC gc = new GC(image);
+
+        int paints = 0, added = size;
+        final long start = System.nanoTime();
+        final long end = start + RUNTIME.toNanos();
+        while (System.nanoTime() < end)
+        {
+            if (changing)
+            {
+                data.add(createSample(added++));
+                x_axis.setValueRange(START.plusMillis(added - size), START.plusMillis(added));
+            }
+            painter.paint(gc, media, bounds, 50, x_axis.getScreenTransform(), y_axis, trace);
+            ++paints;
+        }
+        final double ms = (System.nanoTime() - start) / 1e6 / paints;
+
+        gc.dispose();
+        image.dispose();
+        media.dispose();
+
+        System.out.format("%-18s %8d samples, %-9s: %8.3f ms per paint\n",
+                          type.name(), size, changing ? "changing" : "unchanged", ms);
+    }
+
+    public static void main(String[] args)
+    {
+        final Display display = new Display();
+        for (TraceType type : new TraceType[] { TraceType.AREA, TraceType.LINES_DIRECT, TraceType.SINGLE_LINE })
+            for (int size : SIZES)
+                for (boolean changing : new boolean[] { true, false })
+                    benchmark(display, type, size, changing);
+        display.dispose();
+    }
+}
@@ -349,6 +349,19 @@ public class RTPlot<XTYPE extends Comparable<XTYPE>> extends Composite
         plot.requestUpdate();
     }
 
+    /** Request update after samples were added to traces
+     *
+     *  <p>Plots that support incremental rendering
+     *  then only redraw the part of the plot with new samples.
+     *  May only be used when samples were added at the end of the data,
+     *  possibly dropping the oldest samples.
+     *  For any other change, use {@link #requestUpdate()}.
+     */
+    public void requestDataUpdate()
+    {
+        plot.requestDataUpdate();
+    }
+
     /** @param trace Trace to which an annotation should be added
      *  @param text Text for the annotation
      */
@@ -148,6 +148,27 @@ public class RTTimePlot extends RTPlot<Instant>
         setScrolling(isScrolling());
     }
 
+    /** @return <code>true</code> if incremental rendering is enabled */
+    public boolean isIncrementalRendering()
+    {
+        return plot.isIncrementalRendering();
+    }
+
+    /** Enable incremental rendering
+     *
+     *  <p>With incremental rendering, {@link #requestDataUpdate()}
+     *  only redraws the part of the plot with new samples,
+     *  and scrolling shifts the existing image
+     *  instead of redrawing the complete plot.
+     *  Helpful for displays with many scrolling plots.
+     *
+     *  @param incremental <code>true</code> to enable
+     */
+    public void setIncrementalRendering(final boolean incremental)
+    {
+        plot.setIncrementalRendering(incremental);
+    }
+
     /** Update time axis to have 'now' at right end, keeping current duration */
     private void scroll()
     {
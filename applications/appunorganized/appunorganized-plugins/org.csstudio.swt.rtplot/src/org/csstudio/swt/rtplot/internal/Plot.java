@@ -30,6 +30,7 @@ import org.csstudio.swt.rtplot.SWTMediaPool;
 import org.csstudio.swt.rtplot.Trace;
 import org.csstudio.swt.rtplot.YAxis;
 import org.csstudio.swt.rtplot.data.PlotDataItem;
+import org.csstudio.swt.rtplot.data.PlotDataProvider;
 import org.csstudio.swt.rtplot.internal.util.ScreenTransform;
 import org.csstudio.swt.rtplot.undo.ChangeAxisRanges;
 import org.csstudio.swt.rtplot.undo.UndoableActionManager;
@@ -121,6 +122,18 @@ public class Plot<XTYPE extends Comparable<XTYPE>> extends Canvas implements Pai
      */
     private volatile Optional<Image> plot_image = Optional.empty();
 
+    /** Only redraw what changed since the last update? */
+    private volatile boolean incremental = false;
+
+    /** Does the complete image need to be redrawn? */
+    final private AtomicBoolean need_redraw = new AtomicBoolean(true);
+
+    /** Has the X axis changed since the last update? */
+    final private AtomicBoolean x_axis_changed = new AtomicBoolean(true);
+
+    /** What plot_image shows. Only accessed by updateImageBuffer() */
+    private RenderInfo<XTYPE> rendered = null;
+
     final private UpdateThrottle update_throttle;
 
     final private TitlePart title_part;
@@ -178,7 +191,8 @@ public class Plot<XTYPE extends Comparable<XTYPE>> extends Canvas implements Pai
         public void refreshPlotPart(final PlotPart plotPart)
         {
             updateCursor();
-            requestUpdate();
+            x_axis_changed.set(true);
+            update_throttle.trigger();
         }
     };
     /** Listener to Title, Y Axis and plot area {@link PlotPart}s */
@@ -487,10 +501,44 @@ public class Plot<XTYPE extends Comparable<XTYPE>> extends Canvas implements Pai
 
     /** Request a complete redraw of the plot */
     final public void requestUpdate()
+    {
+        need_redraw.set(true);
+        update_throttle.trigger();
+    }
+
+    /** Request update after samples were added to traces
+     *
+     *  <p>When incremental rendering is enabled,
+     *  only the part of the plot with new samples is redrawn.
+     *  May only be used when samples were added at the end of the data,
+     *  possibly dropping the oldest samples.
+     *  For any other change, use {@link #requestUpdate()}.
+     */
+    final public void requestDataUpdate()
     {
         update_throttle.trigger();
     }
 
+    /** @return <code>true</code> if only changes are redrawn */
+    public boolean isIncrementalRendering()
+    {
+        return incremental;
+    }
+
+    /** Enable incremental rendering
+     *
+     *  <p>When data is updated via {@link #requestDataUpdate()},
+     *  only the part of the plot with new samples is redrawn.
+     *  When the x axis scrolls, the existing image is shifted.
+     *
+     *  @param incremental <code>true</code> to only redraw what changed
+     */
+    public void setIncrementalRendering(final boolean incremental)
+    {
+        this.incremental = incremental;
+        requestUpdate();
+    }
+
     /** Redraw the current image and cursors
      *
      *  <p>Like <code>redraw()</code>, but may be called
@@ -665,6 +713,78 @@ public class Plot<XTYPE extends Comparable<XTYPE>> extends Canvas implements Pai
         plot_area.setBounds(total_left_axes_width, title_height, plot_width, y_axis_height);
     }
 
+    /** Information about the current image, used for incremental updates */
+    private static class RenderInfo<XTYPE extends Comparable<XTYPE>>
+    {
+        /** Canvas area and plot area */
+        Rectangle area, plot_bounds;
+
+        /** Range of X and Y axes */
+        AxisRange<XTYPE> x_range;
+        List<AxisRange<Double>> y_ranges = new ArrayList<>();
+
+        /** X axis grid and color, which affect the plot area */
+        boolean x_grid;
+        RGB x_color;
+
+        /** Position of the first sample of each trace, <code>null</code> for empty trace */
+        List<XTYPE> first_positions = new ArrayList<>();
+
+        /** Left edge of the region where new samples will appear */
+        int data_x;
+
+        /** Pixels to the left of data_x that change when adding samples */
+        int margin = 0;
+
+        /** Accumulated rounding error of shifted image */
+        double shift_error = 0.0;
+    }
+
+    /** @param area Canvas area
+     *  @param x_transform Transformation of the x axis used to paint
+     *  @return {@link RenderInfo} for current plot
+     */
+    private RenderInfo<XTYPE> getRenderInfo(final Rectangle area, final ScreenTransform<XTYPE> x_transform)
+    {
+        final RenderInfo<XTYPE> info = new RenderInfo<>();
+        info.area = area;
+        info.plot_bounds = plot_area.getBounds();
+        final int right = info.plot_bounds.x + info.plot_bounds.width;
+        info.x_range = new AxisRange<>(x_transform.inverse(info.plot_bounds.x), x_transform.inverse(right - 1));
+        for (YAxisImpl<XTYPE> y_axis : y_axes)
+            info.y_ranges.add(y_axis.getValueRange());
+        info.x_grid = x_axis.isGridVisible();
+        info.x_color = x_axis.getColor();
+        info.data_x = right;
+        if (x_axis instanceof TimeAxis)
+            info.data_x = Math.min(info.data_x, ((TimeAxis)x_axis).getScreenCoord(Instant.now()));
+        for (YAxisImpl<XTYPE> y_axis : y_axes)
+            for (Trace<XTYPE> trace : y_axis.getTraces())
+            {
+                info.margin = Math.max(info.margin, Math.max(trace.getWidth(), trace.getPointSize()) + 2);
+                final PlotDataProvider<XTYPE> data = trace.getData();
+                data.getLock().lock();
+                try
+                {
+                    final int N = data.size();
+                    if (N <= 0)
+                        info.first_positions.add(null);
+                    else
+                    {
+                        info.first_positions.add(data.get(0).getPosition());
+                        final double x = x_transform.transform(data.get(N-1).getPosition());
+                        if (x < info.data_x)
+                            info.data_x = (int) Math.max(info.plot_bounds.x, Math.floor(x));
+                    }
+                }
+                finally
+                {
+                    data.getLock().unlock();
+                }
+            }
+        return info;
+    }
+
     /** Draw all components into image buffer */
     private void updateImageBuffer()
     {
@@ -672,16 +792,139 @@ public class Plot<XTYPE extends Comparable<XTYPE>> extends Canvas implements Pai
         if (area_copy.width <= 0  ||  area_copy.height <= 0)
             return;
 
+        final boolean redraw = need_redraw.getAndSet(false);
+        final boolean x_changed = x_axis_changed.getAndSet(false);
+
         final Image image = new Image(display, area_copy);
         final GC gc = new GC(image);
 
         if (need_layout.getAndSet(false))
             computeLayout(gc, area_copy);
 
+        // Fetch x_axis transformation and use that to paint all traces,
+        // because X Axis tends to change from scrolling
+        // while we're painting traces
+        final ScreenTransform<XTYPE> x_transform = x_axis.getScreenTransform();
+        final RenderInfo<XTYPE> info = getRenderInfo(area_copy, x_transform);
+
+        final Image old_image = plot_image.orElse(null);
+        if (! (incremental  &&  ! redraw  &&  old_image != null  &&
+               paintIncrementally(gc, old_image, info, x_transform, x_changed)))
+        {
+            plot_processor.prepareTraces(trace_painter, info.plot_bounds, x_transform, getAllTraces());
+            paint(gc, area_copy, area_copy, x_transform);
+        }
+
+        gc.dispose();
+        rendered = info;
+
+        // Update image
+        plot_image = Optional.of(image);
+        if (old_image != null)
+        {
+            synchronized (old_image)
+            {
+                old_image.dispose();
+            }
+        }
+    }
+
+    /** @return Traces of all Y axes */
+    private List<Trace<XTYPE>> getAllTraces()
+    {
+        final List<Trace<XTYPE>> all = new ArrayList<>();
+        for (YAxisImpl<XTYPE> y_axis : y_axes)
+            for (Trace<XTYPE> trace : y_axis.getTraces())
+                all.add(trace);
+        return all;
+    }
+
+    /** Update image based on the previous one
+     *
+     *  <p>Copies the previous image, shifting the plot area
+     *  when the x axis scrolled, then only paints the region
+     *  with new samples and the x axis.
+     *
+     *  @param gc GC for new image
+     *  @param old_image Previous image
+     *  @param info Info about the new image
+     *  @param x_transform Transformation of the x axis used to paint
+     *  @param x_changed Has the x axis changed?
+     *  @return <code>true</code> if image was updated,
+     *          <code>false</code> if it needs to be redrawn completely
+     */
+    private boolean paintIncrementally(final GC gc, final Image old_image, final RenderInfo<XTYPE> info,
+                                       final ScreenTransform<XTYPE> x_transform, final boolean x_changed)
+    {
+        final RenderInfo<XTYPE> last = rendered;
+        if (last == null  ||
+            ! last.area.equals(info.area)  ||
+            ! last.plot_bounds.equals(info.plot_bounds)  ||
+            ! last.y_ranges.equals(info.y_ranges)  ||
+            last.x_grid != info.x_grid  ||
+            ! last.x_color.equals(info.x_color)  ||
+            last.first_positions.size() != info.first_positions.size())
+            return false;
+
+        // Are oldest samples removed from the visible range?
+        for (int i=0; i<info.first_positions.size(); ++i)
+        {
+            final XTYPE old_first = last.first_positions.get(i);
+            if (old_first != null  &&
+                ! old_first.equals(info.first_positions.get(i))  &&
+                old_first.compareTo(last.x_range.getLow()) >= 0)
+                return false;
+        }
+
+        // Scrolled? Shift when range is the same, moved by (close to) whole pixels
+        final Rectangle bounds = info.plot_bounds;
+        final double old_low = x_transform.transform(last.x_range.getLow());
+        final double old_high = x_transform.transform(last.x_range.getHigh());
+        final double low = x_transform.transform(info.x_range.getLow());
+        final double high = x_transform.transform(info.x_range.getHigh());
+        if (Math.abs((old_high - old_low) - (high - low)) > 0.01)
+            return false;
+        final double exact_shift = old_low - low;
+        final int shift = (int) Math.round(exact_shift);
+        final double error = last.shift_error + exact_shift - shift;
+        // Only handle scrolling to the right.
+        // Annotations can be pinned to the edge of the plot, so don't shift them.
+        if (shift > 0  ||  -shift >= bounds.width  ||  Math.abs(error) > 0.5  ||
+            (shift != 0  &&  ! annotations.isEmpty()))
+            return false;
+        info.shift_error = error;
+
+        synchronized (old_image)
+        {
+            gc.drawImage(old_image, 0, 0);
+            if (shift < 0)
+                gc.drawImage(old_image, bounds.x - shift, bounds.y, bounds.width + shift, bounds.height,
+                                        bounds.x, bounds.y, bounds.width + shift, bounds.height);
+        }
+        if (x_changed  ||  shift != 0)
+            paint(gc, info.area, x_axis.getBounds(), x_transform);
+
+        // Region with new samples
+        final int x = Math.max(bounds.x, Math.min(last.data_x, bounds.x + bounds.width) + shift - last.margin);
+        final Rectangle region = new Rectangle(x, 0, info.area.width - x, info.area.height);
+        plot_processor.prepareTraces(trace_painter, bounds.intersection(region), x_transform, getAllTraces());
+        paint(gc, info.area, region, x_transform);
+        return true;
+    }
+
+    /** Paint plot components
+     *  @param gc GC
+     *  @param area Canvas area
+     *  @param clip Region to paint, may be the complete area
+     *  @param x_transform Transformation of the x axis used to paint traces
+     */
+    private void paint(final GC gc, final Rectangle area, final Rectangle clip, final ScreenTransform<XTYPE> x_transform)
+    {
         final Rectangle plot_bounds = plot_area.getBounds();
 
+        gc.setClipping(clip);
         gc.setBackground(media.get(background));
-        gc.fillRectangle(area_copy);
+        gc.fillRectangle(clip);
 
         title_part.paint(gc, media, title_font);
         legend.paint(gc, media, legend_font, traces);
@@ -696,18 +939,14 @@ public class Plot<XTYPE extends Comparable<XTYPE>> extends Canvas implements Pai
                     ? new Color(getDisplay(), 240, 240, 240)
                     : new Color(getDisplay(), 50, 50, 50);
             gc.setBackground(shade);
-            gc.fillRectangle(future_x, 0, area_copy.width - future_x, area_copy.height);
+            gc.fillRectangle(future_x, 0, area.width - future_x, area.height);
             gc.setBackground(orig);
             shade.dispose();
         }
 
-        // Fetch x_axis transformation and use that to paint all traces,
-        // because X Axis tends to change from scrolling
-        // while we're painting traces
 //        x_axis.setLabelFont(label_font);
 //        x_axis.setScaleFont(scale_font);
         x_axis.paint(gc, media, plot_bounds);
-        final ScreenTransform<XTYPE> x_transform = x_axis.getScreenTransform();
         for (YAxisImpl<XTYPE> y_axis : y_axes)
         {
 //            y_axis.setLabelFont(label_font);
@@ -715,30 +954,19 @@ public class Plot<XTYPE extends Comparable<XTYPE>> extends Canvas implements Pai
             y_axis.paint(gc, media, plot_bounds);
         }
 
-        gc.setClipping(plot_bounds);
+        final Rectangle trace_bounds = plot_bounds.intersection(clip);
+        gc.setClipping(trace_bounds);
         plot_area.paint(gc, media);
 
-        for (YAxisImpl<XTYPE> y_axis : y_axes)
-            for (Trace<XTYPE> trace : y_axis.getTraces())
-                trace_painter.paint(gc, media, plot_area.getBounds(), opacity, x_transform, y_axis, trace);
+        if (! trace_bounds.isEmpty())
+            for (YAxisImpl<XTYPE> y_axis : y_axes)
+                for (Trace<XTYPE> trace : y_axis.getTraces())
+                    trace_painter.paint(gc, media, trace_bounds, opacity, x_transform, y_axis, trace);
 
         // Annotations use label font
         gc.setFont(label_font);
         for (AnnotationImpl<XTYPE> annotation : annotations)
             annotation.paint(gc, media, x_axis, y_axes.get(annotation.getTrace().getYAxis()));
-
-        gc.dispose();
-
-        // Update image
-        final Image old_image = plot_image.orElse(null);
-        plot_image = Optional.of(image);
-        if (old_image != null)
-        {
-            synchronized (old_image)
-            {
-                old_image.dispose();
-            }
-        }
     }
 
     /** PaintListener: {@inheritDoc} */
@@ -27,9 +27,11 @@ import org.csstudio.swt.rtplot.data.PlotDataProvider;
 import org.csstudio.swt.rtplot.data.PlotDataSearch;
 import org.csstudio.swt.rtplot.data.ValueRange;
 import org.csstudio.swt.rtplot.internal.util.Log10;
+import org.csstudio.swt.rtplot.internal.util.ScreenTransform;
 import org.csstudio.swt.rtplot.undo.AddAnnotationAction;
 import org.csstudio.swt.rtplot.undo.ChangeAxisRanges;
 import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.Rectangle;
 
 /** Helper for processing traces of a plot
  *  in a thread pool to avoid blocking UI thread.
@@ -49,6 +51,37 @@ public class PlotProcessor<XTYPE extends Comparable<XTYPE>>
         this.plot = plot;
     }
 
+    /** Prepare painting traces in parallel
+     *
+     *  <p>Returns when all traces have been prepared.
+     *
+     *  @param painter {@link TracePainter}
+     *  @param bounds Bounds within which traces will be painted
+     *  @param x_transform Coordinate transform used by the x axis
+     *  @param traces Traces to prepare
+     */
+    public void prepareTraces(final TracePainter<XTYPE> painter, final Rectangle bounds,
+                              final ScreenTransform<XTYPE> x_transform, final List<Trace<XTYPE>> traces)
+    {
+        // Single trace is prepared while painting
+        if (traces.size() <= 1  ||  bounds.isEmpty())
+            return;
+        final List<Future<?>> prepared = new ArrayList<>(traces.size());
+        for (Trace<XTYPE> trace : traces)
+            prepared.add(thread_pool.submit(() -> painter.prepare(bounds, x_transform, trace)));
+        for (Future<?> done : prepared)
+        {
+            try
+            {
+                done.get();
+            }
+            catch (Exception ex)
+            {
+                Activator.getLogger().log(Level.WARNING, "Cannot prepare trace", ex);
+            }
+        }
+    }
+
     /** Submit background job to determine value range for y axis for values within the
      * specified x axis.
      *  @param data {@link PlotDataProvider} with values
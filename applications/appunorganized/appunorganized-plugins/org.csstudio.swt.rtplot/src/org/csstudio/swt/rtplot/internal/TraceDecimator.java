@@ -0,0 +1,341 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.swt.rtplot.internal;
+
+import java.util.Arrays;
+
+import org.csstudio.swt.rtplot.Axis;
+import org.csstudio.swt.rtplot.Trace;
+import org.csstudio.swt.rtplot.data.PlotDataItem;
+import org.csstudio.swt.rtplot.data.PlotDataProvider;
+import org.csstudio.swt.rtplot.data.PlotDataSearch;
+import org.csstudio.swt.rtplot.internal.util.IntList;
+import org.csstudio.swt.rtplot.internal.util.ScreenTransform;
+
+/** Determine which samples of a {@link Trace} need to be drawn
+ *
+ *  <p>Only samples in the visible range of the horizontal axis,
+ *  plus one sample just outside on either end, are considered.
+ *  When there are many more of those samples than pixel columns,
+ *  each pixel column is reduced to its first and last sample
+ *  and those with the extreme value, min/max and standard deviation
+ *  ('M4' decimation).
+ *  Samples where the trace starts or ends a gap,
+ *  i.e. a value, min/max range or standard deviation disappears
+ *  or re-appears, are also kept.
+ *  Drawing the remaining samples as lines or areas results in the same
+ *  pixels as drawing all samples, at a fraction of the cost.
+ *  This does not hold for point markers:
+ *  Markers of samples between the first, last and extreme values
+ *  of a pixel column would be lost.
+ *  Points are therefore drawn for all samples in the visible range,
+ *  see {@link #getVisibleStart()} and {@link #getVisibleEnd()}.
+ *
+ *  <p>The result is kept until the data or the horizontal axis changes.
+ *  Since {@link PlotDataProvider} has no change notification,
+ *  data is considered unchanged when it still has the same size,
+ *  first and last sample.
+ *
+ *  <p>Like {@link PlotDataSearch}, this assumes that samples
+ *  are sorted by position.
+ *  If decimation finds samples out of order, all samples are drawn.
+ *
+ *  <p>Not thread safe.
+ *  Data must be locked while calling {@link #decimate}
+ *  and while using the result.
+ *
+ *  @param <XTYPE> Data type of horizontal {@link Axis}
+ *  @author Kay Kasemir
+ */
+public class TraceDecimator<XTYPE extends Comparable<XTYPE>>
+{
+    /** Decimate when there are more samples than this per pixel column */
+    final public static int SAMPLES_PER_PIXEL = 4;
+
+    /** Gap state: No value */
+    final private static int NO_VALUE = 1;
+
+    /** Gap state: No min/max range */
+    final private static int NO_RANGE = 2;
+
+    /** Gap state: No standard deviation */
+    final private static int NO_DEV = 4;
+
+    final private PlotDataSearch<XTYPE> search = new PlotDataSearch<>();
+
+    /** Indices of samples to draw */
+    final private IntList indices = new IntList(2048);
+
+    /** Index of first and last sample in the visible range */
+    private int visible_start = 0, visible_end = -1;
+
+    /** Indices of samples to keep in current pixel column */
+    private int[] column = new int[32];
+    private int column_size = 0;
+
+    // Current pixel column: First and last sample, samples with extreme values
+    private int first, last, min_value, max_value, min_range, max_range, min_dev, max_dev;
+    private double min_value_y, max_value_y, min_range_y, max_range_y, min_dev_y, max_dev_y;
+
+    // What 'indices' were computed for
+    private PlotDataProvider<XTYPE> cached_data = null;
+    private int cached_size = -1;
+    private PlotDataItem<XTYPE> cached_first = null, cached_last = null;
+    private XTYPE cached_start = null, cached_end = null;
+    private int cached_x = 0, cached_width = -1;
+
+    /** Determine samples to draw
+     *  @param data Data, must already be locked
+     *  @param x_transform Coordinate transform used by the x axis
+     *  @param x Left edge of the plot area
+     *  @param width Width of the plot area
+     *  @return Indices of samples to draw, in ascending order.
+     *          Valid until the next call.
+     */
+    public IntList decimate(final PlotDataProvider<XTYPE> data, final ScreenTransform<XTYPE> x_transform,
+                            final int x, final int width)
+    {
+        final int N = data.size();
+        final PlotDataItem<XTYPE> first_item = N > 0 ? data.get(0) : null;
+        final PlotDataItem<XTYPE> last_item = N > 0 ? data.get(N-1) : null;
+        final XTYPE start = x_transform.inverse(x);
+        final XTYPE end = x_transform.inverse(x + width);
+        if (data == cached_data  &&  N == cached_size  &&
+            first_item == cached_first  &&  last_item == cached_last  &&
+            x == cached_x  &&  width == cached_width  &&
+            start.equals(cached_start)  &&  end.equals(cached_end))
+            return indices;
+
+        indices.clear();
+        visible_start = 0;
+        visible_end = N-1;
+        if (N > 0)
+            decimate(data, x_transform, x, width, start, end);
+
+        cached_data = data;
+        cached_size = N;
+        cached_first = first_item;
+        cached_last = last_item;
+        cached_x = x;
+        cached_width = width;
+        cached_start = start;
+        cached_end = end;
+        return indices;
+    }
+
+    /** @return Index of the first sample in the visible range
+     *          that the last call to {@link #decimate} considered
+     */
+    public int getVisibleStart()
+    {
+        return visible_start;
+    }
+
+    /** @return Index of the last sample in the visible range
+     *          that the last call to {@link #decimate} considered,
+     *          -1 if there are no samples
+     */
+    public int getVisibleEnd()
+    {
+        return visible_end;
+    }
+
+    /** @param data Data with at least one sample
+     *  @param x_transform Coordinate transform used by the x axis
+     *  @param x Left edge of the plot area
+     *  @param width Width of the plot area
+     *  @param start Position at left edge
+     *  @param end Position at right edge
+     */
+    private void decimate(final PlotDataProvider<XTYPE> data, final ScreenTransform<XTYPE> x_transform,
+                          final int x, final int width, final XTYPE start, final XTYPE end)
+    {
+        final int N = data.size();
+        if (width <= 0  ||  start.compareTo(end) > 0)
+        {
+            addRange(0, N-1);
+            return;
+        }
+
+        // Visible range, including the sample before resp. after
+        int i0 = search.findSampleLessOrEqual(data, start);
+        if (i0 < 0)
+            i0 = 0;
+        int i1 = search.findSampleGreaterOrEqual(data, end);
+        if (i1 < 0)
+            i1 = N-1;
+        if (i1 < i0)
+            addRange(0, N-1);
+        else if (i1 - i0 + 1 <= SAMPLES_PER_PIXEL * width)
+        {
+            visible_start = i0;
+            visible_end = i1;
+            addRange(i0, i1);
+        }
+        else if (decimateColumns(data, x_transform, x, width, i0, i1))
+        {
+            visible_start = i0;
+            visible_end = i1;
+        }
+        else
+        {   // Data not sorted after all
+            indices.clear();
+            addRange(0, N-1);
+        }
+    }
+
+    /** @param i0 First sample to add
+     *  @param i1 Last sample to add
+     */
+    private void addRange(final int i0, final int i1)
+    {
+        for (int i=i0; i<=i1; ++i)
+            indices.add(i);
+    }
+
+    /** Reduce samples to those needed for each pixel column
+     *  @param data Data
+     *  @param x_transform Coordinate transform used by the x axis
+     *  @param x Left edge of the plot area
+     *  @param width Width of the plot area
+     *  @param i0 First sample to consider
+     *  @param i1 Last sample to consider
+     *  @return <code>false</code> if samples were found to not be sorted
+     */
+    private boolean decimateColumns(final PlotDataProvider<XTYPE> data, final ScreenTransform<XTYPE> x_transform,
+                                    final int x, final int width, final int i0, final int i1)
+    {
+        // Rather than transforming each sample position into a pixel,
+        // compute the position where the next pixel column starts.
+        // Samples before the plot area are added to the first column,
+        // samples beyond the plot area to the last column.
+        int col = 0;
+        XTYPE next_column = x_transform.inverse(x + 0.5);
+        XTYPE last_pos = null;
+        int last_state = -1;
+        startColumn();
+        for (int i=i0; i<=i1; ++i)
+        {
+            final PlotDataItem<XTYPE> item = data.get(i);
+            final XTYPE pos = item.getPosition();
+            if (last_pos != null  &&  pos.compareTo(last_pos) < 0)
+                return false;
+            last_pos = pos;
+
+            if (col < width-1  &&  pos.compareTo(next_column) >= 0)
+            {
+                endColumn();
+                do
+                {
+                    ++col;
+                    next_column = x_transform.inverse(x + col + 0.5);
+                }
+                while (col < width-1  &&  pos.compareTo(next_column) >= 0);
+                startColumn();
+            }
+
+            final double value = item.getValue();
+            final double min = item.getMin();
+            final double max = item.getMax();
+            final double dev = item.getStdDev();
+            final int state = (Double.isNaN(value) ? NO_VALUE : 0) |
+                              (Double.isNaN(min)  ||  Double.isNaN(max) ? NO_RANGE : 0) |
+                              (Double.isNaN(value)  ||  ! (dev > 0) ? NO_DEV : 0);
+            if (state != last_state  &&  i > i0)
+            {
+                keep(i-1);
+                keep(i);
+            }
+            last_state = state;
+
+            if (first < 0)
+                first = i;
+            last = i;
+            if (! Double.isNaN(value))
+            {
+                if (min_value < 0  ||  value < min_value_y)
+                {
+                    min_value = i;
+                    min_value_y = value;
+                }
+                if (max_value < 0  ||  value > max_value_y)
+                {
+                    max_value = i;
+                    max_value_y = value;
+                }
+                if (dev > 0)
+                {
+                    if (min_dev < 0  ||  value - dev < min_dev_y)
+                    {
+                        min_dev = i;
+                        min_dev_y = value - dev;
+                    }
+                    if (max_dev < 0  ||  value + dev > max_dev_y)
+                    {
+                        max_dev = i;
+                        max_dev_y = value + dev;
+                    }
+                }
+            }
+            if ((state & NO_RANGE) == 0)
+            {
+                if (min_range < 0  ||  min < min_range_y)
+                {
+                    min_range = i;
+                    min_range_y = min;
+                }
+                if (max_range < 0  ||  max > max_range_y)
+                {
+                    max_range = i;
+                    max_range_y = max;
+                }
+            }
+        }
+        endColumn();
+        return true;
+    }
+
+    /** Reset info for a new pixel column */
+    private void startColumn()
+    {
+        column_size = 0;
+        first = last = min_value = max_value = min_range = max_range = min_dev = max_dev = -1;
+    }
+
+    /** @param index Index of sample to keep in current column, -1 to ignore */
+    private void keep(final int index)
+    {
+        if (index < 0)
+            return;
+        if (column_size >= column.length)
+            column = Arrays.copyOf(column, column.length * 2);
+        column[column_size++] = index;
+    }
+
+    /** Add samples to keep for current column to 'indices' */
+    private void endColumn()
+    {
+        keep(first);
+        keep(last);
+        keep(min_value);
+        keep(max_value);
+        keep(min_range);
+        keep(max_range);
+        keep(min_dev);
+        keep(max_dev);
+        Arrays.sort(column, 0, column_size);
+        // Skip duplicates, including sample kept at the end of the previous column
+        int previous = indices.size() > 0 ? indices.get(indices.size()-1) : -1;
+        for (int i=0; i<column_size; ++i)
+            if (column[i] > previous)
+            {
+                previous = column[i];
+                indices.add(previous);
+            }
+    }
+}
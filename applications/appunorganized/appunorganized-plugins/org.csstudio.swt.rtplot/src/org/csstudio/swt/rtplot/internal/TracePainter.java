@@ -7,6 +7,10 @@
  ******************************************************************************/
 package org.csstudio.swt.rtplot.internal;
 
+import java.util.BitSet;
+import java.util.Map;
+import java.util.WeakHashMap;
+
 import org.csstudio.swt.rtplot.Axis;
 import org.csstudio.swt.rtplot.PointType;
 import org.csstudio.swt.rtplot.SWTMediaPool;
@@ -32,6 +36,11 @@ public class TracePainter<XTYPE extends Comparable<XTYPE>>
     // plus it works better when using dashed or wide lines,
     // but it requires an int[] array of varying size.
     // IntList turned out to be about 3x faster than ArrayList<Integer>.
+    //
+    // With many more samples than pixels, most of the time was spent
+    // drawing samples outside of the visible range
+    // or drawing the same pixels over and over,
+    // so samples are first reduced by a TraceDecimator.
 
     /** Initial {@link IntList} size */
     private static final int INITIAL_ARRAY_SIZE = 2048;
@@ -48,6 +57,11 @@ public class TracePainter<XTYPE extends Comparable<XTYPE>>
     final private static int OUTSIDE = 1000;
     private int x_min, x_max, y_min, y_max;
 
+    /** Decimator for each trace, keeping the decimated samples until data or axis change.
+     *  SYNC on access
+     */
+    final private Map<Trace<XTYPE>, TraceDecimator<XTYPE>> decimators = new WeakHashMap<>();
+
     final private int clipX(final double x)
     {
         if (x < x_min)
@@ -66,6 +80,45 @@ public class TracePainter<XTYPE extends Comparable<XTYPE>>
         return y;
     }
 
+    /** @param trace Trace
+     *  @return Decimator for that trace
+     */
+    private TraceDecimator<XTYPE> getDecimator(final Trace<XTYPE> trace)
+    {
+        synchronized (decimators)
+        {
+            return decimators.computeIfAbsent(trace, t -> new TraceDecimator<>());
+        }
+    }
+
+    /** Prepare painting a trace
+     *
+     *  <p>Determines the samples to paint,
+     *  which {@link #paint} will then use
+     *  unless data or axis change in between.
+     *
+     *  <p>May be called concurrently for different traces,
+     *  but not while painting.
+     *
+     *  @param bounds Bounds within which to paint
+     *  @param x_transform Coordinate transform used by the x axis
+     *  @param trace Trace
+     */
+    final public void prepare(final Rectangle bounds, final ScreenTransform<XTYPE> x_transform, final Trace<XTYPE> trace)
+    {
+        final TraceDecimator<XTYPE> decimator = getDecimator(trace);
+        final PlotDataProvider<XTYPE> data = trace.getData();
+        data.getLock().lock();
+        try
+        {
+            decimator.decimate(data, x_transform, bounds.x, bounds.width);
+        }
+        finally
+        {
+            data.getLock().unlock();
+        }
+    }
+
     /** @param gc GC
      *  @param media
      *  @param bounds Clipping bounds within which to paint
@@ -95,19 +148,13 @@ public class TracePainter<XTYPE extends Comparable<XTYPE>>
         gc.setAdvanced(true);
         gc.setAntialias(SWT.ON);
 
-        // TODO Optimize drawing
-        //
-        // Determine first sample to draw via PlotDataSearch.findSampleLessOrEqual(),
-        // then end drawing when reaching right end of area.
-        //
-        // Loop only once, performing drawMinMax, drawStdDev, drawValueStaircase in one loop
-        //
-        // For now, main point is that this happens in non-UI thread,
-        // so the slower the better to test UI responsiveness.
+        final TraceDecimator<XTYPE> decimator = getDecimator(trace);
         final PlotDataProvider<XTYPE> data = trace.getData();
         data.getLock().lock();
         try
         {
+            // Only draw visible samples, decimated to screen resolution
+            final IntList indices = decimator.decimate(data, x_transform, bounds.x, bounds.width);
             final TraceType type = trace.getType();
             switch (type)
             {
@@ -115,37 +162,37 @@ public class TracePainter<XTYPE extends Comparable<XTYPE>>
                 break;
             case AREA:
                 gc.setAlpha(alpha);
-                drawMinMaxArea(gc, x_transform, y_axis, data);
+                drawMinMaxArea(gc, x_transform, y_axis, data, indices);
                 gc.setAlpha(255);
-                drawStdDevLines(gc, x_transform, y_axis, data, trace.getWidth());
-                drawValueStaircase(gc, x_transform, y_axis, data, trace.getWidth());
+                drawStdDevLines(gc, x_transform, y_axis, data, indices, trace.getWidth());
+                drawValueStaircase(gc, x_transform, y_axis, data, indices, trace.getWidth());
                 break;
             case AREA_DIRECT:
                 gc.setAlpha(alpha);
-                drawMinMaxArea(gc, x_transform, y_axis, data);
+                drawMinMaxArea(gc, x_transform, y_axis, data, indices);
                 gc.setAlpha(255);
-                drawStdDevLines(gc, x_transform, y_axis, data, trace.getWidth());
-                drawValueLines(gc, x_transform, y_axis, data, trace.getWidth());
+                drawStdDevLines(gc, x_transform, y_axis, data, indices, trace.getWidth());
+                drawValueLines(gc, x_transform, y_axis, data, indices, trace.getWidth());
                 break;
             case LINES:
-                drawMinMaxLines(gc, x_transform, y_axis, data, trace.getWidth());
+                drawMinMaxLines(gc, x_transform, y_axis, data, indices, trace.getWidth());
                 gc.setAlpha(alpha);
-                drawStdDevLines(gc, x_transform, y_axis, data, trace.getWidth());
+                drawStdDevLines(gc, x_transform, y_axis, data, indices, trace.getWidth());
                 gc.setAlpha(255);
-                drawValueStaircase(gc, x_transform, y_axis, data, trace.getWidth());
+                drawValueStaircase(gc, x_transform, y_axis, data, indices, trace.getWidth());
                 break;
             case LINES_DIRECT:
-                drawMinMaxLines(gc, x_transform, y_axis, data, trace.getWidth());
+                drawMinMaxLines(gc, x_transform, y_axis, data, indices, trace.getWidth());
                 gc.setAlpha(alpha);
-                drawStdDevLines(gc, x_transform, y_axis, data, trace.getWidth());
+                drawStdDevLines(gc, x_transform, y_axis, data, indices, trace.getWidth());
                 gc.setAlpha(255);
-                drawValueLines(gc, x_transform, y_axis, data, trace.getWidth());
+                drawValueLines(gc, x_transform, y_axis, data, indices, trace.getWidth());
                 break;
             case SINGLE_LINE:
-                drawValueStaircase(gc, x_transform, y_axis, data, trace.getWidth());
+                drawValueStaircase(gc, x_transform, y_axis, data, indices, trace.getWidth());
                 break;
             case SINGLE_LINE_DIRECT:
-                drawValueLines(gc, x_transform, y_axis, data, trace.getWidth());
+                drawValueLines(gc, x_transform, y_axis, data, indices, trace.getWidth());
                 break;
             }
 
@@ -159,7 +206,9 @@ public class TracePainter<XTYPE extends Comparable<XTYPE>>
             case DIAMONDS:
             case XMARKS:
             case TRIANGLES:
-                drawPoints(gc, x_transform, y_axis, data, point_type, trace.getPointSize());
+                // Not decimated: Markers of all visible samples, skipping those on the same pixel
+                drawPoints(gc, x_transform, y_axis, data, decimator.getVisibleStart(), decimator.getVisibleEnd(),
+                           point_type, trace.getPointSize());
                 break;
             }
         }
@@ -177,19 +226,20 @@ public class TracePainter<XTYPE extends Comparable<XTYPE>>
      *  @param x_transform Horizontal axis
      *  @param y_axis Value axis
      *  @param data Data
+     *  @param indices Indices of samples to draw
      *  @param line_width
      */
     final private void drawValueStaircase(final GC gc,
             final ScreenTransform<XTYPE> x_transform, final YAxisImpl<XTYPE> y_axis,
-            final PlotDataProvider<XTYPE> data, final int line_width)
+            final PlotDataProvider<XTYPE> data, final IntList indices, final int line_width)
     {
         final IntList value_poly = new IntList(INITIAL_ARRAY_SIZE);
-        final int N = data.size();
+        final int N = indices.size();
         int last_x = -1, last_y = -1;
         gc.setLineWidth(line_width);
         for (int i=0; i<N; ++i)
         {
-            final PlotDataItem<XTYPE> item = data.get(i);
+            final PlotDataItem<XTYPE> item = data.get(indices.get(i));
             final int x = clipX(Math.round(x_transform.transform(item.getPosition())));
             final double value = item.getValue();
             if (value_poly.size() > 0  && x != last_x)
@@ -221,19 +271,20 @@ public class TracePainter<XTYPE extends Comparable<XTYPE>>
      *  @param x_transform Horizontal axis
      *  @param y_axis Value axis
      *  @param data Data
+     *  @param indices Indices of samples to draw
      *  @param line_width
      */
     final private void drawValueLines(final GC gc,
             final ScreenTransform<XTYPE> x_transform, final YAxisImpl<XTYPE> y_axis,
-            final PlotDataProvider<XTYPE> data, final int line_width)
+            final PlotDataProvider<XTYPE> data, final IntList indices, final int line_width)
     {
         final IntList value_poly = new IntList(INITIAL_ARRAY_SIZE);
-        final int N = data.size();
+        final int N = indices.size();
         gc.setLineWidth(line_width);
         int last_x = -1, last_y = -1;
         for (int i=0; i<N; ++i)
         {
-            final PlotDataItem<XTYPE> item = data.get(i);
+            final PlotDataItem<XTYPE> item = data.get(indices.get(i));
             final int x = clipX(Math.round(x_transform.transform(item.getPosition())));
             final double value = item.getValue();
             if (Double.isNaN(value))
@@ -260,19 +311,20 @@ public class TracePainter<XTYPE extends Comparable<XTYPE>>
      *  @param x_transform Horizontal axis
      *  @param y_axis Value axis
      *  @param data Data
+     *  @param indices Indices of samples to draw
      */
     final private void drawMinMaxArea(final GC gc,
             final ScreenTransform<XTYPE> x_transform, final YAxisImpl<XTYPE> y_axis,
-            final PlotDataProvider<XTYPE> data)
+            final PlotDataProvider<XTYPE> data, final IntList indices)
     {
         final IntList pos = new IntList(INITIAL_ARRAY_SIZE);
         final IntList min = new IntList(INITIAL_ARRAY_SIZE);
         final IntList max = new IntList(INITIAL_ARRAY_SIZE);
 
-        final int N = data.size();
+        final int N = indices.size();
         for (int i = 0;  i < N;  ++i)
         {
-            final PlotDataItem<XTYPE> item = data.get(i);
+            final PlotDataItem<XTYPE> item = data.get(indices.get(i));
             double ymin = item.getMin();
             double ymax = item.getMax();
             if (Double.isNaN(ymin)  ||  Double.isNaN(ymax))
@@ -295,18 +347,19 @@ public class TracePainter<XTYPE extends Comparable<XTYPE>>
      *  @param x_transform Horizontal axis
      *  @param y_axis Value axis
      *  @param data Data
+     *  @param indices Indices of samples to draw
      */
     final private void drawMinMaxLines(final GC gc,
             final ScreenTransform<XTYPE> x_transform, final YAxisImpl<XTYPE> y_axis,
-            final PlotDataProvider<XTYPE> data, final int line_width)
+            final PlotDataProvider<XTYPE> data, final IntList indices, final int line_width)
     {
         final IntList min = new IntList(INITIAL_ARRAY_SIZE);
         final IntList max = new IntList(INITIAL_ARRAY_SIZE);
 
-        final int N = data.size();
+        final int N = indices.size();
         for (int i = 0;  i < N;  ++i)
         {
-            final PlotDataItem<XTYPE> item = data.get(i);
+            final PlotDataItem<XTYPE> item = data.get(indices.get(i));
             double ymin = item.getMin();
             double ymax = item.getMax();
             if (Double.isNaN(ymin)  ||  Double.isNaN(ymax))
@@ -332,18 +385,19 @@ public class TracePainter<XTYPE extends Comparable<XTYPE>>
      *  @param x_transform Horizontal axis
      *  @param y_axis Value axis
      *  @param data Data
+     *  @param indices Indices of samples to draw
      *  @param line_width
      */
     final private void drawStdDevLines(final GC gc, final ScreenTransform<XTYPE> x_transform, final YAxisImpl<XTYPE> y_axis,
-            final PlotDataProvider<XTYPE> data, final int line_width)
+            final PlotDataProvider<XTYPE> data, final IntList indices, final int line_width)
     {
         final IntList lower_poly = new IntList(INITIAL_ARRAY_SIZE);
         final IntList upper_poly = new IntList(INITIAL_ARRAY_SIZE);
 
-        final int N = data.size();
+        final int N = indices.size();
         for (int i = 0;  i < N;  ++i)
         {
-            final PlotDataItem<XTYPE> item = data.get(i);
+            final PlotDataItem<XTYPE> item = data.get(indices.get(i));
             double value = item.getValue();
             double dev = item.getStdDev();
             if (Double.isNaN(value) ||  ! (dev > 0))
@@ -378,21 +432,25 @@ public class TracePainter<XTYPE extends Comparable<XTYPE>>
         poly.clear();
     }
 
-    /** Draw values of data as direct line
+    /** Draw values of data as points
      *  @param gc GC
      *  @param x_transform Horizontal axis
      *  @param y_axis Value axis
      *  @param data Data
+     *  @param first Index of first sample to draw
+     *  @param last Index of last sample to draw
      *  @param point_type
      *  @param size
      */
     final private void drawPoints(final GC gc,
             final ScreenTransform<XTYPE> x_transform, final YAxisImpl<XTYPE> y_axis,
-            final PlotDataProvider<XTYPE> data, PointType point_type, final int size)
+            final PlotDataProvider<XTYPE> data, final int first, final int last,
+            final PointType point_type, final int size)
     {
-        final int N = data.size();
-        int last_x = -1, last_y = -1;
-        for (int i=0; i<N; ++i)
+        // Pixel rows of the current pixel column that already have a marker
+        final BitSet column = new BitSet(y_max - y_min + 1);
+        int column_x = Integer.MIN_VALUE;
+        for (int i=first; i<=last; ++i)
         {
             final PlotDataItem<XTYPE> item = data.get(i);
             final int x = clipX(Math.round(x_transform.transform(item.getPosition())));
@@ -400,8 +458,14 @@ public class TracePainter<XTYPE extends Comparable<XTYPE>>
             if (!Double.isNaN(value))
             {
                 final int y = clipY(y_axis.getScreenCoord(value));
-                if (x == last_x  &&  y == last_y)
+                if (x != column_x)
+                {
+                    column.clear();
+                    column_x = x;
+                }
+                else if (column.get(y - y_min))
                     continue;
+                column.set(y - y_min);
                 switch (point_type)
                 {
                 case SQUARES:
@@ -432,8 +496,6 @@ public class TracePainter<XTYPE extends Comparable<XTYPE>>
                 default:
                     drawPoint(gc, x, y, size);
                 }
-                last_x = x;
-                last_y = y;
             }
         }
     }
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.apputil.formula.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.csstudio.apputil.formula.Formula;
+import org.csstudio.apputil.formula.VariableNode;
+import org.junit.Test;
+
+/** Compare compiled and array evaluation of formulas with the interpreter
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class CompiledFormulaUnitTest
+{
+    final private static String[] FORMULAS =
+    {
+        "42",
+        "-x",
+        "x + y * 3 - 4 / y",
+        "(x + 1) ^ 2",
+        "x < y",
+        "x <= y | x == 0",
+        "x > y & y >= 0.5",
+        "x != y",
+        "!(x > 0.5)",
+        "x > y ? (x) : (y)",
+        "min(x, y, 0.3) + max(x, y, 0.7)",
+        "sqrt(x) + sin(y) + atan2(x, y) + round(10*x)",
+        "PI * x*x",
+        "x/y > 2 ? (x - 1) : y < 0.2 ? 2 : -3"
+    };
+
+    final private static int COUNT = 1000;
+
+    @Test
+    public void testCompiledAndArrays() throws Exception
+    {
+        final Random random = new Random(42);
+        final double[][] inputs = new double[2][COUNT];
+        for (int i=0; i<COUNT; ++i)
+        {
+            inputs[0][i] = random.nextDouble();
+            inputs[1][i] = random.nextDouble();
+        }
+        // Include NaN
+        inputs[0][7] = Double.NaN;
+
+        for (String expression : FORMULAS)
+        {
+            final VariableNode x = new VariableNode("x"), y = new VariableNode("y");
+            final Formula interpreted = new Formula(expression, new VariableNode[] { x, y });
+            final Formula compiled = new Formula(expression, new VariableNode[] { x, y });
+            compiled.compile();
+            assertTrue(compiled.isCompiled());
+
+            final double[] out = new double[COUNT];
+            compiled.eval(inputs, out);
+
+            for (int i=0; i<COUNT; ++i)
+            {
+                x.setValue(inputs[0][i]);
+                y.setValue(inputs[1][i]);
+                final double expected = interpreted.eval();
+                assertEquals(expression, expected, compiled.eval(), 0.0);
+                assertEquals(expression, expected, out[i], 0.0);
+            }
+            System.out.println(expression + " OK");
+        }
+    }
+
+    @Test
+    public void testArrayInputs() throws Exception
+    {
+        final Formula formula = new Formula("a + b", true);
+        final double[] out = new double[3];
+        formula.eval(new double[][] { { 1, 2, 3, 4 }, { 10, 20, 30, 40 } }, out);
+        assertEquals(11.0, out[0], 0.0);
+        assertEquals(22.0, out[1], 0.0);
+        assertEquals(33.0, out[2], 0.0);
+
+        // Scalar values of variables are not affected
+        assertTrue(Double.isNaN(formula.eval()));
+
+        try
+        {
+            formula.eval(new double[][] { { 1, 2, 3 } }, out);
+            throw new Exception("Accepted wrong number of inputs");
+        }
+        catch (IllegalArgumentException ex)
+        {
+            System.out.println(ex.getMessage());
+        }
+    }
+}
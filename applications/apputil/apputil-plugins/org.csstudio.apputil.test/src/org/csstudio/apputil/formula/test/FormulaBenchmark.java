@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.apputil.formula.test;
+
+import java.time.Duration;
+
+import org.csstudio.apputil.formula.Formula;
+import org.csstudio.apputil.formula.VariableNode;
+
+/** Benchmark of {@link Formula} evaluation
+ *
+ *  <p>Evaluates formulas one value at a time with the interpreter,
+ *  the compiled formula, and over arrays of input values.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class FormulaBenchmark
+{
+    final private static String[] FORMULAS =
+    {
+        "x + 2*y",
+        "sqrt(x*x + y*y)",
+        "x > y ? (x - y) : (y - x) / 2",
+        "max(x, y, 0.5) * sin(x) + x^2"
+    };
+    final private static int SIZE = 10000;
+    final private static Duration RUNTIME = Duration.ofSeconds(3);
+
+    private enum Mode { INTERPRETED, COMPILED, ARRAY };
+
+    private static void benchmark(final String expression, final Mode mode) throws Exception
+    {
+        final VariableNode x = new VariableNode("x"), y = new VariableNode("y");
+        final Formula formula = new Formula(expression, new VariableNode[] { x, y });
+        if (mode != Mode.INTERPRETED)
+            formula.compile();
+
+        final double[][] inputs = new double[2][SIZE];
+        for (int i=0; i<SIZE; ++i)
+        {
+            inputs[0][i] = Math.random();
+            inputs[1][i] = Math.random();
+        }
+        final double[] out = new double[SIZE];
+
+        // Run twice, using the first run as warm-up
+        double ns = 0;
+        for (int run=0; run<2; ++run)
+        {
+            long evaluations = 0;
+            final long start = System.nanoTime();
+            final long end = start + RUNTIME.toNanos();
+            while (System.nanoTime() < end)
+            {
+                if (mode == Mode.ARRAY)
+                    formula.eval(inputs, out);
+                else
+                    for (int i=0; i<SIZE; ++i)
+                    {
+                        x.setValue(inputs[0][i]);
+                        y.setValue(inputs[1][i]);
+                        out[i] = formula.eval();
+                    }
+                evaluations += SIZE;
+            }
+            ns = (double) (System.nanoTime() - start) / evaluations;
+        }
+        System.out.format("%-32s %-11s: %8.2f ns per evaluation\n", expression, mode.name(), ns);
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        for (String expression : FORMULAS)
+            for (Mode mode : Mode.values())
+                benchmark(expression, mode);
+    }
+}
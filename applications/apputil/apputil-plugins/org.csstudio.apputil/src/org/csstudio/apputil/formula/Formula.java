@@ -7,6 +7,7 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula;
 
+import java.lang.invoke.MethodHandle;
 import java.util.ArrayList;
 import java.util.Vector;
 
@@ -52,6 +53,9 @@ import org.csstudio.apputil.formula.node.SubNode;
  *  The formula string is parsed into a tree, so that subsequent
  *  evaluations, possibly with modified values for input variables,
  *  are reasonably fast.
+ *  For frequent evaluations, the tree can be compiled into
+ *  a method handle which the JIT compiler can inline,
+ *  and the formula can be evaluated for arrays of input values.
  *  <p>
  *  See FormulaDialog in org.csstudio.apputil.ui plugin.
  *  That plugin also contains a class diagram.
@@ -67,6 +71,9 @@ public class Formula implements Node
 
     final private Node tree;
 
+    /** Compiled tree or <code>null</code> */
+    private volatile MethodHandle compiled = null;
+
     final private static VariableNode constants[] = new VariableNode[]
     {
         new VariableNode("E", Math.E),
@@ -169,11 +176,106 @@ public class Formula implements Node
         return variables.toArray(result);
     }
 
+    /** Compile the formula
+     *  <p>
+     *  Subsequent calls to {@link #eval()} no longer walk the tree of nodes
+     *  but invoke a method handle composed from the nodes.
+     */
+    public void compile()
+    {
+        compiled = tree.toMethodHandle();
+    }
+
+    /** @return <code>true</code> if formula has been compiled */
+    public boolean isCompiled()
+    {
+        return compiled != null;
+    }
+
     /** {@inheritDoc} */
     @Override
     public double eval()
     {
-        return tree.eval();
+        final MethodHandle handle = compiled;
+        if (handle == null)
+            return tree.eval();
+        try
+        {
+            return (double) handle.invokeExact();
+        }
+        catch (RuntimeException | Error ex)
+        {
+            throw ex;
+        }
+        catch (Throwable ex)
+        {
+            throw new IllegalStateException("Cannot evaluate " + formula, ex);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public MethodHandle toMethodHandle()
+    {
+        return tree.toMethodHandle();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void eval(final double[] out, final int count)
+    {
+        tree.eval(out, count);
+    }
+
+    /** Evaluate formula for arrays of input values
+     *  <p>
+     *  Each node of the formula is computed for all elements
+     *  before moving on to the next node.
+     *  Unlike {@link #eval()}, both the 'yes' and 'no' branches
+     *  of conditional expressions are evaluated.
+     *  <p>
+     *  Not thread safe, because variables and nodes hold
+     *  the arrays during the computation.
+     *
+     *  @param inputs Values for each variable in the order of {@link #getVariables()},
+     *                <code>inputs[variable][index]</code>
+     *  @param out Result for each index
+     *  @throws IllegalArgumentException if inputs do not match variables
+     */
+    public void eval(final double[][] inputs, final double[] out)
+    {
+        final int var_count = variables == null ? 0 : variables.size();
+        if (inputs.length != var_count)
+            throw new IllegalArgumentException("Expected " + var_count + " inputs, got " + inputs.length);
+        final int count = out.length;
+        for (double[] input : inputs)
+            if (input.length < count)
+                throw new IllegalArgumentException("Expected " + count + " input values, got " + input.length);
+        try
+        {
+            for (int v=0; v<var_count; ++v)
+                variables.get(v).setValues(inputs[v]);
+            tree.eval(out, count);
+        }
+        catch (UnsupportedOperationException ex)
+        {   // Tree contains custom node, evaluate one element at a time
+            final double[] values = new double[var_count];
+            for (int v=0; v<var_count; ++v)
+                values[v] = variables.get(v).getValue();
+            for (int i=0; i<count; ++i)
+            {
+                for (int v=0; v<var_count; ++v)
+                    variables.get(v).setValue(inputs[v][i]);
+                out[i] = eval();
+            }
+            for (int v=0; v<var_count; ++v)
+                variables.get(v).setValue(values[v]);
+        }
+        finally
+        {
+            for (int v=0; v<var_count; ++v)
+                variables.get(v).setValues(null);
+        }
     }
 
     /** {@inheritDoc} */
@@ -7,6 +7,8 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula;
 
+import java.lang.invoke.MethodHandle;
+
 /** A node used to build a formula.
  *  @author Kay Kasemir
  */
@@ -18,6 +20,31 @@ public interface Node
      */
     public double eval();
 
+    /** Compile the node.
+     *  <p>
+     *  Default implementation calls {@link #eval()}.
+     *  @return Method handle of type <code>()double</code>
+     *          that computes the value of the node.
+     *  @see NodeHandles
+     */
+    default public MethodHandle toMethodHandle()
+    {
+        return NodeHandles.eval(this);
+    }
+
+    /** Evaluate the node for arrays of variable values,
+     *  see {@link VariableNode#setValues(double[])}.
+     *  <p>
+     *  Default implementation is not supported.
+     *  @param out Array for the values of the node
+     *  @param count Number of values to compute
+     *  @throws UnsupportedOperationException when node cannot evaluate arrays
+     */
+    default public void eval(final double[] out, final int count)
+    {
+        throw new UnsupportedOperationException(getClass().getName());
+    }
+
     /** Check if this node has given node as a subnode
      *  @return <code>true</code> if given node was found under this one.
      */
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.apputil.formula;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+
+/** Helper for compiling {@link Node}s into method handles
+ *
+ *  <p>Each node provides a method handle of type <code>()double</code>.
+ *  Operations of type <code>(double, ...)double</code> are combined
+ *  with the handles of their arguments into a tree of method handles
+ *  that the JIT compiler can inline into one method.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class NodeHandles
+{
+    /** Type of a compiled node */
+    final public static MethodType NODE_TYPE = MethodType.methodType(double.class);
+
+    /** Node.eval() */
+    final private static MethodHandle EVAL = find(MethodHandles.lookup(), Node.class, "eval", -1);
+
+    /** NodeHandles.isTrue(double) */
+    final private static MethodHandle IS_TRUE;
+
+    static
+    {
+        try
+        {
+            IS_TRUE = MethodHandles.lookup().findStatic(NodeHandles.class, "isTrue",
+                                                        MethodType.methodType(boolean.class, double.class));
+        }
+        catch (ReflectiveOperationException ex)
+        {
+            throw new IllegalStateException("Cannot locate isTrue", ex);
+        }
+    }
+
+    private static boolean isTrue(final double value)
+    {
+        return value != 0.0;
+    }
+
+    /** Locate method that takes and returns <code>double</code>
+     *  @param lookup Lookup with access to the method
+     *  @param cls Class that declares the method
+     *  @param name Method name
+     *  @param args Number of <code>double</code> arguments for static method,
+     *              -1 for method of an instance without arguments
+     *  @return Method handle
+     *  @throws IllegalStateException if method is not found
+     */
+    public static MethodHandle find(final Lookup lookup, final Class<?> cls,
+                                    final String name, final int args)
+    {
+        try
+        {
+            if (args < 0)
+                return lookup.findVirtual(cls, name, NODE_TYPE);
+            final Class<?>[] types = new Class<?>[args];
+            Arrays.fill(types, double.class);
+            return lookup.findStatic(cls, name, MethodType.methodType(double.class, types));
+        }
+        catch (ReflectiveOperationException ex)
+        {
+            throw new IllegalStateException("Cannot locate " + cls.getName() + "." + name, ex);
+        }
+    }
+
+    /** @param node Node
+     *  @return Method handle that calls the node's {@link Node#eval()}
+     */
+    public static MethodHandle eval(final Node node)
+    {
+        return EVAL.bindTo(node);
+    }
+
+    /** @param value Value
+     *  @return Method handle that returns the value
+     */
+    public static MethodHandle constant(final double value)
+    {
+        return MethodHandles.constant(double.class, value);
+    }
+
+    /** Combine operation with its arguments
+     *  @param operation Operation <code>(double, ...)double</code>
+     *  @param args Compiled arguments, evaluated left to right
+     *  @return Compiled node
+     */
+    public static MethodHandle combine(MethodHandle operation, final MethodHandle... args)
+    {
+        for (int i=args.length-1; i>=0; --i)
+            operation = MethodHandles.collectArguments(operation, i, args[i]);
+        return operation;
+    }
+
+    /** @param condition Compiled condition
+     *  @param yes Compiled node to evaluate when condition is not zero
+     *  @param no Compiled node to evaluate when condition is zero
+     *  @return Compiled node
+     */
+    public static MethodHandle select(final MethodHandle condition, final MethodHandle yes, final MethodHandle no)
+    {
+        return MethodHandles.guardWithTest(MethodHandles.filterReturnValue(condition, IS_TRUE), yes, no);
+    }
+}
@@ -7,17 +7,27 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.Arrays;
+
 /** Named Variable.
  *  @author Kay Kasemir
  */
 public class VariableNode implements Node
 {
+    /** VariableNode.getValue() */
+    final private static MethodHandle GET_VALUE = NodeHandles.find(MethodHandles.lookup(), VariableNode.class, "getValue", -1);
+
     /** Name of the variable. */
     final private String name;
 
     /** Current value of the variable. */
     private double value;
 
+    /** Values for evaluating arrays, or <code>null</code> */
+    private double[] values = null;
+
     /** Create Variable with given name. */
     public VariableNode(final String name)
     {
@@ -44,6 +54,15 @@ public class VariableNode implements Node
         this.value = value;
     }
 
+    /** Set values used when evaluating arrays
+     *  @param values Values or <code>null</code> to use the current value
+     *  @see Node#eval(double[], int)
+     */
+    public void setValues(final double[] values)
+    {
+        this.values = values;
+    }
+
     /** @return Returns the value. */
     public double getValue()
     {
@@ -56,6 +75,23 @@ public class VariableNode implements Node
         return value;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public MethodHandle toMethodHandle()
+    {
+        return GET_VALUE.bindTo(this);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void eval(final double[] out, final int count)
+    {
+        if (values == null)
+            Arrays.fill(out, 0, count, value);
+        else
+            System.arraycopy(values, 0, out, 0, count);
+    }
+
     /** {@inheritDoc} */
     @Override
     public boolean hasSubnode(final Node node)
@@ -7,7 +7,10 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula.node;
 
+import java.lang.invoke.MethodHandle;
+
 import org.csstudio.apputil.formula.Node;
+import org.csstudio.apputil.formula.NodeHandles;
 
 /** Abstract base for binary nodes.
  *  @author Kay Kasemir
@@ -17,12 +20,37 @@ abstract class AbstractBinaryNode implements Node
     protected final Node left;
     protected final Node right;
 
+    /** Values of the right node when evaluating arrays */
+    private double[] right_values = null;
+
     public AbstractBinaryNode(final Node left, final Node right)
     {
         this.left = left;
         this.right = right;
     }
 
+    /** @param operation Operation <code>(double, double)double</code>
+     *  @return Compiled node that applies the operation to left and right node
+     */
+    protected MethodHandle compile(final MethodHandle operation)
+    {
+        return NodeHandles.combine(operation, left.toMethodHandle(), right.toMethodHandle());
+    }
+
+    /** Evaluate left and right node for arrays
+     *  @param out Array for the values of the left node
+     *  @param count Number of values to compute
+     *  @return Values of the right node
+     */
+    protected double[] evalOperands(final double[] out, final int count)
+    {
+        left.eval(out, count);
+        if (right_values == null  ||  right_values.length < count)
+            right_values = new double[count];
+        right.eval(right_values, count);
+        return right_values;
+    }
+
     /** {@inheritDoc} */
     @Override
     final public boolean hasSubnode(final Node node)
@@ -7,7 +7,10 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula.node;
 
+import java.lang.invoke.MethodHandle;
+
 import org.csstudio.apputil.formula.Node;
+import org.csstudio.apputil.formula.NodeHandles;
 
 /** Abstract base for unary nodes.
  *  @author Kay Kasemir
@@ -21,6 +24,14 @@ abstract class AbstractUnaryNode implements Node
         this.n = n;
     }
 
+    /** @param operation Operation <code>(double)double</code>
+     *  @return Compiled node that applies the operation to the node
+     */
+    protected MethodHandle compile(final MethodHandle operation)
+    {
+        return NodeHandles.combine(operation, n.toMethodHandle());
+    }
+
     /** {@inheritDoc} */
     @Override
     final public boolean hasSubnode(final Node node)
@@ -7,7 +7,11 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula.node;
 
+import java.lang.invoke.MethodHandle;
+import java.util.Arrays;
+
 import org.csstudio.apputil.formula.Node;
+import org.csstudio.apputil.formula.NodeHandles;
 
 /** One computational node.
  *  @author Kay Kasemir
@@ -27,6 +31,20 @@ public class ConstantNode implements Node
         return value;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public MethodHandle toMethodHandle()
+    {
+        return NodeHandles.constant(value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void eval(final double[] out, final int count)
+    {
+        Arrays.fill(out, 0, count, value);
+    }
+
     /** {@inheritDoc} */
     @Override
     public boolean hasSubnode(final Node node)
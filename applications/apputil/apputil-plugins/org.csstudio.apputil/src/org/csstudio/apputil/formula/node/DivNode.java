@@ -7,24 +7,49 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula.node;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
 import org.csstudio.apputil.formula.Node;
+import org.csstudio.apputil.formula.NodeHandles;
 
 /** One computational node.
  *  @author Kay Kasemir
  */
 public class DivNode extends AbstractBinaryNode
 {
+    final private static MethodHandle OPERATION = NodeHandles.find(MethodHandles.lookup(), DivNode.class, "div", 2);
+
     public DivNode(final Node left, final Node right)
     {
         super(left, right);
     }
 
+    private static double div(final double a, final double b)
+    {
+        return a / b;
+    }
+
     @Override
     public double eval()
     {
-        final double a = left.eval();
-        final double b = right.eval();
-        return a / b;
+        return div(left.eval(), right.eval());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public MethodHandle toMethodHandle()
+    {
+        return compile(OPERATION);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void eval(final double[] out, final int count)
+    {
+        final double[] b = evalOperands(out, count);
+        for (int i=0; i<count; ++i)
+            out[i] = div(out[i], b[i]);
     }
 
     @SuppressWarnings("nls")
@@ -7,24 +7,49 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula.node;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
 import org.csstudio.apputil.formula.Node;
+import org.csstudio.apputil.formula.NodeHandles;
 
 /** One computational node.
  *  @author Kay Kasemir
  */
 public class EqualNode extends AbstractBinaryNode
 {
+    final private static MethodHandle OPERATION = NodeHandles.find(MethodHandles.lookup(), EqualNode.class, "equal", 2);
+
     public EqualNode(final Node left, final Node right)
     {
         super(left, right);
     }
 
+    private static double equal(final double a, final double b)
+    {
+        return (a == b) ? 1.0 : 0.0;
+    }
+
     @Override
     public double eval()
     {
-        final double a = left.eval();
-        final double b = right.eval();
-        return (a == b) ? 1.0 : 0.0;
+        return equal(left.eval(), right.eval());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public MethodHandle toMethodHandle()
+    {
+        return compile(OPERATION);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void eval(final double[] out, final int count)
+    {
+        final double[] b = evalOperands(out, count);
+        for (int i=0; i<count; ++i)
+            out[i] = equal(out[i], b[i]);
     }
 
     @SuppressWarnings("nls")
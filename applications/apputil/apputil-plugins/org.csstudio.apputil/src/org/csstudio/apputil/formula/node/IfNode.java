@@ -7,7 +7,10 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula.node;
 
+import java.lang.invoke.MethodHandle;
+
 import org.csstudio.apputil.formula.Node;
+import org.csstudio.apputil.formula.NodeHandles;
 
 /** One computational node.
  *  @author Kay Kasemir
@@ -18,6 +21,9 @@ public class IfNode implements Node
     private final Node yes;
     private final Node no;
 
+    /** Values of 'yes' and 'no' nodes when evaluating arrays */
+    private double[] yes_values = null, no_values = null;
+
     public IfNode(final Node cond, final Node yes, final Node no)
     {
         this.cond = cond;
@@ -31,6 +37,32 @@ public class IfNode implements Node
         return (cond.eval() != 0) ? yes.eval() : no.eval();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public MethodHandle toMethodHandle()
+    {
+        return NodeHandles.select(cond.toMethodHandle(), yes.toMethodHandle(), no.toMethodHandle());
+    }
+
+    /** {@inheritDoc}
+     *  <p>
+     *  Evaluates both 'yes' and 'no' nodes for all elements.
+     */
+    @Override
+    public void eval(final double[] out, final int count)
+    {
+        if (yes_values == null  ||  yes_values.length < count)
+        {
+            yes_values = new double[count];
+            no_values = new double[count];
+        }
+        cond.eval(out, count);
+        yes.eval(yes_values, count);
+        no.eval(no_values, count);
+        for (int i=0; i<count; ++i)
+            out[i] = (out[i] != 0) ? yes_values[i] : no_values[i];
+    }
+
     /** {@inheritDoc} */
     @Override
     public boolean hasSubnode(final Node node)
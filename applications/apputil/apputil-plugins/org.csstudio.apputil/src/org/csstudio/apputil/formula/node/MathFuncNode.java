@@ -7,9 +7,13 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula.node;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 
 import org.csstudio.apputil.formula.Node;
+import org.csstudio.apputil.formula.NodeHandles;
 
 /** Node for evaluating any of the java.lang.Math.* functions
  *  @author Xiaosong Geng
@@ -21,6 +25,12 @@ public class MathFuncNode implements Node
     final private Node args[];
     final private Method method;
 
+    /** Handle for method, converting its result to <code>double</code> */
+    final private MethodHandle handle;
+
+    /** Values of arguments when evaluating arrays */
+    private double[][] arg_values = null;
+
     /** Construct node for math function.
      *
      *  @param function One of the java.lang.Math.* method names
@@ -36,6 +46,8 @@ public class MathFuncNode implements Node
         for (int i = 0; i < args.length; i++)
             argcls[i] = double.class;
         method = Math.class.getDeclaredMethod(function, argcls);
+        handle = MethodHandles.explicitCastArguments(MethodHandles.publicLookup().unreflect(method),
+                                                     MethodType.methodType(double.class, argcls));
     }
 
     @Override
@@ -50,8 +62,8 @@ public class MathFuncNode implements Node
         try
         {
             Object result = method.invoke(null, arglist );
-            if (result instanceof Double)
-                return ((Double) result).doubleValue();
+            if (result instanceof Number)
+                return ((Number) result).doubleValue();
         }
         catch (Exception e)
         {
@@ -60,6 +72,45 @@ public class MathFuncNode implements Node
         return 0.0;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public MethodHandle toMethodHandle()
+    {
+        final MethodHandle[] arg_handles = new MethodHandle[args.length];
+        for (int i = 0; i < args.length; i++)
+            arg_handles[i] = args[i].toMethodHandle();
+        return NodeHandles.combine(handle, arg_handles);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void eval(final double[] out, final int count)
+    {
+        if (arg_values == null  ||  arg_values[0].length < count)
+            arg_values = new double[args.length][count];
+        for (int a = 0; a < args.length; a++)
+            args[a].eval(arg_values[a], count);
+        try
+        {
+            if (args.length == 1)
+            {
+                final double[] x = arg_values[0];
+                for (int i=0; i<count; ++i)
+                    out[i] = (double) handle.invokeExact(x[i]);
+            }
+            else
+            {
+                final double[] x = arg_values[0], y = arg_values[1];
+                for (int i=0; i<count; ++i)
+                    out[i] = (double) handle.invokeExact(x[i], y[i]);
+            }
+        }
+        catch (Throwable ex)
+        {
+            throw new IllegalStateException("Cannot evaluate " + function, ex); //$NON-NLS-1$
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     public boolean hasSubnode(final Node node)
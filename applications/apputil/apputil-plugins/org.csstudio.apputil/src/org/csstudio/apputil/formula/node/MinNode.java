@@ -7,31 +7,70 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula.node;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
 import org.csstudio.apputil.formula.Node;
+import org.csstudio.apputil.formula.NodeHandles;
 
 /** One computational node.
  *  @author Kay Kasemir
  */
 public class MinNode implements Node
 {
+    final private static MethodHandle OPERATION = NodeHandles.find(MethodHandles.lookup(), MinNode.class, "min", 2);
+
     private final Node args[];
 
+    /** Values of an argument when evaluating arrays */
+    private double[] arg_values = null;
+
     public MinNode(final Node args[])
     {
         this.args = args;
     }
 
+    /** @param result Result so far
+     *  @param v Value of next argument
+     *  @return New result
+     */
+    private static double min(final double result, final double v)
+    {
+        return (v < result) ? v : result;
+    }
+
     @Override
     public double eval()
     {
-        double result = 0.0;
-        for (int i = 0; i < args.length; i++)
+        double result = args[0].eval();
+        for (int i = 1; i < args.length; i++)
+            result = min(result, args[i].eval());
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public MethodHandle toMethodHandle()
+    {
+        MethodHandle result = args[0].toMethodHandle();
+        for (int i = 1; i < args.length; i++)
+            result = NodeHandles.combine(OPERATION, result, args[i].toMethodHandle());
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void eval(final double[] out, final int count)
+    {
+        if (arg_values == null  ||  arg_values.length < count)
+            arg_values = new double[count];
+        args[0].eval(out, count);
+        for (int a = 1; a < args.length; a++)
         {
-            final double v = args[i].eval();
-            if (i==0  ||  v < result)
-                result = v;
+            args[a].eval(arg_values, count);
+            for (int i=0; i<count; ++i)
+                out[i] = min(out[i], arg_values[i]);
         }
-        return result;
     }
 
     /** {@inheritDoc} */
@@ -7,23 +7,49 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula.node;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
 import org.csstudio.apputil.formula.Node;
+import org.csstudio.apputil.formula.NodeHandles;
 
 /** One computational node.
  *  @author Kay Kasemir
  */
 public class NotNode extends AbstractUnaryNode
 {
+    final private static MethodHandle OPERATION = NodeHandles.find(MethodHandles.lookup(), NotNode.class, "not", 1);
+
     public NotNode(final Node n)
     {
         super(n);
     }
 
+    private static double not(final double a)
+    {
+        return (a != 0) ? 0.0 : 1.0;
+    }
+
     @Override
     public double eval()
     {
-        final double a = n.eval();
-        return (a != 0) ? 0.0 : 1.0;
+        return not(n.eval());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public MethodHandle toMethodHandle()
+    {
+        return compile(OPERATION);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void eval(final double[] out, final int count)
+    {
+        n.eval(out, count);
+        for (int i=0; i<count; ++i)
+            out[i] = not(out[i]);
     }
 
     @SuppressWarnings("nls")
@@ -7,13 +7,18 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula.node;
 
+import java.lang.invoke.MethodHandle;
+
 import org.csstudio.apputil.formula.Node;
+import org.csstudio.apputil.formula.NodeHandles;
 
 /** One computational node.
  *  @author Kay Kasemir
  */
 public class OrNode extends AbstractBinaryNode
 {
+    final private static MethodHandle TRUE = NodeHandles.constant(1.0), FALSE = NodeHandles.constant(0.0);
+
     public OrNode(final Node left, final Node right)
     {
         super(left, right);
@@ -25,6 +30,24 @@ public class OrNode extends AbstractBinaryNode
         return (left.eval() != 0.0   ||   right.eval() != 0.0) ? 1.0 : 0.0;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public MethodHandle toMethodHandle()
+    {
+        return NodeHandles.select(left.toMethodHandle(),
+                                  TRUE,
+                                  NodeHandles.select(right.toMethodHandle(), TRUE, FALSE));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void eval(final double[] out, final int count)
+    {
+        final double[] b = evalOperands(out, count);
+        for (int i=0; i<count; ++i)
+            out[i] = (out[i] != 0.0  ||  b[i] != 0.0) ? 1.0 : 0.0;
+    }
+
     @SuppressWarnings("nls")
     @Override
     public String toString()
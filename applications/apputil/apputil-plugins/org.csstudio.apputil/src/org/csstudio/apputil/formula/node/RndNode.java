@@ -7,23 +7,49 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula.node;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
 import org.csstudio.apputil.formula.Node;
+import org.csstudio.apputil.formula.NodeHandles;
 
 /** One computational node.
  *  @author Kay Kasemir
  */
 public class RndNode extends AbstractUnaryNode
 {
+    final private static MethodHandle OPERATION = NodeHandles.find(MethodHandles.lookup(), RndNode.class, "rnd", 1);
+
     public RndNode(Node n)
     {
         super(n);
     }
 
+    private static double rnd(final double a)
+    {
+        return a*Math.random();
+    }
+
     @Override
     public double eval()
     {
-        final double a = n.eval();
-        return a*Math.random();
+        return rnd(n.eval());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public MethodHandle toMethodHandle()
+    {
+        return compile(OPERATION);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void eval(final double[] out, final int count)
+    {
+        n.eval(out, count);
+        for (int i=0; i<count; ++i)
+            out[i] = rnd(out[i]);
     }
 
     @SuppressWarnings("nls")
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Instant;
+
+import org.csstudio.archive.vtype.ArchiveVNumber;
+import org.csstudio.archive.vtype.ArchiveVString;
+import org.csstudio.archive.vtype.VTypeHelper;
+import org.diirt.vtype.AlarmSeverity;
+import org.diirt.vtype.Display;
+import org.diirt.vtype.VNumber;
+import org.diirt.vtype.VType;
+import org.junit.Test;
+
+/** JUnit test of the lock-free {@link SampleBuffer}
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class SampleRingUnitTest
+{
+    final private SampleBuffer buffer = new SampleBuffer("Demo", null, 10, true);
+
+    /** Scalars are restored with time, severity, status and meta data */
+    @Test
+    public void testScalars()
+    {
+        final Instant time = Instant.ofEpochSecond(1000, 42);
+        buffer.add(new ArchiveVNumber(time, AlarmSeverity.MINOR, "LOW", TestHelper.display, 3.14));
+        buffer.add(new ArchiveVNumber(time.plusSeconds(1), AlarmSeverity.NONE, "OK", TestHelper.display, 42));
+        final VType text = new ArchiveVString(time.plusSeconds(2), AlarmSeverity.INVALID, "Off", "Off");
+        buffer.add(text);
+        assertEquals(3, buffer.getQueueSize());
+
+        VType value = buffer.remove();
+        assertEquals(3.14, VTypeHelper.toDouble(value), 0.001);
+        assertEquals(time, VTypeHelper.getTimestamp(value));
+        assertEquals(AlarmSeverity.MINOR, VTypeHelper.getSeverity(value));
+        assertEquals("LOW", VTypeHelper.getMessage(value));
+        assertEquals("Eggs", ((Display) value).getUnits());
+
+        value = buffer.remove();
+        assertTrue(((VNumber) value).getValue() instanceof Long);
+        assertEquals(42L, ((VNumber) value).getValue());
+
+        assertSame(text, buffer.remove());
+        assertNull(buffer.remove());
+        assertEquals(0, buffer.getQueueSize());
+    }
+
+    /** Check Overrun */
+    @Test
+    public void testOverrun()
+    {
+        for (int i=0; i<buffer.getCapacity(); ++i)
+            buffer.add(TestHelper.newValue(i));
+        assertEquals(buffer.getCapacity(), buffer.getQueueSize());
+        assertEquals(0, buffer.getBufferStats().getOverruns());
+
+        buffer.add(TestHelper.newValue(-1.0));
+        buffer.add(TestHelper.newValue(-2.0));
+        assertEquals(buffer.getCapacity(), buffer.getQueueSize());
+        assertEquals(2, buffer.getBufferStats().getOverruns());
+
+        // Values 0, 1 were dropped by overrun, oldest sample now 2
+        assertEquals(2.0, VTypeHelper.toDouble(buffer.remove()), 0.01);
+    }
+
+    /** Check that consumer sees samples in order while producer overruns the buffer
+     *  @throws Exception on thread error
+     */
+    @Test(timeout=15000)
+    public void testThreads() throws Exception
+    {
+        final int runs = 1000000;
+        final Thread fill = new Thread(() ->
+        {
+            for (int i=1; i<=runs; ++i)
+                buffer.add(TestHelper.newValue(i));
+        });
+        fill.start();
+
+        double last = 0;
+        int received = 0;
+        while (fill.isAlive()  ||  buffer.getQueueSize() > 0)
+        {
+            final VType sample = buffer.remove();
+            if (sample == null)
+                continue;
+            final double value = VTypeHelper.toDouble(sample);
+            assertTrue("Got " + value + " after " + last, value > last);
+            last = value;
+            ++received;
+        }
+        fill.join();
+        assertEquals(runs, received + buffer.getBufferStats().getOverruns());
+        assertEquals(runs, last, 0.1);
+    }
+}
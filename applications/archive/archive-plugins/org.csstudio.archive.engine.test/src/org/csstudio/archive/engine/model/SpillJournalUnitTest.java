@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.csstudio.archive.vtype.ArchiveVNumber;
+import org.csstudio.archive.vtype.ArchiveVString;
+import org.csstudio.archive.vtype.VTypeHelper;
+import org.csstudio.archive.writer.ArchiveWriter;
+import org.csstudio.archive.writer.WriteChannel;
+import org.diirt.vtype.AlarmSeverity;
+import org.diirt.vtype.Display;
+import org.diirt.vtype.VString;
+import org.diirt.vtype.VType;
+import org.junit.Test;
+
+/** JUnit test of the {@link SpillJournal}
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class SpillJournalUnitTest
+{
+    /** Writer that remembers what was written */
+    private static class DemoWriter implements ArchiveWriter
+    {
+        final List<String> names = new ArrayList<>();
+        final List<VType> samples = new ArrayList<>();
+
+        @Override
+        public WriteChannel getChannel(final String name) throws Exception
+        {
+            return () -> name;
+        }
+
+        @Override
+        public void addSample(final WriteChannel channel, final VType sample) throws Exception
+        {
+            names.add(channel.getName());
+            samples.add(sample);
+        }
+
+        @Override
+        public void flush() throws Exception
+        {
+            // NOP
+        }
+
+        @Override
+        public void close()
+        {
+            // NOP
+        }
+    }
+
+    private static VType newValue(final long secs, final double value)
+    {
+        return new ArchiveVNumber(Instant.ofEpochSecond(secs), AlarmSeverity.MINOR, "LOW", TestHelper.display, value);
+    }
+
+    @Test
+    public void testSpillAndReplay() throws Exception
+    {
+        final File dir = Files.createTempDirectory("spill").toFile();
+        final SampleBuffer a = new SampleBuffer("a", null, 100, false);
+        final SampleBuffer b = new SampleBuffer("b", null, 100, false);
+        for (int i=0; i<10; ++i)
+        {
+            a.add(newValue(2*i, i));
+            b.add(newValue(2*i+1, 100+i));
+        }
+        b.add(new ArchiveVString(Instant.ofEpochSecond(100), AlarmSeverity.INVALID, "Off", "Off"));
+
+        SpillJournal journal = new SpillJournal(dir, 4096, 1024*1024);
+        assertTrue(journal.isEmpty());
+        assertEquals(10, journal.spill(a));
+        assertEquals(11, journal.spill(b));
+        assertEquals(0, a.getQueueSize());
+        journal.close();
+
+        // Simulate restart: Journal is found again
+        journal = new SpillJournal(dir, 4096, 1024*1024);
+        assertFalse(journal.isEmpty());
+        final DemoWriter writer = new DemoWriter();
+        assertEquals(21, journal.replay(writer, 5));
+        assertTrue(journal.isEmpty());
+        assertEquals(0, dir.listFiles().length);
+
+        // Samples of both channels are interleaved in time stamp order
+        assertEquals(21, writer.samples.size());
+        for (int i=0; i<20; ++i)
+        {
+            assertEquals(i % 2 == 0 ? "a" : "b", writer.names.get(i));
+            assertEquals(Instant.ofEpochSecond(i), VTypeHelper.getTimestamp(writer.samples.get(i)));
+        }
+        final VType value = writer.samples.get(1);
+        assertEquals(100.0, VTypeHelper.toDouble(value), 0.01);
+        assertEquals(AlarmSeverity.MINOR, VTypeHelper.getSeverity(value));
+        assertEquals("LOW", VTypeHelper.getMessage(value));
+        assertEquals("Eggs", ((Display) value).getUnits());
+        assertEquals("Off", ((VString) writer.samples.get(20)).getValue());
+
+        dir.delete();
+    }
+
+    @Test
+    public void testReplayAcrossSegments() throws Exception
+    {
+        final File dir = Files.createTempDirectory("spill").toFile();
+        final SampleBuffer a = new SampleBuffer("a", null, 100, false);
+        final SampleBuffer b = new SampleBuffer("b", null, 100, false);
+        for (int i=0; i<100; ++i)
+        {
+            a.add(newValue(2*i, i));
+            b.add(newValue(2*i+1, 100+i));
+        }
+        // Small segments: 'a' fills the first segments, 'b' the following ones
+        final SpillJournal journal = new SpillJournal(dir, 4096, 1024*1024);
+        assertEquals(100, journal.spill(a));
+        assertEquals(100, journal.spill(b));
+        assertTrue(dir.listFiles().length > 2);
+
+        final DemoWriter writer = new DemoWriter();
+        assertEquals(200, journal.replay(writer, 7));
+        assertEquals(0, dir.listFiles().length);
+
+        // Samples from all segments are merged in time stamp order
+        assertEquals(200, writer.samples.size());
+        for (int i=0; i<200; ++i)
+        {
+            assertEquals(i % 2 == 0 ? "a" : "b", writer.names.get(i));
+            assertEquals(Instant.ofEpochSecond(i), VTypeHelper.getTimestamp(writer.samples.get(i)));
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void testResumeReplay() throws Exception
+    {
+        final File dir = Files.createTempDirectory("spill").toFile();
+        final SampleBuffer a = new SampleBuffer("a", null, 100, false);
+        final SampleBuffer b = new SampleBuffer("b", null, 100, false);
+        for (int i=0; i<100; ++i)
+        {
+            a.add(newValue(2*i, i));
+            b.add(newValue(2*i+1, 100+i));
+        }
+        SpillJournal journal = new SpillJournal(dir, 4096, 1024*1024);
+        journal.spill(a);
+        journal.spill(b);
+
+        // Writer that fails on the 4th flush, i.e. after writing 3 batches of 10
+        final DemoWriter failing = new DemoWriter()
+        {
+            private int flushes = 0;
+
+            @Override
+            public void flush() throws Exception
+            {
+                if (++flushes > 3)
+                    throw new Exception("Simulated write error");
+            }
+        };
+        try
+        {
+            journal.replay(failing, 10);
+        }
+        catch (Exception ex)
+        {
+            assertEquals("Simulated write error", ex.getMessage());
+        }
+        assertFalse(journal.isEmpty());
+
+        // Restart, continue after the last flushed batch
+        journal = new SpillJournal(dir, 4096, 1024*1024);
+        final DemoWriter writer = new DemoWriter();
+        assertEquals(170, journal.replay(writer, 10));
+        assertEquals(0, dir.listFiles().length);
+        for (int i=0; i<170; ++i)
+            assertEquals(Instant.ofEpochSecond(30 + i), VTypeHelper.getTimestamp(writer.samples.get(i)));
+        dir.delete();
+    }
+
+    @Test
+    public void testLimit() throws Exception
+    {
+        final File dir = Files.createTempDirectory("spill").toFile();
+        final SampleBuffer buffer = new SampleBuffer("a", null, 1000, false);
+        for (int i=0; i<1000; ++i)
+            buffer.add(newValue(i, i));
+
+        // Only room for one small segment
+        final SpillJournal journal = new SpillJournal(dir, 4096, 4096);
+        final int spilled = journal.spill(buffer);
+        assertTrue(spilled > 0);
+        assertTrue(spilled < 1000);
+        assertEquals(1000 - spilled, journal.getDroppedSamples());
+        assertEquals(1000 - spilled, buffer.getBufferStats().getOverruns());
+        assertEquals(4096, journal.getDiskUsage());
+
+        journal.replay(new DemoWriter(), 100);
+        dir.delete();
+    }
+}
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.model;
+
+import static org.junit.Assert.assertEquals;
+
+import org.csstudio.archive.engine.model.WriteThreadPool.Sharding;
+import org.junit.Test;
+
+/** JUnit test of the {@link WriteThreadPool} sharding
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class WriteThreadPoolUnitTest
+{
+    private static ArchiveChannel newChannel(final String name) throws Exception
+    {
+        return new MonitoredArchiveChannel(name, null, Enablement.Passive, 10, null, 1.0);
+    }
+
+    @Test
+    public void testGroupSharding() throws Exception
+    {
+        final WriteThreadPool pool = new WriteThreadPool(2, Sharding.GROUP);
+        final ArchiveGroup a = new ArchiveGroup("A");
+        final ArchiveGroup b = new ArchiveGroup("B");
+        final ArchiveGroup c = new ArchiveGroup("C");
+        pool.addChannel(newChannel("a1"), a);
+        pool.addChannel(newChannel("b1"), b);
+        pool.addChannel(newChannel("a2"), a);
+        pool.addChannel(newChannel("c1"), c);
+        pool.addChannel(newChannel("a3"), a);
+
+        // Groups A and C on first thread, B on second
+        assertEquals(4, pool.getThreads().get(0).getBufferCount());
+        assertEquals(1, pool.getThreads().get(1).getBufferCount());
+    }
+
+    @Test
+    public void testNameSharding() throws Exception
+    {
+        final WriteThreadPool pool = new WriteThreadPool(4, Sharding.NAME);
+        final ArchiveGroup group = new ArchiveGroup("Group");
+        for (int i=0; i<1000; ++i)
+            pool.addChannel(newChannel("pv" + i), group);
+
+        int total = 0;
+        for (WriteThread thread : pool.getThreads())
+        {
+            // Roughly even split
+            final int count = thread.getBufferCount();
+            assertEquals(250, count, 100);
+            total += count;
+        }
+        assertEquals(1000, total);
+    }
+}
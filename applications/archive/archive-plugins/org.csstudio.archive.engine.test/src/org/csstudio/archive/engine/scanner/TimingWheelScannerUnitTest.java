@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/** Unit test of the {@link TimingWheelScanner}
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class TimingWheelScannerUnitTest
+{
+    /** Scannable item that counts invocations */
+    static class ScanItem implements Runnable
+    {
+        final AtomicInteger scans = new AtomicInteger();
+
+        @Override
+        public void run()
+        {
+            scans.incrementAndGet();
+        }
+    }
+
+    /** Scan without worker threads, simulating the passage of time */
+    @Test
+    public void testPeriodicScan()
+    {
+        final long start = System.currentTimeMillis();
+        final TimingWheelScanner scanner = new TimingWheelScanner(0, 10, start);
+        assertFalse(scanner.isDueAtAll());
+
+        final ScanItem fast = new ScanItem();
+        final ScanItem slow = new ScanItem();
+        scanner.add(fast, 0.1);
+        scanner.add(slow, 2.0);
+        assertTrue(scanner.isDueAtAll());
+        assertEquals(2, scanner.getItemCount());
+        final long delay = scanner.getNextDueTime() - start;
+        assertTrue("About 100 ms delay, got " + delay, delay >= 100  &&  delay < 200);
+
+        // Advance 10 seconds in 10ms ticks
+        for (long time = start; time <= start + 10000; time += 10)
+            scanner.advance(time);
+
+        // No drift: Period is kept exactly
+        System.out.println("Fast: " + fast.scans.get() + ", slow: " + slow.scans.get());
+        assertTrue(fast.scans.get() >= 99  &&  fast.scans.get() <= 100);
+        assertTrue(slow.scans.get() >= 4  &&  slow.scans.get() <= 5);
+        assertEquals(0, scanner.getSkippedScans());
+
+        // Removed item is no longer scanned
+        scanner.remove(fast);
+        assertEquals(1, scanner.getItemCount());
+        final int scans = fast.scans.get();
+        for (long time = start + 10000; time <= start + 12000; time += 10)
+            scanner.advance(time);
+        assertEquals(scans, fast.scans.get());
+    }
+
+    /** Items with periods that use the higher levels of the wheel */
+    @Test
+    public void testLongPeriod()
+    {
+        final long start = System.currentTimeMillis();
+        final TimingWheelScanner scanner = new TimingWheelScanner(0, 10, start);
+        final ScanItem hourly = new ScanItem();
+        final ScanItem daily = new ScanItem();
+        scanner.add(hourly, 60*60);
+        scanner.add(daily, 24*60*60);
+
+        scanner.advance(start + 59*60*1000);
+        assertEquals(0, hourly.scans.get());
+        assertTrue(scanner.getNextDueTime() - start >= 60*60*1000);
+
+        scanner.advance(start + 60*60*1000 + 1000);
+        assertEquals(1, hourly.scans.get());
+
+        // Larger steps, as if timer was late: Scans are skipped, not repeated
+        scanner.advance(start + 25*60*60*1000L);
+        assertEquals(1, daily.scans.get());
+        assertTrue(hourly.scans.get() < 5);
+        assertTrue(scanner.getSkippedScans() > 0);
+    }
+
+    /** Adding an item again replaces its period */
+    @Test
+    public void testReplace()
+    {
+        final long start = System.currentTimeMillis();
+        final TimingWheelScanner scanner = new TimingWheelScanner(0, 10, start);
+        final ScanItem item = new ScanItem();
+        scanner.add(item, 10.0);
+        scanner.add(item, 1.0);
+        assertEquals(1, scanner.getItemCount());
+        final long delay = scanner.getNextDueTime() - start;
+        assertTrue("About 1 second delay, got " + delay, delay >= 1000  &&  delay < 1100);
+
+        scanner.clear();
+        assertFalse(scanner.isDueAtAll());
+    }
+
+    /** Add and remove many items */
+    @Test
+    public void testManyItems()
+    {
+        final TimingWheelScanner scanner = new TimingWheelScanner(0);
+        final int N = 100000;
+        final ScanItem[] items = new ScanItem[N];
+        final long start = System.nanoTime();
+        for (int i=0; i<N; ++i)
+        {
+            items[i] = new ScanItem();
+            scanner.add(items[i], 1.0 + (i % 100) * 0.5);
+        }
+        for (int i=0; i<N; i += 2)
+            scanner.remove(items[i]);
+        final double secs = (System.nanoTime() - start) / 1e9;
+        System.out.format("Added %d items, removed half of them in %.3f sec\n", N, secs);
+        assertEquals(N/2, scanner.getItemCount());
+    }
+
+    /** Run timer and worker threads */
+    @Test
+    public void testWorkers() throws Exception
+    {
+        final TimingWheelScanner scanner = new TimingWheelScanner(2);
+        final ScanItem[] items = new ScanItem[10];
+        for (int i=0; i<items.length; ++i)
+        {
+            items[i] = new ScanItem();
+            scanner.add(items[i], 0.1);
+        }
+        scanner.start();
+        Thread.sleep(2000);
+        scanner.stop();
+        scanner.join();
+
+        for (ScanItem item : items)
+            assertTrue(item.scans.get() >= 15  &&  item.scans.get() <= 21);
+        System.out.println("Latency: " + scanner.getLatency());
+        System.out.println("Jitter : " + scanner.getJitter());
+        System.out.format("Idle: %.2f %%\n", scanner.getIdlePercentage());
+        assertEquals(scanner.getScanCount(), scanner.getLatency().getTotal());
+    }
+}
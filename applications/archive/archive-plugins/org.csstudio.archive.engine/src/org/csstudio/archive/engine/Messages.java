@@ -15,6 +15,7 @@ package org.csstudio.archive.engine;
 @SuppressWarnings("nls")
 public class Messages
 {
+    final public static String HTTP_Backlog = "Backlog";
     final public static String HTTP_BatchSize = "Batch Size";
     final public static String HTTP_Channel = "Channel";
     final public static String HTTP_ChannelCount = "Channels";
@@ -45,8 +46,14 @@ public class Messages
     final public static String HTTP_QueueCapacity = "Capacity";
     final public static String HTTP_QueueOverruns = "Overruns";
     final public static String HTTP_ReceivedValues = "Received Values";
+    final public static String HTTP_ScanJitter = "Scan Jitter";
+    final public static String HTTP_ScanLatency = "Scan Latency";
+    final public static String HTTP_ScanCount = "Scans";
+    final public static String HTTP_ScanSkipped = "Skipped Scans";
+    final public static String HTTP_ScanThreads = "Scan Threads";
     final public static String HTTP_StartTime = "Start Time";
     final public static String HTTP_State = "State";
+    final public static String HTTP_SpillJournal = "Spill Journal";
     final public static String HTTP_Status = "Status";
     final public static String HTTP_Total = "Total";
     final public static String HTTP_Uptime = "Uptime";
@@ -57,4 +64,6 @@ public class Messages
     final public static String HTTP_WriteError = "Write Error";
     final public static String HTTP_WritePeriod = "Write Period";
     final public static String HTTP_WriteState = "Write State";
+    final public static String HTTP_WriteThread = "Write Thread";
+    final public static String HTTP_WriteThreads = "Write Threads";
 }
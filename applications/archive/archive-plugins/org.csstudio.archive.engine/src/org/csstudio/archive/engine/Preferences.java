@@ -7,6 +7,9 @@
  ******************************************************************************/
 package org.csstudio.archive.engine;
 
+import java.util.logging.Level;
+
+import org.csstudio.archive.engine.model.WriteThreadPool;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.preferences.IPreferencesService;
 
@@ -58,5 +61,85 @@ public class Preferences
         return prefs.getDouble(Activator.ID, "buffer_reserve", buffer_reserve, null);
     }
 
+    public static int getWriteThreads()
+    {
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        final int write_threads = 1;
+        if (prefs == null)
+            return write_threads;
+        return Math.max(1, prefs.getInt(Activator.ID, "write_threads", write_threads, null));
+    }
+
+    public static int getScanThreads()
+    {
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        final int scan_threads = 2;
+        if (prefs == null)
+            return scan_threads;
+        return Math.max(0, prefs.getInt(Activator.ID, "scan_threads", scan_threads, null));
+    }
+
+    public static WriteThreadPool.Sharding getWriteSharding()
+    {
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        final WriteThreadPool.Sharding sharding = WriteThreadPool.Sharding.GROUP;
+        if (prefs == null)
+            return sharding;
+        final String setting = prefs.getString(Activator.ID, "write_sharding", sharding.name(), null);
+        try
+        {
+            return WriteThreadPool.Sharding.valueOf(setting.trim().toUpperCase());
+        }
+        catch (IllegalArgumentException ex)
+        {
+            Activator.getLogger().log(Level.WARNING, "Invalid write_sharding '" + setting + "', using " + sharding);
+            return sharding;
+        }
+    }
+
+    public static String getSpillDirectory()
+    {
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        if (prefs == null)
+            return "";
+        return prefs.getString(Activator.ID, "spill_directory", "", null).trim();
+    }
+
+    public static int getSpillSegmentMB()
+    {
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        final int spill_segment_mb = 64;
+        if (prefs == null)
+            return spill_segment_mb;
+        return prefs.getInt(Activator.ID, "spill_segment_mb", spill_segment_mb, null);
+    }
+
+    public static int getSpillMaxMB()
+    {
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        final int spill_max_mb = 1024;
+        if (prefs == null)
+            return spill_max_mb;
+        return prefs.getInt(Activator.ID, "spill_max_mb", spill_max_mb, null);
+    }
+
+    public static int getSpillHighWater()
+    {
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        final int spill_high_water = 80;
+        if (prefs == null)
+            return spill_high_water;
+        return prefs.getInt(Activator.ID, "spill_high_water", spill_high_water, null);
+    }
+
+    public static boolean useLockFreeBuffers()
+    {
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        final boolean lock_free_buffers = false;
+        if (prefs == null)
+            return lock_free_buffers;
+        return prefs.getBoolean(Activator.ID, "lock_free_buffers", lock_free_buffers, null);
+    }
+
 
 }
@@ -386,7 +386,7 @@ abstract public class ArchiveChannel extends PVListenerAdapter
 
         // Did we recover from write errors?
         if (need_write_error_sample &&
-            SampleBuffer.isInErrorState() == false)
+            buffer.hasWriteError() == false)
         {
             need_write_error_sample = false;
             Activator.getLogger().log(Level.FINE, "Wrote error sample for {0}", getName());
@@ -486,9 +486,12 @@ abstract public class ArchiveChannel extends PVListenerAdapter
             }
             // else ...
             last_archived_value = value;
+            // Add while holding the channel lock, so that samples
+            // from PV updates, scans and info samples are added
+            // by one thread at a time, as required by the lock-free buffer
+            buffer.add(value);
         }
-        buffer.add(value);
-        if (SampleBuffer.isInErrorState())
+        if (buffer.hasWriteError())
             need_write_error_sample = true;
         return true;
     }
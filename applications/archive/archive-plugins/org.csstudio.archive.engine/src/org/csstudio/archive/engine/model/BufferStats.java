@@ -7,9 +7,14 @@
  ******************************************************************************/
 package org.csstudio.archive.engine.model;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.csstudio.util.stats.Average;
 
 /** Buffer statistics
+ *  <p>
+ *  Overruns are counted without locking,
+ *  since they are added by the thread that adds samples.
  *  @author Kay Kasemir
  */
 public class BufferStats
@@ -18,7 +23,7 @@ public class BufferStats
 
     private Average average_size = new Average();
 
-    private int overruns = 0;
+    final private AtomicInteger overruns = new AtomicInteger();
 
     /** @return Maximum queue size so far
      *  @see #reset()
@@ -35,9 +40,9 @@ public class BufferStats
     }
 
     /** @return Number of buffer overruns. */
-    synchronized public final int getOverruns()
+    public final int getOverruns()
     {
-        return overruns;
+        return overruns.get();
     }
 
     /** Reset the statistics. */
@@ -45,7 +50,7 @@ public class BufferStats
     {
         max_size = 0;
         average_size.reset();
-        overruns = 0;
+        overruns.set(0);
     }
 
     /** Update the buffer stats.
@@ -59,8 +64,8 @@ public class BufferStats
     }
 
     /** Add an overrun. */
-    synchronized public void addOverrun()
+    public void addOverrun()
     {
-        ++overruns;
+        overruns.incrementAndGet();
     }
 }
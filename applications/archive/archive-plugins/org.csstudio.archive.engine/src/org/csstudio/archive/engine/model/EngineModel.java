@@ -20,8 +20,7 @@ import org.csstudio.archive.config.GroupConfig;
 import org.csstudio.archive.config.SampleMode;
 import org.csstudio.archive.engine.Activator;
 import org.csstudio.archive.engine.Preferences;
-import org.csstudio.archive.engine.scanner.ScanThread;
-import org.csstudio.archive.engine.scanner.Scanner;
+import org.csstudio.archive.engine.scanner.TimingWheelScanner;
 import org.csstudio.archive.vtype.ArchiveVString;
 import org.csstudio.archive.vtype.TimestampHelper;
 import org.diirt.vtype.AlarmSeverity;
@@ -40,8 +39,8 @@ public class EngineModel
     /** Name of this model */
     private String name = "Archive Engine";  //$NON-NLS-1$
 
-    /** Thread that writes to the <code>archive</code> */
-    final private WriteThread writer;
+    /** Threads that write to the <code>archive</code> */
+    final private WriteThreadPool writer;
 
     /** All the channels.
      *  <p>
@@ -62,10 +61,7 @@ public class EngineModel
     final List<ArchiveGroup> groups = new ArrayList<ArchiveGroup>();
 
     /** Scanner for scanned channels */
-    final Scanner scanner = new Scanner();
-
-    /** Thread that runs the scanner */
-    final ScanThread scan_thread = new ScanThread(scanner);
+    final TimingWheelScanner scanner = new TimingWheelScanner(Preferences.getScanThreads());
 
     /** Engine states */
     public enum State
@@ -106,7 +102,8 @@ public class EngineModel
     /** Construct model that writes to archive */
     public EngineModel()
     {
-        writer = new WriteThread();
+        writer = new WriteThreadPool(Preferences.getWriteThreads(),
+                                     Preferences.getWriteSharding());
     }
 
     /** @return Name (description) */
@@ -299,7 +296,7 @@ public class EngineModel
             channels.add(channel);
             channel_by_name.put(channel.getName(), channel);
         }
-        writer.addChannel(channel);
+        writer.addChannel(channel, group);
 
         // Connect new or old channel to group
         channel.addGroup(group);
@@ -323,7 +320,13 @@ public class EngineModel
             if (state == State.SHUTDOWN_REQUESTED)
                 break;
         }
-        scan_thread.start();
+        scanner.start();
+    }
+
+    /** @return Write threads */
+    public List<WriteThread> getWriteThreads()
+    {
+        return writer.getThreads();
     }
 
     /** @return Timestamp of end of last write run */
@@ -344,7 +347,13 @@ public class EngineModel
         return writer.getWriteDuration();
     }
 
-    /** @see Scanner#getIdlePercentage() */
+    /** @return Scanner for scanned channels */
+    public TimingWheelScanner getScanner()
+    {
+        return scanner;
+    }
+
+    /** @see TimingWheelScanner#getIdlePercentage() */
     public double getIdlePercentage()
     {
         return scanner.getIdlePercentage();
@@ -390,9 +399,9 @@ public class EngineModel
         state = State.STOPPING;
         Activator.getLogger().info("Stopping scanner");
         // Stop scanning
-        scan_thread.stop();
+        scanner.stop();
         // Assert that scanning has stopped before we add 'off' events
-        scan_thread.join();
+        scanner.join();
         // Disconnect from network
         Activator.getLogger().info("Stopping archive groups");
         for (ArchiveGroup group : groups)
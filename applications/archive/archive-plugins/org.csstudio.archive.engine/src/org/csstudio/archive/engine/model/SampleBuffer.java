@@ -10,6 +10,7 @@ package org.csstudio.archive.engine.model;
 import java.util.logging.Level;
 
 import org.csstudio.apputil.ringbuffer.RingBuffer;
+import org.csstudio.archive.engine.Preferences;
 import org.csstudio.archive.engine.ThrottledLogger;
 import org.diirt.vtype.VType;
 
@@ -18,6 +19,10 @@ import org.diirt.vtype.VType;
  *  Assumes that one thread adds samples, while a different
  *  thread removes them.
  *  When the queue size is reached, older samples get dropped.
+ *  <p>
+ *  By default, samples are kept in a locked {@link RingBuffer}.
+ *  In 'lock free' mode, they are kept in a {@link SampleRing},
+ *  which requires that only one thread at a time adds samples.
  *
  *  @author Kay Kasemir
  */
@@ -34,9 +39,14 @@ public class SampleBuffer
      */
     final private String retention;
 
-    /** The actual samples in a thread-save queue. */
+    /** The actual samples in a thread-save queue,
+     *  or <code>null</code> when using <code>ring</code>
+     */
     final private RingBuffer<VType> samples;
 
+    /** Lock-free samples, or <code>null</code> when using <code>samples</code> */
+    final private SampleRing ring;
+
     /** Statistics */
     final private BufferStats stats = new BufferStats();
 
@@ -47,10 +57,8 @@ public class SampleBuffer
     final private static ThrottledLogger overrun_msg =
         new ThrottledLogger(Level.WARNING, "log_overrun"); //$NON-NLS-1$
 
-    /** Is the buffer in an error state because of RDB write errors?
-     *  Note that this is global for all buffers, not per instance!
-     */
-    private static volatile boolean error = false;
+    /** Thread that writes this buffer, or <code>null</code> */
+    private volatile WriteThread write_thread = null;
 
     /** Create sample buffer of given capacity
      * @deprecated Use {@link #SampleBuffer(String,String,int)} instead*/
@@ -62,10 +70,28 @@ public class SampleBuffer
     /** Create sample buffer of given capacity
      * @param retention Sample retention policy (for archive); may be null if default/not supported*/
     SampleBuffer(final String channel_name, String retention, final int capacity)
+    {
+        this(channel_name, retention, capacity, Preferences.useLockFreeBuffers());
+    }
+
+    /** Create sample buffer of given capacity
+     *  @param retention Sample retention policy (for archive); may be null if default/not supported
+     *  @param lock_free Use lock-free buffer? Then only one thread may add samples.
+     */
+    SampleBuffer(final String channel_name, String retention, final int capacity, final boolean lock_free)
     {
         this.channel_name = channel_name;
         this.retention = retention;
-        samples = new RingBuffer<VType>(capacity);
+        if (lock_free)
+        {
+            samples = null;
+            ring = new SampleRing(capacity);
+        }
+        else
+        {
+            samples = new RingBuffer<VType>(capacity);
+            ring = null;
+        }
     }
 
     /** @return channel name of this buffer */
@@ -83,6 +109,8 @@ public class SampleBuffer
     /** @return Queue capacity, i.e. maximum queue size. */
     public int getCapacity()
     {
+        if (ring != null)
+            return ring.getCapacity();
         synchronized (samples)
         {
             return samples.getCapacity();
@@ -92,49 +120,75 @@ public class SampleBuffer
     /** @return Current queue size, i.e. number of samples in the queue. */
     public int getQueueSize()
     {
+        if (ring != null)
+            return ring.size();
         synchronized (samples)
         {
             return samples.size();
         }
     }
 
-    /** @return <code>true</code> if currently experiencing write errors */
+    /** @return <code>true</code> if any write thread currently experiences write errors */
     public static boolean isInErrorState()
     {
-        return error;
+        return WriteThread.isAnyInErrorState();
     }
 
-    /** Set the error state. */
-    static void setErrorState(final boolean error)
+    /** @param write_thread Thread that writes this buffer */
+    void setWriteThread(final WriteThread write_thread)
     {
-        SampleBuffer.error = error;
+        this.write_thread = write_thread;
+    }
+
+    /** @return <code>true</code> if the thread that writes this buffer currently experiences write errors */
+    boolean hasWriteError()
+    {
+        final WriteThread thread = write_thread;
+        if (thread == null)
+            return WriteThread.isAnyInErrorState();
+        return thread.isInErrorState();
     }
 
     /** Add a sample to the queue, maybe dropping older samples */
-    @SuppressWarnings("nls")
     void add(final VType value)
     {
+        if (ring != null)
+        {
+            checkOverrun(ring.add(value));
+            return;
+        }
         synchronized (samples)
         {
-            if (samples.isFull())
-            {   // Note start of overruns, then drop older sample
-                if (start_of_overruns == null)
-                    start_of_overruns = Integer.valueOf(stats.getOverruns());
-                stats.addOverrun();
-            }
-            else if (start_of_overruns != null)
-            {   // Ending a string of overruns. Maybe log it.
-                final int overruns = stats.getOverruns() - start_of_overruns;
-                overrun_msg.log(channel_name + ": " + overruns + " overruns");
-                start_of_overruns = null;
-            }
+            checkOverrun(samples.isFull());
             samples.add(value);
         }
     }
 
+    /** Update overrun statistics
+     *  @param overrun Did adding a sample drop an older one?
+     */
+    @SuppressWarnings("nls")
+    private void checkOverrun(final boolean overrun)
+    {
+        if (overrun)
+        {   // Note start of overruns
+            if (start_of_overruns == null)
+                start_of_overruns = Integer.valueOf(stats.getOverruns());
+            stats.addOverrun();
+        }
+        else if (start_of_overruns != null)
+        {   // Ending a string of overruns. Maybe log it.
+            final int overruns = stats.getOverruns() - start_of_overruns;
+            overrun_msg.log(channel_name + ": " + overruns + " overruns");
+            start_of_overruns = null;
+        }
+    }
+
     /** @return latest sample in queue or <code>null</code> if empty */
     VType remove()
     {
+        if (ring != null)
+            return ring.remove();
         synchronized (samples)
         {
             return samples.remove();
@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.model;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.csstudio.archive.vtype.ArchiveVNumber;
+import org.csstudio.archive.vtype.MetaDataHelper;
+import org.diirt.vtype.Alarm;
+import org.diirt.vtype.AlarmSeverity;
+import org.diirt.vtype.Display;
+import org.diirt.vtype.Time;
+import org.diirt.vtype.VNumber;
+import org.diirt.vtype.VType;
+
+/** Lock-free ring of samples for one producer and one consumer thread.
+ *  <p>
+ *  Scalar numbers are kept in parallel primitive arrays
+ *  for value, time stamp and severity.
+ *  Status text and display meta data are kept by reference,
+ *  sharing one display for consecutive samples with the same meta data.
+ *  Only when a sample is removed for writing is it turned
+ *  back into a {@link VType}.
+ *  Other types (strings, enums, arrays) are kept as-is.
+ *  <p>
+ *  When full, the producer drops the oldest sample
+ *  by advancing the read position.
+ *  The consumer detects this because its own attempt to
+ *  advance the read position fails, and then simply retries.
+ *  <p>
+ *  Calls to {@link #add(VType)} must not overlap,
+ *  same for {@link #remove()}.
+ *
+ *  @author Kay Kasemir
+ */
+class SampleRing
+{
+    /** Slot holds a VType in <code>objects</code> */
+    private static final byte OBJECT = 0;
+
+    /** Slot holds a double in <code>doubles</code> */
+    private static final byte DOUBLE = 1;
+
+    /** Slot holds an integer number in <code>longs</code> */
+    private static final byte LONG = 2;
+
+    private static final AlarmSeverity[] severities = AlarmSeverity.values();
+
+    final private int capacity;
+
+    final private byte[] types;
+    final private double[] doubles;
+    final private long[] longs;
+    final private long[] seconds;
+    final private int[] nanos;
+    final private byte[] severity;
+    final private String[] status;
+    final private Display[] display;
+    final private VType[] objects;
+
+    /** Most recently added display info, only accessed by producer */
+    private Display last_display = null;
+
+    /** Read position, only ever increments.
+     *  Advanced by consumer, or by producer on overrun.
+     */
+    final private AtomicLong head = new AtomicLong();
+
+    /** Write position, only ever increments.
+     *  Advanced by producer.
+     */
+    final private AtomicLong tail = new AtomicLong();
+
+    /** @param capacity Number of samples in ring */
+    SampleRing(final int capacity)
+    {
+        this.capacity = capacity;
+        types = new byte[capacity];
+        doubles = new double[capacity];
+        longs = new long[capacity];
+        seconds = new long[capacity];
+        nanos = new int[capacity];
+        severity = new byte[capacity];
+        status = new String[capacity];
+        display = new Display[capacity];
+        objects = new VType[capacity];
+    }
+
+    /** @return Capacity of the ring */
+    int getCapacity()
+    {
+        return capacity;
+    }
+
+    /** @return Number of samples in the ring */
+    int size()
+    {
+        // Read head first: tail can only grow, so result is never negative
+        final long h = head.get();
+        final long size = tail.get() - h;
+        return (int) Math.min(size, capacity);
+    }
+
+    /** Add sample, dropping oldest sample when full
+     *  @param value Value to add
+     *  @return <code>true</code> if a sample had to be dropped
+     */
+    boolean add(final VType value)
+    {
+        final long t = tail.get();
+        boolean overrun = false;
+        long h = head.get();
+        while (t - h >= capacity)
+        {   // Drop oldest sample. May fail if consumer just removed it.
+            if (head.compareAndSet(h, h+1))
+            {
+                overrun = true;
+                break;
+            }
+            h = head.get();
+        }
+        final int i = (int) (t % capacity);
+        if (value instanceof VNumber  &&  value instanceof Alarm  &&
+            value instanceof Time  &&  value instanceof Display)
+        {
+            final Number number = ((VNumber) value).getValue();
+            if (number instanceof Double  ||  number instanceof Float)
+            {
+                types[i] = DOUBLE;
+                doubles[i] = number.doubleValue();
+            }
+            else
+            {
+                types[i] = LONG;
+                longs[i] = number.longValue();
+            }
+            final Instant time = ((Time) value).getTimestamp();
+            seconds[i] = time.getEpochSecond();
+            nanos[i] = time.getNano();
+            final Alarm alarm = (Alarm) value;
+            severity[i] = (byte) alarm.getAlarmSeverity().ordinal();
+            status[i] = alarm.getAlarmName();
+            // Keep the first of a run of samples with equal meta data,
+            // so the remaining samples are not referenced
+            if (last_display == null  ||  ! MetaDataHelper.equals(last_display, value))
+                last_display = (Display) value;
+            display[i] = last_display;
+            objects[i] = null;
+        }
+        else
+        {
+            types[i] = OBJECT;
+            objects[i] = value;
+        }
+        // Publish the slot
+        tail.lazySet(t+1);
+        return overrun;
+    }
+
+    /** @return Oldest sample or <code>null</code> if empty */
+    VType remove()
+    {
+        while (true)
+        {
+            final long h = head.get();
+            if (h >= tail.get())
+                return null;
+            final int i = (int) (h % capacity);
+            final VType value;
+            if (types[i] == OBJECT)
+                value = objects[i];
+            else
+            {
+                final long secs = seconds[i];
+                final int nano = nanos[i];
+                final AlarmSeverity sevr = severities[severity[i]];
+                final String stat = status[i];
+                final Display disp = display[i];
+                final Number number = types[i] == DOUBLE
+                                    ? Double.valueOf(doubles[i])
+                                    : Long.valueOf(longs[i]);
+                value = new ArchiveVNumber(Instant.ofEpochSecond(secs, nano), sevr, stat, disp, number);
+            }
+            // If the producer dropped this slot while we read it,
+            // the read may be garbage: Skip it and try the next one
+            if (head.compareAndSet(h, h+1))
+                return value;
+        }
+    }
+}
@@ -0,0 +1,719 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.model;
+
+import java.io.File;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.text.NumberFormat;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.logging.Level;
+
+import org.csstudio.archive.engine.Activator;
+import org.csstudio.archive.vtype.ArchiveVEnum;
+import org.csstudio.archive.vtype.ArchiveVNumber;
+import org.csstudio.archive.vtype.ArchiveVNumberArray;
+import org.csstudio.archive.vtype.ArchiveVString;
+import org.csstudio.archive.vtype.VTypeHelper;
+import org.csstudio.archive.writer.ArchiveWriter;
+import org.csstudio.archive.writer.WriteChannel;
+import org.diirt.util.array.ListNumber;
+import org.diirt.util.text.NumberFormats;
+import org.diirt.vtype.AlarmSeverity;
+import org.diirt.vtype.Display;
+import org.diirt.vtype.VEnum;
+import org.diirt.vtype.VNumber;
+import org.diirt.vtype.VNumberArray;
+import org.diirt.vtype.VString;
+import org.diirt.vtype.VType;
+import org.diirt.vtype.ValueFactory;
+
+/** Append-only journal on local disk for samples that cannot be written.
+ *  <p>
+ *  While the archive cannot be reached, or when a sample buffer
+ *  fills beyond its high-water mark because writes are too slow,
+ *  the write thread moves samples from its sample buffers
+ *  into the journal instead of letting the buffers overrun.
+ *  Once the archive can be reached again, the samples of all segments
+ *  are replayed through the <code>ArchiveWriter</code> in time stamp order.
+ *  <p>
+ *  The journal is a sequence of memory-mapped segment files.
+ *  Each segment is self-contained: It lists the channels
+ *  used in that segment, followed by their samples.
+ *  Total disk usage is limited to a maximum number of segments.
+ *  Segments left over from a previous run, for example after a crash,
+ *  are replayed on startup.
+ *  <p>
+ *  Not thread-safe, only to be used by one write thread.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class SpillJournal
+{
+    /** Segment file header magic number, 'SPIL' */
+    private static final int MAGIC = 0x5350494C;
+
+    /** Segment file format version */
+    private static final int VERSION = 1;
+
+    /** Header: Magic, version, replayed sample count, unused */
+    private static final int HEADER_SIZE = 16;
+
+    /** Offset of replayed sample count in header */
+    private static final int REPLAYED_OFFSET = 8;
+
+    /** Record types */
+    private static final byte CHANNEL = 1, SAMPLE = 2;
+
+    /** Sample value types */
+    private static final byte DOUBLE = 1, LONG = 2, STRING = 3, ENUM = 4, DOUBLE_ARRAY = 5;
+
+    private static final AlarmSeverity[] severities = AlarmSeverity.values();
+
+    /** Directory for segment files */
+    final private File directory;
+
+    /** Size of one segment file */
+    final private int segment_size;
+
+    /** Maximum number of segment files */
+    final private int max_segments;
+
+    /** Segment files by number, oldest first */
+    final private TreeMap<Integer, File> segments = new TreeMap<Integer, File>();
+
+    /** Number of segment files, for access by other threads */
+    private volatile int segment_count = 0;
+
+    /** Number of the next segment file */
+    private int next_segment = 0;
+
+    /** Segment that's currently written, or <code>null</code> */
+    private MappedByteBuffer current = null;
+
+    /** Channel IDs used in the current segment */
+    final private Map<SampleBuffer, Integer> channel_ids = new HashMap<SampleBuffer, Integer>();
+
+    /** Number of samples in the journal */
+    private volatile long sample_count = 0;
+
+    /** Number of samples that were dropped because the journal was full */
+    private volatile long dropped = 0;
+
+    /** Create journal, picking up segments left from a previous run
+     *  @param directory Directory for segment files
+     *  @param segment_size Size of one segment file in bytes
+     *  @param max_size Maximum total size of the journal in bytes
+     *  @throws Exception on error
+     */
+    public SpillJournal(final File directory, final int segment_size, final long max_size) throws Exception
+    {
+        if (! directory.isDirectory()  &&  ! directory.mkdirs())
+            throw new Exception("Cannot create spill journal directory " + directory);
+        this.directory = directory;
+        this.segment_size = segment_size;
+        this.max_segments = (int) Math.max(1, max_size / segment_size);
+
+        final File[] files = directory.listFiles();
+        if (files != null)
+            for (File file : files)
+            {
+                final Integer number = parseSegmentNumber(file.getName());
+                if (number != null)
+                {
+                    segments.put(number, file);
+                    next_segment = Math.max(next_segment, number + 1);
+                }
+            }
+        segment_count = segments.size();
+        if (! segments.isEmpty())
+            Activator.getLogger().log(Level.WARNING, "Found {0} spill journal segments in {1}, will replay",
+                                      new Object[] { segments.size(), directory });
+    }
+
+    /** @param name File name
+     *  @return Segment number or <code>null</code> if not a segment file
+     */
+    private static Integer parseSegmentNumber(final String name)
+    {
+        if (! (name.startsWith("spill-")  &&  name.endsWith(".dat")))
+            return null;
+        try
+        {
+            return Integer.valueOf(name.substring(6, name.length() - 4));
+        }
+        catch (NumberFormatException ex)
+        {
+            return null;
+        }
+    }
+
+    /** @return Directory of the journal */
+    public File getDirectory()
+    {
+        return directory;
+    }
+
+    /** @return <code>true</code> if there are no segments to replay */
+    public boolean isEmpty()
+    {
+        return segments.isEmpty();
+    }
+
+    /** @return Number of samples spilled since the last replay */
+    public long getSampleCount()
+    {
+        return sample_count;
+    }
+
+    /** @return Number of samples dropped because the journal was full */
+    public long getDroppedSamples()
+    {
+        return dropped;
+    }
+
+    /** @return Disk space used by the journal in bytes */
+    public long getDiskUsage()
+    {
+        return (long) segment_count * segment_size;
+    }
+
+    /** Move all samples of a buffer into the journal
+     *  @param buffer Sample buffer to drain
+     *  @return Number of samples spilled
+     *  @throws Exception on I/O error
+     */
+    public int spill(final SampleBuffer buffer) throws Exception
+    {
+        int count = 0;
+        VType sample;
+        while ((sample = buffer.remove()) != null)
+        {
+            if (append(buffer, sample))
+                ++count;
+            else
+            {   // Journal full, or sample too large for a segment
+                ++dropped;
+                buffer.getBufferStats().addOverrun();
+            }
+        }
+        sample_count += count;
+        return count;
+    }
+
+    /** Append one sample, starting a new segment when necessary
+     *  @param buffer Buffer of the sample's channel
+     *  @param sample Sample to add
+     *  @return <code>true</code> if added
+     *  @throws Exception on I/O error
+     */
+    private boolean append(final SampleBuffer buffer, final VType sample) throws Exception
+    {
+        for (int attempt=0; attempt<2; ++attempt)
+        {
+            if (current == null  &&  ! startSegment())
+                return false;
+            final int start = current.position();
+            try
+            {
+                Integer id = channel_ids.get(buffer);
+                if (id == null)
+                {
+                    id = channel_ids.size();
+                    writeChannel(id, buffer);
+                    channel_ids.put(buffer, id);
+                }
+                writeSample(id, sample);
+                // Zero length marks the end of valid records
+                if (current.remaining() >= Integer.BYTES)
+                    current.putInt(current.position(), 0);
+                return true;
+            }
+            catch (BufferOverflowException ex)
+            {   // Remove partial record, continue in next segment
+                current.position(start);
+                if (current.limit() - start >= Integer.BYTES)
+                    current.putInt(start, 0);
+                closeSegment();
+            }
+        }
+        Activator.getLogger().log(Level.WARNING,
+            "Sample for {0} exceeds spill journal segment size", buffer.getChannelName());
+        return false;
+    }
+
+    /** Create new segment file
+     *  @return <code>false</code> if maximum journal size reached
+     *  @throws Exception on I/O error
+     */
+    private boolean startSegment() throws Exception
+    {
+        if (segments.size() >= max_segments)
+            return false;
+        final int number = next_segment++;
+        final File file = new File(directory, String.format("spill-%08d.dat", number));
+        try
+        (
+            final FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        )
+        {
+            current = channel.map(FileChannel.MapMode.READ_WRITE, 0, segment_size);
+        }
+        current.putInt(MAGIC);
+        current.putInt(VERSION);
+        current.putInt(0);
+        current.putInt(0);
+        current.putInt(HEADER_SIZE, 0);
+        segments.put(number, file);
+        segment_count = segments.size();
+        channel_ids.clear();
+        return true;
+    }
+
+    /** Flush and close the current segment */
+    private void closeSegment()
+    {
+        if (current == null)
+            return;
+        current.force();
+        current = null;
+        channel_ids.clear();
+    }
+
+    /** Flush samples to disk, start new segment with next spill */
+    public void close()
+    {
+        closeSegment();
+    }
+
+    private void writeChannel(final int id, final SampleBuffer buffer)
+    {
+        final int start = current.position();
+        current.putInt(0);
+        current.put(CHANNEL);
+        current.putInt(id);
+        putString(buffer.getChannelName());
+        putString(buffer.getArchiveDataRetention());
+        current.putInt(start, current.position() - start - Integer.BYTES);
+    }
+
+    private void writeSample(final int id, final VType sample)
+    {
+        final int start = current.position();
+        current.putInt(0);
+        current.put(SAMPLE);
+        current.putInt(id);
+        final Instant time = VTypeHelper.getTimestamp(sample);
+        current.putLong(time.getEpochSecond());
+        current.putInt(time.getNano());
+        current.put((byte) VTypeHelper.getSeverity(sample).ordinal());
+        putString(VTypeHelper.getMessage(sample));
+        if (sample instanceof VNumber)
+        {
+            final Number number = ((VNumber) sample).getValue();
+            if (number instanceof Double  ||  number instanceof Float)
+            {
+                current.put(DOUBLE);
+                current.putDouble(number.doubleValue());
+            }
+            else
+            {
+                current.put(LONG);
+                current.putLong(number.longValue());
+            }
+            putDisplay(sample);
+        }
+        else if (sample instanceof VNumberArray)
+        {
+            current.put(DOUBLE_ARRAY);
+            final ListNumber data = ((VNumberArray) sample).getData();
+            final int size = data.size();
+            current.putInt(size);
+            for (int i=0; i<size; ++i)
+                current.putDouble(data.getDouble(i));
+            putDisplay(sample);
+        }
+        else if (sample instanceof VEnum)
+        {
+            current.put(ENUM);
+            final VEnum value = (VEnum) sample;
+            current.putInt(value.getIndex());
+            final List<String> labels = value.getLabels();
+            current.putInt(labels.size());
+            for (String label : labels)
+                putString(label);
+        }
+        else
+        {
+            current.put(STRING);
+            putString(sample instanceof VString
+                      ? ((VString) sample).getValue()
+                      : sample.toString());
+        }
+        current.putInt(start, current.position() - start - Integer.BYTES);
+    }
+
+    private void putDisplay(final VType sample)
+    {
+        if (! (sample instanceof Display))
+        {
+            current.put((byte) 0);
+            return;
+        }
+        final Display display = (Display) sample;
+        current.put((byte) 1);
+        putDouble(display.getLowerDisplayLimit());
+        putDouble(display.getLowerAlarmLimit());
+        putDouble(display.getLowerWarningLimit());
+        putString(display.getUnits());
+        final NumberFormat format = display.getFormat();
+        current.putInt(format == null ? -1 : format.getMaximumFractionDigits());
+        putDouble(display.getUpperWarningLimit());
+        putDouble(display.getUpperAlarmLimit());
+        putDouble(display.getUpperDisplayLimit());
+        putDouble(display.getLowerCtrlLimit());
+        putDouble(display.getUpperCtrlLimit());
+    }
+
+    private void putDouble(final Double value)
+    {
+        current.putDouble(value == null ? Double.NaN : value.doubleValue());
+    }
+
+    /** @param text Text to write, may be <code>null</code> */
+    private void putString(final String text)
+    {
+        if (text == null)
+        {
+            current.putInt(-1);
+            return;
+        }
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        current.putInt(bytes.length);
+        current.put(bytes);
+    }
+
+    /** Write all journal segments to the archive in time stamp order.
+     *  <p>
+     *  The samples of all segments are merged, so a channel
+     *  that was spilled into several segments and
+     *  channels spilled at different times are written
+     *  in global time stamp order.
+     *  Segments are deleted once they have been written.
+     *  When interrupted by an error, the next replay continues
+     *  after the last flushed batch.
+     *
+     *  @param writer Writer to use
+     *  @param batch_size Number of samples to write per batch
+     *  @return Number of samples written
+     *  @throws Exception on error
+     */
+    public long replay(final ArchiveWriter writer, final int batch_size) throws Exception
+    {
+        closeSegment();
+        // Index all segments, each sorted by time stamp
+        final List<Segment> indexed = new ArrayList<Segment>();
+        final PriorityQueue<Segment> queue = new PriorityQueue<Segment>();
+        for (Map.Entry<Integer, File> entry : segments.entrySet())
+        {
+            final Segment segment = Segment.read(entry.getKey(), entry.getValue(), writer);
+            if (segment == null)
+                continue;
+            indexed.add(segment);
+            if (segment.hasNext())
+                queue.add(segment);
+        }
+
+        // Merge: Always write the oldest sample of all segments.
+        // For equal time stamps, the older segment goes first.
+        long written = 0;
+        Segment segment;
+        while ((segment = queue.poll()) != null)
+        {
+            segment.writeNext(writer);
+            if (segment.hasNext())
+                queue.add(segment);
+            if (++written % batch_size == 0)
+            {
+                writer.flush();
+                for (Segment s : indexed)
+                    s.markReplayed(false);
+            }
+        }
+        writer.flush();
+        for (Segment s : indexed)
+            s.markReplayed(true);
+
+        for (File file : segments.values())
+            if (! file.delete())
+                Activator.getLogger().log(Level.WARNING, "Cannot delete spill journal segment {0}", file);
+        segments.clear();
+        segment_count = 0;
+        sample_count = 0;
+        Activator.getLogger().log(Level.INFO, "Replayed {0} samples from spill journal {1}",
+                                  new Object[] { written, directory });
+        return written;
+    }
+
+    /** Index of the samples in one segment file, used for replay
+     *  <p>
+     *  Samples are sorted by time stamp.
+     *  Since a replay always writes the oldest remaining sample of all segments,
+     *  the samples written from each segment are the first ones in that order,
+     *  and the header's replayed sample count tells where to continue.
+     */
+    private static class Segment implements Comparable<Segment>
+    {
+        final private int number;
+        final private MappedByteBuffer buf;
+        final private List<WriteChannel> channels;
+        final private long[] stamps;
+        final private int[] offsets;
+        final private int count;
+        private int next;
+
+        private Segment(final int number, final MappedByteBuffer buf, final List<WriteChannel> channels,
+                        final long[] stamps, final int[] offsets, final int count, final int next)
+        {
+            this.number = number;
+            this.buf = buf;
+            this.channels = channels;
+            this.stamps = stamps;
+            this.offsets = offsets;
+            this.count = count;
+            this.next = next;
+        }
+
+        /** @param number Segment number
+         *  @param file Segment file
+         *  @param writer Writer used to locate channels
+         *  @return Segment or <code>null</code> if file is not a valid segment
+         *  @throws Exception on error
+         */
+        static Segment read(final int number, final File file, final ArchiveWriter writer) throws Exception
+        {
+            final MappedByteBuffer buf;
+            try
+            (
+                final FileChannel channel = FileChannel.open(file.toPath(),
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            )
+            {
+                buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            }
+            if (buf.limit() < HEADER_SIZE  ||  buf.getInt(0) != MAGIC  ||  buf.getInt(4) != VERSION)
+            {
+                Activator.getLogger().log(Level.WARNING, "Skipping invalid spill journal segment {0}", file);
+                return null;
+            }
+
+            // Locate channels and samples
+            final List<WriteChannel> channels = new ArrayList<WriteChannel>();
+            long[] stamps = new long[1024];
+            int[] offsets = new int[1024];
+            int count = 0;
+            int pos = HEADER_SIZE;
+            while (pos + Integer.BYTES <= buf.limit())
+            {
+                final int length = buf.getInt(pos);
+                if (length <= 0  ||  pos + Integer.BYTES + length > buf.limit())
+                    break;
+                final int record = pos + Integer.BYTES;
+                buf.position(record);
+                final byte type = buf.get();
+                final int id = buf.getInt();
+                if (type == CHANNEL)
+                {
+                    final String name = getString(buf);
+                    final String retention = getString(buf);
+                    while (channels.size() <= id)
+                        channels.add(null);
+                    channels.set(id, writer.getChannel(name, retention));
+                }
+                else if (type == SAMPLE)
+                {
+                    if (count >= offsets.length)
+                    {
+                        stamps = Arrays.copyOf(stamps, 2*count);
+                        offsets = Arrays.copyOf(offsets, 2*count);
+                    }
+                    final long secs = buf.getLong();
+                    final int nano = buf.getInt();
+                    stamps[count] = secs * 1000000000L + nano;
+                    offsets[count] = record;
+                    ++count;
+                }
+                pos = record + length;
+            }
+            sort(stamps, offsets, 0, count - 1);
+            final int replayed = Math.min(Math.max(0, buf.getInt(REPLAYED_OFFSET)), count);
+            return new Segment(number, buf, channels, stamps, offsets, count, replayed);
+        }
+
+        /** @return <code>true</code> if there are more samples to write */
+        boolean hasNext()
+        {
+            return next < count;
+        }
+
+        /** Write next sample
+         *  @param writer Writer to use
+         *  @throws Exception on error
+         */
+        void writeNext(final ArchiveWriter writer) throws Exception
+        {
+            buf.position(offsets[next] + 1);
+            final WriteChannel channel = channels.get(buf.getInt());
+            writer.addSample(channel, readSample(buf));
+            ++next;
+        }
+
+        /** Remember how many samples have been written
+         *  @param force Force the count to disk?
+         */
+        void markReplayed(final boolean force)
+        {
+            buf.putInt(REPLAYED_OFFSET, next);
+            if (force)
+                buf.force();
+        }
+
+        /** Order by time stamp of next sample, then segment number */
+        @Override
+        public int compareTo(final Segment other)
+        {
+            final int cmp = Long.compare(stamps[next], other.stamps[other.next]);
+            if (cmp != 0)
+                return cmp;
+            return Integer.compare(number, other.number);
+        }
+    }
+
+    /** @param buf Buffer positioned on sample's time stamp
+     *  @return Sample
+     */
+    private static VType readSample(final ByteBuffer buf)
+    {
+        final Instant time = Instant.ofEpochSecond(buf.getLong(), buf.getInt());
+        final AlarmSeverity severity = severities[buf.get()];
+        final String status = getString(buf);
+        final byte type = buf.get();
+        switch (type)
+        {
+        case DOUBLE:
+        {
+            final double value = buf.getDouble();
+            return new ArchiveVNumber(time, severity, status, getDisplay(buf), value);
+        }
+        case LONG:
+        {
+            final long value = buf.getLong();
+            return new ArchiveVNumber(time, severity, status, getDisplay(buf), value);
+        }
+        case DOUBLE_ARRAY:
+        {
+            final double[] data = new double[buf.getInt()];
+            for (int i=0; i<data.length; ++i)
+                data[i] = buf.getDouble();
+            return new ArchiveVNumberArray(time, severity, status, getDisplay(buf), data);
+        }
+        case ENUM:
+        {
+            final int index = buf.getInt();
+            final int count = buf.getInt();
+            final List<String> labels = new ArrayList<String>(count);
+            for (int i=0; i<count; ++i)
+                labels.add(getString(buf));
+            return new ArchiveVEnum(time, severity, status, labels, index);
+        }
+        default:
+            return new ArchiveVString(time, severity, status, getString(buf));
+        }
+    }
+
+    private static Display getDisplay(final ByteBuffer buf)
+    {
+        if (buf.get() == 0)
+            return null;
+        final double lower_display = buf.getDouble();
+        final double lower_alarm = buf.getDouble();
+        final double lower_warning = buf.getDouble();
+        final String units = getString(buf);
+        final int precision = buf.getInt();
+        final double upper_warning = buf.getDouble();
+        final double upper_alarm = buf.getDouble();
+        final double upper_display = buf.getDouble();
+        final double lower_ctrl = buf.getDouble();
+        final double upper_ctrl = buf.getDouble();
+        return ValueFactory.newDisplay(lower_display, lower_alarm, lower_warning, units,
+                precision < 0 ? null : NumberFormats.format(precision),
+                upper_warning, upper_alarm, upper_display, lower_ctrl, upper_ctrl);
+    }
+
+    private static String getString(final ByteBuffer buf)
+    {
+        final int length = buf.getInt();
+        if (length < 0)
+            return null;
+        final byte[] bytes = new byte[length];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Sort samples by time stamp, keeping the original order for equal stamps
+     *  @param stamps Time stamps
+     *  @param offsets Offsets of the samples, sorted along with the stamps
+     *  @param low First index to sort
+     *  @param high Last index to sort
+     */
+    private static void sort(final long[] stamps, final int[] offsets, final int low, final int high)
+    {
+        if (low >= high)
+            return;
+        final int mid = (low + high) >>> 1;
+        sort(stamps, offsets, low, mid);
+        sort(stamps, offsets, mid+1, high);
+        if (stamps[mid] <= stamps[mid+1])
+            return;
+        // Merge
+        final long[] left_stamps = Arrays.copyOfRange(stamps, low, mid+1);
+        final int[] left_offsets = Arrays.copyOfRange(offsets, low, mid+1);
+        int l = 0, r = mid+1, o = low;
+        while (l < left_stamps.length  &&  r <= high)
+        {
+            if (left_stamps[l] <= stamps[r])
+            {
+                stamps[o] = left_stamps[l];
+                offsets[o++] = left_offsets[l++];
+            }
+            else
+            {
+                stamps[o] = stamps[r];
+                offsets[o++] = offsets[r++];
+            }
+        }
+        while (l < left_stamps.length)
+        {
+            stamps[o] = left_stamps[l];
+            offsets[o++] = left_offsets[l++];
+        }
+    }
+}
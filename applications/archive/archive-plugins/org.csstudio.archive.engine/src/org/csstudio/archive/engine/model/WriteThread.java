@@ -9,6 +9,8 @@ package org.csstudio.archive.engine.model;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
 import org.csstudio.apputil.time.BenchmarkTimer;
@@ -29,6 +31,16 @@ import org.diirt.vtype.VType;
  *  be lost.
  *  The channels that add samples to the sample buffer supposedly notice
  *  the error condition and add a special indicator once we recover.
+ *  <p>
+ *  Several write threads can be used, see {@link WriteThreadPool},
+ *  each with its own set of sample buffers, writer and error state.
+ *  <p>
+ *  With a {@link SpillJournal}, samples are moved from the buffers
+ *  into the journal while in error state, and replayed
+ *  once the archive can be written again.
+ *  Buffers that fill beyond a high-water mark are also moved
+ *  into the journal, even while writes succeed,
+ *  so that slow writes do not cause buffer overruns.
  *
  *  @author Kay Kasemir
  */
@@ -37,13 +49,33 @@ public class WriteThread implements Runnable
     /** Minimum write period [seconds] */
     private static final double MIN_WRITE_PERIOD = 5.0;
 
+    /** Period for moving samples into the spill journal [millisec] */
+    private static final long SPILL_PERIOD_MS = 1000;
+
+    /** Number of write threads that are currently in error state */
+    private static final AtomicInteger threads_in_error = new AtomicInteger();
+
+    /** Name of this thread */
+    final private String name;
+
     /** Server to which this thread writes. */
     private ArchiveWriter writer;
 
-    /** All the sample buffers this thread writes. */
-    final private ArrayList<SampleBuffer> buffers =
+    /** All the sample buffers this thread writes.
+     *  Populated before start(), then only read.
+     */
+    final private List<SampleBuffer> buffers =
         new ArrayList<SampleBuffer>();
 
+    /** Does this thread currently experience write errors? */
+    private volatile boolean in_error = false;
+
+    /** Journal for samples that cannot be written, or <code>null</code> */
+    private SpillJournal journal = null;
+
+    /** Buffer fill level in percent above which samples are spilled */
+    private int spill_high_water = 80;
+
     /** Flag that tells the write thread to run or quit. */
     private boolean do_run;
 
@@ -70,6 +102,27 @@ public class WriteThread implements Runnable
     /** Thread the executes this.run() */
     private Thread thread;
 
+    /** Create write thread */
+    @SuppressWarnings("nls")
+    public WriteThread()
+    {
+        this("WriteThread");
+    }
+
+    /** Create write thread
+     *  @param name Name of the thread
+     */
+    public WriteThread(final String name)
+    {
+        this.name = name;
+    }
+
+    /** @return Name of the thread */
+    public String getName()
+    {
+        return name;
+    }
+
     /** Add a channel's buffer that this thread reads */
     public void addChannel(final ArchiveChannel channel)
     {
@@ -80,6 +133,61 @@ public class WriteThread implements Runnable
     void addSampleBuffer(final SampleBuffer buffer)
     {
         buffers.add(buffer);
+        buffer.setWriteThread(this);
+    }
+
+    /** @param journal Journal for samples that cannot be written. Must be set before start() */
+    public void setSpillJournal(final SpillJournal journal)
+    {
+        this.journal = journal;
+    }
+
+    /** @param percent Buffer fill level in percent above which samples are moved into the spill journal */
+    public void setSpillHighWater(final int percent)
+    {
+        spill_high_water = percent;
+    }
+
+    /** @return Journal for samples that cannot be written, or <code>null</code> */
+    public SpillJournal getSpillJournal()
+    {
+        return journal;
+    }
+
+    /** @return Number of sample buffers written by this thread */
+    public int getBufferCount()
+    {
+        return buffers.size();
+    }
+
+    /** @return Number of samples waiting to be written by this thread */
+    public int getBacklog()
+    {
+        int backlog = 0;
+        for (SampleBuffer buffer : buffers)
+            backlog += buffer.getQueueSize();
+        return backlog;
+    }
+
+    /** @return <code>true</code> if this thread currently experiences write errors */
+    public boolean isInErrorState()
+    {
+        return in_error;
+    }
+
+    /** @return <code>true</code> if any write thread currently experiences write errors */
+    static boolean isAnyInErrorState()
+    {
+        return threads_in_error.get() > 0;
+    }
+
+    /** @param error Does this thread experience write errors? */
+    private void setErrorState(final boolean error)
+    {
+        if (error == in_error)
+            return;
+        in_error = error;
+        threads_in_error.addAndGet(error ? 1 : -1);
     }
 
     /** Start the write thread.
@@ -97,7 +205,7 @@ public class WriteThread implements Runnable
         }
         millisec_delay = (int)(1000.0 * write_period);
         this.batch_size = batch_size;
-        thread = new Thread(this, "WriteThread");
+        thread = new Thread(this, name);
         thread.start();
     }
 
@@ -153,7 +261,7 @@ public class WriteThread implements Runnable
     @SuppressWarnings("nls")
     public void run()
     {
-        Activator.getLogger().info("WriteThread starts");
+        Activator.getLogger().info(name + " starts");
         final BenchmarkTimer timer = new BenchmarkTimer();
         boolean write_error = false;
         do_run = true;
@@ -177,6 +285,9 @@ public class WriteThread implements Runnable
                 if (writer == null)
                     writer = ArchiveWriterFactory.getArchiveWriter();
                 timer.start();
+                // Catch up with samples from previous errors, then current ones
+                if (journal != null  &&  ! journal.isEmpty())
+                    journal.replay(writer, batch_size);
                 // In case of a network problem, we can hang in here
                 // for a long time...
                 final long written = write();
@@ -189,30 +300,111 @@ public class WriteThread implements Runnable
             }
             catch (Exception ex)
             {   // Error in write() or the preceding reconnect()...
-                Activator.getLogger().log(Level.WARNING, "Error, will try to reconnect", ex);
+                Activator.getLogger().log(Level.WARNING, name + " error, will try to reconnect", ex);
                 // Use max. delay
                 delay = millisec_delay;
                 write_error = true;
             }
-            SampleBuffer.setErrorState(write_error);
+            setErrorState(write_error);
+            // While in error, keep moving samples into the journal
+            // until it's time to try again
+            if (write_error  &&  journal != null)
+            {
+                final long end = System.currentTimeMillis() + delay;
+                spill();
+                while (do_run  &&  (delay = end - System.currentTimeMillis()) > 0)
+                {
+                    waitFor(Math.min(delay, SPILL_PERIOD_MS));
+                    spill();
+                }
+                continue;
+            }
             // See if there's any time left to wait,
-            // or if we already used all that time in the last 'write'
-            if (delay > 0)
+            // or if we already used all that time in the last 'write'.
+            // With a journal, check the buffer fill levels while waiting.
+            if (journal == null)
+            {
+                if (delay > 0)
+                    waitFor(delay);
+                continue;
+            }
+            final long end = System.currentTimeMillis() + delay;
+            spillAboveHighWater(buffers.size());
+            while (do_run  &&  (delay = end - System.currentTimeMillis()) > 0)
+            {
+                waitFor(Math.min(delay, SPILL_PERIOD_MS));
+                spillAboveHighWater(buffers.size());
+            }
+        }
+        Activator.getLogger().info(name + " exits");
+    }
+
+    /** Wait, unless stop() is called
+     *  @param delay Milliseconds to wait
+     */
+    @SuppressWarnings("nls")
+    private void waitFor(final long delay)
+    {
+        synchronized (wait_block)
+        {
+            try
             {
-                synchronized (wait_block)
+                wait_block.wait(delay);
+            }
+            catch (InterruptedException ex)
+            {
+                Activator.getLogger().log(Level.WARNING, "Interrupted wait", ex);
+            }
+        }
+    }
+
+    /** Move samples from all buffers into the spill journal */
+    @SuppressWarnings("nls")
+    private void spill()
+    {
+        long count = 0;
+        try
+        {
+            for (SampleBuffer buffer : buffers)
+            {
+                buffer.updateStats();
+                count += journal.spill(buffer);
+            }
+        }
+        catch (Exception ex)
+        {
+            Activator.getLogger().log(Level.WARNING, name + " cannot write spill journal " + journal.getDirectory(), ex);
+        }
+        if (count > 0)
+            Activator.getLogger().log(Level.FINE, "{0} spilled {1} samples", new Object[] { name, count });
+    }
+
+    /** Move samples into the spill journal for buffers above the high-water mark
+     *  @param count Number of buffers to check, starting with the first one
+     */
+    @SuppressWarnings("nls")
+    private void spillAboveHighWater(final int count)
+    {
+        long spilled = 0;
+        try
+        {
+            for (int i=0; i<count; ++i)
+            {
+                final SampleBuffer buffer = buffers.get(i);
+                if (buffer.getQueueSize() * 100L > (long) buffer.getCapacity() * spill_high_water)
                 {
-                    try
-                    {
-                        wait_block.wait(delay);
-                    }
-                    catch (InterruptedException ex)
-                    {
-                        Activator.getLogger().log(Level.WARNING, "Interrupted wait", ex);
-                    }
+                    buffer.updateStats();
+                    spilled += journal.spill(buffer);
                 }
             }
         }
-        Activator.getLogger().info("WriteThread exists");
+        catch (Exception ex)
+        {
+            Activator.getLogger().log(Level.WARNING, name + " cannot write spill journal " + journal.getDirectory(), ex);
+        }
+        if (spilled > 0)
+            Activator.getLogger().log(Level.FINE, "{0} spilled {1} samples from buffers above high-water mark",
+                                      new Object[] { name, spilled });
     }
 
     /** Stop the write thread, performing a final write. */
@@ -223,11 +415,23 @@ public class WriteThread implements Runnable
         // Wait for it to end
         thread.join();
         // Then write once more.
-        // Errors in this last write are passed up.
+        // Errors in this last write are passed up,
+        // unless the samples can be kept in the journal.
         try
         {
+            if (writer == null)
+                writer = ArchiveWriterFactory.getArchiveWriter();
+            if (journal != null  &&  ! journal.isEmpty())
+                journal.replay(writer, batch_size);
             write();
         }
+        catch (Exception ex)
+        {
+            if (journal == null)
+                throw ex;
+            Activator.getLogger().log(Level.WARNING, name + " final write failed, keeping samples in spill journal", ex);
+            spill();
+        }
         finally
         {
             if (writer != null)
@@ -235,6 +439,8 @@ public class WriteThread implements Runnable
                 writer.close();
                 writer = null;
             }
+            if (journal != null)
+                journal.close();
         }
     }
 
@@ -245,8 +451,9 @@ public class WriteThread implements Runnable
     {
         int total_count = 0;
         int count = 0;
-        for (SampleBuffer buffer : buffers)
+        for (int i=0; i<buffers.size(); ++i)
         {
+            final SampleBuffer buffer = buffers.get(i);
             // Update max buffer length etc. before we start to remove samples
             buffer.updateStats();
             // Write samples for one channel
@@ -264,6 +471,13 @@ public class WriteThread implements Runnable
                     total_count += count;
                     count = 0;
                     writer.flush();
+                    // While a slow write blocks this thread, buffers may fill up.
+                    // Spill those that have already been written in this run,
+                    // because their new samples are replayed before the next write.
+                    // Buffers that have yet to be written in this run are left alone,
+                    // since their newer samples would then be written before the spilled ones.
+                    if (journal != null)
+                        spillAboveHighWater(i);
                 }
                 // next
                 sample = buffer.remove();
@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.model;
+
+import java.io.File;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.csstudio.archive.engine.Preferences;
+
+/** Pool of {@link WriteThread}s.
+ *  <p>
+ *  Channels are sharded across the threads,
+ *  either by archive group or by hash of the channel name.
+ *  Each thread uses its own <code>ArchiveWriter</code>,
+ *  so a slow or failing write in one shard does not
+ *  hold back the channels of the other shards.
+ *  <p>
+ *  When a spill directory is configured, each thread
+ *  gets a {@link SpillJournal} in a sub-directory.
+ *
+ *  @author Kay Kasemir
+ */
+public class WriteThreadPool
+{
+    /** How to assign channels to write threads */
+    public enum Sharding
+    {
+        /** All channels of a group use the same thread */
+        GROUP,
+        /** Channels are assigned by hash of their name */
+        NAME
+    }
+
+    /** The write threads */
+    final private List<WriteThread> threads;
+
+    /** How channels are assigned to threads */
+    final private Sharding sharding;
+
+    /** Thread index by group name for GROUP sharding */
+    final private Map<String, Integer> group_shards = new HashMap<String, Integer>();
+
+    /** Create pool
+     *  @param count Number of write threads
+     *  @param sharding How to assign channels to threads
+     */
+    @SuppressWarnings("nls")
+    public WriteThreadPool(final int count, final Sharding sharding)
+    {
+        if (count < 1)
+            throw new IllegalArgumentException("Need at least one write thread, got " + count);
+        this.sharding = sharding;
+        final List<WriteThread> threads = new ArrayList<WriteThread>(count);
+        if (count == 1)
+            threads.add(new WriteThread());
+        else
+            for (int i=0; i<count; ++i)
+                threads.add(new WriteThread("WriteThread " + (i+1)));
+        this.threads = Collections.unmodifiableList(threads);
+    }
+
+    /** @return Write threads */
+    public List<WriteThread> getThreads()
+    {
+        return threads;
+    }
+
+    /** Add a channel
+     *  @param channel Channel to write
+     *  @param group Group to which the channel is added
+     */
+    public void addChannel(final ArchiveChannel channel, final ArchiveGroup group)
+    {
+        threads.get(getShard(channel.getName(), group)).addChannel(channel);
+    }
+
+    /** @param name Channel name
+     *  @param group Channel's group
+     *  @return Index of thread for that channel
+     */
+    private int getShard(final String name, final ArchiveGroup group)
+    {
+        final int count = threads.size();
+        if (count == 1)
+            return 0;
+        if (sharding == Sharding.GROUP)
+        {   // Assign groups to threads round-robin, in order of their appearance
+            synchronized (group_shards)
+            {
+                Integer shard = group_shards.get(group.getName());
+                if (shard == null)
+                {
+                    shard = group_shards.size() % count;
+                    group_shards.put(group.getName(), shard);
+                }
+                return shard;
+            }
+        }
+        return Math.floorMod(name.hashCode(), count);
+    }
+
+    /** Start the write threads.
+     *  @param write_period Period between writes in seconds
+     *  @param batch_size Number of values to batch
+     *  @throws Exception on error in spill journal setup
+     */
+    public void start(final double write_period, final int batch_size) throws Exception
+    {
+        final String spill_directory = Preferences.getSpillDirectory();
+        if (! spill_directory.isEmpty())
+        {
+            final int segment_size = Preferences.getSpillSegmentMB() * 1024 * 1024;
+            final long max_size = Preferences.getSpillMaxMB() * 1024L * 1024L / threads.size();
+            final int high_water = Preferences.getSpillHighWater();
+            for (WriteThread thread : threads)
+            {
+                if (thread.getSpillJournal() == null)
+                    thread.setSpillJournal(new SpillJournal(
+                        new File(spill_directory, thread.getName().replace(' ', '_')),
+                        segment_size, max_size));
+                thread.setSpillHighWater(high_water);
+            }
+        }
+        for (WriteThread thread : threads)
+            thread.start(write_period, batch_size);
+    }
+
+    /** Reset statistics */
+    public void reset()
+    {
+        for (WriteThread thread : threads)
+            thread.reset();
+    }
+
+    /** @return Timestamp of end of most recent write run, or <code>null</code> */
+    public Instant getLastWriteTime()
+    {
+        Instant last = null;
+        for (WriteThread thread : threads)
+        {
+            final Instant time = thread.getLastWriteTime();
+            if (time != null  &&  (last == null  ||  time.isAfter(last)))
+                last = time;
+        }
+        return last;
+    }
+
+    /** @return Average number of values per write run, summed over all threads */
+    public double getWriteCount()
+    {
+        double count = 0;
+        for (WriteThread thread : threads)
+            count += thread.getWriteCount();
+        return count;
+    }
+
+    /** @return Average duration of write run in seconds, maximum of all threads */
+    public double getWriteDuration()
+    {
+        double duration = 0;
+        for (WriteThread thread : threads)
+            duration = Math.max(duration, thread.getWriteDuration());
+        return duration;
+    }
+
+    /** Stop the write threads, performing a final write.
+     *  @throws Exception from the first thread that failed its final write
+     */
+    public void shutdown() throws Exception
+    {
+        Exception error = null;
+        for (WriteThread thread : threads)
+        {
+            try
+            {
+                thread.shutdown();
+            }
+            catch (Exception ex)
+            {
+                if (error == null)
+                    error = ex;
+            }
+        }
+        if (error != null)
+            throw error;
+    }
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.scanner;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/** Histogram of time spans in milliseconds.
+ *  <p>
+ *  Buckets are powers of 2: &lt; 1ms, &lt; 2ms, &lt; 4ms, ...
+ *  Thread-safe, may be updated by several threads
+ *  while being read by another.
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class LatencyHistogram
+{
+    /** Number of buckets: &lt; 1ms ... &lt; 1024ms, and one for anything larger */
+    final public static int BUCKETS = 12;
+
+    final private AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    final private AtomicLong max = new AtomicLong();
+
+    /** @param millis Time span to add */
+    public void add(final long millis)
+    {
+        final int bucket;
+        if (millis < 1)
+            bucket = 0;
+        else
+            bucket = Math.min(BUCKETS-1, 64 - Long.numberOfLeadingZeros(millis));
+        counts.incrementAndGet(bucket);
+        long current = max.get();
+        while (millis > current  &&  ! max.compareAndSet(current, millis))
+            current = max.get();
+    }
+
+    /** @param bucket Bucket index 0 .. {@link #BUCKETS}-1
+     *  @return Description of the bucket's range
+     */
+    public static String getLabel(final int bucket)
+    {
+        if (bucket < BUCKETS-1)
+            return "< " + (1L << bucket) + " ms";
+        return ">= " + (1L << (BUCKETS-2)) + " ms";
+    }
+
+    /** @param bucket Bucket index 0 .. {@link #BUCKETS}-1
+     *  @return Number of time spans in that bucket
+     */
+    public long getCount(final int bucket)
+    {
+        return counts.get(bucket);
+    }
+
+    /** @return Total number of time spans */
+    public long getTotal()
+    {
+        long total = 0;
+        for (int i=0; i<BUCKETS; ++i)
+            total += counts.get(i);
+        return total;
+    }
+
+    /** @return Largest time span in ms */
+    public long getMax()
+    {
+        return max.get();
+    }
+
+    /** Reset all counts */
+    public void reset()
+    {
+        for (int i=0; i<BUCKETS; ++i)
+            counts.set(i, 0);
+        max.set(0);
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder buf = new StringBuilder();
+        for (int i=0; i<BUCKETS; ++i)
+        {
+            final long count = counts.get(i);
+            if (count <= 0)
+                continue;
+            if (buf.length() > 0)
+                buf.append(", ");
+            buf.append(getLabel(i)).append(": ").append(count);
+        }
+        if (buf.length() <= 0)
+            return "-";
+        buf.append(" (max. ").append(getMax()).append(" ms)");
+        return buf.toString();
+    }
+}
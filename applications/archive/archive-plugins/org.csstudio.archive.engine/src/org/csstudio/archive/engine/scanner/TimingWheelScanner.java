@@ -0,0 +1,568 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.scanner;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+import org.csstudio.archive.engine.Activator;
+
+/** Scanner based on a hierarchical timing wheel.
+ *  <p>
+ *  Each item is kept in one slot of the wheel,
+ *  so adding and removing items takes constant time,
+ *  independent of the number of items or scan periods.
+ *  <p>
+ *  The wheel has several levels of 64 slots.
+ *  A slot on level 0 spans one tick,
+ *  a slot on level 1 spans 64 ticks, and so on.
+ *  Items due within 64 ticks are on level 0,
+ *  items due further out are on a higher level.
+ *  When the wheel reaches a slot on a higher level,
+ *  its items move down to the lower levels.
+ *  <p>
+ *  The next due time of an item is computed from its
+ *  previous due time, not from the time when it was actually scanned,
+ *  so periodic scans do not drift.
+ *  Scans that are due run on a pool of worker threads.
+ *  An item that is still busy with its previous scan
+ *  skips the next one.
+ *  <p>
+ *  Latency from due time to actual start of a scan as well as
+ *  the jitter of the actual scan period are kept in histograms.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class TimingWheelScanner implements Scheduleable
+{
+    /** Default duration of one tick in milliseconds */
+    final public static long DEFAULT_TICK_MILLIS = 10;
+
+    final private static int LEVEL_BITS = 6;
+    final private static int SLOTS = 1 << LEVEL_BITS;
+    final private static int MASK = SLOTS - 1;
+    final private static int LEVELS = 5;
+
+    /** Scheduled item, also node in the linked list of a slot */
+    private static class Entry
+    {
+        final Runnable item;
+        final long period_millis;
+
+        /** Next due time in system millis */
+        long due_millis;
+
+        /** Tick for <code>due_millis</code> */
+        long due_tick;
+
+        /** Location in wheel, level -1 when not in wheel */
+        int level = -1, slot;
+        Entry prev, next;
+
+        /** Due time of the scan that was handed to a worker */
+        long run_due;
+
+        /** Start of previous scan, only used by worker */
+        long last_start = 0;
+
+        /** Set while a scan is queued or running */
+        final AtomicBoolean busy = new AtomicBoolean();
+
+        Entry(final Runnable item, final long period_millis)
+        {
+            this.item = item;
+            this.period_millis = period_millis;
+        }
+    }
+
+    /** Duration of a tick in millis */
+    final private long tick_millis;
+
+    /** Number of worker threads, 0 to scan on the timer thread */
+    final private int worker_count;
+
+    /** First entry in each slot, per level */
+    final private Entry[][] wheel = new Entry[LEVELS][SLOTS];
+
+    /** Entries by item */
+    final private Map<Runnable, Entry> entries = new HashMap<>();
+
+    /** Time of tick 0 in system millis */
+    final private long base_millis;
+
+    /** Next tick to process */
+    private long tick;
+
+    /** Entries that are due in the current tick, re-used */
+    final private List<Entry> due = new ArrayList<>();
+
+    /** Worker threads */
+    private ExecutorService workers = null;
+
+    /** Timer thread */
+    private Thread thread = null;
+
+    /** Flag, set <code>false</code> to cause timer thread to exit */
+    private volatile boolean do_run = false;
+
+    /** Delay between due time and start of scan */
+    final private LatencyHistogram latency = new LatencyHistogram();
+
+    /** Deviation of time between scans from the period */
+    final private LatencyHistogram jitter = new LatencyHistogram();
+
+    /** Number of scans */
+    final private AtomicLong scans = new AtomicLong();
+
+    /** Scans skipped because item was still busy or timer was late */
+    final private AtomicLong skipped = new AtomicLong();
+
+    /** Time spent in scans, for idle time */
+    final private AtomicLong busy_nanos = new AtomicLong();
+
+    /** Start of idle time accounting */
+    private volatile long reset_nanos = System.nanoTime();
+
+    /** Construct scanner with default tick
+     *  @param worker_count Number of worker threads, 0 to scan on the timer thread
+     */
+    public TimingWheelScanner(final int worker_count)
+    {
+        this(worker_count, DEFAULT_TICK_MILLIS, System.currentTimeMillis());
+    }
+
+    /** Construct scanner
+     *  @param worker_count Number of worker threads, 0 to scan on the timer thread
+     *  @param tick_millis Duration of one tick in millis
+     *  @param base_millis Time of first tick in system millis
+     */
+    TimingWheelScanner(final int worker_count, final long tick_millis, final long base_millis)
+    {
+        if (worker_count < 0)
+            throw new IllegalArgumentException("Worker count " + worker_count);
+        if (tick_millis < 1)
+            throw new IllegalArgumentException("Tick " + tick_millis + " ms");
+        this.worker_count = worker_count;
+        this.tick_millis = tick_millis;
+        this.base_millis = base_millis;
+        tick = 0;
+    }
+
+    /** @return Number of worker threads */
+    public int getWorkerCount()
+    {
+        return worker_count;
+    }
+
+    /** Add an item to the scanner.
+     *  <p>
+     *  If the item was already scheduled, its previous period is replaced.
+     *  @param item Item to scan
+     *  @param period Scan period in seconds
+     */
+    public void add(final Runnable item, final double period)
+    {
+        final long period_millis = Math.max(tick_millis, Math.round(period * 1000.0));
+        final Entry entry = new Entry(item, period_millis);
+        setDue(entry, System.currentTimeMillis() + period_millis);
+        synchronized (this)
+        {
+            final Entry previous = entries.put(item, entry);
+            if (previous != null)
+                unlink(previous);
+            insert(entry);
+        }
+    }
+
+    /** Remove an item from the scanner
+     *  @param item Item to remove
+     */
+    public void remove(final Runnable item)
+    {
+        synchronized (this)
+        {
+            final Entry entry = entries.remove(item);
+            if (entry != null)
+                unlink(entry);
+        }
+    }
+
+    /** Remove all items from this scanner */
+    public void clear()
+    {
+        synchronized (this)
+        {
+            entries.clear();
+            for (Entry[] level : wheel)
+                for (int i=0; i<SLOTS; ++i)
+                    level[i] = null;
+        }
+    }
+
+    /** @return Number of scanned items */
+    public synchronized int getItemCount()
+    {
+        return entries.size();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized boolean isDueAtAll()
+    {
+        return entries.size() > 0;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized long getNextDueTime()
+    {
+        if (entries.isEmpty())
+            throw new Error("Scanner never due");
+        long next = Long.MAX_VALUE;
+        for (int level=0; level<LEVELS; ++level)
+        {
+            // Slots are in time order starting at the cursor,
+            // except that the slot at the cursor has already been handled
+            // unless the tick is at the start of that slot
+            final int shift = LEVEL_BITS * level;
+            final int cursor = (int) (tick >>> shift) & MASK;
+            final int start = (tick & ((1L << shift) - 1)) == 0 ? 0 : 1;
+            for (int i=start; i<start+SLOTS; ++i)
+            {
+                Entry entry = wheel[level][(cursor + i) & MASK];
+                if (entry == null)
+                    continue;
+                for (/**/; entry != null; entry = entry.next)
+                    next = Math.min(next, entry.due_millis);
+                break;
+            }
+        }
+        return next;
+    }
+
+    /** @param entry Entry to update
+     *  @param millis New due time
+     */
+    private void setDue(final Entry entry, final long millis)
+    {
+        entry.due_millis = millis;
+        // Round up to the first tick at or after the due time
+        entry.due_tick = Math.floorDiv(millis - base_millis + tick_millis - 1, tick_millis);
+    }
+
+    /** Place entry in wheel
+     *  @param entry Entry that's not in the wheel
+     */
+    private void insert(final Entry entry)
+    {
+        long when = Math.max(entry.due_tick, tick);
+        long delta = when - tick;
+        int level = 0;
+        while (level < LEVELS-1  &&  delta >= (1L << (LEVEL_BITS * (level+1))))
+            ++level;
+        if (delta >= (1L << (LEVEL_BITS * LEVELS)))
+        {   // Beyond the wheel: Park in last slot of top level,
+            // will be re-inserted when that slot is reached
+            when = tick + (1L << (LEVEL_BITS * LEVELS)) - 1;
+        }
+        final int slot = (int) (when >>> (LEVEL_BITS * level)) & MASK;
+        entry.level = level;
+        entry.slot = slot;
+        entry.prev = null;
+        entry.next = wheel[level][slot];
+        if (entry.next != null)
+            entry.next.prev = entry;
+        wheel[level][slot] = entry;
+    }
+
+    /** Remove entry from wheel
+     *  @param entry Entry that may be in the wheel
+     */
+    private void unlink(final Entry entry)
+    {
+        if (entry.level < 0)
+            return;
+        if (entry.prev != null)
+            entry.prev.next = entry.next;
+        else
+            wheel[entry.level][entry.slot] = entry.next;
+        if (entry.next != null)
+            entry.next.prev = entry.prev;
+        entry.prev = entry.next = null;
+        entry.level = -1;
+    }
+
+    /** @param level Level
+     *  @param slot Slot
+     *  @return Entries that were in that slot, linked via 'next'
+     */
+    private Entry detach(final int level, final int slot)
+    {
+        final Entry first = wheel[level][slot];
+        wheel[level][slot] = null;
+        return first;
+    }
+
+    /** Process all ticks up to the given time
+     *  @param now Current time in system millis
+     */
+    void advance(final long now)
+    {
+        final List<Entry> batch;
+        synchronized (this)
+        {
+            due.clear();
+            while (base_millis + tick * tick_millis <= now)
+                processTick(now);
+            if (due.isEmpty())
+                return;
+            batch = new ArrayList<>(due);
+            due.clear();
+        }
+        dispatch(batch);
+    }
+
+    /** Process the current tick, collecting due entries
+     *  @param now Current time in system millis
+     */
+    private void processTick(final long now)
+    {
+        // Move entries from higher levels down when reaching their slot
+        for (int level=LEVELS-1; level>0; --level)
+        {
+            final int shift = LEVEL_BITS * level;
+            if ((tick & ((1L << shift) - 1)) != 0)
+                continue;
+            Entry entry = detach(level, (int) (tick >>> shift) & MASK);
+            while (entry != null)
+            {
+                final Entry next = entry.next;
+                entry.level = -1;
+                insert(entry);
+                entry = next;
+            }
+        }
+        // Entries in level 0 slot are due now
+        Entry entry = detach(0, (int) tick & MASK);
+        while (entry != null)
+        {
+            final Entry next = entry.next;
+            entry.level = -1;
+            if (entry.busy.compareAndSet(false, true))
+            {
+                entry.run_due = entry.due_millis;
+                due.add(entry);
+            }
+            else
+                skipped.incrementAndGet();
+            // Schedule next scan relative to this due time to avoid drift.
+            // If behind by more than a period, skip to the next one in the future.
+            long next_due = entry.due_millis + entry.period_millis;
+            if (next_due <= now)
+            {
+                final long missed = (now - next_due) / entry.period_millis + 1;
+                skipped.addAndGet(missed);
+                next_due += missed * entry.period_millis;
+            }
+            setDue(entry, next_due);
+            insert(entry);
+            entry = next;
+        }
+        ++tick;
+    }
+
+    /** Run scans, either directly or in worker threads
+     *  @param batch Entries to scan
+     */
+    private void dispatch(final List<Entry> batch)
+    {
+        final ExecutorService pool = workers;
+        if (pool == null)
+        {
+            scan(batch);
+            return;
+        }
+        // Split into one chunk per worker
+        final int N = batch.size();
+        final int chunk = (N + worker_count - 1) / worker_count;
+        for (int start=0; start<N; start += chunk)
+        {
+            final List<Entry> part = batch.subList(start, Math.min(N, start + chunk));
+            pool.execute(() -> scan(part));
+        }
+    }
+
+    /** Scan entries
+     *  @param batch Entries to scan
+     */
+    private void scan(final List<Entry> batch)
+    {
+        for (Entry entry : batch)
+        {
+            final long start = System.currentTimeMillis();
+            final long t0 = System.nanoTime();
+            latency.add(start - entry.run_due);
+            if (entry.last_start > 0)
+                jitter.add(Math.abs(start - entry.last_start - entry.period_millis));
+            entry.last_start = start;
+            try
+            {
+                entry.item.run();
+            }
+            catch (Throwable ex)
+            {
+                Activator.getLogger().log(Level.SEVERE, "Scan error for " + entry.item, ex);
+            }
+            finally
+            {
+                entry.busy.set(false);
+            }
+            scans.incrementAndGet();
+            busy_nanos.addAndGet(System.nanoTime() - t0);
+        }
+    }
+
+    /** Start the timer and worker threads */
+    public void start()
+    {
+        if (worker_count > 0)
+        {
+            final AtomicInteger count = new AtomicInteger();
+            workers = Executors.newFixedThreadPool(worker_count,
+                runnable -> new Thread(runnable, "ScanWorker " + count.incrementAndGet()));
+        }
+        do_run = true;
+        thread = new Thread(this::run, "ScanThread");
+        thread.start();
+    }
+
+    /** Timer thread: Wait for the next tick, process it */
+    private void run()
+    {
+        Activator.getLogger().info("Scan Thread runs");
+        while (do_run)
+        {
+            final long next_time;
+            synchronized (this)
+            {
+                next_time = base_millis + tick * tick_millis;
+            }
+            final long delay = next_time - System.currentTimeMillis();
+            if (delay > 0)
+            {
+                synchronized (this)
+                {
+                    try
+                    {
+                        if (do_run)
+                            wait(delay);
+                    }
+                    catch (InterruptedException ex)
+                    {
+                        Activator.getLogger().log(Level.WARNING, "Scanner interrupted", ex);
+                    }
+                }
+                continue;
+            }
+            advance(System.currentTimeMillis());
+        }
+        Activator.getLogger().info("Scan Thread ends");
+    }
+
+    /** Stop the timer thread
+     *  @see #join()
+     */
+    public void stop()
+    {
+        do_run = false;
+        synchronized (this)
+        {
+            notifyAll();
+        }
+    }
+
+    /** Wait for timer thread to exit and all scans to complete */
+    public void join()
+    {
+        if (do_run)
+            throw new Error("ScanThread still running");
+        try
+        {
+            if (thread != null)
+                thread.join();
+            if (workers != null)
+            {
+                workers.shutdown();
+                workers.awaitTermination(1, TimeUnit.MINUTES);
+            }
+        }
+        catch (InterruptedException ex)
+        {
+            Activator.getLogger().log(Level.WARNING, "Scan Thread join attempt", ex);
+        }
+    }
+
+    /** @return Histogram of delay between due time and start of a scan */
+    public LatencyHistogram getLatency()
+    {
+        return latency;
+    }
+
+    /** @return Histogram of deviation between actual time between scans and scan period */
+    public LatencyHistogram getJitter()
+    {
+        return jitter;
+    }
+
+    /** @return Number of scans */
+    public long getScanCount()
+    {
+        return scans.get();
+    }
+
+    /** @return Number of scans that were skipped because an item was still busy or scan was late */
+    public long getSkippedScans()
+    {
+        return skipped.get();
+    }
+
+    /** Average idle time of the worker threads in percent.
+     *  <p>
+     *  100 means: Nothing to do, always waiting.<br>
+     *    0 means: Busy all the time<br>
+     */
+    public double getIdlePercentage()
+    {
+        final long elapsed = (System.nanoTime() - reset_nanos) * Math.max(1, worker_count);
+        if (elapsed <= 0)
+            return 100.0;
+        final double idle = 100.0 * (1.0 - (double) busy_nanos.get() / elapsed);
+        return Math.max(0.0, Math.min(100.0, idle));
+    }
+
+    /** Reset statistics */
+    public void reset()
+    {
+        latency.reset();
+        jitter.reset();
+        scans.set(0);
+        skipped.set(0);
+        busy_nanos.set(0);
+        reset_nanos = System.nanoTime();
+    }
+}
@@ -17,6 +17,10 @@ import org.csstudio.apputil.time.PeriodFormat;
 import org.csstudio.archive.engine.Messages;
 import org.csstudio.archive.engine.model.EngineModel;
 import org.csstudio.archive.engine.model.SampleBuffer;
+import org.csstudio.archive.engine.model.SpillJournal;
+import org.csstudio.archive.engine.model.WriteThread;
+import org.csstudio.archive.engine.scanner.LatencyHistogram;
+import org.csstudio.archive.engine.scanner.TimingWheelScanner;
 import org.csstudio.archive.engine.server.AbstractMainResponse;
 import org.csstudio.archive.vtype.TimestampHelper;
 import org.diirt.util.time.TimeDuration;
@@ -129,6 +133,25 @@ public class HTMLMainResponse extends AbstractMainResponse
             Messages.HTTP_Idletime,
             String.format("%.1f %%", model.getIdlePercentage())
         });
+        final TimingWheelScanner scanner = model.getScanner();
+        html.tableLine(new String[]
+        {
+            Messages.HTTP_ScanThreads,
+            Integer.toString(scanner.getWorkerCount())
+        });
+        html.tableLine(new String[]
+        {
+            Messages.HTTP_ScanCount,
+            Long.toString(scanner.getScanCount())
+        });
+        final long skipped = scanner.getSkippedScans();
+        html.tableLine(new String[]
+        {
+            Messages.HTTP_ScanSkipped,
+            skipped > 0
+            ? HTMLWriter.makeRedText(Long.toString(skipped))
+            : "0"
+        });
 
         final Runtime runtime = Runtime.getRuntime();
         final double used_mem = runtime.totalMemory() / MB;
@@ -144,6 +167,63 @@ public class HTMLMainResponse extends AbstractMainResponse
 
         html.closeTable();
 
+        // Per write thread
+        html.openTable(1, new String[]
+        {
+            Messages.HTTP_WriteThread,
+            Messages.HTTP_ChannelCount,
+            Messages.HTTP_WriteState,
+            Messages.HTTP_LastWriteTime,
+            Messages.HTTP_WriteCount,
+            Messages.HTTP_WriteDuration,
+            Messages.HTTP_Backlog,
+            Messages.HTTP_SpillJournal
+        });
+        for (WriteThread thread : model.getWriteThreads())
+        {
+            final Instant last = thread.getLastWriteTime();
+            final SpillJournal journal = thread.getSpillJournal();
+            html.tableLine(new String[]
+            {
+                thread.getName(),
+                Integer.toString(thread.getBufferCount()),
+                thread.isInErrorState()
+                ? HTMLWriter.makeRedText(Messages.HTTP_WriteError)
+                : "OK",
+                last == null ? Messages.HTTP_Never : TimestampHelper.format(last),
+                (int)thread.getWriteCount() + " samples",
+                String.format("%.1f sec", thread.getWriteDuration()),
+                thread.getBacklog() + " samples",
+                journal == null
+                ? "-"
+                : String.format("%d samples, %.1f MB", journal.getSampleCount(), journal.getDiskUsage() / MB)
+            });
+        }
+        html.closeTable();
+
+        // Scan latency and jitter histograms
+        final String[] buckets = new String[LatencyHistogram.BUCKETS + 1];
+        buckets[0] = "Scan Timing";
+        for (int i=0; i<LatencyHistogram.BUCKETS; ++i)
+            buckets[i+1] = LatencyHistogram.getLabel(i);
+        html.openTable(1, buckets);
+        html.tableLine(histogramLine(Messages.HTTP_ScanLatency, scanner.getLatency()));
+        html.tableLine(histogramLine(Messages.HTTP_ScanJitter, scanner.getJitter()));
+        html.closeTable();
+
         html.close();
     }
+
+    /** @param title Title of histogram
+     *  @param histogram {@link LatencyHistogram}
+     *  @return Table cells for the histogram
+     */
+    private String[] histogramLine(final String title, final LatencyHistogram histogram)
+    {
+        final String[] cells = new String[LatencyHistogram.BUCKETS + 1];
+        cells[0] = title;
+        for (int i=0; i<LatencyHistogram.BUCKETS; ++i)
+            cells[i+1] = Long.toString(histogram.getCount(i));
+        return cells;
+    }
 }
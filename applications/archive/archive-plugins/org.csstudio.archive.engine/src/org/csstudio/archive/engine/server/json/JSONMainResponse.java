@@ -17,6 +17,10 @@ import org.csstudio.apputil.time.PeriodFormat;
 import org.csstudio.archive.engine.Messages;
 import org.csstudio.archive.engine.model.EngineModel;
 import org.csstudio.archive.engine.model.SampleBuffer;
+import org.csstudio.archive.engine.model.SpillJournal;
+import org.csstudio.archive.engine.model.WriteThread;
+import org.csstudio.archive.engine.scanner.LatencyHistogram;
+import org.csstudio.archive.engine.scanner.TimingWheelScanner;
 import org.csstudio.archive.engine.server.AbstractMainResponse;
 import org.csstudio.archive.vtype.TimestampHelper;
 import org.diirt.util.time.TimeDuration;
@@ -76,8 +80,44 @@ public class JSONMainResponse extends AbstractMainResponse
         json.writeObjectEntry(Messages.HTTP_WriteCount, model.getWriteCount());
         json.writeObjectEntry(Messages.HTTP_WriteDuration, model.getWriteDuration());
 
+        final JSONList threads = new JSONList();
+        for (WriteThread thread : model.getWriteThreads())
+        {
+            final JSONObject JSONthread = new JSONObject();
+            JSONthread.writeObjectEntry(Messages.HTTP_WriteThread, thread.getName());
+            JSONthread.writeObjectEntry(Messages.HTTP_ChannelCount, thread.getBufferCount());
+            JSONthread.writeObjectEntry(Messages.HTTP_WriteState, thread.isInErrorState()?
+                                                                  Messages.HTTP_WriteError
+                                                                  : "OK");
+            final Instant last = thread.getLastWriteTime();
+            JSONthread.writeObjectEntry(Messages.HTTP_LastWriteTime, last == null?
+                                                                     Messages.HTTP_Never
+                                                                     : TimestampHelper.format(last));
+            JSONthread.writeObjectEntry(Messages.HTTP_WriteCount, thread.getWriteCount());
+            JSONthread.writeObjectEntry(Messages.HTTP_WriteDuration, thread.getWriteDuration());
+            JSONthread.writeObjectEntry(Messages.HTTP_Backlog, thread.getBacklog());
+            final SpillJournal journal = thread.getSpillJournal();
+            if (journal != null)
+            {
+                final JSONObject JSONjournal = new JSONObject();
+                JSONjournal.writeObjectEntry("Samples", journal.getSampleCount());
+                JSONjournal.writeObjectEntry("Dropped", journal.getDroppedSamples());
+                JSONjournal.writeObjectEntry("Disk Usage", journal.getDiskUsage());
+                JSONthread.writeObjectEntry(Messages.HTTP_SpillJournal, JSONjournal);
+            }
+            threads.addObjectToList(JSONthread);
+        }
+        json.writeObjectEntry(Messages.HTTP_WriteThreads, threads);
+
         json.writeObjectEntry(Messages.HTTP_Idletime, model.getIdlePercentage());
 
+        final TimingWheelScanner scanner = model.getScanner();
+        json.writeObjectEntry(Messages.HTTP_ScanThreads, scanner.getWorkerCount());
+        json.writeObjectEntry(Messages.HTTP_ScanCount, scanner.getScanCount());
+        json.writeObjectEntry(Messages.HTTP_ScanSkipped, scanner.getSkippedScans());
+        json.writeObjectEntry(Messages.HTTP_ScanLatency, histogram(scanner.getLatency()));
+        json.writeObjectEntry(Messages.HTTP_ScanJitter, histogram(scanner.getJitter()));
+
         final Runtime runtime = Runtime.getRuntime();
         final double used_mem = runtime.totalMemory() / MB;
         final double max_mem = runtime.maxMemory() / MB;
@@ -90,4 +130,16 @@ public class JSONMainResponse extends AbstractMainResponse
 
         json.close();
     }
+
+    /** @param histogram {@link LatencyHistogram}
+     *  @return JSON object with count per bucket
+     */
+    private JSONObject histogram(final LatencyHistogram histogram)
+    {
+        final JSONObject JSONhistogram = new JSONObject();
+        for (int i=0; i<LatencyHistogram.BUCKETS; ++i)
+            JSONhistogram.writeObjectEntry(LatencyHistogram.getLabel(i), histogram.getCount(i));
+        JSONhistogram.writeObjectEntry("Max", histogram.getMax());
+        return JSONhistogram;
+    }
 }
@@ -18,6 +18,7 @@ public class Activator extends Plugin {
 
     private Boolean useStatistics;
     private Boolean useNewOptimizedOperator;
+    private Integer maxParallelFetches;
 
     /**
      * The constructor
@@ -86,4 +87,19 @@ public class Activator extends Plugin {
         }
         return useNewOptimizedOperator;
     }
-}
\ No newline at end of file
+
+    /**
+     * @return maximum number of channels fetched in parallel when data for several channels is requested at once
+     */
+    public int getMaxParallelFetches() {
+        if (maxParallelFetches == null) {
+            final IPreferencesService prefs = Platform.getPreferencesService();
+            if (prefs == null) {
+                maxParallelFetches = 8;
+            } else {
+                maxParallelFetches = Math.max(1, prefs.getInt(Activator.PLUGIN_ID, "maxParallelFetches", 8, null));
+            }
+        }
+        return maxParallelFetches;
+    }
+}
@@ -10,12 +10,16 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.csstudio.apputil.text.RegExHelper;
 import org.csstudio.archive.reader.ArchiveInfo;
 import org.csstudio.archive.reader.ArchiveReader;
+import org.csstudio.archive.reader.MultiChannelFetch;
 import org.csstudio.archive.reader.UnknownChannelException;
 import org.csstudio.archive.reader.ValueIterator;
 import org.csstudio.archive.vtype.TimestampHelper;
@@ -31,6 +35,9 @@ import org.epics.archiverappliance.retrieval.client.RawDataRetrieval;
  */
 public class ApplianceArchiveReader implements ArchiveReader, IteratorListener {
 
+    /** Threads that fetch channels in parallel, shared by all readers to bound the number of HTTP streams */
+    private static ExecutorService fetchers;
+
     private final String httpURL;
     private final String pbrawURL;
     private final boolean useStatistics;
@@ -210,6 +217,41 @@ public class ApplianceArchiveReader implements ArchiveReader, IteratorListener {
         return it;
     }
 
+    /**
+     * Fetches the channels in parallel, each over its own HTTP stream.
+     *
+     * @see org.csstudio.archive.reader.ArchiveReader#getRawValues(int, java.util.List, java.time.Instant, java.time.Instant)
+     */
+    @Override
+    public Map<String, ValueIterator> getRawValues(int key, List<String> names, Instant start, Instant end) throws Exception {
+        return MultiChannelFetch.fetch(getFetchers(), names, name -> getRawValues(key, name, start, end));
+    }
+
+    /**
+     * Fetches the channels in parallel, each over its own HTTP stream.
+     *
+     * @see org.csstudio.archive.reader.ArchiveReader#getOptimizedValues(int, java.util.List, java.time.Instant, java.time.Instant, int)
+     */
+    @Override
+    public Map<String, ValueIterator> getOptimizedValues(int key, List<String> names, Instant start, Instant end, int count) throws Exception {
+        return MultiChannelFetch.fetch(getFetchers(), names, name -> getOptimizedValues(key, name, start, end, count));
+    }
+
+    /**
+     * @return executor for parallel fetches, created on first use
+     */
+    private static synchronized ExecutorService getFetchers() {
+        if (fetchers == null) {
+            final int threads = Activator.getDefault() == null ? 8 : Activator.getDefault().getMaxParallelFetches();
+            fetchers = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "ApplianceFetch"); //$NON-NLS-1$
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return fetchers;
+    }
+
     /* (non-Javadoc)
      * @see org.csstudio.archive.reader.ArchiveReader#cancel()
      */
@@ -54,8 +54,6 @@ public abstract class ApplianceValueIterator implements ValueIterator {
 
     protected boolean closed = false;
 
-    private static Object lock = new Object();
-
     /**
      * Constructs a new ApplianceValueIterator.
      *
@@ -94,9 +92,7 @@ public abstract class ApplianceValueIterator implements ValueIterator {
         java.sql.Timestamp sqlEndTimestamp = TimestampHelper.toSQLTimestamp(end);
 
         DataRetrieval dataRetrieval = reader.createDataRetriveal(reader.getDataRetrievalURL());
-        synchronized(lock){
-            mainStream = dataRetrieval.getDataForPV(pvName, sqlStartTimestamp, sqlEndTimestamp);
-        }
+        mainStream = dataRetrieval.getDataForPV(pvName, sqlStartTimestamp, sqlEndTimestamp);
         if (mainStream != null) {
             mainIterator = mainStream.iterator();
         } else {
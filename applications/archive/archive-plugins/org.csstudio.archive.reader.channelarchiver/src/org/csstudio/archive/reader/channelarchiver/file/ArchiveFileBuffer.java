@@ -9,6 +9,7 @@ package org.csstudio.archive.reader.channelarchiver.file;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.StandardOpenOption;
@@ -17,31 +18,79 @@ import java.time.Instant;
 /**
  * Implements ByteBuffer-like relative get methods for getting binary data
  * from a file. Created for use with ArchiveFileReader and associated classes.
+ *
+ * <p>By default, data is read into a heap buffer.
+ * In memory-mapped mode, data is read directly from a {@link MappedArchiveFile}
+ * that is shared with other buffers for the same file.
  * @author Amanda Carpenter
  *
  */
 public class ArchiveFileBuffer implements AutoCloseable
 {
-    // XXX: what size? Bigger means less fetching, but too big means memory runs out;
-    private final ByteBuffer buffer = ByteBuffer.allocate(65536);
+    /** Heap buffer, or view of mapped segment */
+    private ByteBuffer buffer;
     private FileChannel fileChannel;
     private File file = null;
 
+    /** Use memory-mapped files? */
+    private final boolean memory_mapped;
+
+    /** Mapped file, or <code>null</code> */
+    private MappedArchiveFile mapped = null;
+
+    /** File offset of the mapped segment's start */
+    private long segment_start = 0;
+
     public ArchiveFileBuffer()
     {
+        this(false);
+    }
+
+    /** @param memory_mapped Use memory-mapped files? */
+    public ArchiveFileBuffer(final boolean memory_mapped)
+    {
+        this.memory_mapped = memory_mapped;
+        // XXX: what size? Bigger means less fetching, but too big means memory runs out;
+        buffer = memory_mapped ? ByteBuffer.allocate(0) : ByteBuffer.allocate(65536);
     }
 
     public ArchiveFileBuffer(final File file) throws IOException
     {
+        this(file, false);
+    }
+
+    /** @param file File to read
+     *  @param memory_mapped Use memory-mapped files?
+     *  @throws IOException on error
+     */
+    public ArchiveFileBuffer(final File file, final boolean memory_mapped) throws IOException
+    {
+        this(memory_mapped);
         setFile(file);
     }
 
+    /** @return Using memory-mapped files? */
+    public boolean isMemoryMapped()
+    {
+        return memory_mapped;
+    }
+
     /** Set file
      *  @param file
      *  @throws IOException
      */
     public void setFile(final File file) throws IOException
     {
+        if (memory_mapped)
+        {
+            if (mapped == null  ||  ! file.equals(this.file))
+            {
+                this.file = file;
+                mapped = MappedArchiveFile.get(file);
+            }
+            map(0);
+            return;
+        }
         if (! file.equals(this.file))
         {
             this.file = file;
@@ -56,10 +105,30 @@ public class ArchiveFileBuffer implements AutoCloseable
         return file;
     }
 
+    /** Position mapped buffer on segment for offset
+     *  @param offset File offset
+     *  @throws IOException on error
+     */
+    private void map(final long offset) throws IOException
+    {
+        // File may have grown since it was mapped
+        if (offset >= mapped.size)
+            mapped = MappedArchiveFile.get(file);
+        final int index = MappedArchiveFile.getSegmentIndex(offset);
+        buffer = mapped.getSegment(index);
+        segment_start = index * MappedArchiveFile.SEGMENT_SIZE;
+        buffer.position((int) Math.min(offset - segment_start, buffer.limit()));
+    }
+
     public void prepareGet(int numBytes) throws IOException
     {
         if (buffer.remaining() < numBytes)
         {
+            if (memory_mapped)
+            {
+                map(offset());
+                return;
+            }
             buffer.compact();
             fileChannel.read(buffer);
             buffer.limit(buffer.position()); //use limit to mark extent of read
@@ -69,6 +138,23 @@ public class ArchiveFileBuffer implements AutoCloseable
 
     public void get(byte dst []) throws IOException
     {
+        if (memory_mapped  &&  dst.length > MappedArchiveFile.OVERLAP)
+        {   // May span more than the overlap of segments
+            int pos = 0;
+            while (pos < dst.length)
+            {
+                if (! buffer.hasRemaining())
+                {
+                    map(offset());
+                    if (! buffer.hasRemaining())
+                        throw new BufferUnderflowException();
+                }
+                final int len = Math.min(buffer.remaining(), dst.length - pos);
+                buffer.get(dst, pos, len);
+                pos += len;
+            }
+            return;
+        }
         prepareGet(dst.length);
         buffer.get(dst);
     }
@@ -99,7 +185,9 @@ public class ArchiveFileBuffer implements AutoCloseable
 
     public byte get() throws IOException
     {
-        if (!buffer.hasRemaining())
+        if (memory_mapped)
+            prepareGet(1);
+        else if (!buffer.hasRemaining())
         {
             buffer.clear();
             buffer.limit(fileChannel.read(buffer));
@@ -116,6 +204,14 @@ public class ArchiveFileBuffer implements AutoCloseable
 
     public void skip(int numBytes) throws IOException
     {
+        if (memory_mapped)
+        {
+            if (numBytes <= buffer.remaining())
+                buffer.position(buffer.position() + numBytes);
+            else
+                map(offset() + numBytes);
+            return;
+        }
         int numAlready = buffer.remaining();
         while (numBytes > numAlready)
         {
@@ -130,6 +226,17 @@ public class ArchiveFileBuffer implements AutoCloseable
 
     public void offset(long offset) throws IOException
     {
+        if (memory_mapped)
+        {
+            if (offset < 0  ||  mapped == null)
+                return;
+            // Within current segment?
+            if (offset >= segment_start  &&  offset - segment_start <= buffer.limit())
+                buffer.position((int) (offset - segment_start));
+            else if (offset <= mapped.size  ||  offset <= file.length())
+                map(offset);
+            return;
+        }
          if (offset < 0 || offset > fileChannel.size())
         {
             //throw new RuntimeException("Offset is invalid.") ?
@@ -160,6 +267,8 @@ public class ArchiveFileBuffer implements AutoCloseable
 
     long offset() throws IOException
     {
+        if (memory_mapped)
+            return segment_start + buffer.position();
         return fileChannel.position() - buffer.limit() + buffer.position();
     }
 
@@ -171,6 +280,14 @@ public class ArchiveFileBuffer implements AutoCloseable
     @Override
     public void close() throws IOException
     {
+        if (memory_mapped)
+        {   // Allow the mapping to be released
+            mapped = null;
+            file = null;
+            buffer = ByteBuffer.allocate(0);
+            segment_start = 0;
+            return;
+        }
         if (fileChannel != null)
         {
             fileChannel.close();
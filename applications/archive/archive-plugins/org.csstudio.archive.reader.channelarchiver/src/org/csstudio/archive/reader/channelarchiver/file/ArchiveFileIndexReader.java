@@ -25,11 +25,16 @@ import org.csstudio.archive.reader.channelarchiver.file.RTreeNode.RTreeNodeWithI
 /**
  * Helper class for reading ChannelArchiver index files (both master index files
  * and sub-archive index files).
+ *
+ * <p>When using memory-mapped files, each lookup uses its own view
+ * of the shared index file mapping, so lookups can run concurrently.
+ * Otherwise, lookups are serialized on the one index file buffer.
  * @author Amanda Carpenter
  */
 public class ArchiveFileIndexReader implements AutoCloseable
 {
     private final ArchiveFileBuffer buffer;
+    private final File indexFile;
     private final File indexParent;
     private final HashMap<String, TreeAnchor> anchors;
 
@@ -59,7 +64,17 @@ public class ArchiveFileIndexReader implements AutoCloseable
 
     public ArchiveFileIndexReader(final File indexFile) throws IOException
     {
-        buffer = new ArchiveFileBuffer(indexFile);
+        this(indexFile, false);
+    }
+
+    /** @param indexFile Index file
+     *  @param memory_mapped Use memory-mapped files?
+     *  @throws IOException on error
+     */
+    public ArchiveFileIndexReader(final File indexFile, final boolean memory_mapped) throws IOException
+    {
+        buffer = new ArchiveFileBuffer(indexFile, memory_mapped);
+        this.indexFile = indexFile;
         indexParent = indexFile.getParentFile();
         anchors = getAnchors();
         logger.fine(() -> "Opened " + indexFile + ", " + anchors.size() + " channels");
@@ -133,7 +148,26 @@ public class ArchiveFileIndexReader implements AutoCloseable
         if (anchor == null)
             throw new UnknownChannelException(channelName);
 
-        final RTreeNodeWithIndex node_and_index = searchRTreeNodes(anchor.root, anchor.numRecords, startTime);
+        if (buffer.isMemoryMapped())
+        {
+            try
+            (
+                final ArchiveFileBuffer view = new ArchiveFileBuffer(indexFile, true);
+            )
+            {
+                return getEntries(view, anchor, startTime, endTime);
+            }
+        }
+        synchronized (buffer)
+        {
+            return getEntries(buffer, anchor, startTime, endTime);
+        }
+    }
+
+    private List<DataFileEntry> getEntries(final ArchiveFileBuffer buffer, final TreeAnchor anchor,
+                                           final Instant startTime, final Instant endTime) throws Exception
+    {
+        final RTreeNodeWithIndex node_and_index = searchRTreeNodes(buffer, anchor.root, anchor.numRecords, startTime);
         if (node_and_index == null)
             return Collections.emptyList();
 
@@ -146,7 +180,7 @@ public class ArchiveFileIndexReader implements AutoCloseable
             if (! node.records[index].isEmpty())
             {
                 // A record might point to a chain of data blocks
-                final List<DataFileEntry>  sub_entries = readDatablocks(node.records[index].child);
+                final List<DataFileEntry>  sub_entries = readDatablocks(buffer, node.records[index].child);
                 // Use only the first data block, not the 'shadowed' data blocks below
                 entries.add(sub_entries.get(0));
             }
@@ -193,6 +227,14 @@ public class ArchiveFileIndexReader implements AutoCloseable
      * @throws Exception on error
      */
     public RTreeNodeWithIndex searchRTreeNodes(final long root, final int numRecords, final Instant time) throws Exception
+    {
+        synchronized (buffer)
+        {
+            return searchRTreeNodes(buffer, root, numRecords, time);
+        }
+    }
+
+    private static RTreeNodeWithIndex searchRTreeNodes(final ArchiveFileBuffer buffer, final long root, final int numRecords, final Instant time) throws Exception
     {
         RTreeNode node = new RTreeNode(buffer, root, numRecords);
         while (true)
@@ -223,12 +265,13 @@ public class ArchiveFileIndexReader implements AutoCloseable
      * associated with that datablock, and the same for any child datablocks.
      * The returned values correspond to the same time frame, but should be in
      * different sub-archives, if there are more than one.
+     * @param buffer Buffer for index file
      * @param offset Offset of RTree datablock (child_id of leaf node's record)
      * @return List<DataFileEntry> corresponding to the respective files and offsets of
      *             all datablocks associated with the RTree record which contains the given offset
      * @throws IOException
      */
-    private List<DataFileEntry> readDatablocks(long offset) throws IOException
+    private List<DataFileEntry> readDatablocks(final ArchiveFileBuffer buffer, long offset) throws IOException
     {
         //Datablocks (RTree entries) are stored as follows:
         // long next_ID - offset of next datablock
@@ -31,15 +31,27 @@ public class ArchiveFileReader implements ArchiveReader
 
     private final String index_name;
     private final ArchiveFileIndexReader indexReader;
+    private final boolean memory_mapped;
 
     /** Construct an ArchiveFileReader.
      *  @param index Path to  Channel Archiver index file
      *  @throws IOException
      */
     public ArchiveFileReader(final String index) throws IOException
+    {
+        this(index, Preferences.useMemoryMappedFiles());
+    }
+
+    /** Construct an ArchiveFileReader.
+     *  @param index Path to  Channel Archiver index file
+     *  @param memory_mapped Use memory-mapped index and data files?
+     *  @throws IOException
+     */
+    public ArchiveFileReader(final String index, final boolean memory_mapped) throws IOException
     {
         index_name = index;
-        indexReader = new ArchiveFileIndexReader(new File(index));
+        this.memory_mapped = memory_mapped;
+        indexReader = new ArchiveFileIndexReader(new File(index), memory_mapped);
     }
 
     @Override
@@ -94,7 +106,7 @@ public class ArchiveFileReader implements ArchiveReader
             throws UnknownChannelException, Exception
     {
         final List<DataFileEntry> entries = indexReader.getEntries(name, start, end);
-        return new ArchiveFileSampleReader(start, end, entries);
+        return new ArchiveFileSampleReader(start, end, entries, memory_mapped);
     }
 
     @Override
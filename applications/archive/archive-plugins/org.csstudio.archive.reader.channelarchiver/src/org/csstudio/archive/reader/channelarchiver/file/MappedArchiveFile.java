@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.reader.channelarchiver.file;
+
+import static org.csstudio.archive.reader.channelarchiver.file.ArchiveFileReader.logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/** Memory-mapped Channel Archiver index or data file
+ *
+ *  <p>Files are mapped read-only in segments of 1 GiB,
+ *  which are mapped when first accessed.
+ *  Each segment overlaps the following one by {@link #OVERLAP} bytes,
+ *  so values and headers that cross a segment boundary
+ *  can still be read from one segment.
+ *
+ *  <p>Mappings are shared by all {@link ArchiveFileBuffer}s that read
+ *  the same file. Each buffer uses its own view of a segment,
+ *  so concurrent readers don't interfere.
+ *  A mapping is released once no buffer uses it any longer.
+ *
+ *  @author Kay Kasemir
+ */
+class MappedArchiveFile
+{
+    /** Size of a segment */
+    static final long SEGMENT_SIZE = 1L << 30;
+
+    /** Number of bytes by which a segment extends into the next one */
+    static final int OVERLAP = 65536;
+
+    /** Mapped files by absolute path. Synchronize on access */
+    private static final Map<File, WeakReference<MappedArchiveFile>> files = new HashMap<>();
+
+    /** Mapped file */
+    final File file;
+
+    /** Size of file when mapped */
+    final long size;
+
+    /** Segments, mapped when first used. Synchronize on access */
+    private final MappedByteBuffer[] segments;
+
+    /** Get shared mapping of a file
+     *
+     *  <p>If the file has grown since it was last mapped,
+     *  for example because the archive engine keeps adding samples,
+     *  a new mapping is created.
+     *
+     *  @param file File to map
+     *  @return {@link MappedArchiveFile}
+     *  @throws IOException on error
+     */
+    static MappedArchiveFile get(final File file) throws IOException
+    {
+        final File key = file.getAbsoluteFile();
+        if (! key.canRead())
+            throw new IOException("Cannot read " + key);
+        final long size = key.length();
+        synchronized (files)
+        {
+            final WeakReference<MappedArchiveFile> ref = files.get(key);
+            MappedArchiveFile mapped = ref == null ? null : ref.get();
+            if (mapped == null  ||  mapped.size < size)
+            {
+                files.values().removeIf(r -> r.get() == null);
+                mapped = new MappedArchiveFile(key, size);
+                files.put(key, new WeakReference<>(mapped));
+            }
+            return mapped;
+        }
+    }
+
+    private MappedArchiveFile(final File file, final long size)
+    {
+        this.file = file;
+        this.size = size;
+        segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+    }
+
+    /** @param offset Offset in file
+     *  @return Index of the segment that contains the offset
+     */
+    static int getSegmentIndex(final long offset)
+    {
+        return (int) (offset / SEGMENT_SIZE);
+    }
+
+    /** Get view of a segment
+     *  @param index Segment index
+     *  @return Buffer for the segment, starting at <code>index * SEGMENT_SIZE</code>.
+     *          Empty if the segment is beyond the end of the file.
+     *  @throws IOException on error
+     */
+    ByteBuffer getSegment(final int index) throws IOException
+    {
+        if (index >= segments.length)
+            return ByteBuffer.allocate(0);
+        synchronized (segments)
+        {
+            if (segments[index] == null)
+            {
+                final long start = index * SEGMENT_SIZE;
+                final long length = Math.min(SEGMENT_SIZE + OVERLAP, size - start);
+                // Mapping remains valid after the channel is closed
+                try
+                (
+                    final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                )
+                {
+                    segments[index] = channel.map(MapMode.READ_ONLY, start, length);
+                }
+                logger.fine(() -> "Mapped " + file + " segment " + index + ", " + length + " bytes");
+            }
+            return segments[index].duplicate();
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Mapped " + file + " (" + size + " bytes)";
+    }
+}
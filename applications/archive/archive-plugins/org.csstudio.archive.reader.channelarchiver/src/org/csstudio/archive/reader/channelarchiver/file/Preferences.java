@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.reader.channelarchiver.file;
+
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.preferences.IPreferencesService;
+
+/** Access to preferences for the Channel Archiver data file reader.
+ *
+ *  <p>See preferences.ini for explanation of settings.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class Preferences
+{
+    /** Plugin ID defined in MANIFEST.MF */
+    final public static String ID = "org.csstudio.archive.reader.channelarchiver";
+
+    final public static String MEMORY_MAPPED = "memory_mapped";
+
+    /** @return Use memory-mapped index and data files? */
+    public static boolean useMemoryMappedFiles()
+    {
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        if (prefs == null)
+            return true;
+        return prefs.getBoolean(ID, MEMORY_MAPPED, true, null);
+    }
+}
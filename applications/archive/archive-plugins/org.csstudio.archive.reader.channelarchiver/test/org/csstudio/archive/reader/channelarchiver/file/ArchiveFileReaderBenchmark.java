@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.reader.channelarchiver.file;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.csstudio.archive.reader.ValueIterator;
+import org.csstudio.archive.vtype.VTypeHelper;
+import org.diirt.vtype.VType;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/** Compare query latency of buffered and memory-mapped {@link ArchiveFileReader}
+ *
+ *  <p>Generates a {@link SyntheticArchive} in a temporary directory.
+ *  Note that the first queries read the files from disk,
+ *  later queries may find the data in the operating system's file cache.
+ *  Both readers are therefore run several times.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class ArchiveFileReaderBenchmark
+{
+    final private static int CHANNELS = 50;
+    final private static int BLOCKS = 1000;
+    final private static int SAMPLES_PER_BLOCK = 50;
+    final private static int BLOCKS_PER_FILE = 250;
+    final private static int QUERIES = 500;
+    final private static int THREADS = 4;
+    final private static Duration QUERY_RANGE = Duration.ofHours(1);
+
+    final private static SyntheticArchive archive = new SyntheticArchive(Instant.ofEpochSecond(1500000000L),
+                                                                         Duration.ofSeconds(1),
+                                                                         CHANNELS, BLOCKS, SAMPLES_PER_BLOCK);
+    private static File dir, index;
+
+    @BeforeClass
+    public static void createArchive() throws Exception
+    {
+        dir = Files.createTempDirectory("synthetic_archive").toFile();
+        final long start = System.nanoTime();
+        index = archive.write(dir, BLOCKS_PER_FILE);
+        long bytes = 0;
+        for (File file : dir.listFiles())
+            bytes += file.length();
+        System.out.format("Created archive with %d channels, %d samples each, %.1f MB in %.1f sec\n",
+                          CHANNELS, BLOCKS * SAMPLES_PER_BLOCK, bytes / 1024.0 / 1024.0,
+                          (System.nanoTime() - start) / 1e9);
+    }
+
+    @AfterClass
+    public static void deleteArchive()
+    {
+        for (File file : dir.listFiles())
+            file.delete();
+        dir.delete();
+    }
+
+    /** @return Start times of random queries */
+    private static List<Instant> createQueries()
+    {
+        final Random random = new Random(42);
+        final long range = Duration.between(archive.start, archive.getEnd()).minus(QUERY_RANGE).getSeconds();
+        final List<Instant> starts = new ArrayList<>();
+        for (int i=0; i<QUERIES; ++i)
+            starts.add(archive.start.plusSeconds((long) (random.nextDouble() * range)));
+        return starts;
+    }
+
+    /** @return Number of samples */
+    private static int query(final ArchiveFileReader reader, final int channel, final Instant start) throws Exception
+    {
+        final ValueIterator values = reader.getRawValues(0, SyntheticArchive.getName(channel), start, start.plus(QUERY_RANGE));
+        int count = 0;
+        try
+        {
+            while (values.hasNext())
+            {
+                values.next();
+                ++count;
+            }
+        }
+        finally
+        {
+            values.close();
+        }
+        return count;
+    }
+
+    /** Both readers must return the same samples */
+    @Test
+    public void testSameSamples() throws Exception
+    {
+        final ArchiveFileReader buffered = new ArchiveFileReader(index.getPath(), false);
+        final ArchiveFileReader mapped = new ArchiveFileReader(index.getPath(), true);
+        final String[] names = mapped.getNamesByPattern(0, "synthetic:*");
+        final String[] buffered_names = buffered.getNamesByPattern(0, "synthetic:*");
+        Arrays.sort(names);
+        Arrays.sort(buffered_names);
+        assertThat(names.length, equalTo(CHANNELS));
+        assertThat(names, equalTo(buffered_names));
+
+        final Instant start = archive.getTime(BLOCKS_PER_FILE * SAMPLES_PER_BLOCK - 100);
+        final Instant end = archive.getTime(BLOCKS_PER_FILE * SAMPLES_PER_BLOCK + 100);
+        for (int c : new int[] { 0, CHANNELS/2, CHANNELS-1 })
+        {
+            final ValueIterator a = buffered.getRawValues(0, SyntheticArchive.getName(c), start, end);
+            final ValueIterator b = mapped.getRawValues(0, SyntheticArchive.getName(c), start, end);
+            long sample = BLOCKS_PER_FILE * SAMPLES_PER_BLOCK - 100;
+            while (a.hasNext())
+            {
+                assertThat(b.hasNext(), equalTo(true));
+                final VType va = a.next(), vb = b.next();
+                assertThat(VTypeHelper.toString(vb), equalTo(VTypeHelper.toString(va)));
+                assertThat(VTypeHelper.getTimestamp(vb), equalTo(archive.getTime(sample)));
+                assertThat(VTypeHelper.toDouble(vb), equalTo(SyntheticArchive.getValue(c, sample)));
+                ++sample;
+            }
+            assertThat(b.hasNext(), equalTo(false));
+            // Data spans two data files
+            assertThat(sample, equalTo(BLOCKS_PER_FILE * SAMPLES_PER_BLOCK + 101L));
+            a.close();
+            b.close();
+        }
+        buffered.close();
+        mapped.close();
+    }
+
+    @Test
+    public void benchmarkQueries() throws Exception
+    {
+        final List<Instant> queries = createQueries();
+        for (int run=0; run<3; ++run)
+            for (boolean memory_mapped : new boolean[] { false, true })
+            {
+                final String mode = memory_mapped ? "Mapped  " : "Buffered";
+                final ArchiveFileReader reader = new ArchiveFileReader(index.getPath(), memory_mapped);
+                try
+                {
+                    // Sequential queries
+                    long samples = 0;
+                    long start = System.nanoTime();
+                    for (int i=0; i<QUERIES; ++i)
+                        samples += query(reader, i % CHANNELS, queries.get(i));
+                    double secs = (System.nanoTime() - start) / 1e9;
+                    System.out.format("%s: %d queries, %.3f ms per query, %.0f samples/sec\n",
+                                      mode, QUERIES, secs * 1000.0 / QUERIES, samples / secs);
+
+                    // Concurrent queries, sharing the reader
+                    final ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+                    final List<Future<Integer>> results = new ArrayList<>();
+                    start = System.nanoTime();
+                    for (int i=0; i<QUERIES; ++i)
+                    {
+                        final int channel = i % CHANNELS;
+                        final Instant time = queries.get(i);
+                        results.add(pool.submit(() -> query(reader, channel, time)));
+                    }
+                    samples = 0;
+                    for (Future<Integer> result : results)
+                        samples += result.get();
+                    secs = (System.nanoTime() - start) / 1e9;
+                    pool.shutdown();
+                    System.out.format("%s: %d queries in %d threads, %.3f ms per query, %.0f samples/sec\n",
+                                      mode, QUERIES, THREADS, secs * 1000.0 / QUERIES, samples / secs);
+                }
+                finally
+                {
+                    reader.close();
+                }
+            }
+    }
+}
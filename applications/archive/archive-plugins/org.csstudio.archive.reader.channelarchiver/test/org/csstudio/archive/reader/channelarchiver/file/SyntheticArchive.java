@@ -0,0 +1,342 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.reader.channelarchiver.file;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Writes a synthetic Channel Archiver index and data files
+ *
+ *  <p>Each channel has scalar 'double' samples with a fixed period,
+ *  split into data blocks with the same number of samples.
+ *  The data blocks of all channels are interleaved in the data files
+ *  like an archive engine would write them.
+ *  The R-tree of each channel has as many levels as needed.
+ *
+ *  <p>Only writes what {@link ArchiveFileReader} uses.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class SyntheticArchive
+{
+    /** Size of data header */
+    private static final int HEADER_SIZE = 152;
+
+    /** Size of DBR_TIME_DOUBLE sample */
+    private static final int SAMPLE_SIZE = 24;
+
+    /** Records per R-tree node */
+    private static final int M = 32;
+
+    public final Instant start;
+    public final Duration period;
+    public final int channels, blocks, samples_per_block;
+
+    /** Data block of one channel */
+    private static class Block
+    {
+        final String file;
+        final long offset;
+        final Instant start, end;
+
+        Block(final String file, final long offset, final Instant start, final Instant end)
+        {
+            this.file = file;
+            this.offset = offset;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /** R-tree node */
+    private static class Node
+    {
+        final boolean leaf;
+        final List<Instant[]> ranges = new ArrayList<>();
+        final List<Long> children = new ArrayList<>();
+        final List<Node> child_nodes = new ArrayList<>();
+        Node parent;
+        long offset;
+
+        Node(final boolean leaf)
+        {
+            this.leaf = leaf;
+        }
+    }
+
+    /** @param start Time of first sample
+     *  @param period Period between samples
+     *  @param channels Number of channels
+     *  @param blocks Number of data blocks per channel
+     *  @param samples_per_block Samples per data block
+     */
+    public SyntheticArchive(final Instant start, final Duration period,
+                            final int channels, final int blocks, final int samples_per_block)
+    {
+        this.start = start;
+        this.period = period;
+        this.channels = channels;
+        this.blocks = blocks;
+        this.samples_per_block = samples_per_block;
+    }
+
+    /** @param channel Channel index
+     *  @return Channel name
+     */
+    public static String getName(final int channel)
+    {
+        return String.format("synthetic:%04d", channel);
+    }
+
+    /** @return Time of last sample */
+    public Instant getEnd()
+    {
+        return getTime((long)blocks * samples_per_block - 1);
+    }
+
+    /** @param sample Sample index
+     *  @return Time stamp of that sample
+     */
+    public Instant getTime(final long sample)
+    {
+        return start.plus(period.multipliedBy(sample));
+    }
+
+    /** @param channel Channel index
+     *  @param sample Sample index
+     *  @return Value of that sample
+     */
+    public static double getValue(final int channel, final long sample)
+    {
+        return channel + Math.sin(sample * 0.01);
+    }
+
+    /** Write archive
+     *  @param dir Directory for index and data files
+     *  @param blocks_per_file Number of data blocks per channel in one data file
+     *  @return Index file
+     *  @throws Exception on error
+     */
+    public File write(final File dir, final int blocks_per_file) throws Exception
+    {
+        dir.mkdirs();
+        final List<List<Block>> channel_blocks = new ArrayList<>();
+        for (int c=0; c<channels; ++c)
+            channel_blocks.add(new ArrayList<>());
+
+        // Data files
+        for (int first=0; first<blocks; first+=blocks_per_file)
+        {
+            final String filename = String.format("data%04d", first / blocks_per_file);
+            try
+            (
+                final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                        new FileOutputStream(new File(dir, filename)), 65536));
+            )
+            {
+                writeCtrlInfo(out);
+                for (int b=first; b<blocks && b<first+blocks_per_file; ++b)
+                    for (int c=0; c<channels; ++c)
+                    {
+                        final long sample = (long)b * samples_per_block;
+                        channel_blocks.get(c).add(new Block(filename, out.size(),
+                                getTime(sample), getTime(sample + samples_per_block - 1)));
+                        writeDataBlock(out, c, sample);
+                    }
+            }
+        }
+
+        // Index
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        // Magic, hash table offset and size, patched later
+        out.writeInt(0x43414931);
+        out.writeInt(0);
+        out.writeInt(0);
+        final long[] entries = new long[channels];
+        for (int c=0; c<channels; ++c)
+            entries[c] = writeChannel(out, getName(c), channel_blocks.get(c));
+
+        final long hash_table = out.size();
+        for (long entry : entries)
+            out.writeInt((int) entry);
+        out.writeInt(0);
+        out.flush();
+
+        final ByteBuffer index = ByteBuffer.wrap(bytes.toByteArray());
+        index.putInt(4, (int) hash_table);
+        // Reader checks size-1 entries
+        index.putInt(8, channels + 1);
+        final File index_file = new File(dir, "index");
+        Files.write(index_file.toPath(), index.array());
+        return index_file;
+    }
+
+    private static void writeTime(final DataOutputStream out, final Instant time) throws IOException
+    {
+        if (time == null)
+        {
+            out.writeInt(0);
+            out.writeInt(0);
+        }
+        else
+        {
+            out.writeInt((int) (time.getEpochSecond() - ArchiveFileTime.EPICS_OFFSET));
+            out.writeInt(time.getNano());
+        }
+    }
+
+    private static void writeCtrlInfo(final DataOutputStream out) throws IOException
+    {
+        final byte[] units = new byte[8];
+        units[0] = 'm';
+        units[1] = 'm';
+        out.writeShort(32 + units.length);
+        out.writeShort(1);
+        // Display, alarm, warning limits
+        out.writeFloat(10.0f);
+        out.writeFloat(-10.0f);
+        out.writeFloat(-5.0f);
+        out.writeFloat(-8.0f);
+        out.writeFloat(5.0f);
+        out.writeFloat(8.0f);
+        out.writeInt(3);
+        out.write(units);
+    }
+
+    private void writeDataBlock(final DataOutputStream out, final int channel, final long first) throws IOException
+    {
+        final long start = out.size();
+        out.writeInt(0);                 // dir_offset
+        out.writeInt(0);                 // next_offset
+        out.writeInt(0);                 // prev_offset
+        out.writeInt(0);                 // cur_offset
+        out.writeInt(samples_per_block); // num_samples
+        out.writeInt(0);                 // ctrl_info_offset
+        out.writeInt(HEADER_SIZE + samples_per_block * SAMPLE_SIZE); // buff_size
+        out.writeInt(0);                 // buff_free
+        out.writeShort(ArchiveFileSampleReader.DbrType.DBR_TIME_DOUBLE.typeCode);
+        out.writeShort(1);
+        out.writeInt(0);                 // pad
+        out.writeDouble(period.toMillis() / 1000.0);
+        writeTime(out, getTime(first));
+        writeTime(out, null);            // next_file_time
+        writeTime(out, getTime(first + samples_per_block - 1));
+        out.write(new byte[40]);         // prev_file
+        out.write(new byte[40]);         // next_file
+        if (out.size() - start != HEADER_SIZE)
+            throw new IllegalStateException("Data header size " + (out.size() - start));
+
+        for (long i=first; i<first+samples_per_block; ++i)
+        {
+            out.writeShort(0);           // status
+            out.writeShort(0);           // severity
+            writeTime(out, getTime(i));
+            out.writeInt(0);             // pad
+            out.writeDouble(getValue(channel, i));
+        }
+    }
+
+    /** @return Offset of hash entry for the channel */
+    private static long writeChannel(final DataOutputStream out, final String name, final List<Block> blocks) throws IOException
+    {
+        // Data blocks, referenced by leaf records
+        final List<Node> level = new ArrayList<>();
+        Node node = null;
+        for (Block block : blocks)
+        {
+            if (node == null  ||  node.children.size() >= M)
+            {
+                node = new Node(true);
+                level.add(node);
+            }
+            node.ranges.add(new Instant[] { block.start, block.end });
+            node.children.add((long) out.size());
+            out.writeInt(0);
+            out.writeInt((int) block.offset);
+            out.writeShort(block.file.length());
+            out.writeBytes(block.file);
+        }
+
+        // Add levels until there's only the root node
+        final List<Node> nodes = new ArrayList<>(level);
+        List<Node> children = level;
+        while (children.size() > 1)
+        {
+            final List<Node> parents = new ArrayList<>();
+            node = null;
+            for (Node child : children)
+            {
+                if (node == null  ||  node.child_nodes.size() >= M)
+                {
+                    node = new Node(false);
+                    parents.add(node);
+                }
+                node.ranges.add(new Instant[] { child.ranges.get(0)[0], child.ranges.get(child.ranges.size()-1)[1] });
+                node.child_nodes.add(child);
+                child.parent = node;
+            }
+            nodes.addAll(parents);
+            children = parents;
+        }
+        final Node root = children.get(0);
+
+        // Assign offsets, then write nodes
+        long offset = out.size();
+        for (Node n : nodes)
+        {
+            n.offset = offset;
+            offset += 1 + 4 + 20*M;
+        }
+        for (Node n : nodes)
+        {
+            out.writeByte(n.leaf ? 1 : 0);
+            out.writeInt(n.parent == null ? 0 : (int) n.parent.offset);
+            for (int i=0; i<M; ++i)
+            {
+                if (i < n.ranges.size())
+                {
+                    writeTime(out, n.ranges.get(i)[0]);
+                    writeTime(out, n.ranges.get(i)[1]);
+                    out.writeInt((int) (n.leaf ? n.children.get(i) : n.child_nodes.get(i).offset));
+                }
+                else
+                {
+                    writeTime(out, null);
+                    writeTime(out, null);
+                    out.writeInt(0);
+                }
+            }
+        }
+
+        // Anchor
+        final long anchor = out.size();
+        out.writeInt((int) root.offset);
+        out.writeInt(M);
+
+        // Hash entry
+        final long entry = out.size();
+        out.writeInt(0);
+        out.writeInt((int) anchor);
+        out.writeShort(name.length());
+        out.writeShort(0);
+        out.writeBytes(name);
+        return entry;
+    }
+}
@@ -14,6 +14,8 @@ import static org.junit.Assert.assertTrue;
 import java.text.SimpleDateFormat;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
 
@@ -23,8 +25,10 @@ import org.csstudio.archive.reader.ArchiveInfo;
 import org.csstudio.archive.reader.ArchiveReader;
 import org.csstudio.archive.reader.ValueIterator;
 import org.csstudio.archive.vtype.TimestampHelper;
+import org.csstudio.archive.vtype.VTypeHelper;
 import org.diirt.util.time.TimeDuration;
 import org.diirt.vtype.Display;
+import org.diirt.vtype.VNumberArray;
 import org.diirt.vtype.VType;
 import org.diirt.vtype.ValueUtil;
 import org.junit.After;
@@ -212,6 +216,49 @@ public class RDBArchiveReaderTest
         }
     }
 
+    /** Compare raw data read in one query with the chunked {@link StreamingSampleIterator} */
+    @Test
+    public void testStreamingRawData() throws Exception
+    {
+        if (reader == null)
+            return;
+        final int channel_id = reader.getChannelID(name);
+        System.out.println("Streamed raw samples for " + name + " (" + channel_id + "):");
+        final Instant end = Instant.now();
+        final Instant start = end.minus(TIMERANGE);
+
+        BenchmarkTimer timer = new BenchmarkTimer();
+        ValueIterator values = new RawSampleIterator(reader, channel_id, start, end);
+        int raw = 0;
+        while (values.hasNext())
+        {
+            values.next();
+            ++raw;
+        }
+        values.close();
+        timer.stop();
+        System.out.println("Single query: " + raw + " samples in " + timer);
+
+        timer = new BenchmarkTimer();
+        values = new StreamingSampleIterator(reader, channel_id, start, end);
+        int streamed = 0;
+        Instant last = null;
+        while (values.hasNext())
+        {
+            final Instant time = VTypeHelper.getTimestamp(values.next());
+            if (last != null)
+                assertTrue("Time stamps must not go back", ! time.isBefore(last));
+            last = time;
+            ++streamed;
+        }
+        values.close();
+        timer.stop();
+        System.out.println("Streamed    : " + streamed + " samples in " + timer);
+
+        // Chunks must neither lose nor duplicate samples
+        assertEquals(raw, streamed);
+    }
+
     /** Get raw data for waveform */
     @Test
     public void testRawWaveformData() throws Exception
@@ -239,6 +286,46 @@ public class RDBArchiveReaderTest
         values.close();
     }
 
+    /** Compare array data read in one query with the {@link StreamingSampleIterator},
+     *  which reads array elements on the connection of its background thread
+     */
+    @Test
+    public void testStreamingWaveformData() throws Exception
+    {
+        if (reader == null  ||  array_name == null)
+            return;
+        final int channel_id = reader.getChannelID(array_name);
+        System.out.println("Streamed raw samples for waveform " + array_name + " (" + channel_id + "):");
+        final Instant end = Instant.now();
+        final Instant start = end.minus(WAVEFORM_TIMERANGE);
+
+        final List<VType> raw = new ArrayList<>();
+        ValueIterator values = new RawSampleIterator(reader, channel_id, start, end);
+        while (values.hasNext())
+            raw.add(values.next());
+        values.close();
+
+        values = new StreamingSampleIterator(reader, channel_id, start, end);
+        int streamed = 0;
+        while (values.hasNext())
+        {
+            final VType value = values.next();
+            assertTrue("Extra sample " + value, streamed < raw.size());
+            final VType expected = raw.get(streamed);
+            assertEquals(VTypeHelper.getTimestamp(expected), VTypeHelper.getTimestamp(value));
+            if (expected instanceof VNumberArray)
+                assertEquals(((VNumberArray) expected).getData().size(),
+                             ((VNumberArray) value).getData().size());
+            ++streamed;
+        }
+        values.close();
+        System.out.println(streamed + " array samples");
+        assertEquals(raw.size(), streamed);
+
+        // Reader's own connection remains usable while and after streaming arrays
+        assertEquals(channel_id, reader.getChannelID(array_name));
+    }
+
     /** Get optimized data for scalar, using the client-side {@link AveragedValueIterator} */
     @Test
     public void testJavaOptimizedScalarData() throws Exception
@@ -9,9 +9,11 @@ package org.csstudio.archive.reader.rdb;
 
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
 import java.text.NumberFormat;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -23,6 +25,7 @@ import org.csstudio.archive.vtype.ArchiveVNumber;
 import org.csstudio.archive.vtype.ArchiveVNumberArray;
 import org.csstudio.archive.vtype.ArchiveVString;
 import org.csstudio.archive.vtype.TimestampHelper;
+import org.csstudio.platform.utility.rdb.RDBUtil.Dialect;
 import org.diirt.util.text.NumberFormats;
 import org.diirt.vtype.AlarmSeverity;
 import org.diirt.vtype.Display;
@@ -45,6 +48,11 @@ abstract public class AbstractRDBValueIterator  implements ValueIterator
     /** SELECT ... for the array samples. */
     private PreparedStatement sel_array_samples = null;
 
+    /** Connection for reading array samples,
+     *  <code>null</code> to use the reader's connection
+     */
+    private Connection array_connection = null;
+
     /** Before version 3.1.0, we would look for array
      *  values in the array_val table until we are sure
      *  that there are no array samples.
@@ -163,6 +171,51 @@ abstract public class AbstractRDBValueIterator  implements ValueIterator
         return labels;
     }
 
+    /** Determine time of the sample at or before the start time,
+     *  so that the samples include the value that was valid at the start time
+     *  @param start Start time
+     *  @param end End time
+     *  @return Time of initial sample, or start time if there is none
+     *  @throws Exception on error, including cancellation
+     */
+    protected Timestamp determineActualStart(final Instant start, final Instant end) throws Exception
+    {
+        Timestamp start_stamp = TimestampHelper.toSQLTimestamp(start);
+        final Timestamp end_stamp = TimestampHelper.toSQLTimestamp(end);
+
+        // Get time of initial sample
+        final PreparedStatement statement =
+            reader.getConnection().prepareStatement(reader.getSQL().sample_sel_initial_time);
+        reader.addForCancellation(statement);
+        try
+        {
+            statement.setInt(1, channel_id);
+            statement.setTimestamp(2, start_stamp);
+            if (statement.getParameterMetaData().getParameterCount() == 3)
+                statement.setTimestamp(3, end_stamp);
+            final ResultSet result = statement.executeQuery();
+            if (result.next())
+            {
+                // System.out.print("Start time corrected from " + start_stamp);
+                final Timestamp actual_start = result.getTimestamp(1);
+                if (actual_start != null)
+                {
+                    start_stamp = actual_start;
+                    // Oracle has nanoseconds in TIMESTAMP, MySQL in separate column
+                    if (reader.getDialect() == Dialect.MySQL || reader.getDialect() == Dialect.PostgreSQL)
+                        start_stamp.setNanos(result.getInt(2));
+                    // System.out.println(" to " + start_stamp);
+                }
+            }
+        }
+        finally
+        {
+            reader.removeFromCancellation(statement);
+            statement.close();
+        }
+        return start_stamp;
+    }
+
     /** Extract value from SQL result
      *  @param result ResultSet that must contain contain time, severity, ..., value
      *  @param handle_array Try to read array elements, or only a scalar value?
@@ -259,7 +312,9 @@ abstract public class AbstractRDBValueIterator  implements ValueIterator
         // See if there are more array elements
         if (sel_array_samples == null)
         {   // Lazy initialization
-            sel_array_samples = reader.getConnection().prepareStatement(
+            final Connection connection = array_connection != null
+                ? array_connection : reader.getConnection();
+            sel_array_samples = connection.prepareStatement(
                     reader.getSQL().sample_sel_array_vals);
         }
         sel_array_samples.setInt(1, channel_id);
@@ -354,11 +409,22 @@ abstract public class AbstractRDBValueIterator  implements ValueIterator
         System.out.println();
     }
 
-    /** Release all database resources.
-     *  OK to call more than once.
+    /** Read array samples on a different connection
+     *
+     *  <p>Closes the statement for array samples that was
+     *  prepared on the previous connection.
+     *
+     *  @param connection Connection to use,
+     *                    <code>null</code> for the reader's connection
      */
-    @Override
-    public void close()
+    protected void setArrayConnection(final Connection connection)
+    {
+        closeArrayStatement();
+        array_connection = connection;
+    }
+
+    /** Close statement for array samples */
+    private void closeArrayStatement()
     {
         if (sel_array_samples != null)
         {
@@ -373,4 +439,13 @@ abstract public class AbstractRDBValueIterator  implements ValueIterator
             sel_array_samples = null;
         }
     }
+
+    /** Release all database resources.
+     *  OK to call more than once.
+     */
+    @Override
+    public void close()
+    {
+        closeArrayStatement();
+    }
 }
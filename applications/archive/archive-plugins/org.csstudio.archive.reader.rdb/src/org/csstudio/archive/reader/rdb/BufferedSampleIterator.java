@@ -0,0 +1,356 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.reader.rdb;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.csstudio.archive.vtype.TimestampHelper;
+import org.diirt.vtype.VType;
+
+/** Value Iterator for samples of one channel that are read
+ *  together with those of other channels.
+ *
+ *  <p>Each channel's initial sample, the one at or before the
+ *  requested start time, is read on its own.
+ *  The samples within the requested time range are then read
+ *  for a batch of channels with one query per time chunk,
+ *  and handed out by one iterator per channel.
+ *  The next chunk is only read once a channel of the batch
+ *  has handed out all its samples.
+ *
+ *  <p>A channel which still buffers many samples when the next
+ *  chunk is read, because its samples are not consumed as fast as
+ *  those of the other channels, leaves the batch and reads
+ *  its remaining samples chunk by chunk on its own.
+ *  Memory use is thus bounded by the chunk size,
+ *  independent of the requested time range.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class BufferedSampleIterator extends AbstractRDBValueIterator
+{
+    /** Maximum number of channels in one query */
+    final private static int MAX_CHANNELS_PER_QUERY = 100;
+
+    /** Maximum number of samples that a channel may still buffer
+     *  when the next chunk is read for its batch
+     */
+    final private static int MAX_BUFFERED = 10000;
+
+    /** Channels that are read together */
+    private static class Batch
+    {
+        final RDBArchiveReader reader;
+        final List<BufferedSampleIterator> channels;
+        final Timestamp end;
+        final long chunk_millis;
+
+        /** Start of the next chunk, <code>null</code> when all chunks have been read */
+        Timestamp chunk_start;
+
+        Batch(final RDBArchiveReader reader, final List<BufferedSampleIterator> channels,
+              final Timestamp start, final Timestamp end)
+        {
+            this.reader = reader;
+            this.channels = channels;
+            this.end = end;
+            chunk_millis = getChunkMillis();
+            chunk_start = start;
+        }
+
+        /** Read the next chunk for all channels of the batch
+         *  @throws Exception on error, including cancellation
+         */
+        synchronized void readChunk() throws Exception
+        {
+            // Channels that did not consume their samples continue on their own
+            for (BufferedSampleIterator iter : new ArrayList<>(channels))
+                if (iter.samples.size() > MAX_BUFFERED)
+                {
+                    channels.remove(iter);
+                    iter.batch = null;
+                }
+            if (chunk_start == null  ||  channels.isEmpty())
+                return;
+
+            final long chunk_end_millis = chunk_start.getTime() + chunk_millis;
+            final boolean last = chunk_end_millis >= end.getTime();
+            final Timestamp chunk_end = last ? end : new Timestamp(chunk_end_millis);
+
+            final Map<Integer, BufferedSampleIterator> by_id = new HashMap<>(channels.size());
+            final StringBuilder ids = new StringBuilder();
+            for (BufferedSampleIterator iter : channels)
+            {
+                by_id.put(iter.channel_id, iter);
+                if (ids.length() > 0)
+                    ids.append(',');
+                ids.append('?');
+            }
+
+            final SQL sql = reader.getSQL();
+            final String query;
+            if (reader.useArrayBlob())
+                query = last ? sql.sample_sel_by_ids_start_end_with_blob : sql.sample_sel_by_ids_chunk_with_blob;
+            else
+                query = last ? sql.sample_sel_by_ids_start_end : sql.sample_sel_by_ids_chunk;
+            final PreparedStatement statement = reader.getConnection().prepareStatement(String.format(query, ids.toString()));
+            reader.addForCancellation(statement);
+            try
+            {
+                statement.setFetchDirection(ResultSet.FETCH_FORWARD);
+                statement.setFetchSize(Preferences.getFetchSize());
+                int param = 1;
+                for (BufferedSampleIterator iter : channels)
+                    statement.setInt(param++, iter.channel_id);
+                statement.setTimestamp(param++, chunk_start);
+                statement.setTimestamp(param, chunk_end);
+                try
+                (
+                    final ResultSet result = statement.executeQuery();
+                )
+                {
+                    // Channel ID is the last column
+                    final int id_column = result.getMetaData().getColumnCount();
+                    while (result.next())
+                    {
+                        final BufferedSampleIterator iter = by_id.get(result.getInt(id_column));
+                        iter.samples.add(iter.decodeSampleTableValue(result, true));
+                    }
+                }
+            }
+            finally
+            {
+                reader.removeFromCancellation(statement);
+                statement.close();
+            }
+            chunk_start = last ? null : chunk_end;
+            for (BufferedSampleIterator iter : channels)
+                iter.next_start = chunk_start;
+        }
+
+        /** @param iter Channel that leaves the batch */
+        synchronized void remove(final BufferedSampleIterator iter)
+        {
+            channels.remove(iter);
+        }
+    }
+
+    /** Time of initial sample, at or before the requested start */
+    final private Timestamp start_stamp;
+
+    /** End of the requested time range */
+    final private Timestamp end_stamp;
+
+    /** Samples that have been read, but not handed out */
+    final private ArrayDeque<VType> samples = new ArrayDeque<>();
+
+    /** Batch that reads the samples of this channel,
+     *  <code>null</code> when reading on its own
+     */
+    private volatile Batch batch = null;
+
+    /** Start of the samples that have not been read yet,
+     *  <code>null</code> when all samples have been read
+     */
+    private volatile Timestamp next_start;
+
+    /** Initialize
+     *  @param reader RDBArchiveReader
+     *  @param channel_id ID of channel
+     *  @param start Start time
+     *  @param end End time
+     *  @throws Exception on error
+     */
+    BufferedSampleIterator(final RDBArchiveReader reader,
+            final int channel_id, final Instant start,
+            final Instant end) throws Exception
+    {
+        super(reader, channel_id);
+        start_stamp = determineActualStart(start, end);
+        end_stamp = TimestampHelper.toSQLTimestamp(end);
+        next_start = TimestampHelper.toSQLTimestamp(start);
+    }
+
+    /** @return Duration of one chunk in millisecs */
+    private static long getChunkMillis()
+    {
+        return Math.max(1000L, Math.round(Preferences.getStreamingChunkHours() * 60 * 60 * 1000));
+    }
+
+    /** Read initial samples and first chunk for several channels
+     *  @param reader RDBArchiveReader
+     *  @param iterators Iterators for the channels
+     *  @param start Start time
+     *  @param end End time
+     *  @throws Exception on error, including cancellation
+     */
+    static void readSamples(final RDBArchiveReader reader,
+            final Collection<BufferedSampleIterator> iterators,
+            final Instant start, final Instant end) throws Exception
+    {
+        List<BufferedSampleIterator> channels = new ArrayList<>(MAX_CHANNELS_PER_QUERY);
+        for (BufferedSampleIterator iter : iterators)
+        {
+            channels.add(iter);
+            if (channels.size() >= MAX_CHANNELS_PER_QUERY)
+            {
+                readBatch(reader, channels, start, end);
+                channels = new ArrayList<>(MAX_CHANNELS_PER_QUERY);
+            }
+        }
+        if (channels.size() > 0)
+            readBatch(reader, channels, start, end);
+    }
+
+    /** Read initial samples and first chunk for a batch of channels
+     *  @param reader RDBArchiveReader
+     *  @param channels Iterators for the channels
+     *  @param start Start time
+     *  @param end End time
+     *  @throws Exception on error, including cancellation
+     */
+    private static void readBatch(final RDBArchiveReader reader,
+            final List<BufferedSampleIterator> channels,
+            final Instant start, final Instant end) throws Exception
+    {
+        final Batch batch = new Batch(reader, new ArrayList<>(channels),
+                TimestampHelper.toSQLTimestamp(start), TimestampHelper.toSQLTimestamp(end));
+        for (BufferedSampleIterator iter : channels)
+        {
+            iter.batch = batch;
+            iter.readInitialSamples();
+        }
+        for (BufferedSampleIterator iter : channels)
+            iter.fill();
+    }
+
+    /** Read the samples from the initial sample up to the requested start
+     *  @throws Exception on error, including cancellation
+     */
+    private void readInitialSamples() throws Exception
+    {
+        if (start_stamp.before(next_start))
+            readChunk(start_stamp, next_start, false);
+    }
+
+    /** Read samples until there is at least one or all have been read
+     *  @throws Exception on error, including cancellation
+     */
+    private void fill() throws Exception
+    {
+        while (samples.isEmpty()  &&  next_start != null)
+        {
+            final Batch batch = this.batch;
+            if (batch != null)
+                batch.readChunk();
+            else
+            {   // Read next chunk of this channel on its own
+                final long chunk_end_millis = next_start.getTime() + getChunkMillis();
+                final boolean last = chunk_end_millis >= end_stamp.getTime();
+                final Timestamp chunk_end = last ? end_stamp : new Timestamp(chunk_end_millis);
+                readChunk(next_start, chunk_end, last);
+                next_start = last ? null : chunk_end;
+            }
+        }
+    }
+
+    /** Read samples of this channel
+     *  @param start Start time, inclusive
+     *  @param end End time
+     *  @param last Include end time?
+     *  @throws Exception on error, including cancellation
+     */
+    private void readChunk(final Timestamp start, final Timestamp end, final boolean last) throws Exception
+    {
+        final SQL sql = reader.getSQL();
+        final String query;
+        if (reader.useArrayBlob())
+            query = last ? sql.sample_sel_by_id_start_end_with_blob : sql.sample_sel_by_id_chunk_with_blob;
+        else
+            query = last ? sql.sample_sel_by_id_start_end : sql.sample_sel_by_id_chunk;
+        final PreparedStatement statement = reader.getConnection().prepareStatement(query);
+        reader.addForCancellation(statement);
+        try
+        {
+            statement.setFetchDirection(ResultSet.FETCH_FORWARD);
+            statement.setFetchSize(Preferences.getFetchSize());
+            statement.setInt(1, channel_id);
+            statement.setTimestamp(2, start);
+            statement.setTimestamp(3, end);
+            try
+            (
+                final ResultSet result = statement.executeQuery();
+            )
+            {
+                while (result.next())
+                    samples.add(decodeSampleTableValue(result, true));
+            }
+        }
+        finally
+        {
+            reader.removeFromCancellation(statement);
+            statement.close();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasNext()
+    {
+        return ! samples.isEmpty();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public VType next() throws Exception
+    {
+        if (! hasNext())
+            throw new Exception("BufferedSampleIterator.next(" + channel_id + ") called after end");
+        final VType result = samples.poll();
+        if (samples.isEmpty())
+        {
+            try
+            {
+                fill();
+            }
+            catch (Exception ex)
+            {
+                close();
+                if (! RDBArchiveReader.isCancellation(ex))
+                    throw ex;
+                // Else: Not a real error; end the iteration
+            }
+        }
+        return result;
+    }
+
+    /** Release all resources.
+     *  OK to call more than once.
+     */
+    @Override
+    public void close()
+    {
+        super.close();
+        final Batch batch = this.batch;
+        if (batch != null)
+            batch.remove(this);
+        this.batch = null;
+        next_start = null;
+        samples.clear();
+    }
+}
@@ -15,6 +15,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.csstudio.platform.utility.rdb.RDBConnectionPool;
 import org.csstudio.platform.utility.rdb.RDBUtil;
 import org.csstudio.platform.utility.rdb.RDBUtil.Dialect;
 
@@ -28,6 +29,10 @@ import org.csstudio.platform.utility.rdb.RDBUtil.Dialect;
  *
  *  <p>Connections are marked read-only which helps at least MySQL.
  *
+ *  <p>Pools of connections for streaming reads are cached in the same way,
+ *  so streams of all readers for the same database share
+ *  the pool's connections instead of each reader connecting anew.
+ *
  *  @author Kay Kasemir
  */
 public class ConnectionCache
@@ -91,10 +96,33 @@ public class ConnectionCache
         }
     }
 
+    /** Cached pool of connections with reference count */
+    public static class PoolEntry
+    {
+        private final ID id;
+        private final AtomicInteger references = new AtomicInteger(1);
+        private final RDBConnectionPool pool;
+
+        PoolEntry(final ID id, final RDBConnectionPool pool)
+        {
+            this.id = id;
+            this.pool = pool;
+        }
+
+        /** @return Pool of connections, MUST NOT BE CLOSED */
+        public RDBConnectionPool getPool()
+        {
+            return pool;
+        }
+    }
+
     /** Cache */
     // Expecting only very few entries, so list & linear search good enough
     private final static List<Entry> cache = new ArrayList<>();
 
+    /** Cached pools, SYNC on cache */
+    private final static List<PoolEntry> pools = new ArrayList<>();
+
     /** Find entry
      *  @param id ID
      *  @return Existing entry with added reference or <code>null</code>
@@ -155,6 +183,51 @@ public class ConnectionCache
         logger.log(Level.FINE, "Closed {0}", entry.id.url);
     }
 
+    /** Get a cached pool of RDB connections
+     *
+     *  <p>Connections are created once used.
+     *
+     *  @param url Database URL
+     *  @param user .. user
+     *  @param password .. password
+     *  @param size Maximum number of connections, used when creating the pool
+     *  @return {@link PoolEntry}
+     *  @throws Exception on error
+     *  @see #release(PoolEntry)
+     */
+    public static PoolEntry getPool(final String url, final String user, final String password,
+                                    final int size) throws Exception
+    {
+        final ID id = new ID(url, user, password);
+        synchronized (cache)
+        {
+            for (PoolEntry entry : pools)
+                if (entry.id.equals(id))
+                {
+                    entry.references.incrementAndGet();
+                    return entry;
+                }
+            final PoolEntry entry = new PoolEntry(id, new RDBConnectionPool(url, user, password, size));
+            pools.add(entry);
+            return entry;
+        }
+    }
+
+    /** Release pool entry when no longer used
+     *  @param entry Entry to release
+     */
+    public static void release(final PoolEntry entry)
+    {
+        synchronized (cache)
+        {
+            if (entry.references.decrementAndGet() > 0)
+                return; // Still in use
+            pools.remove(entry);
+        }
+        entry.pool.close();
+        logger.log(Level.FINE, "Closed pool for {0}", entry.id.url);
+    }
+
     /**
      * Clear cache content
      */
@@ -163,6 +236,7 @@ public class ConnectionCache
         synchronized (cache)
         {
             cache.clear();
+            pools.clear();
         }
     }
 }
@@ -21,6 +21,7 @@ public class Messages extends NLS
     public static String PreferenceTitle;
     public static String Schema;
     public static String StoredProcedure;
+    public static String StreamingReads;
     public static String UseBLOB;
     public static String User;
 
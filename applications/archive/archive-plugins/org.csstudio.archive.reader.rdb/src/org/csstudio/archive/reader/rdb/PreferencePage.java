@@ -104,6 +104,16 @@ public class PreferencePage extends FieldEditorPreferencePage
             }
         };
         addField(editor);
+        final BooleanFieldEditor streaming =
+                new BooleanFieldEditor(Preferences.STREAMING_READS, Messages.StreamingReads, parent)
+        {
+            @Override
+            public void setPreferenceStore(final IPreferenceStore ignored)
+            {
+                super.setPreferenceStore(reader_prefs);
+            }
+        };
+        addField(streaming);
 
         addField(new BooleanFieldEditor(RDBArchivePreferences.USE_ARRAY_BLOB, Messages.UseBLOB, parent));
     }
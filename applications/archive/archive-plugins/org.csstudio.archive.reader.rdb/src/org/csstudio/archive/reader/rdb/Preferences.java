@@ -25,6 +25,10 @@ public class Preferences
     final public static String FETCH_SIZE = "fetch_size";
     final public static String STORED_PROCEDURE = "use_stored_procedure";
     final public static String STARTTIME_FUNCTION = "use_starttime_function";
+    final public static String STREAMING_READS = "streaming_reads";
+    final public static String STREAMING_CHUNK_HOURS = "streaming_chunk_hours";
+    final public static String STREAMING_PREFETCH = "streaming_prefetch";
+    final public static String STREAMING_CONNECTIONS = "streaming_connections";
 
     public static int getFetchSize()
     {
@@ -35,6 +39,41 @@ public class Preferences
         return prefs.getInt(Activator.ID, FETCH_SIZE, fetch_size, null);
     }
 
+    public static boolean useStreamingReads()
+    {
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        if (prefs == null)
+            return false;
+        return prefs.getBoolean(Activator.ID, STREAMING_READS, false, null);
+    }
+
+    public static double getStreamingChunkHours()
+    {
+        double chunk_hours = 24.0;
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        if (prefs == null)
+            return chunk_hours;
+        return prefs.getDouble(Activator.ID, STREAMING_CHUNK_HOURS, chunk_hours, null);
+    }
+
+    public static int getStreamingPrefetch()
+    {
+        int prefetch = 10000;
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        if (prefs == null)
+            return prefetch;
+        return prefs.getInt(Activator.ID, STREAMING_PREFETCH, prefetch, null);
+    }
+
+    public static int getStreamingConnections()
+    {
+        int connections = 20;
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        if (prefs == null)
+            return connections;
+        return prefs.getInt(Activator.ID, STREAMING_CONNECTIONS, connections, null);
+    }
+
     public static String getStoredProcedure()
     {
         return getString(STORED_PROCEDURE, "");
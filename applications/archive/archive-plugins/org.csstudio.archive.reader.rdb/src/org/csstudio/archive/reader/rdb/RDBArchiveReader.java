@@ -15,15 +15,21 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.csstudio.archive.rdb.RDBArchivePreferences;
 import org.csstudio.archive.reader.ArchiveInfo;
 import org.csstudio.archive.reader.ArchiveReader;
+import org.csstudio.archive.reader.MultiChannelFetch;
 import org.csstudio.archive.reader.UnknownChannelException;
 import org.csstudio.archive.reader.ValueIterator;
 import org.csstudio.archive.vtype.TimestampHelper;
+import org.csstudio.platform.utility.rdb.RDBConnectionPool;
 import org.csstudio.platform.utility.rdb.RDBUtil.Dialect;
 import org.diirt.util.time.TimeDuration;
 import org.diirt.vtype.AlarmSeverity;
@@ -54,14 +60,21 @@ public class RDBArchiveReader implements ArchiveReader
     final private String stored_procedure;
 
     final private ConnectionCache.Entry rdb;
+
+    /** Connections for streaming reads, which run in background threads,
+     *  shared with other readers for the same database
+     */
+    final private ConnectionCache.PoolEntry streaming_pool;
     final private SQL sql;
     final private boolean is_oracle;
 
     /** Map of status IDs to Status strings */
-    final private HashMap<Integer, String> stati;
+    final private Map<Integer, String> stati;
 
-    /** Map of severity IDs to Severities */
-    final private HashMap<Integer, AlarmSeverity> severities;
+    /** Map of severity IDs to Severities,
+     *  concurrent because streaming reads decode in background threads
+     */
+    final private Map<Integer, AlarmSeverity> severities;
 
     /** List of statements to cancel in cancel() */
     private ArrayList<Statement> cancellable_statements =
@@ -106,6 +119,9 @@ public class RDBArchiveReader implements ArchiveReader
         this.use_array_blob = use_array_blob;
         timeout = RDBArchivePreferences.getSQLTimeoutSecs();
         rdb = ConnectionCache.get(url, user, password);
+        // Connections are only created once used by a streaming read
+        streaming_pool = ConnectionCache.getPool(url, user, password,
+                Math.max(1, Preferences.getStreamingConnections()));
 
         // Read-only allows MySQL to use load balancing
         if (!rdb.getConnection().isReadOnly()) {
@@ -132,7 +148,7 @@ public class RDBArchiveReader implements ArchiveReader
         }
         sql = new SQL(dialect, schema);
         stati = getStatusValues();
-        severities = getSeverityValues();
+        severities = new ConcurrentHashMap<>(getSeverityValues());
     }
 
     /** @return <code>true</code> when using Oracle, i.e. no 'nanosec'
@@ -224,6 +240,15 @@ public class RDBArchiveReader implements ArchiveReader
         return rdb.getConnection();
     }
 
+    /** @return Pool of connections for streaming reads.
+     *          Connections must be obtained and released
+     *          by the thread that uses them.
+     */
+    RDBConnectionPool getStreamingPool()
+    {
+        return streaming_pool.getPool();
+    }
+
     Dialect getDialect()
     {
         return rdb.getDialect();
@@ -363,6 +388,52 @@ public class RDBArchiveReader implements ArchiveReader
         return getRawValues(channel_id, start, end);
     }
 
+    /** {@inheritDoc}
+     *
+     *  <p>Reads the samples of all channels with one query per
+     *  batch of channels and time chunk.
+     *  With streaming reads, channels are read one by one.
+     */
+    @Override
+    public Map<String, ValueIterator> getRawValues(final int key, final List<String> names,
+            final Instant start, final Instant end) throws Exception
+    {
+        if (names.size() <= 1  ||  Preferences.useStreamingReads())
+            return ArchiveReader.super.getRawValues(key, names, start, end);
+
+        final Map<String, ValueIterator> result = new LinkedHashMap<>();
+        final List<BufferedSampleIterator> iterators = new ArrayList<>(names.size());
+        try
+        {
+            for (String name : names)
+            {
+                if (result.containsKey(name))
+                    continue;
+                final int channel_id;
+                try
+                {
+                    channel_id = getChannelID(name);
+                }
+                catch (UnknownChannelException ex)
+                {
+                    continue;
+                }
+                final BufferedSampleIterator iter = new BufferedSampleIterator(this, channel_id, start, end);
+                result.put(name, iter);
+                iterators.add(iter);
+            }
+            BufferedSampleIterator.readSamples(this, iterators, start, end);
+        }
+        catch (Exception ex)
+        {
+            MultiChannelFetch.close(result);
+            if (! isCancellation(ex))
+                throw ex;
+            // Else: Not a real error; return empty result
+        }
+        return result;
+    }
+
     /** Fetch raw samples
      *  @param channel_id Channel ID in RDB
      *  @param start Start time
@@ -373,6 +444,8 @@ public class RDBArchiveReader implements ArchiveReader
     public ValueIterator getRawValues(final int channel_id,
             final Instant start, final Instant end) throws Exception
     {
+        if (Preferences.useStreamingReads())
+            return new StreamingSampleIterator(this, channel_id, start, end);
         return new RawSampleIterator(this, channel_id, start, end, concurrency);
     }
 
@@ -534,6 +607,7 @@ public class RDBArchiveReader implements ArchiveReader
                 "Attempt to cleanup connection failed with Exception", ex); //$NON-NLS-1$
         }
         ConnectionCache.release(rdb);
+        ConnectionCache.release(streaming_pool);
     }
 
     @Override
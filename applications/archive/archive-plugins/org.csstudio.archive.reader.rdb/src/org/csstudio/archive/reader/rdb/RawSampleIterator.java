@@ -9,7 +9,6 @@ package org.csstudio.archive.reader.rdb;
 
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.Timestamp;
 import java.time.Instant;
 
 import org.csstudio.archive.vtype.TimestampHelper;
@@ -81,40 +80,9 @@ public class RawSampleIterator extends AbstractRDBValueIterator
      */
     private void determineInitialSample(final Instant start, final Instant end) throws Exception
     {
-        java.sql.Timestamp start_stamp = TimestampHelper.toSQLTimestamp(start);
+        final java.sql.Timestamp start_stamp = determineActualStart(start, end);
         final java.sql.Timestamp end_stamp = TimestampHelper.toSQLTimestamp(end);
 
-        // Get time of initial sample
-        final PreparedStatement statement =
-            reader.getConnection().prepareStatement(reader.getSQL().sample_sel_initial_time);
-        reader.addForCancellation(statement);
-        try
-        {
-            statement.setInt(1, channel_id);
-            statement.setTimestamp(2, start_stamp);
-            if (statement.getParameterMetaData().getParameterCount() == 3)
-                statement.setTimestamp(3, end_stamp);
-            final ResultSet result = statement.executeQuery();
-            if (result.next())
-            {
-                // System.out.print("Start time corrected from " + start_stamp);
-                final Timestamp actual_start = result.getTimestamp(1);
-                if (actual_start != null)
-                {
-                    start_stamp = actual_start;
-                    // Oracle has nanoseconds in TIMESTAMP, MySQL in separate column
-                    if (reader.getDialect() == Dialect.MySQL || reader.getDialect() == Dialect.PostgreSQL)
-                        start_stamp.setNanos(result.getInt(2));
-                    // System.out.println(" to " + start_stamp);
-                }
-            }
-        }
-        finally
-        {
-            reader.removeFromCancellation(statement);
-            statement.close();
-        }
-
         boolean autoCommit = reader.getConnection().getAutoCommit();
         // Disable auto-commit to determine sample with PostgreSQL when fetch direction is FETCH_FORWARD
         if (reader.getDialect() == Dialect.PostgreSQL && autoCommit) {
@@ -36,6 +36,12 @@ public class SQL
     final public String sample_sel_initial_time;
     final public String sample_sel_by_id_start_end;
     final public String sample_sel_by_id_start_end_with_blob;
+    final public String sample_sel_by_id_chunk;
+    final public String sample_sel_by_id_chunk_with_blob;
+    final public String sample_sel_by_ids_start_end;
+    final public String sample_sel_by_ids_start_end_with_blob;
+    final public String sample_sel_by_ids_chunk;
+    final public String sample_sel_by_ids_chunk_with_blob;
     final public String sample_sel_array_vals;
     final public String sample_count_by_id_start_end;
 
@@ -128,8 +134,30 @@ public class SQL
             sample_sel_array_vals = "SELECT float_val FROM " + prefix + "array_val" +
                 " WHERE channel_id=? AND smpl_time=? AND nanosecs=? ORDER BY seq_nbr";
         }
+        // Chunks of a streamed read: start <= smpl_time < end
+        sample_sel_by_id_chunk = sample_sel_by_id_start_end
+            .replace("smpl_time BETWEEN ? AND ?", "smpl_time>=? AND smpl_time<?")
+            .replace("smpl_time<=?", "smpl_time<?");
+        sample_sel_by_id_chunk_with_blob = sample_sel_by_id_start_end_with_blob
+            .replace("smpl_time<=?", "smpl_time<?");
+        // Several channels, '%s' to be replaced by the '?' for the IDs,
+        // channel_id added as last column
+        sample_sel_by_ids_start_end = toMultiChannelQuery(sample_sel_by_id_start_end);
+        sample_sel_by_ids_start_end_with_blob = toMultiChannelQuery(sample_sel_by_id_start_end_with_blob);
+        sample_sel_by_ids_chunk = toMultiChannelQuery(sample_sel_by_id_chunk);
+        sample_sel_by_ids_chunk_with_blob = toMultiChannelQuery(sample_sel_by_id_chunk_with_blob);
         // Rough count, ignoring nanosecs for the non-Oracle dialects
         sample_count_by_id_start_end = "SELECT COUNT(*) FROM " + prefix + "sample" +
           "   WHERE channel_id=? AND smpl_time BETWEEN ? AND ?";
     }
+
+    /** @param query Query for samples of one channel
+     *  @return Query for samples of several channels
+     */
+    private static String toMultiChannelQuery(final String query)
+    {
+        return query.replaceFirst("\\s+FROM ", ", channel_id FROM ")
+                    .replace("channel_id=?", "channel_id IN (%s)")
+                    .replace("ORDER BY smpl_time", "ORDER BY channel_id, smpl_time");
+    }
 }
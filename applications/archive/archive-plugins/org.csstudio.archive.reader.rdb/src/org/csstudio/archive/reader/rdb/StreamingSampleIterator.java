@@ -0,0 +1,328 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.reader.rdb;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.csstudio.archive.vtype.TimestampHelper;
+import org.csstudio.platform.utility.rdb.RDBConnectionPool;
+import org.csstudio.platform.utility.rdb.RDBUtil.Dialect;
+import org.diirt.vtype.VType;
+
+/** Value Iterator that streams samples from the SAMPLE table.
+ *
+ *  <p>The time range is read in chunks, one query per chunk,
+ *  so the RDB never has to prepare the complete result.
+ *  Each query uses a server-side cursor where the dialect supports it,
+ *  fetching rows in batches of the configured fetch size:
+ *  <ul>
+ *  <li>PostgreSQL: Cursor for forward-only statement with fetch size, auto-commit off
+ *  <li>MySQL: Cursor when the URL includes <code>useCursorFetch=true</code>,
+ *      otherwise bounded by the chunk size
+ *  <li>Oracle: Rows are always fetched in batches of the fetch size
+ *  </ul>
+ *
+ *  <p>A background thread runs the queries and decodes the samples
+ *  into a bounded queue.
+ *  It uses its own connection from the streaming pool,
+ *  which is shared by all readers for the same database,
+ *  also for array elements that are not kept in a BLOB,
+ *  so the cursor and transaction of the stream do not interfere
+ *  with other queries on the reader's shared connection.
+ *  It can thus proceed to the next chunk while the
+ *  caller still handles the samples of the previous one,
+ *  while memory use is limited by the queue size,
+ *  independent of the time range.
+ *  The first samples are available as soon as the first
+ *  rows of the first chunk have been fetched.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class StreamingSampleIterator extends AbstractRDBValueIterator
+{
+    /** Queue item that marks the end of samples */
+    final private static Object END = new Object();
+
+    /** Threads that read samples in the background */
+    final private static ExecutorService readers = Executors.newCachedThreadPool(runnable ->
+    {
+        final Thread thread = new Thread(runnable, "RDBSampleStreamer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Duration of one chunk in millisecs */
+    final private long chunk_millis;
+
+    /** Samples, END or an Exception, filled by background thread */
+    final private BlockingQueue<Object> queue;
+
+    /** Set to stop background thread */
+    private volatile boolean closed = false;
+
+    /** Background thread */
+    private Future<?> producer = null;
+
+    /** Query of the background thread */
+    private volatile PreparedStatement statement = null;
+
+    /** 'Current' value that <code>next()</code> will return,
+     *  or <code>null</code>
+     */
+    private VType value = null;
+
+    /** Initialize
+     *  @param reader RDBArchiveReader
+     *  @param channel_id ID of channel
+     *  @param start Start time
+     *  @param end End time
+     *  @throws Exception on error
+     */
+    public StreamingSampleIterator(final RDBArchiveReader reader,
+            final int channel_id, final Instant start,
+            final Instant end) throws Exception
+    {
+        super(reader, channel_id);
+        chunk_millis = Math.max(1000L, Math.round(Preferences.getStreamingChunkHours() * 60 * 60 * 1000));
+        queue = new ArrayBlockingQueue<>(Math.max(1, Preferences.getStreamingPrefetch()));
+        try
+        {
+            final Timestamp start_stamp = determineActualStart(start, end);
+            final Timestamp end_stamp = TimestampHelper.toSQLTimestamp(end);
+            producer = readers.submit(() -> readChunks(start_stamp, end_stamp));
+            value = take();
+        }
+        catch (Exception ex)
+        {
+            close();
+            if (! RDBArchiveReader.isCancellation(ex))
+                throw ex;
+            // Else: Not a real error; return empty iterator
+        }
+    }
+
+    /** Background thread: Read all chunks into queue
+     *  @param start Start time
+     *  @param end End time
+     */
+    private void readChunks(final Timestamp start, final Timestamp end)
+    {
+        final RDBConnectionPool pool = reader.getStreamingPool();
+        try
+        {
+            final Connection connection = pool.getConnection();
+            try
+            {
+                if (! connection.isReadOnly())
+                    connection.setReadOnly(true);
+                // PostgreSQL only uses a cursor when auto-commit is off
+                if (reader.getDialect() == Dialect.PostgreSQL)
+                    connection.setAutoCommit(false);
+                // Array elements that are not in a BLOB are read with one more query
+                setArrayConnection(connection);
+
+                Timestamp chunk_start = start;
+                while (! closed)
+                {
+                    final long chunk_end_millis = chunk_start.getTime() + chunk_millis;
+                    final boolean last = chunk_end_millis >= end.getTime();
+                    final Timestamp chunk_end = last ? end : new Timestamp(chunk_end_millis);
+                    readChunk(connection, chunk_start, chunk_end, last);
+                    if (last)
+                        break;
+                    chunk_start = chunk_end;
+                }
+            }
+            finally
+            {
+                setArrayConnection(null);
+                // Pool expects connections in auto-commit mode
+                try
+                {
+                    if (! connection.getAutoCommit())
+                    {
+                        connection.rollback();
+                        connection.setAutoCommit(true);
+                    }
+                }
+                catch (Exception ex)
+                {
+                    Activator.getLogger().log(Level.WARNING, "Cannot reset streaming connection", ex);
+                }
+                // Executor threads are re-used, possibly for another pool
+                pool.releaseThread();
+            }
+            put(END);
+        }
+        catch (Exception ex)
+        {
+            put(ex);
+        }
+    }
+
+    /** Read one chunk into queue
+     *  @param connection Connection of the background thread
+     *  @param start Start time, inclusive
+     *  @param end End time
+     *  @param last Last chunk, include end time?
+     *  @throws Exception on error
+     */
+    private void readChunk(final Connection connection,
+            final Timestamp start, final Timestamp end, final boolean last) throws Exception
+    {
+        final SQL sql = reader.getSQL();
+        final String query;
+        if (reader.useArrayBlob())
+            query = last ? sql.sample_sel_by_id_start_end_with_blob : sql.sample_sel_by_id_chunk_with_blob;
+        else
+            query = last ? sql.sample_sel_by_id_start_end : sql.sample_sel_by_id_chunk;
+
+        final PreparedStatement statement = connection.prepareStatement(query,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        reader.addForCancellation(statement);
+        this.statement = statement;
+        try
+        {
+            statement.setFetchDirection(ResultSet.FETCH_FORWARD);
+            statement.setFetchSize(Preferences.getFetchSize());
+            statement.setInt(1, channel_id);
+            statement.setTimestamp(2, start);
+            statement.setTimestamp(3, end);
+            try
+            (
+                final ResultSet result = statement.executeQuery();
+            )
+            {
+                while (! closed  &&  result.next())
+                    put(decodeSampleTableValue(result, true));
+            }
+        }
+        finally
+        {
+            this.statement = null;
+            reader.removeFromCancellation(statement);
+            statement.close();
+        }
+    }
+
+    /** Add item to queue, waiting for space unless closed
+     *  @param item Item to add
+     */
+    private void put(final Object item)
+    {
+        try
+        {
+            while (! closed)
+                if (queue.offer(item, 100, TimeUnit.MILLISECONDS))
+                    return;
+        }
+        catch (InterruptedException ex)
+        {
+            // Closed
+        }
+    }
+
+    /** Get next sample from queue
+     *  @return Sample or <code>null</code> at end
+     *  @throws Exception on error from background thread
+     */
+    private VType take() throws Exception
+    {
+        final Object item = queue.take();
+        if (item instanceof VType)
+            return (VType) item;
+        close();
+        if (item instanceof Exception)
+            throw (Exception) item;
+        return null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasNext()
+    {
+        return value != null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public VType next() throws Exception
+    {
+        // This should not happen...
+        if (value == null)
+            throw new Exception("StreamingSampleIterator.next(" + channel_id + ") called after end");
+
+        // Remember value to return...
+        final VType result = value;
+        // ... and prepare next value
+        try
+        {
+            value = take();
+        }
+        catch (Exception ex)
+        {
+            value = null;
+            if (! RDBArchiveReader.isCancellation(ex))
+                throw ex;
+            // Else: Not a real error; return empty iterator
+        }
+        return result;
+    }
+
+    /** Release all database resources.
+     *  OK to call more than once.
+     */
+    @Override
+    public void close()
+    {
+        value = null;
+        if (closed)
+            return;
+        closed = true;
+        if (producer != null)
+        {
+            final PreparedStatement running = statement;
+            if (running != null)
+            {
+                try
+                {
+                    running.cancel();
+                }
+                catch (Exception ex)
+                {
+                    // Ignore, background thread will notice 'closed' after the next sample
+                }
+            }
+            try
+            {
+                producer.get(10, TimeUnit.SECONDS);
+            }
+            catch (Exception ex)
+            {
+                Activator.getLogger().log(Level.WARNING, "Sample stream for channel ID " + channel_id + " did not stop", ex);
+            }
+            producer = null;
+        }
+        // May be called by base class constructor before queue is set
+        if (queue != null)
+            queue.clear();
+        super.close();
+    }
+}
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.cstudio.archive.reader;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.csstudio.archive.reader.ArchiveCache;
+import org.csstudio.archive.reader.ArchiveCache.RangeFetch;
+import org.csstudio.archive.vtype.ArchiveVString;
+import org.csstudio.archive.vtype.VTypeHelper;
+import org.diirt.vtype.AlarmSeverity;
+import org.diirt.vtype.VType;
+import org.junit.Test;
+
+/** JUnit test of the {@link ArchiveCache}
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class ArchiveCacheUnitTest
+{
+    /** Time of first sample, long ago so that hold-back doesn't matter */
+    final private static Instant T0 = Instant.ofEpochSecond(1000000);
+
+    /** Time ranges that were fetched */
+    final private List<String> fetches = new ArrayList<>();
+
+    /** Archive with one sample every 10 seconds, returning the sample at or before the start */
+    final private RangeFetch fetch = (start, end) ->
+    {
+        fetches.add(secs(start) + "-" + secs(end));
+        final List<VType> values = new ArrayList<>();
+        long t = Math.max(0, secs(start) / 10 * 10);
+        while (t <= secs(end))
+        {
+            values.add(new ArchiveVString(T0.plusSeconds(t), AlarmSeverity.NONE, "OK", Long.toString(t)));
+            t += 10;
+        }
+        return values;
+    };
+
+    private static long secs(final Instant time)
+    {
+        return Duration.between(T0, time).getSeconds();
+    }
+
+    private static String times(final List<VType> values)
+    {
+        final StringBuilder buf = new StringBuilder();
+        for (VType value : values)
+        {
+            if (buf.length() > 0)
+                buf.append(", ");
+            buf.append(secs(VTypeHelper.getTimestamp(value)));
+        }
+        return buf.toString();
+    }
+
+    @Test
+    public void testGaps() throws Exception
+    {
+        final ArchiveCache cache = new ArchiveCache(1000000, Duration.ofMinutes(5));
+
+        // Initial fetch, including sample before the start
+        List<VType> values = cache.getSamples("a", T0.plusSeconds(15), T0.plusSeconds(45), fetch);
+        assertThat(times(values), equalTo("10, 20, 30, 40"));
+        assertThat(fetches.toString(), equalTo("[15-45]"));
+
+        // Same range: From cache
+        values = cache.getSamples("a", T0.plusSeconds(15), T0.plusSeconds(45), fetch);
+        assertThat(times(values), equalTo("10, 20, 30, 40"));
+        assertThat(fetches.size(), equalTo(1));
+
+        // Sub-range within what was fetched, incl. sample before the original start
+        values = cache.getSamples("a", T0.plusSeconds(12), T0.plusSeconds(25), fetch);
+        assertThat(times(values), equalTo("10, 20"));
+        assertThat(fetches.size(), equalTo(1));
+
+        // Pan: Only fetch the new part
+        values = cache.getSamples("a", T0.plusSeconds(30), T0.plusSeconds(70), fetch);
+        assertThat(times(values), equalTo("30, 40, 50, 60, 70"));
+        assertThat(fetches.toString(), equalTo("[15-45, 45-70]"));
+
+        // Zoom out: Fetch both ends
+        values = cache.getSamples("a", T0, T0.plusSeconds(100), fetch);
+        assertThat(times(values), equalTo("0, 10, 20, 30, 40, 50, 60, 70, 80, 90, 100"));
+        assertThat(fetches.toString(), equalTo("[15-45, 45-70, 0-10, 70-100]"));
+        assertThat(cache.getHits(), equalTo(2L));
+        assertThat(cache.getMisses(), equalTo(3L));
+
+        // Other channel is separate
+        cache.getSamples("b", T0, T0.plusSeconds(100), fetch);
+        assertThat(fetches.size(), equalTo(5));
+        assertThat(cache.getEntryCount(), equalTo(2));
+        System.out.println(cache);
+    }
+
+    @Test
+    public void testRecentData() throws Exception
+    {
+        final ArchiveCache cache = new ArchiveCache(1000000, Duration.ofMinutes(5));
+        final Instant now = Instant.now();
+        final Instant start = now.minus(Duration.ofMinutes(10));
+
+        cache.getSamples("a", start, now, fetch);
+        assertThat(fetches.size(), equalTo(1));
+
+        // Older data is cached, the last 5 minutes are fetched again
+        cache.getSamples("a", start, now, fetch);
+        assertThat(fetches.size(), equalTo(2));
+        final String[] range = fetches.get(1).split("-");
+        final long fetched = Long.parseLong(range[1]) - Long.parseLong(range[0]);
+        assertThat(fetched <= 5*60 + 1, equalTo(true));
+    }
+
+    @Test
+    public void testEviction() throws Exception
+    {
+        // Each sample is about 120 bytes, allow about 50 samples
+        final ArchiveCache cache = new ArchiveCache(50*130, Duration.ofMinutes(5));
+
+        cache.getSamples("a", T0, T0.plusSeconds(200), fetch);
+        cache.getSamples("b", T0, T0.plusSeconds(200), fetch);
+        assertThat(cache.getEntryCount(), equalTo(2));
+
+        // Using 'a' makes 'b' the least recently used channel
+        cache.getSamples("a", T0, T0.plusSeconds(200), fetch);
+        cache.getSamples("c", T0, T0.plusSeconds(200), fetch);
+        System.out.println(cache);
+        assertThat(cache.getEntryCount(), equalTo(2));
+        assertThat(cache.getSize() <= 50*130, equalTo(true));
+
+        // 'a' is still cached, 'b' needs to be fetched again
+        int count = fetches.size();
+        cache.getSamples("a", T0, T0.plusSeconds(200), fetch);
+        assertThat(fetches.size(), equalTo(count));
+        cache.getSamples("b", T0, T0.plusSeconds(200), fetch);
+        assertThat(fetches.size(), equalTo(count + 1));
+    }
+}
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.cstudio.archive.reader;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.csstudio.archive.reader.MultiChannelFetch;
+import org.csstudio.archive.reader.MultiChannelFetch.ChannelFetch;
+import org.csstudio.archive.reader.UnknownChannelException;
+import org.csstudio.archive.reader.ValueIterator;
+import org.junit.Test;
+
+/** JUnit test of the {@link MultiChannelFetch}
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class MultiChannelFetchUnitTest
+{
+    final private static List<String> NAMES = Arrays.asList("A", "B", "Unknown", "C", "A");
+
+    /** Fetch that takes some time per channel, and doesn't know 'Unknown' */
+    final private List<DemoDataIterator> fetched = new ArrayList<>();
+    final private ChannelFetch fetch = name ->
+    {
+        Thread.sleep(200);
+        if (name.equals("Unknown"))
+            throw new UnknownChannelException(name);
+        if (name.equals("Error"))
+            throw new Exception("Failed to fetch " + name);
+        final DemoDataIterator iter = DemoDataIterator.forStrings(name);
+        synchronized (fetched)
+        {
+            fetched.add(iter);
+        }
+        return iter;
+    };
+
+    /** @param result Fetched channels in expected order */
+    private void checkResult(final Map<String, ValueIterator> result) throws Exception
+    {
+        assertThat(new ArrayList<>(result.keySet()), equalTo(Arrays.asList("A", "B", "C")));
+        for (Map.Entry<String, ValueIterator> entry : result.entrySet())
+        {
+            int count = 0;
+            while (entry.getValue().hasNext())
+            {
+                entry.getValue().next();
+                ++count;
+            }
+            assertThat(count, equalTo(10));
+        }
+        MultiChannelFetch.close(result);
+    }
+
+    @Test
+    public void testSequential() throws Exception
+    {
+        checkResult(MultiChannelFetch.fetch(NAMES, fetch));
+    }
+
+    @Test
+    public void testParallel() throws Exception
+    {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final long start = System.currentTimeMillis();
+        final Map<String, ValueIterator> result = MultiChannelFetch.fetch(executor, NAMES, fetch);
+        final long millis = System.currentTimeMillis() - start;
+        System.out.println("Parallel fetch took " + millis + " ms");
+        // Sequential would take 4 x 200ms
+        assertThat(millis < 600, equalTo(true));
+        checkResult(result);
+        executor.shutdown();
+    }
+
+    /** An error closes what was already fetched */
+    @Test
+    public void testError() throws Exception
+    {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            MultiChannelFetch.fetch(executor, Arrays.asList("A", "Error", "B"), fetch);
+            fail("Fetch did not report error");
+        }
+        catch (Exception ex)
+        {
+            assertThat(ex.getMessage(), equalTo("Failed to fetch Error"));
+        }
+        assertThat(fetched.size(), equalTo(2));
+        for (DemoDataIterator iter : fetched)
+            assertThat(iter.isOpen(), equalTo(false));
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,352 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.reader;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.csstudio.archive.vtype.VTypeHelper;
+import org.diirt.vtype.VNumberArray;
+import org.diirt.vtype.VString;
+import org.diirt.vtype.VType;
+
+/** Cache for archived samples.
+ *
+ *  <p>Keeps the samples of channels together with the time ranges
+ *  that have been fetched, so a request for a time range that overlaps
+ *  already fetched data only needs to fetch the missing gaps.
+ *
+ *  <p>Memory use is limited by an estimate of the sample sizes.
+ *  When the limit is exceeded, the least recently used channels are evicted.
+ *
+ *  <p>Samples newer than 'now' minus a hold-back period are returned,
+ *  but that time range is not considered covered because the archive
+ *  may still receive samples for it.
+ *
+ *  <p>Thread-safe. Concurrent requests for the same channel are
+ *  serialized, so the second request can use the data fetched by the first.
+ *
+ *  @see CachingArchiveReader
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class ArchiveCache
+{
+    /** Estimated size of a scalar sample, including the cache's map entry */
+    final private static long SAMPLE_BYTES = 120;
+
+    /** Fetch samples for a time range */
+    @FunctionalInterface
+    public static interface RangeFetch
+    {
+        /** @param start Start time
+         *  @param end End time
+         *  @return Samples, possibly including one sample at or before the start time
+         *  @throws Exception on error
+         */
+        public List<VType> fetch(Instant start, Instant end) throws Exception;
+    }
+
+    /** Cached samples for one channel */
+    private static class Entry
+    {
+        /** Samples by time */
+        final TreeMap<Instant, VType> samples = new TreeMap<>();
+
+        /** Covered time ranges, start to end, neither overlapping nor adjacent */
+        final TreeMap<Instant, Instant> coverage = new TreeMap<>();
+
+        /** Estimated size of the samples. Synchronize on entry */
+        long bytes = 0;
+
+        /** Size that has been added to the cache total. Synchronize on cache entries */
+        long accounted = 0;
+
+        /** Removed from cache? Synchronize on cache entries */
+        boolean evicted = false;
+
+        /** @param start Start time
+         *  @param end End time
+         *  @return Gaps in the coverage of start .. end
+         */
+        List<Instant[]> getGaps(final Instant start, final Instant end)
+        {
+            final List<Instant[]> gaps = new ArrayList<>();
+            Instant pos = start;
+            final Map.Entry<Instant, Instant> before = coverage.floorEntry(start);
+            if (before != null  &&  before.getValue().isAfter(pos))
+                pos = before.getValue();
+            for (Map.Entry<Instant, Instant> range : coverage.subMap(start, false, end, true).entrySet())
+            {
+                if (range.getKey().isAfter(pos))
+                    gaps.add(new Instant[] { pos, range.getKey() });
+                if (range.getValue().isAfter(pos))
+                    pos = range.getValue();
+            }
+            if (pos.isBefore(end))
+                gaps.add(new Instant[] { pos, end });
+            return gaps;
+        }
+
+        /** @param start Start of time range to mark as covered
+         *  @param end End of that time range
+         */
+        void addCoverage(Instant start, Instant end)
+        {
+            // Merge with overlapping or adjacent ranges
+            final Map.Entry<Instant, Instant> before = coverage.floorEntry(start);
+            if (before != null  &&  ! before.getValue().isBefore(start))
+            {
+                start = before.getKey();
+                if (before.getValue().isAfter(end))
+                    end = before.getValue();
+            }
+            final Iterator<Map.Entry<Instant, Instant>> following =
+                coverage.subMap(start, true, end, true).entrySet().iterator();
+            while (following.hasNext())
+            {
+                final Instant range_end = following.next().getValue();
+                if (range_end.isAfter(end))
+                    end = range_end;
+                following.remove();
+            }
+            coverage.put(start, end);
+        }
+
+        /** @param values Samples to add */
+        void add(final List<VType> values)
+        {
+            for (VType value : values)
+            {
+                final VType previous = samples.put(VTypeHelper.getTimestamp(value), value);
+                if (previous != null)
+                    bytes -= estimateSize(previous);
+                bytes += estimateSize(value);
+            }
+        }
+
+        /** @param start Start time
+         *  @param end End time
+         *  @param initial Time of sample that was just fetched as valid at the start time, or <code>null</code>
+         *  @return Samples from start to end, including the sample valid at the start time
+         */
+        List<VType> get(final Instant start, final Instant end, final Instant initial)
+        {
+            // Include sample before the start if it's known to be the one valid at the start
+            Instant from = samples.floorKey(start);
+            if (from != null  &&  (initial == null  ||  from.isBefore(initial)))
+            {
+                final Map.Entry<Instant, Instant> range = coverage.floorEntry(start);
+                if (range == null  ||  range.getValue().isBefore(start)  ||  from.isBefore(range.getKey()))
+                    from = start;
+            }
+            if (from == null)
+                from = start;
+            if (from.isAfter(end))
+                return new ArrayList<>();
+            return new ArrayList<>(samples.subMap(from, true, end, true).values());
+        }
+    }
+
+    /** Maximum size of samples in cache */
+    final private long max_bytes;
+
+    /** Time range before 'now' that's not cached */
+    final private Duration hold_back;
+
+    /** Entries by key, least recently used first. Synchronize on access */
+    final private LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Total size of all entries. Synchronize on entries */
+    private long total_bytes = 0;
+
+    final private AtomicLong hits = new AtomicLong(), misses = new AtomicLong();
+
+    /** @param max_bytes Maximum size of samples in cache
+     *  @param hold_back Time range before 'now' that's not cached
+     */
+    public ArchiveCache(final long max_bytes, final Duration hold_back)
+    {
+        this.max_bytes = max_bytes;
+        this.hold_back = hold_back;
+    }
+
+    /** @param value Sample
+     *  @return Estimated size in bytes
+     */
+    static long estimateSize(final VType value)
+    {
+        if (value instanceof VNumberArray)
+            return SAMPLE_BYTES + 8L * ((VNumberArray) value).getData().size();
+        if (value instanceof VString)
+        {
+            final String text = ((VString) value).getValue();
+            return SAMPLE_BYTES + (text == null ? 0 : 2L * text.length());
+        }
+        return SAMPLE_BYTES;
+    }
+
+    /** Get samples, fetching time ranges that are not in the cache
+     *  @param key Key that identifies the channel, including data source and optimization
+     *  @param start Start time
+     *  @param end End time
+     *  @param fetch Fetch for missing time ranges
+     *  @return Samples from start to end
+     *  @throws Exception on error from fetch
+     */
+    public List<VType> getSamples(final String key, final Instant start, final Instant end,
+                                  final RangeFetch fetch) throws Exception
+    {
+        final Entry entry;
+        synchronized (entries)
+        {
+            entry = entries.computeIfAbsent(key, k -> new Entry());
+        }
+        final List<VType> result;
+        final long bytes;
+        synchronized (entry)
+        {
+            final Instant limit = Instant.now().minus(hold_back);
+            final List<Instant[]> gaps = entry.getGaps(start, end);
+            Instant initial = null;
+            if (gaps.isEmpty())
+                hits.incrementAndGet();
+            else
+                misses.incrementAndGet();
+            try
+            {
+                for (Instant[] gap : gaps)
+                {
+                    final List<VType> values = fetch.fetch(gap[0], gap[1]);
+                    entry.add(values);
+                    if (gap[0] == start  &&  ! values.isEmpty())
+                        initial = VTypeHelper.getTimestamp(values.get(0));
+                    if (! gap[0].isBefore(limit))
+                        continue;
+                    // The time range from the sample valid at the start
+                    // up to the start has no other samples, so also mark as covered
+                    Instant covered = gap[0];
+                    if (! values.isEmpty())
+                    {
+                        final Instant first = VTypeHelper.getTimestamp(values.get(0));
+                        if (first.isBefore(covered))
+                            covered = first;
+                    }
+                    entry.addCoverage(covered, gap[1].isAfter(limit) ? limit : gap[1]);
+                }
+            }
+            catch (Exception ex)
+            {
+                if (entry.samples.isEmpty())
+                    remove(key, entry);
+                throw ex;
+            }
+            result = entry.get(start, end, initial);
+            bytes = entry.bytes;
+        }
+        account(entry, bytes);
+        return result;
+    }
+
+    /** @param key Key of entry
+     *  @param entry Entry to remove
+     */
+    private void remove(final String key, final Entry entry)
+    {
+        synchronized (entries)
+        {
+            if (entries.get(key) == entry)
+                entries.remove(key);
+            if (! entry.evicted)
+            {
+                total_bytes -= entry.accounted;
+                entry.evicted = true;
+            }
+        }
+    }
+
+    /** Update size of entry in total, evict entries if necessary
+     *  @param entry Entry that changed
+     *  @param bytes Current size of the entry
+     */
+    private void account(final Entry entry, final long bytes)
+    {
+        synchronized (entries)
+        {
+            if (entry.evicted)
+                return;
+            total_bytes += bytes - entry.accounted;
+            entry.accounted = bytes;
+            final Iterator<Entry> lru = entries.values().iterator();
+            while (total_bytes > max_bytes  &&  lru.hasNext())
+            {
+                final Entry evict = lru.next();
+                total_bytes -= evict.accounted;
+                evict.evicted = true;
+                lru.remove();
+            }
+        }
+    }
+
+    /** Remove all entries */
+    public void clear()
+    {
+        synchronized (entries)
+        {
+            for (Entry entry : entries.values())
+                entry.evicted = true;
+            entries.clear();
+            total_bytes = 0;
+        }
+    }
+
+    /** @return Number of cached channels */
+    public int getEntryCount()
+    {
+        synchronized (entries)
+        {
+            return entries.size();
+        }
+    }
+
+    /** @return Estimated size of cached samples in bytes */
+    public long getSize()
+    {
+        synchronized (entries)
+        {
+            return total_bytes;
+        }
+    }
+
+    /** @return Number of requests that were handled from the cache */
+    public long getHits()
+    {
+        return hits.get();
+    }
+
+    /** @return Number of requests that needed to fetch data */
+    public long getMisses()
+    {
+        return misses.get();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("ArchiveCache: %d channels, %.1f of %.1f MB, %d hits, %d misses",
+                             getEntryCount(), getSize() / 1024.0 / 1024.0, max_bytes / 1024.0 / 1024.0,
+                             getHits(), getMisses());
+    }
+}
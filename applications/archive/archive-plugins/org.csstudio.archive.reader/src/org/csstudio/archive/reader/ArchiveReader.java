@@ -9,6 +9,8 @@ package org.csstudio.archive.reader;
 
 import java.io.Closeable;
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 
 /** Interface to archive data retrieval.
  *  <p>
@@ -165,6 +167,53 @@ public interface ArchiveReader extends Closeable
     public ValueIterator getOptimizedValues(int key, String name,
         Instant start, Instant end, int count) throws UnknownChannelException, Exception;
 
+    /** Read original, raw samples for several channels from the archive
+     *  <p>
+     *  Result is the same as calling <code>getRawValues</code>
+     *  for each channel, but implementations may fetch the
+     *  channels in parallel or with a combined request.
+     *  The default implementation fetches one channel after the other.
+     *
+     *  @param key Key of the archive to use for retrieval.
+     *  @param names Channel names
+     *  @param start Start time
+     *  @param end End time
+     *  @return Map of channel names to ValueIterator for their 'raw' samples,
+     *          in the order of the names.
+     *          Channels that are not known are left out.
+     *  @throws Exception on error
+     *  @see MultiChannelFetch
+     */
+    default Map<String, ValueIterator> getRawValues(int key, List<String> names,
+            Instant start, Instant end) throws Exception
+    {
+        return MultiChannelFetch.fetch(names, name -> getRawValues(key, name, start, end));
+    }
+
+    /** Read optimized samples for several channels from the archive.
+     *  <p>
+     *  Result is the same as calling <code>getOptimizedValues</code>
+     *  for each channel, but implementations may fetch the
+     *  channels in parallel or with a combined request.
+     *  The default implementation fetches one channel after the other.
+     *
+     *  @param key Key of the archive to use for retrieval.
+     *  @param names Channel names
+     *  @param start Start time
+     *  @param end End time
+     *  @param count Hint for number of values
+     *  @return Map of channel names to ValueIterator for their samples,
+     *          in the order of the names.
+     *          Channels that are not known are left out.
+     *  @throws Exception on error
+     *  @see MultiChannelFetch
+     */
+    default Map<String, ValueIterator> getOptimizedValues(int key, List<String> names,
+            Instant start, Instant end, int count) throws Exception
+    {
+        return MultiChannelFetch.fetch(names, name -> getOptimizedValues(key, name, start, end, count));
+    }
+
     /** Cancel an ongoing archive query.
      *  It's up to the implementation to support this for all queries,
      *  or only 'getSamples', or not at all.
@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.reader;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.diirt.vtype.VType;
+
+/** ArchiveReader that caches the samples of another reader.
+ *
+ *  <p>Requests for a time range are only passed to the actual reader
+ *  for those parts of the time range that are not already in the
+ *  {@link ArchiveCache}.
+ *  Raw and optimized samples are cached separately.
+ *  Optimized samples are further separated by their bin size,
+ *  rounded to a power of 2 seconds, so panning the time range can use cached data
+ *  while zooming in or out fetches new data at the appropriate resolution.
+ *
+ *  <p>The cache is meant to be shared by readers for the same
+ *  or different archive data sources.
+ *  Closing the reader does not clear the cache.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class CachingArchiveReader implements ArchiveReader
+{
+    /** ValueIterator for a list of samples */
+    private static class ListValueIterator implements ValueIterator
+    {
+        private List<VType> values;
+        private int index = 0;
+
+        ListValueIterator(final List<VType> values)
+        {
+            this.values = values;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return values != null  &&  index < values.size();
+        }
+
+        @Override
+        public VType next() throws Exception
+        {
+            return values.get(index++);
+        }
+
+        @Override
+        public void close()
+        {
+            values = null;
+        }
+    }
+
+    final private ArchiveReader reader;
+
+    final private ArchiveCache cache;
+
+    private volatile boolean cancelled = false;
+
+    /** @param reader Reader that provides the samples
+     *  @param cache Cache for the samples
+     */
+    public CachingArchiveReader(final ArchiveReader reader, final ArchiveCache cache)
+    {
+        this.reader = reader;
+        this.cache = cache;
+    }
+
+    @Override
+    public String getServerName()
+    {
+        return reader.getServerName();
+    }
+
+    @Override
+    public String getURL()
+    {
+        return reader.getURL();
+    }
+
+    @Override
+    public String getDescription()
+    {
+        return reader.getDescription();
+    }
+
+    @Override
+    public int getVersion()
+    {
+        return reader.getVersion();
+    }
+
+    @Override
+    public ArchiveInfo[] getArchiveInfos()
+    {
+        return reader.getArchiveInfos();
+    }
+
+    @Override
+    public String[] getNamesByPattern(final int key, final String glob_pattern) throws Exception
+    {
+        return reader.getNamesByPattern(key, glob_pattern);
+    }
+
+    @Override
+    public String[] getNamesByRegExp(final int key, final String reg_exp) throws Exception
+    {
+        return reader.getNamesByRegExp(key, reg_exp);
+    }
+
+    @Override
+    public ValueIterator getRawValues(final int key, final String name,
+            final Instant start, final Instant end) throws UnknownChannelException, Exception
+    {
+        if (! start.isBefore(end))
+            return reader.getRawValues(key, name, start, end);
+        final String cache_key = getURL() + "|" + key + "|" + name + "|raw";
+        return new ListValueIterator(cache.getSamples(cache_key, start, end,
+                (s, e) -> read(reader.getRawValues(key, name, s, e))));
+    }
+
+    @Override
+    public ValueIterator getOptimizedValues(final int key, final String name,
+            final Instant start, final Instant end, final int count) throws UnknownChannelException, Exception
+    {
+        if (! start.isBefore(end)  ||  count <= 1)
+            return reader.getOptimizedValues(key, name, start, end, count);
+        // Round bin size to power of 2 seconds
+        final double seconds = Duration.between(start, end).toMillis() / 1000.0 / count;
+        final int level = (int) Math.round(Math.log(seconds) / Math.log(2));
+        final double bin_seconds = Math.pow(2, level);
+        final String cache_key = getURL() + "|" + key + "|" + name + "|" + level;
+        return new ListValueIterator(cache.getSamples(cache_key, start, end, (s, e) ->
+        {
+            final double gap_seconds = Duration.between(s, e).toMillis() / 1000.0;
+            final int bins = (int) Math.max(2, Math.ceil(gap_seconds / bin_seconds));
+            return read(reader.getOptimizedValues(key, name, s, e, bins));
+        }));
+    }
+
+    /** @param values Samples
+     *  @return List of samples
+     *  @throws Exception on error, or when cancelled, so partial data is not cached
+     */
+    private List<VType> read(final ValueIterator values) throws Exception
+    {
+        final List<VType> result = new ArrayList<>();
+        try
+        {
+            while (values.hasNext()  &&  ! cancelled)
+                result.add(values.next());
+        }
+        finally
+        {
+            values.close();
+        }
+        if (cancelled)
+            throw new Exception("Cancelled");
+        return result;
+    }
+
+    @Override
+    public void cancel()
+    {
+        cancelled = true;
+        reader.cancel();
+    }
+
+    @Override
+    public void close()
+    {
+        reader.close();
+    }
+
+    @Override
+    public void enableConcurrency(final boolean concurrency)
+    {
+        reader.enableConcurrency(concurrency);
+    }
+}
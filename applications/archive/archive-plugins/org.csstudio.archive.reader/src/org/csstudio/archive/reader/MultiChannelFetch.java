@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.reader;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/** Helper for fetching samples of several channels.
+ *
+ *  <p>Implements the multi-channel calls of the {@link ArchiveReader}
+ *  based on the single-channel calls, either one channel after the other,
+ *  or in parallel.
+ *
+ *  <p>Channels that the archive does not know are
+ *  left out of the result.
+ *  For any other error, iterators that were already obtained are closed
+ *  and the first error is thrown.
+ *
+ *  @author Kay Kasemir
+ */
+public class MultiChannelFetch
+{
+    /** Fetch samples for one channel */
+    @FunctionalInterface
+    public static interface ChannelFetch
+    {
+        /** @param name Channel name
+         *  @return ValueIterator for the samples of that channel
+         *  @throws UnknownChannelException when channel is not known
+         *  @throws Exception on error
+         */
+        public ValueIterator fetch(String name) throws UnknownChannelException, Exception;
+    }
+
+    /** Fetch channels one after the other
+     *  @param names Channel names
+     *  @param fetch Fetch for one channel
+     *  @return Map of channel names to their samples, in the order of the names
+     *  @throws Exception on error
+     */
+    public static Map<String, ValueIterator> fetch(final List<String> names,
+            final ChannelFetch fetch) throws Exception
+    {
+        final Map<String, ValueIterator> result = new LinkedHashMap<>();
+        try
+        {
+            for (String name : names)
+            {
+                if (result.containsKey(name))
+                    continue;
+                try
+                {
+                    result.put(name, fetch.fetch(name));
+                }
+                catch (UnknownChannelException ex)
+                {
+                    // Leave channel out of result
+                }
+            }
+        }
+        catch (Exception ex)
+        {
+            close(result);
+            throw ex;
+        }
+        return result;
+    }
+
+    /** Fetch channels in parallel
+     *
+     *  <p>The number of concurrent fetches is limited by the
+     *  threads of the executor.
+     *  The single-channel fetch must be thread-safe.
+     *
+     *  @param executor Executor for the fetches
+     *  @param names Channel names
+     *  @param fetch Fetch for one channel
+     *  @return Map of channel names to their samples, in the order of the names
+     *  @throws Exception on error
+     */
+    public static Map<String, ValueIterator> fetch(final ExecutorService executor,
+            final List<String> names, final ChannelFetch fetch) throws Exception
+    {
+        final Map<String, Future<ValueIterator>> running = new LinkedHashMap<>();
+        for (String name : names)
+            if (! running.containsKey(name))
+                running.put(name, executor.submit(() -> fetch.fetch(name)));
+
+        // Await all, even after an error, so no iterator remains open
+        final Map<String, ValueIterator> result = new LinkedHashMap<>();
+        Exception error = null;
+        for (Map.Entry<String, Future<ValueIterator>> entry : running.entrySet())
+        {
+            try
+            {
+                result.put(entry.getKey(), entry.getValue().get());
+            }
+            catch (ExecutionException ex)
+            {
+                final Throwable cause = ex.getCause();
+                if (cause instanceof UnknownChannelException)
+                    continue;
+                if (error == null)
+                    error = cause instanceof Exception ? (Exception) cause : ex;
+            }
+            catch (Exception ex)
+            {   // Interrupted
+                if (error == null)
+                    error = ex;
+            }
+        }
+        if (error != null)
+        {
+            close(result);
+            throw error;
+        }
+        return result;
+    }
+
+    /** @param iterators Iterators to close */
+    public static void close(final Map<String, ValueIterator> iterators)
+    {
+        for (ValueIterator iter : new ArrayList<>(iterators.values()))
+            iter.close();
+        iterators.clear();
+    }
+}
@@ -0,0 +1,371 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.writer.rdb;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.TimeZone;
+
+import org.diirt.util.array.ListNumber;
+
+/** Encoder for the PostgreSQL binary COPY format
+ *
+ *  <p>Rows are encoded into one re-used buffer,
+ *  converting each value to the binary representation
+ *  of its column type.
+ *  Numbers, time stamps and array blobs are written without
+ *  creating any intermediate strings or streams.
+ *
+ *  <p>The buffer is a heap buffer because the PostgreSQL
+ *  <code>CopyIn</code> API accepts <code>byte[]</code>,
+ *  so a direct buffer would require an additional copy.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class PGBinaryCopyEncoder
+{
+    /** Supported column types */
+    public enum ColumnType
+    {
+        INT2, INT4, INT8, FLOAT4, FLOAT8, TIMESTAMP, TIMESTAMPTZ, TEXT, BYTEA, BOOL;
+
+        /** @param pg_type PostgreSQL type name as reported by JDBC meta data
+         *  @return {@link ColumnType}
+         *  @throws SQLException if type is not supported
+         */
+        public static ColumnType fromName(final String pg_type) throws SQLException
+        {
+            switch (pg_type.toLowerCase())
+            {
+            case "int2":
+            case "smallint":
+            case "smallserial":
+                return INT2;
+            case "int4":
+            case "int":
+            case "integer":
+            case "serial":
+                return INT4;
+            case "int8":
+            case "bigint":
+            case "bigserial":
+                return INT8;
+            case "float4":
+            case "real":
+                return FLOAT4;
+            case "float8":
+            case "double precision":
+                return FLOAT8;
+            case "timestamp":
+                return TIMESTAMP;
+            case "timestamptz":
+                return TIMESTAMPTZ;
+            case "bpchar":
+            case "char":
+            case "varchar":
+            case "text":
+                return TEXT;
+            case "bytea":
+                return BYTEA;
+            case "bool":
+            case "boolean":
+                return BOOL;
+            default:
+                throw new SQLException("Binary COPY does not support column type " + pg_type);
+            }
+        }
+    }
+
+    /** File header: signature, flags, header extension length */
+    private static final byte[] HEADER =
+    {
+        'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0,
+        0, 0, 0, 0,
+        0, 0, 0, 0
+    };
+
+    /** PostgreSQL epoch 2000-01-01 relative to 1970-01-01 in microseconds */
+    private static final long PG_EPOCH_MICROS = 946684800L * 1000000L;
+
+    /** Time zone for 'timestamp without time zone' columns, same as JDBC */
+    private final TimeZone local = TimeZone.getDefault();
+
+    private final ColumnType[] types;
+
+    private ByteBuffer buffer;
+
+    /** Column of the current row */
+    private int column;
+
+    private int rows;
+
+    /** @param types Types of the columns, in order of the values for each row */
+    public PGBinaryCopyEncoder(final ColumnType[] types)
+    {
+        this.types = types;
+        buffer = ByteBuffer.allocate(64 * 1024);
+        reset();
+    }
+
+    /** @return Number of columns */
+    public int getColumnCount()
+    {
+        return types.length;
+    }
+
+    /** @return Number of complete rows */
+    public int getRowCount()
+    {
+        return rows;
+    }
+
+    /** Remove all rows */
+    public void reset()
+    {
+        buffer.clear();
+        buffer.put(HEADER);
+        rows = 0;
+        column = types.length;
+    }
+
+    /** Start a new row */
+    public void startRow()
+    {
+        if (column != types.length)
+            throw new IllegalStateException("Row " + rows + " has only " + column + " columns");
+        ensure(Short.BYTES);
+        buffer.putShort((short) types.length);
+        column = 0;
+    }
+
+    /** Complete the current row */
+    public void endRow()
+    {
+        if (column != types.length)
+            throw new IllegalStateException("Row " + rows + " has only " + column + " columns");
+        ++rows;
+    }
+
+    /** @param needed Number of bytes that must fit */
+    private void ensure(final int needed)
+    {
+        if (buffer.remaining() >= needed)
+            return;
+        final ByteBuffer bigger = ByteBuffer.allocate(Math.max(2 * buffer.capacity(), buffer.position() + needed));
+        buffer.flip();
+        bigger.put(buffer);
+        buffer = bigger;
+    }
+
+    /** @return Type of the next column */
+    private ColumnType next()
+    {
+        if (column >= types.length)
+            throw new IllegalStateException("Row " + rows + " has only " + types.length + " columns");
+        return types[column++];
+    }
+
+    /** Add NULL */
+    public void putNull()
+    {
+        next();
+        ensure(Integer.BYTES);
+        buffer.putInt(-1);
+    }
+
+    /** @param value Integer value for the next column */
+    public void putLong(final long value)
+    {
+        final ColumnType type = next();
+        switch (type)
+        {
+        case INT2:
+            ensure(6);
+            buffer.putInt(2).putShort((short) value);
+            break;
+        case INT4:
+            ensure(8);
+            buffer.putInt(4).putInt((int) value);
+            break;
+        case INT8:
+            ensure(12);
+            buffer.putInt(8).putLong(value);
+            break;
+        case FLOAT4:
+            ensure(8);
+            buffer.putInt(4).putFloat(value);
+            break;
+        case FLOAT8:
+            ensure(12);
+            buffer.putInt(8).putDouble(value);
+            break;
+        case BOOL:
+            ensure(5);
+            buffer.putInt(1).put((byte) (value != 0 ? 1 : 0));
+            break;
+        case TEXT:
+            --column;
+            putString(Long.toString(value));
+            break;
+        default:
+            throw new IllegalArgumentException("Cannot write number to " + type);
+        }
+    }
+
+    /** @param value Floating point value for the next column */
+    public void putDouble(final double value)
+    {
+        final ColumnType type = next();
+        switch (type)
+        {
+        case FLOAT4:
+            ensure(8);
+            buffer.putInt(4).putFloat((float) value);
+            break;
+        case FLOAT8:
+            ensure(12);
+            buffer.putInt(8).putDouble(value);
+            break;
+        case INT2:
+        case INT4:
+        case INT8:
+        case BOOL:
+            --column;
+            putLong((long) value);
+            break;
+        case TEXT:
+            --column;
+            putString(Double.toString(value));
+            break;
+        default:
+            throw new IllegalArgumentException("Cannot write number to " + type);
+        }
+    }
+
+    /** @param millis Epoch milliseconds, as in <code>java.util.Date.getTime()</code>
+     *  @param nanos Nanoseconds within the second
+     */
+    public void putTimestamp(final long millis, final int nanos)
+    {
+        final ColumnType type = next();
+        long micros = Math.floorDiv(millis, 1000L) * 1000000L + nanos / 1000;
+        if (type == ColumnType.TIMESTAMP)
+            micros += local.getOffset(millis) * 1000L;
+        else if (type != ColumnType.TIMESTAMPTZ)
+            throw new IllegalArgumentException("Cannot write time stamp to " + type);
+        ensure(12);
+        buffer.putInt(8).putLong(micros - PG_EPOCH_MICROS);
+    }
+
+    /** @param value Text for the next column, may be <code>null</code> */
+    public void putString(final String value)
+    {
+        if (value == null)
+        {
+            putNull();
+            return;
+        }
+        final ColumnType type = next();
+        if (type != ColumnType.TEXT)
+            throw new IllegalArgumentException("Cannot write text to " + type);
+        final int length = value.length();
+        // Plain ASCII is written as is, otherwise encode
+        boolean ascii = true;
+        for (int i=0; ascii && i<length; ++i)
+            ascii = value.charAt(i) < 0x80;
+        if (ascii)
+        {
+            ensure(Integer.BYTES + length);
+            buffer.putInt(length);
+            for (int i=0; i<length; ++i)
+                buffer.put((byte) value.charAt(i));
+        }
+        else
+        {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensure(Integer.BYTES + bytes.length);
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    /** @param value Binary data for the next column, may be <code>null</code> */
+    public void putBytes(final byte[] value)
+    {
+        if (value == null)
+        {
+            putNull();
+            return;
+        }
+        final ColumnType type = next();
+        if (type != ColumnType.BYTEA)
+            throw new IllegalArgumentException("Cannot write bytes to " + type);
+        ensure(Integer.BYTES + value.length);
+        buffer.putInt(value.length);
+        buffer.put(value);
+    }
+
+    /** Write array elements in the 'array blob' format:
+     *  Element count, followed by the elements as 'double'.
+     *  @param data Array elements
+     */
+    public void putDoubleArray(final ListNumber data)
+    {
+        final ColumnType type = next();
+        if (type != ColumnType.BYTEA)
+            throw new IllegalArgumentException("Cannot write array to " + type);
+        final int N = data.size();
+        final int length = Integer.BYTES + N * Double.BYTES;
+        ensure(Integer.BYTES + length);
+        buffer.putInt(length);
+        buffer.putInt(N);
+        for (int i=0; i<N; ++i)
+            buffer.putDouble(data.getDouble(i));
+    }
+
+    /** Add the end-of-data marker.
+     *  After this call, <code>getData()</code> and <code>getSize()</code>
+     *  describe the complete COPY data,
+     *  and <code>reset()</code> must be called before adding more rows.
+     */
+    public void finish()
+    {
+        if (column != types.length)
+            throw new IllegalStateException("Row " + rows + " has only " + column + " columns");
+        ensure(Short.BYTES);
+        buffer.putShort((short) -1);
+    }
+
+    /** @return Buffer that holds the encoded data, starting at index 0 */
+    public byte[] getData()
+    {
+        return buffer.array();
+    }
+
+    /** @return Number of bytes of encoded data */
+    public int getSize()
+    {
+        return buffer.position();
+    }
+
+    /** @param data Array elements
+     *  @return Array elements in 'array blob' format
+     *  @see #putDoubleArray(ListNumber)
+     */
+    public static byte[] encodeDoubleArray(final ListNumber data)
+    {
+        final int N = data.size();
+        final ByteBuffer buf = ByteBuffer.allocate(Integer.BYTES + N * Double.BYTES);
+        buf.putInt(N);
+        for (int i=0; i<N; ++i)
+            buf.putDouble(data.getDouble(i));
+        return buf.array();
+    }
+}
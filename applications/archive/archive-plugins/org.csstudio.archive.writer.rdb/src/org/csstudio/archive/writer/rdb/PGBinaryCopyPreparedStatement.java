@@ -0,0 +1,288 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.writer.rdb;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Calendar;
+
+import org.csstudio.archive.writer.rdb.PGBinaryCopyEncoder.ColumnType;
+import org.diirt.util.array.ListNumber;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+/** PostgreSQL 'COPY' in binary format
+ *
+ *  <p>Like the {@link PGCopyPreparedStatement}, this turns
+ *  an "INSERT INTO table (columns) ..." statement into a COPY,
+ *  but uses the binary format instead of CSV text.
+ *  Parameters are staged as primitives and encoded
+ *  by the {@link PGBinaryCopyEncoder} when the row is added to the batch,
+ *  avoiding the number to text conversion on the client
+ *  as well as the parsing on the server.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class PGBinaryCopyPreparedStatement extends PGCopyPreparedStatement
+{
+    /** Kinds of staged parameter values */
+    private static final byte NULL = 0, LONG = 1, DOUBLE = 2, TIMESTAMP = 3,
+                              STRING = 4, BYTES = 5, ARRAY = 6;
+
+    private Connection connection;
+
+    private final String copy_sql;
+
+    private final PGBinaryCopyEncoder encoder;
+
+    /** Staged parameters of current row, indexed by parameter index - 1 */
+    private final byte[] kinds;
+    private final long[] longs;
+    private final double[] doubles;
+    private final int[] nanos;
+    private final Object[] objects;
+
+    /** @param connection PostgreSQL connection
+     *  @param insert_sql "INSERT INTO table (columns) VALUES (...)"
+     *  @throws SQLException on error, including columns of unsupported type
+     */
+    public PGBinaryCopyPreparedStatement(final Connection connection, final String insert_sql)
+            throws SQLException
+    {
+        // Base class parsed the insert and read the column meta data
+        super(connection, insert_sql);
+        this.connection = connection;
+
+        final String table = getTableName();
+        final String[] columns = getColumnNames();
+        final ColumnType[] types = new ColumnType[columns.length];
+        final StringBuilder buf = new StringBuilder();
+        buf.append("COPY ").append(table).append(" (");
+        for (int i=0; i<columns.length; ++i)
+        {
+            final String column = columns[i];
+            final String type = getColumnType(column);
+            if (type == null)
+                throw new SQLException("Unable to find column " + column + " in table " + table);
+            types[i] = ColumnType.fromName(type);
+            if (i > 0)
+                buf.append(", ");
+            buf.append(column);
+        }
+        buf.append(") FROM STDIN WITH (FORMAT binary)");
+        copy_sql = buf.toString();
+
+        encoder = new PGBinaryCopyEncoder(types);
+        kinds = new byte[columns.length];
+        longs = new long[columns.length];
+        doubles = new double[columns.length];
+        nanos = new int[columns.length];
+        objects = new Object[columns.length];
+    }
+
+    /** @return COPY command used for the batch */
+    public String getCopySQL()
+    {
+        return copy_sql;
+    }
+
+    /** Set array blob parameter
+     *
+     *  <p>Writes the array elements directly into the COPY data,
+     *  in the same format as the 'array blob' written via
+     *  <code>setBytes</code> for plain insert statements.
+     *
+     *  @param parameterIndex Index of BYTEA parameter
+     *  @param data Array elements
+     */
+    public void setDoubleArray(final int parameterIndex, final ListNumber data)
+    {
+        final int i = parameterIndex - 1;
+        kinds[i] = data == null ? NULL : ARRAY;
+        objects[i] = data;
+    }
+
+    @Override
+    public void addBatch() throws SQLException
+    {
+        try
+        {
+            encoder.startRow();
+            for (int i=0; i<kinds.length; ++i)
+            {
+                switch (kinds[i])
+                {
+                case LONG:
+                    encoder.putLong(longs[i]);
+                    break;
+                case DOUBLE:
+                    encoder.putDouble(doubles[i]);
+                    break;
+                case TIMESTAMP:
+                    encoder.putTimestamp(longs[i], nanos[i]);
+                    break;
+                case STRING:
+                    encoder.putString((String) objects[i]);
+                    break;
+                case BYTES:
+                    encoder.putBytes((byte[]) objects[i]);
+                    break;
+                case ARRAY:
+                    encoder.putDoubleArray((ListNumber) objects[i]);
+                    break;
+                default:
+                    encoder.putNull();
+                }
+                kinds[i] = NULL;
+                objects[i] = null;
+            }
+            encoder.endRow();
+        }
+        catch (IllegalArgumentException ex)
+        {
+            throw new SQLException("Cannot add row to binary COPY", ex);
+        }
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException
+    {
+        if (encoder.getRowCount() <= 0)
+            return new int[0];
+        encoder.finish();
+        final CopyIn copy = ((PGConnection) connection).getCopyAPI().copyIn(copy_sql);
+        try
+        {
+            copy.writeToCopy(encoder.getData(), 0, encoder.getSize());
+            final long rows = copy.endCopy();
+            return new int[] { (int) rows };
+        }
+        finally
+        {
+            if (copy.isActive())
+                copy.cancelCopy();
+            encoder.reset();
+        }
+    }
+
+    @Override
+    public void clearBatch() throws SQLException
+    {
+        encoder.reset();
+    }
+
+    @Override
+    public void close() throws SQLException
+    {
+        super.close();
+        connection = null;
+    }
+
+    @Override
+    public void setNull(final int parameterIndex, final int sqlType) throws SQLException
+    {
+        kinds[parameterIndex-1] = NULL;
+    }
+
+    @Override
+    public void setNull(final int parameterIndex, final int sqlType, final String typeName) throws SQLException
+    {
+        kinds[parameterIndex-1] = NULL;
+    }
+
+    @Override
+    public void setBoolean(final int parameterIndex, final boolean x) throws SQLException
+    {
+        setLong(parameterIndex, x ? 1 : 0);
+    }
+
+    @Override
+    public void setShort(final int parameterIndex, final short x) throws SQLException
+    {
+        setLong(parameterIndex, x);
+    }
+
+    @Override
+    public void setInt(final int parameterIndex, final int x) throws SQLException
+    {
+        setLong(parameterIndex, x);
+    }
+
+    @Override
+    public void setLong(final int parameterIndex, final long x) throws SQLException
+    {
+        kinds[parameterIndex-1] = LONG;
+        longs[parameterIndex-1] = x;
+    }
+
+    @Override
+    public void setFloat(final int parameterIndex, final float x) throws SQLException
+    {
+        setDouble(parameterIndex, x);
+    }
+
+    @Override
+    public void setDouble(final int parameterIndex, final double x) throws SQLException
+    {
+        kinds[parameterIndex-1] = DOUBLE;
+        doubles[parameterIndex-1] = x;
+    }
+
+    @Override
+    public void setBigDecimal(final int parameterIndex, final BigDecimal x) throws SQLException
+    {
+        if (x == null)
+            setNull(parameterIndex, 0);
+        else
+            setDouble(parameterIndex, x.doubleValue());
+    }
+
+    @Override
+    public void setString(final int parameterIndex, final String x) throws SQLException
+    {
+        kinds[parameterIndex-1] = x == null ? NULL : STRING;
+        objects[parameterIndex-1] = x;
+    }
+
+    @Override
+    public void setNString(final int parameterIndex, final String value) throws SQLException
+    {
+        setString(parameterIndex, value);
+    }
+
+    @Override
+    public void setBytes(final int parameterIndex, final byte[] x) throws SQLException
+    {
+        kinds[parameterIndex-1] = x == null ? NULL : BYTES;
+        objects[parameterIndex-1] = x;
+    }
+
+    @Override
+    public void setTimestamp(final int parameterIndex, final Timestamp x) throws SQLException
+    {
+        if (x == null)
+        {
+            setNull(parameterIndex, 0);
+            return;
+        }
+        kinds[parameterIndex-1] = TIMESTAMP;
+        longs[parameterIndex-1] = x.getTime();
+        nanos[parameterIndex-1] = x.getNanos();
+    }
+
+    @Override
+    public void setTimestamp(final int parameterIndex, final Timestamp x, final Calendar cal) throws SQLException
+    {
+        if (cal != null)
+            throw new SQLException("Not implemented");
+        setTimestamp(parameterIndex, x);
+    }
+}
@@ -46,6 +46,10 @@ public class PGCopyPreparedStatement implements PreparedStatement {
 
     private String tableName;
 
+    private String[] columnNames;
+
+    private Map<String, String> columnTypeMap;
+
     public PGCopyPreparedStatement(Connection connection, String insertSqlQuery)
             throws SQLException {
         this.connection = connection;
@@ -63,13 +67,25 @@ public class PGCopyPreparedStatement implements PreparedStatement {
             columnsArrays = m.group(2).split(",");
         }
 
-        // Get the column order as it's stored in database
+        if (tableName == null) {
+            throw new SQLException("Cannot parse " + insertSqlQuery);
+        }
+        columnNames = new String[columnsArrays.length];
+        for (int i = 0; i < columnsArrays.length; i++) {
+            columnNames[i] = columnsArrays[i].trim();
+        }
+
+        // Get the column order and type as it's stored in database
         Map<String, Integer> postgresColumnOrderMap = new HashMap<String, Integer>();
-        ResultSet columnsRs = connection.getMetaData().getColumns(
-                connection.getCatalog(), null, tableName, null);
-        while (columnsRs.next()) {
-            postgresColumnOrderMap.put(columnsRs.getString("COLUMN_NAME"),
-                    columnsRs.getInt("ORDINAL_POSITION"));
+        columnTypeMap = new HashMap<String, String>();
+        try (ResultSet columnsRs = connection.getMetaData().getColumns(
+                connection.getCatalog(), null, tableName, null)) {
+            while (columnsRs.next()) {
+                final String columnName = columnsRs.getString("COLUMN_NAME");
+                postgresColumnOrderMap.put(columnName,
+                        columnsRs.getInt("ORDINAL_POSITION"));
+                columnTypeMap.put(columnName, columnsRs.getString("TYPE_NAME"));
+            }
         }
         rowValues = new String[postgresColumnOrderMap.size()];
 
@@ -77,8 +93,8 @@ public class PGCopyPreparedStatement implements PreparedStatement {
         // database order
         columnOrderMapping = new int[columnsArrays.length + 1];
         columnOrderMapping[0] = -1;
-        for (int i = 0; i < columnsArrays.length; i++) {
-            String columnName = columnsArrays[i].trim();
+        for (int i = 0; i < columnNames.length; i++) {
+            String columnName = columnNames[i];
             Integer postgresColumnOrder = postgresColumnOrderMap
                     .get(columnName);
             if (postgresColumnOrder == null) {
@@ -89,6 +105,23 @@ public class PGCopyPreparedStatement implements PreparedStatement {
         }
     }
 
+    /** @return Name of the table used in the insert statement */
+    String getTableName() {
+        return tableName;
+    }
+
+    /** @return Names of the columns used in the insert statement, in insert order */
+    String[] getColumnNames() {
+        return columnNames;
+    }
+
+    /** @param columnName Name of a column in the table
+     *  @return PostgreSQL type name of the column, or <code>null</code> if not found
+     */
+    String getColumnType(String columnName) {
+        return columnTypeMap.get(columnName);
+    }
+
     @Override
     public void addBatch() throws SQLException {
         for (int i = 0; i < rowValues.length; i++) {
@@ -7,8 +7,6 @@
  ******************************************************************************/
 package org.csstudio.archive.writer.rdb;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -48,6 +46,17 @@ import org.diirt.vtype.VType;
 @SuppressWarnings("nls")
 public class RDBArchiveWriter implements ArchiveWriter
 {
+    /** How samples are inserted */
+    public enum InsertMode
+    {
+        /** Batched INSERT statements */
+        INSERT,
+        /** PostgreSQL COPY with CSV text */
+        COPY,
+        /** PostgreSQL COPY in binary format */
+        BINARY_COPY
+    }
+
     /** Status string for <code>Double.NaN</code> samples */
     final private static String NOT_A_NUMBER_STATUS = "NaN";
 
@@ -57,6 +66,8 @@ public class RDBArchiveWriter implements ArchiveWriter
 
     final private boolean use_array_blob;
 
+    final private InsertMode insert_mode;
+
     /** RDB connection */
     final private RDBUtil rdb;
 
@@ -122,9 +133,28 @@ public class RDBArchiveWriter implements ArchiveWriter
      */
     public RDBArchiveWriter(final String url, final String user, final String password,
             final String schema, boolean use_array_blob) throws Exception
+    {
+        this(url, user, password, schema, use_array_blob,
+             Preferences.isUsePostgresCopy()
+             ? (Preferences.isUsePostgresBinaryCopy() ? InsertMode.BINARY_COPY : InsertMode.COPY)
+             : InsertMode.INSERT);
+    }
+
+    /** Initialize
+     *  @param url RDB URL
+     *  @param user .. user name
+     *  @param password .. password
+     *  @param schema Schema/table prefix, not including ".". May be empty
+     *  @param use_array_blob Use BLOB for array elements?
+     *  @param insert_mode How to insert samples. COPY modes only apply to PostgreSQL
+     *  @throws Exception on error, for example RDB connection error
+     */
+    public RDBArchiveWriter(final String url, final String user, final String password,
+            final String schema, boolean use_array_blob, final InsertMode insert_mode) throws Exception
     {
         this.use_array_blob = use_array_blob;
         rdb = RDBUtil.connect(url, user, password, false);
+        this.insert_mode = rdb.getDialect() == Dialect.PostgreSQL ? insert_mode : InsertMode.INSERT;
         sql = new SQL(rdb.getDialect(), schema);
         severities = new SeverityCache(rdb, sql);
         stati = new StatusCache(rdb, sql);
@@ -233,8 +263,17 @@ public class RDBArchiveWriter implements ArchiveWriter
     private PreparedStatement createInsertPrepareStatement(String sqlQuery)
             throws SQLException, Exception {
         PreparedStatement statement = null;
-        if (rdb.getDialect() == Dialect.PostgreSQL
-                && Preferences.isUsePostgresCopy()) {
+        if (insert_mode == InsertMode.BINARY_COPY) {
+            try {
+                statement = new PGBinaryCopyPreparedStatement(
+                        rdb.getConnection(), sqlQuery);
+            } catch (SQLException ex) {
+                Activator.getLogger().log(Level.WARNING,
+                        "Cannot use binary COPY, falling back to CSV", ex);
+                statement = new PGCopyPreparedStatement(rdb.getConnection(),
+                        sqlQuery);
+            }
+        } else if (insert_mode == InsertMode.COPY) {
             statement = new PGCopyPreparedStatement(rdb.getConnection(),
                     sqlQuery);
         } else {
@@ -341,26 +380,25 @@ public class RDBArchiveWriter implements ArchiveWriter
             }
         }
         else
-        {   // More array elements
-            final ByteArrayOutputStream bout = new ByteArrayOutputStream();
-            final DataOutputStream dout = new DataOutputStream(bout);
-            // Indicate 'Double' as data type
-            final int N = additional.size();
-            dout.writeInt(N);
-            // Write binary data for array elements
-            for (int i=0; i<N; ++i)
-                dout.writeDouble(additional.getDouble(i));
-            dout.close();
-            final byte[] asBytes = bout.toByteArray();
-            if (rdb.getDialect() == Dialect.Oracle)
-            {
-                insert_double_sample.setString(6, "d");
-                insert_double_sample.setBytes(7, asBytes);
+        {   // More array elements, 'd' to indicate 'Double' as data type
+            if (insert_double_sample instanceof PGBinaryCopyPreparedStatement)
+            {   // Elements are encoded straight into the COPY data
+                insert_double_sample.setString(7, "d");
+                ((PGBinaryCopyPreparedStatement) insert_double_sample).setDoubleArray(8, additional);
             }
             else
             {
-                insert_double_sample.setString(7, "d");
-                insert_double_sample.setBytes(8, asBytes);
+                final byte[] asBytes = PGBinaryCopyEncoder.encodeDoubleArray(additional);
+                if (rdb.getDialect() == Dialect.Oracle)
+                {
+                    insert_double_sample.setString(6, "d");
+                    insert_double_sample.setBytes(7, asBytes);
+                }
+                else
+                {
+                    insert_double_sample.setString(7, "d");
+                    insert_double_sample.setBytes(8, asBytes);
+                }
             }
         }
         // Batch
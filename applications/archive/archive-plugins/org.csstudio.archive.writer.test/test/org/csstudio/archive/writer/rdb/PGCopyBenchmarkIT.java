@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.writer.rdb;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import org.csstudio.apputil.test.TestProperties;
+import org.csstudio.archive.vtype.ArchiveVNumber;
+import org.csstudio.archive.vtype.ArchiveVNumberArray;
+import org.csstudio.archive.writer.WriteChannel;
+import org.csstudio.archive.writer.rdb.PGBinaryCopyEncoder.ColumnType;
+import org.csstudio.archive.writer.rdb.RDBArchiveWriter.InsertMode;
+import org.diirt.util.array.ArrayDouble;
+import org.diirt.util.text.NumberFormats;
+import org.diirt.vtype.AlarmSeverity;
+import org.diirt.vtype.Display;
+import org.diirt.vtype.ValueFactory;
+import org.junit.Test;
+
+/** Compare write performance of INSERT, CSV COPY and binary COPY
+ *
+ *  <p>The encoding comparison runs without RDB.
+ *  The write comparison requires a PostgreSQL archive configured
+ *  via archive_rdb_url etc. as for the {@link RDBArchiveWriterTest},
+ *  and adds samples to that archive.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class PGCopyBenchmarkIT
+{
+    final private static int TEST_DURATION_SECS = 20;
+    final private static int FLUSH_COUNT = 500;
+    final private static int ARRAY_SIZE = 100;
+    final private static int ROWS = 1000000;
+
+    final Display display = ValueFactory.newDisplay(0.0, 1.0, 2.0, "a.u.", NumberFormats.format(2), 8.0, 9.0, 10.0, 0.0, 10.0);
+
+    /** Encode rows the way the CSV COPY does it, versus binary encoding */
+    @Test
+    public void benchmarkEncoding() throws Exception
+    {
+        final PGBinaryCopyEncoder encoder = new PGBinaryCopyEncoder(new ColumnType[]
+        {
+            ColumnType.INT8, ColumnType.TIMESTAMP, ColumnType.INT8, ColumnType.INT8,
+            ColumnType.FLOAT8, ColumnType.INT8, ColumnType.TEXT, ColumnType.BYTEA
+        });
+        final StringBuffer csv = new StringBuffer();
+        final long now = System.currentTimeMillis();
+
+        for (int run=0; run<3; ++run)
+        {
+            long start = System.nanoTime();
+            for (int i=0; i<ROWS; ++i)
+            {
+                final Timestamp stamp = new Timestamp(now + i);
+                csv.append(Long.toString(42)).append(',')
+                   .append(stamp.toString()).append(',')
+                   .append(Integer.toString(1)).append(',')
+                   .append(Integer.toString(2)).append(',')
+                   .append(Double.toString(3.14 + i)).append(',')
+                   .append(Integer.toString(stamp.getNanos())).append(',')
+                   .append(" ").append(',')
+                   .append('\n');
+                if (i % FLUSH_COUNT == 0)
+                    csv.setLength(0);
+            }
+            final double csv_secs = (System.nanoTime() - start) / 1e9;
+
+            start = System.nanoTime();
+            for (int i=0; i<ROWS; ++i)
+            {
+                final long millis = now + i;
+                encoder.startRow();
+                encoder.putLong(42);
+                encoder.putTimestamp(millis, (int) (millis % 1000) * 1000000);
+                encoder.putLong(1);
+                encoder.putLong(2);
+                encoder.putDouble(3.14 + i);
+                encoder.putLong((millis % 1000) * 1000000);
+                encoder.putString(" ");
+                encoder.putNull();
+                encoder.endRow();
+                if (i % FLUSH_COUNT == 0)
+                    encoder.reset();
+            }
+            final double bin_secs = (System.nanoTime() - start) / 1e9;
+
+            System.out.format("Encode %d rows: CSV %.3f sec (%.0f rows/sec), binary %.3f sec (%.0f rows/sec)\n",
+                              ROWS, csv_secs, ROWS / csv_secs, bin_secs, ROWS / bin_secs);
+        }
+    }
+
+    @Test
+    public void benchmarkWrite() throws Exception
+    {
+        final TestProperties settings = new TestProperties();
+        final String url = settings.getString("archive_rdb_url");
+        final String user = settings.getString("archive_rdb_user");
+        final String password = settings.getString("archive_rdb_password");
+        final String schema = settings.getString("archive_rdb_schema");
+        final String name = settings.getString("archive_channel");
+        final String array_name = settings.getString("archive_array_channel");
+        if (url == null  ||  user == null  ||  password == null  ||  name == null  ||
+            ! url.startsWith("jdbc:postgresql:"))
+        {
+            System.out.println("Skipping write benchmark, no PostgreSQL archive_rdb_url, user, password");
+            return;
+        }
+
+        for (InsertMode mode : InsertMode.values())
+        {
+            final RDBArchiveWriter writer = new RDBArchiveWriter(url, user, password, schema, true, mode);
+            try
+            {
+                final WriteChannel channel = writer.getChannel(name);
+                long count = 0;
+                long end = System.currentTimeMillis() + TEST_DURATION_SECS*1000L;
+                do
+                {
+                    writer.addSample(channel, new ArchiveVNumber(Instant.now(), AlarmSeverity.NONE, "OK", display, 3.14));
+                    if (++count % FLUSH_COUNT == 0)
+                        writer.flush();
+                }
+                while (System.currentTimeMillis() < end);
+                writer.flush();
+                System.out.println(mode + ": " + ((double)count / TEST_DURATION_SECS) + " scalar samples/sec.");
+
+                if (array_name == null)
+                    continue;
+                final WriteChannel array_channel = writer.getChannel(array_name);
+                final double[] data = new double[ARRAY_SIZE];
+                for (int i=0; i<data.length; ++i)
+                    data[i] = i;
+                count = 0;
+                end = System.currentTimeMillis() + TEST_DURATION_SECS*1000L;
+                do
+                {
+                    writer.addSample(array_channel, new ArchiveVNumberArray(Instant.now(), AlarmSeverity.NONE, "OK", display, new ArrayDouble(data)));
+                    if (++count % FLUSH_COUNT == 0)
+                        writer.flush();
+                }
+                while (System.currentTimeMillis() < end);
+                writer.flush();
+                System.out.println(mode + ": " + ((double)count / TEST_DURATION_SECS) + " array samples/sec.");
+            }
+            finally
+            {
+                writer.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.trends.databrowser2.model;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.io.PrintWriter;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.csstudio.archive.vtype.ArchiveVNumber;
+import org.csstudio.archive.vtype.ArchiveVStatistics;
+import org.diirt.vtype.AlarmSeverity;
+import org.diirt.vtype.ValueFactory;
+import org.junit.Test;
+
+/** JUnit test of incremental {@link FormulaItem} computation
+ *
+ *  <p>Compares the incrementally updated formula
+ *  with a formula that computes all samples.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class FormulaItemUnitTest
+{
+    /** Samples that can be appended, replaced or modified */
+    private static class InputSamples extends PlotSamples
+    {
+        final private List<PlotSample> samples = new ArrayList<>();
+
+        void add(final PlotSample sample)
+        {
+            samples.add(sample);
+            have_new_samples.set(true);
+        }
+
+        void replaceLast(final PlotSample sample)
+        {
+            samples.set(samples.size()-1, sample);
+            have_new_samples.set(true);
+        }
+
+        void set(final int index, final PlotSample sample)
+        {
+            samples.set(index, sample);
+            countModification();
+            have_new_samples.set(true);
+        }
+
+        @Override
+        public int size()
+        {
+            return samples.size();
+        }
+
+        @Override
+        public PlotSample get(final int index)
+        {
+            return samples.get(index);
+        }
+    }
+
+    private static class InputItem extends ModelItem
+    {
+        final private InputSamples samples = new InputSamples();
+
+        InputItem(final String name)
+        {
+            super(name);
+        }
+
+        @Override
+        public InputSamples getSamples()
+        {
+            return samples;
+        }
+
+        @Override
+        public void write(final PrintWriter writer)
+        {
+            // NOP
+        }
+    }
+
+    private static PlotSample makeSample(final double secs, final double value)
+    {
+        final Instant time = Instant.ofEpochMilli((long) (secs * 1000));
+        return new PlotSample("Test", new ArchiveVNumber(time, AlarmSeverity.NONE, "", ValueFactory.displayNone(), value));
+    }
+
+    private static PlotSample makeStatistics(final double secs, final double value)
+    {
+        final Instant time = Instant.ofEpochMilli((long) (secs * 1000));
+        return new PlotSample("Test", new ArchiveVStatistics(time, AlarmSeverity.NONE, "", ValueFactory.displayNone(),
+                                                             value, value - 1, value + 1, 0.0, 1));
+    }
+
+    /** @param formula Formula to check against computing all samples */
+    private static void checkFormula(final FormulaItem formula) throws Exception
+    {
+        final FormulaInput[] inputs = formula.getInputs();
+        final FormulaInput[] copy = new FormulaInput[inputs.length];
+        for (int i=0; i<inputs.length; ++i)
+            copy[i] = new FormulaInput(inputs[i].getItem(), inputs[i].getVariableName());
+        final PlotSamples expected = new FormulaItem("check", formula.getExpression(), copy).getSamples();
+        final PlotSamples actual = formula.getSamples();
+        assertThat(actual.size(), equalTo(expected.size()));
+        for (int i=0; i<expected.size(); ++i)
+        {
+            final PlotSample e = expected.get(i), a = actual.get(i);
+            assertThat(a.getPosition(), equalTo(e.getPosition()));
+            assertThat(a.getValue(), equalTo(e.getValue()));
+            assertThat(a.getMin(), equalTo(e.getMin()));
+            assertThat(a.getMax(), equalTo(e.getMax()));
+        }
+    }
+
+    @Test
+    public void testIncremental() throws Exception
+    {
+        final InputItem a = new InputItem("a"), b = new InputItem("b");
+        final FormulaItem formula = new FormulaItem("formula", "a+2*b",
+                new FormulaInput[] { new FormulaInput(a, "a"), new FormulaInput(b, "b") });
+        assertThat(formula.getSamples().size(), equalTo(0));
+
+        for (int i=0; i<100; ++i)
+        {
+            // 'a' has a sample every second, 'b' with min/max every 3 seconds.
+            a.getSamples().add(makeSample(i, i));
+            if (i % 3 == 0)
+                b.getSamples().add(makeStatistics(i + 0.5, -i));
+            // Like PVSamples, the last sample of 'a' is sometimes replaced
+            if (i % 5 == 0)
+            {
+                a.getSamples().add(makeSample(i + 0.9, 0));
+                formula.reevaluate();
+                a.getSamples().replaceLast(makeSample(i + 0.7, 1));
+            }
+            assertThat(formula.reevaluate(), equalTo(true));
+            checkFormula(formula);
+        }
+        assertThat(formula.getSamples().size() > 100, equalTo(true));
+    }
+
+    @Test
+    public void testModification() throws Exception
+    {
+        final InputItem a = new InputItem("a"), b = new InputItem("b");
+        for (int i=0; i<10; ++i)
+        {
+            a.getSamples().add(makeSample(i, i));
+            b.getSamples().add(makeSample(i + 0.5, -i));
+        }
+        final FormulaItem formula = new FormulaItem("formula", "a*b",
+                new FormulaInput[] { new FormulaInput(a, "a"), new FormulaInput(b, "b") });
+        checkFormula(formula);
+
+        // Change to older sample is detected
+        a.getSamples().set(2, makeSample(2, 42));
+        assertThat(formula.reevaluate(), equalTo(true));
+        checkFormula(formula);
+
+        // Formula as input to another formula
+        final FormulaItem sum = new FormulaItem("sum", "f+a",
+                new FormulaInput[] { new FormulaInput(formula, "f"), new FormulaInput(a, "a") });
+        for (int i=10; i<20; ++i)
+        {
+            a.getSamples().add(makeSample(i, i));
+            b.getSamples().add(makeSample(i + 0.5, -i));
+            formula.reevaluate();
+            sum.reevaluate();
+            checkFormula(formula);
+            checkFormula(sum);
+        }
+    }
+
+    @Test
+    public void testFormulaOfFormulaInModel() throws Exception
+    {
+        final InputItem a = new InputItem("a");
+        a.getSamples().add(makeSample(0, 0));
+        final FormulaItem formula = new FormulaItem("formula", "2*a",
+                new FormulaInput[] { new FormulaInput(a, "a") });
+        final FormulaItem sum = new FormulaItem("sum", "f+a",
+                new FormulaInput[] { new FormulaInput(formula, "f"), new FormulaInput(a, "a") });
+
+        // Model lists the formula that uses another formula before that formula
+        final Model model = new Model();
+        final AxisConfig axis = new AxisConfig("Value");
+        model.addAxis(axis);
+        for (ModelItem item : new ModelItem[] { sum, formula, a })
+        {
+            item.setAxis(axis);
+            model.addItem(item);
+        }
+        model.updateItemsAndCheckForNewSamples();
+
+        for (int i=1; i<10; ++i)
+        {
+            a.getSamples().add(makeSample(i, i));
+            assertThat(model.updateItemsAndCheckForNewSamples(), equalTo(true));
+            checkFormula(formula);
+            checkFormula(sum);
+            assertThat(sum.getSamples().size(), equalTo(i+1));
+        }
+        assertThat(model.updateItemsAndCheckForNewSamples(), equalTo(false));
+    }
+}
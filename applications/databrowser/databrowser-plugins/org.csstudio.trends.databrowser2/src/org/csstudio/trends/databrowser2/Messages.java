@@ -203,6 +203,7 @@ public class Messages extends NLS
     public static String PointType;
     public static String PointTypeTT;
     public static String PosErrColumn;
+    public static String PrefPage_ArchiveCacheSize;
     public static String PrefPage_ArchiveFetchDelay;
     public static String PrefPage_Archives;
     public static String PrefPage_AutomaticHistoryRefresh;
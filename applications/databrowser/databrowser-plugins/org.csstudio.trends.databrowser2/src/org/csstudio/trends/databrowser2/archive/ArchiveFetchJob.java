@@ -15,8 +15,10 @@ import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 import org.csstudio.apputil.time.BenchmarkTimer;
+import org.csstudio.archive.reader.ArchiveCache;
 import org.csstudio.archive.reader.ArchiveReader;
 import org.csstudio.archive.reader.ArchiveRepository;
+import org.csstudio.archive.reader.CachingArchiveReader;
 import org.csstudio.archive.reader.UnknownChannelException;
 import org.csstudio.archive.reader.ValueIterator;
 import org.csstudio.trends.databrowser2.Activator;
@@ -46,6 +48,12 @@ public class ArchiveFetchJob extends Job
     /** Poll period in millisecs */
     private static final int POLL_PERIOD_MS = 1000;
 
+    /** Cache for archived data shared by all jobs, or <code>null</code> when disabled */
+    private static ArchiveCache cache;
+
+    /** Was the cache created? */
+    private static boolean cache_initialized = false;
+
     /**to manage concurrency on postgresql*/
     private final boolean concurrency;
 
@@ -128,7 +136,7 @@ public class ArchiveFetchJob extends Job
                     final ArchiveReader the_reader;
                     synchronized (this)
                     {
-                        the_reader = reader = ArchiveRepository.getInstance().getArchiveReader(url);
+                        the_reader = reader = getArchiveReader(url);
                     }
                     the_reader.enableConcurrency(concurrency);
                     final ValueIterator value_iter;
@@ -186,6 +194,8 @@ public class ArchiveFetchJob extends Job
             Activator.getLogger().log(Level.FINE,
                     "Ended {0} with {1} samples in {2}",
                     new Object[] { ArchiveFetchJob.this, samples, timer });
+            if (getCache() != null)
+                Activator.getLogger().log(Level.FINE, "{0}", getCache());
         }
 
         @Override
@@ -195,6 +205,32 @@ public class ArchiveFetchJob extends Job
         }
     }
 
+    /** @param url Archive URL
+     *  @return ArchiveReader for URL, using the cache if enabled
+     *  @throws Exception on error
+     */
+    private static ArchiveReader getArchiveReader(final String url) throws Exception
+    {
+        final ArchiveReader reader = ArchiveRepository.getInstance().getArchiveReader(url);
+        final ArchiveCache cache = getCache();
+        if (cache == null)
+            return reader;
+        return new CachingArchiveReader(reader, cache);
+    }
+
+    /** @return Cache for archived data or <code>null</code> when disabled */
+    private static synchronized ArchiveCache getCache()
+    {
+        if (! cache_initialized)
+        {
+            final int mb = Preferences.getArchiveCacheSize();
+            if (mb > 0)
+                cache = new ArchiveCache(mb * 1024L * 1024L, Preferences.getArchiveCacheHoldBack());
+            cache_initialized = true;
+        }
+        return cache;
+    }
+
     /** Initialize
      *  @param item
      *  @param start
@@ -10,7 +10,12 @@ package org.csstudio.trends.databrowser2.export;
 import java.io.PrintStream;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Future;
 import java.util.logging.Level;
@@ -21,6 +26,7 @@ import org.csstudio.archive.reader.ArchiveReader;
 import org.csstudio.archive.reader.ArchiveRepository;
 import org.csstudio.archive.reader.LinearValueIterator;
 import org.csstudio.archive.reader.MergingValueIterator;
+import org.csstudio.archive.reader.UnknownChannelException;
 import org.csstudio.archive.reader.ValueIterator;
 import org.csstudio.trends.databrowser2.Activator;
 import org.csstudio.trends.databrowser2.model.ArchiveDataSource;
@@ -225,11 +231,7 @@ abstract public class ExportJob extends Job
                     iter = reader.getOptimizedValues(archive.getKey(),
                             item.getResolvedName(), start, end, (int)optimize_parameter);
                 else
-                {
-                    iter = reader.getRawValues(archive.getKey(), item.getResolvedName(), start, end);
-                    if (source == Source.LINEAR_INTERPOLATION && optimize_parameter >= 1)
-                        iter = new LinearValueIterator(iter, TimeDuration.ofSeconds(optimize_parameter));
-                }
+                    iter = interpolate(reader.getRawValues(archive.getKey(), item.getResolvedName(), start, end));
 
                 iters.add(iter);
             }
@@ -246,4 +248,135 @@ abstract public class ExportJob extends Job
         // Return a merging iterator
         return new MergingValueIterator(iters.toArray(new ValueIterator[iters.size()]));
     }
+
+    /** @param iter Raw samples
+     *  @return Raw samples or linear interpolation, depending on the export source
+     *  @throws Exception on error
+     */
+    private ValueIterator interpolate(final ValueIterator iter) throws Exception
+    {
+        if (source == Source.LINEAR_INTERPOLATION && optimize_parameter >= 1)
+            return new LinearValueIterator(iter, TimeDuration.ofSeconds(optimize_parameter));
+        return iter;
+    }
+
+    /** Create ValueIterators for several items.
+     *
+     *  <p>Same result as calling {@link #createValueIterator(ModelItem)}
+     *  for each item, but fetches all channels of an archive data source
+     *  with one call, so the archive reader can fetch them in parallel.
+     *
+     *  @param items ModelItems
+     *  @return ValueIterator for samples in each item, in the order of the items
+     *  @throws Exception on error
+     */
+    protected List<ValueIterator> createValueIterators(final Iterable<ModelItem> items) throws Exception
+    {
+        final List<ValueIterator> result = new ArrayList<>();
+        if (source == Source.PLOT)
+        {
+            for (ModelItem item : items)
+                result.add(createValueIterator(item));
+            return result;
+        }
+
+        // Channels for each archive data source
+        final Map<ArchiveDataSource, List<String>> channels = new LinkedHashMap<>();
+        for (ModelItem item : items)
+            if (item instanceof PVItem)
+                for (ArchiveDataSource archive : ((PVItem)item).getArchiveDataSources())
+                {
+                    final List<String> names = channels.computeIfAbsent(archive, a -> new ArrayList<>());
+                    if (! names.contains(item.getResolvedName()))
+                        names.add(item.getResolvedName());
+                }
+
+        // Fetch all channels of each archive data source
+        final Map<ArchiveDataSource, ArchiveReader> readers = new HashMap<>();
+        final Map<ArchiveDataSource, Map<String, ValueIterator>> fetched = new HashMap<>();
+        final Map<ArchiveDataSource, Exception> errors = new HashMap<>();
+        for (Map.Entry<ArchiveDataSource, List<String>> entry : channels.entrySet())
+        {
+            final ArchiveDataSource archive = entry.getKey();
+            final ArchiveReader reader = ArchiveRepository.getInstance().getArchiveReader(archive.getUrl());
+            archive_readers.add(reader);
+            readers.put(archive, reader);
+            try
+            {
+                if (source == Source.OPTIMIZED_ARCHIVE  &&  optimize_parameter > 1)
+                    fetched.put(archive, reader.getOptimizedValues(archive.getKey(),
+                            entry.getValue(), start, end, (int)optimize_parameter));
+                else
+                    fetched.put(archive, reader.getRawValues(archive.getKey(), entry.getValue(), start, end));
+            }
+            catch (Exception ex)
+            {
+                Logger.getLogger(getClass().getName()).log(Level.FINE, "Export error for " + archive.getName(), ex);
+                errors.put(archive, ex);
+            }
+        }
+
+        // Assemble iterators for each item
+        final Set<String> used = new HashSet<>();
+        for (ModelItem item : items)
+        {
+            if (! (item instanceof PVItem))
+            {
+                result.add(new ModelSampleIterator(item, start, end));
+                continue;
+            }
+            final List<ValueIterator> iters = new ArrayList<>();
+            Exception error = null;
+            for (ArchiveDataSource archive : ((PVItem)item).getArchiveDataSources())
+            {
+                final Map<String, ValueIterator> archive_iters = fetched.get(archive);
+                if (archive_iters == null)
+                {
+                    if (error == null)
+                        error = errors.get(archive);
+                    continue;
+                }
+                ValueIterator iter = archive_iters.remove(item.getResolvedName());
+                if (iter != null)
+                {
+                    used.add(archive.getUrl() + "|" + archive.getKey() + "|" + item.getResolvedName());
+                    iters.add(interpolate(iter));
+                }
+                else if (used.contains(archive.getUrl() + "|" + archive.getKey() + "|" + item.getResolvedName()))
+                {   // Same channel in several items: Fetch again for this item
+                    try
+                    {
+                        final ArchiveReader reader = readers.get(archive);
+                        if (source == Source.OPTIMIZED_ARCHIVE  &&  optimize_parameter > 1)
+                            iter = reader.getOptimizedValues(archive.getKey(),
+                                    item.getResolvedName(), start, end, (int)optimize_parameter);
+                        else
+                            iter = interpolate(reader.getRawValues(archive.getKey(), item.getResolvedName(), start, end));
+                        iters.add(iter);
+                    }
+                    catch (Exception ex)
+                    {
+                        Logger.getLogger(getClass().getName()).log(Level.FINE, "Export error for " + item.getResolvedName(), ex);
+                        if (error == null)
+                            error = ex;
+                    }
+                }
+                else if (error == null)
+                    // Channel not known to this archive data source
+                    error = new UnknownChannelException(item.getResolvedName());
+            }
+            // If none of the iterators work out, report the first error that we found
+            if (iters.isEmpty()  &&  error != null)
+            {
+                for (ValueIterator iter : result)
+                    iter.close();
+                for (Map<String, ValueIterator> archive_iters : fetched.values())
+                    for (ValueIterator iter : archive_iters.values())
+                        iter.close();
+                throw error;
+            }
+            result.add(new MergingValueIterator(iters.toArray(new ValueIterator[iters.size()])));
+        }
+        return result;
+    }
 }
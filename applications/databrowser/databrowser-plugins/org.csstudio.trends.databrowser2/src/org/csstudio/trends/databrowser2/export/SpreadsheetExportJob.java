@@ -9,7 +9,6 @@ package org.csstudio.trends.databrowser2.export;
 
 import java.io.PrintStream;
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.List;
 
 import org.csstudio.archive.reader.SpreadsheetIterator;
@@ -53,12 +52,8 @@ public class SpreadsheetExportJob extends PlainExportJob
         out.println();
 
         // Create speadsheet interpolation
-        final List<ValueIterator> iters = new ArrayList<>();
-        for (ModelItem item : model.getItems())
-        {
-            monitor.subTask(NLS.bind("Fetching data for {0}", item.getResolvedName()));
-            iters.add(createValueIterator(item));
-        }
+        monitor.subTask("Fetching data");
+        final List<ValueIterator> iters = createValueIterators(model.getItems());
         final SpreadsheetIterator sheet = new SpreadsheetIterator(iters.toArray(new ValueIterator[iters.size()]));
         // Dump the spreadsheet lines
         long line_count = 0;
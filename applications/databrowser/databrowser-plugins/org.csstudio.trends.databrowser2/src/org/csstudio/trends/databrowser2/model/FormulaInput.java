@@ -7,6 +7,8 @@
  ******************************************************************************/
 package org.csstudio.trends.databrowser2.model;
 
+import java.time.Instant;
+
 import org.diirt.vtype.VType;
 
 /** One input to the formula: Model item that provides data, Variable name
@@ -95,6 +97,78 @@ public class FormulaInput
         return result;
     }
 
+    /** Position the sample iterator at a time stamp
+     *  @param time Time stamp
+     *  @return Last sample before that time or <code>null</code>.
+     *          {@link #next()} will return the first sample at or after the time.
+     */
+    public VType seek(final Instant time)
+    {
+        final PlotSamples samples = item.getSamples();
+        samples.getLock().lock();
+        try
+        {
+            // Binary search for first sample at or after time
+            int low = 0, high = samples.size();
+            while (low < high)
+            {
+                final int mid = (low + high) >>> 1;
+                if (samples.get(mid).getPosition().compareTo(time) < 0)
+                    low = mid + 1;
+                else
+                    high = mid;
+            }
+            index = low;
+            return low > 0 ? samples.get(low - 1).getVType() : null;
+        }
+        finally
+        {
+            samples.getLock().unlock();
+        }
+    }
+
+    /** @return Time stamp of first sample or <code>null</code> */
+    public Instant getFirstTime()
+    {
+        final PlotSamples samples = item.getSamples();
+        samples.getLock().lock();
+        try
+        {
+            return samples.size() > 0 ? samples.get(0).getPosition() : null;
+        }
+        finally
+        {
+            samples.getLock().unlock();
+        }
+    }
+
+    /** Adding samples or replacing the last sample
+     *  does not affect samples before the next-to-last sample.
+     *  @return Time stamp of next-to-last sample or <code>null</code>
+     */
+    public Instant getNextToLastTime()
+    {
+        final PlotSamples samples = item.getSamples();
+        samples.getLock().lock();
+        try
+        {
+            final int size = samples.size();
+            return size > 1 ? samples.get(size - 2).getPosition() : null;
+        }
+        finally
+        {
+            samples.getLock().unlock();
+        }
+    }
+
+    /** @return Modification count of the input's samples
+     *  @see PlotSamples#getModificationCount()
+     */
+    public long getModificationCount()
+    {
+        return item.getSamples().getModificationCount();
+    }
+
     /** Check for new samples.
      *  Note that this will not reset the new-sample flag,
      *  so its use has to be coordinated with the overall mechanism
@@ -10,23 +10,17 @@ package org.csstudio.trends.databrowser2.model;
 import java.io.PrintWriter;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 import org.csstudio.apputil.formula.Formula;
 import org.csstudio.apputil.formula.VariableNode;
 import org.csstudio.apputil.xml.DOMHelper;
 import org.csstudio.apputil.xml.XMLWriter;
-import org.csstudio.archive.vtype.ArchiveVNumber;
-import org.csstudio.archive.vtype.ArchiveVStatistics;
-import org.csstudio.archive.vtype.ArchiveVType;
 import org.csstudio.archive.vtype.VTypeHelper;
-import org.csstudio.trends.databrowser2.Messages;
 import org.csstudio.trends.databrowser2.persistence.XMLPersistence;
-import org.diirt.vtype.AlarmSeverity;
-import org.diirt.vtype.Display;
+import org.csstudio.trends.databrowser2.preferences.Preferences;
 import org.diirt.vtype.VStatistics;
 import org.diirt.vtype.VType;
-import org.diirt.vtype.ValueFactory;
 import org.w3c.dom.Element;
 
 /** A {@link Model} item that implements a formula.
@@ -64,8 +58,20 @@ public class FormulaItem extends ModelItem
     private VariableNode variables[];
 
     /** Samples of the formula, computed from inputs.
-     *  Access must synchronize on samples (done inside PlotSampleArray) */
-    private PlotSampleArray samples = new PlotSampleArray();
+     *  Access must synchronize on samples (done inside FormulaSamples) */
+    final private FormulaSamples samples = new FormulaSamples();
+
+    /** Compute incrementally? */
+    final private boolean incremental_mode = Preferences.isIncrementalFormula();
+
+    /** Lines of the 'spreadsheet' before this time are final,
+     *  <code>null</code> to compute all lines.
+     *  @see #formula for synchronization
+     */
+    private Instant checkpoint = null;
+
+    /** Modification counts of the inputs when the checkpoint was set */
+    private long[] input_modifications = null;
 
     /** Initialize formula
      *  @param name Name of the Formula item
@@ -122,6 +128,8 @@ public class FormulaItem extends ModelItem
             for (int i=0; i<variables.length; ++i)
                 variables[i] = new VariableNode(inputs[i].getVariableName());
             this.formula = new Formula(expression, variables);
+            formula.compile();
+            checkpoint = null;
         }
         fireItemLookChanged();
     }
@@ -131,14 +139,42 @@ public class FormulaItem extends ModelItem
      *  Iterates over the input samples in a manner of spreadsheet or
      *  staircase-interpolation: An input with a time stamp is valid
      *  until there's a sample with a greater time stamp.
+     *  <p>
+     *  In incremental mode, lines of the 'spreadsheet' before the
+     *  checkpoint are kept from the previous computation,
+     *  and only lines from the checkpoint on are evaluated.
+     *  When any input was modified other than by adding samples,
+     *  all lines are computed again.
      */
     private void compute()
     {
-        final List<PlotSample> result = new ArrayList<PlotSample>();
-        final Display display = ValueFactory.displayNone();
         // Prevent changes to formula & inputs
         synchronized (this)
         {
+            // Determine modifications and time range of inputs before reading samples.
+            // Inputs may receive more samples while computing, but lines before the
+            // new checkpoint, the oldest next-to-last sample of all inputs, remain valid.
+            final long[] modifications = new long[inputs.length];
+            Instant first_time = null, final_time = null;
+            boolean all_have_data = true;
+            for (int i = 0; i < inputs.length; i++)
+            {
+                modifications[i] = inputs[i].getModificationCount();
+                final Instant first = inputs[i].getFirstTime();
+                final Instant time = inputs[i].getNextToLastTime();
+                if (first == null  ||  time == null)
+                    all_have_data = false;
+                else
+                {
+                    if (first_time == null  ||  first.compareTo(first_time) < 0)
+                        first_time = first;
+                    if (final_time == null  ||  time.compareTo(final_time) < 0)
+                        final_time = time;
+                }
+            }
+            final boolean incremental = checkpoint != null  &&  first_time != null  &&
+                                        Arrays.equals(modifications, input_modifications);
+
             // 'Current' value for each input or null when no more
             // In computation loop, values is actually moved to the _next_
             // value
@@ -155,13 +191,21 @@ public class FormulaItem extends ModelItem
             {
                 // Initially, none have any data
                 min[i] = val[i] = max[i] = Double.NaN;
-                // Is there an initial value for any input?
-                values[i] = inputs[i].first();
+                if (incremental)
+                {   // Continue with the samples valid at the checkpoint
+                    final VType previous = inputs[i].seek(checkpoint);
+                    if (previous != null)
+                        setCurrentValue(previous, i, min, val, max);
+                    values[i] = inputs[i].next();
+                }
+                else // Is there an initial value for any input?
+                    values[i] = inputs[i].first();
                 if (values[i] != null)
                     more_input = true;
             }
 
             // Compute result for each 'line in the spreadsheet'
+            final FormulaSamples.Lines lines = new FormulaSamples.Lines(incremental ? 16 : 1024);
             Instant time;
             while (more_input)
             {   // Find oldest time stamp of all the inputs
@@ -194,22 +238,8 @@ public class FormulaItem extends ModelItem
                     }
                     else if (VTypeHelper.getTimestamp(values[i]).compareTo(time) <= 0)
                     {   // Input is valid before-and-up-to 'time'
-                        if (values[i] instanceof VStatistics)
-                        {
-                            final VStatistics mmv = (VStatistics)values[i];
-                            min[i] = mmv.getMin();
-                            val[i] = mmv.getAverage();
-                            max[i] = mmv.getMax();
-                        }
-                        else
-                        {
-                            min[i] = max[i] = Double.NaN;
-                            val[i] = VTypeHelper.toDouble(values[i]);
-                            // Use NaN for any non-number
-                            if (Double.isInfinite(val[i]))
-                                val[i] = Double.NaN;
+                        if (! setCurrentValue(values[i], i, min, val, max))
                             have_min_max = false;
-                        }
                         // Move to next input sample
                         values[i] = inputs[i].next();
                     }
@@ -227,8 +257,6 @@ public class FormulaItem extends ModelItem
                     variables[i].setValue(val[i]);
                 // Evaluate formula for these inputs
                 final double res_val = formula.eval();
-                final VType value;
-
                 if (have_min_max)
                 {   // Set variables[] from min
                     for (int i = 0; i < values.length; i++)
@@ -238,23 +266,56 @@ public class FormulaItem extends ModelItem
                     for (int i = 0; i < values.length; i++)
                         variables[i].setValue(max[i]);
                     final double res_max = formula.eval();
-                    value = new ArchiveVStatistics(time, AlarmSeverity.NONE, Messages.Formula,
-                            display, res_val, res_min, res_max, 0.0, 1);
+                    lines.add(time, res_val, res_min, res_max, true);
                 }
-                else
-                {   // No min/max.
-                    if (Double.isNaN(res_val))
-                        value = new ArchiveVNumber(time, AlarmSeverity.INVALID, Messages.Formula,
-                                    display, res_val);
-                    else
-                        value = new ArchiveVNumber(time, AlarmSeverity.NONE, ArchiveVType.STATUS_OK,
-                                    display, res_val);
-                }
-                result.add(new PlotSample(Messages.Formula, value));
+                else // No min/max.
+                    lines.add(time, res_val, Double.NaN, Double.NaN, false);
+            }
+
+            // Update PlotSamples
+            if (incremental)
+                samples.update(first_time, checkpoint, lines);
+            else
+                samples.set(lines);
+
+            // Remember where to continue.
+            // An input with fewer than two samples could later
+            // receive samples anywhere in time, so no checkpoint.
+            if (incremental_mode  &&  all_have_data  &&  final_time != null)
+            {
+                checkpoint = final_time;
+                input_modifications = modifications;
             }
+            else
+                checkpoint = null;
         }
-        // Update PlotSamples
-        samples.set(result);
+    }
+
+    /** Set 'current' numeric value of an input
+     *  @param value Sample of the input
+     *  @param i Index of input
+     *  @param min 'Current' minimum of inputs
+     *  @param val 'Current' value of inputs
+     *  @param max 'Current' maximum of inputs
+     *  @return <code>true</code> if sample provided min/max
+     */
+    private static boolean setCurrentValue(final VType value, final int i,
+                                           final double[] min, final double[] val, final double[] max)
+    {
+        if (value instanceof VStatistics)
+        {
+            final VStatistics mmv = (VStatistics)value;
+            min[i] = mmv.getMin();
+            val[i] = mmv.getAverage();
+            max[i] = mmv.getMax();
+            return true;
+        }
+        min[i] = max[i] = Double.NaN;
+        val[i] = VTypeHelper.toDouble(value);
+        // Use NaN for any non-number
+        if (Double.isInfinite(val[i]))
+            val[i] = Double.NaN;
+        return false;
     }
 
     /** Re-evaluate the formula in case some of the input samples changed.
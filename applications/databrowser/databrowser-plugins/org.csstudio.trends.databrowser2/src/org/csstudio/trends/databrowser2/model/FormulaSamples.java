@@ -0,0 +1,301 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.trends.databrowser2.model;
+
+import java.time.Instant;
+
+import org.csstudio.archive.vtype.ArchiveVNumber;
+import org.csstudio.archive.vtype.ArchiveVStatistics;
+import org.csstudio.archive.vtype.ArchiveVType;
+import org.csstudio.trends.databrowser2.Messages;
+import org.diirt.vtype.AlarmSeverity;
+import org.diirt.vtype.Display;
+import org.diirt.vtype.VType;
+import org.diirt.vtype.ValueFactory;
+
+/** Samples of a {@link FormulaItem}
+ *  <p>
+ *  Time stamp, value and optional min/max of each result
+ *  are kept in primitive arrays.
+ *  {@link PlotSample}s are created when accessed.
+ *  <p>
+ *  Results are computed into {@link Lines},
+ *  which then either replace all samples
+ *  or are appended to the existing samples.
+ *
+ *  @author Kay Kasemir
+ */
+public class FormulaSamples extends PlotSamples
+{
+    final private static Display display = ValueFactory.displayNone();
+
+    /** Lines of the formula's 'spreadsheet' */
+    static class Lines
+    {
+        private long[] secs;
+        private int[] nanos;
+        private double[] value, min, max;
+        private boolean[] have_min_max;
+
+        /** Valid array elements are start .. end-1 */
+        private int start = 0, end = 0;
+
+        /** @param capacity Initial capacity */
+        Lines(final int capacity)
+        {
+            secs = new long[capacity];
+            nanos = new int[capacity];
+            value = new double[capacity];
+            min = new double[capacity];
+            max = new double[capacity];
+            have_min_max = new boolean[capacity];
+        }
+
+        /** @return Number of lines */
+        int size()
+        {
+            return end - start;
+        }
+
+        /** @param time Time stamp of the line
+         *  @param value Result value
+         *  @param min Result for minimum of inputs
+         *  @param max Result for maximum of inputs
+         *  @param have_min_max Are min, max valid?
+         */
+        void add(final Instant time, final double value,
+                 final double min, final double max, final boolean have_min_max)
+        {
+            makeRoom(1);
+            this.secs[end] = time.getEpochSecond();
+            this.nanos[end] = time.getNano();
+            this.value[end] = value;
+            this.min[end] = min;
+            this.max[end] = max;
+            this.have_min_max[end] = have_min_max;
+            ++end;
+        }
+
+        /** @param other Lines to append */
+        void add(final Lines other)
+        {
+            final int count = other.size();
+            makeRoom(count);
+            System.arraycopy(other.secs, other.start, secs, end, count);
+            System.arraycopy(other.nanos, other.start, nanos, end, count);
+            System.arraycopy(other.value, other.start, value, end, count);
+            System.arraycopy(other.min, other.start, min, end, count);
+            System.arraycopy(other.max, other.start, max, end, count);
+            System.arraycopy(other.have_min_max, other.start, have_min_max, end, count);
+            end += count;
+        }
+
+        /** @param count Number of lines to add */
+        private void makeRoom(final int count)
+        {
+            if (end + count <= secs.length)
+                return;
+            final int size = size();
+            // Grow unless removing the unused start provides enough room
+            final int capacity = size + count <= secs.length / 2
+                               ? secs.length
+                               : Math.max(secs.length * 2, size + count);
+            secs = move(secs, capacity);
+            nanos = move(nanos, capacity);
+            value = move(value, capacity);
+            min = move(min, capacity);
+            max = move(max, capacity);
+            have_min_max = move(have_min_max, capacity);
+            start = 0;
+            end = size;
+        }
+
+        private long[] move(final long[] data, final int capacity)
+        {
+            final long[] result = capacity == data.length ? data : new long[capacity];
+            System.arraycopy(data, start, result, 0, size());
+            return result;
+        }
+
+        private int[] move(final int[] data, final int capacity)
+        {
+            final int[] result = capacity == data.length ? data : new int[capacity];
+            System.arraycopy(data, start, result, 0, size());
+            return result;
+        }
+
+        private double[] move(final double[] data, final int capacity)
+        {
+            final double[] result = capacity == data.length ? data : new double[capacity];
+            System.arraycopy(data, start, result, 0, size());
+            return result;
+        }
+
+        private boolean[] move(final boolean[] data, final int capacity)
+        {
+            final boolean[] result = capacity == data.length ? data : new boolean[capacity];
+            System.arraycopy(data, start, result, 0, size());
+            return result;
+        }
+
+        /** @param index Line index 0 .. size()-1
+         *  @param time Time stamp
+         *  @return Comparison of the line's time stamp to the given time stamp
+         */
+        private int compareTime(final int index, final Instant time)
+        {
+            final int i = start + index;
+            final int result = Long.compare(secs[i], time.getEpochSecond());
+            if (result != 0)
+                return result;
+            return Integer.compare(nanos[i], time.getNano());
+        }
+
+        /** Remove lines from the start
+         *  @param time Remove lines before this time
+         */
+        void removeBefore(final Instant time)
+        {
+            while (start < end  &&  compareTime(0, time) < 0)
+                ++start;
+        }
+
+        /** @param time Time stamp
+         *  @return Index of first line at or after that time, size() if none
+         */
+        int findLine(final Instant time)
+        {
+            int low = 0, high = size();
+            while (low < high)
+            {
+                final int mid = (low + high) >>> 1;
+                if (compareTime(mid, time) < 0)
+                    low = mid + 1;
+                else
+                    high = mid;
+            }
+            return low;
+        }
+
+        /** @param index Line index 0 .. size()-1
+         *  @param other Other lines
+         *  @param other_index Index into other lines
+         *  @return <code>true</code> if both lines hold the same data
+         */
+        private boolean sameLine(final int index, final Lines other, final int other_index)
+        {
+            final int i = start + index, o = other.start + other_index;
+            return secs[i] == other.secs[o]  &&  nanos[i] == other.nanos[o]  &&
+                   Double.compare(value[i], other.value[o]) == 0  &&
+                   Double.compare(min[i], other.min[o]) == 0  &&
+                   Double.compare(max[i], other.max[o]) == 0  &&
+                   have_min_max[i] == other.have_min_max[o];
+        }
+
+        /** @param index First line to check
+         *  @param count Number of lines to check
+         *  @param other Other lines
+         *  @return <code>true</code> if lines match the start of the other lines
+         */
+        boolean startsOtherLines(final int index, final int count, final Lines other)
+        {
+            if (count > other.size())
+                return false;
+            for (int i=0; i<count; ++i)
+                if (! sameLine(index + i, other, i))
+                    return false;
+            return true;
+        }
+
+        /** @param size Number of lines to keep */
+        void truncate(final int size)
+        {
+            end = start + size;
+        }
+
+        /** @param index Line index 0 .. size()-1
+         *  @return Value for that line
+         */
+        VType getVType(final int index)
+        {
+            final int i = start + index;
+            final Instant time = Instant.ofEpochSecond(secs[i], nanos[i]);
+            if (have_min_max[i])
+                return new ArchiveVStatistics(time, AlarmSeverity.NONE, Messages.Formula,
+                                              display, value[i], min[i], max[i], 0.0, 1);
+            // No min/max.
+            if (Double.isNaN(value[i]))
+                return new ArchiveVNumber(time, AlarmSeverity.INVALID, Messages.Formula,
+                                          display, value[i]);
+            return new ArchiveVNumber(time, AlarmSeverity.NONE, ArchiveVType.STATUS_OK,
+                                      display, value[i]);
+        }
+    }
+
+    /** Current samples */
+    private Lines lines = new Lines(0);
+
+    /** Replace all samples
+     *  @param lines New samples <u>which are NOT copied</u>
+     */
+    void set(final Lines lines)
+    {
+        lockForWriting();
+        try
+        {
+            this.lines = lines;
+            countModification();
+        }
+        finally
+        {
+            unlockForWriting();
+        }
+    }
+
+    /** Update samples
+     *  @param first Remove samples before this time
+     *  @param replace Replace samples at or after this time
+     *  @param update Samples to add, starting at the 'replace' time
+     */
+    void update(final Instant first, final Instant replace, final Lines update)
+    {
+        lockForWriting();
+        try
+        {
+            lines.removeBefore(first);
+            final int keep = lines.findLine(replace);
+            // Replacing the last sample is expected,
+            // but other replaced samples should remain the same
+            final int replaced = lines.size() - keep;
+            if (replaced > 1  &&  ! lines.startsOtherLines(keep, replaced-1, update))
+                countModification();
+            lines.truncate(keep);
+            lines.add(update);
+        }
+        finally
+        {
+            unlockForWriting();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int size()
+    {
+        return lines.size();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public PlotSample get(final int index)
+    {
+        if (index < 0  ||  index >= lines.size())
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + lines.size()); //$NON-NLS-1$ //$NON-NLS-2$
+        return new PlotSample(Messages.Formula, lines.getVType(index));
+    }
+}
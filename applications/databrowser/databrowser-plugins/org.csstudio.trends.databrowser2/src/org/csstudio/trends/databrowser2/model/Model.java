@@ -13,9 +13,11 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
@@ -911,23 +913,46 @@ public class Model
     public boolean updateItemsAndCheckForNewSamples()
     {
         boolean anything_new = false;
-        // Update any formulas
+        // Update any formulas.
+        // Formulas that are inputs to other formulas are updated first,
+        // so their new samples are seen before the flags are reset below.
+        final Set<FormulaItem> updated = new HashSet<>();
         for (ModelItem item : items)
         {
             if (item instanceof FormulaItem  &&
-                ((FormulaItem)item).reevaluate())
+                reevaluate((FormulaItem)item, updated))
                     anything_new = true;
         }
-        // Check and reset PV Items
+        // Check and reset PV Items as well as formulas,
+        // which might be inputs to other formulas
         for (ModelItem item : items)
         {
-            if (item instanceof PVItem  &&
-                item.getSamples().testAndClearNewSamplesFlag())
+            if (item.getSamples().testAndClearNewSamplesFlag())
                 anything_new = true;
         }
         return anything_new;
     }
 
+    /** Re-evaluate formula after the formulas that it uses as inputs
+     *  @param formula Formula to re-evaluate
+     *  @param updated Formulas that have already been re-evaluated
+     *  @return <code>true</code> if the formula or one of its input formulas
+     *          was re-evaluated
+     */
+    private boolean reevaluate(final FormulaItem formula, final Set<FormulaItem> updated)
+    {
+        if (! updated.add(formula))
+            return false;
+        boolean anything_new = false;
+        for (FormulaInput input : formula.getInputs())
+            if (input.getItem() instanceof FormulaItem  &&
+                reevaluate((FormulaItem) input.getItem(), updated))
+                anything_new = true;
+        if (formula.reevaluate())
+            anything_new = true;
+        return anything_new;
+    }
+
     /** Notify listeners of changed axis configuration
      *  @param axis Axis that changed, empty to add/remove
      */
@@ -73,6 +73,13 @@ public class PVSamples extends PlotSamples
     public void setLiveCapacity(final int new_capacity) throws Exception
     {
         live.setCapacity(new_capacity);
+        countModification();
+    }
+
+    /** Note that all samples changed because the waveform index changed */
+    void waveformIndexChanged()
+    {
+        countModification();
     }
 
     /** @return Combined count of historic and live samples */
@@ -166,6 +173,7 @@ public class PVSamples extends PlotSamples
                 history.clear();
             }
             history.mergeArchivedData(source, result);
+            countModification();
         }
         finally
         {
@@ -199,7 +207,11 @@ public class PVSamples extends PlotSamples
             // History ends before the start of 'live' samples.
             // Adding a live sample might have moved the ring buffer,
             // so need to update whenever live data is extended.
+            final int visible_history = history.size();
             history.setBorderTime(Optional.of(live.get(0).getPosition()));
+            // Uncovered historic samples are inserted before the live samples
+            if (history.size() != visible_history)
+                countModification();
         }
         finally
         {
@@ -216,6 +228,7 @@ public class PVSamples extends PlotSamples
         {
             history.clear();
             live.clear();
+            countModification();
         }
         finally
         {
@@ -21,6 +21,7 @@ public class PlotSampleArray extends PlotSamples
     public void set(final List<PlotSample> samples)
     {
         this.samples = samples;
+        countModification();
     }
 
     /** {@inheritDoc} */
@@ -9,6 +9,7 @@ package org.csstudio.trends.databrowser2.model;
 
 import java.time.Instant;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -29,6 +30,9 @@ abstract public class PlotSamples implements PlotDataProvider<Instant>
      */
     final protected AtomicBoolean have_new_samples = new AtomicBoolean();
 
+    /** @see #getModificationCount() */
+    final private AtomicLong modifications = new AtomicLong();
+
     /** Lock for writing */
     public void lockForWriting()
     {
@@ -74,6 +78,31 @@ abstract public class PlotSamples implements PlotDataProvider<Instant>
         return have_new_samples.getAndSet(false);
     }
 
+    /** Count changes to samples other than additions at the end.
+     *
+     *  <p>Samples may be appended, the last sample may be replaced,
+     *  and the oldest 'live' samples may drop out of their buffer
+     *  without changing this count.
+     *  Any other change, for example merging archived data,
+     *  increments the count.
+     *  Code that processes samples incrementally
+     *  must start over when the count changed.
+     *
+     *  @return Count of modifications
+     */
+    public long getModificationCount()
+    {
+        return modifications.get();
+    }
+
+    /** Note a change other than adding samples
+     *  @see #getModificationCount()
+     */
+    protected void countModification()
+    {
+        modifications.incrementAndGet();
+    }
+
     /** @return Info text about PlotSamples for debugging */
     @SuppressWarnings("nls")
     @Override
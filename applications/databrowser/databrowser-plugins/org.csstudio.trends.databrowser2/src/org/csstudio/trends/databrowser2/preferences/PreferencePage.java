@@ -156,6 +156,12 @@ public class PreferencePage extends FieldEditorPreferencePage
         fetch_delay.setValidRange(100, 10000);
         addField(fetch_delay);
 
+        // Archive cache: 0 (disabled) ... 10 GB
+        final IntegerFieldEditor cache_size = new IntegerFieldEditor(Preferences.ARCHIVE_CACHE_SIZE,
+                Messages.PrefPage_ArchiveCacheSize, parent);
+        cache_size.setValidRange(0, 10000);
+        addField(cache_size);
+
         // Plot bins: 10 ... one bin per second for a year
         final IntegerFieldEditor plotbins = new IntegerFieldEditor(Preferences.PLOT_BINS,
                 Messages.PrefPage_PlotBins, parent);
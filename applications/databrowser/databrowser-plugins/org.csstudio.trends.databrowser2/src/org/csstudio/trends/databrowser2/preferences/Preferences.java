@@ -55,6 +55,9 @@ public class Preferences
             TRACE_TYPE = "trace_type",
             ARCHIVE_FETCH_DELAY = "archive_fetch_delay",
             PLOT_BINS = "plot_bins", URLS = "urls", ARCHIVES = "archives",
+            ARCHIVE_CACHE_SIZE = "archive_cache_mb",
+            ARCHIVE_CACHE_HOLD_BACK = "archive_cache_hold_back",
+            INCREMENTAL_FORMULA = "incremental_formula",
             USE_DEFAULT_ARCHIVES = "use_default_archives",
             PROMPT_FOR_ERRORS = "prompt_for_errors",
             ARCHIVE_RESCALE = "archive_rescale",
@@ -169,6 +172,34 @@ public class Preferences
         return prefs.getInt(Activator.PLUGIN_ID, PLOT_BINS, 800, null);
     }
 
+    /** @return Size of archive data cache in MB, 0 to disable */
+    public static int getArchiveCacheSize()
+    {
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        if (prefs == null)
+            return 0;
+        return prefs.getInt(Activator.PLUGIN_ID, ARCHIVE_CACHE_SIZE, 100, null);
+    }
+
+    /** @return Time range before 'now' that's not cached */
+    public static Duration getArchiveCacheHoldBack()
+    {
+        long seconds = 300;
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        if (prefs != null)
+            seconds = prefs.getLong(Activator.PLUGIN_ID, ARCHIVE_CACHE_HOLD_BACK, seconds, null);
+        return Duration.ofSeconds(seconds);
+    }
+
+    /** @return Compute formulas incrementally? */
+    public static boolean isIncrementalFormula()
+    {
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        if (prefs == null) // Allow some JUnit tests without prefs
+            return true;
+        return prefs.getBoolean(Activator.PLUGIN_ID, INCREMENTAL_FORMULA, true, null);
+    }
+
     public static ArchiveServerURL[] getArchiveServerURLs()
     {
         final IPreferencesService prefs = Platform.getPreferencesService();
@@ -0,0 +1,183 @@
+/*
+ * This software is Copyright by the Board of Trustees of Michigan State University (c) Copyright 2016. Contact
+ * Information: Facility for Rare Isotope Beam Michigan State University East Lansing, MI 48824-1321 http://frib.msu.edu
+ */
+package org.csstudio.saverestore.git;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TimeZone;
+
+import org.csstudio.saverestore.data.Branch;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * <code>GitIndexTest</code> tests the {@link GitIndex}. The unit test creates a repository in the user's temp folder
+ * and verifies that the index contains the correct commits, files and tags and that it is correctly updated and
+ * stored.
+ *
+ * @author <a href="mailto:jaka.bobnar@cosylab.com">Jaka Bobnar</a>
+ */
+public class GitIndexTest {
+
+    private static final String SAVE_SET = "base/BeamlineSets/foo/test.bms";
+    private static final String SNAPSHOT = "base/Snapshots/foo/test.snp";
+    private static final String SNAPSHOT2 = "base/Snapshots/foo/test2.snp";
+
+    private File repositoryPath;
+    private Git git;
+    private long time = ((System.currentTimeMillis() - 3600000L) / 1000L) * 1000L;
+
+    private RevCommit write(String relativePath, String content, String comment, String creator) throws Exception {
+        Path path = new File(repositoryPath, relativePath).toPath();
+        Files.createDirectories(path.getParent());
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        git.add().addFilepattern(relativePath).call();
+        time += 1000;
+        return git.commit().setMessage(comment).setCommitter(
+            new PersonIdent(creator, creator + "@looney.tunes", new Date(time), TimeZone.getTimeZone("GMT"))).call();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        repositoryPath = new File(System.getProperty("java.io.tmpdir"), "I" + (int) (Math.random() * 1000));
+        GitManager.deleteFolder(repositoryPath);
+        git = Git.init().setDirectory(repositoryPath).call();
+        write(SAVE_SET, "save set", "new save set", "bugs bunny");
+        write(SNAPSHOT, "1", "Wabbit Season!", "daffy duck");
+        write(SNAPSHOT, "2", "What's up, doc?", "bugs bunny");
+        write(SNAPSHOT, "3", "sufferin succotash", "sylvester");
+    }
+
+    @After
+    public void tearDown() {
+        git.close();
+        GitManager.deleteFolder(repositoryPath);
+    }
+
+    @Test
+    public void testFindCommits() throws Exception {
+        GitIndex index = GitIndex.load(git.getRepository());
+        GitIndex.BranchEntry branch = index.getBranch(new Branch());
+        assertEquals(4, branch.commits.size());
+        assertTrue(branch.files.contains(SAVE_SET));
+        assertTrue(branch.files.contains(SNAPSHOT));
+
+        List<GitIndex.CommitEntry> commits = branch.findCommitsFor(SNAPSHOT, 0, Optional.empty());
+        assertEquals(3, commits.size());
+        assertEquals("sufferin succotash", commits.get(0).comment);
+        assertEquals("sylvester", commits.get(0).creator);
+        assertEquals("sylvester@looney.tunes", commits.get(0).email);
+        assertEquals(time, commits.get(0).time);
+        assertEquals("Wabbit Season!", commits.get(2).comment);
+
+        commits = branch.findCommitsFor(SNAPSHOT, 2, Optional.empty());
+        assertEquals(2, commits.size());
+        String revision = commits.get(1).revision;
+        commits = branch.findCommitsFor(SNAPSHOT, 2, Optional.of(revision));
+        assertEquals(2, commits.size());
+        assertEquals(revision, commits.get(0).revision);
+        assertEquals("Wabbit Season!", commits.get(1).comment);
+
+        assertTrue(branch.findCommitsFor(SNAPSHOT, 0, Optional.of("unknown")).isEmpty());
+        assertTrue(index.getBranch(new Branch("refs/heads/none", "none")).commits.isEmpty());
+    }
+
+    @Test
+    public void testIncrementalUpdate() throws Exception {
+        GitIndex index = GitIndex.load(git.getRepository());
+        GitIndex.BranchEntry branch = index.getBranch(new Branch());
+        assertSame(branch, index.getBranch(new Branch()));
+
+        RevCommit commit = write(SNAPSHOT2, "1", "What's up, doc?", "bugs bunny");
+        GitIndex.BranchEntry updated = index.getBranch(new Branch());
+        assertEquals(commit.getName(), updated.head);
+        assertEquals(5, updated.commits.size());
+        assertEquals(commit.getName(), updated.commits.get(0).revision);
+        // already indexed commits are reused
+        assertSame(branch.commits.get(0), updated.commits.get(1));
+        assertTrue(updated.files.contains(SNAPSHOT2));
+        assertFalse(branch.files.contains(SNAPSHOT2));
+
+        // rename is indexed, but the commit is not returned as a snapshot revision
+        Files.move(new File(repositoryPath, SNAPSHOT2).toPath(),
+            new File(repositoryPath, "base/Snapshots/foo/test3.snp").toPath());
+        git.rm().addFilepattern(SNAPSHOT2).call();
+        git.add().addFilepattern("base/Snapshots/foo/test3.snp").call();
+        git.commit().setMessage("moved").setCommitter("bugs bunny", "bb@looney.tunes").call();
+        updated = index.getBranch(new Branch());
+        assertTrue(updated.commits.get(0).deleteOrRename);
+        assertFalse(updated.files.contains(SNAPSHOT2));
+        assertTrue(updated.findCommitsFor("base/Snapshots/foo/test3.snp", 0, Optional.empty()).isEmpty());
+    }
+
+    @Test
+    public void testTags() throws Exception {
+        GitIndex index = GitIndex.load(git.getRepository());
+        assertTrue(index.getTags().isEmpty());
+        RevCommit commit = write(SNAPSHOT, "4", "I taught I taw a putty tat.", "tweety");
+        git.tag().setName("(master)base/foo/test(tag)").setMessage("tag message")
+            .setTagger(new PersonIdent("elmer fudd", "UNKNOWN")).setObjectId(commit).call();
+        git.tag().setName("lightweight").setAnnotated(false).setObjectId(commit).call();
+
+        Map<String, GitIndex.TagEntry> tags = index.getTagsByRevision();
+        assertEquals(1, tags.size());
+        GitIndex.TagEntry tag = tags.get(commit.getName());
+        assertNotNull(tag);
+        assertEquals("(master)base/foo/test(tag)", tag.name);
+        assertEquals("tag message", tag.message);
+        assertEquals("elmer fudd", tag.tagger);
+        assertSame(tag, index.getTags().get("(master)base/foo/test(tag)"));
+
+        git.tagDelete().setTags(tag.name).call();
+        assertNull(index.getTagsByRevision().get(commit.getName()));
+    }
+
+    @Test
+    public void testPersistence() throws Exception {
+        GitIndex index = GitIndex.load(git.getRepository());
+        GitIndex.BranchEntry branch = index.getBranch(new Branch());
+        RevCommit commit = write(SNAPSHOT2, "1", "Wabbit Season!", "daffy duck");
+        git.tag().setName("tag").setMessage("message").setObjectId(commit).call();
+        index.update();
+        index.save();
+        File file = new File(git.getRepository().getDirectory(), "saverestore-index");
+        assertTrue(file.exists());
+
+        GitIndex loaded = GitIndex.load(git.getRepository());
+        GitIndex.BranchEntry loadedBranch = loaded.getBranch(new Branch());
+        assertEquals(commit.getName(), loadedBranch.head);
+        assertEquals(branch.commits.size() + 1, loadedBranch.commits.size());
+        assertEquals(index.getBranch(new Branch()).files, loadedBranch.files);
+        GitIndex.CommitEntry entry = loadedBranch.commits.get(0);
+        assertEquals("Wabbit Season!", entry.comment);
+        assertEquals("daffy duck", entry.creator);
+        assertEquals(1, entry.paths.size());
+        assertEquals(SNAPSHOT2, entry.paths.get(0));
+        assertEquals("message", loaded.getTagsByRevision().get(commit.getName()).message);
+
+        // corrupted index is rebuilt
+        Files.write(file.toPath(), new byte[] { 0, 0, 0, 1, 0, 0 });
+        loaded = GitIndex.load(git.getRepository());
+        assertEquals(commit.getName(), loaded.getBranch(new Branch()).head);
+        assertEquals(branch.commits.size() + 1, loaded.getBranch(new Branch()).commits.size());
+    }
+}
@@ -0,0 +1,641 @@
+/*
+ * This software is Copyright by the Board of Trustees of Michigan
+ * State University (c) Copyright 2016.
+ *
+ * Contact Information:
+ *   Facility for Rare Isotope Beam
+ *   Michigan State University
+ *   East Lansing, MI 48824-1321
+ *   http://frib.msu.edu
+ */
+package org.csstudio.saverestore.git;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+import org.csstudio.saverestore.SaveRestoreService;
+import org.csstudio.saverestore.data.Branch;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffEntry.ChangeType;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.diff.RawTextComparator;
+import org.eclipse.jgit.errors.IncorrectObjectTypeException;
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevTag;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.AbstractTreeIterator;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
+
+/**
+ * <code>GitIndex</code> is an index of the commit metadata, changed paths, branch contents and tags of the save and
+ * restore repository. Snapshot listings and searches are answered from the index instead of walking and diffing the
+ * history of the repository on every request.
+ * <p>
+ * The index is updated incrementally. When a branch head moves, only the commits that are not yet indexed are walked
+ * and diffed, and only new or moved tags are parsed. The index is stored in the git directory of the repository, so
+ * that the history does not have to be walked again after a restart.
+ * <p>
+ * The index only reads the git object database and never the working tree, so it can be read by any thread while the
+ * {@link GitManager} is working with the repository. Updates are serialised, but readers are never blocked by them;
+ * each branch entry is an immutable snapshot of the branch state.
+ *
+ * @author <a href="mailto:jaka.bobnar@cosylab.com">Jaka Bobnar</a>
+ */
+final class GitIndex {
+
+    /**
+     * <code>CommitEntry</code> is the indexed information about a single commit.
+     */
+    static final class CommitEntry {
+        final String revision;
+        final long time;
+        final String creator;
+        final String email;
+        final String comment;
+        /** The paths of files added or modified by this commit */
+        final List<String> paths;
+        /** True if this commit deleted or renamed any file */
+        final boolean deleteOrRename;
+
+        CommitEntry(String revision, long time, String creator, String email, String comment, List<String> paths,
+            boolean deleteOrRename) {
+            this.revision = revision;
+            this.time = time;
+            this.creator = creator;
+            this.email = email;
+            this.comment = comment;
+            this.paths = paths;
+            this.deleteOrRename = deleteOrRename;
+        }
+
+        /**
+         * @return the meta info of this commit, same as the one composed from the actual commit
+         */
+        MetaInfo toMetaInfo() {
+            return new MetaInfo(comment, creator, email, new Date(time), revision);
+        }
+    }
+
+    /**
+     * <code>TagEntry</code> is the indexed information about an annotated tag.
+     */
+    static final class TagEntry {
+        final String name;
+        final String objectId;
+        final String revision;
+        final String message;
+        final String tagger;
+
+        TagEntry(String name, String objectId, String revision, String message, String tagger) {
+            this.name = name;
+            this.objectId = objectId;
+            this.revision = revision;
+            this.message = message;
+            this.tagger = tagger;
+        }
+    }
+
+    /**
+     * <code>BranchEntry</code> is an immutable snapshot of the commits and files of a branch.
+     */
+    static final class BranchEntry {
+        final String head;
+        /** All commits reachable from head, newest first */
+        final List<CommitEntry> commits;
+        /** Paths of all files in the head revision */
+        final Set<String> files;
+        private final Map<String, Integer> positions;
+
+        BranchEntry(String head, List<CommitEntry> commits, Set<String> files) {
+            this.head = head;
+            this.commits = Collections.unmodifiableList(commits);
+            this.files = Collections.unmodifiableSet(files);
+            this.positions = new HashMap<>(commits.size() * 2);
+            for (int i = 0; i < commits.size(); i++) {
+                positions.put(commits.get(i).revision, i);
+            }
+        }
+
+        /**
+         * Returns the commits that added or modified the given file, but did not delete or rename any file. If the
+         * requested number is less than 1, all commits are returned.
+         *
+         * @param path the path of the file relative to the repository root
+         * @param numberOfCommits the maximum number of commits to return
+         * @param fromRevision the revision at which to start (inclusive) and then going back
+         * @return the list of commits, newest first, or empty if the start revision is not on this branch
+         */
+        List<CommitEntry> findCommitsFor(String path, int numberOfCommits, Optional<String> fromRevision) {
+            int start = 0;
+            if (fromRevision.isPresent()) {
+                Integer pos = positions.get(fromRevision.get());
+                if (pos == null) {
+                    return new ArrayList<>(0);
+                }
+                start = pos;
+            }
+            List<CommitEntry> ret = new ArrayList<>();
+            for (int i = start; i < commits.size(); i++) {
+                CommitEntry commit = commits.get(i);
+                if (!commit.deleteOrRename && commit.paths.contains(path)) {
+                    ret.add(commit);
+                    if (numberOfCommits > 0 && ret.size() == numberOfCommits) {
+                        break;
+                    }
+                }
+            }
+            return ret;
+        }
+    }
+
+    private static final String INDEX_FILE = "saverestore-index";
+    private static final int FORMAT_VERSION = 1;
+
+    private final Repository repository;
+    private final File file;
+    private final Map<String, CommitEntry> commits = new ConcurrentHashMap<>();
+    private final Map<String, BranchEntry> branches = new ConcurrentHashMap<>();
+    private volatile Map<String, TagEntry> tags = Collections.emptyMap();
+    private volatile Map<String, TagEntry> tagsByRevision = Collections.emptyMap();
+    private boolean dirty = false;
+
+    /**
+     * Constructs a new empty index for the given repository.
+     *
+     * @param repository the repository to index
+     */
+    private GitIndex(Repository repository) {
+        this.repository = repository;
+        this.file = new File(repository.getDirectory(), INDEX_FILE);
+    }
+
+    /**
+     * Load the index stored in the git directory of the repository. If there is no stored index or it cannot be read,
+     * an empty index is returned, which is built on first use.
+     *
+     * @param repository the repository
+     * @return the index
+     */
+    static GitIndex load(Repository repository) {
+        GitIndex index = new GitIndex(repository);
+        if (index.file.exists()) {
+            try {
+                index.read();
+            } catch (IOException | RuntimeException e) {
+                SaveRestoreService.LOGGER.log(Level.WARNING, e,
+                    () -> String.format("Save and restore index %s could not be read. It will be rebuilt.",
+                        index.file));
+                index.commits.clear();
+                index.branches.clear();
+                index.tags = Collections.emptyMap();
+                index.tagsByRevision = Collections.emptyMap();
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the up to date index of the given branch. The local branch is used if it exists, otherwise the branch
+     * full name is resolved (e.g. remote branch, which has not been checked out yet).
+     *
+     * @param branch the branch
+     * @return the branch index, which is empty if the branch does not exist
+     * @throws IOException in case of an error reading the repository
+     */
+    BranchEntry getBranch(Branch branch) throws IOException {
+        String refName = Constants.R_HEADS + branch.getShortName();
+        if (repository.resolve(refName) == null) {
+            refName = branch.getFullName();
+        }
+        return getBranch(refName);
+    }
+
+    /**
+     * Returns the up to date index of the branch with the given ref name.
+     *
+     * @param refName the name of the branch ref
+     * @return the branch index, which is empty if the branch does not exist
+     * @throws IOException in case of an error reading the repository
+     */
+    BranchEntry getBranch(String refName) throws IOException {
+        ObjectId head = repository.resolve(refName);
+        BranchEntry entry = branches.get(refName);
+        if (head == null && entry == null) {
+            return new BranchEntry("", new ArrayList<>(0), new HashSet<>(0));
+        }
+        if (head != null && entry != null && entry.head.equals(head.getName())) {
+            return entry;
+        }
+        return updateBranch(refName);
+    }
+
+    /**
+     * Returns the indexed commit for the given revision. If the commit has not been indexed yet (e.g. it is not on any
+     * indexed branch), it is read and indexed.
+     *
+     * @param revision the revision hash
+     * @return the commit entry
+     * @throws IOException in case of an error reading the commit
+     */
+    CommitEntry getCommit(String revision) throws IOException {
+        CommitEntry entry = commits.get(revision);
+        if (entry != null) {
+            return entry;
+        }
+        synchronized (this) {
+            try (RevWalk walk = new RevWalk(repository); ObjectReader reader = repository.newObjectReader();
+                DiffFormatter formatter = createFormatter()) {
+                entry = createEntry(walk.parseCommit(ObjectId.fromString(revision)), walk, reader, formatter);
+            }
+            commits.put(revision, entry);
+            dirty = true;
+            return entry;
+        }
+    }
+
+    /**
+     * Returns the annotated tags in the repository, mapped by the revision of the tagged commit.
+     *
+     * @return the up to date map of tags
+     * @throws IOException in case of an error reading the tags
+     */
+    Map<String, TagEntry> getTagsByRevision() throws IOException {
+        updateTags();
+        return tagsByRevision;
+    }
+
+    /**
+     * Returns the annotated tags in the repository, mapped by the tag name.
+     *
+     * @return the up to date map of tags
+     * @throws IOException in case of an error reading the tags
+     */
+    Map<String, TagEntry> getTags() throws IOException {
+        updateTags();
+        return tags;
+    }
+
+    /**
+     * Update the index of all branches that have already been indexed and of the tags. This method should be called
+     * after each change of the repository (commit, pull, tag).
+     *
+     * @throws IOException in case of an error reading the repository
+     */
+    synchronized void update() throws IOException {
+        for (String refName : new ArrayList<>(branches.keySet())) {
+            getBranch(refName);
+        }
+        updateTags();
+    }
+
+    /**
+     * Store the index into the git directory if it has been modified since it was last stored.
+     */
+    synchronized void save() {
+        if (!dirty) {
+            return;
+        }
+        try {
+            write();
+            dirty = false;
+        } catch (IOException e) {
+            SaveRestoreService.LOGGER.log(Level.WARNING, e,
+                () -> String.format("Save and restore index %s could not be stored.", file));
+        }
+    }
+
+    /**
+     * Bring the index of the branch up to date. If the previously indexed head is an ancestor of the current head, only
+     * the new commits are walked, otherwise the branch is indexed from scratch (already indexed commits are not diffed
+     * again).
+     *
+     * @param refName the name of the branch ref
+     * @return the updated branch index
+     * @throws IOException in case of an error reading the repository
+     */
+    private synchronized BranchEntry updateBranch(String refName) throws IOException {
+        ObjectId headId = repository.resolve(refName);
+        BranchEntry old = branches.get(refName);
+        if (headId == null) {
+            // branch was deleted
+            if (branches.remove(refName) != null) {
+                dirty = true;
+            }
+            return new BranchEntry("", new ArrayList<>(0), new HashSet<>(0));
+        } else if (old != null && old.head.equals(headId.getName())) {
+            return old;
+        }
+        List<CommitEntry> list = new ArrayList<>();
+        Set<String> files = new HashSet<>();
+        try (RevWalk walk = new RevWalk(repository); ObjectReader reader = repository.newObjectReader();
+            DiffFormatter formatter = createFormatter()) {
+            RevCommit head = walk.parseCommit(headId);
+            RevCommit oldHead = null;
+            if (old != null) {
+                try {
+                    oldHead = walk.parseCommit(ObjectId.fromString(old.head));
+                    if (!walk.isMergedInto(oldHead, head)) {
+                        oldHead = null;
+                    }
+                } catch (MissingObjectException e) {
+                    // history was rewritten and the old head is gone
+                    oldHead = null;
+                }
+                walk.reset();
+            }
+            walk.markStart(head);
+            if (oldHead != null) {
+                walk.markUninteresting(oldHead);
+            }
+            for (RevCommit commit : walk) {
+                CommitEntry entry = commits.get(commit.getName());
+                if (entry == null) {
+                    entry = createEntry(commit, walk, reader, formatter);
+                    commits.put(entry.revision, entry);
+                }
+                list.add(entry);
+            }
+            if (oldHead != null) {
+                list.addAll(old.commits);
+            }
+            try (TreeWalk treeWalk = new TreeWalk(reader)) {
+                treeWalk.addTree(head.getTree());
+                treeWalk.setRecursive(true);
+                while (treeWalk.next()) {
+                    files.add(treeWalk.getPathString());
+                }
+            }
+        }
+        // stable sort, newest first; commits with equal time remain in the walk order
+        list.sort((a, b) -> Long.compare(b.time, a.time));
+        BranchEntry entry = new BranchEntry(headId.getName(), list, files);
+        branches.put(refName, entry);
+        dirty = true;
+        return entry;
+    }
+
+    /**
+     * Bring the tags up to date. Only the tags that are new or have been moved are parsed.
+     *
+     * @throws IOException in case of an error reading the tags
+     */
+    private synchronized void updateTags() throws IOException {
+        Map<String, Ref> refs = repository.getTags();
+        Map<String, TagEntry> oldTags = tags;
+        if (refs.size() == oldTags.size()) {
+            boolean same = true;
+            for (Map.Entry<String, Ref> ref : refs.entrySet()) {
+                TagEntry tag = oldTags.get(ref.getKey());
+                if (tag == null || !tag.objectId.equals(ref.getValue().getObjectId().getName())) {
+                    same = false;
+                    break;
+                }
+            }
+            if (same) {
+                return;
+            }
+        }
+        Map<String, TagEntry> newTags = new HashMap<>(refs.size() * 2);
+        Map<String, TagEntry> newTagsByRevision = new HashMap<>(refs.size() * 2);
+        try (RevWalk walk = new RevWalk(repository)) {
+            for (Map.Entry<String, Ref> ref : refs.entrySet()) {
+                String objectId = ref.getValue().getObjectId().getName();
+                TagEntry tag = oldTags.get(ref.getKey());
+                if (tag == null || !tag.objectId.equals(objectId)) {
+                    try {
+                        RevTag revTag = walk.parseTag(ref.getValue().getObjectId());
+                        PersonIdent tagger = revTag.getTaggerIdent();
+                        tag = new TagEntry(revTag.getTagName(), objectId, revTag.getObject().getId().getName(),
+                            revTag.getFullMessage(), tagger == null ? null : tagger.getName());
+                    } catch (IncorrectObjectTypeException e) {
+                        // lightweight tags are not created by save and restore
+                        continue;
+                    }
+                }
+                newTags.put(ref.getKey(), tag);
+                TagEntry existing = newTagsByRevision.get(tag.revision);
+                if (existing == null || existing.name.compareTo(tag.name) > 0) {
+                    newTagsByRevision.put(tag.revision, tag);
+                }
+            }
+        }
+        tags = Collections.unmodifiableMap(newTags);
+        tagsByRevision = Collections.unmodifiableMap(newTagsByRevision);
+        dirty = true;
+    }
+
+    private DiffFormatter createFormatter() {
+        DiffFormatter formatter = new DiffFormatter(DisabledOutputStream.INSTANCE);
+        formatter.setRepository(repository);
+        formatter.setDiffComparator(RawTextComparator.DEFAULT);
+        formatter.setDetectRenames(true);
+        return formatter;
+    }
+
+    /**
+     * Create the index entry for the commit. Paths are the files added or modified compared to the first parent. For
+     * merge commits only the files that differ from all parents are taken, so that a merge does not repeat the changes
+     * of the merged commits (same as the history simplification of a git log for a path).
+     *
+     * @param commit the commit to index
+     * @param walk the walk used to parse the parents
+     * @param reader the reader used to read the trees
+     * @param formatter the formatter used to diff the trees
+     * @return the commit entry
+     * @throws IOException in case of an error reading the commit
+     */
+    private static CommitEntry createEntry(RevCommit commit, RevWalk walk, ObjectReader reader,
+        DiffFormatter formatter) throws IOException {
+        boolean deleteOrRename = false;
+        Set<String> paths = null;
+        int parents = commit.getParentCount();
+        for (int i = 0; i < Math.max(1, parents); i++) {
+            AbstractTreeIterator oldTreeIterator = new EmptyTreeIterator();
+            if (parents != 0) {
+                RevCommit parent = walk.parseCommit(commit.getParent(i).getId());
+                oldTreeIterator = new CanonicalTreeParser(null, reader, parent.getTree());
+            }
+            AbstractTreeIterator newTreeIterator = new CanonicalTreeParser(null, reader, commit.getTree());
+            Set<String> changed = new LinkedHashSet<>();
+            for (DiffEntry diff : formatter.scan(oldTreeIterator, newTreeIterator)) {
+                if (diff.getChangeType() == ChangeType.DELETE || diff.getChangeType() == ChangeType.RENAME) {
+                    if (i == 0) {
+                        deleteOrRename = true;
+                    }
+                } else {
+                    changed.add(diff.getNewPath());
+                }
+            }
+            if (paths == null) {
+                paths = changed;
+            } else {
+                paths.retainAll(changed);
+            }
+        }
+        PersonIdent ident = commit.getCommitterIdent();
+        return new CommitEntry(commit.getName(), ident.getWhen().getTime(), ident.getName(), ident.getEmailAddress(),
+            commit.getFullMessage(), Collections.unmodifiableList(new ArrayList<>(paths)), deleteOrRename);
+    }
+
+    // --------------------------------------------------------------------------------------------------
+    //
+    // Persistence.
+    //
+    // --------------------------------------------------------------------------------------------------
+
+    private void write() throws IOException {
+        File tmp = new File(file.getParentFile(), INDEX_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(tmp.toPath())))) {
+            out.writeInt(FORMAT_VERSION);
+            Collection<CommitEntry> allCommits = new ArrayList<>(commits.values());
+            out.writeInt(allCommits.size());
+            for (CommitEntry commit : allCommits) {
+                writeString(out, commit.revision);
+                out.writeLong(commit.time);
+                writeString(out, commit.creator);
+                writeString(out, commit.email);
+                writeString(out, commit.comment);
+                out.writeBoolean(commit.deleteOrRename);
+                writeStrings(out, commit.paths);
+            }
+            Map<String, BranchEntry> allBranches = new HashMap<>(branches);
+            out.writeInt(allBranches.size());
+            for (Map.Entry<String, BranchEntry> branch : allBranches.entrySet()) {
+                writeString(out, branch.getKey());
+                writeString(out, branch.getValue().head);
+                List<String> revisions = new ArrayList<>(branch.getValue().commits.size());
+                branch.getValue().commits.forEach(c -> revisions.add(c.revision));
+                writeStrings(out, revisions);
+                writeStrings(out, branch.getValue().files);
+            }
+            Map<String, TagEntry> allTags = tags;
+            out.writeInt(allTags.size());
+            for (Map.Entry<String, TagEntry> tag : allTags.entrySet()) {
+                writeString(out, tag.getKey());
+                writeString(out, tag.getValue().name);
+                writeString(out, tag.getValue().objectId);
+                writeString(out, tag.getValue().revision);
+                writeString(out, tag.getValue().message);
+                writeString(out, tag.getValue().tagger);
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void read() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unknown index format " + version);
+            }
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                String revision = readString(in);
+                long time = in.readLong();
+                String creator = readString(in);
+                String email = readString(in);
+                String comment = readString(in);
+                boolean deleteOrRename = in.readBoolean();
+                List<String> paths = Collections.unmodifiableList(readStrings(in));
+                commits.put(revision, new CommitEntry(revision, time, creator, email, comment, paths, deleteOrRename));
+            }
+            n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                String refName = readString(in);
+                String head = readString(in);
+                List<String> revisions = readStrings(in);
+                List<CommitEntry> list = new ArrayList<>(revisions.size());
+                for (String revision : revisions) {
+                    CommitEntry commit = commits.get(revision);
+                    if (commit == null) {
+                        throw new IOException("Index of branch " + refName + " is incomplete.");
+                    }
+                    list.add(commit);
+                }
+                branches.put(refName, new BranchEntry(head, list, new HashSet<>(readStrings(in))));
+            }
+            n = in.readInt();
+            Map<String, TagEntry> newTags = new HashMap<>(n * 2);
+            Map<String, TagEntry> newTagsByRevision = new HashMap<>(n * 2);
+            for (int i = 0; i < n; i++) {
+                String key = readString(in);
+                TagEntry tag = new TagEntry(readString(in), readString(in), readString(in), readString(in),
+                    readString(in));
+                newTags.put(key, tag);
+                TagEntry existing = newTagsByRevision.get(tag.revision);
+                if (existing == null || existing.name.compareTo(tag.name) > 0) {
+                    newTagsByRevision.put(tag.revision, tag);
+                }
+            }
+            tags = Collections.unmodifiableMap(newTags);
+            tagsByRevision = Collections.unmodifiableMap(newTagsByRevision);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeStrings(DataOutputStream out, Collection<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        List<String> values = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+}
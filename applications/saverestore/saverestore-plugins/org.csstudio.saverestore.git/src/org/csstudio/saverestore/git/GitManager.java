@@ -32,7 +32,9 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.TimeZone;
+import java.util.function.BiPredicate;
 import java.util.logging.Level;
 import java.util.regex.Pattern;
 
@@ -55,15 +57,10 @@ import org.eclipse.jgit.api.CommitCommand;
 import org.eclipse.jgit.api.CreateBranchCommand.SetupUpstreamMode;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.ListBranchCommand.ListMode;
-import org.eclipse.jgit.api.LogCommand;
 import org.eclipse.jgit.api.PullResult;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.api.errors.RefNotFoundException;
 import org.eclipse.jgit.api.errors.TransportException;
-import org.eclipse.jgit.diff.DiffEntry;
-import org.eclipse.jgit.diff.DiffFormatter;
-import org.eclipse.jgit.diff.RawTextComparator;
-import org.eclipse.jgit.errors.StopWalkException;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.ObjectLoader;
@@ -74,23 +71,14 @@ import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.lib.StoredConfig;
 import org.eclipse.jgit.merge.MergeStrategy;
 import org.eclipse.jgit.revwalk.RevCommit;
-import org.eclipse.jgit.revwalk.RevTag;
 import org.eclipse.jgit.revwalk.RevWalk;
-import org.eclipse.jgit.revwalk.filter.AndRevFilter;
-import org.eclipse.jgit.revwalk.filter.CommitTimeRevFilter;
-import org.eclipse.jgit.revwalk.filter.CommitterRevFilter;
-import org.eclipse.jgit.revwalk.filter.MessageRevFilter;
-import org.eclipse.jgit.revwalk.filter.OrRevFilter;
-import org.eclipse.jgit.revwalk.filter.RevFilter;
 import org.eclipse.jgit.transport.FetchResult;
 import org.eclipse.jgit.transport.RefSpec;
 import org.eclipse.jgit.transport.TagOpt;
 import org.eclipse.jgit.treewalk.AbstractTreeIterator;
 import org.eclipse.jgit.treewalk.CanonicalTreeParser;
-import org.eclipse.jgit.treewalk.EmptyTreeIterator;
 import org.eclipse.jgit.treewalk.TreeWalk;
 import org.eclipse.jgit.treewalk.filter.PathFilter;
-import org.eclipse.jgit.util.io.DisabledOutputStream;
 
 /**
  * <code>GitManager<code> provide access to the git features required by the save and restore application.
@@ -99,11 +87,6 @@ import org.eclipse.jgit.util.io.DisabledOutputStream;
  */
 public class GitManager {
 
-    @FunctionalInterface
-    private static interface TriFunction<A, B, C, R> {
-        R apply(A a, B b, C c) throws IOException, GitAPIException;
-    }
-
     private static final String GIT_PATH_DELIMITER = "/";
     // tags of git specific parameters for the snapshot
     private static final String PARAM_GIT_REVISION = "gitRevision";
@@ -122,6 +105,7 @@ public class GitManager {
     private File repositoryPath;
     private boolean automatic = true;
     private boolean localOnly = false;
+    private volatile GitIndex index;
 
     @SuppressWarnings("unchecked")
     private static final List<String> EMPTY_LIST = Collections.EMPTY_LIST;
@@ -188,6 +172,10 @@ public class GitManager {
      */
     public synchronized void dispose() {
         try {
+            if (index != null) {
+                index.save();
+                index = null;
+            }
             if (repository != null) {
                 repository.close();
                 repository = null;
@@ -225,11 +213,58 @@ public class GitManager {
      * @throws GitAPIException in case of an error
      */
     public synchronized boolean initialise(URI remoteRepository, File destinationDirectory) throws GitAPIException {
-        if (!internalInitialise(remoteRepository, destinationDirectory)) {
+        boolean initialised = internalInitialise(remoteRepository, destinationDirectory);
+        if (!initialised) {
             deleteFolder(destinationDirectory);
-            return internalInitialise(remoteRepository, destinationDirectory);
+            initialised = internalInitialise(remoteRepository, destinationDirectory);
         }
-        return true;
+        if (initialised && repository != null) {
+            initialiseIndex();
+        }
+        return initialised;
+    }
+
+    /**
+     * Load the stored index of the repository and bring it up to date with the current state of the repository.
+     */
+    private synchronized void initialiseIndex() {
+        GitIndex idx = GitIndex.load(repository);
+        try {
+            idx.getBranch(new Branch());
+            idx.update();
+        } catch (IOException e) {
+            SaveRestoreService.LOGGER.log(Level.WARNING, "Save and restore index could not be updated.", e);
+        }
+        idx.save();
+        index = idx;
+    }
+
+    /**
+     * Update the index after the repository has changed (commit, pull, tag).
+     */
+    private void updateIndex() {
+        GitIndex idx = index;
+        if (idx != null) {
+            try {
+                idx.update();
+            } catch (IOException e) {
+                SaveRestoreService.LOGGER.log(Level.WARNING, "Save and restore index could not be updated.", e);
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the repository. The index can be used without holding the lock of this manager.
+     *
+     * @return the index
+     * @throws IllegalStateException if the manager has not been initialised
+     */
+    private GitIndex getIndex() throws IllegalStateException {
+        GitIndex idx = index;
+        if (idx == null) {
+            throw new IllegalStateException("Git has not been initialised.");
+        }
+        return idx;
     }
 
     private synchronized boolean internalInitialise(URI remoteRepository, File destinationDirectory)
@@ -576,7 +611,8 @@ public class GitManager {
     }
 
     /**
-     * Returns the list of all snapshots for the given save set.
+     * Returns the list of all snapshots for the given save set. The snapshots are read from the index and the call
+     * does not block other actions on the repository.
      *
      * @param saveSet the save set for which the snapshots are requested
      * @param numberOfRevisions the maximum number of snapshot revisions to load
@@ -585,9 +621,9 @@ public class GitManager {
      * @throws IOException if the commits could not be read
      * @throws GitAPIException if the commits could not be read
      */
-    public synchronized List<Snapshot> getSnapshots(SaveSet saveSet, int numberOfRevisions,
-        Optional<Snapshot> fromThisOneBack) throws IOException, GitAPIException {
-        setBranch(saveSet.getBranch());
+    public List<Snapshot> getSnapshots(SaveSet saveSet, int numberOfRevisions, Optional<Snapshot> fromThisOneBack)
+        throws IOException, GitAPIException {
+        GitIndex idx = getIndex();
         List<Snapshot> snapshots = new ArrayList<>();
 
         String path = convertPathToString(saveSet, FileType.SNAPSHOT);
@@ -595,16 +631,20 @@ public class GitManager {
         path = path.replace(FileType.SAVE_SET.suffix, FileType.SNAPSHOT.suffix);
 
         String rev = fromThisOneBack.isPresent() ? fromThisOneBack.get().getParameters().get(PARAM_GIT_REVISION) : null;
-        List<RevCommit> fileRevisions = findCommitsFor(path, numberOfRevisions, Optional.ofNullable(rev));
-        Map<String, RevTag> tags = loadTagsForRevisions(fileRevisions);
+        // in case we are not going from the head, increase the number of revisions by one, because we
+        // don't need to first revision, which is already the same as fromThisOneBack
+        int num = rev != null && numberOfRevisions > 0 ? numberOfRevisions + 1 : numberOfRevisions;
+        List<GitIndex.CommitEntry> fileRevisions = idx.getBranch(saveSet.getBranch()).findCommitsFor(path, num,
+            Optional.ofNullable(rev));
+        Map<String, GitIndex.TagEntry> tags = idx.getTagsByRevision();
         String branch = saveSet.getBranch().getShortName();
-        for (RevCommit commit : fileRevisions) {
-            String revision = commit.getName();
+        for (GitIndex.CommitEntry commit : fileRevisions) {
+            String revision = commit.revision;
             if (rev != null && rev.equals(revision)) {
                 // do not return the revision that the client already knows
                 continue;
             }
-            MetaInfo meta = getMetaInfoFromCommit(commit);
+            MetaInfo meta = commit.toMetaInfo();
             Map<String, String> parameters = new HashMap<>();
             parameters.put(PARAM_GIT_REVISION, revision);
             insertTagData(tags.get(revision), parameters, revision, branch);
@@ -802,6 +842,7 @@ public class GitManager {
     public synchronized Branch createBranch(Branch oldBranch, String branch) throws GitAPIException, IOException {
         setBranch(oldBranch);
         git.branchCreate().setName(branch).call();
+        updateIndex();
         return new Branch(branch, branch);
     }
 
@@ -839,12 +880,12 @@ public class GitManager {
                 // remove the existing tag
                 String revision = snapshot.getParameters().get(PARAM_GIT_REVISION);
                 RevCommit commit = getCommitFromRevision(revision);
-                RevTag existingTag = loadTagsForRevisions(Arrays.asList(commit)).get(revision);
+                GitIndex.TagEntry existingTag = getIndex().getTagsByRevision().get(revision);
                 if (existingTag != null) {
-                    git.tagDelete().setTags(existingTag.getTagName()).call();
+                    git.tagDelete().setTags(existingTag.name).call();
                     if (!localOnly) {
                         RefSpec refSpec = new RefSpec().setSource(null)
-                            .setDestination("refs/tags/" + existingTag.getTagName());
+                            .setDestination("refs/tags/" + existingTag.name);
                         git.push().setCredentialsProvider(toCredentialsProvider(cp)).setRefSpecs(refSpec).call();
                     }
                 }
@@ -866,6 +907,7 @@ public class GitManager {
                     tagName = name;
                     tagMessage = message;
                 }
+                updateIndex();
                 snp = new Snapshot(snapshot.getSaveSet(), snapshot.getDate(), snapshot.getComment(),
                     snapshot.getOwner(), tagName, tagMessage, parameters, EMPTY_LIST);
             }
@@ -873,31 +915,6 @@ public class GitManager {
         return new Result<>(snp, change);
     }
 
-    /**
-     * Load the tags for the list of revisions provided as parameter. The tags are returned in a map, where the key is
-     * the revision name and the value is the actual tag object.
-     *
-     * @param revisions the list of revisions for which to load the tags
-     * @return the map of all revision and tags pairs
-     * @throws GitAPIException if there was an error loading the tags
-     * @throws IOException in case of an IO error
-     */
-    private Map<String, RevTag> loadTagsForRevisions(List<RevCommit> revisions) throws GitAPIException, IOException {
-        Map<String, Ref> tags = repository.getTags();
-        Map<String, RevTag> ret = new HashMap<>();
-        try (RevWalk walk = new RevWalk(repository)) {
-            for (RevCommit rev : revisions) {
-                String s = Git.wrap(repository).describe().setTarget(rev).call();
-                Ref tt = tags.get(s);
-                if (tt != null) {
-                    RevTag t = walk.parseTag(tt.getObjectId());
-                    ret.put(rev.getName(), t);
-                }
-            }
-        }
-        return ret;
-    }
-
     /**
      * Commit the file stored under the relative path.
      *
@@ -921,6 +938,7 @@ public class GitManager {
                 new PersonIdent(metaInfo.creator, metaInfo.eMail, metaInfo.timestamp, TimeZone.getTimeZone("GMT")));
         }
         RevCommit commit = command.call();
+        updateIndex();
         return getMetaInfoFromCommit(commit);
     }
 
@@ -999,6 +1017,13 @@ public class GitManager {
                     .setStrategy(MergeStrategy.THEIRS).call();
                 boolean changed = !fetch.getTrackingRefUpdates().isEmpty()
                     || !pull.getFetchResult().getTrackingRefUpdates().isEmpty();
+                if (changed) {
+                    updateIndex();
+                    GitIndex idx = index;
+                    if (idx != null) {
+                        idx.save();
+                    }
+                }
                 return new Object[] { cred, changed };
             } catch (TransportException e) {
                 if (isNotAuthorised(e)) {
@@ -1040,62 +1065,6 @@ public class GitManager {
         }
     }
 
-    /**
-     * Retrieves the specified number of revisions of the given file. If the requested number is less than 1, all
-     * revisions are returned.
-     *
-     * @param filePath file path
-     * @param numberOfSnapshots number of snapshots revisions to load
-     * @param fromRevisionBack the revision at which to start
-     *
-     * @return all revisions of the given file.
-     */
-    private List<RevCommit> findCommitsFor(String filePath, int numberOfsnapshots, Optional<String> fromRevisionBack)
-        throws GitAPIException, IOException {
-        List<RevCommit> commitsList = new ArrayList<>();
-        ObjectId obj = fromRevisionBack.isPresent() ? ObjectId.fromString(fromRevisionBack.get())
-            : repository.resolve(Constants.HEAD);
-        LogCommand log = git.log().add(obj).addPath(filePath);
-        if (numberOfsnapshots > 0) {
-            // in case we are not going from the head, increase the number of logs by one, because we
-            // don't need to first revision, which is already the same as fromRevisionBack
-            int num = fromRevisionBack.isPresent() ? numberOfsnapshots + 1 : numberOfsnapshots;
-            log.setMaxCount(num);
-        }
-        Iterable<RevCommit> commits = log.call();
-        // in theory diff is not needed here if everybody only used the Save and Restore application on this repository
-        // however, if someone manually changed the path to a file there can be an issue. Doing a diff increases the
-        // search time for ~70%
-        try (RevWalk revWalk = new RevWalk(repository); ObjectReader objectReader = repository.newObjectReader()) {
-            for (RevCommit commit : commits) {
-                boolean renamed = false;
-                AbstractTreeIterator oldTreeIterator = new EmptyTreeIterator();
-                if (commit.getParents().length != 0) {
-                    RevCommit parentCommit = revWalk.parseCommit(commit.getParents()[0].getId());
-                    oldTreeIterator = new CanonicalTreeParser(null, objectReader, parentCommit.getTree());
-                }
-                AbstractTreeIterator newTreeIterator = new CanonicalTreeParser(null, objectReader, commit.getTree());
-                try (DiffFormatter diffFormatter = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
-                    diffFormatter.setRepository(repository);
-                    diffFormatter.setDiffComparator(RawTextComparator.DEFAULT);
-                    diffFormatter.setDetectRenames(true);
-                    List<DiffEntry> diffs = diffFormatter.scan(oldTreeIterator, newTreeIterator);
-                    for (DiffEntry diff : diffs) {
-                        if (diff.getChangeType() == org.eclipse.jgit.diff.DiffEntry.ChangeType.DELETE
-                            || diff.getChangeType() == org.eclipse.jgit.diff.DiffEntry.ChangeType.RENAME) {
-                            renamed = true;
-                            break;
-                        }
-                    }
-                }
-                if (!renamed) {
-                    commitsList.add(commit);
-                }
-            }
-        }
-        return commitsList;
-    }
-
     /**
      * Find all snapshots that are tagged and their tag name or message matches the given partial name or message. The
      * partial name or message can also be a regular expression.
@@ -1108,17 +1077,16 @@ public class GitManager {
      * @throws GitAPIException in case of a git error
      * @throws IOException in case of an IO error
      */
-    public synchronized List<Snapshot> findSnapshotsByTag(String partialTagNameOrMessage, Branch branch,
-        Optional<Date> start, Optional<Date> end) throws GitAPIException, IOException {
+    public List<Snapshot> findSnapshotsByTag(String partialTagNameOrMessage, Branch branch, Optional<Date> start,
+        Optional<Date> end) throws GitAPIException, IOException {
         final Pattern pattern = Pattern.compile(".*" + partialTagNameOrMessage.toLowerCase(Locale.UK) + ".*");
-        return findSnapshotsByTag(branch, start, end, (w, r, n) -> {
+        return findSnapshotsByTag(branch, start, end, (t, n) -> {
             String tagName = n.substring(n.indexOf('(') + 1, n.length() - 1).toLowerCase(Locale.UK);
             if (pattern.matcher(tagName).matches()) {
-                return w.parseTag(r.getObjectId());
+                return true;
             } else {
-                RevTag tag = w.parseTag(r.getObjectId());
-                String message = tag.getFullMessage().toLowerCase(Locale.UK).replace("\n", " ");
-                return pattern.matcher(message).matches() ? tag : null;
+                String message = t.message.toLowerCase(Locale.UK).replace("\n", " ");
+                return pattern.matcher(message).matches();
             }
         });
     }
@@ -1135,13 +1103,12 @@ public class GitManager {
      * @throws GitAPIException in case of a git error
      * @throws IOException in case of an IO error
      */
-    public synchronized List<Snapshot> findSnapshotsByTagMessage(String partialMessage, Branch branch,
-        Optional<Date> start, Optional<Date> end) throws GitAPIException, IOException {
+    public List<Snapshot> findSnapshotsByTagMessage(String partialMessage, Branch branch, Optional<Date> start,
+        Optional<Date> end) throws GitAPIException, IOException {
         final Pattern pattern = Pattern.compile(".*" + partialMessage.toLowerCase(Locale.UK) + ".*");
-        return findSnapshotsByTag(branch, start, end, (w, r, n) -> {
-            RevTag tag = w.parseTag(r.getObjectId());
-            String message = tag.getFullMessage().toLowerCase().replace("\n", " ");
-            return pattern.matcher(message).matches() ? tag : null;
+        return findSnapshotsByTag(branch, start, end, (t, n) -> {
+            String message = t.message.toLowerCase().replace("\n", " ");
+            return pattern.matcher(message).matches();
         });
     }
 
@@ -1157,107 +1124,81 @@ public class GitManager {
      * @throws GitAPIException in case of a git error
      * @throws IOException in case of an IO error
      */
-    public synchronized List<Snapshot> findSnapshotsByTagName(String partialTagName, Branch branch,
-        Optional<Date> start, Optional<Date> end) throws GitAPIException, IOException {
+    public List<Snapshot> findSnapshotsByTagName(String partialTagName, Branch branch, Optional<Date> start,
+        Optional<Date> end) throws GitAPIException, IOException {
         final Pattern pattern = Pattern.compile(".*" + partialTagName.toLowerCase(Locale.UK) + ".*");
-        return findSnapshotsByTag(branch, start, end, (w, r, n) -> {
+        return findSnapshotsByTag(branch, start, end, (t, n) -> {
             String tagName = n.substring(n.indexOf('(') + 1, n.length() - 1).toLowerCase();
-            return pattern.matcher(tagName).matches() ? w.parseTag(r.getObjectId()) : null;
+            return pattern.matcher(tagName).matches();
         });
     }
 
     /**
-     * Find all snapshots that are tagged and can be matched by the given trifunction.
+     * Find all snapshots that are tagged and can be matched by the given predicate. The tags and commits are read from
+     * the index.
      *
      * @param branch the name of the branch on which the snapshot should be located
      * @param start only commits done after start will be accepted
      * @param end only commits done before end will be accepted
-     * @param f function that receives the revision walk, the tag reference, the nice tag name and returns the actual
-     *            revision tag if the tag is accepted or null if rejected
+     * @param f predicate that receives the tag and the nice tag name and returns true if the tag is accepted
      * @return the list of all snapshots that match criterion
      * @throws GitAPIException in case of a Git related error
      * @throws IOException in case of an IO error
      */
     private List<Snapshot> findSnapshotsByTag(Branch branch, Optional<Date> start, Optional<Date> end,
-        TriFunction<RevWalk, Ref, String, RevTag> f) throws GitAPIException, IOException {
-        setBranch(branch);
+        BiPredicate<GitIndex.TagEntry, String> f) throws GitAPIException, IOException {
+        GitIndex idx = getIndex();
+        Set<String> files = idx.getBranch(branch).files;
         List<Snapshot> snapshots = new ArrayList<>();
-        Map<String, Ref> tags = repository.getTags();
         String branchName = new StringBuilder(branch.getShortName().length() + 2).append('(')
             .append(branch.getShortName()).append(')').toString();
-        try (RevWalk walk = new RevWalk(repository); ObjectReader objectReader = repository.newObjectReader()) {
-            RevFilter timeFilter = null;
-            if (start.isPresent() && end.isPresent()) {
-                timeFilter = CommitTimeRevFilter.between(start.get(), end.get());
-            } else if (start.isPresent()) {
-                timeFilter = CommitTimeRevFilter.after(start.get());
-            } else if (end.isPresent()) {
-                timeFilter = CommitTimeRevFilter.before(end.get());
-            }
-            for (Map.Entry<String, Ref> r : tags.entrySet()) {
-                String name = r.getKey();
-                // check if the tag branch name is correct
-                if (name.charAt(0) == '(') {
-                    if (name.startsWith(branchName)) {
-                        name = name.substring(name.indexOf(')') + 1);
-                    } else {
-                        continue;
-                    }
-                }
-                RevTag tag = f.apply(walk, r.getValue(), name);
-                if (tag != null) {
-                    String revision = tag.getObject().getId().getName();
-                    RevCommit commit = getCommitFromRevision(revision);
-                    if (timeFilter != null) {
-                        try {
-                            if (!timeFilter.include(walk, commit)) {
-                                continue;
-                            }
-                        } catch (StopWalkException e) {
-                            // thrown by the filter, because it expects that commit times are ordered. That is generally
-                            // true, but not in this case, because we are not walking through the tree
-                            continue;
-                        }
-                    }
-                    getPathFromCommit(commit, walk, objectReader)
-                        .ifPresent(p -> pathToSaveSet(p, repositoryPath, branch, FileType.SNAPSHOT).ifPresent(e -> {
-                            MetaInfo meta = getMetaInfoFromCommit(commit);
-                            Map<String, String> parameters = new HashMap<>();
-                            insertTagData(tag, parameters, revision, branch.getShortName());
-                            snapshots.add(new Snapshot(e, meta.timestamp.toInstant(), meta.comment, meta.creator,
-                                parameters.remove(PARAM_TAG_NAME), parameters.remove(PARAM_TAG_MESSAGE), parameters,
-                                EMPTY_LIST));
-                        }));
+        for (Map.Entry<String, GitIndex.TagEntry> t : idx.getTags().entrySet()) {
+            String name = t.getKey();
+            // check if the tag branch name is correct
+            if (name.charAt(0) == '(') {
+                if (name.startsWith(branchName)) {
+                    name = name.substring(name.indexOf(')') + 1);
+                } else {
+                    continue;
                 }
             }
+            GitIndex.TagEntry tag = t.getValue();
+            if (!f.test(tag, name)) {
+                continue;
+            }
+            GitIndex.CommitEntry commit = idx.getCommit(tag.revision);
+            if (!isInTimeRange(commit.time, start, end)) {
+                continue;
+            }
+            // the path to the snapshot file that changed in the given commit; should always be at most one
+            commit.paths.stream().filter(p -> p.endsWith(FileType.SNAPSHOT.suffix)).findFirst()
+                .ifPresent(p -> pathToSaveSet(p, files, branch, FileType.SNAPSHOT).ifPresent(e -> {
+                    MetaInfo meta = commit.toMetaInfo();
+                    Map<String, String> parameters = new HashMap<>();
+                    insertTagData(tag, parameters, commit.revision, branch.getShortName());
+                    snapshots.add(new Snapshot(e, meta.timestamp.toInstant(), meta.comment, meta.creator,
+                        parameters.remove(PARAM_TAG_NAME), parameters.remove(PARAM_TAG_MESSAGE), parameters,
+                        EMPTY_LIST));
+                }));
         }
         return snapshots;
     }
 
-    private Optional<String> getPathFromCommit(RevCommit commit, RevWalk walk, ObjectReader objectReader)
-        throws GitAPIException, IOException {
-        // Utility method to get the path to the snapshot file that changed in the given commit.
-        // Should always at most one.
-        AbstractTreeIterator oldTreeIterator = new EmptyTreeIterator();
-        if (commit.getParents().length != 0) {
-            RevCommit parentCommit = walk.parseCommit(commit.getParents()[0].getId());
-            oldTreeIterator = new CanonicalTreeParser(null, objectReader, parentCommit.getTree());
-        }
-        AbstractTreeIterator newTreeIterator = new CanonicalTreeParser(null, objectReader, commit.getTree());
-        try (DiffFormatter diffFormatter = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
-            diffFormatter.setRepository(repository);
-            diffFormatter.setDiffComparator(RawTextComparator.DEFAULT);
-            List<DiffEntry> diffs = diffFormatter.scan(oldTreeIterator, newTreeIterator);
-            for (DiffEntry diff : diffs) {
-                if (diff.getChangeType() == org.eclipse.jgit.diff.DiffEntry.ChangeType.DELETE
-                    || diff.getChangeType() == org.eclipse.jgit.diff.DiffEntry.ChangeType.RENAME
-                    || !diff.getNewPath().endsWith(FileType.SNAPSHOT.suffix)) {
-                    continue;
-                }
-                return Optional.of(diff.getNewPath());
-            }
+    /**
+     * Checks if the commit time is within the given time range. The check is done with a resolution of one second,
+     * same as the commit time filters of git.
+     *
+     * @param time the commit time in milliseconds
+     * @param start the start of the range (inclusive) if any
+     * @param end the end of the range (inclusive) if any
+     * @return true if the commit time is within the range
+     */
+    private static boolean isInTimeRange(long time, Optional<Date> start, Optional<Date> end) {
+        long seconds = time / 1000;
+        if (start.isPresent() && seconds < start.get().getTime() / 1000) {
+            return false;
         }
-        return Optional.empty();
+        return !end.isPresent() || seconds <= end.get().getTime() / 1000;
     }
 
     /**
@@ -1266,7 +1207,7 @@ public class GitManager {
      * provided, only commits that belong to that time range are search and any snapshot with a comment or user that
      * contain the partial text and is located on the given branch matches the criteria. This method is faster than
      * making separate search for user and comment and combining the results, because this method only traverses the
-     * revision tree once.
+     * indexed commits once.
      *
      * @param partialText the partial comment or username that we search for
      * @param branch the branch on which to search
@@ -1278,84 +1219,47 @@ public class GitManager {
      * @throws IOException in case of an error
      * @throws GitAPIException in case of branch checkout or tags loading error
      */
-    public synchronized List<Snapshot> findSnapshotsByCommentOrUser(String partialText, final Branch branch,
-        boolean byComment, boolean byUser, Optional<Date> start, Optional<Date> end)
-            throws IOException, GitAPIException {
-        setBranch(branch);
+    public List<Snapshot> findSnapshotsByCommentOrUser(String partialText, final Branch branch, boolean byComment,
+        boolean byUser, Optional<Date> start, Optional<Date> end) throws IOException, GitAPIException {
+        if (!byComment && !byUser && !start.isPresent() && !end.isPresent()) {
+            throw new IllegalArgumentException("No search parameters provided.");
+        }
+        GitIndex idx = getIndex();
+        // same matching as the git message and committer filters
+        Pattern pattern = byComment || byUser
+            ? Pattern.compile(".*" + partialText + ".*", Pattern.CASE_INSENSITIVE | Pattern.DOTALL) : null;
+        GitIndex.BranchEntry branchEntry = idx.getBranch(branch);
+        Map<String, GitIndex.TagEntry> tags = idx.getTagsByRevision();
+        String branchName = branch.getShortName();
         List<Snapshot> snapshots = new ArrayList<>();
-        List<RevCommit> revisions = new ArrayList<>();
-        try (RevWalk revWalk = new RevWalk(repository); ObjectReader objectReader = repository.newObjectReader()) {
-            revWalk.markStart(getHeadCommit());
-            RevFilter userCommentFilter = null;
-            if (byComment && byUser) {
-                userCommentFilter = OrRevFilter.create(MessageRevFilter.create(partialText),
-                    CommitterRevFilter.create(partialText));
-            } else if (byComment) {
-                userCommentFilter = MessageRevFilter.create(partialText);
-            } else if (byUser) {
-                userCommentFilter = CommitterRevFilter.create(partialText);
-            }
-            RevFilter timeFilter = null;
-            if (start.isPresent() && end.isPresent()) {
-                timeFilter = CommitTimeRevFilter.between(start.get(), end.get());
-            } else if (start.isPresent()) {
-                timeFilter = CommitTimeRevFilter.after(start.get());
-            } else if (end.isPresent()) {
-                timeFilter = CommitTimeRevFilter.before(end.get());
-            }
-            if (userCommentFilter == null && timeFilter == null) {
-                throw new IllegalArgumentException("No search parameters provided.");
-            } else if (userCommentFilter != null && timeFilter != null) {
-                revWalk.setRevFilter(AndRevFilter.create(userCommentFilter, timeFilter));
-            } else if (userCommentFilter != null) {
-                revWalk.setRevFilter(userCommentFilter);
-            } else {
-                revWalk.setRevFilter(timeFilter);
+        for (GitIndex.CommitEntry commit : branchEntry.commits) {
+            if (!isInTimeRange(commit.time, start, end)) {
+                continue;
             }
-            for (RevCommit commit : revWalk) {
-                AbstractTreeIterator oldTreeIterator = new EmptyTreeIterator();
-                if (commit.getParents().length != 0) {
-                    oldTreeIterator = new CanonicalTreeParser(null, objectReader, commit.getParents()[0].getTree());
+            if (pattern != null) {
+                boolean matches = byComment && pattern.matcher(commit.comment).matches();
+                if (!matches && byUser) {
+                    matches = pattern.matcher(commit.creator + " <" + commit.email + ">").matches();
                 }
-                AbstractTreeIterator newTreeIterator = new CanonicalTreeParser(null, objectReader, commit.getTree());
-                try (DiffFormatter diffFormatter = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
-                    diffFormatter.setRepository(repository);
-                    diffFormatter.setDiffComparator(RawTextComparator.DEFAULT);
-                    diffFormatter.setDetectRenames(true);
-                    List<DiffEntry> diffs = diffFormatter.scan(oldTreeIterator, newTreeIterator);
-                    for (DiffEntry diff : diffs) {
-                        if (diff.getChangeType() == org.eclipse.jgit.diff.DiffEntry.ChangeType.DELETE
-                            || diff.getChangeType() == org.eclipse.jgit.diff.DiffEntry.ChangeType.RENAME
-                            || !diff.getNewPath().endsWith(FileType.SNAPSHOT.suffix)) {
-                            continue;
-                        }
-                        pathToSaveSet(diff.getNewPath(), repositoryPath, branch, FileType.SNAPSHOT).ifPresent(e -> {
-                            MetaInfo mi = getMetaInfoFromCommit(commit);
-                            Map<String, String> parameters = new HashMap<>();
-                            parameters.put(PARAM_GIT_REVISION, mi.revision);
-                            revisions.add(commit);
-                            snapshots.add(new Snapshot(e, mi.timestamp.toInstant(), mi.comment, mi.creator, parameters,
-                                new ArrayList<>(0)));
-                        });
-                    }
+                if (!matches) {
+                    continue;
                 }
             }
-        }
-        final Map<String, RevTag> tags = loadTagsForRevisions(revisions);
-        final List<Snapshot> ret = new ArrayList<>();
-        final String branchName = branch.getShortName();
-        snapshots.forEach(s -> {
-            String revision = s.getParameters().get(PARAM_GIT_REVISION);
-            if (tags.get(revision) == null) {
-                ret.add(s);
-            } else {
-                Map<String, String> parameters = new HashMap<>(s.getParameters());
-                insertTagData(tags.get(revision), parameters, revision, branchName);
-                ret.add(new Snapshot(s.getSaveSet(), s.getDate(), s.getComment(), s.getOwner(),
-                    parameters.remove(PARAM_TAG_NAME), parameters.remove(PARAM_TAG_MESSAGE), parameters, EMPTY_LIST));
+            for (String path : commit.paths) {
+                if (!path.endsWith(FileType.SNAPSHOT.suffix)) {
+                    continue;
+                }
+                pathToSaveSet(path, branchEntry.files, branch, FileType.SNAPSHOT).ifPresent(e -> {
+                    MetaInfo mi = commit.toMetaInfo();
+                    Map<String, String> parameters = new HashMap<>();
+                    insertTagData(tags.get(commit.revision), parameters, commit.revision, branchName);
+                    snapshots.add(new Snapshot(e, mi.timestamp.toInstant(), mi.comment, mi.creator,
+                        parameters.remove(PARAM_TAG_NAME), parameters.remove(PARAM_TAG_MESSAGE), parameters,
+                        EMPTY_LIST));
+                });
             }
-        });
-        return ret;
+        }
+        return snapshots;
     }
 
     /**
@@ -1481,18 +1385,17 @@ public class GitManager {
     }
 
     /**
-     * Converts the <code>pathToFile</code> to a save set. The repository is expected to be checkout on the correct
-     * branch. If the path is valid so that the save set can be determined and if the file actually still exists at the
-     * HEAD of the branch, it is returned. If the path is not valid, or the file does not exist, an empty object is
-     * returned.
+     * Converts the <code>pathToFile</code> to a save set. If the path is valid so that the save set can be determined
+     * and if the file actually still exists at the HEAD of the branch, it is returned. If the path is not valid, or the
+     * file does not exist, an empty object is returned.
      *
      * @param pathToFile the path to file
-     * @param repositoryPath the path to the root of the repository
+     * @param files the paths of all files at the HEAD of the branch
      * @param branch the branch for the save set
      * @param fromType the type of the file under the given path
      * @return the save set if found or empty if not found
      */
-    private static Optional<SaveSet> pathToSaveSet(String pathToFile, File repositoryPath, Branch branch,
+    private static Optional<SaveSet> pathToSaveSet(String pathToFile, Set<String> files, Branch branch,
         FileType fromType) {
         String[] p = pathToFile.split(GIT_PATH_DELIMITER);
         BaseLevel baseLevel = null;
@@ -1524,8 +1427,7 @@ public class GitManager {
         }
         SaveSet saveSet = new SaveSet(branch, Optional.ofNullable(baseLevel), newPath, GitDataProvider.ID);
         String path = convertPathToString(saveSet, FileType.SAVE_SET);
-        File fullPath = new File(repositoryPath, path);
-        return fullPath.exists() ? Optional.of(saveSet) : Optional.empty();
+        return files.contains(path) ? Optional.of(saveSet) : Optional.empty();
     }
 
     /**
@@ -1698,11 +1600,11 @@ public class GitManager {
      * @param branchName the branch name for which the tag should be loaded
      * @return true if the tag exists or false otherwise
      */
-    private static boolean insertTagData(RevTag tag, Map<String, String> parameters, String revision,
+    private static boolean insertTagData(GitIndex.TagEntry tag, Map<String, String> parameters, String revision,
         String branchName) {
         parameters.put(PARAM_GIT_REVISION, revision);
         if (tag != null) {
-            String niceTagName = tag.getTagName();
+            String niceTagName = tag.name;
             boolean acceptTag = true;
             if (niceTagName.charAt(0) == '(') {
                 String branch = niceTagName.substring(1, niceTagName.indexOf(')'));
@@ -1716,9 +1618,9 @@ public class GitManager {
                     niceTagName = niceTagName.substring(niceTagName.lastIndexOf('(') + 1, niceTagName.length() - 1);
                 }
                 parameters.put(PARAM_TAG_NAME, niceTagName);
-                parameters.put(PARAM_GIT_TAG_NAME, tag.getTagName());
-                parameters.put(PARAM_TAG_MESSAGE, tag.getFullMessage());
-                parameters.put(PARAM_TAG_CREATOR, tag.getTaggerIdent().getName());
+                parameters.put(PARAM_GIT_TAG_NAME, tag.name);
+                parameters.put(PARAM_TAG_MESSAGE, tag.message);
+                parameters.put(PARAM_TAG_CREATOR, tag.tagger);
                 return true;
             }
         }
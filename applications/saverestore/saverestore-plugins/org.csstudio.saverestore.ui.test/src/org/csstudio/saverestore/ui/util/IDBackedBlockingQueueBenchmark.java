@@ -0,0 +1,134 @@
+/*
+ * This software is Copyright by the Board of Trustees of Michigan
+ * State University (c) Copyright 2016.
+ *
+ * Contact Information:
+ *   Facility for Rare Isotope Beam
+ *   Michigan State University
+ *   East Lansing, MI 48824-1321
+ *   http://frib.msu.edu
+ */
+package org.csstudio.saverestore.ui.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ *
+ * <code>IDBackedBlockingQueueBenchmark</code> measures the cost of coalescing updates in the
+ * {@link IDBackedBlockingQueue} at PV counts of typical and large save sets. Each cycle every PV posts several updates,
+ * which are coalesced into one runnable per PV, and the whole cycle is then drained in one batch. For comparison the
+ * same load is applied to a queue which finds the runnable to replace by scanning all queued runnables, as the previous
+ * implementation did.
+ *
+ * @author <a href="mailto:jaka.bobnar@cosylab.com">Jaka Bobnar</a>
+ *
+ */
+public class IDBackedBlockingQueueBenchmark {
+
+    private static final int[] PV_COUNTS = { 1000, 5000, 20000 };
+    private static final int UPDATES_PER_CYCLE = 3;
+    private static final int CYCLES = 20;
+    private static final int SCAN_CYCLES = 2;
+
+    private static class Update implements RunnableWithID {
+        final int id;
+
+        Update(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public void run() {
+        }
+
+        @Override
+        public int getID() {
+            return id;
+        }
+    }
+
+    /**
+     * Queue which replaces an existing runnable with the same id by scanning the queued runnables.
+     */
+    private static class ScanningQueue {
+        final RunnableWithID[] items;
+        int count;
+
+        ScanningQueue(int capacity) {
+            items = new RunnableWithID[capacity];
+        }
+
+        synchronized void offer(RunnableWithID r) {
+            int id = r.getID();
+            for (int i = count - 1; i > -1; i--) {
+                if (items[i].getID() == id) {
+                    items[i] = r;
+                    return;
+                }
+            }
+            items[count++] = r;
+        }
+
+        synchronized int drainTo(List<Runnable> c) {
+            for (int i = 0; i < count; i++) {
+                c.add(items[i]);
+                items[i] = null;
+            }
+            int n = count;
+            count = 0;
+            return n;
+        }
+    }
+
+    private static long runIndexed(int pvs, int cycles) {
+        IDBackedBlockingQueue queue = new IDBackedBlockingQueue(pvs);
+        List<Runnable> batch = new ArrayList<>(pvs);
+        long start = System.nanoTime();
+        for (int c = 0; c < cycles; c++) {
+            for (int u = 0; u < UPDATES_PER_CYCLE; u++) {
+                for (int i = 0; i < pvs; i++) {
+                    queue.offer(new Update(i));
+                }
+            }
+            batch.clear();
+            assertEquals(pvs, queue.drainTo(batch));
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long runScanning(int pvs, int cycles) {
+        ScanningQueue queue = new ScanningQueue(pvs);
+        List<Runnable> batch = new ArrayList<>(pvs);
+        long start = System.nanoTime();
+        for (int c = 0; c < cycles; c++) {
+            for (int u = 0; u < UPDATES_PER_CYCLE; u++) {
+                for (int i = 0; i < pvs; i++) {
+                    queue.offer(new Update(i));
+                }
+            }
+            batch.clear();
+            assertEquals(pvs, queue.drainTo(batch));
+        }
+        return System.nanoTime() - start;
+    }
+
+    @Test
+    public void benchmark() {
+        // warm up
+        runIndexed(PV_COUNTS[0], CYCLES);
+        runScanning(PV_COUNTS[0], SCAN_CYCLES);
+        for (int pvs : PV_COUNTS) {
+            long indexed = runIndexed(pvs, CYCLES);
+            long scanning = runScanning(pvs, SCAN_CYCLES);
+            double inserts = (double) pvs * UPDATES_PER_CYCLE;
+            System.out.println(String.format("%6d PVs: indexed %8.1f ns/insert, %8.3f ms/cycle; "
+                + "scanning %10.1f ns/insert, %10.3f ms/cycle", pvs, indexed / (inserts * CYCLES),
+                indexed / (1e6 * CYCLES), scanning / (inserts * SCAN_CYCLES), scanning / (1e6 * SCAN_CYCLES)));
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * This software is Copyright by the Board of Trustees of Michigan
+ * State University (c) Copyright 2016.
+ *
+ * Contact Information:
+ *   Facility for Rare Isotope Beam
+ *   Michigan State University
+ *   East Lansing, MI 48824-1321
+ *   http://frib.msu.edu
+ */
+package org.csstudio.saverestore.ui.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ *
+ * <code>IDBackedBlockingQueueTest</code> tests the coalescing, ordering and blocking behaviour of the
+ * {@link IDBackedBlockingQueue}.
+ *
+ * @author <a href="mailto:jaka.bobnar@cosylab.com">Jaka Bobnar</a>
+ *
+ */
+public class IDBackedBlockingQueueTest {
+
+    private static class Task implements RunnableWithID {
+        final int id;
+        final String name;
+
+        Task(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        @Override
+        public void run() {
+        }
+
+        @Override
+        public int getID() {
+            return id;
+        }
+    }
+
+    @Test
+    public void testReplace() {
+        IDBackedBlockingQueue queue = new IDBackedBlockingQueue(10);
+        Task a = new Task(1, "a");
+        Task b = new Task(2, "b");
+        Task a2 = new Task(1, "a2");
+        assertTrue(queue.offer(a));
+        assertTrue(queue.offer(b));
+        assertTrue(queue.offer(a2));
+        assertEquals(2, queue.size());
+        assertEquals(1, queue.getReplacedCount());
+        assertFalse(queue.contains(a));
+        assertTrue(queue.contains(a2));
+        // replaced runnable keeps the position of the original
+        assertSame(a2, queue.poll());
+        assertSame(b, queue.poll());
+        assertNull(queue.poll());
+        // after the runnable was taken, a runnable with the same id is queued again
+        assertTrue(queue.offer(a));
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void testRunnablesWithoutID() {
+        IDBackedBlockingQueue queue = new IDBackedBlockingQueue(10);
+        Runnable a = () -> {};
+        Runnable b = () -> {};
+        queue.offer(a);
+        queue.offer(a);
+        queue.offer(b);
+        assertEquals(3, queue.size());
+        assertTrue(queue.remove(b));
+        assertFalse(queue.contains(b));
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    public void testCapacity() throws InterruptedException {
+        IDBackedBlockingQueue queue = new IDBackedBlockingQueue(2);
+        assertTrue(queue.offer(new Task(1, "a")));
+        assertTrue(queue.offer(new Task(2, "b")));
+        assertFalse(queue.offer(new Task(3, "c")));
+        assertFalse(queue.offer(new Task(3, "c"), 10, TimeUnit.MILLISECONDS));
+        assertEquals(0, queue.remainingCapacity());
+        // replacement is accepted even if the queue is full
+        Task b2 = new Task(2, "b2");
+        assertTrue(queue.offer(b2));
+        assertEquals(2, queue.size());
+
+        CountDownLatch latch = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            try {
+                queue.put(new Task(3, "c"));
+                latch.countDown();
+            } catch (InterruptedException e) {
+                // ignore
+            }
+        });
+        producer.start();
+        assertFalse(latch.await(100, TimeUnit.MILLISECONDS));
+        assertEquals("a", ((Task) queue.take()).name);
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertSame(b2, queue.take());
+        assertEquals("c", ((Task) queue.take()).name);
+        assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testDrain() {
+        IDBackedBlockingQueue queue = new IDBackedBlockingQueue(100);
+        for (int i = 0; i < 10; i++) {
+            queue.offer(new Task(i, "first" + i));
+        }
+        for (int i = 0; i < 10; i++) {
+            queue.offer(new Task(i, "second" + i));
+        }
+        List<Runnable> batch = new ArrayList<>();
+        assertEquals(4, queue.drainTo(batch, 4));
+        assertEquals(6, queue.size());
+        assertEquals(6, queue.drainTo(batch));
+        assertEquals(0, queue.size());
+        assertEquals(10, batch.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals("second" + i, ((Task) batch.get(i)).name);
+        }
+        // ids are free again after draining
+        queue.offer(new Task(0, "third"));
+        assertEquals(1, queue.size());
+        assertEquals("third", ((Task) queue.peek()).name);
+    }
+
+    @Test
+    public void testIterator() {
+        IDBackedBlockingQueue queue = new IDBackedBlockingQueue(100);
+        for (int i = 0; i < 5; i++) {
+            queue.offer(new Task(i, String.valueOf(i)));
+        }
+        int i = 0;
+        for (java.util.Iterator<Runnable> it = queue.iterator(); it.hasNext();) {
+            Task t = (Task) it.next();
+            assertEquals(String.valueOf(i++), t.name);
+            if (t.id % 2 == 0) {
+                it.remove();
+            }
+        }
+        assertEquals(2, queue.size());
+        assertEquals(2, queue.toArray().length);
+        assertEquals(2, queue.toArray(new Runnable[0]).length);
+    }
+
+    @Test(timeout = 10000)
+    public void testExecutor() throws InterruptedException {
+        CountDownLatch block = new CountDownLatch(1);
+        List<String> executed = new ArrayList<>();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.NANOSECONDS,
+            new IDBackedBlockingQueue(1000, true));
+        executor.execute(() -> {
+            try {
+                block.await();
+            } catch (InterruptedException e) {
+                // ignore
+            }
+        });
+        for (int i = 0; i < 100; i++) {
+            final int value = i;
+            executor.execute(new Task(7, "") {
+                @Override
+                public void run() {
+                    synchronized (executed) {
+                        executed.add(String.valueOf(value));
+                    }
+                }
+            });
+        }
+        block.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        // only the last of the coalesced requests was executed
+        assertEquals(1, executed.size());
+        assertEquals("99", executed.get(0));
+    }
+}
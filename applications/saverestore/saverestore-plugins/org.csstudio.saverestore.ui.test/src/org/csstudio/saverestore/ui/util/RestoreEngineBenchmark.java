@@ -0,0 +1,114 @@
+/*
+ * This software is Copyright by the Board of Trustees of Michigan
+ * State University (c) Copyright 2016.
+ *
+ * Contact Information:
+ *   Facility for Rare Isotope Beam
+ *   Michigan State University
+ *   East Lansing, MI 48824-1321
+ *   http://frib.msu.edu
+ */
+package org.csstudio.saverestore.ui.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.csstudio.saverestore.ui.util.RestoreEngine.Report;
+import org.csstudio.saverestore.ui.util.RestoreEngine.WriteChannel;
+import org.csstudio.saverestore.ui.util.RestoreEngine.WriteRequest;
+import org.junit.Test;
+
+/**
+ *
+ * <code>RestoreEngineBenchmark</code> measures the restore of a large snapshot with the {@link RestoreEngine} at
+ * different parallelism settings. The PVs are simulated: every write travels over a network with a fixed latency in
+ * each direction and is processed by an IOC which can only handle a limited number of writes at the same time. The
+ * benchmark prints the total restore time and the mean and 99th percentile time of a single write.
+ *
+ * @author <a href="mailto:jaka.bobnar@cosylab.com">Jaka Bobnar</a>
+ *
+ */
+public class RestoreEngineBenchmark {
+
+    private static final int PV_COUNT = 10000;
+    private static final int SEQUENTIAL_PV_COUNT = 500;
+    private static final int[] PARALLELISM = { 10, 100, 1000, PV_COUNT };
+    private static final long NETWORK_LATENCY = TimeUnit.MICROSECONDS.toNanos(1000);
+    private static final long PROCESSING_TIME = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final int IOC_THREADS = 8;
+
+    private static class SimulatedPV implements WriteChannel {
+        final String name;
+        final ScheduledExecutorService network;
+        final ExecutorService ioc;
+
+        SimulatedPV(String name, ScheduledExecutorService network, ExecutorService ioc) {
+            this.name = name;
+            this.network = network;
+            this.ioc = ioc;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public CompletableFuture<?> connect() {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<?> write(Object value) {
+            CompletableFuture<Void> f = new CompletableFuture<>();
+            network.schedule(() -> ioc.execute(() -> {
+                LockSupport.parkNanos(PROCESSING_TIME);
+                network.schedule(() -> f.complete(null), NETWORK_LATENCY, TimeUnit.NANOSECONDS);
+            }), NETWORK_LATENCY, TimeUnit.NANOSECONDS);
+            return f;
+        }
+    }
+
+    private static void run(String label, int pvs, int parallelism, ScheduledExecutorService network,
+        ExecutorService ioc) throws InterruptedException {
+        List<WriteRequest> requests = new ArrayList<>(pvs);
+        for (int i = 0; i < pvs; i++) {
+            requests.add(new WriteRequest(new SimulatedPV("pv" + i, network, ioc), i));
+        }
+        Report report = new RestoreEngine(parallelism, 1000, 600000).restore(Arrays.asList(requests), () -> false);
+        assertEquals(pvs, report.results.size());
+        assertTrue(report.getFailures().isEmpty());
+        long[] times = report.results.stream().mapToLong(r -> r.writeTime).sorted().toArray();
+        double mean = Arrays.stream(times).average().getAsDouble();
+        System.out.println(String.format("%-10s %6d PVs, parallelism %6d: total %9.1f ms, write mean %8.2f ms, "
+            + "p99 %8.2f ms", label, pvs, parallelism, report.duration / 1e6, mean / 1e6,
+            times[(int) (times.length * 0.99)] / 1e6));
+    }
+
+    @Test
+    public void benchmark() throws InterruptedException {
+        ScheduledExecutorService network = Executors.newScheduledThreadPool(4);
+        ExecutorService ioc = Executors.newFixedThreadPool(IOC_THREADS);
+        try {
+            // warm up
+            run("warm up", 2000, 100, network, ioc);
+            run("sequential", SEQUENTIAL_PV_COUNT, 1, network, ioc);
+            for (int p : PARALLELISM) {
+                run("parallel", PV_COUNT, p, network, ioc);
+            }
+        } finally {
+            network.shutdownNow();
+            ioc.shutdownNow();
+        }
+    }
+}
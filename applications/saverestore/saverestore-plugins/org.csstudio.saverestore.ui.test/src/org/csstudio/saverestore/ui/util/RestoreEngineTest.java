@@ -0,0 +1,215 @@
+/*
+ * This software is Copyright by the Board of Trustees of Michigan
+ * State University (c) Copyright 2016.
+ *
+ * Contact Information:
+ *   Facility for Rare Isotope Beam
+ *   Michigan State University
+ *   East Lansing, MI 48824-1321
+ *   http://frib.msu.edu
+ */
+package org.csstudio.saverestore.ui.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.csstudio.saverestore.ui.util.RestoreEngine.Report;
+import org.csstudio.saverestore.ui.util.RestoreEngine.Result;
+import org.csstudio.saverestore.ui.util.RestoreEngine.WriteChannel;
+import org.csstudio.saverestore.ui.util.RestoreEngine.WriteRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * <code>RestoreEngineTest</code> tests the ordering, parallelism and failure reporting of the {@link RestoreEngine}
+ * using simulated channels.
+ *
+ * @author <a href="mailto:jaka.bobnar@cosylab.com">Jaka Bobnar</a>
+ *
+ */
+public class RestoreEngineTest {
+
+    private ScheduledExecutorService executor;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger maxOutstanding = new AtomicInteger();
+    private final List<String> completed = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Channel which completes the write after the given delay, or never if the delay is negative.
+     */
+    private class Channel implements WriteChannel {
+        final String name;
+        final long delay;
+        boolean connected = true;
+        String error;
+        Object value;
+
+        Channel(String name, long delay) {
+            this.name = name;
+            this.delay = delay;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public CompletableFuture<?> connect() {
+            return connected ? CompletableFuture.completedFuture(null) : new CompletableFuture<>();
+        }
+
+        @Override
+        public CompletableFuture<?> write(Object value) {
+            this.value = value;
+            int n = outstanding.incrementAndGet();
+            maxOutstanding.accumulateAndGet(n, Math::max);
+            CompletableFuture<Void> f = new CompletableFuture<>();
+            if (delay >= 0) {
+                executor.schedule(() -> {
+                    outstanding.decrementAndGet();
+                    completed.add(name);
+                    if (error == null) {
+                        f.complete(null);
+                    } else {
+                        f.completeExceptionally(new Exception(error));
+                    }
+                }, delay, TimeUnit.MILLISECONDS);
+            }
+            return f;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        executor = new ScheduledThreadPoolExecutor(4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static List<WriteRequest> requests(List<? extends WriteChannel> channels) {
+        List<WriteRequest> requests = new ArrayList<>();
+        for (int i = 0; i < channels.size(); i++) {
+            requests.add(new WriteRequest(channels.get(i), i));
+        }
+        return requests;
+    }
+
+    @Test(timeout = 10000)
+    public void testParallelism() throws InterruptedException {
+        List<Channel> channels = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            channels.add(new Channel("pv" + i, 5));
+        }
+        RestoreEngine engine = new RestoreEngine(4, 1000, 5000);
+        Report report = engine.restore(Arrays.asList(requests(channels)), () -> false);
+        assertEquals(50, report.results.size());
+        assertTrue(report.getFailures().isEmpty());
+        assertFalse(report.cancelled);
+        assertTrue("At most 4 writes should be outstanding: " + maxOutstanding.get(), maxOutstanding.get() <= 4);
+        assertEquals(50, completed.size());
+        for (int i = 0; i < 50; i++) {
+            Result r = report.results.get(i);
+            assertEquals("pv" + i, r.name);
+            assertNull(r.error);
+            assertTrue(r.writeTime >= TimeUnit.MILLISECONDS.toNanos(5));
+            assertEquals(i, channels.get(i).value);
+        }
+        assertEquals(5, report.getSlowest(5).size());
+    }
+
+    @Test(timeout = 10000)
+    public void testOrderingGroups() throws InterruptedException {
+        List<Channel> channels = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            channels.add(new Channel("magnet" + i, 20 - i));
+            channels.add(new Channel("rf" + i, 1));
+            channels.add(new Channel("other" + i, 1));
+        }
+        List<List<WriteRequest>> groups = RestoreEngine.group(requests(channels),
+            Arrays.asList(Pattern.compile("magnet.*"), Pattern.compile("none.*"), Pattern.compile("rf.*")));
+        assertEquals(3, groups.size());
+        assertEquals("magnet0", groups.get(0).get(0).channel.getName());
+        assertEquals("rf0", groups.get(1).get(0).channel.getName());
+        assertEquals("other9", groups.get(2).get(9).channel.getName());
+
+        Report report = new RestoreEngine(100, 1000, 5000).restore(groups, () -> false);
+        assertTrue(report.getFailures().isEmpty());
+        // all writes of a group complete before the next group is written
+        for (int i = 0; i < 30; i++) {
+            String expected = i < 10 ? "magnet" : i < 20 ? "rf" : "other";
+            assertTrue(completed.get(i).startsWith(expected));
+        }
+        assertEquals(0, report.results.get(0).group);
+        assertEquals(2, report.results.get(29).group);
+    }
+
+    @Test(timeout = 10000)
+    public void testFailures() throws InterruptedException {
+        Channel ok = new Channel("ok", 1);
+        Channel failed = new Channel("failed", 1);
+        failed.error = "Write not allowed";
+        Channel noMessage = new Channel("noMessage", 1);
+        noMessage.error = "";
+        Channel disconnected = new Channel("disconnected", 1);
+        disconnected.connected = false;
+        Channel hanging = new Channel("hanging", -1);
+        WriteChannel throwing = new Channel("throwing", 1) {
+            @Override
+            public CompletableFuture<?> write(Object value) {
+                throw new IllegalStateException("Writer closed");
+            }
+        };
+        List<WriteRequest> requests = requests(Arrays.asList(ok, failed, noMessage, disconnected, hanging, throwing));
+        Report report = new RestoreEngine(2, 100, 1000).restore(Arrays.asList(requests), () -> false);
+        assertEquals(6, report.results.size());
+        List<Result> failures = report.getFailures();
+        assertEquals(5, failures.size());
+        assertNull(report.results.get(0).error);
+        assertEquals("Write not allowed", report.results.get(1).error);
+        assertEquals(RestoreEngine.UNKNOWN_ERROR, report.results.get(2).error);
+        assertEquals(RestoreEngine.NOT_CONNECTED, report.results.get(3).error);
+        assertEquals(-1, report.results.get(3).writeTime);
+        assertEquals(RestoreEngine.TIMEOUT, report.results.get(4).error);
+        assertEquals("Writer closed", report.results.get(5).error);
+        assertNull(disconnected.value);
+        assertTrue(report.duration >= TimeUnit.MILLISECONDS.toNanos(1000));
+    }
+
+    @Test(timeout = 10000)
+    public void testCancel() throws InterruptedException {
+        List<Channel> channels = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            channels.add(new Channel("pv" + i, 200));
+        }
+        AtomicBoolean cancelled = new AtomicBoolean();
+        executor.schedule(() -> cancelled.set(true), 100, TimeUnit.MILLISECONDS);
+        Report report = new RestoreEngine(1, 1000, 5000).restore(Arrays.asList(requests(channels)),
+            cancelled::get);
+        assertTrue(report.cancelled);
+        assertEquals(10, report.results.size());
+        assertEquals(RestoreEngine.CANCELLED, report.results.get(0).error);
+        assertEquals(RestoreEngine.CANCELLED, report.results.get(9).error);
+        assertNull(channels.get(9).value);
+        assertTrue(report.duration < TimeUnit.MILLISECONDS.toNanos(1000));
+    }
+}
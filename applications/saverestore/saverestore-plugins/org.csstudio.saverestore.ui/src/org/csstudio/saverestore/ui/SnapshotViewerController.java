@@ -27,12 +27,14 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
@@ -58,13 +60,17 @@ import org.csstudio.saverestore.data.VDisconnectedData;
 import org.csstudio.saverestore.data.VNoData;
 import org.csstudio.saverestore.data.VSnapshot;
 import org.csstudio.saverestore.ui.util.GUIUpdateThrottle;
+import org.csstudio.saverestore.ui.util.RestoreEngine;
+import org.csstudio.saverestore.ui.util.RestoreEngine.Report;
+import org.csstudio.saverestore.ui.util.RestoreEngine.Result;
+import org.csstudio.saverestore.ui.util.RestoreEngine.WriteChannel;
+import org.csstudio.saverestore.ui.util.RestoreEngine.WriteRequest;
 import org.csstudio.saverestore.ui.util.VTypePair;
 import org.csstudio.ui.fx.util.FXDetailsDialog;
 import org.csstudio.ui.fx.util.FXMessageDialog;
 import org.diirt.datasource.PVManager;
 import org.diirt.datasource.PVReader;
 import org.diirt.datasource.PVWriter;
-import org.diirt.datasource.PVWriterEvent;
 import org.diirt.datasource.PVWriterListener;
 import org.diirt.vtype.Alarm;
 import org.diirt.vtype.AlarmSeverity;
@@ -98,6 +104,8 @@ public class SnapshotViewerController {
     public static final String FEXT_SNP = ".snp";
     /** Multiple snapshots (what you see) file extension */
     public static final String FEXT_CSV = ".csv";
+    /** The time in milliseconds to wait for the PV writers to connect before the restore starts */
+    private static final long RESTORE_CONNECT_TIMEOUT = 2000;
 
     // for testing purposes this should not be final
     private static Executor UI_EXECUTOR = Platform::runLater;
@@ -174,6 +182,61 @@ public class SnapshotViewerController {
         }
     }
 
+    /**
+     * Adapts the writer of a PV to the {@link RestoreEngine}. The channel listens to the writer events only until it is
+     * disposed of.
+     */
+    private static class PVWriteChannel implements WriteChannel {
+        final PV pv;
+        final CompletableFuture<Void> connected = new CompletableFuture<>();
+        volatile CompletableFuture<Void> pending;
+        final PVWriterListener<Object> listener = e -> {
+            if (e.getPvWriter().isWriteConnected()) {
+                connected.complete(null);
+            }
+            CompletableFuture<Void> f = pending;
+            if (f == null) {
+                return;
+            }
+            if (e.isWriteSucceeded()) {
+                f.complete(null);
+            } else if (e.isWriteFailed()) {
+                Exception ex = e.getPvWriter().lastWriteException();
+                f.completeExceptionally(ex == null ? new Exception(RestoreEngine.UNKNOWN_ERROR) : ex);
+            }
+        };
+
+        PVWriteChannel(PV pv) {
+            this.pv = pv;
+            pv.writer.addPVWriterListener(listener);
+        }
+
+        @Override
+        public String getName() {
+            return pv.pvName;
+        }
+
+        @Override
+        public CompletableFuture<?> connect() {
+            // the writer is created together with the PV, so it only has to be checked if it is connected already
+            if (pv.writer.isWriteConnected()) {
+                connected.complete(null);
+            }
+            return connected;
+        }
+
+        @Override
+        public CompletableFuture<?> write(Object value) {
+            pending = new CompletableFuture<>();
+            pv.writer.write(value);
+            return pending;
+        }
+
+        void dispose() {
+            pv.writer.removePVWriterListener(listener);
+        }
+    }
+
     private final BooleanProperty snapshotSaveableProperty = new SimpleBooleanProperty(false);
     private final BooleanProperty snapshotRestorableProperty = new SimpleBooleanProperty(false);
     private final ObjectProperty<VSnapshot> baseSnapshotProperty = new SimpleObjectProperty<>(null);
@@ -851,81 +914,56 @@ public class SnapshotViewerController {
 
     /**
      * Restore the values from the snapshot and set them on the PVs. Only the snapshot that belongs to this viewer can
-     * be restored. This method should not be called from the UI thread.
+     * be restored. The PVs are written by the {@link RestoreEngine} in the order and with the parallelism defined by
+     * the preferences. This method should not be called from the UI thread.
      *
      * @param s the snapshot
      */
     public void restoreSnapshot(VSnapshot s) {
-        Map<PV, PVWriterListener<?>> restorablePVs = new HashMap<>();
+        List<PVWriteChannel> channels = new ArrayList<>();
         try {
             suspend();
-            List<SnapshotEntry> entries = s.getEntries();
-            final Map<PV, PVWriterEvent<?>> restoredPVs = new HashMap<>();
-            for (SnapshotEntry entry : entries) {
+            List<WriteRequest> requests = new ArrayList<>();
+            Set<TableEntry> filtered = new HashSet<>(filteredList);
+            for (SnapshotEntry entry : s.getEntries()) {
                 final TableEntry e = items.get(entry.getPVName());
                 // only restore the value if the entry is in the filtered list as well
-                if (filteredList.contains(e) && e.selectedProperty().get() && !e.readOnlyProperty().get()) {
+                if (filtered.contains(e) && e.selectedProperty().get() && !e.readOnlyProperty().get()) {
                     final PV pv = pvs.get(e);
-                    if (pv.writer != null) {
-                        PVWriterListener<?> l = w -> {
-                            restoredPVs.put(pv, w);
-                            synchronized (restoredPVs) {
-                                restoredPVs.notifyAll();
-                            }
-                        };
-                        restorablePVs.put(pv, l);
-                        pv.writer.addPVWriterListener(l);
-                        Object val = Utilities.toRawValue(entry.getValue());
-                        if (val != null) {
-                            pv.writer.write(val);
-                        }
+                    Object val = Utilities.toRawValue(entry.getValue());
+                    if (pv.writer != null && val != null) {
+                        PVWriteChannel channel = new PVWriteChannel(pv);
+                        channels.add(channel);
+                        requests.add(new WriteRequest(channel, val));
                     }
                 }
             }
+            SaveRestoreService service = SaveRestoreService.getInstance();
+            RestoreEngine engine = new RestoreEngine(service.getRestoreParallelism(), RESTORE_CONNECT_TIMEOUT,
+                service.getRestoreTimeout() * 1000L);
+            Report report;
             try {
-                long time = System.currentTimeMillis();
-                while (System.currentTimeMillis() - time < 30000
-                    && !SaveRestoreService.getInstance().isCurrentJobCancelled()) {
-                    synchronized (restoredPVs) {
-                        if (restoredPVs.size() == restorablePVs.size()) {
-                            break;
-                        } else {
-                            restoredPVs.wait(100);
-                        }
-                    }
-                }
+                report = engine.restore(RestoreEngine.group(requests, service.getRestoreOrder()),
+                    service::isCurrentJobCancelled);
             } catch (InterruptedException e) {
-                // ignore
-            }
-
-            List<String> messages = new ArrayList<>();
-            for (Map.Entry<PV, PVWriterEvent<?>> pv : restoredPVs.entrySet()) {
-                if (pv.getValue().isWriteFailed()) {
-                    StringBuilder sb = new StringBuilder(200);
-                    sb.append(pv.getKey().pvName).append(':').append(' ');
-                    Exception e = pv.getValue().getPvWriter().lastWriteException();
-                    if (e == null || e.getMessage() == null || e.getMessage().isEmpty()) {
-                        sb.append("Unknown error");
-                    } else {
-                        sb.append(e.getMessage());
-                    }
-                    messages.add(sb.toString());
-                }
+                Thread.currentThread().interrupt();
+                return;
             }
-
-            if (restoredPVs.size() != restorablePVs.size()) {
-                // not all PVs responded in time
-                for (PV pv : restorablePVs.keySet()) {
-                    if (restoredPVs.containsKey(pv)) {
-                        messages.add(pv.pvName + ": Timeout");
-                    }
-                }
+            List<Result> failures = report.getFailures();
+            if (SaveRestoreService.LOGGER.isLoggable(Level.FINER)) {
+                report.results.forEach(r -> SaveRestoreService.LOGGER.log(Level.FINER, "{0}: group {1}, {2} ms.",
+                    new Object[] { r, r.group, r.writeTime < 0 ? "-" : r.writeTime / 1000000. }));
             }
-            if (messages.isEmpty()) {
+            SaveRestoreService.LOGGER.log(Level.FINE, "Wrote {0} PVs ({1} failed) in {2} ms, slowest: {3}.",
+                new Object[] { report.results.size(), failures.size(), report.duration / 1000000,
+                    report.getSlowest(5).stream().map(r -> r.name + " " + r.writeTime / 1000000 + " ms")
+                        .collect(Collectors.joining(", ")) });
+            if (failures.isEmpty()) {
                 SaveRestoreService.LOGGER.log(Level.FINE, "Restored snapshot {0}: {1}.",
                     new Object[] { s.getSaveSet().getFullyQualifiedName(), s.getSnapshot().get() });
             } else {
-                Collections.sort(messages);
+                List<String> messages = failures.stream().map(Result::toString).sorted()
+                    .collect(Collectors.toList());
                 StringBuilder sb = new StringBuilder(messages.size() * 200);
                 messages.forEach(e -> sb.append(e).append('\n'));
                 SaveRestoreService.LOGGER.log(Level.WARNING,
@@ -936,9 +974,7 @@ public class SnapshotViewerController {
                     "There were some errors restoring the snapshot\n " + s.getSnapshot().get(), sb.toString());
             }
         } finally {
-            for (Map.Entry<PV, PVWriterListener<?>> e : restorablePVs.entrySet()) {
-                e.getKey().writer.removePVWriterListener(e.getValue());
-            }
+            channels.forEach(PVWriteChannel::dispose);
             resume();
         }
     }
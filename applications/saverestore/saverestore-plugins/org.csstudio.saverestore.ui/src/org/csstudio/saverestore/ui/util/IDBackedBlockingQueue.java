@@ -1,40 +1,66 @@
 /*
- * %W% %E% Copyright (c) 2006, Oracle and/or its affiliates. All rights reserved. ORACLE
- * PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ * This software is Copyright by the Board of Trustees of Michigan
+ * State University (c) Copyright 2016.
+ *
+ * Contact Information:
+ *   Facility for Rare Isotope Beam
+ *   Michigan State University
+ *   East Lansing, MI 48824-1321
+ *   http://frib.msu.edu
  */
 package org.csstudio.saverestore.ui.util;
 
 import java.util.AbstractQueue;
 import java.util.Collection;
-import java.util.ConcurrentModificationException;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * This class is a copy of {@link ArrayBlockingQueue} which works with {@link RunnableWithID}. The queue can contain
- * only one instance of the runnable with the same ID. If another instance is added which has the same ID, it will
- * replace the existing instance.
+ * <code>IDBackedBlockingQueue</code> is a bounded FIFO blocking queue which coalesces {@link RunnableWithID} instances.
+ * The queue can contain only one instance of the runnable with the same ID. If another instance is added which has the
+ * same ID, it replaces the existing instance at the position of the existing instance. Runnables which are not
+ * {@link RunnableWithID} are queued without coalescing.
+ * <p>
+ * The queued runnables are kept in a linked list and the runnables with ID are additionally indexed by their ID, so
+ * that insert, replace, take and remove by ID all take constant time regardless of the number of queued runnables.
+ * {@link #drainTo(Collection, int)} takes a batch of runnables under a single lock acquisition in time proportional to
+ * the size of the batch.
  *
  * @author <a href="mailto:jaka.bobnar@cosylab.com">Jaka Bobnar</a>
  */
 public final class IDBackedBlockingQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
 
-    /** The queued items */
-    private final RunnableWithID[] items;
-    /** items index for next take, poll or remove */
-    private int takeIndex;
-    /** items index for next put, offer, or add. */
-    private int putIndex;
-    /** Number of items in the queue */
+    /** Linked list node holding a queued runnable */
+    private static final class Node {
+        Runnable item;
+        final Integer id;
+        Node prev;
+        Node next;
+
+        Node(Runnable item, Integer id) {
+            this.item = item;
+            this.id = id;
+        }
+    }
+
+    /** The maximum number of runnables in the queue */
+    private final int capacity;
+    /** The queued runnables with ID, indexed by ID */
+    private final Map<Integer, Node> index = new HashMap<>();
+    /** Head of the queue; the next runnable to take */
+    private Node head;
+    /** Tail of the queue; the last added runnable */
+    private Node tail;
+    /** Number of runnables in the queue */
     private int count;
-    /*
-     * Concurrency control uses the classic two-condition algorithm found in any textbook.
-     */
+    /** Number of runnables that replaced a queued runnable with the same ID */
+    private long replaced;
     /** Main lock guarding all access */
     private final ReentrantLock lock;
     /** Condition for waiting takes */
@@ -42,76 +68,8 @@ public final class IDBackedBlockingQueue extends AbstractQueue<Runnable> impleme
     /** Condition for waiting puts */
     private final Condition notFull;
 
-    // Internal helper methods
-    /**
-     * Circularly increment i.
-     */
-    private final int inc(int i) {
-        return (i + 1 == items.length) ? 0 : i;
-    }
-
-    /**
-     * Inserts element at current put position, advances, and signals. Call only when holding lock.
-     */
-    private void insert(Runnable x) {
-        if (x instanceof RunnableWithID) {
-            RunnableWithID r = (RunnableWithID) x;
-            int id = r.getID();
-            for (int i = items.length - 1; i > -1; i--) {
-                if (items[i] == null)
-                    continue;
-                if (items[i].getID() == id) {
-                    items[i] = r;
-                    return;
-                }
-            }
-            items[putIndex] = r;
-            putIndex = inc(putIndex);
-            ++count;
-            notEmpty.signal();
-        }
-    }
-
     /**
-     * Extracts element at current take position, advances, and signals. Call only when holding lock.
-     */
-    private RunnableWithID extract() {
-        RunnableWithID x = items[takeIndex];
-        items[takeIndex] = null;
-        takeIndex = inc(takeIndex);
-        --count;
-        notFull.signal();
-        return x;
-    }
-
-    /**
-     * Utility for remove and iterator.remove: Delete item at position i. Call only when holding lock.
-     */
-    private void removeAt(int i) {
-        // if removing front item, just advance
-        if (i == takeIndex) {
-            items[takeIndex] = null;
-            takeIndex = inc(takeIndex);
-        } else {
-            // slide over all others up through putIndex.
-            for (;;) {
-                int nexti = inc(i);
-                if (nexti != putIndex) {
-                    items[i] = items[nexti];
-                    i = nexti;
-                } else {
-                    items[i] = null;
-                    putIndex = i;
-                    break;
-                }
-            }
-        }
-        --count;
-        notFull.signal();
-    }
-
-    /**
-     * Creates an <tt>ArrayBlockingQueue</tt> with the given (fixed) capacity and default access policy.
+     * Creates a queue with the given (fixed) capacity and default access policy.
      *
      * @param capacity the capacity of this queue
      * @throws IllegalArgumentException if <tt>capacity</tt> is less than 1
@@ -121,7 +79,7 @@ public final class IDBackedBlockingQueue extends AbstractQueue<Runnable> impleme
     }
 
     /**
-     * Creates an <tt>ArrayBlockingQueue</tt> with the given (fixed) capacity and the specified access policy.
+     * Creates a queue with the given (fixed) capacity and the specified access policy.
      *
      * @param capacity the capacity of this queue
      * @param fair if <tt>true</tt> then queue accesses for threads blocked on insertion or removal, are processed in
@@ -129,17 +87,18 @@ public final class IDBackedBlockingQueue extends AbstractQueue<Runnable> impleme
      * @throws IllegalArgumentException if <tt>capacity</tt> is less than 1
      */
     public IDBackedBlockingQueue(int capacity, boolean fair) {
-        if (capacity <= 0)
+        if (capacity <= 0) {
             throw new IllegalArgumentException();
-        items = new RunnableWithID[capacity];
+        }
+        this.capacity = capacity;
         lock = new ReentrantLock(fair);
         notEmpty = lock.newCondition();
         notFull = lock.newCondition();
     }
 
     /**
-     * Creates an <tt>ArrayBlockingQueue</tt> with the given (fixed) capacity, the specified access policy and initially
-     * containing the elements of the given collection, added in traversal order of the collection's iterator.
+     * Creates a queue with the given (fixed) capacity, the specified access policy and initially containing the
+     * elements of the given collection, added in traversal order of the collection's iterator.
      *
      * @param capacity the capacity of this queue
      * @param fair if <tt>true</tt> then queue accesses for threads blocked on insertion or removal, are processed in
@@ -150,32 +109,144 @@ public final class IDBackedBlockingQueue extends AbstractQueue<Runnable> impleme
      */
     public IDBackedBlockingQueue(int capacity, boolean fair, Collection<? extends RunnableWithID> c) {
         this(capacity, fair);
-        if (capacity < c.size())
+        if (capacity < c.size()) {
             throw new IllegalArgumentException();
-        for (Iterator<? extends RunnableWithID> it = c.iterator(); it.hasNext();)
-            add(it.next());
+        }
+        for (RunnableWithID r : c) {
+            add(r);
+        }
+    }
+
+    // Internal helper methods; call only when holding lock
+
+    /**
+     * Replaces the queued runnable with the same ID as the given runnable.
+     *
+     * @param x the runnable to insert
+     * @return true if the runnable replaced a queued one or false if there is no runnable with the same ID
+     */
+    private boolean replace(Runnable x) {
+        if (x instanceof RunnableWithID) {
+            Node node = index.get(((RunnableWithID) x).getID());
+            if (node != null) {
+                node.item = x;
+                replaced++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Appends the runnable at the tail of the queue and signals.
+     *
+     * @param x the runnable to insert
+     */
+    private void append(Runnable x) {
+        Node node;
+        if (x instanceof RunnableWithID) {
+            node = new Node(x, ((RunnableWithID) x).getID());
+            index.put(node.id, node);
+        } else {
+            node = new Node(x, null);
+        }
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.next = node;
+            node.prev = tail;
+        }
+        tail = node;
+        ++count;
+        notEmpty.signal();
+    }
+
+    /**
+     * Inserts the runnable if there is space or if it replaces a queued runnable.
+     *
+     * @param x the runnable to insert
+     * @return true if inserted or false if the queue is full
+     */
+    private boolean insert(Runnable x) {
+        if (replace(x)) {
+            return true;
+        } else if (count == capacity) {
+            return false;
+        }
+        append(x);
+        return true;
+    }
+
+    /**
+     * Removes the node from the queue.
+     *
+     * @param node the node to remove
+     */
+    private void unlink(Node node) {
+        if (node.prev == null) {
+            head = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        if (node.id != null) {
+            index.remove(node.id);
+        }
+        --count;
+    }
+
+    /**
+     * Extracts the runnable at the head of the queue and signals.
+     *
+     * @return the runnable
+     */
+    private Runnable extract() {
+        Node node = head;
+        unlink(node);
+        notFull.signal();
+        return node.item;
+    }
+
+    /**
+     * Finds the node that holds the given object.
+     *
+     * @param o the object to find
+     * @return the node or null if not found
+     */
+    private Node find(Object o) {
+        if (o instanceof RunnableWithID) {
+            Node node = index.get(((RunnableWithID) o).getID());
+            return node != null && o.equals(node.item) ? node : null;
+        }
+        for (Node node = head; node != null; node = node.next) {
+            if (o.equals(node.item)) {
+                return node;
+            }
+        }
+        return null;
     }
 
     /**
      * Inserts the specified element at the tail of this queue if it is possible to do so immediately without exceeding
-     * the queue's capacity, returning <tt>true</tt> upon success and <tt>false</tt> if this queue is full. This method
-     * is generally preferable to method {@link #add}, which can fail to insert an element only by throwing an
-     * exception.
+     * the queue's capacity, returning <tt>true</tt> upon success and <tt>false</tt> if this queue is full. If the
+     * element replaces a queued element with the same ID, the insert always succeeds.
      *
      * @throws NullPointerException if the specified element is null
      */
     @Override
     public boolean offer(Runnable e) {
-        if (e == null)
+        if (e == null) {
             throw new NullPointerException();
+        }
         lock.lock();
         try {
-            if (count == items.length)
-                return false;
-            else {
-                insert(e);
-                return true;
-            }
+            return insert(e);
         } finally {
             lock.unlock();
         }
@@ -190,18 +261,14 @@ public final class IDBackedBlockingQueue extends AbstractQueue<Runnable> impleme
      */
     @Override
     public void put(Runnable e) throws InterruptedException {
-        if (e == null)
+        if (e == null) {
             throw new NullPointerException();
+        }
         lock.lockInterruptibly();
         try {
-            try {
-                while (count == items.length)
-                    notFull.await();
-            } catch (InterruptedException ie) {
-                notFull.signal(); // propagate to non-interrupted thread
-                throw ie;
+            while (!insert(e)) {
+                notFull.await();
             }
-            insert(e);
         } finally {
             lock.unlock();
         }
@@ -216,25 +283,19 @@ public final class IDBackedBlockingQueue extends AbstractQueue<Runnable> impleme
      */
     @Override
     public boolean offer(Runnable e, long timeout, TimeUnit unit) throws InterruptedException {
-        if (e == null)
+        if (e == null) {
             throw new NullPointerException();
+        }
         long nanos = unit.toNanos(timeout);
         lock.lockInterruptibly();
         try {
-            for (;;) {
-                if (count != items.length) {
-                    insert(e);
-                    return true;
-                }
-                if (nanos <= 0)
+            while (!insert(e)) {
+                if (nanos <= 0) {
                     return false;
-                try {
-                    nanos = notFull.awaitNanos(nanos);
-                } catch (InterruptedException ie) {
-                    notFull.signal(); // propagate to non-interrupted thread
-                    throw ie;
                 }
+                nanos = notFull.awaitNanos(nanos);
             }
+            return true;
         } finally {
             lock.unlock();
         }
@@ -246,12 +307,10 @@ public final class IDBackedBlockingQueue extends AbstractQueue<Runnable> impleme
      * @see java.util.Queue#poll()
      */
     @Override
-    public RunnableWithID poll() {
+    public Runnable poll() {
         lock.lock();
         try {
-            if (count == 0)
-                return null;
-            return extract();
+            return count == 0 ? null : extract();
         } finally {
             lock.unlock();
         }
@@ -263,15 +322,11 @@ public final class IDBackedBlockingQueue extends AbstractQueue<Runnable> impleme
      * @see java.util.concurrent.BlockingQueue#take()
      */
     @Override
-    public RunnableWithID take() throws InterruptedException {
+    public Runnable take() throws InterruptedException {
         lock.lockInterruptibly();
         try {
-            try {
-                while (count == 0)
-                    notEmpty.await();
-            } catch (InterruptedException ie) {
-                notEmpty.signal(); // propagate to non-interrupted thread
-                throw ie;
+            while (count == 0) {
+                notEmpty.await();
             }
             return extract();
         } finally {
@@ -285,23 +340,17 @@ public final class IDBackedBlockingQueue extends AbstractQueue<Runnable> impleme
      * @see java.util.concurrent.BlockingQueue#poll(long, java.util.concurrent.TimeUnit)
      */
     @Override
-    public RunnableWithID poll(long timeout, TimeUnit unit) throws InterruptedException {
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
         long nanos = unit.toNanos(timeout);
         lock.lockInterruptibly();
         try {
-            for (;;) {
-                if (count != 0) {
-                    return extract();
-                }
-                if (nanos <= 0)
+            while (count == 0) {
+                if (nanos <= 0) {
                     return null;
-                try {
-                    nanos = notEmpty.awaitNanos(nanos);
-                } catch (InterruptedException ie) {
-                    notEmpty.signal(); // propagate to non-interrupted thread
-                    throw ie;
                 }
+                nanos = notEmpty.awaitNanos(nanos);
             }
+            return extract();
         } finally {
             lock.unlock();
         }
@@ -313,17 +362,15 @@ public final class IDBackedBlockingQueue extends AbstractQueue<Runnable> impleme
      * @see java.util.Queue#peek()
      */
     @Override
-    public RunnableWithID peek() {
+    public Runnable peek() {
         lock.lock();
         try {
-            return (count == 0) ? null : items[takeIndex];
+            return count == 0 ? null : head.item;
         } finally {
             lock.unlock();
         }
     }
 
-    // this doc comment is overridden to remove the reference to collections
-    // greater in size than Integer.MAX_VALUE
     /**
      * Returns the number of elements in this queue.
      *
@@ -339,91 +386,83 @@ public final class IDBackedBlockingQueue extends AbstractQueue<Runnable> impleme
         }
     }
 
-    // this doc comment is a modified copy of the inherited doc comment,
-    // without the reference to unlimited queues.
     /**
-     * Returns the number of additional elements that this queue can ideally (in the absence of memory or resource
-     * constraints) accept without blocking. This is always equal to the initial capacity of this queue less the current
-     * <tt>size</tt> of this queue.
-     * <p>
-     * Note that you <em>cannot</em> always tell if an attempt to insert an element will succeed by inspecting
-     * <tt>remainingCapacity</tt> because it may be the case that another thread is about to insert or remove an
-     * element.
+     * Returns the number of additional elements that this queue can accept without blocking. This is always equal to
+     * the capacity of this queue less the current <tt>size</tt> of this queue. Elements which replace a queued element
+     * with the same ID can always be accepted.
      */
     @Override
     public int remainingCapacity() {
         lock.lock();
         try {
-            return items.length - count;
+            return capacity - count;
         } finally {
             lock.unlock();
         }
     }
 
     /**
-     * Removes a single instance of the specified element from this queue, if it is present. More formally, removes an
-     * element <tt>e</tt> such that <tt>o.equals(e)</tt>, if this queue contains one or more such elements. Returns
-     * <tt>true</tt> if this queue contained the specified element (or equivalently, if this queue changed as a result
-     * of the call).
+     * Returns the number of elements that replaced a queued element with the same ID since this queue was created.
+     *
+     * @return the number of replaced elements
+     */
+    public long getReplacedCount() {
+        lock.lock();
+        try {
+            return replaced;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a single instance of the specified element from this queue, if it is present. Elements with ID are found
+     * by their ID in constant time.
      *
      * @param o element to be removed from this queue, if present
      * @return <tt>true</tt> if this queue changed as a result of the call
      */
     @Override
     public boolean remove(Object o) {
-        if (o == null)
+        if (o == null) {
             return false;
+        }
         lock.lock();
         try {
-            int i = takeIndex;
-            int k = 0;
-            for (;;) {
-                if (k++ >= count)
-                    return false;
-                if (o.equals(items[i])) {
-                    removeAt(i);
-                    return true;
-                }
-                i = inc(i);
+            Node node = find(o);
+            if (node == null) {
+                return false;
             }
+            unlink(node);
+            notFull.signal();
+            return true;
         } finally {
             lock.unlock();
         }
     }
 
     /**
-     * Returns <tt>true</tt> if this queue contains the specified element. More formally, returns <tt>true</tt> if and
-     * only if this queue contains at least one element <tt>e</tt> such that <tt>o.equals(e)</tt>.
+     * Returns <tt>true</tt> if this queue contains the specified element.
      *
      * @param o object to be checked for containment in this queue
      * @return <tt>true</tt> if this queue contains the specified element
      */
     @Override
     public boolean contains(Object o) {
-        if (o == null)
+        if (o == null) {
             return false;
+        }
         lock.lock();
         try {
-            int i = takeIndex;
-            int k = 0;
-            while (k++ < count) {
-                if (o.equals(items[i]))
-                    return true;
-                i = inc(i);
-            }
-            return false;
+            return find(o) != null;
         } finally {
             lock.unlock();
         }
     }
 
     /**
-     * Returns an array containing all of the elements in this queue, in proper sequence.
-     * <p>
-     * The returned array will be "safe" in that no references to it are maintained by this queue. (In other words, this
-     * method must allocate a new array). The caller is thus free to modify the returned array.
-     * <p>
-     * This method acts as bridge between array-based and collection-based APIs.
+     * Returns an array containing all of the elements in this queue, in proper sequence. The caller is free to modify
+     * the returned array.
      *
      * @return an array containing all of the elements in this queue
      */
@@ -433,10 +472,8 @@ public final class IDBackedBlockingQueue extends AbstractQueue<Runnable> impleme
         try {
             Object[] a = new Object[count];
             int k = 0;
-            int i = takeIndex;
-            while (k < count) {
-                a[k++] = items[i];
-                i = inc(i);
+            for (Node node = head; node != null; node = node.next) {
+                a[k++] = node.item;
             }
             return a;
         } finally {
@@ -448,23 +485,6 @@ public final class IDBackedBlockingQueue extends AbstractQueue<Runnable> impleme
      * Returns an array containing all of the elements in this queue, in proper sequence; the runtime type of the
      * returned array is that of the specified array. If the queue fits in the specified array, it is returned therein.
      * Otherwise, a new array is allocated with the runtime type of the specified array and the size of this queue.
-     * <p>
-     * If this queue fits in the specified array with room to spare (i.e., the array has more elements than this queue),
-     * the element in the array immediately following the end of the queue is set to <tt>null</tt>.
-     * <p>
-     * Like the {@link #toArray()} method, this method acts as bridge between array-based and collection-based APIs.
-     * Further, this method allows precise control over the runtime type of the output array, and may, under certain
-     * circumstances, be used to save allocation costs.
-     * <p>
-     * Suppose <tt>x</tt> is a queue known to contain only strings. The following code can be used to dump the queue
-     * into a newly allocated array of <tt>String</tt>:
-     *
-     * <pre>
-     *
-     * String[] y = x.toArray(new String[0]);
-     * </pre>
-     *
-     * Note that <tt>toArray(new Object[0])</tt> is identical in function to <tt>toArray()</tt>.
      *
      * @param a the array into which the elements of the queue are to be stored, if it is big enough; otherwise, a new
      *            array of the same runtime type is allocated for this purpose
@@ -478,17 +498,18 @@ public final class IDBackedBlockingQueue extends AbstractQueue<Runnable> impleme
     public <T> T[] toArray(T[] a) {
         lock.lock();
         try {
-            if (a.length < count)
-                a = (T[]) java.lang.reflect.Array.newInstance(a.getClass().getComponentType(), count);
+            T[] ret = a;
+            if (ret.length < count) {
+                ret = (T[]) java.lang.reflect.Array.newInstance(a.getClass().getComponentType(), count);
+            }
             int k = 0;
-            int i = takeIndex;
-            while (k < count) {
-                a[k++] = (T) items[i];
-                i = inc(i);
+            for (Node node = head; node != null; node = node.next) {
+                ret[k++] = (T) node.item;
             }
-            if (a.length > count)
-                a[count] = null;
-            return a;
+            if (ret.length > count) {
+                ret[count] = null;
+            }
+            return ret;
         } finally {
             lock.unlock();
         }
@@ -511,15 +532,10 @@ public final class IDBackedBlockingQueue extends AbstractQueue<Runnable> impleme
     public void clear() {
         lock.lock();
         try {
-            int i = takeIndex;
-            int k = count;
-            while (k-- > 0) {
-                items[i] = null;
-                i = inc(i);
-            }
+            head = null;
+            tail = null;
+            index.clear();
             count = 0;
-            putIndex = 0;
-            takeIndex = 0;
             notFull.signalAll();
         } finally {
             lock.unlock();
@@ -534,34 +550,14 @@ public final class IDBackedBlockingQueue extends AbstractQueue<Runnable> impleme
      */
     @Override
     public int drainTo(Collection<? super Runnable> c) {
-        if (c == null)
-            throw new NullPointerException();
-        if (c == this)
-            throw new IllegalArgumentException();
-        lock.lock();
-        try {
-            int i = takeIndex;
-            int n = 0;
-            int max = count;
-            while (n < max) {
-                c.add(items[i]);
-                items[i] = null;
-                i = inc(i);
-                ++n;
-            }
-            if (n > 0) {
-                count = 0;
-                putIndex = 0;
-                takeIndex = 0;
-                notFull.signalAll();
-            }
-            return n;
-        } finally {
-            lock.unlock();
-        }
+        return drainTo(c, Integer.MAX_VALUE);
     }
 
     /**
+     * Removes at most the given number of elements from the head of this queue and adds them to the given collection,
+     * in proper sequence. The whole batch is taken under a single lock acquisition, so that a burst of coalesced
+     * requests can be processed in one pass.
+     *
      * @throws UnsupportedOperationException {@inheritDoc}
      * @throws ClassCastException {@inheritDoc}
      * @throws NullPointerException {@inheritDoc}
@@ -569,26 +565,38 @@ public final class IDBackedBlockingQueue extends AbstractQueue<Runnable> impleme
      */
     @Override
     public int drainTo(Collection<? super Runnable> c, int maxElements) {
-        if (c == null)
+        if (c == null) {
             throw new NullPointerException();
-        if (c == this)
+        }
+        if (c == this) {
             throw new IllegalArgumentException();
-        if (maxElements <= 0)
+        }
+        if (maxElements <= 0) {
             return 0;
+        }
         lock.lock();
         try {
-            int i = takeIndex;
             int n = 0;
-            int max = (maxElements < count) ? maxElements : count;
-            while (n < max) {
-                c.add(items[i]);
-                items[i] = null;
-                i = inc(i);
+            Node node = head;
+            while (node != null && n < maxElements) {
+                c.add(node.item);
+                if (node.id != null) {
+                    index.remove(node.id);
+                }
+                Node next = node.next;
+                node.next = null;
+                if (next != null) {
+                    next.prev = null;
+                }
+                node = next;
                 ++n;
             }
             if (n > 0) {
+                head = node;
+                if (head == null) {
+                    tail = null;
+                }
                 count -= n;
-                takeIndex = i;
                 notFull.signalAll();
             }
             return n;
@@ -598,109 +606,50 @@ public final class IDBackedBlockingQueue extends AbstractQueue<Runnable> impleme
     }
 
     /**
-     * Returns an iterator over the elements in this queue in proper sequence. The returned <tt>Iterator</tt> is a
-     * "weakly consistent" iterator that will never throw {@link ConcurrentModificationException}, and guarantees to
-     * traverse elements as they existed upon construction of the iterator, and may (but is not guaranteed to) reflect
-     * any modifications subsequent to construction.
+     * Returns an iterator over the elements in this queue in proper sequence. The iterator traverses the elements as
+     * they existed upon construction of the iterator and does not reflect any subsequent modifications.
      *
      * @return an iterator over the elements in this queue in proper sequence
      */
     @Override
     public Iterator<Runnable> iterator() {
-        lock.lock();
-        try {
-            return new Itr();
-        } finally {
-            lock.unlock();
-        }
+        return new Itr(toArray());
     }
 
     /**
-     * Iterator for ArrayBlockingQueue
+     * Iterator over a snapshot of the queue. Removal removes the element from the queue if it is still queued.
      */
     private class Itr implements Iterator<Runnable> {
 
-        /**
-         * Index of element to be returned by next, or a negative number if no such.
-         */
+        private final Object[] items;
         private int nextIndex;
-        /**
-         * nextItem holds on to item fields because once we claim that an element exists in hasNext(), we must return it
-         * in the following next() call even if it was in the process of being removed when hasNext() was called.
-         */
-        private Runnable nextItem;
-        /**
-         * Index of element returned by most recent call to next. Reset to -1 if this element is deleted by a call to
-         * remove.
-         */
-        private int lastRet;
-
-        Itr() {
-            lastRet = -1;
-            if (count == 0)
-                nextIndex = -1;
-            else {
-                nextIndex = takeIndex;
-                nextItem = items[takeIndex];
-            }
+        private Runnable lastRet;
+
+        Itr(Object[] items) {
+            this.items = items;
         }
 
         @Override
         public boolean hasNext() {
-            /*
-             * No sync. We can return true by mistake here only if this iterator passed across threads, which we don't
-             * support anyway.
-             */
-            return nextIndex >= 0;
-        }
-
-        /**
-         * Checks whether nextIndex is valid; if so setting nextItem. Stops iterator when either hits putIndex or sees
-         * null item.
-         */
-        private void checkNext() {
-            if (nextIndex == putIndex) {
-                nextIndex = -1;
-                nextItem = null;
-            } else {
-                nextItem = items[nextIndex];
-                if (nextItem == null)
-                    nextIndex = -1;
-            }
+            return nextIndex < items.length;
         }
 
         @Override
         public Runnable next() {
-            lock.lock();
-            try {
-                if (nextIndex < 0)
-                    throw new NoSuchElementException();
-                lastRet = nextIndex;
-                Runnable x = nextItem;
-                nextIndex = inc(nextIndex);
-                checkNext();
-                return x;
-            } finally {
-                lock.unlock();
+            if (nextIndex >= items.length) {
+                throw new NoSuchElementException();
             }
+            lastRet = (Runnable) items[nextIndex++];
+            return lastRet;
         }
 
         @Override
         public void remove() {
-            lock.lock();
-            try {
-                int i = lastRet;
-                if (i == -1)
-                    throw new IllegalStateException();
-                lastRet = -1;
-                int ti = takeIndex;
-                removeAt(i);
-                // back up cursor (reset to front if was first element)
-                nextIndex = (i == ti) ? takeIndex : i;
-                checkNext();
-            } finally {
-                lock.unlock();
+            if (lastRet == null) {
+                throw new IllegalStateException();
             }
+            IDBackedBlockingQueue.this.remove(lastRet);
+            lastRet = null;
         }
     }
 }
@@ -0,0 +1,419 @@
+/*
+ * This software is Copyright by the Board of Trustees of Michigan
+ * State University (c) Copyright 2016.
+ *
+ * Contact Information:
+ *   Facility for Rare Isotope Beam
+ *   Michigan State University
+ *   East Lansing, MI 48824-1321
+ *   http://frib.msu.edu
+ */
+package org.csstudio.saverestore.ui.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ *
+ * <code>RestoreEngine</code> writes a set of values to their channels. The engine first requests the connection of all
+ * channels at once and then issues the writes group by group: all writes of one group are completed (or failed) before
+ * the writes of the next group are issued. Within a group at most the configured number of writes is outstanding at
+ * any time. Completions are collected through futures and the outcome and timing of each write is returned in a
+ * {@link Report}.
+ *
+ * @author <a href="mailto:jaka.bobnar@cosylab.com">Jaka Bobnar</a>
+ *
+ */
+public class RestoreEngine {
+
+    /** Error message reported for channels that did not connect in time */
+    public static final String NOT_CONNECTED = "Not connected";
+    /** Error message reported for writes that did not complete in time */
+    public static final String TIMEOUT = "Timeout";
+    /** Error message reported for writes that were not issued or completed because the restore was cancelled */
+    public static final String CANCELLED = "Cancelled";
+    /** Error message reported for writes which failed without providing a reason */
+    public static final String UNKNOWN_ERROR = "Unknown error";
+
+    // the interval at which the waiting threads check if the restore has been cancelled
+    private static final long CANCEL_CHECK_INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     *
+     * <code>WriteChannel</code> is the channel to which the engine writes a value. Both methods return futures, which
+     * complete when the channel is connected and when the write is completed respectively, or complete exceptionally
+     * if the connection or write failed. The methods are called from the thread that executes the restore and should
+     * not block.
+     *
+     * @author <a href="mailto:jaka.bobnar@cosylab.com">Jaka Bobnar</a>
+     *
+     */
+    public static interface WriteChannel {
+
+        /**
+         * Returns the name of this channel.
+         *
+         * @return the channel name
+         */
+        String getName();
+
+        /**
+         * Connects the channel if it is not connected yet.
+         *
+         * @return the future that completes when the channel is connected
+         */
+        CompletableFuture<?> connect();
+
+        /**
+         * Writes the value to the channel.
+         *
+         * @param value the value to write
+         * @return the future that completes when the value was written
+         */
+        CompletableFuture<?> write(Object value);
+    }
+
+    /**
+     *
+     * <code>WriteRequest</code> describes a single value to be written to a channel.
+     *
+     * @author <a href="mailto:jaka.bobnar@cosylab.com">Jaka Bobnar</a>
+     *
+     */
+    public static class WriteRequest {
+        /** The channel to write to */
+        public final WriteChannel channel;
+        /** The value to write */
+        public final Object value;
+
+        /**
+         * Constructs a new request.
+         *
+         * @param channel the channel to write to
+         * @param value the value to write
+         */
+        public WriteRequest(WriteChannel channel, Object value) {
+            this.channel = channel;
+            this.value = value;
+        }
+    }
+
+    /**
+     *
+     * <code>Result</code> is the outcome of a single write request.
+     *
+     * @author <a href="mailto:jaka.bobnar@cosylab.com">Jaka Bobnar</a>
+     *
+     */
+    public static class Result {
+        /** The name of the channel */
+        public final String name;
+        /** The group in which the channel was written */
+        public final int group;
+        /** Time in nanoseconds from the start of the restore until the channel was connected, or -1 */
+        public final long connectTime;
+        /** Time in nanoseconds from issuing the write until its completion, or -1 if the write was not issued */
+        public final long writeTime;
+        /** The error message or null if the write succeeded */
+        public final String error;
+
+        Result(String name, int group, long connectTime, long writeTime, String error) {
+            this.name = name;
+            this.group = group;
+            this.connectTime = connectTime;
+            this.writeTime = writeTime;
+            this.error = error;
+        }
+
+        /**
+         * Returns true if the value was successfully written or false otherwise.
+         *
+         * @return true if successful or false otherwise
+         */
+        public boolean isSuccessful() {
+            return error == null;
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+            return name + ": " + (error == null ? "OK" : error);
+        }
+    }
+
+    /**
+     *
+     * <code>Report</code> collects the results of all write requests of a single restore.
+     *
+     * @author <a href="mailto:jaka.bobnar@cosylab.com">Jaka Bobnar</a>
+     *
+     */
+    public static class Report {
+        /** Results of all requests in the order in which the requests were issued */
+        public final List<Result> results;
+        /** The duration of the restore in nanoseconds */
+        public final long duration;
+        /** True if the restore was cancelled */
+        public final boolean cancelled;
+
+        Report(List<Result> results, long duration, boolean cancelled) {
+            this.results = Collections.unmodifiableList(results);
+            this.duration = duration;
+            this.cancelled = cancelled;
+        }
+
+        /**
+         * Returns the results of all requests that were not successful.
+         *
+         * @return the list of failures
+         */
+        public List<Result> getFailures() {
+            return results.stream().filter(r -> !r.isSuccessful()).collect(Collectors.toList());
+        }
+
+        /**
+         * Returns the results of the successful writes, sorted by the write time, the slowest first.
+         *
+         * @param n the maximum number of results to return
+         * @return the slowest writes
+         */
+        public List<Result> getSlowest(int n) {
+            return results.stream().filter(Result::isSuccessful)
+                .sorted((a, b) -> Long.compare(b.writeTime, a.writeTime)).limit(n).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * The state of a single request during the restore.
+     */
+    private static class Task {
+        final WriteRequest request;
+        final int group;
+        CompletableFuture<?> connected;
+        volatile long connectTime = -1;
+        volatile long writeStart = -1;
+        private Result result;
+
+        Task(WriteRequest request, int group) {
+            this.request = request;
+            this.group = group;
+        }
+
+        synchronized void complete(long writeTime, String error) {
+            if (result == null) {
+                result = new Result(request.channel.getName(), group, connectTime, writeTime, error);
+            }
+        }
+
+        synchronized void complete(Throwable t) {
+            complete(System.nanoTime() - writeStart, t == null ? null : toMessage(t));
+        }
+
+        synchronized Result getResult() {
+            return result;
+        }
+    }
+
+    private final int parallelism;
+    private final long connectTimeout;
+    private final long timeout;
+
+    /**
+     * Constructs a new restore engine.
+     *
+     * @param parallelism the maximum number of writes that are outstanding at the same time
+     * @param connectTimeout the time in milliseconds to wait for the channels to connect, before the writes are
+     *            issued
+     * @param timeout the time in milliseconds in which the whole restore should complete
+     */
+    public RestoreEngine(int parallelism, long connectTimeout, long timeout) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be greater than 0.");
+        }
+        this.parallelism = parallelism;
+        this.connectTimeout = TimeUnit.MILLISECONDS.toNanos(connectTimeout);
+        this.timeout = TimeUnit.MILLISECONDS.toNanos(timeout);
+    }
+
+    /**
+     * Returns the maximum number of writes that are outstanding at the same time.
+     *
+     * @return the parallelism
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Restores the given groups of requests. The groups are restored in the given order, each group only after all
+     * writes of the previous group have completed. The method blocks until all writes are completed, the timeout
+     * expires or the restore is cancelled.
+     *
+     * @param groups the groups of requests
+     * @param cancelled supplier which returns true if the restore should be cancelled
+     * @return the report describing the outcome of every request
+     * @throws InterruptedException if the thread was interrupted while waiting for the writes to complete
+     */
+    public Report restore(List<List<WriteRequest>> groups, BooleanSupplier cancelled) throws InterruptedException {
+        final long start = System.nanoTime();
+        final long deadline = start + timeout;
+        List<Task> tasks = new ArrayList<>();
+        List<List<Task>> taskGroups = new ArrayList<>(groups.size());
+        List<CompletableFuture<?>> connections = new ArrayList<>();
+        for (int i = 0; i < groups.size(); i++) {
+            List<Task> group = new ArrayList<>(groups.get(i).size());
+            for (WriteRequest r : groups.get(i)) {
+                final Task task = new Task(r, i);
+                task.connected = call(() -> r.channel.connect());
+                task.connected.whenComplete((v, t) -> task.connectTime = System.nanoTime() - start);
+                connections.add(task.connected);
+                group.add(task);
+                tasks.add(task);
+            }
+            taskGroups.add(group);
+        }
+        await(CompletableFuture.allOf(connections.toArray(new CompletableFuture<?>[connections.size()])),
+            Math.min(deadline, start + connectTimeout), cancelled);
+
+        final Semaphore permits = new Semaphore(parallelism);
+        for (List<Task> group : taskGroups) {
+            List<CompletableFuture<?>> pending = new ArrayList<>(group.size());
+            for (Task task : group) {
+                if (cancelled.getAsBoolean()) {
+                    task.complete(-1, CANCELLED);
+                    continue;
+                }
+                if (!task.connected.isDone()) {
+                    task.complete(-1, NOT_CONNECTED);
+                    continue;
+                } else if (task.connected.isCompletedExceptionally()) {
+                    try {
+                        task.connected.get();
+                    } catch (ExecutionException e) {
+                        task.complete(-1, NOT_CONNECTED + " (" + toMessage(e) + ")");
+                    }
+                    continue;
+                }
+                if (!acquire(permits, deadline, cancelled)) {
+                    task.complete(-1, cancelled.getAsBoolean() ? CANCELLED : TIMEOUT);
+                    continue;
+                }
+                task.writeStart = System.nanoTime();
+                CompletableFuture<?> f = call(() -> task.request.channel.write(task.request.value))
+                    .whenComplete((v, t) -> {
+                        task.complete(t);
+                        permits.release();
+                    });
+                pending.add(f);
+            }
+            await(CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[pending.size()])), deadline,
+                cancelled);
+        }
+
+        boolean wasCancelled = cancelled.getAsBoolean();
+        List<Result> results = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            // the writes that are still outstanding timed out or were abandoned because of cancellation
+            task.complete(task.writeStart < 0 ? -1 : System.nanoTime() - task.writeStart,
+                wasCancelled ? CANCELLED : TIMEOUT);
+            results.add(task.getResult());
+        }
+        return new Report(results, System.nanoTime() - start, wasCancelled);
+    }
+
+    /**
+     * Splits the requests into ordering groups. The requests for channels matching the first pattern form the first
+     * group, the requests matching the second pattern (but not the first) form the second group, and so on. The
+     * requests that do not match any of the patterns form the last group. Empty groups are omitted and the order of
+     * requests within a group is preserved.
+     *
+     * @param requests the requests to split
+     * @param order the patterns defining the order of groups
+     * @return the list of groups
+     */
+    public static List<List<WriteRequest>> group(List<WriteRequest> requests, List<Pattern> order) {
+        List<List<WriteRequest>> groups = new ArrayList<>(order.size() + 1);
+        for (int i = 0; i <= order.size(); i++) {
+            groups.add(new ArrayList<>());
+        }
+        for (WriteRequest r : requests) {
+            String name = r.channel.getName();
+            int i = 0;
+            for (; i < order.size(); i++) {
+                if (order.get(i).matcher(name).matches()) {
+                    break;
+                }
+            }
+            groups.get(i).add(r);
+        }
+        groups.removeIf(List::isEmpty);
+        return groups;
+    }
+
+    private static CompletableFuture<?> call(Supplier<CompletableFuture<?>> supplier) {
+        try {
+            CompletableFuture<?> f = supplier.get();
+            return f == null ? CompletableFuture.completedFuture(null) : f;
+        } catch (RuntimeException e) {
+            CompletableFuture<?> f = new CompletableFuture<>();
+            f.completeExceptionally(e);
+            return f;
+        }
+    }
+
+    private static boolean acquire(Semaphore permits, long deadline, BooleanSupplier cancelled)
+        throws InterruptedException {
+        while (!cancelled.getAsBoolean()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            } else if (permits.tryAcquire(Math.min(remaining, CANCEL_CHECK_INTERVAL), TimeUnit.NANOSECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void await(CompletableFuture<?> future, long deadline, BooleanSupplier cancelled)
+        throws InterruptedException {
+        while (!cancelled.getAsBoolean()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            try {
+                future.get(Math.min(remaining, CANCEL_CHECK_INTERVAL), TimeUnit.NANOSECONDS);
+                return;
+            } catch (ExecutionException e) {
+                // individual failures are collected by the tasks
+                return;
+            } catch (TimeoutException e) {
+                // check the cancellation and the deadline
+            }
+        }
+    }
+
+    private static String toMessage(Throwable t) {
+        while ((t instanceof ExecutionException || t instanceof CompletionException)
+            && t.getCause() != null) {
+            t = t.getCause();
+        }
+        String message = t.getMessage();
+        return message == null || message.isEmpty() ? UNKNOWN_ERROR : message;
+    }
+}
@@ -13,6 +13,7 @@ package org.csstudio.saverestore;
 import org.eclipse.jface.preference.BooleanFieldEditor;
 import org.eclipse.jface.preference.FieldEditorPreferencePage;
 import org.eclipse.jface.preference.IntegerFieldEditor;
+import org.eclipse.jface.preference.StringFieldEditor;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.ui.IWorkbench;
 import org.eclipse.ui.IWorkbenchPreferencePage;
@@ -68,6 +69,28 @@ public class PreferencesPage extends FieldEditorPreferencePage implements IWorkb
                           + "they can be opened in a new editor or added as\n"
                           + "compared snapshots to the current editor");
         addField(newSnapshots);
+        IntegerFieldEditor parallelism = new IntegerFieldEditor(SaveRestoreService.PREF_RESTORE_PARALLELISM,
+            "Maximum number of simultaneous writes during restore", parent);
+        parallelism.setValidRange(1, 100000);
+        parallelism.getLabelControl(parent)
+            .setToolTipText("Set the maximum number of PV writes that are issued\n"
+                          + "and not yet completed at any time during restore.");
+        addField(parallelism);
+        IntegerFieldEditor timeout = new IntegerFieldEditor(SaveRestoreService.PREF_RESTORE_TIMEOUT,
+            "Restore timeout (seconds)", parent);
+        timeout.setValidRange(1, 3600);
+        timeout.getLabelControl(parent)
+            .setToolTipText("The PV writes that do not complete within this time\n"
+                          + "are reported as failed.");
+        addField(timeout);
+        StringFieldEditor order = new StringFieldEditor(SaveRestoreService.PREF_RESTORE_ORDER, "Restore order",
+            parent);
+        order.getLabelControl(parent)
+            .setToolTipText("Semicolon separated list of PV name patterns (regular\n"
+                          + "expressions). PVs matching the first pattern are restored\n"
+                          + "first, then PVs matching the second pattern and so on.\n"
+                          + "All other PVs are restored last.");
+        addField(order);
 
     }
 
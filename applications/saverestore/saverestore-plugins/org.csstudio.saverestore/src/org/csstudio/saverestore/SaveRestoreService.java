@@ -28,6 +28,8 @@ import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import org.csstudio.ui.fx.util.FXMessageDialog;
 import org.eclipse.core.runtime.CoreException;
@@ -59,6 +61,12 @@ public class SaveRestoreService {
     public static final String PREF_NUMBER_OF_SNAPSHOTS = "maxNumberOfSnapshotsInBatch";
     /** Property that defines if new snapshots should be open in compare mode or in a separate editor */
     public static final String PREF_OPEN_NEW_SNAPSHOTS_IN_COMPARE_VIEW = "openNewSnapshotsInCompareView";
+    /** Property that defines the maximum number of PV writes that are outstanding at the same time during restore */
+    public static final String PREF_RESTORE_PARALLELISM = "restoreParallelism";
+    /** Property that defines the time in seconds in which the restore of a snapshot should complete */
+    public static final String PREF_RESTORE_TIMEOUT = "restoreTimeout";
+    /** Property that defines the semicolon separated PV name patterns, which define the order of restore */
+    public static final String PREF_RESTORE_ORDER = "restoreOrder";
     /** Plug-in ID */
     public static final String PLUGIN_ID = "org.csstudio.saverestore";
     /** The common logger */
@@ -423,6 +431,67 @@ public class SaveRestoreService {
         }
     }
 
+    /**
+     * Returns the maximum number of PV writes that are issued and not yet completed at any time during the restore of
+     * a snapshot.
+     *
+     * @return the maximum number of outstanding writes
+     */
+    public int getRestoreParallelism() {
+        try {
+            int num = getPreferences().getInt(PREF_RESTORE_PARALLELISM);
+            return num < 1 ? 100 : num;
+        } catch (RuntimeException e) {
+            return 100;
+        }
+    }
+
+    /**
+     * Returns the time in seconds within which the restore of a snapshot should complete. The writes that did not
+     * complete within this time are reported as failed.
+     *
+     * @return the restore timeout in seconds
+     */
+    public int getRestoreTimeout() {
+        try {
+            int num = getPreferences().getInt(PREF_RESTORE_TIMEOUT);
+            return num < 1 ? 30 : num;
+        } catch (RuntimeException e) {
+            return 30;
+        }
+    }
+
+    /**
+     * Returns the list of patterns which define the order in which the PVs are restored. PVs matching the first pattern
+     * are restored first, PVs matching the second pattern are restored when all writes of the first group completed
+     * and so on. PVs that do not match any pattern are restored last. Invalid patterns are ignored.
+     *
+     * @return the list of patterns defining the restore order
+     */
+    public List<Pattern> getRestoreOrder() {
+        String order;
+        try {
+            order = getPreferences().getString(PREF_RESTORE_ORDER);
+        } catch (RuntimeException e) {
+            return new ArrayList<>(0);
+        }
+        List<Pattern> patterns = new ArrayList<>();
+        if (order != null) {
+            for (String s : order.split(";")) {
+                s = s.trim();
+                if (s.isEmpty()) {
+                    continue;
+                }
+                try {
+                    patterns.add(Pattern.compile(s));
+                } catch (PatternSyntaxException e) {
+                    LOGGER.log(Level.WARNING, "Invalid restore order pattern " + s + ".", e);
+                }
+            }
+        }
+        return patterns;
+    }
+
     /**
      * Returns the preference store for this plugin.
      *
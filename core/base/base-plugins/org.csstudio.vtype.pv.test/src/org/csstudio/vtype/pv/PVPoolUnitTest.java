@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.vtype.pv;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/** JUnit test of the {@link PVPool}
+ *
+ *  <p>Uses a PV factory that is slow to create PVs.
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class PVPoolUnitTest
+{
+    private static final long CREATION_MILLIS = 500;
+
+    /** Number of created PVs */
+    final private static AtomicInteger created = new AtomicInteger();
+
+    private static class SlowPV extends PV
+    {
+        SlowPV(final String name)
+        {
+            super(name);
+        }
+
+        @Override
+        public void write(final Object new_value) throws Exception
+        {
+            throw new Exception("Read-only");
+        }
+    }
+
+    private static class SlowPVFactory implements PVFactory
+    {
+        @Override
+        public String getType()
+        {
+            return "slow";
+        }
+
+        @Override
+        public PV createPV(final String name, final String base_name) throws Exception
+        {
+            if (! base_name.startsWith("fast"))
+                Thread.sleep(CREATION_MILLIS);
+            if (base_name.startsWith("bad"))
+                throw new Exception("Cannot create " + name);
+            created.incrementAndGet();
+            return new SlowPV(name);
+        }
+    }
+
+    @Before
+    public void setup()
+    {
+        created.set(0);
+        PVPool.addPVFactory(new SlowPVFactory());
+    }
+
+    @After
+    public void shutdown()
+    {
+        assertThat(PVPool.getPVReferences().size(), equalTo(0));
+    }
+
+    /** Concurrent requests for the same PV share one creation */
+    @Test
+    public void testSameName() throws Exception
+    {
+        final ExecutorService pool = Executors.newFixedThreadPool(10);
+        final List<Future<PV>> results = new ArrayList<>();
+        for (int i=0; i<10; ++i)
+            results.add(pool.submit(() -> PVPool.getPV("slow://same")));
+        final List<PV> pvs = new ArrayList<>();
+        for (Future<PV> result : results)
+            pvs.add(result.get());
+        pool.shutdown();
+
+        assertThat(created.get(), equalTo(1));
+        for (PV pv : pvs)
+            assertThat(pv, sameInstance(pvs.get(0)));
+        assertThat(PVPool.getPVReferences().iterator().next().getReferences(), equalTo(10));
+
+        for (PV pv : pvs)
+            PVPool.releasePV(pv);
+    }
+
+    /** Slow creation of one PV does not block others */
+    @Test
+    public void testOtherNames() throws Exception
+    {
+        final ExecutorService pool = Executors.newSingleThreadExecutor();
+        final Future<PV> slow = pool.submit(() -> PVPool.getPV("slow://a"));
+        Thread.sleep(CREATION_MILLIS / 5);
+        final long start = System.currentTimeMillis();
+        PVPool.releasePV(PVPool.getPV("slow://fast"));
+        assertThat(System.currentTimeMillis() - start < CREATION_MILLIS / 2, equalTo(true));
+        assertThat(slow.isDone(), equalTo(false));
+        PVPool.releasePV(slow.get());
+        pool.shutdown();
+    }
+
+    /** PVs are created in parallel */
+    @Test
+    public void testGetPVs() throws Exception
+    {
+        final List<String> names = Arrays.asList("slow://x", "slow://y", "slow://z", "slow://x");
+        final long start = System.currentTimeMillis();
+        final List<PV> pvs = PVPool.getPVs(names);
+        final long millis = System.currentTimeMillis() - start;
+        System.out.println("Created " + created.get() + " PVs in " + millis + " ms");
+
+        assertThat(millis < 3 * CREATION_MILLIS, equalTo(true));
+        assertThat(created.get(), equalTo(3));
+        assertThat(pvs.size(), equalTo(4));
+        for (int i=0; i<names.size(); ++i)
+            assertThat(pvs.get(i).getName(), equalTo(names.get(i)));
+        assertThat(pvs.get(3), sameInstance(pvs.get(0)));
+
+        for (PV pv : pvs)
+            PVPool.releasePV(pv);
+    }
+
+    /** Error in one PV releases the others */
+    @Test
+    public void testGetPVsError() throws Exception
+    {
+        try
+        {
+            PVPool.getPVs(Arrays.asList("slow://x", "slow://bad", "slow://y"));
+            fail("Created bad PV");
+        }
+        catch (Exception ex)
+        {
+            assertThat(ex.getMessage(), equalTo("Cannot create slow://bad"));
+        }
+        // PVs that were still being created are released when done
+        for (int wait=0; wait<20  &&  ! PVPool.getPVReferences().isEmpty(); ++wait)
+            Thread.sleep(100);
+    }
+}
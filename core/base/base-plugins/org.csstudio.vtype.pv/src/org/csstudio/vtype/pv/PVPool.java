@@ -7,12 +7,22 @@
  ******************************************************************************/
 package org.csstudio.vtype.pv;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.csstudio.vtype.pv.RefCountMap.ReferencedEntry;
+import org.csstudio.vtype.pv.internal.Preferences;
 
 /** Pool of {@link PV}s
  *
@@ -36,6 +46,11 @@ import org.csstudio.vtype.pv.RefCountMap.ReferencedEntry;
  *  <p>Note also that "loc://x(3.14)" and "loc://x(14)" will be treated
  *  as different PVs.
  *
+ *  <p>The pool is thread-safe without a global lock.
+ *  PVs are created outside of any lock, so slow PV creation
+ *  does not delay threads that access other PVs.
+ *  Threads that concurrently request the same new PV wait for one creation.
+ *
  *  @author Kay Kasemir
  */
 @SuppressWarnings("nls")
@@ -50,17 +65,38 @@ public class PVPool
     final public static String SEPARATOR = "://";
 
     /** Map of PV type prefixes to PV factories */
-    final private static Map<String, PVFactory> factories = new HashMap<>();
+    final private static Map<String, PVFactory> factories = new ConcurrentHashMap<>();
 
     /** Default PV name type prefix */
     private static String default_type;
 
-    /** PV Pool
-     *  SYNC on 'pool':
-     *  Otherwise, two threads concurrently looking for a new PV would both add it.
-     */
+    /** PV Pool */
     final private static RefCountMap<String, PV> pool = new RefCountMap<>();
 
+    /** PVs that are being created, by requested name.
+     *  Threads that request a PV which is being created wait for it
+     *  instead of creating it again.
+     */
+    final private static Map<String, CompletableFuture<PV>> creations = new ConcurrentHashMap<>();
+
+    /** Threads for creating PVs in parallel */
+    final private static ExecutorService creator = Executors.newFixedThreadPool(Preferences.getCreationThreads(),
+        new CreatorThreadFactory());
+
+    /** Thread factory for daemon threads named "PVPool-n" */
+    private static class CreatorThreadFactory implements ThreadFactory
+    {
+        final private AtomicInteger instance = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable)
+        {
+            final Thread thread = new Thread(runnable, "PVPool-" + instance.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
     /** Singleton */
     private PVPool()
     {
@@ -121,21 +157,118 @@ public class PVPool
      */
     public static PV getPV(final String name) throws Exception
     {
-        PV pv;
-        synchronized (pool)
-        {   // Try to locate PV in pool
-            pv = pool.get(name);
-            if (pv == null)
+        while (true)
+        {
+            // Try to locate PV in pool
+            PV pv = pool.get(name);
+            if (pv != null)
+                return pv;
+
+            final CompletableFuture<PV> creation = new CompletableFuture<>();
+            final CompletableFuture<PV> pending = creations.putIfAbsent(name, creation);
+            if (pending == null)
+            {   // This thread creates the PV
+                try
+                {
+                    pv = createPV(name);
+                    // Actual name may differ from the provided name.
+                    // For example, "loc://x(2)", "loc://x" and "loc://x<VDouble>(4)"
+                    // will be the same PV "loc://x" in the pool.
+                    final PV pooled = pool.addReference(pv.getName(), pv);
+                    if (pooled != pv)
+                    {   // Another thread added the PV while this one was created
+                        pv.close();
+                        pv = pooled;
+                    }
+                    creation.complete(pv);
+                    return pv;
+                }
+                catch (Exception ex)
+                {
+                    creation.completeExceptionally(ex);
+                    throw ex;
+                }
+                finally
+                {
+                    creations.remove(name, creation);
+                }
+            }
+
+            // Wait for the PV that another thread creates
+            try
+            {
+                pv = pending.get();
+            }
+            catch (ExecutionException ex)
             {
-                pv = createPV(name);
-                // Actual name may differ from the provided name.
-                // For example, "loc://x(2)", "loc://x" and "loc://x<VDouble>(4)"
-                // will be the same PV "loc://x" in the pool.
-                if (pool.get(pv.getName()) == null) // Increment reference?
-                    pool.put(pv.getName(), pv);     // Add new PV
+                if (ex.getCause() instanceof Exception)
+                    throw (Exception) ex.getCause();
+                throw ex;
             }
+            // Add reference, unless it has already been released,
+            // in which case the loop creates it again
+            pv = pool.get(pv.getName());
+            if (pv != null)
+                return pv;
         }
-        return pv;
+    }
+
+    /** Obtain several PVs
+     *
+     *  <p>PVs that are not already in the pool are created in parallel.
+     *  If any PV cannot be created, none are obtained.
+     *
+     *  @param names PV names
+     *  @return {@link PV}s, in the order of the names
+     *  @throws Exception on error
+     *  @see #getPV(String)
+     */
+    public static List<PV> getPVs(final Collection<String> names) throws Exception
+    {
+        final List<CompletableFuture<PV>> futures = new ArrayList<>(names.size());
+        for (String name : names)
+            futures.add(CompletableFuture.supplyAsync(() ->
+            {
+                try
+                {
+                    return getPV(name);
+                }
+                catch (Exception ex)
+                {
+                    throw new CompletionException(ex);
+                }
+            }, creator));
+
+        final List<PV> pvs = new ArrayList<>(names.size());
+        Exception error = null;
+        for (CompletableFuture<PV> future : futures)
+        {
+            if (error != null)
+            {   // Release PVs that are still being created
+                future.thenAccept(PVPool::releasePV);
+                continue;
+            }
+            try
+            {
+                pvs.add(future.get());
+            }
+            catch (ExecutionException ex)
+            {
+                error = ex.getCause() instanceof Exception ? (Exception) ex.getCause() : ex;
+            }
+            catch (InterruptedException ex)
+            {
+                error = ex;
+                future.thenAccept(PVPool::releasePV);
+            }
+        }
+        if (error != null)
+        {
+            for (PV pv : pvs)
+                releasePV(pv);
+            throw error;
+        }
+        return pvs;
     }
 
     /** Create
@@ -177,11 +310,7 @@ public class PVPool
     /** @param pv PV to be released */
     public static void releasePV(final PV pv)
     {
-        final int references;
-        synchronized (pool)
-        {
-            references = pool.release(pv.getName());
-        }
+        final int references = pool.release(pv.getName());
         if (references == 0)
             pv.close();
     }
@@ -189,9 +318,6 @@ public class PVPool
     /** @return PVs currently in the pool with reference count information */
     public static Collection<ReferencedEntry<PV>> getPVReferences()
     {
-        synchronized (pool)
-        {
-            return pool.getEntries();
-        }
+        return pool.getEntries();
     }
 }
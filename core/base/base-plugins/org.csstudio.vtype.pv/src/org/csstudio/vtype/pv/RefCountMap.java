@@ -9,14 +9,15 @@ package org.csstudio.vtype.pv;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /** Map that keeps reference count for its objects
  *
- *  <p>Caller may need to synchronize calls to this map,
- *  because there is no atomic operation to check if an item exists,
- *  and if not, create and add it to the map.
+ *  <p>Thread-safe.
+ *  Getting, adding and releasing an item are atomic for each key,
+ *  so callers do not need to synchronize.
+ *  To check if an item exists and if not add it, use
+ *  {@link #addReference(Object, Object)}.
  *
  *  @param <K> Key data type
  *  @param <E> Entry data type
@@ -29,7 +30,9 @@ public class RefCountMap<K, E>
     public static class ReferencedEntry<E>
     {
         final private E entry;
-        private int references = 1;
+
+        /** Reference count. Only modified while map computes the key */
+        private volatile int references = 1;
 
         ReferencedEntry(E entry)
         {
@@ -65,7 +68,7 @@ public class RefCountMap<K, E>
         }
     }
 
-    final private Map<K, ReferencedEntry<E>> map = new HashMap<>();
+    final private ConcurrentHashMap<K, ReferencedEntry<E>> map = new ConcurrentHashMap<>();
 
     /** Get an item.
      *  On success, a reference count is added to the item.
@@ -74,11 +77,12 @@ public class RefCountMap<K, E>
      */
     public E get(final K key)
     {
-        final ReferencedEntry<E> entry = map.get(key);
-        if (entry == null)
-            return null;
-        entry.addRef();
-        return entry.getEntry();
+        final ReferencedEntry<E> entry = map.computeIfPresent(key, (k, existing) ->
+        {
+            existing.addRef();
+            return existing;
+        });
+        return entry == null ? null : entry.getEntry();
     }
 
     /** Add item to map with initial reference count of 1
@@ -87,9 +91,24 @@ public class RefCountMap<K, E>
      */
     public void put(final K key, final E entry)
     {
-        if (map.containsKey(key))
+        if (map.putIfAbsent(key, new ReferencedEntry<E>(entry)) != null)
             throw new IllegalStateException("Already referenced " + key);
-        map.put(key,  new ReferencedEntry<E>(entry));
+    }
+
+    /** Add reference to an item, adding it if there is none
+     *  @param key Item key
+     *  @param entry The item to add if the map does not already hold an item for the key
+     *  @return Item in the map, which may be an existing one and not the provided <code>entry</code>
+     */
+    public E addReference(final K key, final E entry)
+    {
+        return map.compute(key, (k, existing) ->
+        {
+            if (existing == null)
+                return new ReferencedEntry<E>(entry);
+            existing.addRef();
+            return existing;
+        }).getEntry();
     }
 
     /** Release an item from the map
@@ -98,13 +117,15 @@ public class RefCountMap<K, E>
      */
     public int release(final K key)
     {
-        final ReferencedEntry<E> entry = map.get(key);
-        if (entry == null)
-            throw new IllegalStateException("No reference found for " + key);
-        final int remaining = entry.decRef();
-        if (remaining <= 0)
-            map.remove(key);
-        return remaining;
+        final int[] remaining = new int[1];
+        map.compute(key, (k, entry) ->
+        {
+            if (entry == null)
+                throw new IllegalStateException("No reference found for " + key);
+            remaining[0] = entry.decRef();
+            return remaining[0] <= 0 ? null : entry;
+        });
+        return remaining[0];
     }
 
     /** @return Entries in map */
@@ -33,6 +33,14 @@ public class Preferences
 
     }
 
+    public static int getCreationThreads()
+    {
+        final IPreferencesService service = Platform.getPreferencesService();
+        if (service == null)
+            return 8;
+        return service.getInt(PVPlugin.ID, "creation_threads", 8, null);
+    }
+
     public static String getMQTTBroker()
     {
         return getString(PVPlugin.ID, "mqtt_broker", MQTT_PVFactory.BROKER_URL);
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.platform.utility.rdb;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/** JUnit test of the {@link RDBConnectionPool}
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class RDBConnectionPoolIT
+{
+    @Test
+    public void testThreadAffinity() throws Exception
+    {
+        final RDBConnectionPool pool = new RDBConnectionPool(TestSetup.URL, null, null, 2);
+        try
+        {
+            final Connection connection = pool.getConnection();
+            assertThat(connection, notNullValue());
+            // Same thread gets same connection
+            assertThat(pool.getConnection(), sameInstance(connection));
+            pool.releaseConnection();
+
+            // .. and again after releasing it
+            assertThat(pool.getConnection(), sameInstance(connection));
+
+            // Closed connection is replaced
+            connection.close();
+            final Connection connection2 = pool.getConnection();
+            assertThat(connection2, not(sameInstance(connection)));
+            pool.releaseConnection();
+            System.out.println(pool.getStatistics());
+        }
+        finally
+        {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testConcurrentQueries() throws Exception
+    {
+        final int size = 4;
+        final RDBUtil rdb = RDBUtil.connectPool(TestSetup.URL, null, null, size);
+        rdb.setValidationPeriod(1, TimeUnit.SECONDS);
+        final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+        final ExecutorService pool = Executors.newFixedThreadPool(2*size);
+        try
+        {
+            final List<Future<Integer>> results = new ArrayList<>();
+            for (int i=0; i<100; ++i)
+                results.add(pool.submit(() ->
+                {
+                    final Connection connection = rdb.getConnection();
+                    connections.add(connection);
+                    try
+                    (
+                        final Statement statement = connection.createStatement();
+                        final ResultSet result = statement.executeQuery("SELECT 1");
+                    )
+                    {
+                        result.next();
+                        return result.getInt(1);
+                    }
+                    finally
+                    {
+                        rdb.releaseConnection();
+                    }
+                }));
+            for (Future<Integer> result : results)
+                assertThat(result.get(), equalTo(1));
+            System.out.println(rdb.getConnectionPool().getStatistics());
+            assertThat(connections.size() <= size, equalTo(true));
+        }
+        finally
+        {
+            pool.shutdown();
+            rdb.close();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.platform.utility.rdb;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.csstudio.platform.utility.rdb.RDBUtil.Dialect;
+import org.csstudio.platform.utility.rdb.internal.RDBImpl;
+import org.junit.Test;
+
+/** JUnit test of the {@link RDBConnectionPool} without a database
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class RDBConnectionPoolUnitTest
+{
+    /** RDB 'implementation' that creates dummy connections, or fails */
+    private static class DemoRDB implements RDBImpl
+    {
+        final AtomicBoolean fail = new AtomicBoolean();
+        final AtomicInteger connects = new AtomicInteger();
+
+        @Override
+        public Dialect getDialect()
+        {
+            return Dialect.MySQL;
+        }
+
+        @Override
+        public Connection connect(final String url, final String user, final String password) throws Exception
+        {
+            if (fail.get())
+                throw new Exception("Cannot connect");
+            connects.incrementAndGet();
+            final AtomicBoolean closed = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                (proxy, method, args) ->
+                {
+                    switch (method.getName())
+                    {
+                    case "close":
+                        closed.set(true);
+                        return null;
+                    case "isClosed":
+                        return closed.get();
+                    case "getAutoCommit":
+                        return true;
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        return null;
+                    }
+                });
+        }
+
+        @Override
+        public String getConnectionTestQuery()
+        {
+            return "SELECT 1";
+        }
+    }
+
+    @Test
+    public void testFailedReplacement() throws Exception
+    {
+        final DemoRDB rdb = new DemoRDB();
+        final RDBConnectionPool pool = new RDBConnectionPool(rdb, "demo", null, null, 1);
+        pool.setTimeout(100, TimeUnit.MILLISECONDS);
+
+        // Connection of this thread breaks, and so does the reconnect
+        final Connection connection = pool.getConnection();
+        connection.close();
+        rdb.fail.set(true);
+        try
+        {
+            pool.getConnection();
+            fail("Obtained connection while RDB fails");
+        }
+        catch (Exception ex)
+        {
+            assertThat(ex.getMessage(), equalTo("Cannot connect"));
+        }
+        System.out.println(pool.getStatistics());
+        assertThat(pool.getStatistics(), containsString("0 open"));
+
+        // Once the RDB can be reached again, the only slot of the pool is available
+        rdb.fail.set(false);
+        final Connection connection2 = pool.getConnection();
+        assertThat(connection2, not(sameInstance(connection)));
+        pool.releaseConnection();
+        assertThat(pool.getStatistics(), containsString("1 open, 1 idle"));
+        pool.close();
+    }
+
+    @Test
+    public void testReleaseThread() throws Exception
+    {
+        final DemoRDB rdb = new DemoRDB();
+        final RDBConnectionPool pool = new RDBConnectionPool(rdb, "demo", null, null, 2);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            final Connection connection = executor.submit(() ->
+            {
+                final Connection c = pool.getConnection();
+                pool.releaseThread();
+                return c;
+            }).get();
+            assertThat(pool.getStatistics(), containsString("1 open, 1 idle"));
+
+            // Other thread obtains the released connection
+            assertThat(pool.getConnection(), sameInstance(connection));
+            pool.releaseThread();
+            assertThat(rdb.connects.get(), equalTo(1));
+        }
+        finally
+        {
+            executor.shutdown();
+            pool.close();
+        }
+        assertThat(pool.getStatistics(), containsString("0 open, 0 idle"));
+    }
+}
@@ -0,0 +1,473 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.platform.utility.rdb;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+import org.csstudio.platform.utility.rdb.RDBUtil.Dialect;
+import org.csstudio.platform.utility.rdb.internal.RDBImpl;
+
+/** Pool of database (RDB) connections
+ *
+ *  <p>Provides up to a fixed number of connections
+ *  so that several threads can execute statements concurrently.
+ *
+ *  <p>Each thread holds at most one connection:
+ *  Calling <code>getConnection()</code> again from the same thread
+ *  returns the same connection until the thread calls
+ *  <code>releaseConnection()</code>.
+ *  When the thread later needs a connection again,
+ *  the pool prefers the connection that this thread used before.
+ *  When all connections are in use, <code>getConnection()</code> waits.
+ *
+ *  <p>Threads that are re-used for other work, for example
+ *  the threads of an executor, call <code>releaseThread()</code>
+ *  when done with the pool.
+ *
+ *  <p>Connections are validated lazily:
+ *  Instead of testing the connection each time it is handed out,
+ *  it is only tested with a simple query once the validation period
+ *  has passed since it was last tested,
+ *  and replaced by a new connection if the test fails.
+ *
+ *  <p>Released connections must be in auto-commit mode,
+ *  which is the default.
+ *
+ *  @author Kay Kasemir
+ */
+@SuppressWarnings("nls")
+public class RDBConnectionPool
+{
+    /** Default period after which a connection is validated again */
+    final public static long DEFAULT_VALIDATION_SECONDS = 10;
+
+    /** Default time to wait for a connection */
+    final public static long DEFAULT_TIMEOUT_SECONDS = 60;
+
+    /** RDB Implementation (Oracle, MySQL, PostgreSQL) */
+    final private RDBImpl impl;
+
+    /** Database URL */
+    final private String url;
+
+    /** Database User */
+    final private String user;
+
+    /** Database Password */
+    final private String password;
+
+    /** Maximum number of connections */
+    final private int size;
+
+    /** Connection in the pool */
+    private static class Entry
+    {
+        /** JDBC connection */
+        final Connection connection;
+
+        /** Time in nanoseconds when the connection was last known to work */
+        long validated;
+
+        Entry(final Connection connection)
+        {
+            this.connection = connection;
+            validated = System.nanoTime();
+        }
+    }
+
+    /** Idle connections, most recently used first.
+     *  Also used to synchronize access to pool state.
+     */
+    final private Deque<Entry> idle = new ArrayDeque<>();
+
+    /** Number of open connections, idle or in use. SYNC on idle */
+    private int open = 0;
+
+    /** Has the pool been closed? SYNC on idle */
+    private boolean closed = false;
+
+    /** Connection held by a thread */
+    final private ThreadLocal<Entry> held = new ThreadLocal<>();
+
+    /** Connection last used by a thread */
+    final private ThreadLocal<Entry> last = new ThreadLocal<>();
+
+    /** Period in nanoseconds after which a connection is validated again */
+    private volatile long validation_nanos = TimeUnit.SECONDS.toNanos(DEFAULT_VALIDATION_SECONDS);
+
+    /** Time in nanoseconds to wait for a connection */
+    private volatile long timeout_nanos = TimeUnit.SECONDS.toNanos(DEFAULT_TIMEOUT_SECONDS);
+
+    // Metrics
+    final private AtomicLong borrowed = new AtomicLong();
+    final private AtomicLong waited = new AtomicLong();
+    final private AtomicLong wait_nanos = new AtomicLong();
+    final private AtomicLong validations = new AtomicLong();
+    final private AtomicLong validation_failures = new AtomicLong();
+
+    /** Initialize
+     *
+     *  <p>URL format depends on the database dialect,
+     *  see {@link RDBUtil#connect(String, String, String, boolean)}.
+     *  Connections are created as needed.
+     *
+     *  @param url Database URL
+     *  @param user User name or <code>null</code> if part of URL
+     *  @param password Password or <code>null</code> if part of URL
+     *  @param size Maximum number of connections
+     *  @throws Exception on error
+     */
+    public RDBConnectionPool(final String url,
+            final String user,
+            final String password,
+            final int size) throws Exception
+    {
+        this(RDBUtil.getRDBImpl(url), url, user, password, size);
+    }
+
+    /** Initialize
+     *  @param impl RDB Implementation
+     *  @param url Database URL
+     *  @param user User name or <code>null</code> if part of URL
+     *  @param password Password or <code>null</code> if part of URL
+     *  @param size Maximum number of connections
+     */
+    RDBConnectionPool(final RDBImpl impl,
+            final String url,
+            final String user,
+            final String password,
+            final int size)
+    {
+        if (size < 1)
+            throw new IllegalArgumentException("Pool size must be at least 1, got " + size);
+        this.impl = impl;
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.size = size;
+    }
+
+    /** @return Dialect info. */
+    public Dialect getDialect()
+    {
+        return impl.getDialect();
+    }
+
+    /** @return Maximum number of connections */
+    public int getSize()
+    {
+        return size;
+    }
+
+    /** @param duration Period after which a connection is validated again before use
+     *  @param units Units of the duration
+     */
+    public void setValidationPeriod(final long duration, final TimeUnit units)
+    {
+        validation_nanos = units.toNanos(duration);
+    }
+
+    /** @param duration Time to wait for a connection when all are in use
+     *  @param units Units of the duration
+     */
+    public void setTimeout(final long duration, final TimeUnit units)
+    {
+        timeout_nanos = units.toNanos(duration);
+    }
+
+    /** Obtain database connection for the calling thread
+     *
+     *  <p>Must be followed by <code>releaseConnection()</code>
+     *  from the same thread.
+     *
+     *  @return JDBC {@link Connection}
+     *  @throws Exception on error connecting to the RDB,
+     *          or timeout waiting for a connection
+     */
+    public Connection getConnection() throws Exception
+    {
+        Entry entry = held.get();
+        if (entry != null)
+        {
+            if (! entry.connection.isClosed())
+                return entry.connection;
+            validation_failures.incrementAndGet();
+            try
+            {
+                entry = replace(entry);
+            }
+            catch (Exception ex)
+            {   // Thread no longer holds a connection,
+                // and the one counted as 'open' is closed
+                held.remove();
+                last.remove();
+                synchronized (idle)
+                {
+                    --open;
+                    idle.notifyAll();
+                }
+                throw ex;
+            }
+        }
+        else
+            entry = borrow();
+        held.set(entry);
+        last.set(entry);
+        return entry.connection;
+    }
+
+    /** Release connection of the calling thread,
+     *  allowing other threads to use it.
+     *  Does nothing if the thread does not hold a connection.
+     */
+    public void releaseConnection()
+    {
+        final Entry entry = held.get();
+        if (entry == null)
+            return;
+        held.remove();
+        synchronized (idle)
+        {
+            if (! closed)
+            {
+                idle.addFirst(entry);
+                idle.notifyAll();
+                return;
+            }
+            --open;
+        }
+        close(entry);
+    }
+
+    /** Release connection of the calling thread
+     *  and forget which connection the thread used before.
+     *
+     *  <p>Threads that are re-used for other work,
+     *  for example threads of a cached thread pool,
+     *  must call this when they are done with the pool.
+     *  Otherwise the thread-local state keeps the connection
+     *  reachable for the lifetime of the thread,
+     *  even after the pool has been closed.
+     */
+    public void releaseThread()
+    {
+        releaseConnection();
+        last.remove();
+    }
+
+    /** @return Idle connection, or a new one
+     *  @throws Exception on error
+     */
+    private Entry borrow() throws Exception
+    {
+        final long start = System.nanoTime();
+        final Entry preferred = last.get();
+        Entry entry = null;
+        boolean create = false;
+        synchronized (idle)
+        {
+            boolean did_wait = false;
+            while (entry == null  &&  !create)
+            {
+                if (closed)
+                    throw new IllegalStateException(toString() + " is closed");
+                if (preferred != null  &&  idle.remove(preferred))
+                    entry = preferred;
+                else if (! idle.isEmpty())
+                    entry = idle.removeFirst();
+                else if (open < size)
+                {
+                    ++open;
+                    create = true;
+                }
+                else
+                {
+                    final long remaining = timeout_nanos - (System.nanoTime() - start);
+                    if (remaining <= 0)
+                        throw new Exception(toString() + " timeout waiting for connection");
+                    did_wait = true;
+                    TimeUnit.NANOSECONDS.timedWait(idle, remaining);
+                }
+            }
+            if (did_wait)
+            {
+                waited.incrementAndGet();
+                wait_nanos.addAndGet(System.nanoTime() - start);
+            }
+        }
+        borrowed.incrementAndGet();
+
+        try
+        {
+            if (create)
+                return connect();
+            if (entry.connection.isClosed())
+            {
+                validation_failures.incrementAndGet();
+                return replace(entry);
+            }
+            final long now = System.nanoTime();
+            if (now - entry.validated > validation_nanos)
+            {
+                validations.incrementAndGet();
+                if (! isValid(entry.connection))
+                {
+                    validation_failures.incrementAndGet();
+                    return replace(entry);
+                }
+                entry.validated = now;
+            }
+            return entry;
+        }
+        catch (Exception ex)
+        {   // Connection that was counted as 'open' failed
+            if (entry != null  &&  entry == preferred)
+                last.remove();
+            synchronized (idle)
+            {
+                --open;
+                idle.notifyAll();
+            }
+            throw ex;
+        }
+    }
+
+    /** @return New connection
+     *  @throws Exception on error
+     */
+    private Entry connect() throws Exception
+    {
+        Activator.getLogger().log(Level.FINE, "{0} connecting", this);
+        final Connection connection = impl.connect(url, user, password);
+        connection.setAutoCommit(true);
+        return new Entry(connection);
+    }
+
+    /** @param entry Entry with failed connection
+     *  @return Entry with new connection
+     *  @throws Exception on error
+     */
+    private Entry replace(final Entry entry) throws Exception
+    {
+        Activator.getLogger().log(Level.FINE, "{0} replaces connection that failed validation", this);
+        close(entry);
+        return connect();
+    }
+
+    /** @param connection Connection to check
+     *  @return <code>true</code> if test query succeeds
+     */
+    private boolean isValid(final Connection connection)
+    {
+        try
+        (
+            final PreparedStatement test = connection.prepareStatement(impl.getConnectionTestQuery());
+        )
+        {
+            test.execute();
+            return true;
+        }
+        catch (Exception ex)
+        {
+            return false;
+        }
+    }
+
+    /** @param entry Entry to close */
+    private void close(final Entry entry)
+    {
+        try
+        {
+            entry.connection.close();
+        }
+        catch (Throwable ex)
+        {
+            // Ignore, closing anyway
+        }
+    }
+
+    /** @return Number of times that a connection was obtained from the pool */
+    public long getBorrowCount()
+    {
+        return borrowed.get();
+    }
+
+    /** @return Number of times that <code>getConnection</code> had to wait for a connection */
+    public long getWaitCount()
+    {
+        return waited.get();
+    }
+
+    /** @return Total time in milliseconds spent waiting for connections */
+    public double getWaitMilliseconds()
+    {
+        return wait_nanos.get() / 1e6;
+    }
+
+    /** @return Number of times that a connection was validated */
+    public long getValidationCount()
+    {
+        return validations.get();
+    }
+
+    /** @return Number of connections that failed validation and were replaced */
+    public long getValidationFailures()
+    {
+        return validation_failures.get();
+    }
+
+    /** Close the pool
+     *
+     *  <p>Closes idle connections.
+     *  Connections that are still in use will be closed
+     *  when they are released.
+     */
+    public void close()
+    {
+        Activator.getLogger().log(Level.FINE, "{0} closes", this);
+        final Entry[] entries;
+        synchronized (idle)
+        {
+            closed = true;
+            entries = idle.toArray(new Entry[idle.size()]);
+            open -= entries.length;
+            idle.clear();
+            idle.notifyAll();
+        }
+        for (Entry entry : entries)
+            close(entry);
+    }
+
+    /** @return String representation for debugging */
+    @Override
+    public String toString()
+    {
+        return "RDB Pool of " + size + " for " + url;
+    }
+
+    /** @return Pool metrics */
+    public String getStatistics()
+    {
+        final int open_count, idle_count;
+        synchronized (idle)
+        {
+            open_count = open;
+            idle_count = idle.size();
+        }
+        return String.format("%s: %d open, %d idle, %d borrowed, %d waited for %.1f ms, %d validated, %d failed validation",
+                             toString(), open_count, idle_count, getBorrowCount(),
+                             getWaitCount(), getWaitMilliseconds(),
+                             getValidationCount(), getValidationFailures());
+    }
+}
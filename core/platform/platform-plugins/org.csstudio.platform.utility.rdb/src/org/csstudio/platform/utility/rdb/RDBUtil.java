@@ -10,6 +10,7 @@ package org.csstudio.platform.utility.rdb;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 import org.csstudio.platform.utility.rdb.internal.MySQL_RDB;
@@ -26,7 +27,15 @@ import org.csstudio.platform.utility.rdb.internal.RDBImpl;
  *  While this simplifies the code for clients that need to perform transactions
  *  every once in a while over a long run time, the connection test can be
  *  expensive for a short flurry of transactions.
- *  It can therefore be suppressed via <code>setAutoReconnect()</code>.
+ *  The connection is therefore only tested with a query once the validation
+ *  period has passed since the last test, see <code>setValidationPeriod()</code>.
+ *  Within that period, only a closed connection is detected.
+ *  The test can also be suppressed via <code>setAutoReconnect()</code>.
+ *  <p>
+ *  In pooled mode, see <code>connectPool()</code>, each thread
+ *  obtains its own connection from an {@link RDBConnectionPool}
+ *  and thus multiple threads can execute statements concurrently.
+ *  Threads must call <code>releaseConnection()</code> when done.
  *  <p>
  *  Note that versions 1.6.0 and earlier of this plugin defaulted
  *  to turning auto-commit <u>off</u>.
@@ -69,6 +78,9 @@ public class RDBUtil
     /** Connection to the SQL server */
     private Connection connection;
 
+    /** Pool of connections in pooled mode, else <code>null</code> */
+    final private RDBConnectionPool pool;
+
     /** Database dialect.
      *  For starters, the connection mechanisms vary, and since
      *  SQL isn't fully normed, there might be more differences
@@ -90,6 +102,12 @@ public class RDBUtil
     /** Statement used to check the connection */
     private PreparedStatement test_query;
 
+    /** Period in nanoseconds after which the connection is tested again */
+    private long validation_nanos = TimeUnit.SECONDS.toNanos(RDBConnectionPool.DEFAULT_VALIDATION_SECONDS);
+
+    /** Time in nanoseconds when the connection was last tested */
+    private long validated;
+
     /** Connect with only a url.
      */
     public static RDBUtil connect(final String url) throws Exception
@@ -143,6 +161,28 @@ public class RDBUtil
         return new RDBUtil(url, user, password, getRDBImpl(url), autoReconnect);
     }
 
+    /** Connect to the database with a pool of connections.
+     *  <p>
+     *  Each thread that calls <code>getConnection()</code> receives
+     *  its own connection, which it needs to return
+     *  via <code>releaseConnection()</code>.
+     *
+     *  @param url Database URL, see {@link #connect(String, String, String, boolean)}
+     *  @param user User name or <code>null</code> if part of URL
+     *  @param password Password or <code>null</code> if part of URL
+     *  @param pool_size Maximum number of connections
+     *  @return RDBUtil
+     *  @throws Exception on error
+     *  @see #close()
+     */
+    public static RDBUtil connectPool(final String url,
+            final String user, final String password, final int pool_size) throws Exception
+    {
+        Activator.getLogger().log(Level.FINE, "RDBUtil connects to {0} with pool of {1}",
+                                  new Object[] { url, pool_size });
+        return new RDBUtil(url, user, password, new RDBConnectionPool(url, user, password, pool_size));
+    }
+
     /** Obtain RDB implementation based on URL
      *  @param url RDB URL, used to determine the RDB {@link Dialect}
      *  @return {@link RDBImpl}
@@ -176,11 +216,35 @@ public class RDBUtil
         this.password = password;
         this.autoReconnect = autoReconnect;
         this.impl = impl;
+        this.pool = null;
         this.connection = impl.connect(url, user, password);
         // Auto-commit is the default, but just to make sure:
         connection.setAutoCommit(true);
         if(autoReconnect)
             test_query = connection.prepareStatement(impl.getConnectionTestQuery());
+        validated = System.nanoTime();
+    }
+
+    /** Constructor for pooled mode.
+     *  @param url Database URL
+     *  @param user ... user
+     *  @param password ... password
+     *  @param pool Pool of connections
+     *  @throws Exception on error
+     *  @see #connectPool(String, String, String, int)
+     */
+    private RDBUtil(final String url, final String user, final String password,
+                    final RDBConnectionPool pool) throws Exception
+    {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.autoReconnect = true;
+        this.impl = RDBUtil.getRDBImpl(url);
+        this.pool = pool;
+        // Check that a connection can be established
+        pool.getConnection();
+        pool.releaseConnection();
     }
 
     /** @return Dialect info. */
@@ -189,12 +253,35 @@ public class RDBUtil
         return impl.getDialect();
     }
 
+    /** @return Connection pool in pooled mode, otherwise <code>null</code> */
+    public RDBConnectionPool getConnectionPool()
+    {
+        return pool;
+    }
+
+    /** @param duration Period after which the connection is tested again
+     *                  before it's returned by <code>getConnection()</code>.
+     *                  0 to test it on each call.
+     *  @param units Units of the duration
+     */
+    public void setValidationPeriod(final long duration, final TimeUnit units)
+    {
+        if (pool != null)
+            pool.setValidationPeriod(duration, units);
+        else
+            validation_nanos = units.toNanos(duration);
+    }
+
     /** Temporarily disable or later re-enable the auto-reconnect feature.
+     *  <p>
+     *  Has no effect in pooled mode, where the pool validates its connections.
      *  @param auto_reconnect <code>false</code> to disable, <code>true</code> to re-enable
      *  @throws Exception if this RDBUtil was not created with auto-reconnect support
      */
     public void setAutoReconnect(final boolean auto_reconnect) throws Exception
     {
+        if (pool != null)
+            return;
         if (test_query == null)
             throw new IllegalStateException("Auto-reconnect support not available");
         autoReconnect = auto_reconnect;
@@ -212,12 +299,18 @@ public class RDBUtil
      *  very routine to close the connection and then attempt
      *  a re-connect - which failed and left the connection as null.
      *
+     *  <p>
+     *  In pooled mode, the connection belongs to the calling thread
+     *  until it calls <code>releaseConnection()</code>.
+     *
      *  @return SQL connection. In auto-reconnect mode this should never be
      *          <code>null</code>: Either a valid connection or an exception.
      *  @throws Exception when necessary re-connection fails
      */
     public Connection getConnection() throws Exception
     {
+        if (pool != null)
+            return pool.getConnection();
         if (autoReconnect)
         {
             if ((connection != null) && isConnected())
@@ -228,14 +321,45 @@ public class RDBUtil
             connection = impl.connect(url, user, password);
             connection.setAutoCommit(false);
             test_query = connection.prepareStatement(impl.getConnectionTestQuery());
+            validated = System.nanoTime();
         }
         return connection;
     }
 
+    /** Release the connection obtained by the calling thread.
+     *  <p>
+     *  In pooled mode, this allows other threads to use the connection.
+     *  Otherwise, this has no effect.
+     */
+    public void releaseConnection()
+    {
+        if (pool != null)
+            pool.releaseConnection();
+    }
+
+    /** Release the connection obtained by the calling thread,
+     *  and any other state that the pool keeps for the thread.
+     *  <p>
+     *  In pooled mode, threads that are re-used for other work
+     *  call this when done with the RDBUtil.
+     *  Otherwise, this has no effect.
+     *  @see RDBConnectionPool#releaseThread()
+     */
+    public void releaseThread()
+    {
+        if (pool != null)
+            pool.releaseThread();
+    }
+
     /** Close the RDB connection. */
     public void close()
     {
         Activator.getLogger().log(Level.FINE, "RDBUtil closes {0}", url);
+        if (pool != null)
+        {
+            pool.close();
+            return;
+        }
         try
         {
             if (autoReconnect)
@@ -255,7 +379,7 @@ public class RDBUtil
     }
 
     /** Determine if the connection is still usable by executing a simple
-     *  statement.
+     *  statement, unless that was already done within the validation period.
      *  @return <code>true</code> if connection still OK
      *  @see #getConnectionTestQuery()
      */
@@ -263,7 +387,13 @@ public class RDBUtil
     {
         try
         {
+            if (connection.isClosed())
+                return false;
+            final long now = System.nanoTime();
+            if (now - validated <= validation_nanos)
+                return true;
             test_query.execute();
+            validated = now;
         }
         catch (final SQLException e)
         {